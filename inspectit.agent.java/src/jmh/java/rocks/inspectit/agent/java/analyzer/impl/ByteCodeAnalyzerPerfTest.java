@@ -0,0 +1,404 @@
+package rocks.inspectit.agent.java.analyzer.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.ConnectException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.connection.IConnection;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
+import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
+import rocks.inspectit.agent.java.io.FileResolver;
+import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.agent.java.spring.PrototypesProvider;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.message.IAgentMessage;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
+import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
+import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
+import rocks.inspectit.shared.all.instrumentation.config.impl.JmxAttributeDescriptor;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+
+/**
+ * Startup performance test for the {@link ByteCodeAnalyzer} using JMH framework. One benchmark
+ * invocation loads a set of JDK classes against a local stand-in CMR that answers every call after
+ * the given latency. The <i>cold</i> startup has no local instrumentation cache, while the
+ * <i>cached</i> startup loads the cache saved by the {@link ClassHashHelper} from disk and thus
+ * needs no blocking round trips.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class ByteCodeAnalyzerPerfTest {
+
+	/**
+	 * Classes loaded in one startup.
+	 */
+	private static final Class<?>[] CLASSES = { java.util.AbstractCollection.class, java.util.AbstractList.class, java.util.AbstractMap.class, java.util.AbstractQueue.class,
+			java.util.AbstractSequentialList.class, java.util.AbstractSet.class, java.util.ArrayDeque.class, java.util.ArrayList.class, java.util.Arrays.class, java.util.BitSet.class,
+			java.util.Calendar.class, java.util.Collections.class, java.util.Currency.class, java.util.Date.class, java.util.EnumMap.class, java.util.EnumSet.class, java.util.EventObject.class,
+			java.util.Formatter.class, java.util.GregorianCalendar.class, java.util.HashMap.class, java.util.HashSet.class, java.util.Hashtable.class, java.util.IdentityHashMap.class,
+			java.util.LinkedHashMap.class, java.util.LinkedHashSet.class, java.util.LinkedList.class, java.util.Locale.class, java.util.Observable.class, java.util.PriorityQueue.class,
+			java.util.Properties.class, java.util.Random.class, java.util.Scanner.class, java.util.Stack.class, java.util.StringTokenizer.class, java.util.Timer.class, java.util.TimeZone.class,
+			java.util.TreeMap.class, java.util.TreeSet.class, java.util.UUID.class, java.util.Vector.class, java.util.WeakHashMap.class, java.util.concurrent.ArrayBlockingQueue.class,
+			java.util.concurrent.ConcurrentHashMap.class, java.util.concurrent.ConcurrentLinkedQueue.class, java.util.concurrent.ConcurrentSkipListMap.class,
+			java.util.concurrent.CopyOnWriteArrayList.class, java.util.concurrent.CountDownLatch.class, java.util.concurrent.CyclicBarrier.class, java.util.concurrent.DelayQueue.class,
+			java.util.concurrent.Exchanger.class, java.util.concurrent.Executors.class, java.util.concurrent.FutureTask.class, java.util.concurrent.LinkedBlockingDeque.class,
+			java.util.concurrent.LinkedBlockingQueue.class, java.util.concurrent.PriorityBlockingQueue.class, java.util.concurrent.ScheduledThreadPoolExecutor.class,
+			java.util.concurrent.Semaphore.class, java.util.concurrent.SynchronousQueue.class, java.util.concurrent.ThreadPoolExecutor.class, java.util.concurrent.TimeUnit.class };
+
+	/**
+	 * Latency of every call to the stand-in CMR in microseconds.
+	 */
+	@Param({ "100", "1000" })
+	private long latencyMicros;
+
+	/**
+	 * If the startup is cold or uses the local instrumentation cache.
+	 */
+	@Param({ "cold", "cached" })
+	private String startup;
+
+	/**
+	 * Byte code of the {@link #CLASSES}.
+	 */
+	private byte[][] byteCodes;
+
+	/**
+	 * Directory holding the cache files.
+	 */
+	private File cacheDir;
+
+	/**
+	 * Stand-in CMR.
+	 */
+	private StandInCmrConnection connection;
+
+	/**
+	 * Executor service used by the analyzer and helper.
+	 */
+	private ScheduledExecutorService executorService;
+
+	/**
+	 * Class hash helper of the current startup.
+	 */
+	private ClassHashHelper classHashHelper;
+
+	/**
+	 * Analyzer of the current startup.
+	 */
+	private ByteCodeAnalyzer byteCodeAnalyzer;
+
+	@Setup(Level.Trial)
+	public void init() throws Exception {
+		byteCodes = new byte[CLASSES.length][];
+		for (int i = 0; i < CLASSES.length; i++) {
+			byteCodes[i] = ByteStreams.toByteArray(ClassLoader.getSystemResourceAsStream(CLASSES[i].getName().replace('.', '/') + ".class"));
+		}
+		cacheDir = Files.createTempDir();
+		connection = new StandInCmrConnection();
+
+		// run one startup to fill the local cache
+		startAgent();
+		runStartup(null);
+		stopAgent();
+	}
+
+	@Setup(Level.Iteration)
+	public void startAgent() throws Exception {
+		if ("cold".equals(startup)) {
+			for (File file : cacheDir.listFiles()) {
+				file.delete();
+			}
+		}
+
+		executorService = Executors.newScheduledThreadPool(1);
+
+		IConfigurationStorage configurationStorage = stub(IConfigurationStorage.class);
+		IPlatformManager platformManager = new IPlatformManager() {
+			@Override
+			public boolean isPlatformRegistered() {
+				return true;
+			}
+
+			@Override
+			public long getPlatformId() {
+				return 1L;
+			}
+
+			@Override
+			public void unregisterPlatform() {
+			}
+		};
+		final SerializationManager serializationManager = createSerializer();
+		classHashHelper = new ClassHashHelper();
+		classHashHelper.log = LoggerFactory.getLogger(ClassHashHelper.class);
+		setField(classHashHelper, "configurationStorage", configurationStorage);
+		setField(classHashHelper, "platformManager", platformManager);
+		setField(classHashHelper, "executorService", executorService);
+		setField(classHashHelper, "prototypesProvider", new PrototypesProvider() {
+			@Override
+			public SerializationManager createSerializer() {
+				return serializationManager;
+			}
+		});
+		setField(classHashHelper, "fileResolver", new FileResolver() {
+			@Override
+			public File getClassHashCacheFile() {
+				return new File(cacheDir, "sendingClasses.cache");
+			}
+
+			@Override
+			public File getInstrumentationCacheFile() {
+				return new File(cacheDir, "instrumentationDefinitions.cache");
+			}
+		});
+		classHashHelper.afterPropertiesSet();
+
+		byteCodeAnalyzer = new ByteCodeAnalyzer();
+		byteCodeAnalyzer.log = LoggerFactory.getLogger(ByteCodeAnalyzer.class);
+		setField(byteCodeAnalyzer, "platformManager", platformManager);
+		setField(byteCodeAnalyzer, "configurationStorage", configurationStorage);
+		setField(byteCodeAnalyzer, "connection", connection);
+		setField(byteCodeAnalyzer, "hookDispatcherMapper", stub(IHookDispatcherMapper.class));
+		setField(byteCodeAnalyzer, "classHashHelper", classHashHelper);
+		setField(byteCodeAnalyzer, "executorService", executorService);
+		InstrumenterFactory instrumenterFactory = new InstrumenterFactory();
+		setField(instrumenterFactory, "methodSensors", Collections.<IMethodSensor> emptyList());
+		setField(byteCodeAnalyzer, "instrumenterFactory", instrumenterFactory);
+		setField(byteCodeAnalyzer, "methodSensors", Collections.<IMethodSensor> emptyList());
+		byteCodeAnalyzer.afterPropertiesSet();
+	}
+
+	@TearDown(Level.Iteration)
+	public void stopAgent() throws Exception {
+		executorService.shutdown();
+		executorService.awaitTermination(10, TimeUnit.SECONDS);
+		classHashHelper.destroy();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteCache() {
+		for (File file : cacheDir.listFiles()) {
+			file.delete();
+		}
+		cacheDir.delete();
+	}
+
+	/**
+	 * Loads all the classes.
+	 */
+	@Benchmark
+	public void startup(Blackhole blackhole) {
+		runStartup(blackhole);
+	}
+
+	/**
+	 * Analyzes all the classes with the current analyzer.
+	 *
+	 * @param blackhole
+	 *            Blackhole to consume results or <code>null</code>.
+	 */
+	private void runStartup(Blackhole blackhole) {
+		for (int i = 0; i < CLASSES.length; i++) {
+			byte[] result = byteCodeAnalyzer.analyzeAndInstrument(byteCodes[i], CLASSES[i].getName(), null);
+			if (null != blackhole) {
+				blackhole.consume(result);
+			}
+		}
+	}
+
+	/**
+	 * Creates the serialization manager the same way as the Spring context does.
+	 *
+	 * @return {@link SerializationManager}
+	 * @throws IOException
+	 *             If schemas can not be loaded.
+	 */
+	private static SerializationManager createSerializer() throws IOException {
+		ClassSchemaManager schemaManager = new ClassSchemaManager();
+		schemaManager.setLog(LoggerFactory.getLogger(ClassSchemaManager.class));
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+
+		SerializationManager serializationManager = new SerializationManager();
+		serializationManager.setSchemaManager(schemaManager);
+		serializationManager.setKryoNetNetwork(new KryoNetNetwork());
+		serializationManager.initKryo();
+		return serializationManager;
+	}
+
+	/**
+	 * Sets the value of the (autowired) field.
+	 *
+	 * @param target
+	 *            Object to set field on.
+	 * @param name
+	 *            Field name.
+	 * @param value
+	 *            Value to set.
+	 * @throws Exception
+	 *             If field can not be set.
+	 */
+	private static void setField(Object target, String name, Object value) throws Exception {
+		Field field = target.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+
+	/**
+	 * Creates stub for the interface that returns default values for all methods.
+	 *
+	 * @param <T>
+	 *            Type of interface.
+	 * @param interfaceClass
+	 *            Interface to stub.
+	 * @return Stub.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> interfaceClass) {
+		return (T) Proxy.newProxyInstance(interfaceClass.getClassLoader(), new Class<?>[] { interfaceClass }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				Class<?> returnType = method.getReturnType();
+				if ("isClassCacheExistsOnCmr".equals(method.getName())) {
+					// the stand-in CMR keeps the classes of the agent between the startups
+					return Boolean.TRUE;
+				} else if (Boolean.TYPE.equals(returnType)) {
+					return Boolean.FALSE;
+				} else if (Long.TYPE.equals(returnType)) {
+					return Long.valueOf(0L);
+				} else if (Integer.TYPE.equals(returnType)) {
+					return Integer.valueOf(0);
+				} else if (Map.class.equals(returnType)) {
+					return Collections.emptyMap();
+				}
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Connection to a local stand-in CMR that waits for the given latency on every analyze call
+	 * and reports that nothing should be instrumented.
+	 *
+	 * @author agent
+	 *
+	 */
+	private class StandInCmrConnection implements IConnection {
+
+		/**
+		 * Simulates the round trip to the CMR.
+		 */
+		private void roundTrip() {
+			LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+		}
+
+		@Override
+		public void connect(String host, int port) throws ConnectException {
+		}
+
+		@Override
+		public void reconnect() throws ConnectException {
+		}
+
+		@Override
+		public void disconnect() {
+		}
+
+		@Override
+		public boolean isConnected() {
+			return true;
+		}
+
+		@Override
+		public void sendKeepAlive(long platformId) {
+		}
+
+		@Override
+		public boolean sendDataObjects(List<? extends DefaultData> dataObjects) {
+			return true;
+		}
+
+		@Override
+		public AgentConfig register(String agentName, String version) {
+			return null;
+		}
+
+		@Override
+		public void unregister(long platformIdent) {
+		}
+
+		@Override
+		public InstrumentationDefinition analyze(long platformIdent, String hash, Type type) {
+			roundTrip();
+			return null;
+		}
+
+		@Override
+		public Map<String, InstrumentationDefinition> analyzeTypes(long platformIdent, Map<String, Type> hashAndTypes) {
+			roundTrip();
+			return Collections.emptyMap();
+		}
+
+		@Override
+		public void instrumentationApplied(long platformIdent, Map<Long, long[]> methodToSensorMap) {
+		}
+
+		@Override
+		public Collection<JmxAttributeDescriptor> analyzeJmxAttributes(long platformIdent, Collection<JmxAttributeDescriptor> attributeDescriptors) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public List<IAgentMessage<?>> fetchAgentMessages(long platformIdent) {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Object getReconnectionMonitor() {
+			return this;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package rocks.inspectit.agent.java.config.impl;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import rocks.inspectit.agent.java.config.PropertyAccessException;
+import rocks.inspectit.shared.all.communication.data.ParameterContentType;
+import rocks.inspectit.shared.all.instrumentation.config.impl.PropertyPath;
+import rocks.inspectit.shared.all.instrumentation.config.impl.PropertyPathStart;
+
+/**
+ * Performance test of the {@link PropertyAccessor} with the cached property access against the
+ * reflective lookup of the fields on every access (the way property accessor worked before the
+ * caching was introduced).
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class PropertyAccessorPerfTest {
+
+	@Param({ "1", "2", "3" })
+	private int depth;
+
+	private PropertyAccessor propertyAccessor;
+
+	private PropertyPathStart start;
+
+	private Object[] parameters;
+
+	@Setup(Level.Trial)
+	public void init() {
+		propertyAccessor = new PropertyAccessor();
+		propertyAccessor.log = LoggerFactory.getLogger(PropertyAccessor.class);
+
+		start = new PropertyPathStart();
+		start.setName("param");
+		start.setContentType(ParameterContentType.PARAM);
+		start.setSignaturePosition(0);
+
+		// depth - 1 times child, then the name
+		PropertyPath last = null;
+		for (int i = 0; i < depth; i++) {
+			PropertyPath path = new PropertyPath((i == (depth - 1)) ? "name" : "child");
+			if (null == last) {
+				start.setPathToContinue(path);
+			} else {
+				last.setPathToContinue(path);
+			}
+			last = path;
+		}
+
+		Node node = new Node("leaf", null);
+		for (int i = 1; i < depth; i++) {
+			node = new Node("node" + i, node);
+		}
+		parameters = new Object[] { node };
+	}
+
+	@Benchmark
+	public String cached() throws PropertyAccessException {
+		return propertyAccessor.getPropertyContent(start, null, parameters, null, false);
+	}
+
+	@Benchmark
+	public String reflective() throws PropertyAccessException {
+		return reflectiveContent(start.getPathToContinue(), parameters[start.getSignaturePosition()]);
+	}
+
+	/**
+	 * Field lookup done on every access.
+	 */
+	private static String reflectiveContent(PropertyPath propertyPath, Object object) throws PropertyAccessException {
+		if (null == object) {
+			return "null";
+		}
+		if (null == propertyPath) {
+			return object.toString();
+		}
+
+		Class<?> c = object.getClass();
+		do {
+			for (Field field : c.getDeclaredFields()) {
+				if (propertyPath.getName().equals(field.getName())) {
+					try {
+						field.setAccessible(true);
+						return reflectiveContent(propertyPath.getPathToContinue(), field.get(object));
+					} catch (IllegalAccessException e) {
+						throw new PropertyAccessException("Illegal Access Exception!", e);
+					}
+				}
+			}
+			c = c.getSuperclass();
+		} while (c != Object.class);
+
+		throw new PropertyAccessException("Property " + propertyPath.getName() + " cannot be found!");
+	}
+
+	@SuppressWarnings("unused")
+	private static class Node {
+
+		private final String name;
+
+		private final Node child;
+
+		Node(String name, Node child) {
+			this.name = name;
+			this.child = child;
+		}
+
+	}
+}
@@ -0,0 +1,290 @@
+package rocks.inspectit.agent.java.connection.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.kryonet.CompressedFrameCodec;
+import rocks.inspectit.shared.all.kryonet.ExtendedSerializationImpl;
+import rocks.inspectit.shared.all.kryonet.IExtendedSerialization;
+import rocks.inspectit.shared.all.serializer.ISerializerProvider;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+
+/**
+ * Performance test of the agent to CMR transport formats using JMH framework. One benchmark
+ * invocation writes (or reads) one batch of invocation sequences the way the agent sends them,
+ * either in <i>plain</i> Kryo format or in the <i>compressed</i> format that uses the
+ * per-connection string dictionary and deflate. The written bytes are reported as the
+ * <code>bytes</code> counter, thus the result shows batches/s and bytes/s. As the benchmark runs
+ * in a single thread the inverse of the batch throughput is the CPU time per batch.
+ * <p>
+ * The batches are built from a limited set of SQL statements, URLs and parameter values, so the
+ * strings repeat the same way as in a monitored application. The dictionary is filled with the
+ * first batch, the benchmark measures the steady state afterwards.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class CompressedTransportPerfTest {
+
+	/**
+	 * SQL statements used in the invocations.
+	 */
+	private static final String[] SQLS = { "SELECT o.ID, o.CUSTOMER_ID, o.STATUS, o.TOTAL FROM ORDERS o WHERE o.CUSTOMER_ID = ? AND o.STATUS = ?",
+			"SELECT i.ID, i.ORDER_ID, i.PRODUCT_ID, i.QUANTITY, i.PRICE FROM ORDER_ITEMS i WHERE i.ORDER_ID = ?", "UPDATE ORDERS SET STATUS = ?, MODIFIED = ? WHERE ID = ?",
+			"INSERT INTO AUDIT_LOG (ID, ENTITY, ENTITY_ID, ACTION, USER_NAME, CREATED) VALUES (?, ?, ?, ?, ?, ?)", "SELECT c.ID, c.NAME, c.EMAIL, c.SEGMENT FROM CUSTOMERS c WHERE c.ID = ?",
+			"SELECT p.ID, p.NAME, p.CATEGORY, p.PRICE, p.STOCK FROM PRODUCTS p WHERE p.CATEGORY = ? ORDER BY p.NAME" };
+
+	/**
+	 * Parameter values used in the SQL statements.
+	 */
+	private static final String[] PARAMETERS = { "OPEN", "SHIPPED", "CANCELLED", "admin", "ORDER", "books", "electronics", "1001", "1002", "1003" };
+
+	/**
+	 * Transport format.
+	 */
+	@Param({ "plain", "compressed" })
+	private String transport;
+
+	/**
+	 * Amount of invocation sequences in one batch.
+	 */
+	@Param({ "10", "100" })
+	private int invocations;
+
+	/**
+	 * Amount of nodes in one invocation sequence.
+	 */
+	@Param({ "50" })
+	private int nodes;
+
+	/**
+	 * Serialization used.
+	 */
+	private IExtendedSerialization serialization;
+
+	/**
+	 * Codec of the sending side.
+	 */
+	private CompressedFrameCodec writingCodec;
+
+	/**
+	 * Codec of the receiving side.
+	 */
+	private CompressedFrameCodec readingCodec;
+
+	/**
+	 * Batch to send.
+	 */
+	private List<DefaultData> batch;
+
+	/**
+	 * Batch written in steady state for the read benchmark.
+	 */
+	private byte[] writtenBatch;
+
+	/**
+	 * Stream to write to.
+	 */
+	private ByteArrayOutputStream outputStream;
+
+	/**
+	 * Counter of the written bytes.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters
+	public static class WrittenBytes {
+
+		/**
+		 * Amount of written bytes in the iteration.
+		 */
+		public long bytes; // NOPMD
+
+		/**
+		 * Resets the counter.
+		 */
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	/**
+	 * Builds the batch and primes the dictionaries with the first batch.
+	 *
+	 * @throws IOException
+	 *             If schemas can not be loaded.
+	 */
+	@Setup(Level.Trial)
+	public void init() throws IOException {
+		final ClassSchemaManager schemaManager = new ClassSchemaManager();
+		schemaManager.setLog(LoggerFactory.getLogger(ClassSchemaManager.class));
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+
+		serialization = new ExtendedSerializationImpl(new ISerializerProvider<SerializationManager>() {
+			@Override
+			public SerializationManager createSerializer() {
+				SerializationManager serializationManager = new SerializationManager();
+				serializationManager.setSchemaManager(schemaManager);
+				serializationManager.setKryoNetNetwork(new KryoNetNetwork());
+				serializationManager.initKryo();
+				return serializationManager;
+			}
+		}, 1);
+		writingCodec = new CompressedFrameCodec();
+		readingCodec = new CompressedFrameCodec();
+		outputStream = new ByteArrayOutputStream();
+
+		Random random = new Random(7L);
+		batch = createBatch(random);
+
+		// first batch fills the dictionaries
+		readingCodec.read(serialization, null, new ByteArrayInputStream(write(createBatch(random))));
+		writtenBatch = write(batch);
+	}
+
+	/**
+	 * Writes one batch.
+	 *
+	 * @param writtenBytes
+	 *            Counter of the written bytes.
+	 * @return Amount of written bytes.
+	 * @throws IOException
+	 *             If writing fails.
+	 */
+	@Benchmark
+	public int write(WrittenBytes writtenBytes) throws IOException {
+		int size = write(batch).length;
+		writtenBytes.bytes += size;
+		return size;
+	}
+
+	/**
+	 * Reads one batch.
+	 *
+	 * @return Read batch.
+	 * @throws IOException
+	 *             If reading fails.
+	 */
+	@Benchmark
+	public Object read() throws IOException {
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(writtenBatch);
+		if ("compressed".equals(transport)) {
+			return readingCodec.read(serialization, null, inputStream);
+		} else {
+			return serialization.read(null, inputStream);
+		}
+	}
+
+	/**
+	 * Writes the object with the transport format of the benchmark.
+	 *
+	 * @param object
+	 *            Object to write.
+	 * @return Written bytes.
+	 * @throws IOException
+	 *             If writing fails.
+	 */
+	private byte[] write(Object object) throws IOException {
+		outputStream.reset();
+		if ("compressed".equals(transport)) {
+			writingCodec.write(serialization, null, outputStream, object);
+		} else {
+			serialization.write(null, outputStream, object);
+		}
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Creates the batch of invocation sequences.
+	 *
+	 * @param random
+	 *            Random for the values.
+	 * @return Batch.
+	 */
+	private List<DefaultData> createBatch(Random random) {
+		List<DefaultData> result = new ArrayList<DefaultData>(invocations);
+		for (int i = 0; i < invocations; i++) {
+			result.add(createInvocation(random));
+		}
+		return result;
+	}
+
+	/**
+	 * Creates one invocation sequence with the {@link #nodes} children, every fifth child is a SQL
+	 * statement, the others are timers.
+	 *
+	 * @param random
+	 *            Random for the values.
+	 * @return Invocation sequence.
+	 */
+	private InvocationSequenceData createInvocation(Random random) {
+		Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+		InvocationSequenceData root = new InvocationSequenceData(timestamp, 1L, 1L, 1L + random.nextInt(20));
+		root.setDuration(random.nextDouble() * 1000);
+		List<InvocationSequenceData> nestedSequences = new ArrayList<InvocationSequenceData>(nodes);
+		for (int i = 0; i < nodes; i++) {
+			long methodIdent = 1L + random.nextInt(200);
+			InvocationSequenceData child = new InvocationSequenceData(timestamp, 1L, 1L, methodIdent);
+			child.setParentSequence(root);
+			child.setPosition(i);
+			child.setDuration(random.nextDouble() * 10);
+			if ((i % 5) == 0) {
+				// sensors create new string instances for every measurement
+				String sql = new String(SQLS[random.nextInt(SQLS.length)]);
+				SqlStatementData sqlStatementData = new SqlStatementData(timestamp, 1L, 2L, methodIdent, sql, new String("jdbc:postgresql://db.example.com:5432/shop"), "9.6.3", "PostgreSQL");
+				sqlStatementData.setPreparedStatement(true);
+				sqlStatementData.setParameterValues(Arrays.asList(new String(PARAMETERS[random.nextInt(PARAMETERS.length)]), new String(PARAMETERS[random.nextInt(PARAMETERS.length)])));
+				sqlStatementData.setDuration(random.nextDouble() * 5);
+				sqlStatementData.setCount(1L);
+				child.setSqlStatementData(sqlStatementData);
+			} else {
+				TimerData timerData = new TimerData(timestamp, 1L, 3L, methodIdent);
+				timerData.setDuration(random.nextDouble() * 10);
+				timerData.setCpuDuration(random.nextDouble() * 10);
+				timerData.setCount(1L);
+				child.setTimerData(timerData);
+			}
+			nestedSequences.add(child);
+		}
+		root.setNestedSequences(nestedSequences);
+		root.setChildCount(nodes);
+		return root;
+	}
+
+}
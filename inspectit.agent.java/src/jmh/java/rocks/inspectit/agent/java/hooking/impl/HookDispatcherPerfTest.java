@@ -0,0 +1,197 @@
+package rocks.inspectit.agent.java.hooking.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.hooking.IHook;
+import rocks.inspectit.agent.java.hooking.IMethodHook;
+import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodSensorTypeConfig;
+
+/**
+ * Performance test of the {@link HookDispatcher} using JMH framework. One benchmark invocation is
+ * the round trip of an instrumented method call: before body, first after body and second after
+ * body dispatch. The <code>array</code> parameters mode creates the parameters array on every
+ * call the way the instrumented code does, the <code>none</code> mode passes <code>null</code> as
+ * done for methods where no sensor needs the parameters.
+ * <p>
+ * The sensors used are no-op, thus the result shows the overhead of the dispatching itself. Run
+ * with <code>-prof gc</code> to see the allocation rate per round trip.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class HookDispatcherPerfTest {
+
+	/**
+	 * Id of the dispatched method.
+	 */
+	private static final long METHOD_ID = 1L;
+
+	/**
+	 * How parameters are passed to the dispatcher.
+	 */
+	@Param({ "array", "none" })
+	private String parameters;
+
+	/**
+	 * Amount of sensors on the method.
+	 */
+	@Param({ "1", "3" })
+	private int sensors;
+
+	/**
+	 * Dispatcher to test.
+	 */
+	private HookDispatcher hookDispatcher;
+
+	/**
+	 * If parameters array should be created.
+	 */
+	private boolean createParameters;
+
+	/**
+	 * Object the method is executed on.
+	 */
+	private final Object object = new Object();
+
+	/**
+	 * First argument of the method.
+	 */
+	private final String firstArgument = "argument";
+
+	/**
+	 * Second argument of the method.
+	 */
+	private final Long secondArgument = Long.valueOf(7L);
+
+	/**
+	 * Initializes the dispatcher with the method mapping.
+	 */
+	@Setup(Level.Trial)
+	public void init() {
+		hookDispatcher = new HookDispatcher();
+		hookDispatcher.log = LoggerFactory.getLogger(HookDispatcher.class);
+
+		RegisteredSensorConfig rsc = new RegisteredSensorConfig();
+		rsc.setId(METHOD_ID);
+		for (int i = 0; i < sensors; i++) {
+			rsc.addMethodSensor(new NoopMethodSensor(i));
+		}
+		hookDispatcher.addMapping(METHOD_ID, rsc);
+
+		createParameters = "array".equals(parameters);
+	}
+
+	/**
+	 * Dispatches the before and both after body calls of one method execution.
+	 *
+	 * @return Result of the method.
+	 */
+	@Benchmark
+	public Object roundTrip() {
+		Object[] params = null;
+		if (createParameters) {
+			params = new Object[] { firstArgument, secondArgument };
+		}
+		hookDispatcher.dispatchMethodBeforeBody(METHOD_ID, object, params);
+		if (createParameters) {
+			params = new Object[] { firstArgument, secondArgument };
+		}
+		hookDispatcher.dispatchFirstMethodAfterBody(METHOD_ID, object, params, firstArgument, false);
+		if (createParameters) {
+			params = new Object[] { firstArgument, secondArgument };
+		}
+		hookDispatcher.dispatchSecondMethodAfterBody(METHOD_ID, object, params, firstArgument, false);
+		return params;
+	}
+
+	/**
+	 * Method sensor with the hook that does nothing.
+	 */
+	private static class NoopMethodSensor implements IMethodSensor {
+
+		/**
+		 * Sensor type config.
+		 */
+		private final MethodSensorTypeConfig sensorTypeConfig = new MethodSensorTypeConfig();
+
+		/**
+		 * Hook.
+		 */
+		private final NoopMethodHook hook = new NoopMethodHook();
+
+		/**
+		 * @param id
+		 *            Sensor type id.
+		 */
+		NoopMethodSensor(long id) {
+			sensorTypeConfig.setId(id);
+		}
+
+		@Override
+		public IHook getHook() {
+			return hook;
+		}
+
+		@Override
+		public MethodSensorTypeConfig getSensorTypeConfig() {
+			return sensorTypeConfig;
+		}
+
+		@Override
+		public boolean isParametersRequired() {
+			return false;
+		}
+	}
+
+	/**
+	 * Hook that only counts the calls.
+	 */
+	private static class NoopMethodHook implements IMethodHook {
+
+		/**
+		 * Count of calls.
+		 */
+		private long calls;
+
+		@Override
+		public void beforeBody(long methodId, long sensorTypeId, Object object, Object[] parameters, RegisteredSensorConfig rsc) {
+			calls++;
+		}
+
+		@Override
+		public void firstAfterBody(long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) {
+			calls++;
+		}
+
+		@Override
+		public void secondAfterBody(ICoreService coreService, long methodId, long sensorTypeId, Object object, Object[] parameters, Object result, boolean exception, RegisteredSensorConfig rsc) { // NOCHK:8-params
+			calls++;
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
+import rocks.inspectit.agent.java.util.Timer;
+
+/**
+ * Performance test of the {@link InvocationSequenceHook} recording one sequence with the given
+ * amount of nodes. Nested invocations are opened in chains of five and then closed. When
+ * <code>filtered</code> is set, the min duration of the sequence is never reached, thus the
+ * sequence is recorded but never sent. Run with <code>-prof gc</code> to see the allocation rate
+ * per sequence.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class InvocationSequenceHookPerfTest {
+
+	/**
+	 * Depth of the chains of the nested invocations.
+	 */
+	private static final int CHAIN_DEPTH = 5;
+
+	/**
+	 * Amount of nodes in the sequence, including the root.
+	 */
+	@Param({ "500" })
+	private int nodes;
+
+	/**
+	 * If the sequence is filtered by the min duration.
+	 */
+	@Param({ "false", "true" })
+	private boolean filtered;
+
+	private InvocationSequenceHook hook;
+
+	private ICoreService coreService;
+
+	private RegisteredSensorConfig rootRsc;
+
+	private RegisteredSensorConfig nestedRsc;
+
+	/**
+	 * Last data object passed to the core service.
+	 */
+	private Object sent;
+
+	@Setup(Level.Trial)
+	public void init() {
+		IPlatformManager platformManager = proxy(IPlatformManager.class, Long.valueOf(1L));
+		coreService = proxy(ICoreService.class, null);
+		hook = new InvocationSequenceHook(new Timer(), platformManager, coreService, new TracerImpl(), null, Collections.<String, Object> emptyMap(), false);
+
+		rootRsc = new RegisteredSensorConfig();
+		Map<String, Object> settings = new HashMap<String, Object>();
+		if (filtered) {
+			settings.put("minduration", Long.valueOf(Long.MAX_VALUE));
+		}
+		rootRsc.setSettings(settings);
+
+		nestedRsc = new RegisteredSensorConfig();
+		nestedRsc.setSettings(Collections.<String, Object> emptyMap());
+	}
+
+	@Benchmark
+	public Object recordSequence() {
+		hook.beforeBody(0L, 1L, null, null, rootRsc);
+
+		long[] openMethods = new long[CHAIN_DEPTH];
+		int open = 0;
+		for (int i = 1; i < nodes; i++) {
+			long methodId = i;
+			hook.beforeBody(methodId, 1L, null, null, nestedRsc);
+			openMethods[open++] = methodId;
+			if (CHAIN_DEPTH == open) {
+				open = close(openMethods, open);
+			}
+		}
+		close(openMethods, open);
+
+		hook.firstAfterBody(0L, 1L, null, null, null, false, rootRsc);
+		hook.secondAfterBody(coreService, 0L, 1L, null, null, null, false, rootRsc);
+		return sent;
+	}
+
+	/**
+	 * Closes all open nested invocations.
+	 *
+	 * @param openMethods
+	 *            Method ids of the open invocations.
+	 * @param open
+	 *            Amount of open invocations.
+	 * @return Amount of open invocations after closing.
+	 */
+	private int close(long[] openMethods, int open) {
+		while (open > 0) {
+			long methodId = openMethods[--open];
+			hook.firstAfterBody(methodId, 1L, null, null, null, false, nestedRsc);
+			hook.secondAfterBody(coreService, methodId, 1L, null, null, null, false, nestedRsc);
+		}
+		return open;
+	}
+
+	/**
+	 * Creates the proxy of the given interface that remembers the last argument of every call and
+	 * returns the given value.
+	 *
+	 * @param <T>
+	 *            Interface type.
+	 * @param type
+	 *            Interface class.
+	 * @param returnValue
+	 *            Value to return from all methods.
+	 * @return Proxy.
+	 */
+	private <T> T proxy(Class<T> type, final Object returnValue) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ((null != args) && (args.length > 0)) {
+					sent = args[args.length - 1];
+				}
+				return returnValue;
+			}
+		}));
+	}
+}
@@ -0,0 +1,85 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+
+/**
+ * Multithreaded performance test of the {@link ITimerStorage} implementations, where all threads
+ * add data to the same storage (one hot method). The <code>synchronizedOptimized</code> storage
+ * shows the cost of making the {@link OptimizedTimerStorage} thread safe with a lock. Note that
+ * the {@link OptimizedTimerStorage} itself loses updates in this scenario.
+ * <p>
+ * The {@link AggregateTimerStorage} and {@link PlainTimerStorage} are not included as they keep
+ * every measurement and are not safe for concurrent usage.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class TimerStoragePerfTest {
+
+	@Param({ "optimized", "synchronizedOptimized", "striped" })
+	private String storageType;
+
+	private ITimerStorage storage;
+
+	@Setup(Level.Iteration)
+	public void init() {
+		if ("striped".equals(storageType)) {
+			storage = new StripedTimerStorage(null, 1L, 1L, 1L, null, false);
+		} else if ("synchronizedOptimized".equals(storageType)) {
+			storage = new SynchronizedTimerStorage(new OptimizedTimerStorage(null, 1L, 1L, 1L, null, false));
+		} else {
+			storage = new OptimizedTimerStorage(null, 1L, 1L, 1L, null, false);
+		}
+	}
+
+	@Benchmark
+	public void addData() {
+		storage.addData(12.5d, 3.2d);
+	}
+
+	/**
+	 * Storage delegating to another one with a lock.
+	 */
+	private static class SynchronizedTimerStorage implements ITimerStorage {
+
+		private final ITimerStorage delegate;
+
+		SynchronizedTimerStorage(ITimerStorage delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public synchronized void addData(double time, double cpuTime) {
+			delegate.addData(time, cpuTime);
+		}
+
+		@Override
+		public synchronized DefaultData finalizeDataObject() {
+			return delegate.finalizeDataObject();
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package rocks.inspectit.agent.java.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance test comparing the {@link ThreadLocalStack} with the primitive
+ * {@link ThreadLocalDoubleStack} and {@link ThreadLocalLongStack} the way the timer hooks use them:
+ * start values are pushed in the before body, end values in the first after body and both are
+ * popped in the second after body.
+ * <p>
+ * Run with the GC profiler (<code>-prof gc</code>) to verify that the primitive stacks do not
+ * allocate anything per before/after pair (<code>gc.alloc.rate.norm</code> equals 0).
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ThreadLocalStackPerfTest {
+
+	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+
+	private final ThreadLocalStack<Long> cpuTimeStack = new ThreadLocalStack<Long>();
+
+	private final ThreadLocalDoubleStack primitiveTimeStack = new ThreadLocalDoubleStack();
+
+	private final ThreadLocalLongStack primitiveCpuTimeStack = new ThreadLocalLongStack();
+
+	private final Timer timer = new Timer();
+
+	@Benchmark
+	public double boxed() {
+		// before body
+		timeStack.push(new Double(timer.getCurrentTime()));
+		cpuTimeStack.push(Long.valueOf(System.nanoTime()));
+		// first after body
+		timeStack.push(new Double(timer.getCurrentTime()));
+		cpuTimeStack.push(Long.valueOf(System.nanoTime()));
+		// second after body
+		double duration = timeStack.pop().doubleValue() - timeStack.pop().doubleValue();
+		long cpuDuration = cpuTimeStack.pop().longValue() - cpuTimeStack.pop().longValue();
+		return duration + cpuDuration;
+	}
+
+	@Benchmark
+	public double primitive() {
+		// before body
+		primitiveTimeStack.push(timer.getCurrentTime());
+		primitiveCpuTimeStack.push(System.nanoTime());
+		// first after body
+		primitiveTimeStack.push(timer.getCurrentTime());
+		primitiveCpuTimeStack.push(System.nanoTime());
+		// second after body
+		double duration = primitiveTimeStack.pop() - primitiveTimeStack.pop();
+		long cpuDuration = primitiveCpuTimeStack.pop() - primitiveCpuTimeStack.pop();
+		return duration + cpuDuration;
+	}
+
+}
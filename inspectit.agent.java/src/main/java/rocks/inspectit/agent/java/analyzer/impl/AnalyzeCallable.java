@@ -1,5 +1,7 @@
 package rocks.inspectit.agent.java.analyzer.impl;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 import org.slf4j.Logger;
@@ -11,14 +13,13 @@ import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 
 /**
- * {@link Callable} that invokes
- * {@link IConnection#analyze(long, String, rocks.inspectit.shared.all.instrumentation.classcache.Type)}
- * method.
+ * {@link Callable} that invokes {@link IConnection#analyzeTypes(long, Map)} method. Never returns
+ * <code>null</code>, if the connection returns <code>null</code> an empty map is returned.
  *
  * @author Ivan Senic
  *
  */
-public class AnalyzeCallable implements Callable<InstrumentationDefinition> {
+public class AnalyzeCallable implements Callable<Map<String, InstrumentationDefinition>> {
 
 	/**
 	 * Logger for the class.
@@ -36,14 +37,9 @@ public class AnalyzeCallable implements Callable<InstrumentationDefinition> {
 	private final long platformId;
 
 	/**
-	 * Hash to pass.
+	 * Hashes and {@link Type}s to pass.
 	 */
-	private final String hash;
-
-	/**
-	 * {@link Type} to pass.
-	 */
-	private final Type type;
+	private final Map<String, Type> hashAndTypes;
 
 	/**
 	 * Default constructor.
@@ -52,28 +48,28 @@ public class AnalyzeCallable implements Callable<InstrumentationDefinition> {
 	 *            Connection to use.
 	 * @param platformId
 	 *            Platform ID to pass.
-	 * @param hash
-	 *            Hash to pass.
-	 * @param type
-	 *            {@link Type} to pass.
-	 * @see IConnection#analyze(long, String,
-	 *      rocks.inspectit.shared.all.instrumentation.classcache.Type)
+	 * @param hashAndTypes
+	 *            Hashes and {@link Type}s to pass.
+	 * @see IConnection#analyzeTypes(long, Map)
 	 */
-	public AnalyzeCallable(IConnection connection, long platformId, String hash, Type type) {
+	public AnalyzeCallable(IConnection connection, long platformId, Map<String, Type> hashAndTypes) {
 		this.connection = connection;
 		this.platformId = platformId;
-		this.hash = hash;
-		this.type = type;
+		this.hashAndTypes = hashAndTypes;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public InstrumentationDefinition call() throws Exception {
+	public Map<String, InstrumentationDefinition> call() throws Exception {
 		try {
 			if (connection.isConnected()) {
-				return connection.analyze(platformId, hash, type);
+				Map<String, InstrumentationDefinition> result = connection.analyzeTypes(platformId, hashAndTypes);
+				if (null == result) {
+					return Collections.emptyMap();
+				}
+				return result;
 			} else {
 				throw new ServerUnavailableException(false);
 			}
@@ -5,29 +5,39 @@ import info.novatec.inspectit.org.objectweb.asm.ClassWriter;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.ObjectUtils;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import com.google.common.io.ByteStreams;
 
+import rocks.inspectit.agent.java.Agent;
 import rocks.inspectit.agent.java.analyzer.IByteCodeAnalyzer;
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.StorageException;
@@ -36,12 +46,16 @@ import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.config.impl.SpecialSensorConfig;
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.event.AgentMessagesReceivedEvent;
 import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
 import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
+import rocks.inspectit.agent.java.instrumentation.RetransformManager;
 import rocks.inspectit.agent.java.instrumentation.asm.ClassAnalyzer;
 import rocks.inspectit.agent.java.instrumentation.asm.ClassInstrumenter;
 import rocks.inspectit.agent.java.instrumentation.asm.LoaderAwareClassWriter;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
+import rocks.inspectit.shared.all.communication.message.IAgentMessage;
+import rocks.inspectit.shared.all.communication.message.UpdatedInstrumentationMessage;
 import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
@@ -53,6 +67,19 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 /**
  * {@link IByteCodeAnalyzer} that uses {@link IConnection} to connect to the CMR and send the
  * analyzed type. If needed performs instrumentation based on the result of the CMR answer.
+ * <p>
+ * The analyzed type is sent together with all depending types not known to the CMR in a single
+ * call. Classes known from the local instrumentation cache of the {@link ClassHashHelper} are
+ * instrumented without waiting for the CMR, their types are sent in batches in the background. If
+ * the CMR returns a different instrumentation for such class, the class is retransformed. Types
+ * that can not be sent because the CMR is not reachable are retried with an exponential back-off
+ * until all of them are sent.
+ * <p>
+ * If the asynchronous instrumentation is active and the agent uses class retransformation, the
+ * class loading is never blocked by the CMR. Unknown classes are loaded without instrumentation
+ * and analyzed in the background. Classes that should be instrumented are passed as
+ * {@link UpdatedInstrumentationMessage} to the {@link RetransformManager} that retransforms them in
+ * one batch.
  *
  * @author Ivan Senic
  *
@@ -65,6 +92,23 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	 */
 	private static final int ANALYZE_TIMEOUT_MILLIS = 2000;
 
+	/**
+	 * Maximum amount of types sent in one call when announcing the cached types.
+	 */
+	private static final int ANNOUNCE_BATCH_SIZE = 256;
+
+	/**
+	 * Initial delay in milliseconds for retrying the announcing of the types that could not be
+	 * sent.
+	 */
+	private static final long ANNOUNCE_RETRY_MIN_DELAY_MILLIS = 1000;
+
+	/**
+	 * Maximum delay in milliseconds for retrying the announcing of the types that could not be
+	 * sent.
+	 */
+	private static final long ANNOUNCE_RETRY_MAX_DELAY_MILLIS = 60000;
+
 	/**
 	 * Log for the class.
 	 */
@@ -106,7 +150,14 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	 */
 	@Autowired
 	@Qualifier("coreServiceExecutorService")
-	private ExecutorService executorService;
+	private ScheduledExecutorService executorService;
+
+	/**
+	 * Spring {@link ApplicationEventPublisher} for publishing the instrumentation updates of the
+	 * asynchronously analyzed classes.
+	 */
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
 
 	/**
 	 * {@link InstrumenterFactory} needed for the instrumentation process.
@@ -125,32 +176,46 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	 */
 	private Map<Long, IMethodSensor> methodSensorMap;
 
+	/**
+	 * Types instrumented with the cached instrumentation definitions or deferred types that still
+	 * need to be sent to the server. Key is the class hash.
+	 */
+	private final ConcurrentHashMap<String, Type> typesToAnnounce = new ConcurrentHashMap<String, Type>();
+
+	/**
+	 * Hashes of the types waiting in the {@link #typesToAnnounce} that were loaded without
+	 * instrumentation and must be retransformed if the server returns an instrumentation
+	 * definition.
+	 */
+	private final Set<String> deferredHashes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Instrumentation definitions used for the types waiting in the {@link #typesToAnnounce} that
+	 * were instrumented with the cached definitions. If the server returns a different
+	 * instrumentation definition, the class must be retransformed. Key is the class hash.
+	 */
+	private final ConcurrentHashMap<String, InstrumentationDefinition> cachedDefinitions = new ConcurrentHashMap<String, InstrumentationDefinition>();
+
+	/**
+	 * If the announcing of the cached types is currently running.
+	 */
+	private final AtomicBoolean announcing = new AtomicBoolean();
+
+	/**
+	 * If the retry of the announcing is scheduled.
+	 */
+	private final AtomicBoolean announceRetryScheduled = new AtomicBoolean();
+
+	/**
+	 * Delay of the next announcing retry. Only changed by the running announcing.
+	 */
+	private volatile long announceRetryDelay = ANNOUNCE_RETRY_MIN_DELAY_MILLIS;
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public byte[] analyzeAndInstrument(byte[] byteCode, String className, final ClassLoader classLoader) {
-		return analyzeAndInstrumentInternal(byteCode, className, classLoader, true);
-	}
-
-	/**
-	 * Internal implementation of the {@link #analyzeAndInstrument(byte[], String, ClassLoader)}.
-	 * Provides option to define if the instrumentation needs to be performed or not.
-	 *
-	 * @param byteCode
-	 *            The byte-code of the class to analyze. If <code>null</code> is passed byte code
-	 *            will be loaded using {@link #getByteCodeFromClassLoader(String, ClassLoader)}.
-	 * @param className
-	 *            The class name.
-	 * @param classLoader
-	 *            The class loader.
-	 * @param performInstrumentation
-	 *            If instrumentation should be performed with the instrumentation result sent by the
-	 *            server.
-	 * @return The instrumented byte code or <code>null</code> if instrumentation was not performed
-	 *         (or in case of error).
-	 */
-	private byte[] analyzeAndInstrumentInternal(byte[] byteCode, String className, final ClassLoader classLoader, boolean performInstrumentation) {
 		// clear any interrupted flag that might be there on the thread loading the class
 		boolean isInterrupted = Thread.interrupted();
 		try {
@@ -172,6 +237,22 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 			if (classHashHelper.isSent(className, hash)) {
 				// if sent load instrumentation result from the class hash helper
 				instrumentationResult = classHashHelper.getInstrumentationDefinition(className);
+			} else if (classHashHelper.isCached(className, hash)) {
+				// if known from the local cache use the cached result and let the CMR know about the
+				// class in the background
+				instrumentationResult = classHashHelper.getInstrumentationDefinition(className);
+				cachedDefinitions.put(hash, (null != instrumentationResult) ? instrumentationResult : new InstrumentationDefinition(className));
+
+				Map<String, Type> hashAndTypes = new LinkedHashMap<String, Type>();
+				collectTypes(byteCode, hash, classLoader, hashAndTypes);
+				announceTypes(hashAndTypes);
+			} else if (isAnalysisDeferred()) {
+				// don't block the class loading, analyze in the background and retransform later
+				Map<String, Type> hashAndTypes = new LinkedHashMap<String, Type>();
+				collectTypes(byteCode, hash, classLoader, hashAndTypes);
+				deferredHashes.addAll(hashAndTypes.keySet());
+				announceTypes(hashAndTypes);
+				return null;
 			} else {
 				// if not sent we go for the sending
 				if (!connection.isConnected()) {
@@ -182,19 +263,15 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 					return null;
 				}
 
-				// parse first, do not use internFQNs
-				ClassReader classReader = new ClassReader(byteCode);
-				ClassAnalyzer classAnalyzer = new ClassAnalyzer(hash);
-				classReader.accept(classAnalyzer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-				Type type = (Type) classAnalyzer.getType();
+				// parse the type and all necessary depending types that were not analyzed before
+				Map<String, Type> hashAndTypes = new LinkedHashMap<String, Type>();
+				collectTypes(byteCode, hash, classLoader, hashAndTypes);
 
-				// analyze all necessary depending classes before
-				analyzeDependingTypes(type, classLoader);
-
-				// try connecting to server
-				Callable<InstrumentationDefinition> analyzeCallable = new AnalyzeCallable(connection, platformManager.getPlatformId(), hash, type);
+				// send all of them to the server in one call
+				Callable<Map<String, InstrumentationDefinition>> analyzeCallable = new AnalyzeCallable(connection, platformManager.getPlatformId(), hashAndTypes);
+				Map<String, InstrumentationDefinition> instrumentationResults;
 				try {
-					instrumentationResult = executorService.submit(analyzeCallable).get(ANALYZE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+					instrumentationResults = executorService.submit(analyzeCallable).get(ANALYZE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
 				} catch (InterruptedException e) {
 					isInterrupted = true;
 					if (log.isWarnEnabled()) {
@@ -208,17 +285,16 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 					return null;
 				}
 
-				// register type as sent
-				classHashHelper.registerSent(className, hash);
-				classHashHelper.registerInstrumentationDefinition(className, instrumentationResult);
-			}
+				// register types as sent
+				registerSent(hashAndTypes, instrumentationResults);
+				instrumentationResult = instrumentationResults.get(hash);
 
-			// execute instrumentation if needed
-			if (performInstrumentation) {
-				return performInstrumentation(byteCode, classLoader, instrumentationResult);
-			} else {
-				return null;
+				// server is reachable, send any types still waiting
+				scheduleAnnouncing();
 			}
+
+			// execute instrumentation
+			return performInstrumentation(byteCode, classLoader, instrumentationResult);
 		} catch (StorageException storageException) {
 			log.error("Error occurred instrumenting the byte code of class " + className, storageException);
 			return null;
@@ -233,22 +309,261 @@ public class ByteCodeAnalyzer implements IByteCodeAnalyzer, InitializingBean {
 	}
 
 	/**
-	 * Analyze the depending types of the given type and sends the results to the server if needed.
+	 * Returns if the analysis of the classes not known to the agent should be deferred. This is
+	 * the case if the asynchronous instrumentation is active and classes can be retransformed.
 	 *
-	 * @param type
-	 *            {@link Type}
+	 * @return Returns if the analysis should be deferred.
+	 */
+	private boolean isAnalysisDeferred() {
+		return configurationStorage.isAsyncInstrumentation() && (null != Agent.agent) && Agent.agent.isUsingRetransformation();
+	}
+
+	/**
+	 * Parses the given byte code and adds the resulting {@link Type} to the given map. All
+	 * depending types that have not been analyzed and sent before are parsed and added to the map
+	 * before the type itself.
+	 *
+	 * @param byteCode
+	 *            Byte code of the type.
+	 * @param hash
+	 *            Hash of the byte code.
 	 * @param classLoader
 	 *            {@link ClassLoader} used for loading the given type.
+	 * @param hashAndTypes
+	 *            Map to add the parsed types to.
 	 */
-	private void analyzeDependingTypes(Type type, ClassLoader classLoader) {
+	private void collectTypes(byte[] byteCode, String hash, ClassLoader classLoader, Map<String, Type> hashAndTypes) {
+		// parse first, do not use internFQNs
+		ClassReader classReader = new ClassReader(byteCode);
+		ClassAnalyzer classAnalyzer = new ClassAnalyzer(hash);
+		classReader.accept(classAnalyzer, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		Type type = (Type) classAnalyzer.getType();
+
+		// analyze all necessary depending classes before
 		Collection<Type> dependingTypes = type.getDependingTypes();
 		if (CollectionUtils.isNotEmpty(dependingTypes)) {
 			for (Type dependingType : dependingTypes) {
-				if (!classHashHelper.isAnalyzed(dependingType.getFQN())) {
-					analyzeAndInstrumentInternal(null, dependingType.getFQN(), classLoader, false);
+				String fqn = dependingType.getFQN();
+				if (classHashHelper.isAnalyzed(fqn)) {
+					continue;
+				}
+
+				byte[] dependingByteCode = getByteCodeFromClassLoader(fqn, classLoader);
+				if (null == dependingByteCode) {
+					continue;
+				}
+
+				classHashHelper.registerAnalyzed(fqn);
+				String dependingHash = DigestUtils.sha256Hex(dependingByteCode);
+				if (!classHashHelper.isSent(fqn, dependingHash)) {
+					collectTypes(dependingByteCode, dependingHash, classLoader, hashAndTypes);
+				}
+			}
+		}
+
+		hashAndTypes.put(hash, type);
+	}
+
+	/**
+	 * Registers all given types as sent together with the instrumentation results.
+	 *
+	 * @param hashAndTypes
+	 *            Sent types.
+	 * @param instrumentationResults
+	 *            Instrumentation definitions returned by the server.
+	 */
+	private void registerSent(Map<String, Type> hashAndTypes, Map<String, InstrumentationDefinition> instrumentationResults) {
+		for (Entry<String, Type> entry : hashAndTypes.entrySet()) {
+			String fqn = entry.getValue().getFQN();
+			classHashHelper.registerSent(fqn, entry.getKey());
+			classHashHelper.registerInstrumentationDefinition(fqn, instrumentationResults.get(entry.getKey()));
+		}
+	}
+
+	/**
+	 * Queues the given types for sending to the server in the background. Types are sent in
+	 * batches of at most {@link #ANNOUNCE_BATCH_SIZE} and the results update the
+	 * {@link ClassHashHelper}, so that classes loaded later use the instrumentation definitions of
+	 * the server.
+	 *
+	 * @param hashAndTypes
+	 *            Types to send.
+	 */
+	private void announceTypes(Map<String, Type> hashAndTypes) {
+		typesToAnnounce.putAll(hashAndTypes);
+		scheduleAnnouncing();
+	}
+
+	/**
+	 * Submits the sending of the queued types to the executor service if there are types waiting
+	 * and the sending is not already running. If not all types could be sent, the retry is
+	 * scheduled.
+	 */
+	private void scheduleAnnouncing() {
+		if (!typesToAnnounce.isEmpty() && announcing.compareAndSet(false, true)) {
+			executorService.submit(new Runnable() {
+				@Override
+				public void run() {
+					boolean allSent;
+					try {
+						allSent = announcePendingTypes();
+					} finally {
+						announcing.set(false);
+					}
+
+					if (allSent) {
+						announceRetryDelay = ANNOUNCE_RETRY_MIN_DELAY_MILLIS;
+						// types queued after the last check could not start the announcing
+						scheduleAnnouncing();
+					} else {
+						scheduleAnnouncingRetry();
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Schedules the retry of the announcing if one is not already scheduled. The delay is doubled
+	 * with every retry until reaching the {@link #ANNOUNCE_RETRY_MAX_DELAY_MILLIS}.
+	 */
+	private void scheduleAnnouncingRetry() {
+		if (announceRetryScheduled.compareAndSet(false, true)) {
+			long delay = announceRetryDelay;
+			announceRetryDelay = Math.min(delay * 2, ANNOUNCE_RETRY_MAX_DELAY_MILLIS);
+			executorService.schedule(new Runnable() {
+				@Override
+				public void run() {
+					announceRetryScheduled.set(false);
+					scheduleAnnouncing();
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Sends all types waiting in the {@link #typesToAnnounce} to the server. Stops when the server
+	 * can not be reached, the types not sent stay queued and are sent with the next announcing.
+	 *
+	 * @return <code>true</code> if no types are waiting any more
+	 */
+	private boolean announcePendingTypes() {
+		while (!typesToAnnounce.isEmpty()) {
+			if (!connection.isConnected()) {
+				return false;
+			}
+
+			Map<String, Type> batch = new LinkedHashMap<String, Type>();
+			for (Entry<String, Type> entry : typesToAnnounce.entrySet()) {
+				batch.put(entry.getKey(), entry.getValue());
+				if (batch.size() >= ANNOUNCE_BATCH_SIZE) {
+					break;
+				}
+			}
+
+			try {
+				Map<String, InstrumentationDefinition> instrumentationResults = new AnalyzeCallable(connection, platformManager.getPlatformId(), batch).call();
+				registerSent(batch, instrumentationResults);
+				retransformChanged(batch, instrumentationResults);
+			} catch (Exception e) { // NOPMD
+				// already logged by the callable
+				return false;
+			}
+
+			for (Entry<String, Type> entry : batch.entrySet()) {
+				typesToAnnounce.remove(entry.getKey(), entry.getValue());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Publishes the instrumentation definitions of the deferred types and of the types instrumented
+	 * with a cached definition that differs from the one of the server contained in the given batch
+	 * as {@link UpdatedInstrumentationMessage}, so that the already loaded classes are
+	 * retransformed. The applied instrumentation is reported to the server when the classes are
+	 * transformed again.
+	 *
+	 * @param batch
+	 *            Sent types.
+	 * @param instrumentationResults
+	 *            Instrumentation definitions returned by the server.
+	 */
+	private void retransformChanged(Map<String, Type> batch, Map<String, InstrumentationDefinition> instrumentationResults) {
+		List<InstrumentationDefinition> instrumentationDefinitions = new ArrayList<InstrumentationDefinition>();
+		for (Entry<String, Type> entry : batch.entrySet()) {
+			String hash = entry.getKey();
+			InstrumentationDefinition instrumentationDefinition = instrumentationResults.get(hash);
+			if (deferredHashes.remove(hash)) {
+				if ((null != instrumentationDefinition) && !instrumentationDefinition.isEmpty()) {
+					instrumentationDefinitions.add(instrumentationDefinition);
+				}
+			} else {
+				InstrumentationDefinition cachedDefinition = cachedDefinitions.remove(hash);
+				if ((null != cachedDefinition) && !isSameInstrumentation(cachedDefinition, instrumentationDefinition)) {
+					// empty definition removes the cached instrumentation
+					instrumentationDefinitions.add((null != instrumentationDefinition) ? instrumentationDefinition : new InstrumentationDefinition(entry.getValue().getFQN()));
+				}
+			}
+		}
+
+		if (!instrumentationDefinitions.isEmpty()) {
+			UpdatedInstrumentationMessage message = new UpdatedInstrumentationMessage();
+			message.getMessageContent().addAll(instrumentationDefinitions);
+			eventPublisher.publishEvent(new AgentMessagesReceivedEvent(this, Collections.<IAgentMessage<?>> singletonList(message)));
+		}
+	}
+
+	/**
+	 * Returns if the two instrumentation definitions result in the same instrumentation of the
+	 * class. Sensor instrumentation points with property accessors are never considered to be the
+	 * same, as the accessors can not be compared.
+	 *
+	 * @param first
+	 *            First definition, can be <code>null</code>.
+	 * @param second
+	 *            Second definition, can be <code>null</code>.
+	 * @return If the definitions result in the same instrumentation.
+	 */
+	private boolean isSameInstrumentation(InstrumentationDefinition first, InstrumentationDefinition second) {
+		boolean firstEmpty = (null == first) || first.isEmpty();
+		boolean secondEmpty = (null == second) || second.isEmpty();
+		if (firstEmpty || secondEmpty) {
+			return firstEmpty && secondEmpty;
+		}
+		if (first == second) {
+			return true;
+		}
+
+		Collection<MethodInstrumentationConfig> firstConfigs = first.getMethodInstrumentationConfigs();
+		Collection<MethodInstrumentationConfig> secondConfigs = second.getMethodInstrumentationConfigs();
+		if (firstConfigs.size() != secondConfigs.size()) {
+			return false;
+		}
+
+		Map<List<Object>, MethodInstrumentationConfig> firstConfigsByMethod = new HashMap<List<Object>, MethodInstrumentationConfig>();
+		for (MethodInstrumentationConfig config : firstConfigs) {
+			firstConfigsByMethod.put(Arrays.<Object> asList(config.getTargetMethodName(), config.getReturnType(), config.getParameterTypes()), config);
+		}
+		for (MethodInstrumentationConfig config : secondConfigs) {
+			MethodInstrumentationConfig other = firstConfigsByMethod.get(Arrays.<Object> asList(config.getTargetMethodName(), config.getReturnType(), config.getParameterTypes()));
+			if ((null == other) || !ObjectUtils.equals(config.getSpecialInstrumentationPoint(), other.getSpecialInstrumentationPoint())) {
+				return false;
+			}
+
+			SensorInstrumentationPoint sensorPoint = config.getSensorInstrumentationPoint();
+			SensorInstrumentationPoint otherSensorPoint = other.getSensorInstrumentationPoint();
+			if ((null == sensorPoint) || (null == otherSensorPoint)) {
+				if (sensorPoint != otherSensorPoint) {
+					return false;
 				}
+			} else if ((sensorPoint.getId() != otherSensorPoint.getId()) || !Arrays.equals(sensorPoint.getSensorIds(), otherSensorPoint.getSensorIds())
+					|| (sensorPoint.isConstructor() != otherSensorPoint.isConstructor()) || (sensorPoint.isStartsInvocation() != otherSensorPoint.isStartsInvocation())
+					|| !ObjectUtils.equals(sensorPoint.getSettings(), otherSensorPoint.getSettings()) || sensorPoint.isPropertyAccess() || otherSensorPoint.isPropertyAccess()) {
+				return false;
 			}
 		}
+		return true;
 	}
 
 	/**
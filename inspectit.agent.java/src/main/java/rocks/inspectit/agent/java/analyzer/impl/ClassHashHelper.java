@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -27,6 +28,7 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.io.FileResolver;
 import rocks.inspectit.agent.java.spring.PrototypesProvider;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
@@ -38,6 +40,13 @@ import rocks.inspectit.shared.all.spring.logger.Log;
  * Implementation of the {@link IClassHashHelper} that holds all data in one concurrent map. Keys in
  * this map are class FQNs, while entries are {@link ClassEntry}s and they define answers to all the
  * provided questions.
+ * <p>
+ * Next to the hashes sent to the CMR, the helper keeps an instrumentation cache on disk that holds
+ * all known hashes together with the instrumentation definitions. As the definitions reference the
+ * method and sensor IDs of the CMR, the cache is saved with the platform ID of the agent and only
+ * loaded when the CMR assigns the same platform ID again. Hashes loaded from it are reported as
+ * cached (see {@link #isCached(String, String)}), meaning that the class can be instrumented with
+ * the cached definition without waiting for the CMR.
  *
  * @author Ivan Senic
  *
@@ -60,6 +69,12 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	@Autowired
 	private IConfigurationStorage configurationStorage;
 
+	/**
+	 * Platform manager to get the platform ID the instrumentation cache belongs to.
+	 */
+	@Autowired
+	private IPlatformManager platformManager;
+
 	/**
 	 * Core-service executor service.
 	 */
@@ -145,6 +160,22 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		return entry != null ? entry.containsHash(hash) : false;
 	}
 
+	/**
+	 * Returns if the class with given fqn and hash is known from the instrumentation cache loaded
+	 * from disk. The instrumentation definition of such class can be used before the class is sent
+	 * to the CMR.
+	 *
+	 * @param fqn
+	 *            Class fully qualified name.
+	 * @param hash
+	 *            Hash to check
+	 * @return Returns if the class with given hash is known from the instrumentation cache.
+	 */
+	public boolean isCached(String fqn, String hash) {
+		ClassEntry entry = fqnToClassEntryMap.get(fqn);
+		return entry != null ? entry.containsCachedHash(hash) : false;
+	}
+
 	/**
 	 * Registers the instrumentation result for the class with the given FQn.
 	 *
@@ -209,7 +240,7 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	 * {@inheritDoc}
 	 * <P>
 	 * Loads the possible existing class cache from the disk if CMR reports to know classes from
-	 * this agent.
+	 * this agent and the instrumentation cache if it belongs to the current platform ID.
 	 */
 	@Override
 	public void afterPropertiesSet() throws Exception {
@@ -219,8 +250,9 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		if (configurationStorage.isClassCacheExistsOnCmr()) {
 			loadCacheFromDisk();
 		} else {
-			deleteCacheFromDisk();
+			deleteFromDisk(fileResolver.getClassHashCacheFile().getAbsoluteFile());
 		}
+		loadInstrumentationCacheFromDisk();
 
 		// check if there are any initial instrumentation points in configuration
 		Map<Collection<String>, InstrumentationDefinition> initInstrumentations = configurationStorage.getInitialInstrumentationResults();
@@ -290,28 +322,115 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 	}
 
 	/**
-	 * Deletes the current cache file from disk.
+	 * Loads the instrumentation cache from disk. The cache is deleted if it was saved for another
+	 * platform ID, as then the definitions can reference IDs unknown to the CMR. Hashes that are
+	 * not already registered as sent are registered as cached. Instrumentation definitions are only
+	 * taken for classes that have no sent hash, as for these the initial instrumentation results of
+	 * the CMR are authoritative.
 	 */
-	private void deleteCacheFromDisk() {
-		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
+	@SuppressWarnings("unchecked")
+	private void loadInstrumentationCacheFromDisk() {
+		File file = fileResolver.getInstrumentationCacheFile().getAbsoluteFile();
 
 		if (file.exists()) {
-			if (!file.delete()) {
-				log.warn("Unable to delete the existing class cache file: " + file.getAbsolutePath());
+			FileInputStream fileInputStream = null;
+			boolean otherPlatform = false;
+			try {
+				fileInputStream = new FileInputStream(file);
+				Input input = new Input(fileInputStream);
+
+				long platformId = platformManager.getPlatformId();
+				Long cachePlatformId = (Long) serializationManager.deserialize(input);
+				if ((-1 == platformId) || !Long.valueOf(platformId).equals(cachePlatformId)) {
+					otherPlatform = true;
+				} else {
+					Map<String, Collection<String>> fqnWithHashes = (Map<String, Collection<String>>) serializationManager.deserialize(input);
+					Map<String, InstrumentationDefinition> fqnWithDefinitions = (Map<String, InstrumentationDefinition>) serializationManager.deserialize(input);
+					for (Entry<String, Collection<String>> entry : fqnWithHashes.entrySet()) {
+						ClassEntry classEntry = getOrCreateEntry(entry.getKey());
+						if (classEntry.getHashes().isEmpty()) {
+							classEntry.setInstrumentationResult(fqnWithDefinitions.get(entry.getKey()));
+						}
+						for (String hash : entry.getValue()) {
+							if (!classEntry.containsHash(hash)) {
+								classEntry.addCachedHash(hash);
+							}
+						}
+					}
+				}
+			} catch (Throwable t) { // NOPMD
+				log.warn("Unable to load instrumentation cache from disk.", t);
+			} finally {
+				if (null != fileInputStream) {
+					try {
+						fileInputStream.close();
+					} catch (IOException e) { // NOPMD //NOCHK
+						// ignore
+					}
+				}
+			}
+
+			if (otherPlatform) {
+				deleteFromDisk(file);
 			}
 		}
+	}
 
+	/**
+	 * Deletes the given cache file from disk.
+	 *
+	 * @param file
+	 *            Cache file to delete.
+	 */
+	private void deleteFromDisk(File file) {
+		if (file.exists()) {
+			if (!file.delete()) {
+				log.warn("Unable to delete the existing cache file: " + file.getAbsolutePath());
+			}
+		}
 	}
 
 	/**
 	 * Save cache to disk.
 	 */
 	private void saveCacheToDisk() {
-		File file = fileResolver.getClassHashCacheFile().getAbsoluteFile();
+		// save only the ones being set to the CMR
+		Map<String, Collection<String>> fqnWithHashes = new HashMap<String, Collection<String>>();
+
+		// and all known hashes with the definitions to the instrumentation cache
+		Map<String, Collection<String>> fqnWithKnownHashes = new HashMap<String, Collection<String>>();
+		Map<String, InstrumentationDefinition> fqnWithDefinitions = new HashMap<String, InstrumentationDefinition>();
 
+		for (Entry<String, ClassEntry> entry : fqnToClassEntryMap.entrySet()) {
+			ClassEntry classEntry = entry.getValue();
+			fqnWithHashes.put(entry.getKey(), classEntry.getHashes());
+
+			Collection<String> knownHashes = new ArrayList<String>(classEntry.getHashes());
+			knownHashes.addAll(classEntry.getCachedHashes());
+			fqnWithKnownHashes.put(entry.getKey(), knownHashes);
+
+			InstrumentationDefinition instrumentationResult = classEntry.getInstrumentationResult();
+			if (null != instrumentationResult) {
+				fqnWithDefinitions.put(entry.getKey(), instrumentationResult);
+			}
+		}
+
+		saveToDisk(fileResolver.getClassHashCacheFile().getAbsoluteFile(), fqnWithHashes);
+		saveToDisk(fileResolver.getInstrumentationCacheFile().getAbsoluteFile(), Long.valueOf(platformManager.getPlatformId()), fqnWithKnownHashes, fqnWithDefinitions);
+	}
+
+	/**
+	 * Serializes the given objects one after another to the given file. Existing file is replaced.
+	 *
+	 * @param file
+	 *            File to save to.
+	 * @param objects
+	 *            Objects to serialize.
+	 */
+	private void saveToDisk(File file, Object... objects) {
 		if (file.exists()) {
 			if (!file.delete()) {
-				log.warn("Unable to delete the existing class cache file: " + file.getAbsolutePath());
+				log.warn("Unable to delete the existing cache file: " + file.getAbsolutePath());
 			}
 		} else {
 			File parentDir = file.getParentFile();
@@ -327,15 +446,11 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 			fileOutputStream = new FileOutputStream(file);
 			Output output = new Output(fileOutputStream);
 
-			// save only the ones being set to the CMR
-			Map<String, Collection<String>> fqnWithHashes = new HashMap<String, Collection<String>>();
-			for (Entry<String, ClassEntry> entry : fqnToClassEntryMap.entrySet()) {
-				fqnWithHashes.put(entry.getKey(), entry.getValue().getHashes());
+			for (Object object : objects) {
+				serializationManager.serialize(object, output);
 			}
-
-			serializationManager.serialize(fqnWithHashes, output);
 		} catch (Throwable t) { // NOPMD
-			log.warn("Unable to save sending classes cache to disk.", t);
+			log.warn("Unable to save cache to disk: " + file.getAbsolutePath(), t);
 		} finally {
 			if (null != fileOutputStream) {
 				try {
@@ -366,6 +481,11 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 		 */
 		private final CopyOnWriteArrayList<String> hashes = new CopyOnWriteArrayList<String>();
 
+		/**
+		 * Hashes for this class loaded from the instrumentation cache.
+		 */
+		private final CopyOnWriteArrayList<String> cachedHashes = new CopyOnWriteArrayList<String>();
+
 		/**
 		 * Gets {@link #instrumentationResult}.
 		 *
@@ -420,6 +540,41 @@ public class ClassHashHelper implements InitializingBean, DisposableBean {
 			return Collections.unmodifiableList(hashes);
 		}
 
+		/**
+		 * Adds hash to the {@link #cachedHashes} if it does not exist.
+		 *
+		 * @param hash
+		 *            of the class
+		 */
+		public void addCachedHash(String hash) {
+			if (null != hash) {
+				cachedHashes.addIfAbsent(hash);
+			}
+		}
+
+		/**
+		 * Returns if the hash is contained in the {@link #cachedHashes}.
+		 *
+		 * @param hash
+		 *            of the class
+		 * @return Returns if the hash is contained in the {@link #cachedHashes}.
+		 */
+		public boolean containsCachedHash(String hash) {
+			if (null != hash) {
+				return cachedHashes.contains(hash);
+			}
+			return false;
+		}
+
+		/**
+		 * Gets {@link #cachedHashes}.
+		 *
+		 * @return {@link #cachedHashes}
+		 */
+		public Collection<String> getCachedHashes() {
+			return Collections.unmodifiableList(cachedHashes);
+		}
+
 	}
 
 }
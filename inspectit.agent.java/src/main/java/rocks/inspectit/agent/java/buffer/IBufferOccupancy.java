@@ -0,0 +1,25 @@
+package rocks.inspectit.agent.java.buffer;
+
+/**
+ * Implemented by the buffer strategies that know the estimated memory size of the buffered data.
+ *
+ * @author agent
+ *
+ */
+public interface IBufferOccupancy {
+
+	/**
+	 * Returns the estimated size of the currently buffered data in bytes.
+	 *
+	 * @return Returns the estimated size of the currently buffered data in bytes.
+	 */
+	long getSize();
+
+	/**
+	 * Returns the maximum size of the buffered data in bytes.
+	 *
+	 * @return Returns the maximum size of the buffered data in bytes.
+	 */
+	long getMaxSize();
+
+}
@@ -0,0 +1,430 @@
+package rocks.inspectit.agent.java.buffer.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import rocks.inspectit.agent.java.buffer.AbstractBufferStrategy;
+import rocks.inspectit.agent.java.buffer.IBufferOccupancy;
+import rocks.inspectit.agent.java.buffer.IBufferStrategy;
+import rocks.inspectit.agent.java.sensor.jmx.IMBeanServerListener;
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Buffer strategy backed by a preallocated bounded ring buffer. Lists of measurements are added
+ * and taken without locking and are sent in the order they were added. The capacity is defined by
+ * the estimated memory size of the buffered data, if a new list would exceed the maximum size the
+ * oldest lists are dropped. The newest list is always accepted.
+ * <p>
+ * The amount of dropped data is counted per data type and is available via the
+ * {@link RingBufferStrategyMXBean} registered in every MBean server known to the agent.
+ *
+ * @author agent
+ *
+ */
+public class RingBufferStrategy extends AbstractBufferStrategy<DefaultData> implements IBufferStrategy<DefaultData>, IBufferOccupancy, IMBeanServerListener, RingBufferStrategyMXBean {
+
+	/**
+	 * Object name of the registered MXBean.
+	 */
+	static final String OBJECT_NAME = "rocks.inspectit.agent:type=RingBufferStrategy";
+
+	/**
+	 * The default maximum size of the buffered data in megabytes.
+	 */
+	private static final int DEFAULT_MAX_SIZE = 16;
+
+	/**
+	 * The default amount of slots in the ring.
+	 */
+	private static final int DEFAULT_SLOTS = 256;
+
+	/**
+	 * Bytes in one megabyte.
+	 */
+	private static final long MEGABYTE = 1024L * 1024L;
+
+	/**
+	 * The logger of the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * Object sizes for estimating the size of the buffered data.
+	 */
+	@Autowired
+	IObjectSizes objectSizes;
+
+	/**
+	 * Maximum size of the buffered data in bytes.
+	 */
+	private long maxSize;
+
+	/**
+	 * Lists of measurements in the ring.
+	 */
+	private AtomicReferenceArray<List<DefaultData>> slots;
+
+	/**
+	 * Sequence of each slot. A slot can be written at position <i>p</i> when the sequence is
+	 * <i>p</i> and read when the sequence is <i>p + 1</i>.
+	 */
+	private AtomicLongArray sequences;
+
+	/**
+	 * Estimated size of the list in each slot. Written before and read after the slot sequence is
+	 * updated.
+	 */
+	private long[] sizes;
+
+	/**
+	 * Mask for getting the slot index from the position.
+	 */
+	private int mask;
+
+	/**
+	 * Position of the next list to read.
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * Position of the next list to write.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Estimated size of the buffered data.
+	 */
+	private final AtomicLong size = new AtomicLong();
+
+	/**
+	 * Amount of dropped lists.
+	 */
+	private final AtomicLong droppedLists = new AtomicLong();
+
+	/**
+	 * Amount of dropped data objects per data class.
+	 */
+	private final ConcurrentMap<Class<?>, AtomicLong> droppedElements = new ConcurrentHashMap<Class<?>, AtomicLong>();
+
+	/**
+	 * Creates the buffer with the default maximum size and slot count.
+	 */
+	public RingBufferStrategy() {
+		this(DEFAULT_MAX_SIZE * MEGABYTE, DEFAULT_SLOTS);
+	}
+
+	/**
+	 * Creates the buffer with the given maximum size and slot count.
+	 *
+	 * @param maxSize
+	 *            Maximum size of the buffered data in bytes.
+	 * @param slotCount
+	 *            Amount of slots, rounded up to the next power of two.
+	 */
+	public RingBufferStrategy(long maxSize, int slotCount) {
+		allocate(maxSize, slotCount);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addMeasurements(List<DefaultData> measurements) {
+		if (null == measurements) {
+			throw new IllegalArgumentException("Measurements cannot be null!");
+		}
+
+		long listSize = getSize(measurements);
+		size.addAndGet(listSize);
+
+		// drop the oldest lists, because we can not let the data pile up if the sending of the data
+		// is not fast enough
+		while ((size.get() > maxSize) && dropOldest()) { // NOPMD
+		}
+
+		while (!offer(measurements, listSize)) {
+			dropOldest();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasNext() {
+		long position = head.get();
+		return sequences.get(index(position)) == (position + 1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<DefaultData> next() {
+		List<DefaultData> measurements = poll();
+		if (null == measurements) {
+			throw new NoSuchElementException();
+		}
+		return measurements;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init(Map<String, String> settings) {
+		long newMaxSize = maxSize;
+		int newSlotCount = slots.length();
+		if (settings.containsKey("maxSize")) {
+			newMaxSize = Long.parseLong(settings.get("maxSize")) * MEGABYTE;
+		}
+		if (settings.containsKey("slots")) {
+			newSlotCount = Integer.parseInt(settings.get("slots"));
+		}
+		allocate(newMaxSize, newSlotCount);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void mbeanServerAdded(MBeanServer server) {
+		try {
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(new StandardMBean(this, RingBufferStrategyMXBean.class, true), objectName);
+			}
+		} catch (Exception e) {
+			log.warn("Ring buffer strategy MXBean could not be registered.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void mbeanServerRemoved(MBeanServer server) {
+		try {
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (Exception e) {
+			log.warn("Ring buffer strategy MXBean could not be unregistered.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSize() {
+		return size.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getBufferedLists() {
+		return (int) Math.max(0, tail.get() - head.get());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getDroppedLists() {
+		return droppedLists.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, Long> getDroppedElements() {
+		Map<String, Long> result = new HashMap<String, Long>();
+		for (Entry<Class<?>, AtomicLong> entry : droppedElements.entrySet()) {
+			result.put(entry.getKey().getSimpleName(), Long.valueOf(entry.getValue().get()));
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the list to the slot at the tail position.
+	 *
+	 * @param measurements
+	 *            List to write.
+	 * @param listSize
+	 *            Estimated size of the list.
+	 * @return <code>false</code> if all slots are taken.
+	 */
+	private boolean offer(List<DefaultData> measurements, long listSize) {
+		while (true) {
+			long position = tail.get();
+			int index = index(position);
+			long difference = sequences.get(index) - position;
+			if (0 == difference) {
+				if (tail.compareAndSet(position, position + 1)) {
+					sizes[index] = listSize;
+					slots.set(index, measurements);
+					sequences.set(index, position + 1);
+					return true;
+				}
+			} else if (difference < 0) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Takes the list from the slot at the head position.
+	 *
+	 * @return List or <code>null</code> if the buffer is empty.
+	 */
+	private List<DefaultData> poll() {
+		while (true) {
+			long position = head.get();
+			int index = index(position);
+			long difference = sequences.get(index) - (position + 1);
+			if (0 == difference) {
+				if (head.compareAndSet(position, position + 1)) {
+					List<DefaultData> measurements = slots.getAndSet(index, null);
+					long listSize = sizes[index];
+					sequences.set(index, position + mask + 1);
+					size.addAndGet(-listSize);
+					return measurements;
+				}
+			} else if (difference < 0) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Drops the oldest list in the buffer and counts the dropped data.
+	 *
+	 * @return <code>false</code> if the buffer is empty.
+	 */
+	private boolean dropOldest() {
+		List<DefaultData> dropped = poll();
+		if (null == dropped) {
+			return false;
+		}
+
+		droppedLists.incrementAndGet();
+		for (DefaultData data : dropped) {
+			Class<?> dataClass = data.getClass();
+			AtomicLong counter = droppedElements.get(dataClass);
+			if (null == counter) {
+				counter = new AtomicLong();
+				AtomicLong existing = droppedElements.putIfAbsent(dataClass, counter);
+				if (null != existing) {
+					counter = existing;
+				}
+			}
+			counter.incrementAndGet();
+		}
+
+		log.info("Possible data loss due to the excessive data creation on the Agent! Dropped " + dropped.size() + " data object(s).");
+		return true;
+	}
+
+	/**
+	 * Returns the estimated size of the list in bytes.
+	 *
+	 * @param measurements
+	 *            List of measurements.
+	 * @return Estimated size.
+	 */
+	private long getSize(List<DefaultData> measurements) {
+		if (null == objectSizes) {
+			return 0;
+		}
+
+		long listSize = objectSizes.getSizeOfArray(measurements.size());
+		for (DefaultData data : measurements) {
+			listSize += objectSizes.getSizeOf(data);
+		}
+		return listSize;
+	}
+
+	/**
+	 * Returns the slot index for the position.
+	 *
+	 * @param position
+	 *            Position.
+	 * @return Slot index.
+	 */
+	private int index(long position) {
+		return (int) (position & mask);
+	}
+
+	/**
+	 * Allocates the ring. Must only be called before the buffer is used.
+	 *
+	 * @param newMaxSize
+	 *            Maximum size of the buffered data in bytes.
+	 * @param slotCount
+	 *            Amount of slots, rounded up to the next power of two.
+	 */
+	private void allocate(long newMaxSize, int slotCount) {
+		if (newMaxSize <= 0) {
+			throw new IllegalArgumentException("Maximum size of the buffer must be greater than zero.");
+		}
+		if (slotCount <= 0) {
+			throw new IllegalArgumentException("Amount of slots must be greater than zero.");
+		}
+
+		int capacity = Integer.highestOneBit(slotCount);
+		if (capacity < slotCount) {
+			capacity <<= 1;
+		}
+
+		this.maxSize = newMaxSize;
+		this.mask = capacity - 1;
+		this.slots = new AtomicReferenceArray<List<DefaultData>>(capacity);
+		this.sizes = new long[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+		head.set(0);
+		tail.set(0);
+		size.set(0);
+	}
+}
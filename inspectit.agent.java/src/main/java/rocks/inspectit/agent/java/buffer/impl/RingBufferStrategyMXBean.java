@@ -0,0 +1,51 @@
+package rocks.inspectit.agent.java.buffer.impl;
+
+import java.util.Map;
+
+/**
+ * Management interface of the {@link RingBufferStrategy} exposing the buffer state and the amount
+ * of the data dropped.
+ *
+ * @author agent
+ *
+ */
+public interface RingBufferStrategyMXBean {
+
+	/**
+	 * Returns the maximum size of the buffered data in bytes.
+	 *
+	 * @return Returns the maximum size of the buffered data in bytes.
+	 */
+	long getMaxSize();
+
+	/**
+	 * Returns the estimated size of the currently buffered data in bytes.
+	 *
+	 * @return Returns the estimated size of the currently buffered data in bytes.
+	 */
+	long getSize();
+
+	/**
+	 * Returns the amount of the measurement lists currently in the buffer.
+	 *
+	 * @return Returns the amount of the measurement lists currently in the buffer.
+	 */
+	int getBufferedLists();
+
+	/**
+	 * Returns the amount of the measurement lists dropped since the start.
+	 *
+	 * @return Returns the amount of the measurement lists dropped since the start.
+	 */
+	long getDroppedLists();
+
+	/**
+	 * Returns the amount of the dropped data objects since the start keyed by the simple class
+	 * name of the data.
+	 *
+	 * @return Returns the amount of the dropped data objects since the start keyed by the simple
+	 *         class name of the data.
+	 */
+	Map<String, Long> getDroppedElements();
+
+}
@@ -190,6 +190,23 @@ public interface IConfigurationStorage {
 	 *             If agent configuration is not set.
 	 */
 	RetransformationStrategy getRetransformStrategy() throws StorageException;
+
+	/**
+	 * Returns if the classes not known to the agent should be analyzed asynchronously. In this
+	 * mode the class loading is never blocked by the communication with the CMR, the classes are
+	 * instrumented later on using the class retransformation.
+	 *
+	 * @return Returns if the classes should be analyzed asynchronously.
+	 */
+	boolean isAsyncInstrumentation();
+
+	/**
+	 * Returns if the data should be sent to the CMR with the compressed transport. The compressed
+	 * transport is only used if the CMR supports it, which is negotiated during the registration.
+	 *
+	 * @return Returns if the compressed transport should be used.
+	 */
+	boolean isCompressedTransport();
 	
 	/**
 	 * Returns the configuration for the end user monitoring.
@@ -73,6 +73,16 @@ public class ConfigurationStorage implements IConfigurationStorage, Initializing
 	 */
 	static final String REPOSITORY_PROPERTY = "inspectit.repository";
 
+	/**
+	 * The name of the property for activating the asynchronous instrumentation.
+	 */
+	static final String ASYNC_INSTRUMENTATION_PROPERTY = "inspectit.instrumentation.async";
+
+	/**
+	 * The name of the property for activating the compressed transport.
+	 */
+	static final String COMPRESSED_TRANSPORT_PROPERTY = "inspectit.transport.compressed";
+
 	/**
 	 * Default agent name used.
 	 */
@@ -89,6 +99,16 @@ public class ConfigurationStorage implements IConfigurationStorage, Initializing
 	 */
 	private String agentName;
 
+	/**
+	 * If the asynchronous instrumentation is active.
+	 */
+	private boolean asyncInstrumentation;
+
+	/**
+	 * If the compressed transport should be used.
+	 */
+	private boolean compressedTransport;
+
 	/**
 	 * Agent configuration.
 	 */
@@ -295,6 +315,22 @@ public class ConfigurationStorage implements IConfigurationStorage, Initializing
 		return agentConfiguration.getRetransformationStrategy();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isAsyncInstrumentation() {
+		return asyncInstrumentation;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isCompressedTransport() {
+		return compressedTransport;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -405,6 +441,18 @@ public class ConfigurationStorage implements IConfigurationStorage, Initializing
 				log.warn("Agent name could not be defined from default agent name", e);
 			}
 		}
+
+		// asynchronous instrumentation
+		asyncInstrumentation = Boolean.parseBoolean(System.getProperty(ASYNC_INSTRUMENTATION_PROPERTY));
+		if (asyncInstrumentation) {
+			log.info("Asynchronous instrumentation activated in the JVM parameters.");
+		}
+
+		// compressed transport
+		compressedTransport = Boolean.parseBoolean(System.getProperty(COMPRESSED_TRANSPORT_PROPERTY));
+		if (compressedTransport) {
+			log.info("Compressed transport activated in the JVM parameters.");
+		}
 	}
 
 	/**
@@ -1,15 +1,21 @@
 package rocks.inspectit.agent.java.config.impl;
 
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+
 import rocks.inspectit.agent.java.config.IPropertyAccessor;
 import rocks.inspectit.agent.java.config.PropertyAccessException;
 import rocks.inspectit.shared.all.communication.data.ParameterContentData;
@@ -51,6 +57,19 @@ public class PropertyAccessor implements IPropertyAccessor {
 	 */
 	private static final String[] ALLOWED_METHODS = new String[] { "size", "length" };
 
+	/**
+	 * Cache of the resolved {@link PropertyAccess} by path by class. Classes are held weakly so
+	 * that they can be unloaded. As the resolved fields and methods reference the class the values
+	 * are held softly.
+	 */
+	private final Cache<Class<?>, ConcurrentMap<PropertyPath, PropertyAccess>> accessCache = CacheBuilder.newBuilder().weakKeys().softValues().build();
+
+	/**
+	 * Compiled chains by the first element of the path. Chains are held softly as they reference
+	 * the classes along the path.
+	 */
+	private final ConcurrentMap<PropertyPath, SoftReference<PropertyAccessChain>> chainCache = new MapMaker().weakKeys().makeMap();
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -114,7 +133,10 @@ public class PropertyAccessor implements IPropertyAccessor {
 	}
 
 	/**
-	 * Inner static recursive method to go along the given path.
+	 * Goes along the given path. The fields and methods accessed along the path are compiled into
+	 * a {@link PropertyAccessChain} that is reused as long as the objects on the path are of the
+	 * same classes as when the chain was compiled. Otherwise the access of the remaining steps is
+	 * taken from the {@link #accessCache} and a new chain is compiled.
 	 *
 	 * @see PropertyPath
 	 *
@@ -128,24 +150,116 @@ public class PropertyAccessor implements IPropertyAccessor {
 	 *             a property.
 	 */
 	private String getPropertyContent(PropertyPath propertyPath, Object object) throws PropertyAccessException {
-		if (null == object) {
-			return "null";
+		PropertyPath path = propertyPath;
+		Object current = object;
+		int step = 0;
+
+		PropertyAccessChain chain = null;
+		if (null != path) {
+			SoftReference<PropertyAccessChain> chainReference = chainCache.get(path);
+			if (null != chainReference) {
+				chain = chainReference.get();
+			}
 		}
 
-		if (null == propertyPath) {
-			// end of the path to follow, return the String representation of
-			// the object
-			return object.toString();
+		// follow the compiled chain as long as the classes are matching
+		if (null != chain) {
+			while ((step < chain.classes.length) && (null != current) && (chain.classes[step] == getAccessedClass(current))) {
+				current = chain.accesses[step].access(current);
+				path = path.getPathToContinue();
+				step++;
+			}
 		}
 
-		Class<?> c;
+		if ((null != current) && (null != path)) {
+			List<Class<?>> classes = new ArrayList<Class<?>>();
+			List<PropertyAccess> accesses = new ArrayList<PropertyAccess>();
+			for (int i = 0; i < step; i++) {
+				classes.add(chain.classes[i]);
+				accesses.add(chain.accesses[i]);
+			}
+
+			while ((null != current) && (null != path)) {
+				Class<?> c = getAccessedClass(current);
+				PropertyAccess propertyAccess = getPropertyAccess(c, path);
+				classes.add(c);
+				accesses.add(propertyAccess);
+
+				current = propertyAccess.access(current);
+				path = path.getPathToContinue();
+			}
+
+			PropertyAccessChain newChain = new PropertyAccessChain(classes.toArray(new Class<?>[classes.size()]), accesses.toArray(new PropertyAccess[accesses.size()]));
+			chainCache.put(propertyPath, new SoftReference<PropertyAccessChain>(newChain));
+		}
+
+		if (null == current) {
+			return "null";
+		}
+
+		// end of the path to follow, return the String representation of
+		// the object
+		return current.toString();
+	}
+
+	/**
+	 * Returns the class to access the property on for the given object.
+	 *
+	 * @param object
+	 *            Object, must not be <code>null</code>.
+	 * @return Class to access the property on.
+	 */
+	private Class<?> getAccessedClass(Object object) {
 		if (object instanceof Class) {
 			// This check is needed when a static class is passed to this
 			// method.
-			c = (Class<?>) object;
+			return (Class<?>) object;
 		} else {
-			c = object.getClass();
+			return object.getClass();
 		}
+	}
+
+	/**
+	 * Returns the cached {@link PropertyAccess} for the given class and path or resolves it if it
+	 * is not in the cache yet.
+	 *
+	 * @param c
+	 *            The class to access the property on.
+	 * @param propertyPath
+	 *            The path element to access.
+	 * @return {@link PropertyAccess}
+	 * @throws PropertyAccessException
+	 *             If the property can not be resolved.
+	 */
+	private PropertyAccess getPropertyAccess(Class<?> c, PropertyPath propertyPath) throws PropertyAccessException {
+		ConcurrentMap<PropertyPath, PropertyAccess> classCache = accessCache.getIfPresent(c);
+		if (null == classCache) {
+			// races here only result in resolving the same access twice
+			classCache = new MapMaker().weakKeys().makeMap();
+			accessCache.put(c, classCache);
+		}
+
+		PropertyAccess propertyAccess = classCache.get(propertyPath);
+		if (null == propertyAccess) {
+			propertyAccess = resolvePropertyAccess(c, propertyPath);
+			classCache.put(propertyPath, propertyAccess);
+		}
+		return propertyAccess;
+	}
+
+	/**
+	 * Resolves the field or method to access for the given class and path.
+	 *
+	 * @param clazz
+	 *            The class to access the property on.
+	 * @param propertyPath
+	 *            The path element to access.
+	 * @return {@link PropertyAccess}
+	 * @throws PropertyAccessException
+	 *             If the property can not be resolved.
+	 */
+	private PropertyAccess resolvePropertyAccess(Class<?> clazz, PropertyPath propertyPath) throws PropertyAccessException {
+		Class<?> c = clazz;
 
 		// We need to differ between calls of methods and the navigation of
 		// properties of an object. This differentiation is integrated to
@@ -166,13 +280,7 @@ public class PropertyAccessor implements IPropertyAccessor {
 			// Array objects do not inherit from the static Array class, thus
 			// trying to retrieve the method by reflection is not possible
 			if ("length".equals(methodName)) {
-				if (object.getClass().isArray()) { // ensure that we are really
-					// dealing with an array
-					return getPropertyContent(propertyPath.getPathToContinue(), Integer.valueOf(Array.getLength(object)));
-				} else {
-					log.error("Trying to access the lenght() method for a non array type");
-					throw new PropertyAccessException("Trying to access the length() method for a non array type");
-				}
+				return new PropertyAccess(null, null);
 			}
 
 			do {
@@ -193,25 +301,12 @@ public class PropertyAccessor implements IPropertyAccessor {
 							continue;
 						}
 
-						try {
-							Object result = method.invoke(object, (Object[]) null);
-							return getPropertyContent(propertyPath.getPathToContinue(), result);
-						} catch (IllegalArgumentException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Illegal Argument Exception!", e);
-						} catch (IllegalAccessException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("IllegalAccessException!", e);
-						} catch (InvocationTargetException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("InvocationTargetException!", e);
-						}
-
+						return new PropertyAccess(null, method);
 					}
 				}
 
 				c = c.getSuperclass();
-			} while (c != Object.class);
+			} while ((null != c) && (c != Object.class));
 
 		} else { // We are dealing with a property navigation and not an method
 			// call
@@ -221,26 +316,19 @@ public class PropertyAccessor implements IPropertyAccessor {
 					if (propertyPath.getName().equals(field.getName())) {
 						try {
 							field.setAccessible(true);
-							Object fieldObject = field.get(object);
-							return getPropertyContent(propertyPath.getPathToContinue(), fieldObject);
+							return new PropertyAccess(field, null);
 						} catch (SecurityException e) {
 							log.error(e.getMessage());
 							throw new PropertyAccessException("Security Exception was thrown while accessing a field!", e);
-						} catch (IllegalArgumentException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Illegal Argument Exception!", e);
-						} catch (IllegalAccessException e) {
-							log.error(e.getMessage());
-							throw new PropertyAccessException("Illegal Access Exception!", e);
 						}
 					}
 				}
 
 				c = c.getSuperclass();
-			} while (c != Object.class);
+			} while ((null != c) && (c != Object.class));
 		}
 
-		throw new PropertyAccessException("Property or method " + propertyPath.getName() + " cannot be found in class " + object.getClass() + "!");
+		throw new PropertyAccessException("Property or method " + propertyPath.getName() + " cannot be found in class " + clazz + "!");
 	}
 
 	/**
@@ -274,4 +362,115 @@ public class PropertyAccessor implements IPropertyAccessor {
 		return parameterContentData;
 	}
 
+	/**
+	 * Accesses of all elements of a {@link PropertyPath} together with the classes they were
+	 * resolved for.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static final class PropertyAccessChain {
+
+		/**
+		 * Classes the accesses were resolved for.
+		 */
+		private final Class<?>[] classes;
+
+		/**
+		 * Accesses for each path element.
+		 */
+		private final PropertyAccess[] accesses;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param classes
+		 *            Classes the accesses were resolved for.
+		 * @param accesses
+		 *            Accesses for each path element.
+		 */
+		PropertyAccessChain(Class<?>[] classes, PropertyAccess[] accesses) {
+			this.classes = classes;
+			this.accesses = accesses;
+		}
+	}
+
+	/**
+	 * Resolved access of one {@link PropertyPath} element on a specific class. Either reads a
+	 * field, invokes a no argument method or returns the length of an array.
+	 *
+	 * @author agent
+	 *
+	 */
+	private final class PropertyAccess {
+
+		/**
+		 * Field to read or <code>null</code>.
+		 */
+		private final Field field;
+
+		/**
+		 * Method to invoke or <code>null</code>.
+		 */
+		private final Method method;
+
+		/**
+		 * Default constructor. If both field and method are <code>null</code> the access returns
+		 * the array length.
+		 *
+		 * @param field
+		 *            Field to read or <code>null</code>.
+		 * @param method
+		 *            Method to invoke or <code>null</code>.
+		 */
+		PropertyAccess(Field field, Method method) {
+			this.field = field;
+			this.method = method;
+		}
+
+		/**
+		 * Accesses the property on the given object.
+		 *
+		 * @param object
+		 *            Object to access property on.
+		 * @return Value of the property.
+		 * @throws PropertyAccessException
+		 *             If the access fails.
+		 */
+		Object access(Object object) throws PropertyAccessException {
+			if (null != field) {
+				try {
+					return field.get(object);
+				} catch (IllegalArgumentException e) {
+					log.error(e.getMessage());
+					throw new PropertyAccessException("Illegal Argument Exception!", e);
+				} catch (IllegalAccessException e) {
+					log.error(e.getMessage());
+					throw new PropertyAccessException("Illegal Access Exception!", e);
+				}
+			} else if (null != method) {
+				try {
+					return method.invoke(object, (Object[]) null);
+				} catch (IllegalArgumentException e) {
+					log.error(e.getMessage());
+					throw new PropertyAccessException("Illegal Argument Exception!", e);
+				} catch (IllegalAccessException e) {
+					log.error(e.getMessage());
+					throw new PropertyAccessException("IllegalAccessException!", e);
+				} catch (InvocationTargetException e) {
+					log.error(e.getMessage());
+					throw new PropertyAccessException("InvocationTargetException!", e);
+				}
+			} else {
+				if (object.getClass().isArray()) { // ensure that we are really
+					// dealing with an array
+					return Integer.valueOf(Array.getLength(object));
+				} else {
+					log.error("Trying to access the lenght() method for a non array type");
+					throw new PropertyAccessException("Trying to access the length() method for a non array type");
+				}
+			}
+		}
+	}
+
 }
@@ -69,10 +69,12 @@ public interface IConnection {
 	 *
 	 * @param dataObjects
 	 *            The measurements to send.
+	 * @return <code>true</code> if the server accepted the measurements, <code>false</code> if
+	 *         they were dropped on the server due to the high load.
 	 * @throws ServerUnavailableException
 	 *             If server to send the request to is unavailable.
 	 */
-	void sendDataObjects(List<? extends DefaultData> dataObjects) throws ServerUnavailableException;
+	boolean sendDataObjects(List<? extends DefaultData> dataObjects) throws ServerUnavailableException;
 
 	/**
 	 * Registers the agent with the CMR. The CMR will answer with the {@link AgentConfig} containing
@@ -126,6 +128,24 @@ public interface IConnection {
 	 */
 	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws ServerUnavailableException, BusinessException;
 
+	/**
+	 * Analyzes all given types with one call to the CMR, returning the
+	 * {@link InstrumentationDefinition}s for the types that should be instrumented on the Agent.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashAndTypes
+	 *            Map of the class hash codes and types that have been parsed from the byte-code.
+	 * @return Map of the class hash codes and instrumentation definitions containing method
+	 *         instrumentation points that should be added for the given types. Hashes of types
+	 *         that should not be instrumented are not contained in the map.
+	 * @throws ServerUnavailableException
+	 *             If server to send the request to is unavailable.
+	 * @throws BusinessException
+	 *             If {@link BusinessException} is thrown on the server.
+	 */
+	Map<String, InstrumentationDefinition> analyzeTypes(long platformIdent, Map<String, Type> hashAndTypes) throws ServerUnavailableException, BusinessException;
+
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
 	 *
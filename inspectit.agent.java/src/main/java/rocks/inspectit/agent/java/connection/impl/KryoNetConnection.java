@@ -20,6 +20,7 @@ import org.springframework.stereotype.Component;
 
 import com.esotericsoftware.kryonet.rmi.RemoteObject;
 
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.connection.FailFastRemoteMethodCall;
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.connection.RegistrationException;
@@ -61,6 +62,12 @@ public class KryoNetConnection implements IConnection {
 	@Autowired
 	private Client client;
 
+	/**
+	 * Configuration storage defining if the compressed transport should be used.
+	 */
+	@Autowired
+	private IConfigurationStorage configurationStorage;
+
 	/**
 	 * The agent storage remote object which will be used to send the measurements to.
 	 */
@@ -217,8 +224,9 @@ public class KryoNetConnection implements IConnection {
 		if (client.isConnected()) {
 			int agentStorageServiceId = IAgentStorageService.class.getAnnotation(ServiceInterface.class).serviceId();
 			agentStorageService = ObjectSpace.getRemoteObject(client, agentStorageServiceId, IAgentStorageService.class);
-			((RemoteObject) agentStorageService).setNonBlocking(true);
-			((RemoteObject) agentStorageService).setTransmitReturnValue(false);
+			// wait for the server to answer, the answer tells if the data was accepted
+			((RemoteObject) agentStorageService).setNonBlocking(false);
+			((RemoteObject) agentStorageService).setTransmitReturnValue(true);
 
 			int agentServiceServiceId = IAgentService.class.getAnnotation(ServiceInterface.class).serviceId();
 			agentService = ObjectSpace.getRemoteObject(client, agentServiceServiceId, IAgentService.class);
@@ -284,6 +292,9 @@ public class KryoNetConnection implements IConnection {
 			throw new RegistrationException("Could not un-register the platform", socketException);
 		}
 
+		// compressed transport is negotiated with each registration, till then data is sent plain
+		client.setCompressedTransport(false);
+
 		// make call
 		FailFastRemoteMethodCall<IAgentService, AgentConfig> call = new FailFastRemoteMethodCall<IAgentService, AgentConfig>(agentService) {
 			@Override
@@ -293,7 +304,16 @@ public class KryoNetConnection implements IConnection {
 		};
 
 		try {
-			return call.makeCall();
+			AgentConfig agentConfiguration = call.makeCall();
+			if (configurationStorage.isCompressedTransport()) {
+				if (agentConfiguration.isCompressedTransportSupported()) {
+					client.setCompressedTransport(true);
+					log.info("KryoNet: Compressed transport activated.");
+				} else {
+					log.warn("KryoNet: Compressed transport is not supported by the CMR, data will be sent uncompressed.");
+				}
+			}
+			return agentConfiguration;
 		} catch (ExecutionException executionException) {
 			if (log.isTraceEnabled()) {
 				log.trace("register(String, String)", executionException);
@@ -354,7 +374,7 @@ public class KryoNetConnection implements IConnection {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void sendDataObjects(List<? extends DefaultData> measurements) throws ServerUnavailableException {
+	public boolean sendDataObjects(List<? extends DefaultData> measurements) throws ServerUnavailableException {
 		if (!isConnected()) {
 			throw new ServerUnavailableException();
 		}
@@ -362,10 +382,11 @@ public class KryoNetConnection implements IConnection {
 		if ((null != measurements) && !measurements.isEmpty()) {
 			try {
 				AddDataObjects remote = new AddDataObjects(agentStorageService, measurements);
-				remote.makeCall();
+				return !Boolean.FALSE.equals(remote.makeCall());
 			} catch (ExecutionException executionException) {
 				// there should be no execution exception
 				log.error("Could not send data objects", executionException);
+				return false;
 			} catch (ServerUnavailableException e) {
 				if (!e.isServerTimeout()) {
 					disconnectClient();
@@ -373,6 +394,7 @@ public class KryoNetConnection implements IConnection {
 				throw e;
 			}
 		}
+		return true;
 	}
 
 	/**
@@ -415,6 +437,46 @@ public class KryoNetConnection implements IConnection {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, InstrumentationDefinition> analyzeTypes(final long platformIdent, final Map<String, Type> hashAndTypes) throws ServerUnavailableException, BusinessException {
+		if (!isConnected()) {
+			throw new ServerUnavailableException();
+		}
+
+		// make call
+		FailFastRemoteMethodCall<IAgentService, Map<String, InstrumentationDefinition>> call = new FailFastRemoteMethodCall<IAgentService, Map<String, InstrumentationDefinition>>(agentService) {
+			@Override
+			protected Map<String, InstrumentationDefinition> performRemoteCall(IAgentService service) throws Exception {
+				return agentService.analyzeTypes(platformIdent, hashAndTypes);
+			}
+		};
+
+		try {
+			return call.makeCall();
+		} catch (ExecutionException executionException) {
+			if (log.isTraceEnabled()) {
+				log.trace("analyzeTypes(long,Map)", executionException);
+			}
+
+			// check for business exception
+			if (executionException.getCause() instanceof BusinessException) {
+				throw ((BusinessException) executionException.getCause()); // NOPMD
+			}
+
+			// otherwise we log and return empty map as it's unexpected exception for us
+			log.error("Could not get instrumentation results", executionException);
+			return Collections.emptyMap();
+		} catch (ServerUnavailableException e) {
+			if (!e.isServerTimeout()) {
+				disconnectClient();
+			}
+			throw e;
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
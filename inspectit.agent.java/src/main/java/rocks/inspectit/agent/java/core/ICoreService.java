@@ -158,4 +158,20 @@ public interface ICoreService {
 	 */
 	void removeListListener(ListListener<?> listener);
 
+	/**
+	 * Adds a new sending listener.
+	 *
+	 * @param listener
+	 *            The listener to add.
+	 */
+	void addSendingListener(SendingListener listener);
+
+	/**
+	 * Removes a sending listener.
+	 *
+	 * @param listener
+	 *            The listener to remove.
+	 */
+	void removeSendingListener(SendingListener listener);
+
 }
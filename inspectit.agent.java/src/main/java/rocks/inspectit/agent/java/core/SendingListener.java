@@ -0,0 +1,31 @@
+package rocks.inspectit.agent.java.core;
+
+import java.util.EventListener;
+
+/**
+ * The {@link SendingListener} interface allows a class to react on the outcome of sending the data
+ * to the CMR.
+ *
+ * @author agent
+ */
+public interface SendingListener extends EventListener {
+
+	/**
+	 * The data was sent to the CMR.
+	 *
+	 * @param elementCount
+	 *            The amount of data objects sent.
+	 * @param duration
+	 *            The duration of the send in nanoseconds.
+	 * @param accepted
+	 *            <code>true</code> if the CMR accepted the data, <code>false</code> if it dropped
+	 *            the data due to the high load.
+	 */
+	void dataSent(int elementCount, long duration, boolean accepted);
+
+	/**
+	 * Sending of the data to the CMR timed out.
+	 */
+	void sendingTimedOut();
+
+}
@@ -5,9 +5,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
@@ -26,6 +28,7 @@ import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IObjectStorage;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.ListListener;
+import rocks.inspectit.agent.java.core.SendingListener;
 import rocks.inspectit.agent.java.sending.ISendingStrategy;
 import rocks.inspectit.agent.java.sensor.jmx.IJmxSensor;
 import rocks.inspectit.agent.java.sensor.platform.IPlatformSensor;
@@ -114,10 +117,15 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	private Map<String, DefaultData> sensorDataObjects = new ConcurrentHashMap<String, DefaultData>();
 
+	/**
+	 * Already used method sensor data objects keyed by the method id, sensor type id and prefix.
+	 */
+	private MethodSensorMap<MethodSensorData> methodSensorDataObjects = new MethodSensorMap<MethodSensorData>();
+
 	/**
 	 * Contains object storage instances which will be initialized when sending.
 	 */
-	private Map<String, IObjectStorage> objectStorages = new ConcurrentHashMap<String, IObjectStorage>();
+	private MethodSensorMap<IObjectStorage> objectStorages = new MethodSensorMap<IObjectStorage>();
 
 	/**
 	 * Used as second hash table for the measurements when processed before sending.
@@ -125,20 +133,25 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	private Map<String, DefaultData> measurementsProcessing = new ConcurrentHashMap<String, DefaultData>();
 
 	/**
-	 * Used as second hash table for the object storages when processed before sending.
+	 * Used as second map for the method sensor data objects when processed before sending.
 	 */
-	private Map<String, IObjectStorage> objectStoragesProcessing = new ConcurrentHashMap<String, IObjectStorage>();
+	private MethodSensorMap<MethodSensorData> methodSensorDataProcessing = new MethodSensorMap<MethodSensorData>();
 
 	/**
-	 * Temporary Map to switch the references of the active hash table with the processed one.
+	 * Used as second map for the object storages when processed before sending.
 	 */
-	private Map<String, ?> temp;
+	private MethodSensorMap<IObjectStorage> objectStoragesProcessing = new MethodSensorMap<IObjectStorage>();
 
 	/**
 	 * The registered list listeners.
 	 */
 	private final List<ListListener<?>> listListeners = new ArrayList<ListListener<?>>();
 
+	/**
+	 * The registered sending listeners. Notified from the sending thread.
+	 */
+	private final List<SendingListener> sendingListeners = new CopyOnWriteArrayList<SendingListener>();
+
 	/**
 	 * The default refresh time.
 	 */
@@ -207,13 +220,8 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 			strategy.stop();
 		}
 
-		synchronized (preparingThread) {
-			preparingThread.interrupt();
-		}
-
-		synchronized (sendingThread) {
-			sendingThread.interrupt();
-		}
+		preparingThread.interrupt();
+		sendingThread.interrupt();
 
 		Thread temp = sensorRefresher;
 		sensorRefresher = null; // NOPMD
@@ -229,11 +237,9 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void sendData() {
-		// notify the sending thread. if it is currently sending something,
-		// nothing should happen
-		synchronized (preparingThread) {
-			preparingThread.notifyAll();
-		}
+		// unpark the preparing thread. if it is currently preparing something, the permit is kept
+		// and the thread runs once more
+		LockSupport.unpark(preparingThread);
 	}
 
 	/**
@@ -259,15 +265,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void addMethodSensorData(long sensorTypeIdent, long methodIdent, String prefix, MethodSensorData methodSensorData) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
-		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		DefaultData existingData = sensorDataObjects.put(builder.toString(), methodSensorData);
+		DefaultData existingData = methodSensorDataObjects.put(methodIdent, sensorTypeIdent, prefix, methodSensorData);
 
 		// put existing data back into the map
 		if (existingData != null) {
@@ -282,15 +280,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public MethodSensorData getMethodSensorData(long sensorTypeIdent, long methodIdent, String prefix) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
-		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		return (MethodSensorData) sensorDataObjects.get(builder.toString());
+		return methodSensorDataObjects.get(methodIdent, sensorTypeIdent, prefix);
 	}
 
 	/**
@@ -350,15 +340,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public void addObjectStorage(long sensorTypeIdent, long methodIdent, String prefix, IObjectStorage objectStorage) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
-		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		objectStorages.put(builder.toString(), objectStorage);
+		objectStorages.put(methodIdent, sensorTypeIdent, prefix, objectStorage);
 		notifyListListeners();
 	}
 
@@ -367,15 +349,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 */
 	@Override
 	public IObjectStorage getObjectStorage(long sensorTypeIdent, long methodIdent, String prefix) {
-		StringBuilder builder = new StringBuilder();
-		if (null != prefix) {
-			builder.append(prefix);
-			builder.append('.');
-		}
-		builder.append(methodIdent);
-		builder.append('.');
-		builder.append(sensorTypeIdent);
-		return objectStorages.get(builder.toString());
+		return objectStorages.get(methodIdent, sensorTypeIdent, prefix);
 	}
 
 	/**
@@ -396,12 +370,30 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 		listListeners.remove(listener);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addSendingListener(SendingListener listener) {
+		if (!sendingListeners.contains(listener)) {
+			sendingListeners.add(listener);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void removeSendingListener(SendingListener listener) {
+		sendingListeners.remove(listener);
+	}
+
 	/**
 	 * Notify all registered listeners that a change occurred in the lists.
 	 */
 	private void notifyListListeners() {
 		if (!listListeners.isEmpty()) {
-			int elementCount = sensorDataObjects.size() + objectStorages.size();
+			int elementCount = sensorDataObjects.size() + methodSensorDataObjects.size() + objectStorages.size();
 			for (ListListener<?> listListener : listListeners) {
 				listListener.contentChanged(elementCount);
 			}
@@ -538,32 +530,39 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 	 *
 	 * @return <code>true</code> if new data were prepared, else <code>false</code>
 	 */
-	@SuppressWarnings("unchecked")
 	private boolean prepareData() {
 		// check if measurements are added in the last interval, if not nothing needs to be sent.
-		if (sensorDataObjects.isEmpty() && objectStorages.isEmpty()) {
+		if (sensorDataObjects.isEmpty() && methodSensorDataObjects.isEmpty() && objectStorages.isEmpty()) {
 			return false;
 		}
 
 		// switch the references so that new data is stored while sending
-		temp = sensorDataObjects;
+		Map<String, DefaultData> tempMeasurements = sensorDataObjects;
 		sensorDataObjects = measurementsProcessing;
-		measurementsProcessing = (Map<String, DefaultData>) temp;
+		measurementsProcessing = tempMeasurements;
+
+		MethodSensorMap<MethodSensorData> tempMethodSensorData = methodSensorDataObjects;
+		methodSensorDataObjects = methodSensorDataProcessing;
+		methodSensorDataProcessing = tempMethodSensorData;
 
-		temp = objectStorages;
+		MethodSensorMap<IObjectStorage> tempObjectStorages = objectStorages;
 		objectStorages = objectStoragesProcessing;
-		objectStoragesProcessing = (Map<String, IObjectStorage>) temp;
+		objectStoragesProcessing = tempObjectStorages;
 
 		// copy the measurements values to a new list
 		List<DefaultData> tempList = new ArrayList<DefaultData>(measurementsProcessing.values());
 		measurementsProcessing.clear();
+		methodSensorDataProcessing.addValuesTo(tempList);
+		methodSensorDataProcessing.clear();
 
 		// iterate the object storages and get the value objects which will be stored in the same
 		// list.
-		for (IObjectStorage objectStorage : objectStoragesProcessing.values()) {
+		List<IObjectStorage> storages = new ArrayList<IObjectStorage>(objectStoragesProcessing.size());
+		objectStoragesProcessing.addValuesTo(storages);
+		objectStoragesProcessing.clear();
+		for (IObjectStorage objectStorage : storages) {
 			tempList.add(objectStorage.finalizeDataObject());
 		}
-		objectStoragesProcessing.clear();
 
 		// Now give the strategy the list
 		bufferStrategy.addMeasurements(tempList);
@@ -588,12 +587,21 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 				}
 
 				List<DefaultData> dataToSend = bufferStrategy.next();
-				connection.sendDataObjects(dataToSend);
+				long start = System.nanoTime();
+				boolean accepted = connection.sendDataObjects(dataToSend);
+				long duration = System.nanoTime() - start;
 				sendingExceptionNotice = false;
+
+				for (SendingListener sendingListener : sendingListeners) {
+					sendingListener.dataSent(dataToSend.size(), duration, accepted);
+				}
 			}
 		} catch (ServerUnavailableException serverUnavailableException) {
 			if (serverUnavailableException.isServerTimeout()) {
 				log.warn("Timeout on server when sending actual data. Data might be lost!", serverUnavailableException);
+				for (SendingListener sendingListener : sendingListeners) {
+					sendingListener.sendingTimedOut();
+				}
 			} else {
 				if (!sendingExceptionNotice) {
 					sendingExceptionNotice = true;
@@ -640,15 +648,10 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 
 			while (!isInterrupted()) {
 				// wait for activation
-				synchronized (this) {
-					try {
-						if (!isInterrupted()) {
-							wait();
-						}
-					} catch (InterruptedException e) {
-						log.error("Preparing thread interrupted and shutting down!");
-						break; // we were interrupted during waiting and close ourself down.
-					}
+				LockSupport.park(this);
+				if (isInterrupted()) {
+					log.error("Preparing thread interrupted and shutting down!");
+					break; // we were interrupted during waiting and close ourself down.
 				}
 
 				// We got a request from one of the send strategies.
@@ -656,9 +659,7 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 				boolean newDataAvailable = prepareData();
 				if (newDataAvailable) {
 					// Notify sending thread
-					synchronized (sendingThread) {
-						sendingThread.notifyAll();
-					}
+					LockSupport.unpark(sendingThread);
 				}
 			}
 		}
@@ -696,15 +697,10 @@ public class CoreService implements ICoreService, InitializingBean, DisposableBe
 			while (!isInterrupted()) {
 				// wait for activation if there is nothing to send
 				if (!bufferStrategy.hasNext()) {
-					synchronized (this) {
-						try {
-							if (!isInterrupted()) {
-								wait();
-							}
-						} catch (InterruptedException e) {
-							log.error("Sending thread interrupted and shuting down!");
-							break; // we were interrupted during waiting and close ourself down.
-						}
+					LockSupport.park(this);
+					if (isInterrupted()) {
+						log.error("Sending thread interrupted and shuting down!");
+						break; // we were interrupted during waiting and close ourself down.
 					}
 				}
 
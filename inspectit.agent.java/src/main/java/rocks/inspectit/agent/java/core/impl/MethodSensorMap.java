@@ -0,0 +1,233 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import org.cliffc.high_scale_lib.Counter;
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+
+/**
+ * Non-blocking map that stores values by the method id, the sensor type id and an optional prefix.
+ * Compared to joining the key parts into one string key, no object is created and no string is
+ * hashed when a value is accessed without a prefix. The values are held in a two level
+ * {@link NonBlockingHashMapLong} (method id, then sensor type id) and only values with a prefix
+ * are additionally kept in a {@link ConcurrentHashMap} keyed by the prefix.
+ *
+ * @param <V>
+ *            Type of the values.
+ *
+ * @author agent
+ *
+ */
+class MethodSensorMap<V> {
+
+	/**
+	 * Slots by sensor type id by method id.
+	 */
+	private final NonBlockingHashMapLong<NonBlockingHashMapLong<Slot<V>>> methods = new NonBlockingHashMapLong<NonBlockingHashMapLong<Slot<V>>>();
+
+	/**
+	 * Number of values in the map.
+	 */
+	private final Counter size = new Counter();
+
+	/**
+	 * Returns the value for the given key.
+	 *
+	 * @param methodIdent
+	 *            Method id.
+	 * @param sensorTypeIdent
+	 *            Sensor type id.
+	 * @param prefix
+	 *            Prefix, can be <code>null</code>.
+	 * @return Value or <code>null</code> if no value is mapped.
+	 */
+	public V get(long methodIdent, long sensorTypeIdent, String prefix) {
+		NonBlockingHashMapLong<Slot<V>> sensors = methods.get(methodIdent);
+		if (null == sensors) {
+			return null;
+		}
+
+		Slot<V> slot = sensors.get(sensorTypeIdent);
+		if (null == slot) {
+			return null;
+		}
+
+		return slot.get(prefix);
+	}
+
+	/**
+	 * Maps the value to the given key.
+	 *
+	 * @param methodIdent
+	 *            Method id.
+	 * @param sensorTypeIdent
+	 *            Sensor type id.
+	 * @param prefix
+	 *            Prefix, can be <code>null</code>.
+	 * @param value
+	 *            Value, must not be <code>null</code>.
+	 * @return Value previously mapped to the key or <code>null</code> if there was none.
+	 */
+	public V put(long methodIdent, long sensorTypeIdent, String prefix, V value) {
+		NonBlockingHashMapLong<Slot<V>> sensors = methods.get(methodIdent);
+		if (null == sensors) {
+			sensors = new NonBlockingHashMapLong<Slot<V>>();
+			NonBlockingHashMapLong<Slot<V>> existing = methods.putIfAbsent(methodIdent, sensors);
+			if (null != existing) {
+				sensors = existing;
+			}
+		}
+
+		Slot<V> slot = sensors.get(sensorTypeIdent);
+		if (null == slot) {
+			slot = new Slot<V>();
+			Slot<V> existing = sensors.putIfAbsent(sensorTypeIdent, slot);
+			if (null != existing) {
+				slot = existing;
+			}
+		}
+
+		V previous = slot.put(prefix, value);
+		if (null == previous) {
+			size.increment();
+		}
+		return previous;
+	}
+
+	/**
+	 * Adds all values of this map to the given collection.
+	 *
+	 * @param collection
+	 *            Collection to add values to.
+	 */
+	public void addValuesTo(Collection<? super V> collection) {
+		for (NonBlockingHashMapLong<Slot<V>> sensors : methods.values()) {
+			for (Slot<V> slot : sensors.values()) {
+				slot.addValuesTo(collection);
+			}
+		}
+	}
+
+	/**
+	 * Removes all values from the map.
+	 */
+	public void clear() {
+		methods.clear();
+		size.set(0);
+	}
+
+	/**
+	 * Returns the number of values in the map.
+	 *
+	 * @return Returns the number of values in the map.
+	 */
+	public int size() {
+		return size.intValue();
+	}
+
+	/**
+	 * Returns if the map has no values.
+	 *
+	 * @return Returns if the map has no values.
+	 */
+	public boolean isEmpty() {
+		return 0 == size.get();
+	}
+
+	/**
+	 * Values of one method id and sensor type id combination. The value without prefix is kept in
+	 * a field, the map for the prefixed values is only created when first needed.
+	 *
+	 * @param <V>
+	 *            Type of the values.
+	 *
+	 * @author agent
+	 *
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final class Slot<V> {
+
+		/**
+		 * Updater for the {@link #value}.
+		 */
+		private static final AtomicReferenceFieldUpdater<Slot, Object> VALUE = AtomicReferenceFieldUpdater.newUpdater(Slot.class, Object.class, "value");
+
+		/**
+		 * Updater for the {@link #prefixed}.
+		 */
+		private static final AtomicReferenceFieldUpdater<Slot, ConcurrentMap> PREFIXED = AtomicReferenceFieldUpdater.newUpdater(Slot.class, ConcurrentMap.class, "prefixed");
+
+		/**
+		 * Value without prefix.
+		 */
+		private volatile V value;
+
+		/**
+		 * Values by prefix.
+		 */
+		private volatile ConcurrentMap<String, V> prefixed;
+
+		/**
+		 * Returns the value for the prefix.
+		 *
+		 * @param prefix
+		 *            Prefix, can be <code>null</code>.
+		 * @return Value or <code>null</code>.
+		 */
+		V get(String prefix) {
+			if (null == prefix) {
+				return value;
+			}
+
+			ConcurrentMap<String, V> map = prefixed;
+			if (null == map) {
+				return null;
+			}
+			return map.get(prefix);
+		}
+
+		/**
+		 * Maps the value to the prefix.
+		 *
+		 * @param prefix
+		 *            Prefix, can be <code>null</code>.
+		 * @param newValue
+		 *            Value.
+		 * @return Previous value or <code>null</code>.
+		 */
+		@SuppressWarnings("unchecked")
+		V put(String prefix, V newValue) {
+			if (null == prefix) {
+				return (V) VALUE.getAndSet(this, newValue);
+			}
+
+			ConcurrentMap<String, V> map = prefixed;
+			if (null == map) {
+				PREFIXED.compareAndSet(this, null, new ConcurrentHashMap<String, V>(4));
+				map = prefixed;
+			}
+			return map.put(prefix, newValue);
+		}
+
+		/**
+		 * Adds all values to the given collection.
+		 *
+		 * @param collection
+		 *            Collection to add values to.
+		 */
+		void addValuesTo(Collection<? super V> collection) {
+			V current = value;
+			if (null != current) {
+				collection.add(current);
+			}
+
+			ConcurrentMap<String, V> map = prefixed;
+			if (null != map) {
+				collection.addAll(map.values());
+			}
+		}
+	}
+}
@@ -75,20 +75,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	private final NonBlockingHashMapLong<SpecialSensorConfig> specialMappings = new NonBlockingHashMapLong<SpecialSensorConfig>();
 
 	/**
-	 * Stores the current Status of the invocation sequence tracer in a {@link ThreadLocal} object.
+	 * Holds the dispatching state of each thread. All the state needed for one dispatch is kept in
+	 * one object, so only one {@link ThreadLocal#get()} is executed per dispatch.
 	 */
-	private final InvocationSequenceCount invocationSequenceCount = new InvocationSequenceCount();
-
-	/**
-	 * A thread local holder object to save the current started invocation sequence.
-	 */
-	private final ThreadLocal<IHook> invocationSequenceHolder = new ThreadLocal<IHook>();
-
-	/**
-	 * If an execution of the dispatching is already in progress, we don't dispatch anything else
-	 * for this thread.
-	 */
-	private final ExecutionMarker executionMarker = new ExecutionMarker();
+	private final DispatchStateHolder dispatchState = new DispatchStateHolder();
 
 	/**
 	 * {@inheritDoc}
@@ -111,9 +101,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchMethodBeforeBody(long id, Object object, Object[] parameters) {
-		if (!executionMarker.isActive()) {
+		DispatchState state = dispatchState.get();
+		if (!state.executing) {
 			try {
-				executionMarker.active();
+				state.executing = true;
 
 				try {
 					RegisteredSensorConfig rsc = mappings.get(id);
@@ -124,16 +115,16 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 						// access. Additionally, we need to save the count of the called
 						// invocation sensors, as another nested one could be started,
 						// too.
-						invocationSequenceCount.increment();
+						state.invocationSequenceCount++;
 
-						if (null == invocationSequenceHolder.get()) {
-							invocationSequenceHolder.set(invocationSequenceSensor.getHook());
+						if (null == state.invocationSequenceHook) {
+							state.invocationSequenceHook = invocationSequenceSensor.getHook();
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != state.invocationSequenceHook) {
 						// We are executing the following sensor types in an invocation
 						// sequence context, thus we have to execute the before body
 						// method of the invocation sequence hook manually.
-						IMethodHook invocationHook = (IMethodHook) invocationSequenceHolder.get();
+						IMethodHook invocationHook = (IMethodHook) state.invocationSequenceHook;
 
 						// The sensor type ID is not important here, thus we are passing
 						// a -1. It is already stored in the data object
@@ -150,7 +141,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					log.error("An error happened in the Hook Dispatcher! (before body)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				state.executing = false;
 			}
 		}
 	}
@@ -160,9 +151,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchFirstMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception) {
-		if (!executionMarker.isActive()) {
+		DispatchState state = dispatchState.get();
+		if (!state.executing) {
 			try {
-				executionMarker.active();
+				state.executing = true;
 
 				try {
 					RegisteredSensorConfig rsc = mappings.get(id);
@@ -177,7 +169,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					log.error("An error happened in the Hook Dispatcher! (after body)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				state.executing = false;
 			}
 		}
 	}
@@ -187,18 +179,19 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchSecondMethodAfterBody(long id, Object object, Object[] parameters, Object returnValue, boolean exception) {
-		if (!executionMarker.isActive()) {
+		DispatchState state = dispatchState.get();
+		if (!state.executing) {
 			try {
-				executionMarker.active();
+				state.executing = true;
 
 				try {
 					RegisteredSensorConfig rsc = mappings.get(id);
 
-					if (null != invocationSequenceHolder.get()) {
+					if (null != state.invocationSequenceHook) {
 						// Need to replace the core service with the one from the invocation
 						// sequence so that all data objects can be associated to that invocation
 						// record.
-						ICoreService invocCoreService = (ICoreService) invocationSequenceHolder.get();
+						ICoreService invocCoreService = (ICoreService) state.invocationSequenceHook;
 
 						// Now iterate over all registered sensor types and execute them
 						// normal execution (sensor with highest priority first)
@@ -220,15 +213,15 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					}
 
 					if (rsc.isStartsInvocation()) {
-						invocationSequenceCount.decrement();
+						state.invocationSequenceCount--;
 
-						if (0 == invocationSequenceCount.getCount()) {
-							invocationSequenceHolder.set(null);
+						if (0 == state.invocationSequenceCount) {
+							state.invocationSequenceHook = null;
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != state.invocationSequenceHook) {
 						// We have to execute the after body method of the invocation sequence hook
 						// manually.
-						IMethodHook invocationHook = (IMethodHook) invocationSequenceHolder.get();
+						IMethodHook invocationHook = (IMethodHook) state.invocationSequenceHook;
 
 						// The sensor type ID is not important here, thus we are passing a -1. It is
 						// already stored in the data object
@@ -238,7 +231,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					log.error("An error happened in the Hook Dispatcher! (second after body)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				state.executing = false;
 			}
 		}
 	}
@@ -248,9 +241,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		DispatchState state = dispatchState.get();
+		if (!state.executing) {
 			try {
-				executionMarker.active();
+				state.executing = true;
 
 				// rsc contains the settings for the actual method where the exception was thrown.
 				RegisteredSensorConfig rsc = mappings.get(id);
@@ -258,10 +252,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				long sensorTypeId = sensorTypeConfig.getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != state.invocationSequenceHook) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) state.invocationSequenceHook;
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -271,7 +265,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchOnThrowInBody(coreService, id, sensorTypeId, object, exceptionObject, parameters, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				state.executing = false;
 			}
 		}
 	}
@@ -281,19 +275,20 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchBeforeCatch(long id, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		DispatchState state = dispatchState.get();
+		if (!state.executing) {
 			try {
-				executionMarker.active();
+				state.executing = true;
 
 				// rsc contains the settings of the actual method where the exception is catched.
 				RegisteredSensorConfig rsc = mappings.get(id);
 				long sensorTypeId = exceptionSensor.getSensorTypeConfig().getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != state.invocationSequenceHook) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) state.invocationSequenceHook;
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -303,7 +298,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchBeforeCatchBody(coreService, id, sensorTypeId, exceptionObject, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				state.executing = false;
 			}
 		}
 	}
@@ -313,9 +308,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorOnThrowInBody(long id, Object object, Object[] parameters, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		DispatchState state = dispatchState.get();
+		if (!state.executing) {
 			try {
-				executionMarker.active();
+				state.executing = true;
 
 				// rsc contains the settings for the actual constructor where the exception was
 				// thrown.
@@ -323,10 +319,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				long sensorTypeId = exceptionSensor.getSensorTypeConfig().getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != state.invocationSequenceHook) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) state.invocationSequenceHook;
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -336,7 +332,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchOnThrowInBody(coreService, id, sensorTypeId, object, exceptionObject, parameters, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				state.executing = false;
 			}
 		}
 	}
@@ -346,9 +342,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorBeforeCatch(long id, Object exceptionObject) {
-		if (!executionMarker.isActive()) {
+		DispatchState state = dispatchState.get();
+		if (!state.executing) {
 			try {
-				executionMarker.active();
+				state.executing = true;
 
 				// rsc contains the settings of the actual constructor where the exception is
 				// catched.
@@ -356,10 +353,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 				long sensorTypeId = exceptionSensor.getSensorTypeConfig().getId();
 
 				ICoreService invocCoreService = null;
-				if (null != invocationSequenceHolder.get()) {
+				if (null != state.invocationSequenceHook) {
 					// Need to replace the core service with the one from the invocation sequence so
 					// that all data objects can be associated to that invocation record.
-					invocCoreService = (ICoreService) invocationSequenceHolder.get();
+					invocCoreService = (ICoreService) state.invocationSequenceHook;
 				}
 
 				IExceptionSensorHook exceptionHook = (IExceptionSensorHook) exceptionSensor.getHook();
@@ -369,7 +366,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					exceptionHook.dispatchBeforeCatchBody(coreService, id, sensorTypeId, exceptionObject, rsc);
 				}
 			} finally {
-				executionMarker.deactive();
+				state.executing = false;
 			}
 		}
 	}
@@ -379,9 +376,10 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorBeforeBody(long id, Object[] parameters) {
-		if (!executionMarker.isActive()) {
+		DispatchState state = dispatchState.get();
+		if (!state.executing) {
 			try {
-				executionMarker.active();
+				state.executing = true;
 
 				try {
 					RegisteredSensorConfig rsc = mappings.get(id);
@@ -391,15 +389,15 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 						// to set it on the thread local map for later access. Additionally, we need
 						// to save the count of the called invocation sensors, as another nested one
 						// could be started, too.
-						invocationSequenceCount.increment();
-						if (null == invocationSequenceHolder.get()) {
-							invocationSequenceHolder.set(invocationSequenceSensor.getHook());
+						state.invocationSequenceCount++;
+						if (null == state.invocationSequenceHook) {
+							state.invocationSequenceHook = invocationSequenceSensor.getHook();
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != state.invocationSequenceHook) {
 						// We are executing the following sensor types in an invocation sequence
 						// context, thus we have to execute the before body method of the invocation
 						// sequence hook manually.
-						IConstructorHook invocationHook = (IConstructorHook) invocationSequenceHolder.get();
+						IConstructorHook invocationHook = (IConstructorHook) state.invocationSequenceHook;
 
 						// The sensor type ID is not important here, thus we are passing a -1. It is
 						// already stored in the data object
@@ -416,7 +414,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					log.error("An error happened in the Hook Dispatcher! (before constructor)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				state.executing = false;
 			}
 		}
 	}
@@ -426,18 +424,19 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	 */
 	@Override
 	public void dispatchConstructorAfterBody(long id, Object object, Object[] parameters) {
-		if (!executionMarker.isActive()) {
+		DispatchState state = dispatchState.get();
+		if (!state.executing) {
 			try {
-				executionMarker.active();
+				state.executing = true;
 
 				try {
 					RegisteredSensorConfig rsc = mappings.get(id);
 
-					if (null != invocationSequenceHolder.get()) {
+					if (null != state.invocationSequenceHook) {
 						// Need to replace the core service with the one from the invocation
 						// sequence so that all data objects can be associated to that invocation
 						// record.
-						ICoreService invocCoreService = (ICoreService) invocationSequenceHolder.get();
+						ICoreService invocCoreService = (ICoreService) state.invocationSequenceHook;
 
 						for (IMethodSensor methodSensor : rsc.getMethodSensors()) {
 							IConstructorHook constructorHook = (IConstructorHook) methodSensor.getHook();
@@ -458,15 +457,15 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					}
 
 					if (rsc.isStartsInvocation()) {
-						invocationSequenceCount.decrement();
+						state.invocationSequenceCount--;
 
-						if (0 == invocationSequenceCount.getCount()) {
-							invocationSequenceHolder.set(null);
+						if (0 == state.invocationSequenceCount) {
+							state.invocationSequenceHook = null;
 						}
-					} else if (null != invocationSequenceHolder.get()) {
+					} else if (null != state.invocationSequenceHook) {
 						// We have to execute the after body method of the invocation
 						// sequence hook manually.
-						IConstructorHook invocationHook = (IConstructorHook) invocationSequenceHolder.get();
+						IConstructorHook invocationHook = (IConstructorHook) state.invocationSequenceHook;
 
 						// The sensor type ID is not important here, thus we are passing
 						// a -1. It is already stored in the data object
@@ -476,7 +475,7 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 					log.error("An error happened in the Hook Dispatcher! (after constructor)", throwable);
 				}
 			} finally {
-				executionMarker.deactive();
+				state.executing = false;
 			}
 		}
 	}
@@ -524,86 +523,48 @@ public class HookDispatcher implements IHookDispatcherMapper, IHookDispatcher {
 	}
 
 	/**
-	 * Private inner class used to track the count of the started invocation sequences in one
-	 * thread. Thus it extends {@link ThreadLocal} to provide a unique number for every Thread.
+	 * Dispatching state of one thread. Fields are primitives or plain references and are only
+	 * accessed by the owning thread, thus updating the state does not allocate any objects.
 	 *
-	 * @author Patrice Bouillet
+	 * @author agent
 	 *
 	 */
-	private static class InvocationSequenceCount extends ThreadLocal<Long> {
+	private static class DispatchState {
 
 		/**
-		 * {@inheritDoc}
+		 * If an execution of the dispatching is already in progress, we don't dispatch anything
+		 * else for this thread (because it could happen, that we'll never end then).
 		 */
-		@Override
-		protected Long initialValue() {
-			return Long.valueOf(0);
-		}
+		private boolean executing;
 
 		/**
-		 * Increments the stored value.
+		 * Count of the started invocation sequences in this thread. Another nested invocation
+		 * sequence can be started while one is already active.
 		 */
-		public void increment() {
-			super.set(Long.valueOf(super.get().longValue() + 1));
-		}
+		private long invocationSequenceCount;
 
 		/**
-		 * Decrements the stored value.
+		 * Hook of the currently started invocation sequence or <code>null</code> if no invocation
+		 * sequence is active in this thread.
 		 */
-		public void decrement() {
-			super.set(Long.valueOf(super.get().longValue() - 1));
-		}
-
-		/**
-		 * Returns the current count.
-		 *
-		 * @return The count.
-		 */
-		public long getCount() {
-			return super.get().longValue();
-		}
+		private IHook invocationSequenceHook;
 
 	}
 
 	/**
-	 * ThreadLocal execution marker which is used to mark executions as already in progress to not
-	 * dispatch over and over again.
+	 * {@link ThreadLocal} providing a unique {@link DispatchState} for every thread.
 	 *
-	 * @author Patrice Bouillet
+	 * @author agent
 	 *
 	 */
-	private static class ExecutionMarker extends ThreadLocal<Boolean> {
+	private static class DispatchStateHolder extends ThreadLocal<DispatchState> {
 
 		/**
 		 * {@inheritDoc}
 		 */
 		@Override
-		protected Boolean initialValue() {
-			return Boolean.FALSE;
-		}
-
-		/**
-		 * Execution is active.
-		 */
-		public void active() {
-			super.set(Boolean.TRUE);
-		}
-
-		/**
-		 * Execution is deactive.
-		 */
-		public void deactive() {
-			super.set(Boolean.FALSE);
-		}
-
-		/**
-		 * Defines if our own execution is active, and thus we have to skip the whole processing
-		 * (because it could happen, that we'll never end then).
-		 *
-		 * @return if own execution is active.
-		 */
-		public boolean isActive() {
-			return super.get().booleanValue();
+		protected DispatchState initialValue() {
+			return new DispatchState();
 		}
 
 	}
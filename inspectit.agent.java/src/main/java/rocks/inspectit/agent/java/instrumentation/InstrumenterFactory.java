@@ -2,11 +2,16 @@ package rocks.inspectit.agent.java.instrumentation;
 
 import info.novatec.inspectit.org.objectweb.asm.MethodVisitor;
 
+import java.util.List;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import rocks.inspectit.agent.java.instrumentation.asm.ConstructorInstrumenter;
 import rocks.inspectit.agent.java.instrumentation.asm.MethodInstrumenter;
 import rocks.inspectit.agent.java.instrumentation.asm.SpecialMethodInstrumenter;
+import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SpecialInstrumentationPoint;
@@ -23,6 +28,12 @@ import rocks.inspectit.shared.all.instrumentation.config.impl.SpecialInstrumenta
 @Component
 public class InstrumenterFactory {
 
+	/**
+	 * All initialized {@link IMethodSensor}s.
+	 */
+	@Autowired
+	private List<IMethodSensor> methodSensors;
+
 	/**
 	 * Returns correct {@link MethodVisitor} based on the given instrumentation point.
 	 *
@@ -54,7 +65,8 @@ public class InstrumenterFactory {
 			if (sensorInstrumentationPoint.isConstructor()) {
 				return new ConstructorInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor);
 			} else {
-				return new MethodInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor);
+				boolean parametersRequired = isParametersRequired(sensorInstrumentationPoint);
+				return new MethodInstrumenter(superMethodVisitor, access, name, desc, sensorInstrumentationPoint.getId(), enhancedExceptionSensor, parametersRequired);
 			}
 		} else if (instrumentationPoint instanceof SpecialInstrumentationPoint) {
 			SpecialInstrumentationPoint specialInstrumentationPoint = (SpecialInstrumentationPoint) instrumentationPoint;
@@ -63,4 +75,36 @@ public class InstrumenterFactory {
 		throw new IllegalArgumentException("The instrumentation point " + instrumentationPoint + " is not known to the InstrumenterFactory.");
 	}
 
+	/**
+	 * Defines if the parameters of the instrumented method must be passed to the dispatcher. This
+	 * is the case if parameter property access is defined or any of the sensors defined in the
+	 * instrumentation point reads the parameters. Sensors that are not known are expected to read
+	 * the parameters.
+	 *
+	 * @param sensorInstrumentationPoint
+	 *            {@link SensorInstrumentationPoint}
+	 * @return <code>true</code> if parameters array must be passed to the dispatcher
+	 */
+	private boolean isParametersRequired(SensorInstrumentationPoint sensorInstrumentationPoint) {
+		if (sensorInstrumentationPoint.isPropertyAccess()) {
+			return true;
+		}
+
+		long[] sensorIds = sensorInstrumentationPoint.getSensorIds();
+		if (null == sensorIds) {
+			return true;
+		}
+
+		int knownSensors = 0;
+		for (IMethodSensor methodSensor : methodSensors) {
+			if (ArrayUtils.contains(sensorIds, methodSensor.getSensorTypeConfig().getId())) {
+				if (methodSensor.isParametersRequired()) {
+					return true;
+				}
+				knownSensors++;
+			}
+		}
+		return knownSensors < sensorIds.length;
+	}
+
 }
@@ -15,9 +15,16 @@ import rocks.inspectit.agent.java.hooking.IHookDispatcher;
  */
 public class MethodInstrumenter extends AbstractMethodInstrumenter {
 
+	/**
+	 * If the parameters array should be passed to the dispatcher. If <code>false</code> the
+	 * <code>null</code> is passed instead of parameters, thus no array is created on every call.
+	 */
+	private final boolean parametersRequired;
+
 	/**
 	 * Default constructor. Defines method id that will be used during instrumentation and if
-	 * enhanced exception sensor is active or not.
+	 * enhanced exception sensor is active or not. Parameters of the method are always passed to
+	 * the dispatcher.
 	 *
 	 * @param mv
 	 *            Super method visitor.
@@ -35,7 +42,32 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 	 *      String, long, boolean)
 	 */
 	public MethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor) {
+		this(mv, access, name, desc, methodId, enhancedExceptionSensor, true);
+	}
+
+	/**
+	 * Constructor that additionally defines if the parameters of the method are passed to the
+	 * dispatcher.
+	 *
+	 * @param mv
+	 *            Super method visitor.
+	 * @param access
+	 *            Method access code.
+	 * @param name
+	 *            Method name.
+	 * @param desc
+	 *            Method description.
+	 * @param methodId
+	 *            Method id that will be passed to {@link IHookDispatcher}.
+	 * @param enhancedExceptionSensor
+	 *            Marker declaring if enhanced exception sensor is active.
+	 * @param parametersRequired
+	 *            If parameters array should be created and passed to the {@link IHookDispatcher}.
+	 *            If <code>false</code> the <code>null</code> is passed as parameters.
+	 */
+	public MethodInstrumenter(MethodVisitor mv, int access, String name, String desc, long methodId, boolean enhancedExceptionSensor, boolean parametersRequired) {
 		super(mv, access, name, desc, methodId, enhancedExceptionSensor);
+		this.parametersRequired = parametersRequired;
 	}
 
 	/**
@@ -143,7 +175,7 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		}
 
 		// then parameters
-		loadArgArray();
+		loadParameters();
 
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchMethodBeforeBody", IInstrumenterConstant.DISPATCH_METHOD_BEFORE_BODY_DESCRIPTOR,
 				true);
@@ -217,10 +249,22 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		swap();
 
 		// then parameters
-		loadArgArray();
+		loadParameters();
 		swap();
 	}
 
+	/**
+	 * Loads the array of the method arguments to the stack or <code>null</code> if the parameters
+	 * are not required.
+	 */
+	private void loadParameters() {
+		if (parametersRequired) {
+			loadArgArray();
+		} else {
+			pushNull();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -247,4 +291,13 @@ public class MethodInstrumenter extends AbstractMethodInstrumenter {
 		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, IInstrumenterConstant.IHOOK_DISPATCHER_INTERNAL_NAME, "dispatchBeforeCatch", IInstrumenterConstant.DISPATCH_BEFORE_CATCH_DESCRIPTOR, true);
 	}
 
+	/**
+	 * Gets {@link #parametersRequired}.
+	 *
+	 * @return {@link #parametersRequired}
+	 */
+	public boolean isParametersRequired() {
+		return parametersRequired;
+	}
+
 }
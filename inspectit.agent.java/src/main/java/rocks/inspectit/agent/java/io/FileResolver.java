@@ -40,6 +40,19 @@ public class FileResolver implements InitializingBean {
 		return new File(agentJar.getParent() + File.separator + "cache" + File.separator + configurationStorage.getAgentName() + File.separator + "sendingClasses.cache");
 	}
 
+	/**
+	 * Returns file where the instrumentation cache for this agent should be. This cache holds the
+	 * platform ID of the agent and all known class hashes with the instrumentation definitions
+	 * received for this platform ID.
+	 * <p>
+	 * Expected path: <i>[PATH_TO_AGENT]/cache/agentName/instrumentationDefinitions.cache</i>
+	 *
+	 * @return Returns file where the instrumentation cache for this agent should be.
+	 */
+	public File getInstrumentationCacheFile() {
+		return new File(agentJar.getParent() + File.separator + "cache" + File.separator + configurationStorage.getAgentName() + File.separator + "instrumentationDefinitions.cache");
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,432 @@
+package rocks.inspectit.agent.java.sending.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import rocks.inspectit.agent.java.IThreadTransformHelper;
+import rocks.inspectit.agent.java.buffer.IBufferOccupancy;
+import rocks.inspectit.agent.java.buffer.IBufferStrategy;
+import rocks.inspectit.agent.java.core.ListListener;
+import rocks.inspectit.agent.java.core.SendingListener;
+import rocks.inspectit.agent.java.sending.AbstractSendingStrategy;
+import rocks.inspectit.agent.java.sensor.jmx.IMBeanServerListener;
+import rocks.inspectit.agent.java.util.AgentAwareThread;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Sending strategy that adapts to the responsiveness of the CMR. The data is sent when the amount
+ * of collected data objects exceeds the current batch size or when the current time passed.
+ * <ul>
+ * <li>If the CMR accepts the data quickly, the batch size grows and the time shrinks.</li>
+ * <li>If the CMR accepts the data slowly, the time grows.</li>
+ * <li>If the sending times out or the CMR drops the data, the batch size is halved and the time is
+ * doubled.</li>
+ * <li>If the buffer strategy knows its occupancy and the occupancy crosses the high watermark, the
+ * data is sent immediately.</li>
+ * </ul>
+ * The time is randomized by &plusmn;25% so that many agents started together do not send at the
+ * same moment.
+ *
+ * @author agent
+ *
+ */
+public class AdaptiveStrategy extends AbstractSendingStrategy implements ListListener<List<DefaultData>>, SendingListener, IMBeanServerListener, AdaptiveStrategyMXBean {
+
+	/**
+	 * Object name of the registered MXBean.
+	 */
+	static final String OBJECT_NAME = "rocks.inspectit.agent:type=AdaptiveStrategy";
+
+	/**
+	 * The default minimum time in milliseconds.
+	 */
+	private static final long DEFAULT_MIN_TIME = 500L;
+
+	/**
+	 * The default minimum batch size.
+	 */
+	private static final int DEFAULT_MIN_BATCH_SIZE = 10;
+
+	/**
+	 * The default maximum batch size.
+	 */
+	private static final int DEFAULT_MAX_BATCH_SIZE = 10000;
+
+	/**
+	 * The default high watermark in percent.
+	 */
+	private static final int DEFAULT_HIGH_WATERMARK = 75;
+
+	/**
+	 * The default response time in milliseconds up to which the CMR is considered fast.
+	 */
+	private static final long DEFAULT_FAST_RESPONSE = 100L;
+
+	/**
+	 * Window for calculating the send rate in nanoseconds.
+	 */
+	private static final long RATE_WINDOW = TimeUnit.SECONDS.toNanos(10);
+
+	/**
+	 * The logger of the class.
+	 */
+	@Log
+	Logger log;
+
+	/**
+	 * {@link IThreadTransformHelper} to use to disable transformations done in the threads started
+	 * by the strategy.
+	 */
+	@Autowired
+	IThreadTransformHelper threadTransformHelper;
+
+	/**
+	 * Buffer strategy to check the occupancy of.
+	 */
+	@Autowired
+	IBufferStrategy<DefaultData> bufferStrategy;
+
+	/**
+	 * Minimum time in milliseconds.
+	 */
+	private long minTime = DEFAULT_MIN_TIME;
+
+	/**
+	 * Maximum time in milliseconds.
+	 */
+	private long maxTime = TimeStrategy.DEFAULT_WAIT_TIME;
+
+	/**
+	 * Minimum batch size.
+	 */
+	private int minBatchSize = DEFAULT_MIN_BATCH_SIZE;
+
+	/**
+	 * Maximum batch size.
+	 */
+	private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+	/**
+	 * High watermark in percent.
+	 */
+	private int highWatermark = DEFAULT_HIGH_WATERMARK;
+
+	/**
+	 * Response time in nanoseconds up to which the CMR is considered fast.
+	 */
+	private long fastResponse = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FAST_RESPONSE);
+
+	/**
+	 * Current time in milliseconds.
+	 */
+	private volatile long time = maxTime;
+
+	/**
+	 * Current batch size.
+	 */
+	private volatile int batchSize = minBatchSize;
+
+	/**
+	 * If the buffer occupancy was above the high watermark on the last check.
+	 */
+	private volatile boolean aboveHighWatermark;
+
+	/**
+	 * Send rate in data objects per second calculated in the last window.
+	 */
+	private volatile double sendRate;
+
+	/**
+	 * Amount of back offs.
+	 */
+	private volatile long backoffCount;
+
+	/**
+	 * Start of the current rate window. Only used by the sending thread.
+	 */
+	private long windowStart = System.nanoTime();
+
+	/**
+	 * Data objects sent in the current rate window. Only used by the sending thread.
+	 */
+	private long windowElements;
+
+	/**
+	 * Random for the randomization of the time.
+	 */
+	private final Random random = new Random();
+
+	/**
+	 * The thread which waits the current time and starts the sending process.
+	 */
+	private volatile Trigger trigger;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void startStrategy() {
+		getCoreService().addListListener(this);
+		getCoreService().addSendingListener(this);
+		trigger = new Trigger();
+		trigger.start();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void stop() {
+		getCoreService().removeListListener(this);
+		getCoreService().removeSendingListener(this);
+
+		// Interrupt the thread to stop it
+		Thread temp = trigger;
+		trigger = null; // NOPMD
+		if (null != temp) {
+			temp.interrupt();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void contentChanged(int elementCount) {
+		if (elementCount > batchSize) {
+			sendNow();
+			return;
+		}
+
+		// flush only when crossing the watermark, not on every change above it
+		boolean above = isAboveHighWatermark();
+		if (above && !aboveHighWatermark) {
+			aboveHighWatermark = true;
+			sendNow();
+		} else if (!above && aboveHighWatermark) {
+			aboveHighWatermark = false;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dataSent(int elementCount, long duration, boolean accepted) {
+		updateSendRate(elementCount);
+
+		if (!accepted) {
+			backOff();
+		} else if (duration <= fastResponse) {
+			batchSize = Math.min(maxBatchSize, batchSize + minBatchSize);
+			time = Math.max(minTime, time - (time / 4));
+		} else {
+			time = Math.min(maxTime, time + minTime);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void sendingTimedOut() {
+		backOff();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getSendRate() {
+		return sendRate;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getBackoffCount() {
+		return backoffCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void mbeanServerAdded(MBeanServer server) {
+		try {
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(new StandardMBean(this, AdaptiveStrategyMXBean.class, true), objectName);
+			}
+		} catch (Exception e) {
+			log.warn("Adaptive sending strategy MXBean could not be registered.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void mbeanServerRemoved(MBeanServer server) {
+		try {
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (Exception e) {
+			log.warn("Adaptive sending strategy MXBean could not be unregistered.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init(Map<String, String> settings) {
+		if (settings.containsKey("maxTime")) {
+			maxTime = Long.parseLong(settings.get("maxTime"));
+		}
+		if (settings.containsKey("minTime")) {
+			minTime = Long.parseLong(settings.get("minTime"));
+		}
+		if (settings.containsKey("minBatchSize")) {
+			minBatchSize = Integer.parseInt(settings.get("minBatchSize"));
+		}
+		if (settings.containsKey("maxBatchSize")) {
+			maxBatchSize = Integer.parseInt(settings.get("maxBatchSize"));
+		}
+		if (settings.containsKey("highWatermark")) {
+			highWatermark = Integer.parseInt(settings.get("highWatermark"));
+		}
+		if (settings.containsKey("fastResponse")) {
+			fastResponse = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(settings.get("fastResponse")));
+		}
+
+		minTime = Math.max(1L, Math.min(minTime, maxTime));
+		minBatchSize = Math.max(1, Math.min(minBatchSize, maxBatchSize));
+		time = maxTime;
+		batchSize = minBatchSize;
+	}
+
+	/**
+	 * Halves the batch size and doubles the time.
+	 */
+	private void backOff() {
+		batchSize = Math.max(minBatchSize, batchSize / 2);
+		time = Math.min(maxTime, time * 2);
+		backoffCount++; // NOPMD only the sending thread writes
+	}
+
+	/**
+	 * Adds the sent data objects to the current rate window and calculates the send rate once the
+	 * window is over.
+	 *
+	 * @param elementCount
+	 *            Amount of sent data objects.
+	 */
+	private void updateSendRate(int elementCount) {
+		windowElements += elementCount;
+		long now = System.nanoTime();
+		long elapsed = now - windowStart;
+		if (elapsed >= RATE_WINDOW) {
+			sendRate = (windowElements * (double) TimeUnit.SECONDS.toNanos(1)) / elapsed;
+			windowStart = now;
+			windowElements = 0;
+		}
+	}
+
+	/**
+	 * Checks if the buffer occupancy is above the high watermark.
+	 *
+	 * @return <code>true</code> if the buffer knows its occupancy and it is above the high
+	 *         watermark.
+	 */
+	private boolean isAboveHighWatermark() {
+		if (!(bufferStrategy instanceof IBufferOccupancy)) {
+			return false;
+		}
+		IBufferOccupancy occupancy = (IBufferOccupancy) bufferStrategy;
+		return (occupancy.getSize() * 100) >= (occupancy.getMaxSize() * highWatermark);
+	}
+
+	/**
+	 * Returns the current time randomized by &plusmn;25%.
+	 *
+	 * @return Time to wait in milliseconds.
+	 */
+	long getRandomizedTime() {
+		long current = time;
+		long quarter = Math.max(1L, current / 4);
+		return (current - quarter) + (long) (random.nextDouble() * 2 * quarter);
+	}
+
+	/**
+	 * The Trigger class is basically a {@link Thread} which starts the sending process once the
+	 * current time is passed by.
+	 *
+	 * @author agent
+	 *
+	 */
+	private class Trigger extends AgentAwareThread {
+
+		/**
+		 * Creates a new <code>Trigger</code> as daemon thread.
+		 */
+		Trigger() {
+			super(threadTransformHelper);
+			setName("inspectit-adaptive-strategy-trigger-thread");
+			setDaemon(true);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			// call super to perform needed pre-run operations
+			super.run();
+
+			Thread thisThread = Thread.currentThread();
+			while (trigger == thisThread) { // NOPMD
+				try {
+					synchronized (this) {
+						wait(getRandomizedTime());
+					}
+
+					sendNow();
+				} catch (InterruptedException e) { // NOCHK
+					// nothing to do
+				}
+			}
+		}
+
+	}
+
+}
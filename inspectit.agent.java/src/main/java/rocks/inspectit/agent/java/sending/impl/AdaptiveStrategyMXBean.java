@@ -0,0 +1,40 @@
+package rocks.inspectit.agent.java.sending.impl;
+
+/**
+ * Management interface of the {@link AdaptiveStrategy} exposing the current sending parameters.
+ *
+ * @author agent
+ *
+ */
+public interface AdaptiveStrategyMXBean {
+
+	/**
+	 * Returns the amount of the data objects after which the sending is triggered.
+	 *
+	 * @return Returns the amount of the data objects after which the sending is triggered.
+	 */
+	int getBatchSize();
+
+	/**
+	 * Returns the current time between two sendings in milliseconds.
+	 *
+	 * @return Returns the current time between two sendings in milliseconds.
+	 */
+	long getTime();
+
+	/**
+	 * Returns the effective send rate in data objects per second.
+	 *
+	 * @return Returns the effective send rate in data objects per second.
+	 */
+	double getSendRate();
+
+	/**
+	 * Returns how often the strategy backed off due to a timeout or dropped data on the CMR.
+	 *
+	 * @return Returns how often the strategy backed off due to a timeout or dropped data on the
+	 *         CMR.
+	 */
+	long getBackoffCount();
+
+}
@@ -54,6 +54,16 @@ public abstract class AbstractMethodSensor implements IMethodSensor, Initializin
 		return sensorTypeConfig;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Sensors require parameters by default.
+	 */
+	@Override
+	public boolean isParametersRequired() {
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
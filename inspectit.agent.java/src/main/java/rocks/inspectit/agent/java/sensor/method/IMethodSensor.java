@@ -29,4 +29,13 @@ public interface IMethodSensor extends ISensor {
 	@Override
 	MethodSensorTypeConfig getSensorTypeConfig();
 
+	/**
+	 * Defines if the hook of this sensor reads the parameters of the instrumented method. The
+	 * parameters array is not created in the instrumented method if none of the sensors on the
+	 * method requires it and no parameter property access is defined.
+	 *
+	 * @return <code>true</code> if the hook of this sensor reads the method parameters
+	 */
+	boolean isParametersRequired();
+
 }
@@ -80,4 +80,14 @@ public class AverageTimerSensor extends AbstractMethodSensor implements IMethodS
 		averageTimerHook = new AverageTimerHook(timer, platformManager, propertyAccessor, parameters);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The parameters are only read with the parameter property access.
+	 */
+	@Override
+	public boolean isParametersRequired() {
+		return false;
+	}
+
 }
@@ -15,13 +15,14 @@ import rocks.inspectit.agent.java.hooking.IMethodHook;
 import rocks.inspectit.agent.java.sensor.method.timer.TimerHook;
 import rocks.inspectit.agent.java.util.ClassUtil;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.ThreadLocalDoubleStack;
+import rocks.inspectit.agent.java.util.ThreadLocalLongStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
 
 /**
- * The hook implementation for the http sensor. It uses the {@link ThreadLocalStack} class to save
- * the time when the method was called.
+ * The hook implementation for the http sensor. It uses the {@link ThreadLocalDoubleStack} class to
+ * save the time when the method was called.
  * <p>
  * This hook measures timer data like the {@link TimerHook} but in addition provides Http
  * information. Another difference is that we ensure that only one Http metric per request is
@@ -40,7 +41,7 @@ public class HttpHook implements IMethodHook {
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+	private final ThreadLocalDoubleStack timeStack = new ThreadLocalDoubleStack();
 
 	/**
 	 * The timer used for accurate measuring.
@@ -70,7 +71,7 @@ public class HttpHook implements IMethodHook {
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Long> threadCpuTimeStack = new ThreadLocalStack<Long>();
+	private final ThreadLocalLongStack threadCpuTimeStack = new ThreadLocalLongStack();
 
 	/**
 	 * Extractor for Http information.
@@ -200,9 +201,9 @@ public class HttpHook implements IMethodHook {
 					// timer. We cannot do that after we read the information from the request
 					// object because these methods could be instrumented and thus the whole http
 					// timer would be off - resulting in very strange results.
-					timeStack.push(new Double(timer.getCurrentTime()));
+					timeStack.push(timer.getCurrentTime());
 					if (threadCPUTimeEnabled) {
-						threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+						threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 					}
 
 					// Mark first invocation
@@ -232,9 +233,9 @@ public class HttpHook implements IMethodHook {
 
 		if (refMarker.matchesFirst()) {
 			// Get the timer and store it.
-			timeStack.push(new Double(timer.getCurrentTime()));
+			timeStack.push(timer.getCurrentTime());
 			if (threadCPUTimeEnabled) {
-				threadCpuTimeStack.push(Long.valueOf(threadMXBean.getCurrentThreadCpuTime()));
+				threadCpuTimeStack.push(threadMXBean.getCurrentThreadCpuTime());
 			}
 		}
 	}
@@ -261,15 +262,15 @@ public class HttpHook implements IMethodHook {
 				// double check interface
 				if (providesHttpRequestMetrics(servletRequestClass) && providesHttpResponseMetrics(servletResponseClass)) {
 
-					double endTime = timeStack.pop().doubleValue();
-					double startTime = timeStack.pop().doubleValue();
+					double endTime = timeStack.pop();
+					double startTime = timeStack.pop();
 					double duration = endTime - startTime;
 
 					// default setting to a negative number
 					double cpuDuration = -1.0d;
 					if (threadCPUTimeEnabled) {
-						long cpuEndTime = threadCpuTimeStack.pop().longValue();
-						long cpuStartTime = threadCpuTimeStack.pop().longValue();
+						long cpuEndTime = threadCpuTimeStack.pop();
+						long cpuStartTime = threadCpuTimeStack.pop();
 						cpuDuration = (cpuEndTime - cpuStartTime) / 1000000.0d;
 					}
 
@@ -0,0 +1,817 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.FoldedInvocationData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.LoggingData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.tracing.data.SpanIdent;
+
+/**
+ * Flat, reusable recording of one invocation sequence. Every invocation is recorded as an index in
+ * the primitive arrays of the arena, holding the method id, time stamp, start and end time, index
+ * of the parent invocation and the slots for the data of the other sensors. The
+ * {@link InvocationSequenceData} object graph is only created in {@link #materialize()}, thus no
+ * objects are created for the sequences that are not kept (for example due to the min duration).
+ * <p>
+ * The arena is not thread safe and is meant to be used by one thread only. The arrays are reused
+ * between the recorded sequences and are only growing when needed. Nodes are never physically
+ * removed while recording, they are only marked as removed, and their children are connected to
+ * the first not removed ancestor when the object graph is created.
+ * <p>
+ * When a nested invocation is closed it is compared with its previous sibling. If both have the
+ * same structure (method ids and SQL statements in the whole subtree), the closed invocation is
+ * folded into the sibling, where durations and the timer and SQL data are aggregated, and the
+ * arena is truncated to the size before the closed invocation started. Thus, a loop executing the
+ * same calls occupies the same amount of nodes no matter how many iterations there are. Nodes
+ * holding exceptions, logging, spans, HTTP or captured parameter data are never folded. In
+ * addition, the arena can have a node budget, and when it is exhausted the nested invocations
+ * are only counted as dropped.
+ *
+ * @author agent
+ *
+ */
+public class InvocationArena {
+
+	/**
+	 * Initial capacity of the arena.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Maximum capacity that is kept after the reset. If one sequence was bigger, the arrays are
+	 * re-created with the initial capacity, so that one huge sequence is not occupying the memory
+	 * for the lifetime of the thread.
+	 */
+	private static final int MAX_RETAINED_CAPACITY = 4096;
+
+	/**
+	 * Node state when invocation is still running.
+	 */
+	private static final byte STATE_OPEN = 0;
+
+	/**
+	 * Node state when invocation is finished.
+	 */
+	private static final byte STATE_CLOSED = 1;
+
+	/**
+	 * Node state when invocation was removed.
+	 */
+	private static final byte STATE_REMOVED = 2;
+
+	/**
+	 * Amount of recorded nodes.
+	 */
+	private int size;
+
+	/**
+	 * Index of the currently running invocation or <code>-1</code> if nothing is recorded.
+	 */
+	private int current = -1;
+
+	/**
+	 * Platform id of the sequence.
+	 */
+	private long platformId;
+
+	/**
+	 * Sensor type id of the sequence.
+	 */
+	private long sensorTypeId;
+
+	/**
+	 * Method id of the method that started the sequence.
+	 */
+	private long startMethodId;
+
+	/**
+	 * Amount of calls of the starting method that are currently on the stack.
+	 */
+	private long startMethodCount;
+
+	/**
+	 * Maximum amount of nodes to record.
+	 */
+	private int maxNodes = Integer.MAX_VALUE;
+
+	/**
+	 * Depth of the currently running invocations that are not recorded because the budget was
+	 * exhausted.
+	 */
+	private int droppingDepth;
+
+	/**
+	 * Method ids.
+	 */
+	private long[] methodIds;
+
+	/**
+	 * Time stamps in milliseconds.
+	 */
+	private long[] timestamps;
+
+	/**
+	 * Start times.
+	 */
+	private double[] starts;
+
+	/**
+	 * End times.
+	 */
+	private double[] ends;
+
+	/**
+	 * Index of the parent node.
+	 */
+	private int[] parents;
+
+	/**
+	 * States of the nodes.
+	 */
+	private byte[] states;
+
+	/**
+	 * Index of the last closed child that next closed child can be folded into, or
+	 * <code>-1</code>.
+	 */
+	private int[] lastChildren;
+
+	/**
+	 * Amount of invocations represented by the node.
+	 */
+	private long[] counts;
+
+	/**
+	 * Sum of durations of invocations represented by the node.
+	 */
+	private double[] durations;
+
+	/**
+	 * Minimum duration of invocations represented by the node.
+	 */
+	private double[] minDurations;
+
+	/**
+	 * Maximum duration of invocations represented by the node.
+	 */
+	private double[] maxDurations;
+
+	/**
+	 * Amount of dropped nested invocations.
+	 */
+	private long[] droppedCounts;
+
+	/**
+	 * Timer data slots.
+	 */
+	private TimerData[] timerData;
+
+	/**
+	 * SQL data slots.
+	 */
+	private SqlStatementData[] sqlStatementData;
+
+	/**
+	 * Logging data slots.
+	 */
+	private LoggingData[] loggingData;
+
+	/**
+	 * Span ident slots.
+	 */
+	private SpanIdent[] spanIdents;
+
+	/**
+	 * Exception data slots, each element is a list of {@link ExceptionSensorData}.
+	 */
+	private Object[] exceptionSensorData;
+
+	/**
+	 * Default constructor.
+	 */
+	public InvocationArena() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Starts recording of the new sequence. The root node becomes the current node.
+	 *
+	 * @param timestamp
+	 *            Time stamp in milliseconds.
+	 * @param platformId
+	 *            Platform id.
+	 * @param sensorTypeId
+	 *            Sensor type id of the invocation sequence sensor.
+	 * @param methodId
+	 *            Method id of the starting method.
+	 * @param maxNodes
+	 *            Maximum amount of nodes to record including the root. Zero or negative value means
+	 *            no limit.
+	 */
+	public void start(long timestamp, long platformId, long sensorTypeId, long methodId, int maxNodes) {
+		this.platformId = platformId;
+		this.sensorTypeId = sensorTypeId;
+		this.startMethodId = methodId;
+		this.startMethodCount = 1;
+		this.maxNodes = (maxNodes > 0) ? maxNodes : Integer.MAX_VALUE;
+		this.droppingDepth = 0;
+		this.current = -1;
+		add(timestamp, methodId, 0);
+	}
+
+	/**
+	 * Records the start of the nested invocation. The nested node becomes the current node.
+	 *
+	 * @param timestamp
+	 *            Time stamp in milliseconds.
+	 * @param methodId
+	 *            Method id.
+	 * @param startTime
+	 *            Start time.
+	 */
+	public void push(long timestamp, long methodId, double startTime) {
+		add(timestamp, methodId, startTime);
+	}
+
+	/**
+	 * Records the start of the nested invocation that is not recorded because the node budget is
+	 * exhausted. Current node is not changed.
+	 */
+	public void drop() {
+		droppedCounts[current]++;
+		droppingDepth++;
+	}
+
+	/**
+	 * Records the end of the nested invocation that was not recorded.
+	 */
+	public void endDrop() {
+		droppingDepth--;
+	}
+
+	/**
+	 * Returns if the arena is currently in the not recorded invocation.
+	 *
+	 * @return Returns if the arena is currently in the not recorded invocation.
+	 */
+	public boolean isDropping() {
+		return droppingDepth > 0;
+	}
+
+	/**
+	 * Returns if the node budget is exhausted.
+	 *
+	 * @return Returns if the node budget is exhausted.
+	 */
+	public boolean isFull() {
+		return size >= maxNodes;
+	}
+
+	/**
+	 * Closes the current node. The parent becomes the current node. If the node has same
+	 * structure as the previous sibling, it's folded into the sibling.
+	 *
+	 * @param endTime
+	 *            End time.
+	 */
+	public void close(double endTime) {
+		int index = current;
+		double duration = endTime - starts[index];
+		ends[index] = endTime;
+		durations[index] = duration;
+		minDurations[index] = duration;
+		maxDurations[index] = duration;
+		states[index] = STATE_CLOSED;
+
+		int parent = parents[index];
+		current = parent;
+
+		int previous = lastChildren[parent];
+		if ((previous >= 0) && isFoldable(previous, index)) {
+			fold(previous, index);
+		} else {
+			lastChildren[parent] = index;
+		}
+	}
+
+	/**
+	 * Removes the current node. The children of the node will be connected to the parent. The
+	 * parent becomes the current node.
+	 */
+	public void remove() {
+		states[current] = STATE_REMOVED;
+		current = parents[current];
+		// children of the removed node will be between the siblings, so no folding
+		lastChildren[current] = -1;
+	}
+
+	/**
+	 * Creates the {@link InvocationSequenceData} object graph of the recorded sequence. Start, end
+	 * and duration of the root are not set, as they are measured by the caller.
+	 *
+	 * @return Root of the sequence.
+	 */
+	public InvocationSequenceData materialize() {
+		InvocationSequenceData[] nodes = new InvocationSequenceData[size];
+		int[] effectiveParents = new int[size];
+
+		// nodes are recorded in the pre-order, thus parents are always created before the children
+		// and children are added to the parent in the invocation order
+		for (int i = 0; i < size; i++) {
+			if (STATE_REMOVED == states[i]) {
+				effectiveParents[i] = (0 == i) ? -1 : effectiveParent(effectiveParents, i);
+				continue;
+			}
+
+			InvocationSequenceData data = new InvocationSequenceData(new Timestamp(timestamps[i]), platformId, sensorTypeId, methodIds[i]);
+			if (droppedCounts[i] > 0) {
+				data.setDroppedChildCount(droppedCounts[i]);
+			}
+			if (i > 0) {
+				data.setStart(starts[i]);
+				if (STATE_CLOSED == states[i]) {
+					data.setEnd(ends[i]);
+					data.setDuration(durations[i]);
+					if (counts[i] > 1) {
+						data.setFoldedInvocationData(new FoldedInvocationData(counts[i], minDurations[i], maxDurations[i], durations[i]));
+					}
+				}
+				int parent = effectiveParent(effectiveParents, i);
+				effectiveParents[i] = parent;
+				data.setParentSequence(nodes[parent]);
+				nodes[parent].getNestedSequences().add(data);
+			}
+			fillPayload(data, i);
+			nodes[i] = data;
+		}
+
+		// child count includes all not removed descendants, calculated bottom up
+		long[] childCounts = new long[size];
+		for (int i = size - 1; i > 0; i--) {
+			if (STATE_REMOVED != states[i]) {
+				int parent = effectiveParents[i];
+				childCounts[parent] += childCounts[i] + 1;
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			if (null != nodes[i]) {
+				nodes[i].setChildCount(childCounts[i]);
+			}
+		}
+
+		return nodes[0];
+	}
+
+	/**
+	 * Resets the arena so that it can record the next sequence. Releases all references to the
+	 * sensor data.
+	 */
+	public void reset() {
+		if (methodIds.length > MAX_RETAINED_CAPACITY) {
+			allocate(INITIAL_CAPACITY);
+		} else {
+			Arrays.fill(timerData, 0, size, null);
+			Arrays.fill(sqlStatementData, 0, size, null);
+			Arrays.fill(loggingData, 0, size, null);
+			Arrays.fill(spanIdents, 0, size, null);
+			Arrays.fill(exceptionSensorData, 0, size, null);
+		}
+		size = 0;
+		current = -1;
+		droppingDepth = 0;
+	}
+
+	/**
+	 * Returns if the sequence is currently recorded.
+	 *
+	 * @return Returns if the sequence is currently recorded.
+	 */
+	public boolean isRecording() {
+		return current >= 0;
+	}
+
+	/**
+	 * Returns the method id of the current node.
+	 *
+	 * @return Returns the method id of the current node.
+	 */
+	public long getCurrentMethodId() {
+		return methodIds[current];
+	}
+
+	/**
+	 * Returns the amount of recorded nodes including the removed ones.
+	 *
+	 * @return Returns the amount of recorded nodes including the removed ones.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets {@link #startMethodId}.
+	 *
+	 * @return {@link #startMethodId}
+	 */
+	public long getStartMethodId() {
+		return startMethodId;
+	}
+
+	/**
+	 * Gets {@link #startMethodCount}.
+	 *
+	 * @return {@link #startMethodCount}
+	 */
+	public long getStartMethodCount() {
+		return startMethodCount;
+	}
+
+	/**
+	 * Increments the {@link #startMethodCount}.
+	 */
+	public void incrementStartMethodCount() {
+		startMethodCount++;
+	}
+
+	/**
+	 * Decrements the {@link #startMethodCount}.
+	 *
+	 * @return Count after the decrement.
+	 */
+	public long decrementStartMethodCount() {
+		return --startMethodCount;
+	}
+
+	/**
+	 * Returns the timer data of the current node.
+	 *
+	 * @return Returns the timer data of the current node.
+	 */
+	public TimerData getTimerData() {
+		return timerData[current];
+	}
+
+	/**
+	 * Sets the timer data of the current node.
+	 *
+	 * @param data
+	 *            Timer data.
+	 */
+	public void setTimerData(TimerData data) {
+		timerData[current] = data;
+	}
+
+	/**
+	 * Returns the SQL data of the current node.
+	 *
+	 * @return Returns the SQL data of the current node.
+	 */
+	public SqlStatementData getSqlStatementData() {
+		return sqlStatementData[current];
+	}
+
+	/**
+	 * Sets the SQL data of the current node.
+	 *
+	 * @param data
+	 *            SQL data.
+	 */
+	public void setSqlStatementData(SqlStatementData data) {
+		sqlStatementData[current] = data;
+	}
+
+	/**
+	 * Returns the logging data of the current node.
+	 *
+	 * @return Returns the logging data of the current node.
+	 */
+	public LoggingData getLoggingData() {
+		return loggingData[current];
+	}
+
+	/**
+	 * Sets the logging data of the current node.
+	 *
+	 * @param data
+	 *            Logging data.
+	 */
+	public void setLoggingData(LoggingData data) {
+		loggingData[current] = data;
+	}
+
+	/**
+	 * Returns the span ident of the current node.
+	 *
+	 * @return Returns the span ident of the current node.
+	 */
+	public SpanIdent getSpanIdent() {
+		return spanIdents[current];
+	}
+
+	/**
+	 * Sets the span ident of the current node.
+	 *
+	 * @param spanIdent
+	 *            Span ident.
+	 */
+	public void setSpanIdent(SpanIdent spanIdent) {
+		spanIdents[current] = spanIdent;
+	}
+
+	/**
+	 * Sets the span ident of the root node.
+	 *
+	 * @param spanIdent
+	 *            Span ident.
+	 */
+	public void setRootSpanIdent(SpanIdent spanIdent) {
+		spanIdents[0] = spanIdent;
+	}
+
+	/**
+	 * Adds the exception data to the current node.
+	 *
+	 * @param data
+	 *            Exception data.
+	 */
+	@SuppressWarnings("unchecked")
+	public void addExceptionSensorData(ExceptionSensorData data) {
+		List<ExceptionSensorData> list = (List<ExceptionSensorData>) exceptionSensorData[current];
+		if (null == list) {
+			list = new ArrayList<ExceptionSensorData>(1);
+			exceptionSensorData[current] = list;
+		}
+		list.add(data);
+	}
+
+	/**
+	 * Returns if the current node has any exception data.
+	 *
+	 * @return Returns if the current node has any exception data.
+	 */
+	public boolean hasExceptionSensorData() {
+		return null != exceptionSensorData[current];
+	}
+
+	/**
+	 * Returns if any of the recorded nodes that were not removed holds exception data or a span
+	 * ident.
+	 *
+	 * @return Returns if any of the recorded nodes holds exception data or a span ident.
+	 */
+	public boolean containsExceptionsOrSpans() {
+		for (int i = 0; i < size; i++) {
+			if ((STATE_REMOVED != states[i]) && ((null != exceptionSensorData[i]) || (null != spanIdents[i]))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the node as the child of the current node and makes it current.
+	 *
+	 * @param timestamp
+	 *            Time stamp in milliseconds.
+	 * @param methodId
+	 *            Method id.
+	 * @param startTime
+	 *            Start time.
+	 */
+	private void add(long timestamp, long methodId, double startTime) {
+		if (size == methodIds.length) {
+			grow();
+		}
+
+		int index = size++;
+		methodIds[index] = methodId;
+		timestamps[index] = timestamp;
+		starts[index] = startTime;
+		ends[index] = 0;
+		parents[index] = current;
+		states[index] = STATE_OPEN;
+		lastChildren[index] = -1;
+		counts[index] = 1;
+		droppedCounts[index] = 0;
+		// slots can hold the payload of a node removed before and truncated by folding
+		timerData[index] = null;
+		sqlStatementData[index] = null;
+		loggingData[index] = null;
+		spanIdents[index] = null;
+		exceptionSensorData[index] = null;
+		current = index;
+	}
+
+	/**
+	 * Returns if the subtree starting at the second index can be folded into the subtree starting
+	 * at the first index. The first subtree must end directly before the second one and the second
+	 * one must end at the current arena size.
+	 *
+	 * @param first
+	 *            Index of the first subtree root.
+	 * @param second
+	 *            Index of the second subtree root.
+	 * @return <code>true</code> if the subtrees have the same structure and can be folded.
+	 */
+	private boolean isFoldable(int first, int second) {
+		int length = second - first;
+		if (length != (size - second)) {
+			return false;
+		}
+
+		for (int k = 0; k < length; k++) {
+			int i = first + k;
+			int j = second + k;
+			if ((methodIds[i] != methodIds[j]) || (states[i] != states[j])) {
+				return false;
+			}
+			if ((k > 0) && ((parents[i] - first) != (parents[j] - second))) {
+				return false;
+			}
+			if (STATE_REMOVED == states[i]) {
+				continue;
+			}
+			if (!isFoldable(i) || !isFoldable(j)) {
+				return false;
+			}
+			if ((null == timerData[i]) != (null == timerData[j])) {
+				return false;
+			}
+			SqlStatementData sql1 = sqlStatementData[i];
+			SqlStatementData sql2 = sqlStatementData[j];
+			if ((null == sql1) != (null == sql2)) {
+				return false;
+			}
+			if ((null != sql1) && !equalsNullSafe(sql1.getSql(), sql2.getSql())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns if the node holds only data that can be aggregated.
+	 *
+	 * @param index
+	 *            Node index.
+	 * @return <code>true</code> if node can be folded with another one.
+	 */
+	private boolean isFoldable(int index) {
+		if ((null != exceptionSensorData[index]) || (null != loggingData[index]) || (null != spanIdents[index])) {
+			return false;
+		}
+		TimerData timer = timerData[index];
+		if ((null != timer) && (!TimerData.class.equals(timer.getClass()) || timer.providesCapturedParameters())) {
+			return false;
+		}
+		SqlStatementData sql = sqlStatementData[index];
+		return (null == sql) || !sql.providesCapturedParameters();
+	}
+
+	/**
+	 * Folds the subtree starting at the second index into the subtree starting at the first index
+	 * and truncates the arena to the second index.
+	 *
+	 * @param first
+	 *            Index of the first subtree root.
+	 * @param second
+	 *            Index of the second subtree root.
+	 */
+	private void fold(int first, int second) {
+		int length = second - first;
+		for (int k = 0; k < length; k++) {
+			int i = first + k;
+			int j = second + k;
+			if (STATE_CLOSED == states[i]) {
+				counts[i] += counts[j];
+				durations[i] += durations[j];
+				minDurations[i] = Math.min(minDurations[i], minDurations[j]);
+				maxDurations[i] = Math.max(maxDurations[i], maxDurations[j]);
+				ends[i] = ends[j];
+			}
+			droppedCounts[i] += droppedCounts[j];
+			if (null != timerData[i]) {
+				timerData[i].aggregateTimerData(timerData[j]);
+			}
+			if (null != sqlStatementData[i]) {
+				sqlStatementData[i].aggregateTimerData(sqlStatementData[j]);
+			}
+			timerData[j] = null;
+			sqlStatementData[j] = null;
+		}
+		size = second;
+	}
+
+	/**
+	 * Null safe equals of two strings.
+	 *
+	 * @param s1
+	 *            First string.
+	 * @param s2
+	 *            Second string.
+	 * @return If strings are equal.
+	 */
+	private static boolean equalsNullSafe(String s1, String s2) {
+		if (null == s1) {
+			return null == s2;
+		}
+		return s1.equals(s2);
+	}
+
+	/**
+	 * Returns the first not removed ancestor of the node.
+	 *
+	 * @param effectiveParents
+	 *            Already resolved effective parents of the nodes with lower index.
+	 * @param index
+	 *            Node index.
+	 * @return Index of the first not removed ancestor.
+	 */
+	private int effectiveParent(int[] effectiveParents, int index) {
+		int parent = parents[index];
+		if (STATE_REMOVED == states[parent]) {
+			return effectiveParents[parent];
+		}
+		return parent;
+	}
+
+	/**
+	 * Copies the sensor data of the node to the invocation.
+	 *
+	 * @param data
+	 *            Invocation.
+	 * @param index
+	 *            Node index.
+	 */
+	@SuppressWarnings("unchecked")
+	private void fillPayload(InvocationSequenceData data, int index) {
+		data.setTimerData(timerData[index]);
+		data.setSqlStatementData(sqlStatementData[index]);
+		data.setLoggingData(loggingData[index]);
+		data.setSpanIdent(spanIdents[index]);
+		List<ExceptionSensorData> exceptions = (List<ExceptionSensorData>) exceptionSensorData[index];
+		if (null != exceptions) {
+			for (ExceptionSensorData exception : exceptions) {
+				data.addExceptionSensorData(exception);
+			}
+		}
+	}
+
+	/**
+	 * Doubles the capacity of the arena.
+	 */
+	private void grow() {
+		int capacity = methodIds.length << 1;
+		methodIds = Arrays.copyOf(methodIds, capacity);
+		timestamps = Arrays.copyOf(timestamps, capacity);
+		starts = Arrays.copyOf(starts, capacity);
+		ends = Arrays.copyOf(ends, capacity);
+		parents = Arrays.copyOf(parents, capacity);
+		states = Arrays.copyOf(states, capacity);
+		lastChildren = Arrays.copyOf(lastChildren, capacity);
+		counts = Arrays.copyOf(counts, capacity);
+		durations = Arrays.copyOf(durations, capacity);
+		minDurations = Arrays.copyOf(minDurations, capacity);
+		maxDurations = Arrays.copyOf(maxDurations, capacity);
+		droppedCounts = Arrays.copyOf(droppedCounts, capacity);
+		timerData = Arrays.copyOf(timerData, capacity);
+		sqlStatementData = Arrays.copyOf(sqlStatementData, capacity);
+		loggingData = Arrays.copyOf(loggingData, capacity);
+		spanIdents = Arrays.copyOf(spanIdents, capacity);
+		exceptionSensorData = Arrays.copyOf(exceptionSensorData, capacity);
+	}
+
+	/**
+	 * Creates all arrays with the given capacity.
+	 *
+	 * @param capacity
+	 *            Capacity.
+	 */
+	private void allocate(int capacity) {
+		methodIds = new long[capacity];
+		timestamps = new long[capacity];
+		starts = new double[capacity];
+		ends = new double[capacity];
+		parents = new int[capacity];
+		states = new byte[capacity];
+		lastChildren = new int[capacity];
+		counts = new long[capacity];
+		durations = new double[capacity];
+		minDurations = new double[capacity];
+		maxDurations = new double[capacity];
+		droppedCounts = new long[capacity];
+		timerData = new TimerData[capacity];
+		sqlStatementData = new SqlStatementData[capacity];
+		loggingData = new LoggingData[capacity];
+		spanIdents = new SpanIdent[capacity];
+		exceptionSensorData = new Object[capacity];
+	}
+
+}
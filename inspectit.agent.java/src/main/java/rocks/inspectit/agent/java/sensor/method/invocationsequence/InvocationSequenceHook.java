@@ -1,7 +1,6 @@
 package rocks.inspectit.agent.java.sensor.method.invocationsequence;
 
 import java.net.ConnectException;
-import java.sql.Timestamp;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -9,7 +8,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +18,7 @@ import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IObjectStorage;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.core.ListListener;
+import rocks.inspectit.agent.java.core.SendingListener;
 import rocks.inspectit.agent.java.hooking.IConstructorHook;
 import rocks.inspectit.agent.java.hooking.IMethodHook;
 import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
@@ -40,7 +39,7 @@ import rocks.inspectit.agent.java.sensor.method.remote.server.manual.ManualRemot
 import rocks.inspectit.agent.java.sensor.method.remote.server.mq.JmsListenerRemoteServerSensor;
 import rocks.inspectit.agent.java.tracing.core.transformer.SpanContextTransformer;
 import rocks.inspectit.agent.java.util.StringConstraint;
-import rocks.inspectit.agent.java.util.ThreadLocalStack;
+import rocks.inspectit.agent.java.util.ThreadLocalDoubleStack;
 import rocks.inspectit.agent.java.util.Timer;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
@@ -62,6 +61,17 @@ import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
  * The invocation sequence hook stores the record of the invocation sequences in a
  * {@link ThreadLocal} object.
  * <p>
+ * The invocations are recorded in the reusable {@link InvocationArena} of the thread and the
+ * {@link InvocationSequenceData} objects are only created when the sequence is finished and it
+ * needs to be sent, thus the sequences filtered out by the min duration produce no garbage.
+ * Consecutive identical invocations are folded by the arena and the amount of recorded
+ * invocations can be limited with the <code>maxnodes</code> setting of the sensor.
+ * <p>
+ * If the <code>samplingrate</code> setting is given, the sequences are passed to the
+ * {@link InvocationSequenceSampler} that sends only the given amount of sequences per second for
+ * the starting method. Sequences that are slower than the <code>samplingslowduration</code>
+ * setting, contain exceptions or belong to a span are always sent.
+ * <p>
  * This hook implements the {@link ICoreService} interface which simulates the core service to all
  * other hooks which are called during the execution of this invocation. The
  * <code>defaultCoreService</code> field is used to delegate some calls directly to the original
@@ -79,7 +89,7 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 
 	/**
 	 * List of remote sensor names needed for
-	 * {@link #removeDueToNoData(RegisteredSensorConfig, InvocationSequenceData)}.
+	 * {@link #removeDueToNoData(RegisteredSensorConfig, InvocationArena)}.
 	 */
 	private static final Set<String> REMOVE_SENSOR_CLASS_NAMES = new HashSet<String>(
 			Arrays.asList(ApacheHttpClientV40Sensor.class.getName(), JettyHttpClientV61Sensor.class.getName(), SpringRestTemplateClientSensor.class.getName(), UrlConnectionSensor.class.getName(),
@@ -106,22 +116,17 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	private final IPropertyAccessor propertyAccessor;
 
 	/**
-	 * The {@link ThreadLocal} object which holds an {@link InvocationSequenceData} object if an
-	 * invocation record is started.
-	 */
-	private final ThreadLocal<InvocationSequenceData> threadLocalInvocationData = new ThreadLocal<InvocationSequenceData>();
-
-	/**
-	 * Stores the value of the method ID in the {@link ThreadLocal} object. Used to identify the
-	 * correct start and end of the record.
-	 */
-	private final ThreadLocal<Long> invocationStartId = new ThreadLocal<Long>();
-
-	/**
-	 * Stores the count of the of the starting method being called in the same invocation sequence
-	 * so that closing is done on the right end.
+	 * The {@link ThreadLocal} object which holds the {@link InvocationArena} of the thread. The
+	 * arena is recording if an invocation record is started. Arena also holds the method ID and the
+	 * count of the starting method being called in the same invocation sequence, so that closing is
+	 * done on the right end.
 	 */
-	private final ThreadLocal<Long> invocationStartIdCount = new ThreadLocal<Long>();
+	private final ThreadLocal<InvocationArena> threadLocalArena = new ThreadLocal<InvocationArena>() {
+		@Override
+		protected InvocationArena initialValue() {
+			return new InvocationArena();
+		}
+	};
 
 	/**
 	 * The timer used for accurate measuring.
@@ -131,13 +136,18 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	/**
 	 * The stack containing the start time values.
 	 */
-	private final ThreadLocalStack<Double> timeStack = new ThreadLocalStack<Double>();
+	private final ThreadLocalDoubleStack timeStack = new ThreadLocalDoubleStack();
 
 	/**
 	 * Saves the min duration for faster access of the values.
 	 */
 	private final Map<Long, Double> minDurationMap = new HashMap<Long, Double>();
 
+	/**
+	 * Sampler of the finished sequences.
+	 */
+	private final InvocationSequenceSampler sampler = new InvocationSequenceSampler();
+
 	/**
 	 * The StringConstraint to ensure a maximum length of strings.
 	 */
@@ -187,39 +197,29 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 			return;
 		}
 
-		long platformId = platformManager.getPlatformId();
-		Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+		InvocationArena arena = threadLocalArena.get();
 
-		if (null == threadLocalInvocationData.get()) {
+		if (!arena.isRecording()) {
 			// the sensor type is only available in the beginning of the
 			// sequence trace
 
 			// save the start time
-			timeStack.push(new Double(timer.getCurrentTime()));
+			timeStack.push(timer.getCurrentTime());
 
 			// no invocation tracer is currently started, so we do that now.
-			InvocationSequenceData invocationSequenceData = new InvocationSequenceData(timestamp, platformId, sensorTypeId, methodId);
-			threadLocalInvocationData.set(invocationSequenceData);
-
-			invocationStartId.set(Long.valueOf(methodId));
-			invocationStartIdCount.set(Long.valueOf(1));
+			arena.start(System.currentTimeMillis(), platformManager.getPlatformId(), sensorTypeId, methodId, getMaxNodes(rsc));
 		} else {
-			if (methodId == invocationStartId.get().longValue()) {
-				long count = invocationStartIdCount.get().longValue();
-				invocationStartIdCount.set(Long.valueOf(count + 1));
+			if (methodId == arena.getStartMethodId()) {
+				arena.incrementStartMethodCount();
 			}
 			// A subsequent call to the before body method where an
-			// invocation tracer is already started.
-			InvocationSequenceData invocationSequenceData = threadLocalInvocationData.get();
-			invocationSequenceData.setChildCount(invocationSequenceData.getChildCount() + 1L);
-
-			InvocationSequenceData nestedInvocationSequenceData = new InvocationSequenceData(timestamp, platformId, invocationSequenceData.getSensorTypeIdent(), methodId);
-			nestedInvocationSequenceData.setStart(timer.getCurrentTime());
-			nestedInvocationSequenceData.setParentSequence(invocationSequenceData);
-
-			invocationSequenceData.getNestedSequences().add(nestedInvocationSequenceData);
-
-			threadLocalInvocationData.set(nestedInvocationSequenceData);
+			// invocation tracer is already started. if budget is exhausted we
+			// only count the invocation.
+			if (arena.isDropping() || arena.isFull()) {
+				arena.drop();
+			} else {
+				arena.push(System.currentTimeMillis(), methodId, timer.getCurrentTime());
+			}
 		}
 	}
 
@@ -232,15 +232,12 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 			return;
 		}
 
-		InvocationSequenceData invocationSequenceData = threadLocalInvocationData.get();
+		InvocationArena arena = threadLocalArena.get();
 
-		if (null != invocationSequenceData) {
-			if (methodId == invocationStartId.get().longValue()) {
-				long count = invocationStartIdCount.get().longValue();
-				invocationStartIdCount.set(Long.valueOf(count - 1));
-
-				if (0 == (count - 1)) {
-					timeStack.push(new Double(timer.getCurrentTime()));
+		if (arena.isRecording()) {
+			if (methodId == arena.getStartMethodId()) {
+				if (0 == arena.decrementStartMethodCount()) {
+					timeStack.push(timer.getCurrentTime());
 				}
 			}
 		}
@@ -255,9 +252,9 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 			return;
 		}
 
-		InvocationSequenceData invocationSequenceData = threadLocalInvocationData.get();
+		InvocationArena arena = threadLocalArena.get();
 
-		if (null != invocationSequenceData) {
+		if (arena.isRecording()) {
 			// check if some properties need to be accessed and saved
 			if (rsc.isPropertyAccess()) {
 				List<ParameterContentData> parameterContentData = propertyAccessor.getParameterContentData(rsc.getPropertyAccessorList(), object, parameters, result, exception);
@@ -268,87 +265,79 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				}
 			}
 
-			if ((methodId == invocationStartId.get().longValue()) && (0 == invocationStartIdCount.get().longValue())) {
-				double endTime = timeStack.pop().doubleValue();
-				double startTime = timeStack.pop().doubleValue();
+			if ((methodId == arena.getStartMethodId()) && (0 == arena.getStartMethodCount())) {
+				double endTime = timeStack.pop();
+				double startTime = timeStack.pop();
 				double duration = endTime - startTime;
 
 				// check if we belong to a span
 				if (tracer.isCurrentContextExisting()) {
-					invocationSequenceData.setSpanIdent(SpanContextTransformer.transformSpanContext(tracer.getCurrentContext()));
+					arena.setRootSpanIdent(SpanContextTransformer.transformSpanContext(tracer.getCurrentContext()));
 				}
 
 				// complete the sequence and store the data object in the 'true'
 				// core service so that it can be transmitted to the server. we
 				// just need an arbitrary prefix so that this sequence will
-				// never be overwritten in the core service!
-				if (minDurationMap.containsKey(invocationStartId.get())) {
-					checkForSavingOrNot(coreService, methodId, sensorTypeId, rsc, invocationSequenceData, startTime, endTime, duration);
-				} else {
-					// maybe not saved yet in the map
-					if (rsc.getSettings().containsKey("minduration")) {
-						Long minDuration = (Long) rsc.getSettings().get("minduration");
-						minDurationMap.put(invocationStartId.get(), minDuration.doubleValue());
-						checkForSavingOrNot(coreService, methodId, sensorTypeId, rsc, invocationSequenceData, startTime, endTime, duration);
+				// never be overwritten in the core service! the object graph is
+				// only created if the sequence is saved or sampled.
+				if (checkForSavingOrNot(rsc, arena.getStartMethodId(), duration)) {
+					int samplingRate = getSamplingRate(rsc);
+					if (samplingRate <= 0) {
+						coreService.addMethodSensorData(sensorTypeId, methodId, String.valueOf(startTime), materialize(arena, startTime, endTime, duration));
+					} else if (isAlwaysSent(rsc, arena, duration)) {
+						sampler.keep();
+						coreService.addMethodSensorData(sensorTypeId, methodId, String.valueOf(startTime), materialize(arena, startTime, endTime, duration));
 					} else {
-						invocationSequenceData.setDuration(duration);
-						invocationSequenceData.setStart(startTime);
-						invocationSequenceData.setEnd(endTime);
-						coreService.addMethodSensorData(sensorTypeId, methodId, String.valueOf(startTime), invocationSequenceData);
+						long ticket = sampler.offer(methodId, samplingRate, System.currentTimeMillis(), coreService);
+						if (InvocationSequenceSampler.NO_TICKET != ticket) {
+							sampler.put(methodId, ticket, materialize(arena, startTime, endTime, duration));
+						}
 					}
 				}
 
-				threadLocalInvocationData.set(null);
+				arena.reset();
 			} else {
+				// invocation was not recorded
+				if (arena.isDropping()) {
+					arena.endDrop();
+					return;
+				}
+
 				// check for the correct id we must be sure that
 				// we are closing the right sequence
-				if (methodId != invocationSequenceData.getMethodIdent()) {
+				if (methodId != arena.getCurrentMethodId()) {
 					return;
 				}
 
-				// just close the nested sequence and set the correct child count
-				InvocationSequenceData parentSequence = invocationSequenceData.getParentSequence();
 				// check if we should not include this invocation because of exception delegation,
-				// SQL wrapping or empty logging
-				if (removeDueToExceptionDelegation(rsc, invocationSequenceData) || removeDueToNoData(rsc, invocationSequenceData)) {
-					parentSequence.getNestedSequences().remove(invocationSequenceData);
-					parentSequence.setChildCount(parentSequence.getChildCount() - 1);
-					// but connect all possible children to the parent then we are eliminating one
-					// level here
-					if (CollectionUtils.isNotEmpty(invocationSequenceData.getNestedSequences())) {
-						for (InvocationSequenceData child : invocationSequenceData.getNestedSequences()) {
-							child.setParentSequence(parentSequence);
-							parentSequence.getNestedSequences().add(child);
-						}
-						parentSequence.setChildCount(parentSequence.getChildCount() + invocationSequenceData.getChildCount());
-					}
+				// SQL wrapping or empty logging, if so all possible children will be connected to
+				// the parent when the sequence is created as we are eliminating one level here
+				if (removeDueToExceptionDelegation(rsc, arena) || removeDueToNoData(rsc, arena)) {
+					arena.remove();
 				} else {
-					invocationSequenceData.setEnd(timer.getCurrentTime());
-					invocationSequenceData.setDuration(invocationSequenceData.getEnd() - invocationSequenceData.getStart());
-					parentSequence.setChildCount(parentSequence.getChildCount() + invocationSequenceData.getChildCount());
+					arena.close(timer.getCurrentTime());
 				}
-				threadLocalInvocationData.set(parentSequence);
 			}
 		}
 	}
 
 	/**
-	 * Returns if the given {@link InvocationSequenceData} should be removed due to the exception
-	 * constructor delegation.
+	 * Returns if the current invocation of the given {@link InvocationArena} should be removed due
+	 * to the exception constructor delegation.
 	 *
 	 * @param rsc
 	 *            {@link RegisteredSensorConfig}
-	 * @param invocationSequenceData
-	 *            {@link InvocationSequenceData} to check.
+	 * @param arena
+	 *            {@link InvocationArena} holding the invocation to check.
 	 * @return True if the invocation should be removed.
 	 */
-	private boolean removeDueToExceptionDelegation(RegisteredSensorConfig rsc, InvocationSequenceData invocationSequenceData) {
+	private boolean removeDueToExceptionDelegation(RegisteredSensorConfig rsc, InvocationArena arena) {
 		List<IMethodSensor> sensors = rsc.getMethodSensors();
 		if (1 == sensors.size()) {
 			MethodSensorTypeConfig methodSensorTypeConfig = sensors.get(0).getSensorTypeConfig();
 
 			if (ExceptionSensor.class.getName().equals(methodSensorTypeConfig.getClassName())) {
-				return CollectionUtils.isEmpty(invocationSequenceData.getExceptionSensorDataObjects());
+				return !arena.hasExceptionSensorData();
 			}
 		}
 
@@ -356,8 +345,8 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	}
 
 	/**
-	 * Returns if the given {@link InvocationSequenceData} should be removed due to no data. Can be
-	 * in case of
+	 * Returns if the current invocation of the given {@link InvocationArena} should be removed due
+	 * to no data. Can be in case of
 	 * <ul>
 	 * <li>the wrapping of the prepared SQL statements.
 	 * <li>having an empty logging element (if the logging occurred with a lower logging level than
@@ -367,11 +356,11 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 *
 	 * @param rsc
 	 *            {@link RegisteredSensorConfig}
-	 * @param invocationSequenceData
-	 *            {@link InvocationSequenceData} to check.
+	 * @param arena
+	 *            {@link InvocationArena} holding the invocation to check.
 	 * @return True if the invocation should be removed.
 	 */
-	private boolean removeDueToNoData(RegisteredSensorConfig rsc, InvocationSequenceData invocationSequenceData) {
+	private boolean removeDueToNoData(RegisteredSensorConfig rsc, InvocationArena arena) {
 		List<IMethodSensor> sensors = rsc.getMethodSensors();
 		int sensorsSize = sensors.size();
 		if ((1 == sensorsSize) || ((2 == sensorsSize) && enhancedExceptionSensor)) {
@@ -383,13 +372,13 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 				}
 
 				if (PreparedStatementSensor.class.getName().equals(className)) {
-					if ((null == invocationSequenceData.getSqlStatementData()) || (0 == invocationSequenceData.getSqlStatementData().getCount())) {
+					if ((null == arena.getSqlStatementData()) || (0 == arena.getSqlStatementData().getCount())) {
 						return true;
 					}
 				} else if (Log4JLoggingSensor.class.getName().equals(className)) {
-					return null == invocationSequenceData.getLoggingData();
+					return null == arena.getLoggingData();
 				} else if (REMOVE_SENSOR_CLASS_NAMES.contains(className)) {
-					return null == invocationSequenceData.getSpanIdent();
+					return null == arena.getSpanIdent();
 				}
 			}
 		}
@@ -432,43 +421,134 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 		return false;
 	}
 
+	/**
+	 * Returns the maximum amount of nodes that can be recorded in the invocation started by the
+	 * given {@link RegisteredSensorConfig}.
+	 *
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} of the method starting the invocation.
+	 * @return Maximum amount of nodes or <code>0</code> for no limit.
+	 */
+	private int getMaxNodes(RegisteredSensorConfig rsc) {
+		Map<String, Object> settings = rsc.getSettings();
+		if (null != settings) {
+			Object maxNodes = settings.get("maxnodes");
+			if (maxNodes instanceof Number) {
+				return (int) Math.min(((Number) maxNodes).longValue(), Integer.MAX_VALUE);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Sends the samples of the sampling windows that are over. Executed periodically by the
+	 * {@link InvocationSequenceSensor}.
+	 */
+	public void expireSamples() {
+		sampler.expire(System.currentTimeMillis(), realCoreService);
+	}
+
+	/**
+	 * Gets {@link #sampler}.
+	 *
+	 * @return {@link #sampler}
+	 */
+	public InvocationSequenceSampler getSampler() {
+		return sampler;
+	}
+
+	/**
+	 * Returns the amount of sequences per second that are sent for the method starting the
+	 * invocation.
+	 *
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} of the method starting the invocation.
+	 * @return Amount of sequences per second or <code>0</code> if the sequences are not sampled.
+	 */
+	private int getSamplingRate(RegisteredSensorConfig rsc) {
+		Object samplingRate = rsc.getSettings().get("samplingrate");
+		if (samplingRate instanceof Number) {
+			return (int) Math.min(((Number) samplingRate).longValue(), Integer.MAX_VALUE);
+		}
+		return 0;
+	}
+
+	/**
+	 * Checks if the finished sequence is always sent regardless of the sampling. This is the case
+	 * when the sequence is slower than the slow duration or contains exceptions or spans.
+	 *
+	 * @param rsc
+	 *            The {@link RegisteredSensorConfig} of the method starting the invocation.
+	 * @param arena
+	 *            {@link InvocationArena} holding the finished sequence.
+	 * @param duration
+	 *            Duration of the sequence.
+	 * @return <code>true</code> if sequence should be sent without sampling.
+	 */
+	private boolean isAlwaysSent(RegisteredSensorConfig rsc, InvocationArena arena, double duration) {
+		Object slowDuration = rsc.getSettings().get("samplingslowduration");
+		if ((slowDuration instanceof Number) && (duration >= ((Number) slowDuration).doubleValue())) {
+			return true;
+		}
+		return arena.containsExceptionsOrSpans();
+	}
+
+	/**
+	 * Creates the {@link InvocationSequenceData} of the finished sequence.
+	 *
+	 * @param arena
+	 *            {@link InvocationArena} holding the finished sequence.
+	 * @param startTime
+	 *            Start time of the sequence.
+	 * @param endTime
+	 *            End time of the sequence.
+	 * @param duration
+	 *            Duration of the sequence.
+	 * @return Created {@link InvocationSequenceData}.
+	 */
+	private InvocationSequenceData materialize(InvocationArena arena, double startTime, double endTime, double duration) {
+		InvocationSequenceData invocationSequenceData = arena.materialize();
+		invocationSequenceData.setDuration(duration);
+		invocationSequenceData.setStart(startTime);
+		invocationSequenceData.setEnd(endTime);
+		return invocationSequenceData;
+	}
+
 	/**
 	 * This checks if the invocation has to be saved or not (like the min duration is set and the
 	 * invocation is faster than the specified time).
 	 *
-	 * @param coreService
-	 *            The reference to the core service which holds the data objects etc.
-	 * @param methodId
-	 *            The unique method id.
-	 * @param sensorTypeId
-	 *            The unique sensor type id.
 	 * @param rsc
 	 *            The {@link RegisteredSensorConfig} object which holds all the information of the
 	 *            executed method.
-	 * @param invocationSequenceData
-	 *            The invocation sequence data object.
-	 * @param startTime
-	 *            The start time.
-	 * @param endTime
-	 *            The end time.
+	 * @param startMethodId
+	 *            The method id of the method that started the invocation.
 	 * @param duration
 	 *            The actual duration.
-	 */
-	private void checkForSavingOrNot(ICoreService coreService, long methodId, long sensorTypeId, RegisteredSensorConfig rsc, InvocationSequenceData invocationSequenceData, double startTime, // NOCHK
-			double endTime, double duration) {
-		double minduration = minDurationMap.get(invocationStartId.get()).doubleValue();
-		if (duration >= minduration) {
+	 * @return <code>true</code> if invocation should be saved, <code>false</code> otherwise.
+	 */
+	private boolean checkForSavingOrNot(RegisteredSensorConfig rsc, long startMethodId, double duration) {
+		Long startId = Long.valueOf(startMethodId);
+		Double minduration = minDurationMap.get(startId);
+		if (null == minduration) {
+			// maybe not saved yet in the map
+			if (!rsc.getSettings().containsKey("minduration")) {
+				return true;
+			}
+			minduration = ((Long) rsc.getSettings().get("minduration")).doubleValue();
+			minDurationMap.put(startId, minduration);
+		}
+
+		if (duration >= minduration.doubleValue()) {
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("Saving invocation. " + duration + " > " + minduration + " ID(local): " + rsc.getId());
 			}
-			invocationSequenceData.setDuration(duration);
-			invocationSequenceData.setStart(startTime);
-			invocationSequenceData.setEnd(endTime);
-			coreService.addMethodSensorData(sensorTypeId, methodId, String.valueOf(startTime), invocationSequenceData);
+			return true;
 		} else {
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("Not saving invocation. " + duration + " < " + minduration + " ID(local): " + rsc.getId());
 			}
+			return false;
 		}
 	}
 
@@ -497,43 +577,43 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 *            The data object to save.
 	 */
 	private void saveDataObject(DefaultData dataObject) {
-		InvocationSequenceData invocationSequenceData = threadLocalInvocationData.get();
+		InvocationArena arena = threadLocalArena.get();
 
 		if (dataObject.getClass().equals(SqlStatementData.class)) {
 			// don't overwrite an already existing sql statement data object.
-			if (null == invocationSequenceData.getSqlStatementData()) {
-				invocationSequenceData.setSqlStatementData((SqlStatementData) dataObject);
+			if (null == arena.getSqlStatementData()) {
+				arena.setSqlStatementData((SqlStatementData) dataObject);
 			}
 		}
 
 		if (dataObject.getClass().equals(HttpTimerData.class)) {
 			// don't overwrite ourself but overwrite timers
-			if ((null == invocationSequenceData.getTimerData()) || invocationSequenceData.getTimerData().getClass().equals(TimerData.class)) {
-				invocationSequenceData.setTimerData((HttpTimerData) dataObject);
+			if ((null == arena.getTimerData()) || arena.getTimerData().getClass().equals(TimerData.class)) {
+				arena.setTimerData((HttpTimerData) dataObject);
 			}
 		}
 
 		if (dataObject.getClass().equals(TimerData.class)) {
 			// don't overwrite an already existing timerdata or httptimerdata
 			// object.
-			if (null == invocationSequenceData.getTimerData()) {
-				invocationSequenceData.setTimerData((TimerData) dataObject);
+			if (null == arena.getTimerData()) {
+				arena.setTimerData((TimerData) dataObject);
 			}
 		}
 
 		if (dataObject.getClass().equals(ExceptionSensorData.class)) {
 			ExceptionSensorData exceptionSensorData = (ExceptionSensorData) dataObject;
-			invocationSequenceData.addExceptionSensorData(exceptionSensorData);
+			arena.addExceptionSensorData(exceptionSensorData);
 		}
 
 		if (dataObject.getClass().equals(LoggingData.class)) {
 			LoggingData loggingData = (LoggingData) dataObject;
-			invocationSequenceData.setLoggingData(loggingData);
+			arena.setLoggingData(loggingData);
 		}
 
 		if (AbstractSpan.class.isAssignableFrom(dataObject.getClass())) {
 			AbstractSpan span = (AbstractSpan) dataObject;
-			invocationSequenceData.setSpanIdent(span.getSpanIdent());
+			arena.setSpanIdent(span.getSpanIdent());
 		}
 	}
 
@@ -546,11 +626,15 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void addMethodSensorData(long sensorTypeId, long methodId, String prefix, MethodSensorData methodSensorData) {
-		if (null == threadLocalInvocationData.get()) {
+		InvocationArena arena = threadLocalArena.get();
+		if (!arena.isRecording()) {
 			LOG.error("thread data NULL!!!!");
 			return;
 		}
-		saveDataObject(methodSensorData.finalizeData());
+		// data of not recorded invocations is not saved
+		if (!arena.isDropping()) {
+			saveDataObject(methodSensorData.finalizeData());
+		}
 
 		// delegate to real core service in case of the span
 		if (AbstractSpan.class.isAssignableFrom(methodSensorData.getClass())) {
@@ -563,10 +647,14 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void addObjectStorage(long sensorTypeId, long methodId, String prefix, IObjectStorage objectStorage) {
-		if (null == threadLocalInvocationData.get()) {
+		InvocationArena arena = threadLocalArena.get();
+		if (!arena.isRecording()) {
 			LOG.error("thread data NULL!!!!");
 			return;
 		}
+		if (arena.isDropping()) {
+			return;
+		}
 		DefaultData defaultData = objectStorage.finalizeDataObject();
 		saveDataObject(defaultData.finalizeData());
 	}
@@ -584,10 +672,14 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 	 */
 	@Override
 	public void addExceptionSensorData(long sensorTypeIdent, long throwableIdentityHashCode, ExceptionSensorData exceptionSensorData) {
-		if (null == threadLocalInvocationData.get()) {
+		InvocationArena arena = threadLocalArena.get();
+		if (!arena.isRecording()) {
 			LOG.info("thread data NULL!!!!");
 			return;
 		}
+		if (arena.isDropping()) {
+			return;
+		}
 		saveDataObject(exceptionSensorData.finalizeData());
 	}
 
@@ -653,6 +745,22 @@ public class InvocationSequenceHook implements IMethodHook, IConstructorHook, IC
 		throw new UnsupportedMethodException();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addSendingListener(SendingListener listener) {
+		throw new UnsupportedMethodException();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void removeSendingListener(SendingListener listener) {
+		throw new UnsupportedMethodException();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
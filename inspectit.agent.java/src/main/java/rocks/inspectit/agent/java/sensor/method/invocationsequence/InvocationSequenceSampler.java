@@ -0,0 +1,342 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+
+/**
+ * Sampler limiting the amount of invocation sequences sent per method that started the sequence.
+ * The time is divided in windows of one second and for every method a reservoir of the configured
+ * size is kept in the window. The first sequences fill the reservoir and every following one
+ * replaces a random sample with the probability of <code>size / seen</code>, thus every sequence
+ * in the window has the same chance to be sent. The decision is made in
+ * {@link #offer(long, int, long, ICoreService)} before the {@link InvocationSequenceData} is
+ * created, so the sequences that are sampled out are never materialized.
+ * <p>
+ * The samples are passed to the core service when the window is over, either on the next offer for
+ * the same method or with {@link #expire(long, ICoreService)} that is executed periodically. Every
+ * sent sample has the sampling weight set to the amount of sequences it represents, so that the
+ * counts can be scaled back up. The amount of kept, sampled and discarded sequences is counted and
+ * exposed by the {@link InvocationSequenceSensorMXBean}.
+ * <p>
+ * The sampler is thread safe, each reservoir is guarded by its own lock.
+ *
+ * @author agent
+ *
+ */
+public class InvocationSequenceSampler {
+
+	/**
+	 * Ticket returned when the sequence is not sampled.
+	 */
+	public static final long NO_TICKET = -1L;
+
+	/**
+	 * Length of the sampling window in milliseconds.
+	 */
+	static final long WINDOW_LENGTH = 1000L;
+
+	/**
+	 * Reservoirs per method id.
+	 */
+	private final ConcurrentMap<Long, Reservoir> reservoirs = new ConcurrentHashMap<Long, Reservoir>();
+
+	/**
+	 * Amount of sequences that were kept without sampling.
+	 */
+	private final AtomicLong keptCount = new AtomicLong();
+
+	/**
+	 * Amount of sequences that were sent as samples.
+	 */
+	private final AtomicLong sampledCount = new AtomicLong();
+
+	/**
+	 * Amount of sequences that were sampled out.
+	 */
+	private final AtomicLong discardedCount = new AtomicLong();
+
+	/**
+	 * Offers the finished sequence of the given method to the sampler. If the returned ticket is not
+	 * {@link #NO_TICKET} the sequence should be created and passed with
+	 * {@link #put(long, long, InvocationSequenceData)}. If the window of the method is over, the
+	 * samples of the window are passed to the core service.
+	 *
+	 * @param methodId
+	 *            Method id of the method that started the sequence.
+	 * @param size
+	 *            Amount of sequences to send per window.
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 * @param coreService
+	 *            Core service to pass the samples of the expired window to.
+	 * @return Ticket for putting the sequence or {@link #NO_TICKET} if sequence is sampled out.
+	 */
+	public long offer(long methodId, int size, long currentTime, ICoreService coreService) {
+		Long key = Long.valueOf(methodId);
+		Reservoir reservoir = reservoirs.get(key);
+		if (null == reservoir) {
+			Reservoir created = new Reservoir(currentTime);
+			reservoir = reservoirs.putIfAbsent(key, created);
+			if (null == reservoir) {
+				reservoir = created;
+			}
+		}
+
+		List<InvocationSequenceData> samples = null;
+		long ticket;
+		synchronized (reservoir) {
+			if (reservoir.isExpired(currentTime)) {
+				samples = reservoir.drain(currentTime);
+			}
+			ticket = reservoir.offer(size);
+		}
+		send(samples, coreService);
+		return ticket;
+	}
+
+	/**
+	 * Puts the created sequence to the slot of the reservoir reserved with the ticket. The sequence
+	 * is ignored if the slot was meanwhile taken by another sequence or the window is over.
+	 *
+	 * @param methodId
+	 *            Method id of the method that started the sequence.
+	 * @param ticket
+	 *            Ticket returned by the {@link #offer(long, int, long, ICoreService)}.
+	 * @param invocationSequenceData
+	 *            Created sequence.
+	 */
+	public void put(long methodId, long ticket, InvocationSequenceData invocationSequenceData) {
+		Reservoir reservoir = reservoirs.get(Long.valueOf(methodId));
+		if (null != reservoir) {
+			synchronized (reservoir) {
+				reservoir.put(ticket, invocationSequenceData);
+			}
+		}
+	}
+
+	/**
+	 * Notifies the sampler that the sequence was kept without sampling.
+	 */
+	public void keep() {
+		keptCount.incrementAndGet();
+	}
+
+	/**
+	 * Passes the samples of all expired windows to the core service. Should be called periodically,
+	 * so that the samples are sent also when no further sequences of the method are finished.
+	 *
+	 * @param currentTime
+	 *            Current time in milliseconds.
+	 * @param coreService
+	 *            Core service to pass the samples to.
+	 */
+	public void expire(long currentTime, ICoreService coreService) {
+		for (Reservoir reservoir : reservoirs.values()) {
+			List<InvocationSequenceData> samples = null;
+			synchronized (reservoir) {
+				if (reservoir.isExpired(currentTime)) {
+					samples = reservoir.drain(currentTime);
+				}
+			}
+			send(samples, coreService);
+		}
+	}
+
+	/**
+	 * Passes the samples to the core service.
+	 *
+	 * @param samples
+	 *            Samples, can be <code>null</code>.
+	 * @param coreService
+	 *            Core service.
+	 */
+	private void send(List<InvocationSequenceData> samples, ICoreService coreService) {
+		if (null == samples) {
+			return;
+		}
+		for (InvocationSequenceData sample : samples) {
+			coreService.addMethodSensorData(sample.getSensorTypeIdent(), sample.getMethodIdent(), String.valueOf(sample.getStart()), sample);
+		}
+	}
+
+	/**
+	 * Gets {@link #keptCount}.
+	 *
+	 * @return {@link #keptCount}
+	 */
+	public long getKeptCount() {
+		return keptCount.get();
+	}
+
+	/**
+	 * Gets {@link #sampledCount}.
+	 *
+	 * @return {@link #sampledCount}
+	 */
+	public long getSampledCount() {
+		return sampledCount.get();
+	}
+
+	/**
+	 * Gets {@link #discardedCount}.
+	 *
+	 * @return {@link #discardedCount}
+	 */
+	public long getDiscardedCount() {
+		return discardedCount.get();
+	}
+
+	/**
+	 * Reservoir of one method. Must be accessed only when holding its lock.
+	 *
+	 * @author agent
+	 *
+	 */
+	private class Reservoir {
+
+		/**
+		 * Random used for the replacement.
+		 */
+		private final Random random = new Random();
+
+		/**
+		 * Samples of the current window.
+		 */
+		private InvocationSequenceData[] samples = new InvocationSequenceData[0];
+
+		/**
+		 * Tickets that reserved the sample slots.
+		 */
+		private long[] tickets = new long[0];
+
+		/**
+		 * Start of the current window.
+		 */
+		private long windowStart;
+
+		/**
+		 * Amount of sequences offered in the current window.
+		 */
+		private long seen;
+
+		/**
+		 * Next ticket to hand out. Tickets are never reused, so that puts from the old windows
+		 * are ignored.
+		 */
+		private long nextTicket;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param windowStart
+		 *            Start of the first window.
+		 */
+		Reservoir(long windowStart) {
+			this.windowStart = windowStart;
+		}
+
+		/**
+		 * If the current window is over.
+		 *
+		 * @param currentTime
+		 *            Current time in milliseconds.
+		 * @return If the current window is over.
+		 */
+		boolean isExpired(long currentTime) {
+			return (currentTime - windowStart) >= WINDOW_LENGTH;
+		}
+
+		/**
+		 * Reserves the slot for the offered sequence if it is sampled.
+		 *
+		 * @param size
+		 *            Size of the reservoir.
+		 * @return Ticket or {@link InvocationSequenceSampler#NO_TICKET}.
+		 */
+		long offer(int size) {
+			if ((0 == seen) && (samples.length != size)) {
+				samples = new InvocationSequenceData[size];
+				tickets = new long[size];
+				Arrays.fill(tickets, NO_TICKET);
+			}
+
+			seen++;
+			int slot;
+			if (seen <= samples.length) {
+				slot = (int) (seen - 1);
+			} else {
+				long index = (long) (random.nextDouble() * seen);
+				if (index >= samples.length) {
+					return NO_TICKET;
+				}
+				slot = (int) index;
+			}
+
+			long ticket = nextTicket++;
+			tickets[slot] = ticket;
+			samples[slot] = null;
+			return ticket;
+		}
+
+		/**
+		 * Puts the sequence to the slot reserved with the ticket.
+		 *
+		 * @param ticket
+		 *            Ticket.
+		 * @param invocationSequenceData
+		 *            Sequence.
+		 */
+		void put(long ticket, InvocationSequenceData invocationSequenceData) {
+			for (int i = 0; i < tickets.length; i++) {
+				if (tickets[i] == ticket) {
+					samples[i] = invocationSequenceData;
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Ends the current window and starts the new one.
+		 *
+		 * @param currentTime
+		 *            Current time in milliseconds.
+		 * @return Samples of the ended window with the sampling weight set or <code>null</code> if
+		 *         there are none.
+		 */
+		List<InvocationSequenceData> drain(long currentTime) {
+			List<InvocationSequenceData> result = null;
+			for (int i = 0; i < samples.length; i++) {
+				if (null != samples[i]) {
+					if (null == result) {
+						result = new ArrayList<InvocationSequenceData>(samples.length);
+					}
+					result.add(samples[i]);
+					samples[i] = null;
+				}
+				tickets[i] = NO_TICKET;
+			}
+
+			int kept = (null != result) ? result.size() : 0;
+			if (kept > 0) {
+				double weight = (double) seen / kept;
+				for (InvocationSequenceData sample : result) {
+					sample.setSamplingWeight(weight);
+				}
+			}
+			sampledCount.addAndGet(kept);
+			discardedCount.addAndGet(seen - kept);
+
+			seen = 0;
+			windowStart = currentTime;
+			return result;
+		}
+	}
+}
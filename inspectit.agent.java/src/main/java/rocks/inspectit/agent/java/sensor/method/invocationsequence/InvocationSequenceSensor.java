@@ -1,8 +1,16 @@
 package rocks.inspectit.agent.java.sensor.method.invocationsequence;
 
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.config.IPropertyAccessor;
@@ -11,18 +19,34 @@ import rocks.inspectit.agent.java.core.ICoreService;
 import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.hooking.IHook;
 import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
+import rocks.inspectit.agent.java.sensor.jmx.IMBeanServerListener;
 import rocks.inspectit.agent.java.sensor.method.AbstractMethodSensor;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.agent.java.util.Timer;
+import rocks.inspectit.shared.all.spring.logger.Log;
 
 /**
  * The invocation sequence sensor which initializes and returns the {@link InvocationSequenceHook}
  * class.
+ * <p>
+ * The amount of sequences kept, sampled and discarded by the sampling is available via the
+ * {@link InvocationSequenceSensorMXBean} registered in every MBean server known to the agent.
  *
  * @author Patrice Bouillet
  *
  */
-public class InvocationSequenceSensor extends AbstractMethodSensor implements IMethodSensor {
+public class InvocationSequenceSensor extends AbstractMethodSensor implements IMethodSensor, IMBeanServerListener, InvocationSequenceSensorMXBean {
+
+	/**
+	 * Object name of the registered MXBean.
+	 */
+	static final String OBJECT_NAME = "rocks.inspectit.agent:type=InvocationSequenceSensor";
+
+	/**
+	 * The logger of the class.
+	 */
+	@Log
+	Logger log;
 
 	/**
 	 * The timer used for accurate measuring.
@@ -60,6 +84,13 @@ public class InvocationSequenceSensor extends AbstractMethodSensor implements IM
 	@Autowired
 	private IConfigurationStorage configurationStorage;
 
+	/**
+	 * Executor service for the periodic sending of the sampled sequences.
+	 */
+	@Autowired
+	@Qualifier("coreServiceExecutorService")
+	private ScheduledExecutorService executorService;
+
 	/**
 	 * The invocation sequence hook.
 	 */
@@ -86,6 +117,84 @@ public class InvocationSequenceSensor extends AbstractMethodSensor implements IM
 		}
 
 		invocationSequenceHook = new InvocationSequenceHook(timer, platformManager, coreService, tracer, propertyAccessor, parameters, enhancedExceptionSensor);
+
+		// samples must be sent when the window is over even if the method is not invoked any more
+		final InvocationSequenceHook hook = invocationSequenceHook;
+		executorService.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					hook.expireSamples();
+				} catch (Throwable t) { // NOPMD
+					// exception would stop the periodic execution
+					log.warn("Sending of the sampled invocation sequences failed.", t);
+				}
+			}
+		}, InvocationSequenceSampler.WINDOW_LENGTH, InvocationSequenceSampler.WINDOW_LENGTH, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The parameters are only read with the parameter property access.
+	 */
+	@Override
+	public boolean isParametersRequired() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void mbeanServerAdded(MBeanServer server) {
+		try {
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(new StandardMBean(this, InvocationSequenceSensorMXBean.class, true), objectName);
+			}
+		} catch (Exception e) {
+			log.warn("Invocation sequence sensor MXBean could not be registered.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void mbeanServerRemoved(MBeanServer server) {
+		try {
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+		} catch (Exception e) {
+			log.warn("Invocation sequence sensor MXBean could not be unregistered.", e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getKeptSequences() {
+		return (null != invocationSequenceHook) ? invocationSequenceHook.getSampler().getKeptCount() : 0L;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSampledSequences() {
+		return (null != invocationSequenceHook) ? invocationSequenceHook.getSampler().getSampledCount() : 0L;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getDiscardedSequences() {
+		return (null != invocationSequenceHook) ? invocationSequenceHook.getSampler().getDiscardedCount() : 0L;
 	}
 
 }
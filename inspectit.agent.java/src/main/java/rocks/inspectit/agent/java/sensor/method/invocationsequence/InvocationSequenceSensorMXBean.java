@@ -0,0 +1,34 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+/**
+ * Management interface of the {@link InvocationSequenceSensor} exposing the counts of the
+ * {@link InvocationSequenceSampler}.
+ *
+ * @author agent
+ *
+ */
+public interface InvocationSequenceSensorMXBean {
+
+	/**
+	 * Returns the amount of sequences sent without sampling since the start, as they were slow or
+	 * contained exceptions or spans.
+	 *
+	 * @return Returns the amount of sequences sent without sampling since the start.
+	 */
+	long getKeptSequences();
+
+	/**
+	 * Returns the amount of sequences sent as samples since the start.
+	 *
+	 * @return Returns the amount of sequences sent as samples since the start.
+	 */
+	long getSampledSequences();
+
+	/**
+	 * Returns the amount of sequences sampled out since the start.
+	 *
+	 * @return Returns the amount of sequences sampled out since the start.
+	 */
+	long getDiscardedSequences();
+
+}
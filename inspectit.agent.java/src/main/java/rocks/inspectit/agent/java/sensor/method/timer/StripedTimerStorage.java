@@ -0,0 +1,298 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ParameterContentData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+
+/**
+ * The striped timer storage can safely be updated by many threads at the same time without any
+ * locking. The measurements are accumulated in a fixed number of cells, where each thread is
+ * assigned to a cell by the hash of its id. Every cell is updated only with compare-and-set
+ * operations, so threads hitting the same method do not block each other and no update is lost.
+ * The cells are merged into the {@link TimerData} only in the {@link #finalizeDataObject()}.
+ * <p>
+ * Since the agent must run on Java 1.6 this class can not use the <code>LongAdder</code>, but
+ * follows the same idea with the {@link AtomicLongFieldUpdater}. Double values are kept as raw
+ * long bits in the cells.
+ *
+ * @author agent
+ *
+ */
+public class StripedTimerStorage implements ITimerStorage {
+
+	/**
+	 * Number of cells every storage has. Power of two that is not smaller than the number of
+	 * available processors.
+	 */
+	private static final int CELL_COUNT;
+
+	static {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int count = 1;
+		while (count < processors) {
+			count <<= 1;
+		}
+		CELL_COUNT = count;
+	}
+
+	/**
+	 * The used {@link TimerData}.
+	 */
+	private final TimerData timerData;
+
+	/**
+	 * Cells holding the accumulated values.
+	 */
+	private final Cell[] cells;
+
+	/**
+	 * Default constructor which initializes a {@link TimerData} object.
+	 *
+	 * @param timeStamp
+	 *            The time stamp.
+	 * @param platformIdent
+	 *            The platform ID.
+	 * @param sensorTypeIdent
+	 *            The sensor type ID.
+	 * @param methodIdent
+	 *            The method ID.
+	 * @param parameterContentData
+	 *            The content of the parameter/fields.
+	 * @param charting
+	 *            If TimerData's charting should be set or not.
+	 */
+	public StripedTimerStorage(Timestamp timeStamp, long platformIdent, long sensorTypeIdent, long methodIdent, List<ParameterContentData> parameterContentData, boolean charting) {
+		timerData = new TimerData(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData);
+		timerData.setCharting(charting);
+
+		cells = new Cell[CELL_COUNT];
+		for (int i = 0; i < CELL_COUNT; i++) {
+			cells[i] = new Cell();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addData(double time, double cpuTime) {
+		Cell cell = cells[cellIndex(Thread.currentThread().getId())];
+
+		Cell.COUNT.incrementAndGet(cell);
+		Cell.add(Cell.DURATION, cell, time);
+		Cell.min(Cell.MIN, cell, time);
+		Cell.max(Cell.MAX, cell, time);
+
+		// only add the cpu time if it greater than zero
+		if (cpuTime >= 0) {
+			Cell.add(Cell.CPU_DURATION, cell, cpuTime);
+			Cell.min(Cell.CPU_MIN, cell, cpuTime);
+			Cell.max(Cell.CPU_MAX, cell, cpuTime);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Merges all cells into the timer data.
+	 */
+	@Override
+	public DefaultData finalizeDataObject() {
+		long count = 0;
+		double duration = 0;
+		double cpuDuration = 0;
+		for (Cell cell : cells) {
+			long cellCount = cell.count;
+			if (0 == cellCount) {
+				continue;
+			}
+
+			count += cellCount;
+			duration += Double.longBitsToDouble(cell.duration);
+			timerData.calculateMin(Double.longBitsToDouble(cell.min));
+			timerData.calculateMax(Double.longBitsToDouble(cell.max));
+
+			double cellCpuMax = Double.longBitsToDouble(cell.cpuMax);
+			if (cellCpuMax >= 0) {
+				cpuDuration += Double.longBitsToDouble(cell.cpuDuration);
+				timerData.calculateCpuMin(Double.longBitsToDouble(cell.cpuMin));
+				timerData.calculateCpuMax(cellCpuMax);
+			}
+		}
+
+		timerData.setCount(count);
+		timerData.setDuration(duration);
+		timerData.setCpuDuration(cpuDuration);
+		return timerData;
+	}
+
+	/**
+	 * Returns the index of the cell to be used by the thread with the given id.
+	 *
+	 * @param threadId
+	 *            Thread id.
+	 * @return Cell index.
+	 */
+	private static int cellIndex(long threadId) {
+		// spread the bits, thread ids are most likely sequential
+		int h = (int) (threadId ^ (threadId >>> 32));
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return h & (CELL_COUNT - 1);
+	}
+
+	/**
+	 * One cell holding partial sums. Double values are stored as raw long bits so that they can be
+	 * updated with the {@link AtomicLongFieldUpdater}. Padded to lower the chance that two cells
+	 * share a cache line.
+	 *
+	 * @author agent
+	 *
+	 */
+	@SuppressWarnings("PMD")
+	static final class Cell {
+
+		/**
+		 * Updater of the {@link #count}.
+		 */
+		static final AtomicLongFieldUpdater<Cell> COUNT = AtomicLongFieldUpdater.newUpdater(Cell.class, "count");
+
+		/**
+		 * Updater of the {@link #duration}.
+		 */
+		static final AtomicLongFieldUpdater<Cell> DURATION = AtomicLongFieldUpdater.newUpdater(Cell.class, "duration");
+
+		/**
+		 * Updater of the {@link #min}.
+		 */
+		static final AtomicLongFieldUpdater<Cell> MIN = AtomicLongFieldUpdater.newUpdater(Cell.class, "min");
+
+		/**
+		 * Updater of the {@link #max}.
+		 */
+		static final AtomicLongFieldUpdater<Cell> MAX = AtomicLongFieldUpdater.newUpdater(Cell.class, "max");
+
+		/**
+		 * Updater of the {@link #cpuDuration}.
+		 */
+		static final AtomicLongFieldUpdater<Cell> CPU_DURATION = AtomicLongFieldUpdater.newUpdater(Cell.class, "cpuDuration");
+
+		/**
+		 * Updater of the {@link #cpuMin}.
+		 */
+		static final AtomicLongFieldUpdater<Cell> CPU_MIN = AtomicLongFieldUpdater.newUpdater(Cell.class, "cpuMin");
+
+		/**
+		 * Updater of the {@link #cpuMax}.
+		 */
+		static final AtomicLongFieldUpdater<Cell> CPU_MAX = AtomicLongFieldUpdater.newUpdater(Cell.class, "cpuMax");
+
+		/**
+		 * Padding before the values.
+		 */
+		long p0, p1, p2, p3, p4, p5, p6;
+
+		/**
+		 * Count.
+		 */
+		volatile long count;
+
+		/**
+		 * Duration sum as double bits.
+		 */
+		volatile long duration = Double.doubleToRawLongBits(0d);
+
+		/**
+		 * Minimum duration as double bits.
+		 */
+		volatile long min = Double.doubleToRawLongBits(Double.MAX_VALUE);
+
+		/**
+		 * Maximum duration as double bits.
+		 */
+		volatile long max = Double.doubleToRawLongBits(-1d);
+
+		/**
+		 * CPU duration sum as double bits.
+		 */
+		volatile long cpuDuration = Double.doubleToRawLongBits(0d);
+
+		/**
+		 * Minimum CPU duration as double bits.
+		 */
+		volatile long cpuMin = Double.doubleToRawLongBits(Double.MAX_VALUE);
+
+		/**
+		 * Maximum CPU duration as double bits.
+		 */
+		volatile long cpuMax = Double.doubleToRawLongBits(-1d);
+
+		/**
+		 * Padding after the values.
+		 */
+		long q0, q1, q2, q3, q4, q5, q6;
+
+		/**
+		 * Adds the value to the double field of the cell.
+		 *
+		 * @param updater
+		 *            Field updater.
+		 * @param cell
+		 *            Cell.
+		 * @param value
+		 *            Value to add.
+		 */
+		static void add(AtomicLongFieldUpdater<Cell> updater, Cell cell, double value) {
+			long current;
+			do {
+				current = updater.get(cell);
+			} while (!updater.compareAndSet(cell, current, Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value)));
+		}
+
+		/**
+		 * Sets the double field of the cell to the value if the value is smaller.
+		 *
+		 * @param updater
+		 *            Field updater.
+		 * @param cell
+		 *            Cell.
+		 * @param value
+		 *            Value to compare.
+		 */
+		static void min(AtomicLongFieldUpdater<Cell> updater, Cell cell, double value) {
+			long current = updater.get(cell);
+			while (value < Double.longBitsToDouble(current)) {
+				if (updater.compareAndSet(cell, current, Double.doubleToRawLongBits(value))) {
+					return;
+				}
+				current = updater.get(cell);
+			}
+		}
+
+		/**
+		 * Sets the double field of the cell to the value if the value is bigger.
+		 *
+		 * @param updater
+		 *            Field updater.
+		 * @param cell
+		 *            Cell.
+		 * @param value
+		 *            Value to compare.
+		 */
+		static void max(AtomicLongFieldUpdater<Cell> updater, Cell cell, double value) {
+			long current = updater.get(cell);
+			while (value > Double.longBitsToDouble(current)) {
+				if (updater.compareAndSet(cell, current, Double.doubleToRawLongBits(value))) {
+					return;
+				}
+				current = updater.get(cell);
+			}
+		}
+	}
+
+}
@@ -81,4 +81,14 @@ public class TimerSensor extends AbstractMethodSensor implements IMethodSensor {
 		timerHook = new TimerHook(timer, platformManager, propertyAccessor, parameter, ManagementFactory.getThreadMXBean());
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The parameters are only read with the parameter property access.
+	 */
+	@Override
+	public boolean isParametersRequired() {
+		return false;
+	}
+
 }
@@ -35,6 +35,11 @@ public final class TimerStorageFactory {
 	 */
 	public static final int OPTIMIZED = 2;
 
+	/**
+	 * Optimized mode safe for concurrent updates.
+	 */
+	public static final int STRIPED = 3;
+
 	/**
 	 * The default mode.
 	 */
@@ -69,7 +74,7 @@ public final class TimerStorageFactory {
 
 	/**
 	 * If given {@link Map} contains a key named <b>mode</b>, it is checked against the keywords
-	 * <b>raw</b>, <b>aggregate</b> and <b>optimized</b>.
+	 * <b>raw</b>, <b>aggregate</b>, <b>optimized</b> and <b>striped</b>.
 	 *
 	 * @param parameters
 	 *            The parameters.
@@ -84,6 +89,8 @@ public final class TimerStorageFactory {
 				setMode(AGGREGATE_BEFORE_SEND);
 			} else if ("optimized".equals(mode)) {
 				setMode(OPTIMIZED);
+			} else if ("striped".equals(mode)) {
+				setMode(STRIPED);
 			}
 		}
 	}
@@ -92,7 +99,8 @@ public final class TimerStorageFactory {
 	 * Sets the mode for this factory. It can be one of the following: <br>
 	 * <b>RAW_DATA_TRANSMISSION</b> <br>
 	 * <b>AGGREGATE_BEFORE_SEND</b> <br>
-	 * <b>OPTIMIZED</b>
+	 * <b>OPTIMIZED</b> <br>
+	 * <b>STRIPED</b>
 	 *
 	 * @param mode
 	 *            The mode to set.
@@ -127,6 +135,8 @@ public final class TimerStorageFactory {
 			return new AggregateTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
 		case OPTIMIZED:
 			return new OptimizedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
+		case STRIPED:
+			return new StripedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
 		default:
 			return new OptimizedTimerStorage(timeStamp, platformIdent, sensorTypeIdent, methodIdent, parameterContentData, charting);
 		}
@@ -0,0 +1,128 @@
+package rocks.inspectit.agent.java.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Primitive alternative to the {@link ThreadLocalStack} for <code>double</code> values. Each thread
+ * gets its own growable <code>double</code> array that is used as a stack, thus pushing and popping
+ * values does not box them and does not create any list nodes. The array is only re-allocated when
+ * the stack has to grow, which happens only for the first deep call paths of a thread.
+ *
+ * @author agent
+ *
+ */
+public class ThreadLocalDoubleStack extends ThreadLocal<ThreadLocalDoubleStack.DoubleStack> {
+
+	/**
+	 * Initial capacity of the stack of every thread.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public DoubleStack initialValue() { // NOPMD
+		return new DoubleStack();
+	}
+
+	/**
+	 * Pushes the specified value onto the stack.
+	 *
+	 * @param value
+	 *            the value to push onto the stack.
+	 */
+	public void push(double value) {
+		super.get().push(value);
+	}
+
+	/**
+	 * Returns the last pushed value.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If the stack is empty.
+	 */
+	public double pop() throws NoSuchElementException {
+		return super.get().pop();
+	}
+
+	/**
+	 * Returns the last pushed value without removing it.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If the stack is empty.
+	 */
+	public double getLast() throws NoSuchElementException {
+		return super.get().getLast();
+	}
+
+	/**
+	 * Returns the number of values on the stack of the current thread.
+	 *
+	 * @return Returns the number of values on the stack of the current thread.
+	 */
+	public int size() {
+		return super.get().size;
+	}
+
+	/**
+	 * The growable <code>double</code> array stack that is kept per thread.
+	 *
+	 * @author agent
+	 *
+	 */
+	public static final class DoubleStack {
+
+		/**
+		 * The values.
+		 */
+		private double[] values = new double[INITIAL_CAPACITY];
+
+		/**
+		 * Number of values on the stack.
+		 */
+		private int size;
+
+		/**
+		 * Pushes the value to the stack, growing the array if needed.
+		 *
+		 * @param value
+		 *            Value to push.
+		 */
+		void push(double value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size << 1);
+			}
+			values[size++] = value;
+		}
+
+		/**
+		 * Removes and returns the last value.
+		 *
+		 * @return Last value.
+		 */
+		double pop() {
+			if (0 == size) {
+				throw new NoSuchElementException();
+			}
+			return values[--size];
+		}
+
+		/**
+		 * Returns the last value.
+		 *
+		 * @return Last value.
+		 */
+		double getLast() {
+			if (0 == size) {
+				throw new NoSuchElementException();
+			}
+			return values[size - 1];
+		}
+
+	}
+
+}
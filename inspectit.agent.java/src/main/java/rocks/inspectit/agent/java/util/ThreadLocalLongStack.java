@@ -0,0 +1,128 @@
+package rocks.inspectit.agent.java.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Primitive alternative to the {@link ThreadLocalStack} for <code>long</code> values. Each thread
+ * gets its own growable <code>long</code> array that is used as a stack, thus pushing and popping
+ * values does not box them and does not create any list nodes. The array is only re-allocated when
+ * the stack has to grow, which happens only for the first deep call paths of a thread.
+ *
+ * @author agent
+ *
+ */
+public class ThreadLocalLongStack extends ThreadLocal<ThreadLocalLongStack.LongStack> {
+
+	/**
+	 * Initial capacity of the stack of every thread.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public LongStack initialValue() { // NOPMD
+		return new LongStack();
+	}
+
+	/**
+	 * Pushes the specified value onto the stack.
+	 *
+	 * @param value
+	 *            the value to push onto the stack.
+	 */
+	public void push(long value) {
+		super.get().push(value);
+	}
+
+	/**
+	 * Returns the last pushed value.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If the stack is empty.
+	 */
+	public long pop() throws NoSuchElementException {
+		return super.get().pop();
+	}
+
+	/**
+	 * Returns the last pushed value without removing it.
+	 *
+	 * @return The last pushed value.
+	 * @throws NoSuchElementException
+	 *             If the stack is empty.
+	 */
+	public long getLast() throws NoSuchElementException {
+		return super.get().getLast();
+	}
+
+	/**
+	 * Returns the number of values on the stack of the current thread.
+	 *
+	 * @return Returns the number of values on the stack of the current thread.
+	 */
+	public int size() {
+		return super.get().size;
+	}
+
+	/**
+	 * The growable <code>long</code> array stack that is kept per thread.
+	 *
+	 * @author agent
+	 *
+	 */
+	public static final class LongStack {
+
+		/**
+		 * The values.
+		 */
+		private long[] values = new long[INITIAL_CAPACITY];
+
+		/**
+		 * Number of values on the stack.
+		 */
+		private int size;
+
+		/**
+		 * Pushes the value to the stack, growing the array if needed.
+		 *
+		 * @param value
+		 *            Value to push.
+		 */
+		void push(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size << 1);
+			}
+			values[size++] = value;
+		}
+
+		/**
+		 * Removes and returns the last value.
+		 *
+		 * @return Last value.
+		 */
+		long pop() {
+			if (0 == size) {
+				throw new NoSuchElementException();
+			}
+			return values[--size];
+		}
+
+		/**
+		 * Returns the last value.
+		 *
+		 * @return Last value.
+		 */
+		long getLast() {
+			if (0 == size) {
+				throw new NoSuchElementException();
+			}
+			return values[size - 1];
+		}
+
+	}
+
+}
@@ -1,6 +1,7 @@
 package rocks.inspectit.agent.java.analyzer.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
@@ -14,6 +15,7 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -25,13 +27,17 @@ import info.novatec.inspectit.org.objectweb.asm.ClassWriter;
 import info.novatec.inspectit.org.objectweb.asm.MethodVisitor;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -43,10 +49,13 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import rocks.inspectit.agent.java.Agent;
+import rocks.inspectit.agent.java.IAgent;
 import rocks.inspectit.agent.java.analyzer.classes.AbstractSubTest;
 import rocks.inspectit.agent.java.analyzer.classes.TestClass;
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
@@ -54,10 +63,12 @@ import rocks.inspectit.agent.java.config.impl.RegisteredSensorConfig;
 import rocks.inspectit.agent.java.config.impl.SpecialSensorConfig;
 import rocks.inspectit.agent.java.connection.IConnection;
 import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.event.AgentMessagesReceivedEvent;
 import rocks.inspectit.agent.java.hooking.IHookDispatcherMapper;
 import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
 import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
-import rocks.inspectit.shared.all.instrumentation.classcache.ClassType;
+import rocks.inspectit.shared.all.communication.message.UpdatedInstrumentationMessage;
+import rocks.inspectit.shared.all.instrumentation.classcache.Type;
 import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.MethodInstrumentationConfig;
@@ -107,7 +118,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 	InstrumenterFactory instrumenterFactory;
 
 	@Mock
-	ExecutorService executorService;
+	ScheduledExecutorService executorService;
 
 	@Mock
 	MethodVisitor methodVisitor;
@@ -124,6 +135,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 	@Mock
 	Future<Object> future;
 
+	@Mock
+	ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	IAgent agent;
+
 	final Long platformId = 10L;
 
 	@BeforeMethod
@@ -154,6 +171,21 @@ public class ByteCodeAnalyzerTest extends TestBase {
 		when(methodSensors.iterator()).thenReturn(it);
 	}
 
+	protected Answer<Map<String, InstrumentationDefinition>> resultForAll(final InstrumentationDefinition instrumentationDefinition) {
+		return new Answer<Map<String, InstrumentationDefinition>>() {
+			@Override
+			public Map<String, InstrumentationDefinition> answer(InvocationOnMock invocation) throws Throwable {
+				Map<String, InstrumentationDefinition> result = new HashMap<String, InstrumentationDefinition>();
+				if (null != instrumentationDefinition) {
+					for (Object hash : ((Map<?, ?>) invocation.getArguments()[1]).keySet()) {
+						result.put((String) hash, instrumentationDefinition);
+					}
+				}
+				return result;
+			}
+		};
+	}
+
 	protected byte[] getByteCode(String className) throws IOException {
 		// get byte-code via ASM
 		ClassReader reader = new ClassReader(className);
@@ -181,11 +213,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -203,13 +235,16 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(not(nullValue())));
 
 			verify(connection, times(3)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			assertThat(typesCaptor.getValue().size(), is(1));
+			assertThat(((Map<String, Type>) typesCaptor.getValue()).get(hashCaptor.getValue()).getFQN(), is(fqnCaptor.getValue()));
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
 			assertThat((Map<Long, long[]>) captor.getValue(), hasEntry(rscId, sensorIds));
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).isCached(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			verify(classHashHelper, times(1)).registerSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerInstrumentationDefinition(fqnCaptor.getValue(), instrumentationResult);
@@ -242,11 +277,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -264,13 +299,16 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(not(nullValue())));
 
 			verify(connection, times(3)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			assertThat(typesCaptor.getValue().size(), is(1));
+			assertThat(((Map<String, Type>) typesCaptor.getValue()).get(hashCaptor.getValue()).getFQN(), is(fqnCaptor.getValue()));
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
 			assertThat((Map<Long, long[]>) captor.getValue(), hasEntry(rscId, sensorIds));
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).isCached(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			verify(classHashHelper, times(1)).registerSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerInstrumentationDefinition(fqnCaptor.getValue(), instrumentationResult);
@@ -302,11 +340,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long sscId = 13L;
 			long sensorId = 17L;
@@ -321,13 +359,16 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(not(nullValue())));
 
 			verify(connection, times(3)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			assertThat(typesCaptor.getValue().size(), is(1));
+			assertThat(((Map<String, Type>) typesCaptor.getValue()).get(hashCaptor.getValue()).getFQN(), is(fqnCaptor.getValue()));
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
 			assertThat((Map<Long, long[]>) captor.getValue(), hasEntry(sscId, new long[] { sensorId }));
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).isCached(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			verify(classHashHelper, times(1)).registerSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerInstrumentationDefinition(fqnCaptor.getValue(), instrumentationResult);
@@ -423,6 +464,379 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verifyNoMoreInteractions(hookDispatcherMapper, connection, classHashHelper);
 		}
 
+		@Test
+		public void locallyCachedInstrumentation() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			// make registered sensor config always instrument toString
+			when(methodInstrumentationConfig.getTargetClassFqn()).thenReturn(className);
+			when(methodInstrumentationConfig.getTargetMethodName()).thenReturn("<init>");
+			when(methodInstrumentationConfig.getReturnType()).thenReturn("void");
+			when(methodInstrumentationConfig.getParameterTypes()).thenReturn(Collections.<String> emptyList());
+			when(methodInstrumentationConfig.getSensorInstrumentationPoint()).thenReturn(sensorInstrumentationPoint);
+			when(methodInstrumentationConfig.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sensorInstrumentationPoint));
+			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
+
+			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isCached(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(true);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(classHashHelper.getInstrumentationDefinition(className)).thenReturn(instrumentationResult);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(instrumentationResult));
+			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
+			long rscId = 13L;
+			long[] sensorIds = { 17L };
+			when(sensorInstrumentationPoint.getId()).thenReturn(rscId);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(sensorIds);
+			when(sensorInstrumentationPoint.getPropertyAccessorList()).thenReturn(Collections.<PropertyPathStart> emptyList());
+			when(methodSensorTypeConfig.getId()).thenReturn(sensorIds[0]);
+
+			byteCodeAnalyzer.afterPropertiesSet();
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// instrumented with the cached definition
+			assertThat(instrumentedByteCode, is(not(nullValue())));
+			verify(classHashHelper, times(1)).getInstrumentationDefinition(className);
+			verify(hookDispatcherMapper, times(1)).addMapping(eq(rscId), Matchers.<RegisteredSensorConfig> any());
+
+			// type sent in the background and registered as sent
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			assertThat(typesCaptor.getValue().size(), is(1));
+			assertThat(((Map<String, Type>) typesCaptor.getValue()).get(hashCaptor.getValue()).getFQN(), is(className));
+			verify(classHashHelper, times(1)).registerSent(className, hashCaptor.getValue());
+			verify(classHashHelper, times(1)).registerInstrumentationDefinition(className, instrumentationResult);
+
+			// same instrumentation on the CMR, no retransformation needed
+			verifyZeroInteractions(eventPublisher);
+		}
+
+		@Test
+		public void locallyCachedInstrumentationWithoutServerRoundTrip() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+			when(methodInstrumentationConfig.getTargetClassFqn()).thenReturn(className);
+			when(methodInstrumentationConfig.getTargetMethodName()).thenReturn("<init>");
+			when(methodInstrumentationConfig.getReturnType()).thenReturn("void");
+			when(methodInstrumentationConfig.getParameterTypes()).thenReturn(Collections.<String> emptyList());
+			when(methodInstrumentationConfig.getSensorInstrumentationPoint()).thenReturn(sensorInstrumentationPoint);
+			when(methodInstrumentationConfig.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sensorInstrumentationPoint));
+			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
+
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isCached(anyString(), anyString())).thenReturn(true);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(classHashHelper.getInstrumentationDefinition(className)).thenReturn(instrumentationResult);
+			when(connection.isConnected()).thenReturn(true);
+			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
+			long rscId = 13L;
+			long[] sensorIds = { 17L };
+			when(sensorInstrumentationPoint.getId()).thenReturn(rscId);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(sensorIds);
+			when(sensorInstrumentationPoint.getPropertyAccessorList()).thenReturn(Collections.<PropertyPathStart> emptyList());
+			when(methodSensorTypeConfig.getId()).thenReturn(sensorIds[0]);
+			// background announcing does not run
+			doReturn(null).when(executorService).submit(Matchers.<Runnable> any());
+
+			byteCodeAnalyzer.afterPropertiesSet();
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// instrumented with the cached definition without asking the CMR
+			assertThat(instrumentedByteCode, is(not(nullValue())));
+			verify(hookDispatcherMapper, times(1)).addMapping(eq(rscId), Matchers.<RegisteredSensorConfig> any());
+			verify(executorService, times(0)).submit(Matchers.<Callable> any());
+			verify(connection, times(0)).analyzeTypes(anyLong(), Matchers.<Map<String, Type>> any());
+			verify(classHashHelper, times(0)).registerSent(anyString(), anyString());
+		}
+
+		@Test
+		public void locallyCachedInstrumentationChangedOnCmr() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+			when(methodInstrumentationConfig.getTargetClassFqn()).thenReturn(className);
+			when(methodInstrumentationConfig.getTargetMethodName()).thenReturn("<init>");
+			when(methodInstrumentationConfig.getReturnType()).thenReturn("void");
+			when(methodInstrumentationConfig.getParameterTypes()).thenReturn(Collections.<String> emptyList());
+			when(methodInstrumentationConfig.getSensorInstrumentationPoint()).thenReturn(sensorInstrumentationPoint);
+			when(methodInstrumentationConfig.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sensorInstrumentationPoint));
+			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
+
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
+			ArgumentCaptor<AgentMessagesReceivedEvent> eventCaptor = ArgumentCaptor.forClass(AgentMessagesReceivedEvent.class);
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isCached(anyString(), anyString())).thenReturn(true);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(classHashHelper.getInstrumentationDefinition(className)).thenReturn(instrumentationResult);
+			when(connection.isConnected()).thenReturn(true);
+			// CMR does not instrument the class any more
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(null));
+			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
+			long rscId = 13L;
+			long[] sensorIds = { 17L };
+			when(sensorInstrumentationPoint.getId()).thenReturn(rscId);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(sensorIds);
+			when(sensorInstrumentationPoint.getPropertyAccessorList()).thenReturn(Collections.<PropertyPathStart> emptyList());
+			when(methodSensorTypeConfig.getId()).thenReturn(sensorIds[0]);
+
+			byteCodeAnalyzer.afterPropertiesSet();
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			// instrumented with the cached definition
+			assertThat(instrumentedByteCode, is(not(nullValue())));
+
+			// retransformation with the empty definition of the CMR requested
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+			UpdatedInstrumentationMessage message = (UpdatedInstrumentationMessage) eventCaptor.getValue().getAgentMessages().get(0);
+			assertThat(message.getMessageContent(), hasSize(1));
+			InstrumentationDefinition definition = message.getMessageContent().get(0);
+			assertThat(definition.getClassName(), is(className));
+			assertThat(definition.isEmpty(), is(true));
+		}
+
+		@Test
+		public void locallyCachedInstrumentationConnectionOffline() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isCached(anyString(), anyString())).thenReturn(true);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(classHashHelper.getInstrumentationDefinition(className)).thenReturn(null);
+			when(connection.isConnected()).thenReturn(false);
+
+			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(classHashHelper, times(1)).getInstrumentationDefinition(className);
+			verify(connection, times(1)).isConnected();
+			verifyNoMoreInteractions(connection);
+			verify(classHashHelper, times(0)).registerSent(anyString(), anyString());
+			verifyZeroInteractions(hookDispatcherMapper);
+		}
+
+		@Test
+		public void asyncInstrumentationDeferred() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
+			ArgumentCaptor<AgentMessagesReceivedEvent> eventCaptor = ArgumentCaptor.forClass(AgentMessagesReceivedEvent.class);
+			Agent.agent = agent;
+			when(agent.isUsingRetransformation()).thenReturn(true);
+			when(configurationStorage.isAsyncInstrumentation()).thenReturn(true);
+			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(instrumentationResult));
+			when(instrumentationResult.isEmpty()).thenReturn(false);
+
+			byte[] instrumentedByteCode;
+			try {
+				instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+			} finally {
+				Agent.agent = null;
+			}
+
+			// class loaded without instrumentation
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(classHashHelper, times(0)).getInstrumentationDefinition(anyString());
+			verifyZeroInteractions(hookDispatcherMapper);
+
+			// analyzed in the background and passed for retransformation
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			assertThat(((Map<String, Type>) typesCaptor.getValue()).get(hashCaptor.getValue()).getFQN(), is(fqnCaptor.getValue()));
+			verify(classHashHelper, times(1)).registerSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).registerInstrumentationDefinition(fqnCaptor.getValue(), instrumentationResult);
+			verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+			assertThat(eventCaptor.getValue().getAgentMessages(), hasSize(1));
+			UpdatedInstrumentationMessage message = (UpdatedInstrumentationMessage) eventCaptor.getValue().getAgentMessages().get(0);
+			assertThat(message.getMessageContent(), hasSize(1));
+			assertThat(message.getMessageContent(), hasItem(instrumentationResult));
+		}
+
+		@Test
+		public void asyncInstrumentationDeferredNothingToInstrument() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
+			Agent.agent = agent;
+			when(agent.isUsingRetransformation()).thenReturn(true);
+			when(configurationStorage.isAsyncInstrumentation()).thenReturn(true);
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(null));
+
+			byte[] instrumentedByteCode;
+			try {
+				instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+			} finally {
+				Agent.agent = null;
+			}
+
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			verifyZeroInteractions(eventPublisher, hookDispatcherMapper);
+		}
+
+		@Test
+		public void asyncInstrumentationConnectionOffline() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			Agent.agent = agent;
+			when(agent.isUsingRetransformation()).thenReturn(true);
+			when(configurationStorage.isAsyncInstrumentation()).thenReturn(true);
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(false);
+
+			byte[] instrumentedByteCode;
+			try {
+				instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+			} finally {
+				Agent.agent = null;
+			}
+
+			// type stays queued until the server is reachable
+			assertThat(instrumentedByteCode, is(nullValue()));
+			verify(connection, times(1)).isConnected();
+			verifyNoMoreInteractions(connection);
+			verify(classHashHelper, times(0)).registerSent(anyString(), anyString());
+			verifyZeroInteractions(eventPublisher, hookDispatcherMapper);
+		}
+
+		@Test
+		public void asyncInstrumentationSentOnReconnect() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<Runnable> retryCaptor = ArgumentCaptor.forClass(Runnable.class);
+			ArgumentCaptor<Long> delayCaptor = ArgumentCaptor.forClass(Long.class);
+			ArgumentCaptor<AgentMessagesReceivedEvent> eventCaptor = ArgumentCaptor.forClass(AgentMessagesReceivedEvent.class);
+			Agent.agent = agent;
+			when(agent.isUsingRetransformation()).thenReturn(true);
+			when(configurationStorage.isAsyncInstrumentation()).thenReturn(true);
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(false);
+			when(connection.analyzeTypes(eq(platformId.longValue()), Matchers.<Map<String, Type>> any())).thenAnswer(resultForAll(instrumentationResult));
+			when(instrumentationResult.isEmpty()).thenReturn(false);
+
+			try {
+				byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+			} finally {
+				Agent.agent = null;
+			}
+
+			// retried with a longer delay while the server is not reachable
+			verify(executorService, times(1)).schedule(retryCaptor.capture(), delayCaptor.capture(), eq(TimeUnit.MILLISECONDS));
+			retryCaptor.getValue().run();
+			verify(executorService, times(2)).schedule(retryCaptor.capture(), delayCaptor.capture(), eq(TimeUnit.MILLISECONDS));
+			assertThat(delayCaptor.getAllValues().get(2), is(greaterThan(delayCaptor.getAllValues().get(0))));
+			verify(connection, times(0)).analyzeTypes(anyLong(), Matchers.<Map<String, Type>> any());
+
+			// server is reachable again
+			when(connection.isConnected()).thenReturn(true);
+			retryCaptor.getValue().run();
+
+			verify(connection, times(1)).analyzeTypes(eq(platformId.longValue()), Matchers.<Map<String, Type>> any());
+			verify(classHashHelper, times(1)).registerInstrumentationDefinition(className, instrumentationResult);
+			verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+			UpdatedInstrumentationMessage message = (UpdatedInstrumentationMessage) eventCaptor.getValue().getAgentMessages().get(0);
+			assertThat(message.getMessageContent(), hasItem(instrumentationResult));
+			// nothing left to retry
+			verify(executorService, times(2)).schedule(Matchers.<Runnable> any(), anyLong(), Matchers.<TimeUnit> any());
+		}
+
+		@Test
+		public void asyncInstrumentationQueuedWhileAnnouncing() throws Exception {
+			String className = TestClass.class.getName();
+			final String otherClassName = AbstractSubTest.class.getName();
+			final ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+			final byte[] otherByteCode = getByteCode(otherClassName);
+
+			// other type is queued after the announcing saw the empty queue, but before it finished
+			Field field = ByteCodeAnalyzer.class.getDeclaredField("typesToAnnounce");
+			field.setAccessible(true);
+			field.set(byteCodeAnalyzer, new ConcurrentHashMap<String, Type>() {
+				private static final long serialVersionUID = 1L;
+
+				private boolean queued;
+
+				@Override
+				public boolean isEmpty() {
+					boolean empty = super.isEmpty();
+					if (empty && !queued) {
+						queued = true;
+						byteCodeAnalyzer.analyzeAndInstrument(otherByteCode, otherClassName, classLoader);
+					}
+					return empty;
+				}
+			});
+
+			Agent.agent = agent;
+			when(agent.isUsingRetransformation()).thenReturn(true);
+			when(configurationStorage.isAsyncInstrumentation()).thenReturn(true);
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeTypes(eq(platformId.longValue()), Matchers.<Map<String, Type>> any())).thenAnswer(resultForAll(null));
+
+			try {
+				byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+			} finally {
+				Agent.agent = null;
+			}
+
+			verify(connection, times(2)).analyzeTypes(eq(platformId.longValue()), Matchers.<Map<String, Type>> any());
+			verify(classHashHelper, times(1)).registerSent(eq(className), anyString());
+			verify(classHashHelper, times(1)).registerSent(eq(otherClassName), anyString());
+		}
+
+		@Test
+		public void asyncInstrumentationWithoutRetransformation() throws Exception {
+			String className = TestClass.class.getName();
+			ClassLoader classLoader = TestClass.class.getClassLoader();
+			byte[] byteCode = getByteCode(className);
+
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
+			Agent.agent = agent;
+			when(agent.isUsingRetransformation()).thenReturn(false);
+			when(configurationStorage.isAsyncInstrumentation()).thenReturn(true);
+			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
+			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
+			when(connection.isConnected()).thenReturn(true);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(null));
+
+			try {
+				byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
+			} finally {
+				Agent.agent = null;
+			}
+
+			// analyzed while loading the class
+			verify(executorService, times(1)).submit(Matchers.<Callable> any());
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			verifyZeroInteractions(eventPublisher);
+		}
+
 		@Test
 		public void noInstrumentationResult() throws Exception {
 			String className = TestClass.class.getName();
@@ -431,11 +845,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(null);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(null));
 
 			byte[] instrumentedByteCode = byteCodeAnalyzer.analyzeAndInstrument(byteCode, className, classLoader);
 
@@ -443,9 +857,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(nullValue()));
 
 			verify(connection, times(2)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			assertThat(typesCaptor.getValue().size(), is(1));
+			assertThat(((Map<String, Type>) typesCaptor.getValue()).get(hashCaptor.getValue()).getFQN(), is(fqnCaptor.getValue()));
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).isCached(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			verify(classHashHelper, times(1)).registerSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerInstrumentationDefinition(fqnCaptor.getValue(), null);
@@ -472,6 +889,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verify(connection, times(1)).isConnected();
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).isCached(fqnCaptor.getValue(), hashCaptor.getValue());
 			verifyZeroInteractions(hookDispatcherMapper);
 			verifyNoMoreInteractions(connection, classHashHelper);
 		}
@@ -491,11 +909,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			when(sensorInstrumentationPoint.getId()).thenReturn(rscId);
@@ -506,9 +924,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(instrumentedByteCode, is(nullValue()));
 
 			verify(connection, times(2)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			assertThat(typesCaptor.getValue().size(), is(1));
+			assertThat(((Map<String, Type>) typesCaptor.getValue()).get(hashCaptor.getValue()).getFQN(), is(fqnCaptor.getValue()));
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).isCached(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			verify(classHashHelper, times(1)).registerSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerInstrumentationDefinition(fqnCaptor.getValue(), instrumentationResult);
@@ -542,12 +963,12 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			when(methodInstrumentationConfig.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sensorInstrumentationPoint));
 			when(instrumenterFactory.getMethodVisitor(eq(sensorInstrumentationPoint), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean())).thenReturn(methodVisitor);
 
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
 			when(classHashHelper.isSent(anyString(), anyString())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(classHashHelper.isAnalyzed(AbstractSubTest.class.getName())).thenReturn(false);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -564,21 +985,24 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			// as instrumentation happened, we get a not null object
 			assertThat(instrumentedByteCode, is(not(nullValue())));
 
-			verify(connection, times(5)).isConnected();
-			verify(connection, times(1)).analyze(eq(platformId.longValue()), anyString(), eq(classCaptor.getAllValues().get(0)));
-			verify(connection, times(1)).analyze(eq(platformId.longValue()), anyString(), eq(classCaptor.getAllValues().get(1)));
+			// one call for both classes
+			verify(connection, times(3)).isConnected();
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
 			assertThat((Map<Long, long[]>) captor.getValue(), hasEntry(rscId, sensorIds));
 
 			// assert sent classes order
-			assertThat(classCaptor.getAllValues().get(0).getFQN(), is(AbstractSubTest.class.getName()));
-			assertThat(classCaptor.getAllValues().get(1).getFQN(), is(TestClass.class.getName()));
+			List<Type> sentTypes = new ArrayList<Type>(((Map<String, Type>) typesCaptor.getValue()).values());
+			assertThat(sentTypes, hasSize(2));
+			assertThat(sentTypes.get(0).getFQN(), is(AbstractSubTest.class.getName()));
+			assertThat(sentTypes.get(1).getFQN(), is(TestClass.class.getName()));
 
 			// class hash verfications
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(eq(TestClass.class.getName()), anyString());
+			verify(classHashHelper, times(1)).isCached(eq(TestClass.class.getName()), anyString());
 			verify(classHashHelper, times(1)).isSent(eq(AbstractSubTest.class.getName()), anyString());
 			verify(classHashHelper, times(1)).registerAnalyzed(TestClass.class.getName());
 			verify(classHashHelper, times(1)).registerAnalyzed(AbstractSubTest.class.getName());
@@ -628,6 +1052,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verify(connection, times(1)).isConnected();
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).isCached(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			verifyZeroInteractions(hookDispatcherMapper);
 			verifyNoMoreInteractions(connection, classHashHelper);
@@ -662,6 +1087,7 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			verify(connection, times(1)).isConnected();
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).isCached(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			verifyZeroInteractions(hookDispatcherMapper);
 			verifyNoMoreInteractions(connection, classHashHelper);
@@ -684,11 +1110,11 @@ public class ByteCodeAnalyzerTest extends TestBase {
 
 			ArgumentCaptor<String> fqnCaptor = ArgumentCaptor.forClass(String.class);
 			ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
-			ArgumentCaptor<ClassType> classCaptor = ArgumentCaptor.forClass(ClassType.class);
+			ArgumentCaptor<Map> typesCaptor = ArgumentCaptor.forClass(Map.class);
 			when(classHashHelper.isSent(fqnCaptor.capture(), hashCaptor.capture())).thenReturn(false);
 			when(classHashHelper.isAnalyzed(anyString())).thenReturn(true);
 			when(connection.isConnected()).thenReturn(true);
-			when(connection.analyze(eq(platformId.longValue()), anyString(), classCaptor.capture())).thenReturn(instrumentationResult);
+			when(connection.analyzeTypes(eq(platformId.longValue()), typesCaptor.capture())).thenAnswer(resultForAll(instrumentationResult));
 			when(instrumentationResult.getMethodInstrumentationConfigs()).thenReturn(Collections.singleton(methodInstrumentationConfig));
 			long rscId = 13L;
 			long[] sensorIds = { 17L };
@@ -711,13 +1137,16 @@ public class ByteCodeAnalyzerTest extends TestBase {
 			assertThat(Thread.interrupted(), is(true));
 
 			verify(connection, times(3)).isConnected();
-			verify(connection, times(1)).analyze(platformId.longValue(), hashCaptor.getValue(), classCaptor.getValue());
+			verify(connection, times(1)).analyzeTypes(platformId.longValue(), typesCaptor.getValue());
+			assertThat(typesCaptor.getValue().size(), is(1));
+			assertThat(((Map<String, Type>) typesCaptor.getValue()).get(hashCaptor.getValue()).getFQN(), is(fqnCaptor.getValue()));
 			ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
 			verify(connection, times(1)).instrumentationApplied(eq(platformId), captor.capture());
 			assertThat(captor.getValue().size(), is(1));
 			assertThat((Map<Long, long[]>) captor.getValue(), hasEntry(rscId, sensorIds));
 			verify(classHashHelper, atLeastOnce()).isAnalyzed(anyString());
 			verify(classHashHelper, times(1)).isSent(fqnCaptor.getValue(), hashCaptor.getValue());
+			verify(classHashHelper, times(1)).isCached(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerAnalyzed(fqnCaptor.getValue());
 			verify(classHashHelper, times(1)).registerSent(fqnCaptor.getValue(), hashCaptor.getValue());
 			verify(classHashHelper, times(1)).registerInstrumentationDefinition(fqnCaptor.getValue(), instrumentationResult);
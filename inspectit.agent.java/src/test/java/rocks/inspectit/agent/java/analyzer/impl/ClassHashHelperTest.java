@@ -1,6 +1,7 @@
 package rocks.inspectit.agent.java.analyzer.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.anyLong;
@@ -18,6 +19,7 @@ import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -27,8 +29,10 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 
 import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.core.IPlatformManager;
 import rocks.inspectit.agent.java.io.FileResolver;
 import rocks.inspectit.agent.java.spring.PrototypesProvider;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
@@ -36,11 +40,15 @@ import rocks.inspectit.shared.all.serializer.SerializationException;
 import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
-@SuppressWarnings("PMD")
+@SuppressWarnings({ "PMD", "unchecked" })
 public class ClassHashHelperTest extends TestBase {
 
 	protected static final String TEST_CACHE_FILE = "test.cache";
 
+	protected static final String TEST_INSTRUMENTATION_CACHE_FILE = "testInstrumentation.cache";
+
+	protected static final Long PLATFORM_ID = 10L;
+
 	@InjectMocks
 	ClassHashHelper helper;
 
@@ -50,6 +58,9 @@ public class ClassHashHelperTest extends TestBase {
 	@Mock
 	IConfigurationStorage configurationStorage;
 
+	@Mock
+	IPlatformManager platformManager;
+
 	@Mock
 	PrototypesProvider prototypesProvider;
 
@@ -65,15 +76,19 @@ public class ClassHashHelperTest extends TestBase {
 	@BeforeMethod
 	public void setup() {
 		doReturn(new File(TEST_CACHE_FILE)).when(fileResolver).getClassHashCacheFile();
+		doReturn(new File(TEST_INSTRUMENTATION_CACHE_FILE)).when(fileResolver).getInstrumentationCacheFile();
 
 		when(prototypesProvider.createSerializer()).thenReturn(serializationManager);
+		when(platformManager.getPlatformId()).thenReturn(PLATFORM_ID);
 	}
 
 	@AfterMethod
 	public void delete() {
-		File file = new File(TEST_CACHE_FILE);
-		if (file.exists()) {
-			assertThat(file.delete(), is(true));
+		for (String fileName : new String[] { TEST_CACHE_FILE, TEST_INSTRUMENTATION_CACHE_FILE }) {
+			File file = new File(fileName);
+			if (file.exists()) {
+				assertThat(file.delete(), is(true));
+			}
 		}
 	}
 
@@ -134,6 +149,97 @@ public class ClassHashHelperTest extends TestBase {
 			verifyZeroInteractions(serializationManager);
 		}
 
+		@Test
+		public void instrumentationCacheFileExistsCacheOnCmrNot() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(false);
+			new File(TEST_INSTRUMENTATION_CACHE_FILE).createNewFile();
+			Object hashes = Collections.singletonMap(fqn, Collections.singleton(hash));
+			Object definitions = Collections.singletonMap(fqn, instrumentationResult);
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(PLATFORM_ID, hashes, definitions);
+
+			helper.afterPropertiesSet();
+
+			// cache is not bound to the class cache of the CMR
+			verify(serializationManager, times(3)).deserialize(Matchers.<Input> any());
+			assertThat(helper.isSent(fqn, hash), is(false));
+			assertThat(helper.isCached(fqn, hash), is(true));
+			assertThat(helper.getInstrumentationDefinition(fqn), is(instrumentationResult));
+		}
+
+		@Test
+		public void instrumentationCacheFileExistsOtherPlatform() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			new File(TEST_INSTRUMENTATION_CACHE_FILE).createNewFile();
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(PLATFORM_ID + 1);
+
+			helper.afterPropertiesSet();
+
+			// definitions might reference IDs unknown to the CMR, thus they are not used
+			verify(serializationManager, times(1)).deserialize(Matchers.<Input> any());
+			assertThat(helper.isCached(fqn, hash), is(false));
+			assertThat(helper.getInstrumentationDefinition(fqn), is(nullValue()));
+			assertThat(new File(TEST_INSTRUMENTATION_CACHE_FILE).exists(), is(false));
+		}
+
+		@Test
+		public void instrumentationCacheFileExistsNotRegistered() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			when(platformManager.getPlatformId()).thenReturn(-1L);
+			new File(TEST_INSTRUMENTATION_CACHE_FILE).createNewFile();
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(-1L);
+
+			helper.afterPropertiesSet();
+
+			assertThat(helper.isCached(fqn, hash), is(false));
+			assertThat(new File(TEST_INSTRUMENTATION_CACHE_FILE).exists(), is(false));
+		}
+
+		@Test
+		public void instrumentationCacheFileExistsClassNotSent() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			new File(TEST_INSTRUMENTATION_CACHE_FILE).createNewFile();
+			Object hashes = Collections.singletonMap(fqn, Collections.singleton(hash));
+			Object definitions = Collections.singletonMap(fqn, instrumentationResult);
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(PLATFORM_ID, hashes, definitions);
+
+			helper.afterPropertiesSet();
+
+			verify(serializationManager, times(3)).deserialize(Matchers.<Input> any());
+			assertThat(helper.isSent(fqn, hash), is(false));
+			assertThat(helper.isCached(fqn, hash), is(true));
+			assertThat(helper.getInstrumentationDefinition(fqn), is(instrumentationResult));
+		}
+
+		@Test
+		public void instrumentationCacheFileExistsClassSent() throws Exception {
+			String fqn = "fqn";
+			String hash = "hash";
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationStorage.isClassCacheExistsOnCmr()).thenReturn(true);
+			new File(TEST_CACHE_FILE).createNewFile();
+			new File(TEST_INSTRUMENTATION_CACHE_FILE).createNewFile();
+			Object hashes = Collections.singletonMap(fqn, Collections.singleton(hash));
+			Object definitions = Collections.singletonMap(fqn, instrumentationResult);
+			when(serializationManager.deserialize(Matchers.<Input> any())).thenReturn(hashes, PLATFORM_ID, hashes, definitions);
+
+			helper.afterPropertiesSet();
+
+			// definitions of the classes known to the CMR come from the initial results only
+			verify(serializationManager, times(4)).deserialize(Matchers.<Input> any());
+			assertThat(helper.isSent(fqn, hash), is(true));
+			assertThat(helper.isCached(fqn, hash), is(false));
+			assertThat(helper.getInstrumentationDefinition(fqn), is(nullValue()));
+		}
+
 		@Test
 		public void initialInstrumentationPoints() throws Exception {
 			String fqn = "fqn";
@@ -245,6 +351,59 @@ public class ClassHashHelperTest extends TestBase {
 		}
 	}
 
+	public class IsCached extends ClassHashHelperTest {
+
+		@Test
+		public void notCached() throws Exception {
+			helper.afterPropertiesSet();
+			String fqn = "fqn";
+			String hash = "hash";
+
+			boolean cached = helper.isCached(fqn, hash);
+
+			assertThat(cached, is(false));
+		}
+
+		@Test
+		public void sentNotCached() throws Exception {
+			helper.afterPropertiesSet();
+			String fqn = "fqn";
+			String hash = "hash";
+			helper.registerSent(fqn, hash);
+
+			boolean cached = helper.isCached(fqn, hash);
+
+			assertThat(cached, is(false));
+		}
+	}
+
+	public class Destroy extends ClassHashHelperTest {
+
+		@Test
+		public void saveInstrumentationCache() throws Exception {
+			helper.afterPropertiesSet();
+			String fqn = "fqn";
+			String hash = "hash";
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(instrumentationResult.isEmpty()).thenReturn(false);
+			helper.registerSent(fqn, hash);
+			helper.registerInstrumentationDefinition(fqn, instrumentationResult);
+
+			helper.destroy();
+
+			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+			verify(serializationManager, times(4)).serialize(captor.capture(), Matchers.<Output> any());
+			Map<String, Collection<String>> sentHashes = (Map<String, Collection<String>>) captor.getAllValues().get(0);
+			Map<String, Collection<String>> knownHashes = (Map<String, Collection<String>>) captor.getAllValues().get(2);
+			Map<String, InstrumentationDefinition> definitions = (Map<String, InstrumentationDefinition>) captor.getAllValues().get(3);
+			assertThat(sentHashes.get(fqn), hasItem(hash));
+			assertThat(captor.getAllValues().get(1), is((Object) PLATFORM_ID));
+			assertThat(knownHashes.get(fqn), hasItem(hash));
+			assertThat(definitions.get(fqn), is(instrumentationResult));
+			assertThat(new File(TEST_INSTRUMENTATION_CACHE_FILE).exists(), is(true));
+		}
+	}
+
 	public class RegisterSent extends ClassHashHelperTest {
 
 		@Test
@@ -0,0 +1,217 @@
+package rocks.inspectit.agent.java.buffer.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.Sizeable;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+
+@SuppressWarnings("PMD")
+public class RingBufferStrategyTest {
+
+	private static final long ELEMENT_SIZE = 100L;
+
+	private RingBufferStrategy bufferStrategy;
+
+	@BeforeMethod
+	public void initTestClass() {
+		bufferStrategy = new RingBufferStrategy();
+		initTestClassFields();
+	}
+
+	@Test
+	public void addAndRetrieve() {
+		bufferStrategy.addMeasurements(Collections.<DefaultData> emptyList());
+
+		assertThat(bufferStrategy.hasNext(), is(true));
+		List<DefaultData> list = bufferStrategy.next();
+		assertThat(list, is(notNullValue()));
+		assertThat(list, is(equalTo(Collections.<DefaultData> emptyList())));
+
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test
+	public void retrieveInOrder() {
+		List<DefaultData> listOne = list(new TimerData());
+		List<DefaultData> listTwo = list(new TimerData());
+		bufferStrategy.addMeasurements(listOne);
+		bufferStrategy.addMeasurements(listTwo);
+
+		assertThat(bufferStrategy.getBufferedLists(), is(2));
+		assertThat(bufferStrategy.getSize(), is(2 * ELEMENT_SIZE));
+		assertThat(bufferStrategy.next(), is(sameInstance(listOne)));
+		assertThat(bufferStrategy.next(), is(sameInstance(listTwo)));
+		assertThat(bufferStrategy.hasNext(), is(false));
+		assertThat(bufferStrategy.getSize(), is(0L));
+	}
+
+	@Test
+	public void emptyBuffer() {
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElementException() {
+		bufferStrategy.next();
+	}
+
+	@Test(expectedExceptions = { IllegalArgumentException.class })
+	public void addNullMeasurement() {
+		bufferStrategy.addMeasurements(null);
+	}
+
+	@Test(expectedExceptions = { UnsupportedOperationException.class })
+	public void remove() {
+		bufferStrategy.remove();
+	}
+
+	@Test
+	public void init() {
+		Map<String, String> settings = new HashMap<String, String>();
+		settings.put("maxSize", "2");
+		settings.put("slots", "5");
+		bufferStrategy.init(settings);
+
+		assertThat(bufferStrategy.getMaxSize(), is(2L * 1024 * 1024));
+		for (int i = 0; i < 8; i++) {
+			bufferStrategy.addMeasurements(Collections.<DefaultData> emptyList());
+		}
+		assertThat(bufferStrategy.getBufferedLists(), is(8));
+		assertThat(bufferStrategy.getDroppedLists(), is(0L));
+	}
+
+	@Test
+	public void dropOldestWhenSizeExceeded() {
+		bufferStrategy = new RingBufferStrategy(3 * ELEMENT_SIZE, 16);
+		initTestClassFields();
+
+		List<DefaultData> listOne = list(new TimerData(), new SqlStatementData());
+		List<DefaultData> listTwo = list(new TimerData());
+		List<DefaultData> listThree = list(new TimerData());
+		bufferStrategy.addMeasurements(listOne);
+		bufferStrategy.addMeasurements(listTwo);
+		bufferStrategy.addMeasurements(listThree);
+
+		assertThat(bufferStrategy.getSize(), is(lessThanOrEqualTo(3 * ELEMENT_SIZE)));
+		assertThat(bufferStrategy.getDroppedLists(), is(1L));
+		assertThat(bufferStrategy.getDroppedElements(), hasEntry("TimerData", 1L));
+		assertThat(bufferStrategy.getDroppedElements(), hasEntry("SqlStatementData", 1L));
+		assertThat(bufferStrategy.next(), is(sameInstance(listTwo)));
+		assertThat(bufferStrategy.next(), is(sameInstance(listThree)));
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test
+	public void newestAlwaysAccepted() {
+		bufferStrategy = new RingBufferStrategy(ELEMENT_SIZE, 16);
+		initTestClassFields();
+
+		List<DefaultData> listOne = list(new TimerData());
+		List<DefaultData> listTwo = list(new TimerData(), new TimerData());
+		bufferStrategy.addMeasurements(listOne);
+		bufferStrategy.addMeasurements(listTwo);
+
+		assertThat(bufferStrategy.getDroppedLists(), is(1L));
+		assertThat(bufferStrategy.next(), is(sameInstance(listTwo)));
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test
+	public void dropOldestWhenSlotsFull() {
+		bufferStrategy = new RingBufferStrategy(Long.MAX_VALUE, 2);
+		initTestClassFields();
+
+		List<DefaultData> listOne = list(new TimerData());
+		List<DefaultData> listTwo = list(new TimerData());
+		List<DefaultData> listThree = list(new TimerData());
+		bufferStrategy.addMeasurements(listOne);
+		bufferStrategy.addMeasurements(listTwo);
+		bufferStrategy.addMeasurements(listThree);
+
+		assertThat(bufferStrategy.getDroppedLists(), is(1L));
+		assertThat(bufferStrategy.getDroppedElements(), hasEntry("TimerData", 1L));
+		assertThat(bufferStrategy.next(), is(sameInstance(listTwo)));
+		assertThat(bufferStrategy.next(), is(sameInstance(listThree)));
+		assertThat(bufferStrategy.hasNext(), is(false));
+	}
+
+	@Test
+	public void concurrentProducers() throws Exception {
+		final int producers = 4;
+		final int listsPerProducer = 1000;
+		bufferStrategy = new RingBufferStrategy(Long.MAX_VALUE, producers * listsPerProducer);
+		initTestClassFields();
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(producers);
+		for (int i = 0; i < producers; i++) {
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int j = 0; j < listsPerProducer; j++) {
+							bufferStrategy.addMeasurements(list(new TimerData()));
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						done.countDown();
+					}
+				}
+			}.start();
+		}
+		start.countDown();
+		assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+
+		int count = 0;
+		while (bufferStrategy.hasNext()) {
+			assertThat(bufferStrategy.next(), hasSize(1));
+			count++;
+		}
+		assertThat(count, is(producers * listsPerProducer));
+		assertThat(bufferStrategy.getDroppedLists(), is(0L));
+		assertThat(bufferStrategy.getSize(), is(0L));
+	}
+
+	private void initTestClassFields() {
+		IObjectSizes objectSizes = mock(IObjectSizes.class);
+		when(objectSizes.getSizeOf(any(Sizeable.class))).thenReturn(ELEMENT_SIZE);
+		when(objectSizes.getSizeOfArray(anyInt())).thenReturn(0L);
+		bufferStrategy.log = LoggerFactory.getLogger(RingBufferStrategy.class);
+		bufferStrategy.objectSizes = objectSizes;
+	}
+
+	private static List<DefaultData> list(DefaultData... data) {
+		List<DefaultData> list = new ArrayList<DefaultData>(data.length);
+		Collections.addAll(list, data);
+		return list;
+	}
+}
@@ -65,6 +65,58 @@ public class ConfigurationStorageTest extends TestBase {
 			assertThat(configurationStorage.getAgentName(), is(agentName));
 		}
 
+		@Test
+		public void asyncInstrumentationSet() throws Exception {
+			Properties properties = System.getProperties();
+			properties.put(ConfigurationStorage.REPOSITORY_PROPERTY, "localhost:8000");
+			properties.put(ConfigurationStorage.ASYNC_INSTRUMENTATION_PROPERTY, "true");
+
+			try {
+				configurationStorage.afterPropertiesSet();
+			} finally {
+				properties.remove(ConfigurationStorage.ASYNC_INSTRUMENTATION_PROPERTY);
+			}
+
+			assertThat(configurationStorage.isAsyncInstrumentation(), is(true));
+		}
+
+		@Test
+		public void asyncInstrumentationNotSet() throws Exception {
+			Properties properties = System.getProperties();
+			properties.put(ConfigurationStorage.REPOSITORY_PROPERTY, "localhost:8000");
+			properties.remove(ConfigurationStorage.ASYNC_INSTRUMENTATION_PROPERTY);
+
+			configurationStorage.afterPropertiesSet();
+
+			assertThat(configurationStorage.isAsyncInstrumentation(), is(false));
+		}
+
+		@Test
+		public void compressedTransportSet() throws Exception {
+			Properties properties = System.getProperties();
+			properties.put(ConfigurationStorage.REPOSITORY_PROPERTY, "localhost:8000");
+			properties.put(ConfigurationStorage.COMPRESSED_TRANSPORT_PROPERTY, "true");
+
+			try {
+				configurationStorage.afterPropertiesSet();
+			} finally {
+				properties.remove(ConfigurationStorage.COMPRESSED_TRANSPORT_PROPERTY);
+			}
+
+			assertThat(configurationStorage.isCompressedTransport(), is(true));
+		}
+
+		@Test
+		public void compressedTransportNotSet() throws Exception {
+			Properties properties = System.getProperties();
+			properties.put(ConfigurationStorage.REPOSITORY_PROPERTY, "localhost:8000");
+			properties.remove(ConfigurationStorage.COMPRESSED_TRANSPORT_PROPERTY);
+
+			configurationStorage.afterPropertiesSet();
+
+			assertThat(configurationStorage.isCompressedTransport(), is(false));
+		}
+
 		@Test(expectedExceptions = BeanInitializationException.class)
 		public void nothingSet() throws Exception {
 			Properties properties = System.getProperties();
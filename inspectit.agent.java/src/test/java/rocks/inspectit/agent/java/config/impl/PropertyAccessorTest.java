@@ -8,6 +8,7 @@ import static org.hamcrest.Matchers.notNullValue;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -466,6 +467,83 @@ public class PropertyAccessorTest extends AbstractLogSupport {
 
 	}
 
+	@Test
+	public void samePathRepeatedAccess() throws PropertyAccessException {
+		PropertyPathStart start = new PropertyPathStart();
+		start.setName("this");
+		start.setContentType(ParameterContentType.FIELD);
+
+		PropertyPath path = new PropertyPath();
+		path.setName("child");
+		start.setPathToContinue(path);
+
+		PropertyPath path2 = new PropertyPath();
+		path2.setName("name");
+		path.setPathToContinue(path2);
+
+		Person person = new Person();
+		person.setChild(new Person("Dirk"));
+		Person otherPerson = new Person();
+		otherPerson.setChild(new Person("Jurgen"));
+
+		assertThat(propertyAccessor.getPropertyContent(start, person, null, resultValueMock, false), is("Dirk"));
+		assertThat(propertyAccessor.getPropertyContent(start, otherPerson, null, resultValueMock, false), is("Jurgen"));
+		assertThat(propertyAccessor.getPropertyContent(start, person, null, resultValueMock, false), is("Dirk"));
+	}
+
+	@Test
+	public void samePathDifferentClasses() throws PropertyAccessException {
+		PropertyPathStart start = new PropertyPathStart();
+		start.setName("this");
+		start.setContentType(ParameterContentType.FIELD);
+
+		PropertyPath path = new PropertyPath();
+		path.setName("child");
+		start.setPathToContinue(path);
+
+		PropertyPath path2 = new PropertyPath();
+		path2.setName("name");
+		path.setPathToContinue(path2);
+
+		Person person = new Person();
+		person.setChild(new Person("Dirk"));
+		Person otherPerson = new Person();
+		otherPerson.setChild(new Employee("Jurgen"));
+
+		assertThat(propertyAccessor.getPropertyContent(start, person, null, resultValueMock, false), is("Dirk"));
+		assertThat(propertyAccessor.getPropertyContent(start, otherPerson, null, resultValueMock, false), is("Jurgen"));
+	}
+
+	@Test
+	public void invokeListSizeMethodDifferentLists() throws PropertyAccessException {
+		PropertyPathStart start = new PropertyPathStart();
+		start.setName("this");
+		start.setContentType(ParameterContentType.PARAM);
+		start.setSignaturePosition(0);
+
+		PropertyPath path = new PropertyPath();
+		path.setName("size()");
+		start.setPathToContinue(path);
+
+		List<String> arrayList = new ArrayList<String>();
+		arrayList.add("one");
+		List<String> linkedList = new LinkedList<String>();
+		linkedList.add("one");
+		linkedList.add("two");
+
+		assertThat(propertyAccessor.getPropertyContent(start, null, new Object[] { arrayList }, resultValueMock, false), is("1"));
+		assertThat(propertyAccessor.getPropertyContent(start, null, new Object[] { linkedList }, resultValueMock, false), is("2"));
+		assertThat(propertyAccessor.getPropertyContent(start, null, new Object[] { arrayList }, resultValueMock, false), is("1"));
+	}
+
+	private static class Employee extends Person {
+
+		public Employee(String name) {
+			super(name);
+		}
+
+	}
+
 	@SuppressWarnings("unused")
 	private static class Person {
 
@@ -2,15 +2,19 @@ package rocks.inspectit.agent.java.connection.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -25,20 +29,29 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.slf4j.Logger;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.esotericsoftware.kryonet.rmi.TimeoutException;
 
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
 import rocks.inspectit.agent.java.connection.RetryStrategy;
 import rocks.inspectit.agent.java.connection.ServerUnavailableException;
 import rocks.inspectit.shared.all.cmr.service.IAgentService;
 import rocks.inspectit.shared.all.cmr.service.IAgentStorageService;
 import rocks.inspectit.shared.all.cmr.service.IKeepAliveService;
+import rocks.inspectit.shared.all.cmr.service.ServiceInterface;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
 import rocks.inspectit.shared.all.communication.message.IAgentMessage;
@@ -48,6 +61,9 @@ import rocks.inspectit.shared.all.instrumentation.config.impl.AgentConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.InstrumentationDefinition;
 import rocks.inspectit.shared.all.instrumentation.config.impl.JmxAttributeDescriptor;
 import rocks.inspectit.shared.all.kryonet.Client;
+import rocks.inspectit.shared.all.kryonet.Connection;
+import rocks.inspectit.shared.all.kryonet.Listener;
+import rocks.inspectit.shared.all.kryonet.rmi.ObjectSpace;
 import rocks.inspectit.shared.all.testbase.TestBase;
 
 @SuppressWarnings({ "PMD", "unchecked" })
@@ -62,6 +78,9 @@ public class KryoNetConnectionTest extends TestBase {
 	@Mock
 	Client client;
 
+	@Mock
+	IConfigurationStorage configurationStorage;
+
 	@Mock
 	IAgentStorageService agentStorageService;
 
@@ -222,9 +241,25 @@ public class KryoNetConnectionTest extends TestBase {
 			when(client.isConnected()).thenReturn(true);
 			List<DefaultData> measurements = new ArrayList<DefaultData>();
 			measurements.add(new TimerData());
+			when(agentStorageService.addDataObjects(measurements)).thenReturn(true);
 
-			connection.sendDataObjects(measurements);
+			boolean accepted = connection.sendDataObjects(measurements);
 
+			assertThat(accepted, is(true));
+			verify(agentStorageService, times(1)).addDataObjects(measurements);
+			verifyNoMoreInteractions(agentStorageService);
+		}
+
+		@Test
+		public void sendDataDropped() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+			when(agentStorageService.addDataObjects(measurements)).thenReturn(false);
+
+			boolean accepted = connection.sendDataObjects(measurements);
+
+			assertThat(accepted, is(false));
 			verify(agentStorageService, times(1)).addDataObjects(measurements);
 			verifyNoMoreInteractions(agentStorageService);
 		}
@@ -284,6 +319,116 @@ public class KryoNetConnectionTest extends TestBase {
 		}
 	}
 
+	/**
+	 * Sends the data through the real remote object proxy. Both ends of the connection are looped
+	 * back in the same thread, so the server side {@link ObjectSpace} answers the invocation before
+	 * the proxy starts waiting for the response.
+	 */
+	public static class SendDataRemoteObject extends KryoNetConnectionTest {
+
+		@Mock
+		Connection serverConnection;
+
+		@Mock
+		IAgentStorageService serverAgentStorageService;
+
+		ObjectSpace objectSpace;
+
+		@BeforeMethod
+		public void loopBack() throws Exception {
+			final List<Listener> clientListeners = new CopyOnWriteArrayList<Listener>();
+			final List<Listener> serverListeners = new CopyOnWriteArrayList<Listener>();
+			doAnswer(new Answer<Void>() {
+				@Override
+				public Void answer(InvocationOnMock invocation) throws Throwable {
+					clientListeners.add((Listener) invocation.getArguments()[0]);
+					return null;
+				}
+			}).when(client).addListener(Matchers.<Listener> any());
+			doAnswer(new Answer<Void>() {
+				@Override
+				public Void answer(InvocationOnMock invocation) throws Throwable {
+					serverListeners.add((Listener) invocation.getArguments()[0]);
+					return null;
+				}
+			}).when(serverConnection).addListener(Matchers.<Listener> any());
+			doAnswer(new Answer<Integer>() {
+				@Override
+				public Integer answer(InvocationOnMock invocation) throws Throwable {
+					for (Listener listener : serverListeners) {
+						listener.received(serverConnection, invocation.getArguments()[0]);
+					}
+					return 0;
+				}
+			}).when(client).sendTCP(Matchers.any());
+			doAnswer(new Answer<Integer>() {
+				@Override
+				public Integer answer(InvocationOnMock invocation) throws Throwable {
+					for (Listener listener : clientListeners) {
+						listener.received(client, invocation.getArguments()[0]);
+					}
+					return 0;
+				}
+			}).when(serverConnection).sendTCP(Matchers.any());
+			when(client.getEndPoint()).thenReturn(client);
+
+			objectSpace = new ObjectSpace(serverConnection);
+			objectSpace.register(IAgentStorageService.class.getAnnotation(ServiceInterface.class).serviceId(), serverAgentStorageService);
+
+			// first check is for connecting, the rest sees the established connection
+			when(client.isConnected()).thenReturn(false, true);
+			connection.connect("host", 22);
+		}
+
+		@AfterMethod
+		public void closeObjectSpace() {
+			objectSpace.close();
+		}
+
+		@Test
+		public void accepted() throws Exception {
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+			when(serverAgentStorageService.addDataObjects(measurements)).thenReturn(true);
+
+			boolean accepted = connection.sendDataObjects(measurements);
+
+			assertThat(accepted, is(true));
+			verify(serverAgentStorageService).addDataObjects(measurements);
+		}
+
+		@Test
+		public void dropped() throws Exception {
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+			when(serverAgentStorageService.addDataObjects(measurements)).thenReturn(false);
+
+			boolean accepted = connection.sendDataObjects(measurements);
+
+			assertThat(accepted, is(false));
+			verify(serverAgentStorageService).addDataObjects(measurements);
+		}
+
+		@Test
+		public void waitsForServer() throws Exception {
+			List<DefaultData> measurements = new ArrayList<DefaultData>();
+			measurements.add(new TimerData());
+			doAnswer(new Answer<Boolean>() {
+				@Override
+				public Boolean answer(InvocationOnMock invocation) throws Throwable {
+					Thread.sleep(50);
+					return Boolean.TRUE;
+				}
+			}).when(serverAgentStorageService).addDataObjects(measurements);
+
+			long start = System.nanoTime();
+			connection.sendDataObjects(measurements);
+			long duration = System.nanoTime() - start;
+
+			assertThat(duration, is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50))));
+		}
+	}
+
 	public static class Register extends KryoNetConnectionTest {
 
 		@Test
@@ -301,6 +446,50 @@ public class KryoNetConnectionTest extends TestBase {
 			verifyNoMoreInteractions(agentService);
 		}
 
+		@Test
+		public void registerCompressedTransport() throws Exception {
+			AgentConfig agentConfiguration = mock(AgentConfig.class);
+			when(agentConfiguration.isCompressedTransportSupported()).thenReturn(true);
+			when(configurationStorage.isCompressedTransport()).thenReturn(true);
+			when(client.isConnected()).thenReturn(true);
+			doReturn(agentConfiguration).when(agentService).register(Matchers.<List<String>> any(), anyString(), anyString());
+
+			connection.register("agentName", "version");
+
+			InOrder inOrder = inOrder(client, agentService);
+			inOrder.verify(client).setCompressedTransport(false);
+			inOrder.verify(agentService).register(Matchers.<List<String>> any(), anyString(), anyString());
+			inOrder.verify(client).setCompressedTransport(true);
+		}
+
+		@Test
+		public void registerCompressedTransportNotSupported() throws Exception {
+			AgentConfig agentConfiguration = mock(AgentConfig.class);
+			when(agentConfiguration.isCompressedTransportSupported()).thenReturn(false);
+			when(configurationStorage.isCompressedTransport()).thenReturn(true);
+			when(client.isConnected()).thenReturn(true);
+			doReturn(agentConfiguration).when(agentService).register(Matchers.<List<String>> any(), anyString(), anyString());
+
+			connection.register("agentName", "version");
+
+			verify(client).setCompressedTransport(false);
+			verify(client, never()).setCompressedTransport(true);
+		}
+
+		@Test
+		public void registerCompressedTransportNotActive() throws Exception {
+			AgentConfig agentConfiguration = mock(AgentConfig.class);
+			when(agentConfiguration.isCompressedTransportSupported()).thenReturn(true);
+			when(configurationStorage.isCompressedTransport()).thenReturn(false);
+			when(client.isConnected()).thenReturn(true);
+			doReturn(agentConfiguration).when(agentService).register(Matchers.<List<String>> any(), anyString(), anyString());
+
+			connection.register("agentName", "version");
+
+			verify(client).setCompressedTransport(false);
+			verify(client, never()).setCompressedTransport(true);
+		}
+
 		@Test(expectedExceptions = { ServerUnavailableException.class })
 		public void timeout() throws Exception {
 			when(client.isConnected()).thenReturn(true);
@@ -542,6 +731,73 @@ public class KryoNetConnectionTest extends TestBase {
 		}
 	}
 
+	public static class AnalyzeTypes extends KryoNetConnectionTest {
+
+		@Test
+		public void analyzeAndInstrument() throws Exception {
+			Map<String, InstrumentationDefinition> result = mock(Map.class);
+			when(client.isConnected()).thenReturn(true);
+			doReturn(result).when(agentService).analyzeTypes(anyLong(), Matchers.<Map<String, Type>> any());
+			long id = 7;
+			Map<String, Type> hashAndTypes = Collections.singletonMap("hash", mock(Type.class));
+
+			Map<String, InstrumentationDefinition> receivedResult = connection.analyzeTypes(id, hashAndTypes);
+			assertThat(receivedResult, is(result));
+
+			verify(agentService, times(1)).analyzeTypes(id, hashAndTypes);
+			verifyNoMoreInteractions(agentService);
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void timeout() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			doThrow(TimeoutException.class).when(agentService).analyzeTypes(anyLong(), Matchers.<Map<String, Type>> any());
+			long id = 7;
+			Map<String, Type> hashAndTypes = Collections.singletonMap("hash", mock(Type.class));
+
+			try {
+				connection.analyzeTypes(id, hashAndTypes);
+			} catch (ServerUnavailableException e) {
+				assertThat(e.isServerTimeout(), is(true));
+				throw e;
+			} finally {
+				verify(agentService, times(1)).analyzeTypes(id, hashAndTypes);
+				verifyNoMoreInteractions(agentService);
+			}
+		}
+
+		@Test(expectedExceptions = { BusinessException.class })
+		public void businessException() throws Exception {
+			when(client.isConnected()).thenReturn(true);
+			doThrow(BusinessException.class).when(agentService).analyzeTypes(anyLong(), Matchers.<Map<String, Type>> any());
+			long id = 7;
+			Map<String, Type> hashAndTypes = Collections.singletonMap("hash", mock(Type.class));
+
+			try {
+				connection.analyzeTypes(id, hashAndTypes);
+			} finally {
+				verify(agentService, times(1)).analyzeTypes(id, hashAndTypes);
+				verifyNoMoreInteractions(agentService);
+			}
+		}
+
+		@Test(expectedExceptions = { ServerUnavailableException.class })
+		public void notConnected() throws Exception {
+			when(client.isConnected()).thenReturn(false);
+			long id = 7;
+			Map<String, Type> hashAndTypes = Collections.singletonMap("hash", mock(Type.class));
+
+			try {
+				connection.analyzeTypes(id, hashAndTypes);
+			} catch (ServerUnavailableException e) {
+				assertThat(e.isServerTimeout(), is(false));
+				throw e;
+			} finally {
+				verifyZeroInteractions(agentService);
+			}
+		}
+	}
+
 	public static class AnalyzeJmxAttributes extends KryoNetConnectionTest {
 
 		@Test
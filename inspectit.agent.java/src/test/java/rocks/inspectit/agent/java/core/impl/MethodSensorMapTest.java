@@ -0,0 +1,121 @@
+package rocks.inspectit.agent.java.core.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link MethodSensorMap} class.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class MethodSensorMapTest extends TestBase {
+
+	MethodSensorMap<String> map;
+
+	@BeforeMethod
+	public void init() {
+		map = new MethodSensorMap<String>();
+	}
+
+	/**
+	 * Tests the {@link MethodSensorMap#put(long, long, String, Object)} and
+	 * {@link MethodSensorMap#get(long, long, String)} methods.
+	 */
+	public static class PutAndGet extends MethodSensorMapTest {
+
+		@Test
+		public void noPrefix() {
+			String previous = map.put(1L, 2L, null, "value");
+
+			assertThat(previous, is(nullValue()));
+			assertThat(map.get(1L, 2L, null), is("value"));
+			assertThat(map.get(1L, 2L, "prefix"), is(nullValue()));
+			assertThat(map.get(2L, 1L, null), is(nullValue()));
+			assertThat(map.size(), is(1));
+		}
+
+		@Test
+		public void prefix() {
+			String previous = map.put(1L, 2L, "prefix", "value");
+
+			assertThat(previous, is(nullValue()));
+			assertThat(map.get(1L, 2L, "prefix"), is("value"));
+			assertThat(map.get(1L, 2L, null), is(nullValue()));
+			assertThat(map.get(1L, 2L, "other"), is(nullValue()));
+			assertThat(map.size(), is(1));
+		}
+
+		@Test
+		public void replace() {
+			map.put(1L, 2L, null, "value");
+			map.put(1L, 2L, "prefix", "value");
+			String previous = map.put(1L, 2L, null, "newValue");
+			String previousPrefixed = map.put(1L, 2L, "prefix", "newValue");
+
+			assertThat(previous, is("value"));
+			assertThat(previousPrefixed, is("value"));
+			assertThat(map.get(1L, 2L, null), is("newValue"));
+			assertThat(map.get(1L, 2L, "prefix"), is("newValue"));
+			assertThat(map.size(), is(2));
+		}
+
+		@Test
+		public void sameIdsDifferentParts() {
+			map.put(1L, 2L, null, "one");
+			map.put(2L, 1L, null, "two");
+			map.put(12L, 0L, null, "three");
+
+			assertThat(map.get(1L, 2L, null), is("one"));
+			assertThat(map.get(2L, 1L, null), is("two"));
+			assertThat(map.get(12L, 0L, null), is("three"));
+		}
+	}
+
+	/**
+	 * Tests the {@link MethodSensorMap#addValuesTo(java.util.Collection)} and
+	 * {@link MethodSensorMap#clear()} methods.
+	 */
+	public static class AddValuesToAndClear extends MethodSensorMapTest {
+
+		@Test
+		public void values() {
+			map.put(1L, 2L, null, "one");
+			map.put(1L, 2L, "prefix", "two");
+			map.put(1L, 3L, null, "three");
+			map.put(4L, 2L, "prefix", "four");
+
+			List<String> values = new ArrayList<String>();
+			map.addValuesTo(values);
+
+			assertThat(values, containsInAnyOrder("one", "two", "three", "four"));
+		}
+
+		@Test
+		public void clear() {
+			map.put(1L, 2L, null, "one");
+			map.put(1L, 2L, "prefix", "two");
+
+			map.clear();
+
+			List<String> values = new ArrayList<String>();
+			map.addValuesTo(values);
+			assertThat(values, is(empty()));
+			assertThat(map.isEmpty(), is(true));
+			assertThat(map.get(1L, 2L, null), is(nullValue()));
+		}
+	}
+
+}
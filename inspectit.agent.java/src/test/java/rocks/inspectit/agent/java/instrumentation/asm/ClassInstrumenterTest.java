@@ -66,6 +66,16 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 		}
 	};
 
+	protected static final Answer<MethodVisitor> METHOD_INSTRUMENTER_NO_PARAMETERS_ANSWER = new Answer<MethodVisitor>() {
+
+		@Override
+		public MethodVisitor answer(InvocationOnMock invocation) throws Throwable {
+			Object[] arguments = invocation.getArguments();
+			SensorInstrumentationPoint sip = (SensorInstrumentationPoint) arguments[0];
+			return getMethodInstrumenter((MethodVisitor) arguments[1], (Integer) arguments[2], (String) arguments[3], (String) arguments[4], sip.getId(), (Boolean) arguments[5], false);
+		}
+	};
+
 	protected static final Answer<MethodVisitor> CONSTRUCTOR_INSTRUMENTER_ANSWER = new Answer<MethodVisitor>() {
 
 		@Override
@@ -541,6 +551,33 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
+		@Test
+		public void voidTwoParametersNotRequired() throws Exception {
+			String methodName = "voidTwoParameters";
+			Object[] parameters = { "java.lang.String", "java.lang.Object" };
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName, String.class, Object.class);
+			doAnswer(METHOD_INSTRUMENTER_NO_PARAMETERS_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			this.callMethod(testClass, methodName, parameters);
+
+			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, null);
+			verify(hookDispatcher).dispatchFirstMethodAfterBody(methodId, testClass, null, null, false);
+			verify(hookDispatcher).dispatchSecondMethodAfterBody(methodId, testClass, null, null, false);
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
 		@Test
 		public void mixedTwoParameters() throws Exception {
 			String methodName = "mixedTwoParameters";
@@ -681,6 +718,36 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 			verifyNoMoreInteractions(hookDispatcher);
 		}
 
+		@Test
+		public void unexpectedExceptionNotTrowingParametersNotRequired() throws Exception {
+			String methodName = "unexpectedExceptionNotThrowing";
+			Object[] parameters = { "java.lang.Object" };
+			long methodId = 9L;
+
+			when(sip.getId()).thenReturn(methodId);
+			prepareConfigurationMockMethod(config, InstrumentationTestClass.class, methodName, Object.class);
+			doAnswer(METHOD_INSTRUMENTER_NO_PARAMETERS_ANSWER).when(instrumenterFactory).getMethodVisitor(eq(sip), Matchers.<MethodVisitor> any(), anyInt(), anyString(), anyString(), anyBoolean());
+			when(config.getAllInstrumentationPoints()).thenReturn(Collections.<IMethodInstrumentationPoint> singleton(sip));
+
+			ClassReader cr = new ClassReader(TEST_CLASS_FQN);
+			prepareWriter(cr, null, false, config);
+			cr.accept(classInstrumenter, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+			assertThat(classInstrumenter.isByteCodeAdded(), is(true));
+			byte b[] = classWriter.toByteArray();
+
+			// now call this method
+			Object testClass = this.createInstance(TEST_CLASS_FQN, b);
+			try {
+				this.callMethod(testClass, methodName, parameters);
+			} catch (Throwable t) {
+			}
+
+			verify(hookDispatcher).dispatchMethodBeforeBody(methodId, testClass, null);
+			verify(hookDispatcher).dispatchFirstMethodAfterBody(eq(methodId), eq(testClass), (Object[]) eq(null), isA(Throwable.class), eq(true));
+			verify(hookDispatcher).dispatchSecondMethodAfterBody(eq(methodId), eq(testClass), (Object[]) eq(null), isA(Throwable.class), eq(true));
+			verifyNoMoreInteractions(hookDispatcher);
+		}
+
 		@Test
 		public void exceptionHandledResultReturned() throws Exception {
 			String methodName = "exceptionHandledResultReturned";
@@ -1173,6 +1240,15 @@ public class ClassInstrumenterTest extends AbstractInstrumentationTest {
 		};
 	}
 
+	protected static MethodInstrumenter getMethodInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor, boolean parametersRequired) {
+		return new MethodInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor, parametersRequired) {
+			@Override
+			protected void loadHookDispatcher() {
+				mv.visitFieldInsn(Opcodes.GETSTATIC, Type.getInternalName(ClassInstrumenterTest.class), "dispatcher", Type.getDescriptor(IHookDispatcher.class));
+			}
+		};
+	}
+
 	protected static ConstructorInstrumenter getConstructorInstrumenter(MethodVisitor superMethodVisitor, int access, String name, String desc, long id, boolean enhancedExceptionSensor) {
 		return new ConstructorInstrumenter(superMethodVisitor, access, name, desc, id, enhancedExceptionSensor) {
 			@Override
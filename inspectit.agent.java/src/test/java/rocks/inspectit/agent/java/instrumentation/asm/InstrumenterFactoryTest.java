@@ -8,12 +8,17 @@ import static org.mockito.Mockito.when;
 
 import info.novatec.inspectit.org.objectweb.asm.MethodVisitor;
 
+import java.util.Iterator;
+import java.util.List;
+
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.agent.java.instrumentation.InstrumenterFactory;
+import rocks.inspectit.agent.java.sensor.method.IMethodSensor;
 import rocks.inspectit.shared.all.instrumentation.config.IMethodInstrumentationPoint;
+import rocks.inspectit.shared.all.instrumentation.config.impl.MethodSensorTypeConfig;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SensorInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SpecialInstrumentationPoint;
 import rocks.inspectit.shared.all.instrumentation.config.impl.SubstitutionDescriptor;
@@ -38,6 +43,18 @@ public class InstrumenterFactoryTest extends TestBase {
 	@Mock
 	MethodVisitor superMethodVisitor;
 
+	@Mock
+	List<IMethodSensor> methodSensors;
+
+	@Mock
+	Iterator<IMethodSensor> iterator;
+
+	@Mock
+	IMethodSensor methodSensor;
+
+	@Mock
+	MethodSensorTypeConfig methodSensorTypeConfig;
+
 	public static class GetMethodVisitor extends InstrumenterFactoryTest {
 
 		@Test
@@ -74,6 +91,67 @@ public class InstrumenterFactoryTest extends TestBase {
 			assertThat(methodInstrumenter.isEnhancedExceptionSensor(), is(enhancedExceptionSensor));
 		}
 
+		@Test
+		public void methodParametersNotRequired() {
+			long id = 7L;
+			long sensorId = 13L;
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(new long[] { sensorId });
+			prepareMethodSensor(sensorId, false);
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			assertThat(((MethodInstrumenter) methodVisitor).isParametersRequired(), is(false));
+		}
+
+		@Test
+		public void methodParametersRequiredBySensor() {
+			long id = 7L;
+			long sensorId = 13L;
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(new long[] { sensorId });
+			prepareMethodSensor(sensorId, true);
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			assertThat(((MethodInstrumenter) methodVisitor).isParametersRequired(), is(true));
+		}
+
+		@Test
+		public void methodParametersRequiredByPropertyAccess() {
+			long id = 7L;
+			long sensorId = 13L;
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(new long[] { sensorId });
+			when(sensorInstrumentationPoint.isPropertyAccess()).thenReturn(true);
+			prepareMethodSensor(sensorId, false);
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			assertThat(((MethodInstrumenter) methodVisitor).isParametersRequired(), is(true));
+		}
+
+		@Test
+		public void methodParametersRequiredUnknownSensor() {
+			long id = 7L;
+			long sensorId = 13L;
+			when(sensorInstrumentationPoint.isConstructor()).thenReturn(false);
+			when(sensorInstrumentationPoint.getId()).thenReturn(id);
+			when(sensorInstrumentationPoint.getSensorIds()).thenReturn(new long[] { sensorId, 17L });
+			prepareMethodSensor(sensorId, false);
+
+			MethodVisitor methodVisitor = factory.getMethodVisitor(sensorInstrumentationPoint, superMethodVisitor, 0, "method", "()V", false);
+
+			assertThat(methodVisitor, is(instanceOf(MethodInstrumenter.class)));
+			assertThat(((MethodInstrumenter) methodVisitor).isParametersRequired(), is(true));
+		}
+
 		@Test
 		public void constructor() {
 			long id = 7L;
@@ -144,4 +222,13 @@ public class InstrumenterFactoryTest extends TestBase {
 
 	}
 
+	void prepareMethodSensor(long sensorId, boolean parametersRequired) {
+		when(methodSensors.iterator()).thenReturn(iterator);
+		when(iterator.hasNext()).thenReturn(true, false);
+		when(iterator.next()).thenReturn(methodSensor);
+		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+		when(methodSensorTypeConfig.getId()).thenReturn(sensorId);
+		when(methodSensor.isParametersRequired()).thenReturn(parametersRequired);
+	}
+
 }
@@ -0,0 +1,202 @@
+package rocks.inspectit.agent.java.sending.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.IThreadTransformHelper;
+import rocks.inspectit.agent.java.buffer.IBufferOccupancy;
+import rocks.inspectit.agent.java.buffer.IBufferStrategy;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class AdaptiveStrategyTest extends TestBase {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+	@Mock
+	private ICoreService coreService;
+
+	@Mock
+	private IThreadTransformHelper threadTransformHelper;
+
+	@Mock
+	private IBufferStrategy<DefaultData> bufferStrategy;
+
+	@InjectMocks
+	private AdaptiveStrategy sendingStrategy;
+
+	@BeforeMethod
+	public void init() {
+		Map<String, String> settings = new HashMap<String, String>();
+		settings.put("maxTime", "4000");
+		settings.put("minTime", "500");
+		settings.put("minBatchSize", "10");
+		settings.put("maxBatchSize", "40");
+		settings.put("highWatermark", "75");
+		sendingStrategy.init(settings);
+	}
+
+	@Test
+	public void startStop() {
+		sendingStrategy.start(coreService);
+		verify(coreService).addListListener(sendingStrategy);
+		verify(coreService).addSendingListener(sendingStrategy);
+
+		sendingStrategy.stop();
+		verify(coreService).removeListListener(sendingStrategy);
+		verify(coreService).removeSendingListener(sendingStrategy);
+	}
+
+	@Test
+	public void initialValues() {
+		assertThat(sendingStrategy.getBatchSize(), is(10));
+		assertThat(sendingStrategy.getTime(), is(4000L));
+		assertThat(sendingStrategy.getBackoffCount(), is(0L));
+	}
+
+	@Test
+	public void sendWhenBatchSizeExceeded() {
+		sendingStrategy.start(coreService);
+
+		sendingStrategy.contentChanged(10);
+		verify(coreService, never()).sendData();
+
+		sendingStrategy.contentChanged(11);
+		verify(coreService).sendData();
+		sendingStrategy.stop();
+	}
+
+	@Test
+	public void growOnFastResponse() {
+		sendingStrategy.dataSent(10, FAST, true);
+		sendingStrategy.dataSent(10, FAST, true);
+
+		assertThat(sendingStrategy.getBatchSize(), is(30));
+		assertThat(sendingStrategy.getTime(), is(lessThan(4000L)));
+
+		for (int i = 0; i < 100; i++) {
+			sendingStrategy.dataSent(10, FAST, true);
+		}
+
+		assertThat(sendingStrategy.getBatchSize(), is(40));
+		assertThat(sendingStrategy.getTime(), is(500L));
+	}
+
+	@Test
+	public void slowResponse() {
+		for (int i = 0; i < 10; i++) {
+			sendingStrategy.dataSent(10, FAST, true);
+		}
+		long time = sendingStrategy.getTime();
+		int batchSize = sendingStrategy.getBatchSize();
+
+		sendingStrategy.dataSent(10, SLOW, true);
+
+		assertThat(sendingStrategy.getTime(), is(time + 500L));
+		assertThat(sendingStrategy.getBatchSize(), is(batchSize));
+		assertThat(sendingStrategy.getBackoffCount(), is(0L));
+	}
+
+	@Test
+	public void backOffOnDroppedData() {
+		for (int i = 0; i < 10; i++) {
+			sendingStrategy.dataSent(10, FAST, true);
+		}
+		long time = sendingStrategy.getTime();
+
+		sendingStrategy.dataSent(10, FAST, false);
+
+		assertThat(sendingStrategy.getBatchSize(), is(20));
+		assertThat(sendingStrategy.getTime(), is(Math.min(4000L, time * 2)));
+		assertThat(sendingStrategy.getBackoffCount(), is(1L));
+	}
+
+	@Test
+	public void backOffOnTimeout() {
+		sendingStrategy.sendingTimedOut();
+		sendingStrategy.sendingTimedOut();
+
+		assertThat(sendingStrategy.getBatchSize(), is(10));
+		assertThat(sendingStrategy.getTime(), is(4000L));
+		assertThat(sendingStrategy.getBackoffCount(), is(2L));
+	}
+
+	@Test
+	public void flushOnHighWatermark() {
+		@SuppressWarnings("unchecked")
+		IBufferStrategy<DefaultData> occupancyBuffer = mock(IBufferStrategy.class, withSettings().extraInterfaces(IBufferOccupancy.class));
+		sendingStrategy.bufferStrategy = occupancyBuffer;
+		IBufferOccupancy occupancy = (IBufferOccupancy) occupancyBuffer;
+		when(occupancy.getMaxSize()).thenReturn(100L);
+		sendingStrategy.start(coreService);
+
+		when(occupancy.getSize()).thenReturn(50L);
+		sendingStrategy.contentChanged(1);
+		verify(coreService, never()).sendData();
+
+		when(occupancy.getSize()).thenReturn(80L);
+		sendingStrategy.contentChanged(1);
+		sendingStrategy.contentChanged(1);
+		verify(coreService, times(1)).sendData();
+
+		when(occupancy.getSize()).thenReturn(10L);
+		sendingStrategy.contentChanged(1);
+		when(occupancy.getSize()).thenReturn(90L);
+		sendingStrategy.contentChanged(1);
+		verify(coreService, times(2)).sendData();
+		sendingStrategy.stop();
+	}
+
+	@Test
+	public void randomizedTime() {
+		for (int i = 0; i < 100; i++) {
+			long time = sendingStrategy.getRandomizedTime();
+			assertThat(time, is(greaterThanOrEqualTo(3000L)));
+			assertThat(time, is(lessThanOrEqualTo(5000L)));
+		}
+	}
+
+	/**
+	 * This test could fail, thus it invocation count is increased to 5, which means that this test
+	 * will be executed 5 times and only 60% of the tests need to be completed successfully.
+	 */
+	@Test(invocationCount = 5, successPercentage = 60)
+	public void sendAfterTime() throws InterruptedException {
+		Map<String, String> settings = new HashMap<String, String>();
+		settings.put("maxTime", "500");
+		sendingStrategy.init(settings);
+		sendingStrategy.start(coreService);
+
+		synchronized (this) {
+			wait(1000L);
+		}
+
+		verify(threadTransformHelper).setThreadTransformDisabled(true);
+		verify(coreService, atLeastOnce()).sendData();
+		sendingStrategy.stop();
+	}
+
+}
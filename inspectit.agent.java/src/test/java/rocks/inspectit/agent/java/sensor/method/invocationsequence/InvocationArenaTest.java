@@ -0,0 +1,321 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.FoldedInvocationData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+
+/**
+ * Tests the {@link InvocationArena}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class InvocationArenaTest {
+
+	protected InvocationArena arena;
+
+	@BeforeMethod
+	public void init() {
+		arena = new InvocationArena();
+	}
+
+	public static class Materialize extends InvocationArenaTest {
+
+		@Test
+		public void nestedStructure() {
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			arena.push(1001L, 2L, 5d);
+			arena.push(1002L, 3L, 6d);
+			arena.close(7d);
+			arena.close(9d);
+			arena.push(1003L, 4L, 10d);
+			arena.close(12d);
+
+			InvocationSequenceData root = arena.materialize();
+
+			assertThat(root.getMethodIdent(), is(1L));
+			assertThat(root.getPlatformIdent(), is(10L));
+			assertThat(root.getSensorTypeIdent(), is(20L));
+			assertThat(root.getTimeStamp().getTime(), is(1000L));
+			assertThat(root.getChildCount(), is(3L));
+			assertThat(root.getNestedSequences(), hasSize(2));
+			InvocationSequenceData first = root.getNestedSequences().get(0);
+			assertThat(first.getMethodIdent(), is(2L));
+			assertThat(first.getSensorTypeIdent(), is(20L));
+			assertThat(first.getStart(), is(5d));
+			assertThat(first.getEnd(), is(9d));
+			assertThat(first.getDuration(), is(4d));
+			assertThat(first.getChildCount(), is(1L));
+			assertThat(first.getParentSequence(), is(sameInstance(root)));
+			InvocationSequenceData firstChild = first.getNestedSequences().get(0);
+			assertThat(firstChild.getMethodIdent(), is(3L));
+			assertThat(firstChild.getParentSequence(), is(sameInstance(first)));
+			assertThat(firstChild.getChildCount(), is(0L));
+			InvocationSequenceData second = root.getNestedSequences().get(1);
+			assertThat(second.getMethodIdent(), is(4L));
+			assertThat(second.getDuration(), is(2d));
+		}
+
+		@Test
+		public void removedNodeChildrenConnectedToParent() {
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			arena.push(1001L, 2L, 1d);
+			arena.close(2d);
+			arena.push(1002L, 3L, 3d);
+			arena.push(1003L, 4L, 4d);
+			arena.close(5d);
+			arena.push(1004L, 5L, 6d);
+			arena.close(7d);
+			arena.remove();
+			arena.push(1005L, 6L, 8d);
+			arena.close(9d);
+
+			InvocationSequenceData root = arena.materialize();
+
+			assertThat(root.getChildCount(), is(4L));
+			List<InvocationSequenceData> nested = root.getNestedSequences();
+			assertThat(nested, hasSize(4));
+			assertThat(nested.get(0).getMethodIdent(), is(2L));
+			assertThat(nested.get(1).getMethodIdent(), is(4L));
+			assertThat(nested.get(2).getMethodIdent(), is(5L));
+			assertThat(nested.get(3).getMethodIdent(), is(6L));
+			for (InvocationSequenceData child : nested) {
+				assertThat(child.getParentSequence(), is(sameInstance(root)));
+			}
+		}
+
+		@Test
+		public void payload() {
+			TimerData timerData = new TimerData();
+			SqlStatementData sqlStatementData = new SqlStatementData();
+			ExceptionSensorData exceptionSensorData = new ExceptionSensorData();
+
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			arena.setTimerData(timerData);
+			arena.push(1001L, 2L, 1d);
+			arena.setSqlStatementData(sqlStatementData);
+			arena.addExceptionSensorData(exceptionSensorData);
+			assertThat(arena.hasExceptionSensorData(), is(true));
+			arena.close(2d);
+			assertThat(arena.hasExceptionSensorData(), is(false));
+
+			InvocationSequenceData root = arena.materialize();
+
+			assertThat(root.getTimerData(), is(sameInstance(timerData)));
+			assertThat(root.getSqlStatementData(), is(nullValue()));
+			InvocationSequenceData child = root.getNestedSequences().get(0);
+			assertThat(child.getSqlStatementData(), is(sameInstance(sqlStatementData)));
+			assertThat(child.getExceptionSensorDataObjects(), contains(exceptionSensorData));
+		}
+	}
+
+	public static class Fold extends InvocationArenaTest {
+
+		@Test
+		public void loopFolded() {
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			for (int i = 0; i < 1000; i++) {
+				arena.push(1000L + i, 2L, i);
+				SqlStatementData sqlStatementData = new SqlStatementData();
+				sqlStatementData.setSql("SELECT 1");
+				sqlStatementData.setCount(1L);
+				sqlStatementData.setDuration(0.5d);
+				sqlStatementData.calculateMin(0.5d);
+				sqlStatementData.calculateMax(0.5d);
+				arena.setSqlStatementData(sqlStatementData);
+				arena.close(i + ((i % 2) + 1));
+			}
+
+			assertThat(arena.getSize(), is(2));
+
+			InvocationSequenceData root = arena.materialize();
+
+			assertThat(root.getChildCount(), is(1L));
+			assertThat(root.getNestedSequences(), hasSize(1));
+			InvocationSequenceData folded = root.getNestedSequences().get(0);
+			assertThat(folded.getStart(), is(0d));
+			assertThat(folded.getEnd(), is(1001d));
+			assertThat(folded.getDuration(), is(1500d));
+			FoldedInvocationData foldedInvocationData = folded.getFoldedInvocationData();
+			assertThat(foldedInvocationData.getCount(), is(1000L));
+			assertThat(foldedInvocationData.getMinDuration(), is(1d));
+			assertThat(foldedInvocationData.getMaxDuration(), is(2d));
+			assertThat(foldedInvocationData.getSumDuration(), is(1500d));
+			assertThat(folded.getSqlStatementData().getCount(), is(1000L));
+			assertThat(folded.getSqlStatementData().getDuration(), is(500d));
+		}
+
+		@Test
+		public void subtreesFolded() {
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			for (int i = 0; i < 3; i++) {
+				arena.push(1000L, 2L, 0d);
+				// inner loop has different amount of iterations
+				for (int j = 0; j <= i; j++) {
+					arena.push(1000L, 3L, 0d);
+					arena.close(1d);
+				}
+				arena.push(1000L, 4L, 0d);
+				arena.close(1d);
+				arena.close(5d);
+			}
+
+			assertThat(arena.getSize(), is(4));
+
+			InvocationSequenceData root = arena.materialize();
+
+			assertThat(root.getChildCount(), is(3L));
+			InvocationSequenceData outer = root.getNestedSequences().get(0);
+			assertThat(outer.getFoldedInvocationData().getCount(), is(3L));
+			assertThat(outer.getNestedSequences(), hasSize(2));
+			assertThat(outer.getNestedSequences().get(0).getMethodIdent(), is(3L));
+			assertThat(outer.getNestedSequences().get(0).getFoldedInvocationData().getCount(), is(6L));
+			assertThat(outer.getNestedSequences().get(1).getMethodIdent(), is(4L));
+			assertThat(outer.getNestedSequences().get(1).getFoldedInvocationData().getCount(), is(3L));
+		}
+
+		@Test
+		public void differentSqlNotFolded() {
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			for (int i = 0; i < 2; i++) {
+				arena.push(1000L, 2L, 0d);
+				SqlStatementData sqlStatementData = new SqlStatementData();
+				sqlStatementData.setSql("SELECT " + i);
+				sqlStatementData.setCount(1L);
+				arena.setSqlStatementData(sqlStatementData);
+				arena.close(1d);
+			}
+
+			InvocationSequenceData root = arena.materialize();
+
+			assertThat(root.getNestedSequences(), hasSize(2));
+			assertThat(root.getNestedSequences().get(0).getFoldedInvocationData(), is(nullValue()));
+		}
+
+		@Test
+		public void exceptionNotFolded() {
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			arena.push(1000L, 2L, 0d);
+			arena.close(1d);
+			arena.push(1000L, 2L, 0d);
+			arena.addExceptionSensorData(new ExceptionSensorData());
+			arena.close(1d);
+
+			assertThat(arena.getSize(), is(3));
+		}
+
+		@Test
+		public void notFoldedOverRemoved() {
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			arena.push(1000L, 2L, 0d);
+			arena.close(1d);
+			arena.push(1000L, 3L, 0d);
+			arena.remove();
+			arena.push(1000L, 2L, 0d);
+			arena.close(1d);
+
+			InvocationSequenceData root = arena.materialize();
+
+			assertThat(root.getNestedSequences(), hasSize(2));
+			assertThat(root.getChildCount(), is(2L));
+		}
+
+		@Test
+		public void removedPayloadNotReused() {
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			for (int i = 0; i < 2; i++) {
+				arena.push(1000L, 2L, 0d);
+				arena.push(1000L, 3L, 0d);
+				arena.addExceptionSensorData(new ExceptionSensorData());
+				arena.remove();
+				arena.close(1d);
+			}
+
+			assertThat(arena.getSize(), is(3));
+
+			// nodes added at the indexes of the folded subtree
+			arena.push(1000L, 4L, 0d);
+			arena.push(1000L, 5L, 0d);
+
+			assertThat(arena.hasExceptionSensorData(), is(false));
+			arena.close(1d);
+			arena.close(1d);
+
+			InvocationSequenceData root = arena.materialize();
+
+			assertThat(root.getNestedSequences(), hasSize(2));
+			InvocationSequenceData nested = root.getNestedSequences().get(1).getNestedSequences().get(0);
+			assertThat(nested.getMethodIdent(), is(5L));
+			assertThat(nested.getExceptionSensorDataObjects(), is(nullValue()));
+		}
+	}
+
+	public static class Budget extends InvocationArenaTest {
+
+		@Test
+		public void nodesDropped() {
+			arena.start(1000L, 10L, 20L, 1L, 2);
+			assertThat(arena.isFull(), is(false));
+			arena.push(1000L, 2L, 0d);
+			assertThat(arena.isFull(), is(true));
+			arena.drop();
+			assertThat(arena.isDropping(), is(true));
+			arena.drop();
+			arena.endDrop();
+			arena.endDrop();
+			assertThat(arena.isDropping(), is(false));
+			arena.close(1d);
+			arena.drop();
+			arena.endDrop();
+
+			InvocationSequenceData root = arena.materialize();
+
+			assertThat(root.getDroppedChildCount(), is(1L));
+			assertThat(root.getNestedSequences().get(0).getDroppedChildCount(), is(2L));
+		}
+	}
+
+	public static class Reset extends InvocationArenaTest {
+
+		@Test
+		public void reusedAfterReset() {
+			arena.start(1000L, 10L, 20L, 1L, 0);
+			arena.setTimerData(new TimerData());
+			for (int i = 0; i < 5000; i++) {
+				arena.push(1000L, i, 1d);
+				arena.close(2d);
+			}
+
+			assertThat(arena.getSize(), is(5001));
+
+			arena.reset();
+
+			assertThat(arena.isRecording(), is(false));
+			assertThat(arena.getSize(), is(0));
+
+			arena.start(2000L, 10L, 20L, 3L, 0);
+
+			assertThat(arena.isRecording(), is(true));
+			assertThat(arena.getTimerData(), is(nullValue()));
+			InvocationSequenceData root = arena.materialize();
+			assertThat(root.getMethodIdent(), is(3L));
+			assertThat(root.getNestedSequences(), hasSize(0));
+			assertThat(root.getChildCount(), is(0L));
+		}
+	}
+}
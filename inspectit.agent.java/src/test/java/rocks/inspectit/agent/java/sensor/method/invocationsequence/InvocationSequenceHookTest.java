@@ -413,6 +413,160 @@ public class InvocationSequenceHookTest extends TestBase {
 		verifyZeroInteractions(realCoreService);
 	}
 
+	/**
+	 * Tests that invocations over the node budget are not recorded and that their data is not
+	 * saved.
+	 */
+	@Test
+	public void maxNodes() {
+		long platformId = 1L;
+		long methodId1 = 3L;
+		long methodId2 = 23L;
+		long methodId3 = 29L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+		TimerData timerData = new TimerData();
+
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(timer.getCurrentTime()).thenReturn(1000.0d, 1100.0d, 1200.0d, 1300.0d);
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("maxnodes", Long.valueOf(2L));
+		when(rsc.getSettings()).thenReturn(map);
+		when(rsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.beforeBody(methodId3, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.addMethodSensorData(0L, methodId3, null, timerData);
+		invocationSequenceHook.firstAfterBody(methodId3, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId3, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, false, rsc);
+
+		verify(timer, times(4)).getCurrentTime();
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
+
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getTimerData(), is(nullValue()));
+		assertThat(invocation.getDroppedChildCount(), is(1L));
+		assertThat(invocation.getChildCount(), is(1L));
+		assertThat(invocation.getNestedSequences(), hasSize(1));
+		assertThat(invocation.getNestedSequences().get(0).getMethodIdent(), is(methodId2));
+		assertThat(invocation.getNestedSequences().get(0).getTimerData(), is(nullValue()));
+	}
+
+	/**
+	 * Tests that the consecutive calls of the same method are folded into one child.
+	 */
+	@Test
+	public void loopFolded() {
+		long platformId = 1L;
+		long methodId1 = 3L;
+		long methodId2 = 23L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(timer.getCurrentTime()).thenReturn(1000.0d, 1100.0d, 1200.0d, 1300.0d, 1500.0d, 1600.0d);
+		when(rsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		for (int i = 0; i < 2; i++) {
+			invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, rsc);
+			invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, false, rsc);
+			invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, false, rsc);
+		}
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, false, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
+
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getDuration(), is(600.0d));
+		assertThat(invocation.getChildCount(), is(1L));
+		assertThat(invocation.getNestedSequences(), hasSize(1));
+		InvocationSequenceData child = invocation.getNestedSequences().get(0);
+		assertThat(child.getDuration(), is(300.0d));
+		assertThat(child.getFoldedInvocationData().getCount(), is(2L));
+		assertThat(child.getFoldedInvocationData().getMinDuration(), is(100.0d));
+		assertThat(child.getFoldedInvocationData().getMaxDuration(), is(200.0d));
+	}
+
+	/**
+	 * Tests that the sampled sequence is not sent directly, but kept until the sampling window is
+	 * over.
+	 */
+	@Test
+	public void sequenceSampled() {
+		long platformId = 1L;
+		long methodId = 3L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(timer.getCurrentTime()).thenReturn(1000.0d, 1100.0d);
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("samplingrate", Long.valueOf(1L));
+		when(rsc.getSettings()).thenReturn(map);
+		when(rsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+
+		invocationSequenceHook.beforeBody(methodId, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.firstAfterBody(methodId, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId, sensorTypeId, object, parameters, result, false, rsc);
+
+		verify(coreService, times(0)).addMethodSensorData(eq(sensorTypeId), eq(methodId), Matchers.<String> anyObject(), Matchers.<InvocationSequenceData> anyObject());
+	}
+
+	/**
+	 * Tests that the sequence with the exception is sent even if sampling is active.
+	 */
+	@Test
+	public void sequenceWithExceptionNotSampled() {
+		long platformId = 1L;
+		long methodId1 = 3L;
+		long methodId2 = 23L;
+		long sensorTypeId = 11L;
+		Object object = mock(Object.class);
+		Object[] parameters = new Object[0];
+		Object result = mock(Object.class);
+
+		when(platformManager.getPlatformId()).thenReturn(platformId);
+		when(timer.getCurrentTime()).thenReturn(1000.0d, 1100.0d, 1200.0d, 1300.0d);
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("samplingrate", Long.valueOf(1L));
+		when(rsc.getSettings()).thenReturn(map);
+		when(rsc.getMethodSensors()).thenReturn(Collections.singletonList(methodSensor));
+		when(methodSensor.getSensorTypeConfig()).thenReturn(methodSensorTypeConfig);
+
+		invocationSequenceHook.beforeBody(methodId1, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.beforeBody(methodId2, sensorTypeId, object, parameters, rsc);
+		invocationSequenceHook.addExceptionSensorData(0, 0, new ExceptionSensorData());
+		invocationSequenceHook.firstAfterBody(methodId2, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId2, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.firstAfterBody(methodId1, sensorTypeId, object, parameters, result, false, rsc);
+		invocationSequenceHook.secondAfterBody(coreService, methodId1, sensorTypeId, object, parameters, result, false, rsc);
+
+		ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+		verify(coreService, times(1)).addMethodSensorData(eq(sensorTypeId), eq(methodId1), Matchers.<String> anyObject(), captor.capture());
+
+		InvocationSequenceData invocation = captor.getValue();
+		assertThat(invocation.getSamplingWeight(), is(0d));
+		assertThat(invocation.getNestedSequences(), hasSize(1));
+	}
+
 	/**
 	 * Checks if there is a correct order of children when one in the middle is removed.
 	 */
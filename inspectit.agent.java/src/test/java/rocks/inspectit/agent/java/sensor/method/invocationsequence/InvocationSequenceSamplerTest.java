@@ -0,0 +1,154 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.util.List;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link InvocationSequenceSampler}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class InvocationSequenceSamplerTest extends TestBase {
+
+	protected InvocationSequenceSampler sampler;
+
+	@Mock
+	protected ICoreService coreService;
+
+	@BeforeMethod
+	public void init() {
+		sampler = new InvocationSequenceSampler();
+	}
+
+	protected InvocationSequenceData sequence(long methodId, double start) {
+		InvocationSequenceData invocationSequenceData = new InvocationSequenceData();
+		invocationSequenceData.setMethodIdent(methodId);
+		invocationSequenceData.setSensorTypeIdent(11L);
+		invocationSequenceData.setStart(start);
+		return invocationSequenceData;
+	}
+
+	public static class Offer extends InvocationSequenceSamplerTest {
+
+		@Test
+		public void sentAfterWindow() {
+			for (int i = 0; i < 100; i++) {
+				long ticket = sampler.offer(3L, 10, 1000L + i, coreService);
+				if (InvocationSequenceSampler.NO_TICKET != ticket) {
+					sampler.put(3L, ticket, sequence(3L, i));
+				}
+			}
+
+			verifyZeroInteractions(coreService);
+
+			sampler.offer(3L, 10, 2000L, coreService);
+
+			ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+			verify(coreService, times(10)).addMethodSensorData(eq(11L), eq(3L), Matchers.<String> anyObject(), captor.capture());
+			List<InvocationSequenceData> samples = captor.getAllValues();
+			for (InvocationSequenceData sample : samples) {
+				assertThat(sample.getSamplingWeight(), is(10d));
+			}
+			assertThat(sampler.getSampledCount(), is(10L));
+			assertThat(sampler.getDiscardedCount(), is(90L));
+		}
+
+		@Test
+		public void allSentBelowRate() {
+			for (int i = 0; i < 5; i++) {
+				long ticket = sampler.offer(3L, 10, 1000L, coreService);
+				assertThat(ticket, is(not(InvocationSequenceSampler.NO_TICKET)));
+				sampler.put(3L, ticket, sequence(3L, i));
+			}
+
+			sampler.offer(3L, 10, 2000L, coreService);
+
+			ArgumentCaptor<InvocationSequenceData> captor = ArgumentCaptor.forClass(InvocationSequenceData.class);
+			verify(coreService, times(5)).addMethodSensorData(anyLong(), anyLong(), Matchers.<String> anyObject(), captor.capture());
+			for (InvocationSequenceData sample : captor.getAllValues()) {
+				assertThat(sample.getSamplingWeight(), is(1d));
+			}
+			assertThat(sampler.getDiscardedCount(), is(0L));
+		}
+
+		@Test
+		public void methodsSampledSeparately() {
+			long ticket1 = sampler.offer(3L, 1, 1000L, coreService);
+			sampler.put(3L, ticket1, sequence(3L, 1d));
+			long ticket2 = sampler.offer(4L, 1, 1000L, coreService);
+			sampler.put(4L, ticket2, sequence(4L, 2d));
+
+			sampler.offer(3L, 1, 2000L, coreService);
+
+			verify(coreService, times(1)).addMethodSensorData(anyLong(), eq(3L), Matchers.<String> anyObject(), Matchers.<InvocationSequenceData> anyObject());
+			verify(coreService, times(0)).addMethodSensorData(anyLong(), eq(4L), Matchers.<String> anyObject(), Matchers.<InvocationSequenceData> anyObject());
+		}
+
+		@Test
+		public void putAfterWindowIgnored() {
+			long ticket = sampler.offer(3L, 1, 1000L, coreService);
+			sampler.offer(3L, 1, 2000L, coreService);
+			sampler.put(3L, ticket, sequence(3L, 1d));
+
+			sampler.offer(3L, 1, 3000L, coreService);
+
+			verifyZeroInteractions(coreService);
+			assertThat(sampler.getDiscardedCount(), is(2L));
+		}
+	}
+
+	public static class Expire extends InvocationSequenceSamplerTest {
+
+		@Test
+		public void expiredWindowsSent() {
+			long ticket = sampler.offer(3L, 1, 1000L, coreService);
+			sampler.put(3L, ticket, sequence(3L, 1d));
+
+			sampler.expire(1500L, coreService);
+			verifyZeroInteractions(coreService);
+
+			sampler.expire(2500L, coreService);
+			verify(coreService, times(1)).addMethodSensorData(eq(11L), eq(3L), eq("1.0"), Matchers.<InvocationSequenceData> anyObject());
+		}
+
+		@Test
+		public void expiredWindowSentOnce() {
+			long ticket = sampler.offer(3L, 1, 1000L, coreService);
+			sampler.put(3L, ticket, sequence(3L, 1d));
+
+			sampler.expire(2000L, coreService);
+			sampler.expire(2000L, coreService);
+			sampler.expire(3000L, coreService);
+
+			verify(coreService, times(1)).addMethodSensorData(eq(11L), eq(3L), eq("1.0"), Matchers.<InvocationSequenceData> anyObject());
+		}
+
+		@Test
+		public void keptCounted() {
+			sampler.keep();
+			sampler.keep();
+
+			assertThat(sampler.getKeptCount(), is(2L));
+		}
+	}
+}
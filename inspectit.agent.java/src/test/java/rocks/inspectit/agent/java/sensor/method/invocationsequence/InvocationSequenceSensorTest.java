@@ -0,0 +1,131 @@
+package rocks.inspectit.agent.java.sensor.method.invocationsequence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.agent.java.config.IConfigurationStorage;
+import rocks.inspectit.agent.java.config.IPropertyAccessor;
+import rocks.inspectit.agent.java.core.ICoreService;
+import rocks.inspectit.agent.java.core.IPlatformManager;
+import rocks.inspectit.agent.java.sdk.opentracing.internal.impl.TracerImpl;
+import rocks.inspectit.agent.java.util.Timer;
+import rocks.inspectit.shared.all.communication.MethodSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+@SuppressWarnings("PMD")
+public class InvocationSequenceSensorTest extends TestBase {
+
+	@InjectMocks
+	InvocationSequenceSensor sensor;
+
+	@Mock
+	Logger log;
+
+	@Mock
+	Timer timer;
+
+	@Mock
+	IPlatformManager platformManager;
+
+	@Mock
+	ICoreService coreService;
+
+	@Mock
+	TracerImpl tracer;
+
+	@Mock
+	IPropertyAccessor propertyAccessor;
+
+	@Mock
+	IConfigurationStorage configurationStorage;
+
+	@Mock
+	ScheduledExecutorService executorService;
+
+	public class InitHook extends InvocationSequenceSensorTest {
+
+		@Test
+		public void expireSamplesScheduled() {
+			sensor.initHook(new HashMap<String, Object>());
+
+			verify(executorService, times(1)).scheduleAtFixedRate(Matchers.<Runnable> any(), eq(InvocationSequenceSampler.WINDOW_LENGTH), eq(InvocationSequenceSampler.WINDOW_LENGTH),
+					eq(TimeUnit.MILLISECONDS));
+		}
+
+		@Test
+		public void expireSamplesFailureLogged() {
+			ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+			RuntimeException exception = new RuntimeException();
+			doThrow(exception).when(coreService).addMethodSensorData(anyLong(), anyLong(), anyString(), Matchers.<MethodSensorData> any());
+			sensor.initHook(new HashMap<String, Object>());
+			verify(executorService).scheduleAtFixedRate(captor.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+			// window started long ago, so the sample is sent on the next run
+			InvocationSequenceSampler sampler = ((InvocationSequenceHook) sensor.getHook()).getSampler();
+			long ticket = sampler.offer(1L, 1, 0L, coreService);
+			sampler.put(1L, ticket, new InvocationSequenceData());
+
+			captor.getValue().run();
+
+			verify(log, times(1)).warn(anyString(), eq(exception));
+		}
+	}
+
+	public class MXBean extends InvocationSequenceSensorTest {
+
+		@Test
+		public void counts() throws Exception {
+			MBeanServer server = MBeanServerFactory.newMBeanServer();
+			sensor.initHook(new HashMap<String, Object>());
+			InvocationSequenceSampler sampler = ((InvocationSequenceHook) sensor.getHook()).getSampler();
+			sampler.keep();
+			sampler.keep();
+
+			sensor.mbeanServerAdded(server);
+
+			ObjectName objectName = new ObjectName(InvocationSequenceSensor.OBJECT_NAME);
+			assertThat((Long) server.getAttribute(objectName, "KeptSequences"), is(2L));
+			assertThat((Long) server.getAttribute(objectName, "SampledSequences"), is(0L));
+			assertThat((Long) server.getAttribute(objectName, "DiscardedSequences"), is(0L));
+		}
+
+		@Test
+		public void notInitialized() {
+			assertThat(sensor.getKeptSequences(), is(0L));
+			assertThat(sensor.getSampledSequences(), is(0L));
+			assertThat(sensor.getDiscardedSequences(), is(0L));
+		}
+
+		@Test
+		public void unregistered() throws Exception {
+			MBeanServer server = MBeanServerFactory.newMBeanServer();
+			sensor.mbeanServerAdded(server);
+
+			sensor.mbeanServerRemoved(server);
+
+			assertThat(server.isRegistered(new ObjectName(InvocationSequenceSensor.OBJECT_NAME)), is(false));
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package rocks.inspectit.agent.java.sensor.method.timer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link StripedTimerStorage} class.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class StripedTimerStorageTest extends TestBase {
+
+	StripedTimerStorage storage;
+
+	@BeforeMethod
+	public void init() {
+		storage = new StripedTimerStorage(new Timestamp(1L), 1L, 2L, 3L, null, true);
+	}
+
+	/**
+	 * Tests the {@link StripedTimerStorage#finalizeDataObject()} method.
+	 */
+	public static class FinalizeDataObject extends StripedTimerStorageTest {
+
+		@Test
+		public void noData() {
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getPlatformIdent(), is(1L));
+			assertThat(timerData.getSensorTypeIdent(), is(2L));
+			assertThat(timerData.getMethodIdent(), is(3L));
+			assertThat(timerData.isCharting(), is(true));
+			assertThat(timerData.getCount(), is(0L));
+			assertThat(timerData.getDuration(), is(0d));
+			assertThat(timerData.getMin(), is(-1d));
+			assertThat(timerData.getMax(), is(-1d));
+			assertThat(timerData.isCpuMetricDataAvailable(), is(false));
+		}
+
+		@Test
+		public void data() {
+			storage.addData(10d, 1d);
+			storage.addData(20d, 3d);
+			storage.addData(5d, -1d);
+
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getCount(), is(3L));
+			assertThat(timerData.getDuration(), is(35d));
+			assertThat(timerData.getMin(), is(5d));
+			assertThat(timerData.getMax(), is(20d));
+			assertThat(timerData.getCpuDuration(), is(4d));
+			assertThat(timerData.getCpuMin(), is(1d));
+			assertThat(timerData.getCpuMax(), is(3d));
+		}
+
+		@Test
+		public void noCpuData() {
+			storage.addData(10d, -1d);
+
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getCount(), is(1L));
+			assertThat(timerData.getDuration(), is(10d));
+			assertThat(timerData.isCpuMetricDataAvailable(), is(false));
+		}
+
+		@Test
+		public void finalizeTwice() {
+			storage.addData(10d, 1d);
+
+			storage.finalizeDataObject();
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getCount(), is(1L));
+			assertThat(timerData.getDuration(), is(10d));
+			assertThat(timerData.getCpuDuration(), is(1d));
+		}
+
+		@Test
+		public void concurrentUpdates() throws Exception {
+			final int threads = 8;
+			final int updates = 10000;
+			ExecutorService executorService = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<Void>> futures = new ArrayList<Future<Void>>();
+				for (int i = 0; i < threads; i++) {
+					final double max = i + 2;
+					futures.add(executorService.submit(new Callable<Void>() {
+						@Override
+						public Void call() throws Exception {
+							for (int j = 0; j < updates; j++) {
+								storage.addData(1d, 1d);
+							}
+							storage.addData(max, 0.5d);
+							return null;
+						}
+					}));
+				}
+				for (Future<Void> future : futures) {
+					future.get();
+				}
+			} finally {
+				executorService.shutdownNow();
+			}
+
+			TimerData timerData = (TimerData) storage.finalizeDataObject();
+
+			assertThat(timerData.getCount(), is((long) ((threads * updates) + threads)));
+			assertThat(timerData.getMin(), is(1d));
+			assertThat(timerData.getMax(), is((double) threads + 1));
+			assertThat(timerData.getCpuDuration(), is((threads * updates) + (threads * 0.5d)));
+			assertThat(timerData.getCpuMin(), is(0.5d));
+			assertThat(timerData.getCpuMax(), is(1d));
+		}
+	}
+
+}
@@ -0,0 +1,69 @@
+package rocks.inspectit.agent.java.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.NoSuchElementException;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("PMD")
+public class ThreadLocalDoubleStackTest {
+
+	private ThreadLocalDoubleStack threadLocalStack;
+
+	@BeforeMethod(firstTimeOnly = true)
+	public void initTestClass() {
+		threadLocalStack = new ThreadLocalDoubleStack();
+	}
+
+	@Test
+	public void emptyStack() {
+		assertThat(threadLocalStack.size(), is(0));
+	}
+
+	@Test
+	public void oneValue() {
+		threadLocalStack.push(1.5d);
+
+		assertThat(threadLocalStack.getLast(), is(1.5d));
+		assertThat(threadLocalStack.pop(), is(1.5d));
+		assertThat(threadLocalStack.size(), is(0));
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElement() {
+		threadLocalStack.pop();
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElementLast() {
+		threadLocalStack.getLast();
+	}
+
+	@Test
+	public void grow() {
+		for (int i = 0; i < 1000; i++) {
+			threadLocalStack.push(i);
+		}
+
+		assertThat(threadLocalStack.size(), is(1000));
+		for (int i = 999; i >= 0; i--) {
+			assertThat(threadLocalStack.pop(), is((double) i));
+		}
+		assertThat(threadLocalStack.size(), is(0));
+	}
+
+	@Test(invocationCount = 10, threadPoolSize = 10)
+	public void stackTest() {
+		threadLocalStack.push(1d);
+		threadLocalStack.push(2d);
+		threadLocalStack.push(3d);
+
+		assertThat(threadLocalStack.pop(), is(3d));
+		assertThat(threadLocalStack.pop(), is(2d));
+		assertThat(threadLocalStack.pop(), is(1d));
+	}
+
+}
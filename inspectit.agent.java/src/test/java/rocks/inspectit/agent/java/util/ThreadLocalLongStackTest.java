@@ -0,0 +1,64 @@
+package rocks.inspectit.agent.java.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.NoSuchElementException;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("PMD")
+public class ThreadLocalLongStackTest {
+
+	private ThreadLocalLongStack threadLocalStack;
+
+	@BeforeMethod(firstTimeOnly = true)
+	public void initTestClass() {
+		threadLocalStack = new ThreadLocalLongStack();
+	}
+
+	@Test
+	public void emptyStack() {
+		assertThat(threadLocalStack.size(), is(0));
+	}
+
+	@Test
+	public void oneValue() {
+		threadLocalStack.push(15L);
+
+		assertThat(threadLocalStack.getLast(), is(15L));
+		assertThat(threadLocalStack.pop(), is(15L));
+		assertThat(threadLocalStack.size(), is(0));
+	}
+
+	@Test(expectedExceptions = { NoSuchElementException.class })
+	public void noSuchElement() {
+		threadLocalStack.pop();
+	}
+
+	@Test
+	public void grow() {
+		for (long i = 0; i < 1000; i++) {
+			threadLocalStack.push(i);
+		}
+
+		assertThat(threadLocalStack.size(), is(1000));
+		for (long i = 999; i >= 0; i--) {
+			assertThat(threadLocalStack.pop(), is(i));
+		}
+		assertThat(threadLocalStack.size(), is(0));
+	}
+
+	@Test(invocationCount = 10, threadPoolSize = 10)
+	public void stackTest() {
+		threadLocalStack.push(1L);
+		threadLocalStack.push(2L);
+		threadLocalStack.push(3L);
+
+		assertThat(threadLocalStack.pop(), is(3L));
+		assertThat(threadLocalStack.pop(), is(2L));
+		assertThat(threadLocalStack.pop(), is(1L));
+	}
+
+}
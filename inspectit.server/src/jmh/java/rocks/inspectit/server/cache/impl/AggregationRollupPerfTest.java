@@ -0,0 +1,103 @@
+package rocks.inspectit.server.cache.impl;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.shared.all.communication.data.AggregatedTimerData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.indexing.aggregation.Aggregators;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.impl.IndexQuery;
+import rocks.inspectit.shared.cs.indexing.restriction.impl.CachingIndexQueryRestrictionProcessor;
+
+/**
+ * Performance test of the timer data aggregation over the given amount of elements spread over one
+ * hour, once by aggregating all elements and once by aggregating the groups of the
+ * {@link AggregationRollup} with one minute buckets.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class AggregationRollupPerfTest {
+
+	/**
+	 * Time range of the elements.
+	 */
+	private static final long RANGE = TimeUnit.HOURS.toMillis(1);
+
+	/**
+	 * Amount of elements.
+	 */
+	@Param({ "100000", "1000000" })
+	private int elements;
+
+	/**
+	 * Amount of different methods.
+	 */
+	@Param({ "10", "1000" })
+	private int methods;
+
+	private List<TimerData> data;
+
+	private AggregationRollup<TimerData> rollup;
+
+	private IndexQuery query;
+
+	@Setup(Level.Trial)
+	public void init() {
+		rollup = new AggregationRollup<>(Aggregators.TIMER_DATA_AGGREGATOR, Arrays.<Class<?>> asList(TimerData.class, AggregatedTimerData.class), TimeUnit.MINUTES.toMillis(1));
+		data = new ArrayList<>(elements);
+		for (int i = 0; i < elements; i++) {
+			TimerData timerData = new TimerData(new Timestamp((i * RANGE) / elements), 1L, 1L, i % methods);
+			timerData.setCount(1L);
+			timerData.setDuration(i % 100);
+			timerData.calculateMin(i % 100);
+			timerData.calculateMax(i % 100);
+			data.add(timerData);
+			rollup.add(timerData);
+		}
+
+		query = new IndexQuery();
+		query.setRestrictionProcessor(new CachingIndexQueryRestrictionProcessor());
+	}
+
+	@Benchmark
+	public List<TimerData> aggregateElements() {
+		AggregationPerformer<TimerData> performer = new AggregationPerformer<>(Aggregators.TIMER_DATA_AGGREGATOR);
+		for (TimerData timerData : data) {
+			if (timerData.isQueryComplied(query)) {
+				performer.processElement(timerData);
+			}
+		}
+		return performer.getResultList();
+	}
+
+	@Benchmark
+	public List<TimerData> aggregateRollup() {
+		AggregationPerformer<TimerData> performer = new AggregationPerformer<>(Aggregators.TIMER_DATA_AGGREGATOR);
+		rollup.aggregate(query, performer);
+		return performer.getResultList();
+	}
+}
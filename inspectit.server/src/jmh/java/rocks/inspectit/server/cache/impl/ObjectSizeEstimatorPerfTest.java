@@ -0,0 +1,168 @@
+package rocks.inspectit.server.cache.impl;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.cmr.cache.impl.ObjectSizesFactory;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 5)
+@Fork(2)
+@State(Scope.Thread)
+public class ObjectSizeEstimatorPerfTest {
+
+	/**
+	 * SQL statements set to the SQL data.
+	 */
+	private static final String[] SQLS = { "SELECT * FROM ORDERS WHERE ID = ?", "SELECT * FROM CUSTOMERS WHERE ID = ?", "UPDATE ORDERS SET STATUS = ? WHERE ID = ?",
+			"INSERT INTO AUDIT_LOG VALUES (?, ?, ?)" };
+
+	/**
+	 * Depth of the invocation trees.
+	 */
+	@Param({ "3", "5" })
+	private int depth;
+
+	/**
+	 * Number of nested sequences per invocation node.
+	 */
+	@Param({ "5", "20" })
+	private int children;
+
+	/**
+	 * Sampling rate for the sampled estimation.
+	 */
+	@Param({ "10" })
+	private int samplingRate;
+
+	/**
+	 * Object sizes.
+	 */
+	private IObjectSizes objectSizes;
+
+	/**
+	 * Estimator calculating exact sizes.
+	 */
+	private ObjectSizeEstimator exactEstimator;
+
+	/**
+	 * Estimator with sampling.
+	 */
+	private ObjectSizeEstimator samplingEstimator;
+
+	/**
+	 * Invocation to analyze.
+	 */
+	private InvocationSequenceData invocation;
+
+	/**
+	 * Set up, prepare the invocation tree and the estimators.
+	 */
+	@Setup(Level.Trial)
+	public void init() throws Exception {
+		objectSizes = new ObjectSizesFactory().getObject();
+		exactEstimator = createEstimator(false);
+		samplingEstimator = createEstimator(true);
+		invocation = createInvocation(depth, new Random());
+	}
+
+	/**
+	 * Analyze as done by the buffer before, walking the complete invocation tree.
+	 */
+	@Benchmark
+	public long analyzeExactWalk() {
+		BufferElement<DefaultData> element = new BufferElement<DefaultData>(invocation);
+		element.calculateAndSetBufferElementSize(objectSizes);
+		return element.getBufferElementSize();
+	}
+
+	/**
+	 * Analyze with the estimator that has sampling disabled.
+	 */
+	@Benchmark
+	public long analyzeEstimatorExact() {
+		BufferElement<DefaultData> element = new BufferElement<DefaultData>(invocation);
+		exactEstimator.calculateAndSetBufferElementSize(element);
+		return element.getBufferElementSize();
+	}
+
+	/**
+	 * Analyze with the estimator that has sampling enabled.
+	 */
+	@Benchmark
+	public long analyzeEstimatorSampling() {
+		BufferElement<DefaultData> element = new BufferElement<DefaultData>(invocation);
+		samplingEstimator.calculateAndSetBufferElementSize(element);
+		return element.getBufferElementSize();
+	}
+
+	private ObjectSizeEstimator createEstimator(boolean samplingEnabled) {
+		ObjectSizeEstimator estimator = new ObjectSizeEstimator();
+		estimator.objectSizes = objectSizes;
+		estimator.samplingEnabled = samplingEnabled;
+		estimator.samplingRate = samplingRate;
+		return estimator;
+	}
+
+	private InvocationSequenceData createInvocation(int level, Random random) {
+		InvocationSequenceData invocationSequenceData = new InvocationSequenceData(new Timestamp(System.currentTimeMillis()), 1L, 1L, random.nextInt(100));
+		setRandomDataObject(invocationSequenceData, random);
+		if (level > 0) {
+			List<InvocationSequenceData> nested = new ArrayList<>(children);
+			for (int i = 0; i < children; i++) {
+				InvocationSequenceData child = createInvocation(level - 1, random);
+				child.setParentSequence(invocationSequenceData);
+				nested.add(child);
+			}
+			invocationSequenceData.setNestedSequences(nested);
+		}
+		return invocationSequenceData;
+	}
+
+	private void setRandomDataObject(InvocationSequenceData invocationSequenceData, Random random) {
+		int objectSplit = random.nextInt(100);
+
+		// exceptions 5%, sqls 30%, timers 65%
+		if (objectSplit < 5) {
+			ExceptionSensorData exData = new ExceptionSensorData(new Timestamp(System.currentTimeMillis()), 1L, 1L, 1L);
+			exData.setThrowableType("java.lang.IllegalStateException");
+			exData.setStackTrace("java.lang.IllegalStateException\n\tat rocks.inspectit.Test.method(Test.java:10)");
+			List<ExceptionSensorData> exceptions = new ArrayList<>(1);
+			exceptions.add(exData);
+			invocationSequenceData.setExceptionSensorDataObjects(exceptions);
+		} else if (objectSplit < 35) {
+			SqlStatementData sqlData = new SqlStatementData(new Timestamp(System.currentTimeMillis()), 1L, 1L, 1L);
+			sqlData.setSql(SQLS[random.nextInt(SQLS.length)]);
+			invocationSequenceData.setSqlStatementData(sqlData);
+		} else {
+			TimerData timerData = new TimerData(new Timestamp(System.currentTimeMillis()), 1L, 1L, 1L);
+			timerData.setDuration(random.nextDouble() * 100);
+			invocationSequenceData.setTimerData(timerData);
+		}
+	}
+
+}
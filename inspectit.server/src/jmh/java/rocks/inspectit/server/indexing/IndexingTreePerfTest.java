@@ -2,8 +2,10 @@ package rocks.inspectit.server.indexing;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Random;
@@ -32,16 +34,22 @@ import rocks.inspectit.server.processor.impl.InvocationModifierCmrProcessor;
 import rocks.inspectit.server.util.CacheIdGenerator;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.HttpInfo;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
 import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.communication.comparator.DefaultDataComparatorEnum;
+import rocks.inspectit.shared.cs.communication.comparator.ResultComparator;
 import rocks.inspectit.shared.cs.indexing.impl.IndexQuery;
+import rocks.inspectit.shared.cs.indexing.query.factory.impl.HttpTimerDataQueryFactory;
 import rocks.inspectit.shared.cs.indexing.query.factory.impl.InvocationSequenceDataQueryFactory;
+import rocks.inspectit.shared.cs.indexing.query.factory.impl.SqlStatementDataQueryFactory;
 import rocks.inspectit.shared.cs.indexing.query.factory.impl.TimerDataQueryFactory;
 import rocks.inspectit.shared.cs.indexing.query.provider.impl.IndexQueryProvider;
 import rocks.inspectit.shared.cs.indexing.restriction.IIndexQueryRestrictionProcessor;
 import rocks.inspectit.shared.cs.indexing.restriction.impl.CachingIndexQueryRestrictionProcessor;
+import rocks.inspectit.shared.cs.indexing.restriction.impl.IndexQueryRestrictionFactory;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
@@ -51,6 +59,27 @@ import rocks.inspectit.shared.cs.indexing.restriction.impl.CachingIndexQueryRest
 @State(Scope.Thread)
 public class IndexingTreePerfTest {
 
+	/**
+	 * SQL statements set to the SQL data.
+	 */
+	private static final String[] SQLS = { "SELECT * FROM ORDERS WHERE ID = ?", "SELECT * FROM CUSTOMERS WHERE ID = ?", "UPDATE ORDERS SET STATUS = ? WHERE ID = ?",
+			"INSERT INTO AUDIT_LOG VALUES (?, ?, ?)" };
+
+	/**
+	 * URIs set to the HTTP data.
+	 */
+	private static final String[] URIS = { "/shop/cart", "/shop/checkout", "/shop/product", "/shop/search", "/shop/login" };
+
+	/**
+	 * Amount of latest invocations to query.
+	 */
+	private static final int LATEST_LIMIT = 100;
+
+	/**
+	 * Comparator ordering the newest elements first.
+	 */
+	private static final Comparator<DefaultData> NEWEST_FIRST = new ResultComparator<DefaultData>(DefaultDataComparatorEnum.TIMESTAMP, false);
+
 	/**
 	 * Indexing tree under test.
 	 */
@@ -112,6 +141,21 @@ public class IndexingTreePerfTest {
 	 */
 	private IndexQuery invocationOverviewQuery;
 
+	/**
+	 * Aggregated SQL query restricted to one SQL string.
+	 */
+	private IndexQuery sqlStatementQuery;
+
+	/**
+	 * HTTP timer query restricted to set of URIs.
+	 */
+	private IndexQuery httpUriQuery;
+
+	/**
+	 * Timer data query restricted to minimum duration.
+	 */
+	private IndexQuery timerDataDurationQuery;
+
 	/**
 	 * ForkJoinPool
 	 */
@@ -191,6 +235,21 @@ public class IndexingTreePerfTest {
 		invocationSequenceDataQueryFactory.setIndexQueryProvider(indexQueryProvider);
 
 		invocationOverviewQuery = invocationSequenceDataQueryFactory.getInvocationSequences(platformIdent, 0, null, null);
+
+		// restriction heavy queries
+		SqlStatementDataQueryFactory<IndexQuery> sqlStatementDataQueryFactory = new SqlStatementDataQueryFactory<>();
+		sqlStatementDataQueryFactory.setIndexQueryProvider(indexQueryProvider);
+		SqlStatementData sqlTemplate = new SqlStatementData(null, platformIdent, 0, 0);
+		sqlTemplate.setSql(SQLS[random.nextInt(SQLS.length)]);
+		sqlStatementQuery = sqlStatementDataQueryFactory.getAggregatedSqlStatementsQuery(sqlTemplate, null, null);
+
+		HttpTimerDataQueryFactory<IndexQuery> httpTimerDataQueryFactory = new HttpTimerDataQueryFactory<>();
+		httpTimerDataQueryFactory.setIndexQueryProvider(indexQueryProvider);
+		httpUriQuery = httpTimerDataQueryFactory.getFindAllHttpTimersQuery(new HttpTimerData(null, platformIdent, 0, 0), null, null);
+		httpUriQuery.addIndexingRestriction(IndexQueryRestrictionFactory.isInCollection("httpInfo.uri", Arrays.asList(URIS[0], URIS[1])));
+
+		timerDataDurationQuery = timerDataQueryFactory.getAggregatedTimerDataQuery(new TimerData(null, platformIdent, 0, 0), null, null);
+		timerDataDurationQuery.addIndexingRestriction(IndexQueryRestrictionFactory.greaterThan("duration", 50d));
 	}
 
 	// Query fork&join benchmarks
@@ -235,6 +294,40 @@ public class IndexingTreePerfTest {
 		return indexingTree.query(invocationOverviewQuery);
 	}
 
+	// Latest invocations benchmarks
+	@Benchmark
+	public List<DefaultData> queryLatestInvocationsFullSort() {
+		List<DefaultData> results = indexingTree.query(invocationOverviewQuery);
+		Collections.sort(results, NEWEST_FIRST);
+		return new ArrayList<>(results.subList(0, Math.min(LATEST_LIMIT, results.size())));
+	}
+
+	@Benchmark
+	public List<DefaultData> queryLatestInvocations() {
+		return indexingTree.query(invocationOverviewQuery, NEWEST_FIRST, LATEST_LIMIT);
+	}
+
+	@Benchmark
+	public List<DefaultData> queryLatestInvocationsForkJoin() {
+		return indexingTree.query(invocationOverviewQuery, NEWEST_FIRST, LATEST_LIMIT, forkJoinPool);
+	}
+
+	// Query benchmarks with restrictions checked on every element
+	@Benchmark
+	public List<DefaultData> querySqlStatement() {
+		return indexingTree.query(sqlStatementQuery);
+	}
+
+	@Benchmark
+	public List<DefaultData> queryHttpUri() {
+		return indexingTree.query(httpUriQuery);
+	}
+
+	@Benchmark
+	public List<DefaultData> queryTimerDataDuration() {
+		return indexingTree.query(timerDataDurationQuery);
+	}
+
 	// private helpers
 	private InvocationSequenceData getInvocationSequenceDataInstance(int childCount) {
 		Random random = new Random();
@@ -287,24 +380,27 @@ public class IndexingTreePerfTest {
 		// http 5%, exceptions 5%, sqls 25%, timers 65%
 		if (objectSplit < 5) {
 			HttpTimerData httpTimerData = new HttpTimerData(new Timestamp(getRandomTimestamp(random)), getRandomPlatformIdent(random), getRandomSensorIdent(random), getRandomMethodIdent(random));
-			setTime(httpTimerData);
+			setTime(httpTimerData, random);
+			httpTimerData.setHttpInfo(new HttpInfo(URIS[random.nextInt(URIS.length)], "GET", null));
 			invocationSequenceData.setTimerData(httpTimerData);
 		} else if (objectSplit < 10) {
 			ExceptionSensorData exData = new ExceptionSensorData(new Timestamp(getRandomTimestamp(random)), getRandomPlatformIdent(random), getRandomSensorIdent(random), getRandomMethodIdent(random));
 			invocationSequenceData.setExceptionSensorDataObjects(Collections.singletonList(exData));
 		} else if (objectSplit < 35) {
 			SqlStatementData sqlData = new SqlStatementData(new Timestamp(getRandomTimestamp(random)), getRandomPlatformIdent(random), getRandomSensorIdent(random), getRandomMethodIdent(random));
-			setTime(sqlData);
+			setTime(sqlData, random);
+			sqlData.setSql(SQLS[random.nextInt(SQLS.length)]);
 			invocationSequenceData.setSqlStatementData(sqlData);
 		} else {
 			TimerData timerData = new TimerData(new Timestamp(getRandomTimestamp(random)), getRandomPlatformIdent(random), getRandomSensorIdent(random), getRandomMethodIdent(random));
-			setTime(timerData);
+			setTime(timerData, random);
 			invocationSequenceData.setTimerData(timerData);
 		}
 	}
 
-	private void setTime(TimerData timerData) {
+	private void setTime(TimerData timerData, Random random) {
 		timerData.setCount(1L);
+		timerData.setDuration(random.nextDouble() * 100);
 	}
 
 }
@@ -0,0 +1,117 @@
+package rocks.inspectit.server.processor.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+
+/**
+ * Performance test of the {@link InvocationModifierCmrProcessor} processing one invocation with
+ * the given amount of nodes. The <code>deep</code> invocation is one chain of nested invocations,
+ * while in the <code>wide</code> invocation every node has ten nested invocations. Every third
+ * node has no timer data and every seventh has SQL data instead.
+ *
+ * @author agent
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xss1m")
+@State(Scope.Thread)
+public class InvocationModifierCmrProcessorPerfTest {
+
+	/**
+	 * Amount of nested invocations of every node in the wide invocation.
+	 */
+	private static final int FAN_OUT = 10;
+
+	/**
+	 * Amount of nodes in the invocation.
+	 */
+	@Param({ "10000", "100000" })
+	private int nodes;
+
+	/**
+	 * Shape of the invocation, <code>deep</code> or <code>wide</code>.
+	 */
+	@Param({ "deep", "wide" })
+	private String shape;
+
+	private InvocationModifierCmrProcessor processor;
+
+	private InvocationSequenceData invocation;
+
+	@Setup(Level.Trial)
+	public void init() {
+		processor = new InvocationModifierCmrProcessor(Collections.<AbstractCmrDataProcessor> emptyList());
+
+		List<InvocationSequenceData> all = new ArrayList<>(nodes);
+		invocation = createNode(0);
+		all.add(invocation);
+		for (int i = 1; i < nodes; i++) {
+			int parentIndex = "deep".equals(shape) ? i - 1 : (i - 1) / FAN_OUT;
+			InvocationSequenceData parent = all.get(parentIndex);
+			InvocationSequenceData child = createNode(i);
+			child.setParentSequence(parent);
+			parent.getNestedSequences().add(child);
+			all.add(child);
+		}
+
+		// child counts bottom up
+		for (int i = nodes - 1; i > 0; i--) {
+			InvocationSequenceData child = all.get(i);
+			InvocationSequenceData parent = child.getParentSequence();
+			parent.setChildCount(parent.getChildCount() + child.getChildCount() + 1);
+		}
+	}
+
+	@Benchmark
+	public InvocationSequenceData process() {
+		processor.process(invocation, null);
+		return invocation;
+	}
+
+	/**
+	 * Creates the node of the invocation.
+	 *
+	 * @param index
+	 *            Index of the node.
+	 * @return Node.
+	 */
+	private InvocationSequenceData createNode(int index) {
+		InvocationSequenceData node = new InvocationSequenceData();
+		node.setId(index + 1);
+		if (0 == (index % 7)) {
+			SqlStatementData sqlStatementData = new SqlStatementData();
+			sqlStatementData.setCount(1L);
+			sqlStatementData.setDuration(1d);
+			node.setSqlStatementData(sqlStatementData);
+		} else if (0 != (index % 3)) {
+			TimerData timerData = new TimerData();
+			timerData.setCount(1L);
+			timerData.setDuration(nodes - index);
+			node.setTimerData(timerData);
+		}
+		return node;
+	}
+}
@@ -0,0 +1,298 @@
+package rocks.inspectit.server.storage;
+
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.ReflectionUtils;
+
+import rocks.inspectit.shared.all.cmr.cache.impl.ObjectSizes64Bits;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.provider.SerializationManagerProvider;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.storage.nio.ByteBufferProvider;
+import rocks.inspectit.shared.all.storage.nio.stream.ExtendedByteBufferOutputStream;
+import rocks.inspectit.shared.all.storage.nio.stream.SocketExtendedByteBufferInputStream;
+import rocks.inspectit.shared.all.storage.nio.stream.StreamProvider;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageRootBranchFactory;
+import rocks.inspectit.shared.cs.storage.IStorageData;
+import rocks.inspectit.shared.cs.storage.StorageData;
+import rocks.inspectit.shared.cs.storage.StorageIndexingTreeHandler;
+import rocks.inspectit.shared.cs.storage.StorageManager;
+import rocks.inspectit.shared.cs.storage.StorageWriter;
+import rocks.inspectit.shared.cs.storage.nio.write.WritingChannelManager;
+import rocks.inspectit.shared.cs.storage.processor.write.AbstractWriteDataProcessor;
+import rocks.inspectit.shared.cs.storage.serializer.SerializationManagerPostProcessor;
+import rocks.inspectit.shared.cs.storage.util.DeleteFileVisitor;
+import rocks.inspectit.shared.cs.storage.util.StorageIndexTreeProvider;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(2)
+@State(Scope.Thread)
+public class StorageWriterPerfTest {
+
+	/**
+	 * SQL statements set to the SQL data.
+	 */
+	private static final String[] SQLS = { "SELECT * FROM ORDERS WHERE ID = ?", "SELECT * FROM CUSTOMERS WHERE ID = ?", "UPDATE ORDERS SET STATUS = ? WHERE ID = ?",
+			"INSERT INTO AUDIT_LOG VALUES (?, ?, ?)" };
+
+	/**
+	 * Amount of elements in the copied buffer.
+	 */
+	@Param({ "1000000" })
+	private int elements;
+
+	/**
+	 * Write batch size, size of 1 is writing every object with its own task.
+	 */
+	@Param({ "1", "1000" })
+	private int writeBatchSize;
+
+	/**
+	 * Number of different methods to simulate.
+	 */
+	@Param({ "100" })
+	private int methods;
+
+	/**
+	 * Spread of data in duration of 1 hour.
+	 */
+	@Param({ "3600000" })
+	private int timestampSpread;
+
+	/**
+	 * Data in the buffer.
+	 */
+	private List<DefaultData> bufferData;
+
+	/**
+	 * Folder storages are written to.
+	 */
+	private Path storageFolder;
+
+	/**
+	 * Shared byte buffer provider.
+	 */
+	private ByteBufferProvider byteBufferProvider;
+
+	/**
+	 * Executor for the IO operations of the channels.
+	 */
+	private ExecutorService ioExecutorService;
+
+	/**
+	 * Executor for the tree handling tasks.
+	 */
+	private ScheduledExecutorService scheduledExecutorService;
+
+	/**
+	 * Serialization manager provider.
+	 */
+	private SerializationManagerProvider serializationManagerProvider;
+
+	/**
+	 * Storage manager.
+	 */
+	private StorageManager storageManager;
+
+	/**
+	 * Writer of the current invocation.
+	 */
+	private StorageWriter storageWriter;
+
+	/**
+	 * Set up, prepare buffer data and all the writer dependencies.
+	 */
+	@Setup(Level.Trial)
+	public void init() throws Exception {
+		Random random = new Random();
+		long now = System.currentTimeMillis();
+		bufferData = new ArrayList<>(elements);
+		for (int i = 1; i <= elements; i++) {
+			TimerData data;
+			if (0 == (i % 4)) {
+				SqlStatementData sqlStatementData = new SqlStatementData();
+				sqlStatementData.setSql(SQLS[random.nextInt(SQLS.length)]);
+				data = sqlStatementData;
+			} else {
+				data = new TimerData();
+			}
+			data.setId(i);
+			data.setPlatformIdent(1L);
+			data.setSensorTypeIdent(1L);
+			data.setMethodIdent(random.nextInt(methods));
+			data.setTimeStamp(new Timestamp(now - random.nextInt(timestampSpread)));
+			bufferData.add(data);
+		}
+
+		storageFolder = Files.createTempDirectory("storageWriterPerfTest");
+		ioExecutorService = Executors.newFixedThreadPool(3);
+		scheduledExecutorService = Executors.newScheduledThreadPool(1);
+
+		byteBufferProvider = new ByteBufferProvider();
+		inject(byteBufferProvider, "log", LoggerFactory.getLogger(ByteBufferProvider.class));
+		byteBufferProvider.setBufferSize(1024 * 1024);
+		byteBufferProvider.setPoolMinCapacity(64 * 1024 * 1024);
+		byteBufferProvider.setPoolMaxCapacity(256 * 1024 * 1024);
+		byteBufferProvider.setBufferPoolMinDirectMemoryOccupancy(0.3f);
+		byteBufferProvider.setBufferPoolMaxDirectMemoryOccupancy(0.6f);
+		byteBufferProvider.afterPropertiesSet();
+
+		final ClassSchemaManager schemaManager = new ClassSchemaManager();
+		inject(schemaManager, "log", LoggerFactory.getLogger(ClassSchemaManager.class));
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+		final SerializationManagerPostProcessor postProcessor = new SerializationManagerPostProcessor();
+		serializationManagerProvider = new SerializationManagerProvider() {
+			@Override
+			public SerializationManager createSerializer() {
+				SerializationManager serializer = new SerializationManager();
+				serializer.setSchemaManager(schemaManager);
+				serializer.setKryoNetNetwork(new KryoNetNetwork());
+				serializer.initKryo();
+				postProcessor.postProcessAfterInitialization(serializer, "storageWriterPerfTest");
+				return serializer;
+			}
+		};
+
+		storageManager = new StorageManager() {
+			@Override
+			public Path getStoragePath(IStorageData storageData) {
+				return storageFolder.resolve(storageData.getId());
+			}
+
+			@Override
+			protected Path getDefaultStorageDirPath() {
+				return storageFolder;
+			}
+
+			@Override
+			public boolean canWriteMore() {
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Creates the new writer, as writer can not be used after the closing.
+	 */
+	@Setup(Level.Invocation)
+	public void prepareWriter() throws Exception {
+		StreamProvider streamProvider = new StreamProvider() {
+			@Override
+			protected ExtendedByteBufferOutputStream createExtendedByteBufferOutputStream() {
+				ExtendedByteBufferOutputStream stream = new ExtendedByteBufferOutputStream();
+				inject(stream, "byteBufferProvider", byteBufferProvider);
+				return stream;
+			}
+
+			@Override
+			protected SocketExtendedByteBufferInputStream createSocketExtendedByteBufferInputStream() {
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		WritingChannelManager writingChannelManager = new WritingChannelManager();
+		inject(writingChannelManager, "log", LoggerFactory.getLogger(WritingChannelManager.class));
+		writingChannelManager.setExecutorService(ioExecutorService);
+
+		StorageIndexingTreeHandler indexingTreeHandler = new StorageIndexingTreeHandler();
+		inject(indexingTreeHandler, "log", LoggerFactory.getLogger(StorageIndexingTreeHandler.class));
+		inject(indexingTreeHandler, "executorService", scheduledExecutorService);
+		inject(indexingTreeHandler, "objectSizes", new ObjectSizes64Bits());
+		inject(indexingTreeHandler, "maximumIndexingTreeSize", 3L * 1024 * 1024);
+		inject(indexingTreeHandler, "storageIndexTreeProvider", new StorageIndexTreeProvider<DefaultData>() {
+			@Override
+			public IStorageTreeComponent<DefaultData> getStorageIndexingTree() {
+				try {
+					return new StorageRootBranchFactory().getObject();
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+
+		storageWriter = new StorageWriter();
+		inject(storageWriter, "log", LoggerFactory.getLogger(StorageWriter.class));
+		inject(storageWriter, "storageManager", storageManager);
+		inject(storageWriter, "indexingTreeHandler", indexingTreeHandler);
+		inject(storageWriter, "writingChannelManager", writingChannelManager);
+		inject(storageWriter, "serializationManagerProvider", serializationManagerProvider);
+		inject(storageWriter, "writingExecutorService", new ScheduledThreadPoolExecutor(3));
+		inject(storageWriter, "scheduledExecutorService", scheduledExecutorService);
+		inject(storageWriter, "streamProvider", streamProvider);
+		inject(storageWriter, "writeDataProcessors", Collections.<AbstractWriteDataProcessor> emptyList());
+		inject(storageWriter, "writeBatchSize", writeBatchSize);
+		storageWriter.postConstruct();
+
+		StorageData storageData = new StorageData();
+		storageData.setId(String.valueOf(System.nanoTime()));
+		storageWriter.prepareForWrite(storageData);
+	}
+
+	/**
+	 * Clean the written storages.
+	 */
+	@TearDown(Level.Trial)
+	public void cleanUp() throws Exception {
+		ioExecutorService.shutdownNow();
+		scheduledExecutorService.shutdownNow();
+		Files.walkFileTree(storageFolder, new DeleteFileVisitor());
+	}
+
+	@Benchmark
+	public void copyBuffer() {
+		storageWriter.process(bufferData, null);
+		storageWriter.closeStorageWriter();
+	}
+
+	/**
+	 * Sets the field that would be otherwise injected by Spring.
+	 *
+	 * @param target
+	 *            Object to set field on.
+	 * @param fieldName
+	 *            Name of the field.
+	 * @param value
+	 *            Value to set.
+	 */
+	private static void inject(Object target, String fieldName, Object value) {
+		Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+		ReflectionUtils.makeAccessible(field);
+		ReflectionUtils.setField(field, target, value);
+	}
+}
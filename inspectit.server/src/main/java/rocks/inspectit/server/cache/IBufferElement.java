@@ -42,6 +42,17 @@ public interface IBufferElement<E> {
 	 */
 	void calculateAndSetBufferElementSize(IObjectSizes objectSizes);
 
+	/**
+	 * Calculate the size of the whole buffer element with the already known size of its object
+	 * and sets it.
+	 *
+	 * @param objectSizes
+	 *            A proper instance of {@link IObjectSizes} that correspond to the JVM.
+	 * @param objectSize
+	 *            Size of the object held by the element in bytes.
+	 */
+	void calculateAndSetBufferElementSize(IObjectSizes objectSizes, long objectSize);
+
 	/**
 	 * Returns the next buffer element.
 	 *
@@ -0,0 +1,288 @@
+package rocks.inspectit.server.cache.impl;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.IAggregatedData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+
+/**
+ * Continuously maintained aggregation of the elements of one type in the buffer. The elements are
+ * aggregated when they are processed into groups per platform, grouping key and time bucket. The
+ * grouping aggregator defines the finest grouping, thus the groups can be aggregated again with
+ * any coarser aggregator at query time, which costs the number of groups and not the number of
+ * elements.
+ * <p>
+ * The buckets are expired in step with the buffer eviction: every bucket that ends before the
+ * oldest element still in the buffer is removed and elements older than the first bucket are not
+ * aggregated any more. The elements evicted before their bucket expires stay in the aggregation
+ * until it does. The time range before the first bucket and the parts of the queried range that
+ * do not cover complete buckets have to be answered from the buffer.
+ *
+ * @author agent
+ *
+ * @param <E>
+ *            Type of the elements.
+ */
+public class AggregationRollup<E extends DefaultData> {
+
+	/**
+	 * Aggregator that defines the groups.
+	 */
+	private final IAggregator<E> groupingAggregator;
+
+	/**
+	 * Classes of the elements that are aggregated.
+	 */
+	private final Collection<Class<?>> objectClasses;
+
+	/**
+	 * Length of one bucket in milliseconds.
+	 */
+	private final long bucketLength;
+
+	/**
+	 * Buckets by the start time.
+	 */
+	private final ConcurrentNavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+
+	/**
+	 * Lock, expiring requires the write lock, adding and querying the read lock.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Start of the first bucket that can hold elements. Elements before are not aggregated.
+	 */
+	private volatile long coverageStart;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param groupingAggregator
+	 *            Aggregator that defines the groups.
+	 * @param objectClasses
+	 *            Classes of the elements that are aggregated.
+	 * @param bucketLength
+	 *            Length of one bucket in milliseconds.
+	 */
+	public AggregationRollup(IAggregator<E> groupingAggregator, Collection<Class<?>> objectClasses, long bucketLength) {
+		if (bucketLength <= 0) {
+			throw new IllegalArgumentException("Bucket length must be positive.");
+		}
+		this.groupingAggregator = groupingAggregator;
+		this.objectClasses = new ArrayList<>(objectClasses);
+		this.bucketLength = bucketLength;
+	}
+
+	/**
+	 * If the element is aggregated by this rollup.
+	 *
+	 * @param defaultData
+	 *            Element.
+	 * @return If the element is aggregated by this rollup.
+	 */
+	public boolean isRolledUp(DefaultData defaultData) {
+		return (null != defaultData) && objectClasses.contains(defaultData.getClass());
+	}
+
+	/**
+	 * Adds the element to the group of its bucket. Elements older than the first bucket are
+	 * ignored.
+	 *
+	 * @param element
+	 *            Element to add.
+	 * @return <code>true</code> if the element was aggregated.
+	 */
+	public boolean add(E element) {
+		Timestamp timeStamp = element.getTimeStamp();
+		if (null == timeStamp) {
+			return false;
+		}
+
+		long bucketStart = getBucketStart(timeStamp.getTime());
+		lock.readLock().lock();
+		try {
+			if (bucketStart < coverageStart) {
+				return false;
+			}
+
+			Bucket bucket = buckets.get(bucketStart);
+			if (null == bucket) {
+				Bucket created = new Bucket();
+				bucket = buckets.putIfAbsent(bucketStart, created);
+				if (null == bucket) {
+					bucket = created;
+				}
+			}
+
+			Object key = Arrays.asList(element.getPlatformIdent(), groupingAggregator.getAggregationKey(element));
+			synchronized (bucket) {
+				IAggregatedData<E> group = bucket.groups.get(key);
+				if (null == group) {
+					group = groupingAggregator.getClone(element);
+					group.getData().setTimeStamp(new Timestamp(bucketStart));
+					bucket.groups.put(key, group);
+				}
+				groupingAggregator.aggregate(group, element);
+			}
+			return true;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Passes the groups of all buckets that are completely in the interval of the query and comply
+	 * with the query to the aggregation performer. The returned interval is always bucket aligned
+	 * and any remaining part of the queried interval before or after it is at least two
+	 * milliseconds long, so that it can be queried with the inclusive from and to dates.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param aggregationPerformer
+	 *            Performer to pass the groups to.
+	 * @return Covered interval as the inclusive start and the exclusive end, where end is
+	 *         {@link Long#MAX_VALUE} if the interval is open. <code>null</code> if no bucket is
+	 *         completely in the interval of the query and nothing was passed.
+	 */
+	public long[] aggregate(IIndexQuery query, AggregationPerformer<E> aggregationPerformer) {
+		Timestamp fromDate = query.isIntervalSet() ? query.getFromDate() : null;
+		Timestamp toDate = query.isIntervalSet() ? query.getToDate() : null;
+
+		lock.readLock().lock();
+		try {
+			long lower = coverageStart;
+			if (null != fromDate) {
+				long from = fromDate.getTime();
+				lower = Math.max(lower, getBucketStart(from + bucketLength - 1));
+				if ((lower - from) == 1) {
+					lower += bucketLength;
+				}
+			}
+			long upper = Long.MAX_VALUE;
+			if (null != toDate) {
+				long to = toDate.getTime();
+				upper = getBucketStart(to + 1);
+				if (upper == to) {
+					upper -= bucketLength;
+				}
+			}
+			if (upper <= lower) {
+				return null;
+			}
+
+			for (Bucket bucket : buckets.subMap(lower, upper).values()) {
+				synchronized (bucket) {
+					for (IAggregatedData<E> group : bucket.groups.values()) {
+						E data = group.getData();
+						if (data.isQueryComplied(query)) {
+							aggregationPerformer.processElement(data);
+						}
+					}
+				}
+			}
+			return new long[] { lower, upper };
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all buckets that end before the given time, which should be the time of the oldest
+	 * element still in the buffer.
+	 *
+	 * @param oldestTime
+	 *            Time of the oldest element in milliseconds.
+	 */
+	public void expire(long oldestTime) {
+		long bucketStart = getBucketStart(oldestTime);
+		if (bucketStart <= coverageStart) {
+			return;
+		}
+
+		lock.writeLock().lock();
+		try {
+			if (bucketStart > coverageStart) {
+				coverageStart = bucketStart;
+				buckets.headMap(bucketStart).clear();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all buckets.
+	 */
+	public void clearAll() {
+		lock.writeLock().lock();
+		try {
+			buckets.clear();
+			coverageStart = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of groups in all buckets.
+	 *
+	 * @return Number of groups.
+	 */
+	public long getGroupCount() {
+		long count = 0;
+		for (Bucket bucket : buckets.values()) {
+			synchronized (bucket) {
+				count += bucket.groups.size();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets {@link #coverageStart}.
+	 *
+	 * @return {@link #coverageStart}
+	 */
+	public long getCoverageStart() {
+		return coverageStart;
+	}
+
+	/**
+	 * Returns the start of the bucket the time belongs to.
+	 *
+	 * @param time
+	 *            Time in milliseconds.
+	 * @return Start of the bucket.
+	 */
+	private long getBucketStart(long time) {
+		return time - (((time % bucketLength) + bucketLength) % bucketLength);
+	}
+
+	/**
+	 * One time bucket. The groups must be accessed only when holding the bucket lock.
+	 *
+	 * @author agent
+	 *
+	 */
+	private class Bucket {
+
+		/**
+		 * Groups by the platform and the grouping key.
+		 */
+		private final Map<Object, IAggregatedData<E>> groups = new HashMap<>();
+
+	}
+}
@@ -0,0 +1,215 @@
+package rocks.inspectit.server.cache.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.IAggregatedData;
+import rocks.inspectit.shared.all.communication.data.AggregatedHttpTimerData;
+import rocks.inspectit.shared.all.communication.data.AggregatedSqlStatementData;
+import rocks.inspectit.shared.all.communication.data.AggregatedTimerData;
+import rocks.inspectit.shared.all.communication.data.HttpTimerData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.indexing.aggregation.Aggregators;
+import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.HttpTimerDataAggregator;
+
+/**
+ * Holds the {@link AggregationRollup}s of the timer, SQL and HTTP timer data in the buffer. The
+ * data is added by the processors when it is passed to the buffer or to the indexing tree and the
+ * rollups are expired when the buffer evicts elements. The buffer DAOs get the rollup that can
+ * answer the aggregation of their aggregator.
+ * <p>
+ * There is one rollup per data type with the finest grouping used by any of the aggregators of that
+ * type: the timer data is grouped by method, the SQL statements by the statement and its
+ * parameters and the HTTP timer data by the URI, tag and request method.
+ *
+ * @author agent
+ *
+ */
+@Component
+public class AggregationRollups {
+
+	/**
+	 * If rollups are enabled.
+	 */
+	@Value("${buffer.rollupsEnabled}")
+	boolean enabled;
+
+	/**
+	 * Length of one rollup bucket in milliseconds.
+	 */
+	@Value("${buffer.rollupBucketLength}")
+	long bucketLength;
+
+	/**
+	 * All rollups.
+	 */
+	private List<AggregationRollup<?>> rollups = Collections.emptyList();
+
+	/**
+	 * Rollups by the aggregators they can answer.
+	 */
+	private Map<IAggregator<?>, AggregationRollup<?>> rollupsByAggregator = Collections.emptyMap();
+
+	/**
+	 * Adds the element to the rollup of its type.
+	 *
+	 * @param defaultData
+	 *            Element to add.
+	 */
+	@SuppressWarnings("unchecked")
+	public void add(DefaultData defaultData) {
+		for (AggregationRollup<?> rollup : rollups) {
+			if (rollup.isRolledUp(defaultData)) {
+				((AggregationRollup<DefaultData>) rollup).add(defaultData);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * If the element is added to any of the rollups.
+	 *
+	 * @param defaultData
+	 *            Element.
+	 * @return If the element is added to any of the rollups.
+	 */
+	public boolean isRolledUp(DefaultData defaultData) {
+		for (AggregationRollup<?> rollup : rollups) {
+			if (rollup.isRolledUp(defaultData)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the rollup that can answer the aggregation with the given aggregator.
+	 *
+	 * @param <E>
+	 *            Type of the elements.
+	 * @param aggregator
+	 *            Aggregator.
+	 * @return Rollup or <code>null</code> if there is none or rollups are not enabled.
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends DefaultData> AggregationRollup<E> getRollup(IAggregator<E> aggregator) {
+		return (AggregationRollup<E>) rollupsByAggregator.get(aggregator);
+	}
+
+	/**
+	 * Expires the buckets of all rollups that end before the given time.
+	 *
+	 * @param oldestTime
+	 *            Time of the oldest element in the buffer in milliseconds.
+	 */
+	public void expire(long oldestTime) {
+		for (AggregationRollup<?> rollup : rollups) {
+			rollup.expire(oldestTime);
+		}
+	}
+
+	/**
+	 * Clears all rollups.
+	 */
+	public void clearAll() {
+		for (AggregationRollup<?> rollup : rollups) {
+			rollup.clearAll();
+		}
+	}
+
+	/**
+	 * Gets {@link #enabled}.
+	 *
+	 * @return {@link #enabled}
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Creates the rollups if they are enabled.
+	 */
+	@PostConstruct
+	public void postConstruct() {
+		if (!enabled) {
+			return;
+		}
+
+		AggregationRollup<TimerData> timerDataRollup = new AggregationRollup<>(Aggregators.TIMER_DATA_AGGREGATOR,
+				Arrays.<Class<?>> asList(TimerData.class, AggregatedTimerData.class), bucketLength);
+		AggregationRollup<SqlStatementData> sqlStatementDataRollup = new AggregationRollup<>(Aggregators.SQL_STATEMENT_DATA_PARAMETER_AGGREGATOR,
+				Arrays.<Class<?>> asList(SqlStatementData.class, AggregatedSqlStatementData.class), bucketLength);
+		AggregationRollup<HttpTimerData> httpTimerDataRollup = new AggregationRollup<>(new HttpTimerDataRollupAggregator(),
+				Arrays.<Class<?>> asList(HttpTimerData.class, AggregatedHttpTimerData.class), bucketLength);
+
+		rollups = new ArrayList<>();
+		rollups.add(timerDataRollup);
+		rollups.add(sqlStatementDataRollup);
+		rollups.add(httpTimerDataRollup);
+
+		rollupsByAggregator = new HashMap<>();
+		rollupsByAggregator.put(Aggregators.TIMER_DATA_AGGREGATOR, timerDataRollup);
+		rollupsByAggregator.put(Aggregators.SQL_STATEMENT_DATA_AGGREGATOR, sqlStatementDataRollup);
+		rollupsByAggregator.put(Aggregators.SQL_STATEMENT_DATA_PARAMETER_AGGREGATOR, sqlStatementDataRollup);
+		for (boolean uriBased : new boolean[] { true, false }) {
+			for (boolean includeRequestMethod : new boolean[] { true, false }) {
+				rollupsByAggregator.put(new HttpTimerDataAggregator(uriBased, includeRequestMethod), httpTimerDataRollup);
+			}
+		}
+	}
+
+	/**
+	 * Aggregator grouping the {@link HttpTimerData} by the URI, tag and request method, so that the
+	 * groups can be aggregated by every {@link HttpTimerDataAggregator}.
+	 *
+	 * @author agent
+	 *
+	 */
+	static class HttpTimerDataRollupAggregator implements IAggregator<HttpTimerData> {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void aggregate(IAggregatedData<HttpTimerData> aggregatedObject, HttpTimerData objectToAdd) {
+			aggregatedObject.aggregate(objectToAdd);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public IAggregatedData<HttpTimerData> getClone(HttpTimerData httpData) {
+			AggregatedHttpTimerData clone = new AggregatedHttpTimerData();
+			clone.setPlatformIdent(httpData.getPlatformIdent());
+			clone.setSensorTypeIdent(httpData.getSensorTypeIdent());
+			clone.setMethodIdent(httpData.getMethodIdent());
+			clone.setCharting(httpData.isCharting());
+			clone.getHttpInfo().setUri(httpData.getHttpInfo().getUri());
+			clone.getHttpInfo().setInspectItTaggingHeaderValue(httpData.getHttpInfo().getInspectItTaggingHeaderValue());
+			clone.getHttpInfo().setRequestMethod(httpData.getHttpInfo().getRequestMethod());
+			return clone;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Object getAggregationKey(HttpTimerData httpData) {
+			return Arrays.asList(httpData.getHttpInfo().getUri(), httpData.getHttpInfo().getInspectItTaggingHeaderValue(), httpData.getHttpInfo().getRequestMethod());
+		}
+
+	}
+}
@@ -42,8 +42,10 @@ class AnalyzeBufferElementProcessor<E extends DefaultData> extends AbstractBuffe
 	public boolean process(IBufferElement<E> elementToProcess, IBufferElement<E> lastProcessedElement) {
 		// only thread that execute compare and set successfully can perform changes
 		if (lastProcessed.compareAndSet(lastProcessedElement, elementToProcess)) {
-			// perform analysis
-			elementToProcess.calculateAndSetBufferElementSize(atomicBuffer.objectSizes);
+			// perform analysis only if size was not already calculated on insertion
+			if (0 == elementToProcess.getBufferElementSize()) {
+				atomicBuffer.objectSizeEstimator.calculateAndSetBufferElementSize(elementToProcess);
+			}
 			elementToProcess.setBufferElementState(BufferElementState.ANALYZED);
 			atomicBuffer.addToCurrentSize(elementToProcess.getBufferElementSize(), true);
 			atomicBuffer.elementsAnalyzed.incrementAndGet();
@@ -1,6 +1,8 @@
 package rocks.inspectit.server.cache.impl;
 
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -21,6 +23,7 @@ import org.springframework.stereotype.Component;
 import rocks.inspectit.server.cache.IBuffer;
 import rocks.inspectit.server.cache.IBufferElement;
 import rocks.inspectit.server.cache.IBufferElement.BufferElementState;
+import rocks.inspectit.server.indexing.impl.TraceIndex;
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.cmr.property.spring.PropertyUpdate;
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -56,12 +59,36 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 	@Autowired
 	IObjectSizes objectSizes;
 
+	/**
+	 * Estimator for the sizes of the elements that were not calculated on insertion.
+	 */
+	@Autowired
+	ObjectSizeEstimator objectSizeEstimator;
+
 	/**
 	 * Indexing tree where the elements will be indexed.
 	 */
 	@Autowired
 	IBufferTreeComponent<E> indexingTree;
 
+	/**
+	 * Secondary index of the elements by the trace and span id.
+	 */
+	@Autowired
+	TraceIndex traceIndex;
+
+	/**
+	 * Tier where the evicted elements are kept in the serialized form.
+	 */
+	@Autowired
+	SerializedBufferTier<E> serializedBufferTier;
+
+	/**
+	 * Rollups of the aggregated data that are expired with the eviction.
+	 */
+	@Autowired
+	AggregationRollups aggregationRollups;
+
 	/**
 	 * Atomic reference to the first object.
 	 */
@@ -340,6 +367,29 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 					// add evicted elements to the total count
 					elementsEvicted.addAndGet(elementsInFragment);
 
+					// evicted elements must not be found in the trace index any more, but are
+					// passed to the serialized tier if one is active
+					List<E> evictedObjects = serializedBufferTier.isEnabled() ? new ArrayList<E>(elementsInFragment) : null;
+					IBufferElement<E> evictedElement = currentLastElement;
+					E lastEvictedObject = null;
+					while (evictedElement != newLastElement) {
+						lastEvictedObject = evictedElement.getObject();
+						traceIndex.remove(lastEvictedObject);
+						if (null != evictedObjects) {
+							evictedObjects.add(lastEvictedObject);
+						}
+						evictedElement = evictedElement.getNextElement();
+					}
+					if (null != evictedObjects) {
+						serializedBufferTier.addAll(evictedObjects);
+					}
+
+					// rollups are expired up to the oldest element still in the buffer
+					E oldestObject = emptyBufferElement.equals(newLastElement) ? lastEvictedObject : newLastElement.getObject();
+					if ((null != oldestObject) && (null != oldestObject.getTimeStamp())) {
+						aggregationRollups.expire(oldestObject.getTimeStamp().getTime());
+					}
+
 					// if the last is now pointing to the empty buffer element, it means that we
 					// have
 					// evicted all elements, so first should also point to empty buffer element
@@ -508,6 +558,10 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 			elementsIndexed.set(0);
 			elementsEvicted.set(0);
 			indexingTree.clearAll();
+			traceIndex.clearAll();
+			serializedBufferTier.clearAll();
+			aggregationRollups.clearAll();
+			objectSizeEstimator.clear();
 			indexingTreeSize.set(0);
 			dataAddedInBytes.set(0);
 			dataRemovedInBytes.set(0);
@@ -665,6 +719,21 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 
 		msg.append("\n-Elements evicted: ");
 		msg.append(NumberFormat.getInstance().format(elementsEvicted.get()));
+		if (objectSizeEstimator.isSamplingEnabled()) {
+			msg.append("\n-Size estimation mean error: ");
+			msg.append(NumberFormat.getInstance().format(objectSizeEstimator.getMeanRelativeError() * 100));
+			msg.append("%, max error: ");
+			msg.append(NumberFormat.getInstance().format(objectSizeEstimator.getMaxRelativeError() * 100));
+			msg.append("% (");
+			msg.append(NumberFormat.getInstance().format(objectSizeEstimator.getElementsVerified()));
+			msg.append(" elements verified)");
+		}
+		if (serializedBufferTier.isEnabled()) {
+			msg.append("\n-Serialized tier elements: ");
+			msg.append(NumberFormat.getInstance().format(serializedBufferTier.getElementCount()));
+			msg.append("\n-Serialized tier capacity (bytes): ");
+			msg.append(NumberFormat.getInstance().format(serializedBufferTier.getOccupiedCapacity()));
+		}
 		msg.append('\n');
 		return msg.toString();
 	}
@@ -709,6 +778,10 @@ public class AtomicBuffer<E extends DefaultData> implements IBuffer<E> {
 		public void calculateAndSetBufferElementSize(IObjectSizes objectSizes) {
 		}
 
+		@Override
+		public void calculateAndSetBufferElementSize(IObjectSizes objectSizes, long objectSize) {
+		}
+
 		@Override
 		public IBufferElement<E> getNextElement() {
 			return null;
@@ -90,10 +90,20 @@ public class BufferElement<E extends DefaultData> implements IBufferElement<E> {
 	 */
 	@Override
 	public void calculateAndSetBufferElementSize(IObjectSizes objectSizes) {
-		long size = objectSizes.getSizeOfObjectHeader() + objectSizes.getPrimitiveTypesSize(2, 0, 0, 0, 1, 0);
+		long objectSize = 0;
 		if (null != object) {
-			size += object.getObjectSize(objectSizes);
+			objectSize = object.getObjectSize(objectSizes);
 		}
+		calculateAndSetBufferElementSize(objectSizes, objectSize);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void calculateAndSetBufferElementSize(IObjectSizes objectSizes, long objectSize) {
+		long size = objectSizes.getSizeOfObjectHeader() + objectSizes.getPrimitiveTypesSize(2, 0, 0, 0, 1, 0);
+		size += objectSize;
 		size += size * objectSizes.getObjectSecurityExpansionRate();
 		bufferElementSize = size;
 	}
@@ -12,7 +12,7 @@ import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
 
 /**
  * Index processor. Performs indexing of the elements, update of indexing tree size and cleaning the
- * indexing tree.
+ * indexing tree. Elements are also put to the trace index of the buffer.
  *
  * @param <E>
  *            Type of data to process.
@@ -60,6 +60,7 @@ class IndexBufferElementProcessor<E extends DefaultData> extends AbstractBufferE
 					}
 
 					atomicBuffer.indexingTree.cleanWithRunnable(atomicBuffer.indexingTreeCleaningExecutorService);
+					atomicBuffer.traceIndex.clean();
 
 					if (atomicBuffer.log.isDebugEnabled()) {
 						atomicBuffer.log.debug("Indexing tree cleaning duration: " + Converter.nanoToMilliseconds(System.nanoTime() - time));
@@ -100,6 +101,7 @@ class IndexBufferElementProcessor<E extends DefaultData> extends AbstractBufferE
 			try {
 				// index element
 				atomicBuffer.indexingTree.put(elementToProcess.getObject());
+				atomicBuffer.traceIndex.put(elementToProcess.getObject());
 				elementToProcess.setBufferElementState(BufferElementState.INDEXED);
 
 				// increase number of indexed elements, and perform calculation of the
@@ -117,6 +119,7 @@ class IndexBufferElementProcessor<E extends DefaultData> extends AbstractBufferE
 							// calculation of new size has to be repeated if old size
 							// compare and set fails
 							long newSize = atomicBuffer.indexingTree.getComponentSize(atomicBuffer.objectSizes);
+							newSize += atomicBuffer.traceIndex.getComponentSize(atomicBuffer.objectSizes);
 							newSize += newSize * atomicBuffer.objectSizes.getObjectSecurityExpansionRate();
 							long oldSize = atomicBuffer.indexingTreeSize.get();
 							if (atomicBuffer.indexingTreeSize.compareAndSet(oldSize, newSize)) {
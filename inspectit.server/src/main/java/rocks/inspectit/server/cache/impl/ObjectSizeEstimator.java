@@ -0,0 +1,354 @@
+package rocks.inspectit.server.cache.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.server.cache.IBufferElement;
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+
+/**
+ * Calculates the sizes of the buffer elements. The calculation is performed only once per element,
+ * when the element is inserted to the buffer, thus the analyze processor of the buffer only needs
+ * to account the already known size.
+ * <p>
+ * By default the size is calculated exactly by walking the complete object graph with
+ * {@link DefaultData#getObjectSize(IObjectSizes)}. When sampling is enabled the size is estimated:
+ * <ul>
+ * <li>For the invocation sequences only every n-th nested sequence (n being the sampling rate) is
+ * walked and the size of the others is extrapolated from the walked siblings.
+ * <li>For other elements the size is kept in the per class shape cache. Once enough elements of the
+ * same class had exactly the same size, the cached size is used without walking the element.
+ * </ul>
+ * Every {@value #VERIFICATION_INTERVAL}th estimated element is additionally walked exactly and the
+ * error between the estimated and the exact size is recorded, so that the error of the sampling can
+ * be observed.
+ *
+ * @author agent
+ *
+ */
+@Component
+public class ObjectSizeEstimator {
+
+	/**
+	 * Every n-th estimated element is verified against the exact size.
+	 */
+	static final int VERIFICATION_INTERVAL = 100;
+
+	/**
+	 * Amount of the elements of the same class that must have the same size before the class
+	 * shape is considered stable.
+	 */
+	static final int STABLE_SHAPE_OBSERVATIONS = 64;
+
+	/**
+	 * Correct interface for calculating object sizes.
+	 */
+	@Autowired
+	IObjectSizes objectSizes;
+
+	/**
+	 * If the sampling is enabled.
+	 */
+	@Value("${buffer.sizeSamplingEnabled}")
+	boolean samplingEnabled;
+
+	/**
+	 * Sampling rate, only every n-th nested invocation sequence is walked.
+	 */
+	@Value("${buffer.sizeSamplingRate}")
+	int samplingRate;
+
+	/**
+	 * Shapes of the classes.
+	 */
+	private final ConcurrentMap<Class<?>, ClassShape> shapes = new ConcurrentHashMap<>();
+
+	/**
+	 * Amount of estimated elements.
+	 */
+	private final AtomicLong elementsEstimated = new AtomicLong();
+
+	/**
+	 * Amount of elements verified against the exact size.
+	 */
+	private long elementsVerified;
+
+	/**
+	 * Sum of the exact sizes of the verified elements.
+	 */
+	private long verifiedExactSize;
+
+	/**
+	 * Sum of the absolute errors of the verified elements.
+	 */
+	private long verifiedAbsoluteError;
+
+	/**
+	 * Maximum relative error of a verified element.
+	 */
+	private double maxRelativeError;
+
+	/**
+	 * Calculates the size of the object in the buffer element and sets the size of the whole
+	 * element.
+	 *
+	 * @param bufferElement
+	 *            Buffer element.
+	 */
+	public void calculateAndSetBufferElementSize(IBufferElement<? extends DefaultData> bufferElement) {
+		DefaultData object = bufferElement.getObject();
+		long objectSize = (null != object) ? getObjectSize(object) : 0L;
+		bufferElement.calculateAndSetBufferElementSize(objectSizes, objectSize);
+	}
+
+	/**
+	 * Returns the size of the object. The size is exact when the sampling is not enabled, otherwise
+	 * it's an estimation.
+	 *
+	 * @param object
+	 *            Object to calculate size for.
+	 * @return Size of the object in bytes.
+	 */
+	public long getObjectSize(DefaultData object) {
+		if (!samplingEnabled) {
+			return object.getObjectSize(objectSizes);
+		}
+
+		long estimatedSize;
+		ClassShape shape = null;
+		if (object instanceof InvocationSequenceData) {
+			estimatedSize = estimateInvocationSize((InvocationSequenceData) object);
+		} else {
+			shape = getShape(object.getClass());
+			if (shape.isStable()) {
+				estimatedSize = shape.getSize();
+			} else {
+				long exactSize = object.getObjectSize(objectSizes);
+				shape.observe(exactSize);
+				return exactSize;
+			}
+		}
+
+		if (0 == (elementsEstimated.incrementAndGet() % VERIFICATION_INTERVAL)) {
+			long exactSize = object.getObjectSize(objectSizes);
+			recordError(estimatedSize, exactSize);
+			if (null != shape) {
+				shape.observe(exactSize);
+			}
+			return exactSize;
+		}
+		return estimatedSize;
+	}
+
+	/**
+	 * Estimates the size of the invocation sequence by walking only every n-th nested sequence.
+	 * The walk is iterative, so that deep invocation trees don't exhaust the stack.
+	 *
+	 * @param invocation
+	 *            Root invocation.
+	 * @return Estimated and aligned size of the invocation in bytes.
+	 */
+	long estimateInvocationSize(InvocationSequenceData invocation) {
+		// nodes in the visiting order, parents always before their children
+		List<InvocationSequenceData> nodes = new ArrayList<>();
+		// multiplier of each node is the amount of siblings it represents
+		List<Double> multipliers = new ArrayList<>();
+		List<Integer> parents = new ArrayList<>();
+		nodes.add(invocation);
+		multipliers.add(Double.valueOf(1d));
+		parents.add(Integer.valueOf(-1));
+
+		for (int i = 0; i < nodes.size(); i++) {
+			List<InvocationSequenceData> nested = nodes.get(i).getNestedSequences();
+			if ((null == nested) || nested.isEmpty()) {
+				continue;
+			}
+			int count = nested.size();
+			int step = ((samplingRate > 1) && (count > samplingRate)) ? samplingRate : 1;
+			int walked = ((count - 1) / step) + 1;
+			Double multiplier = Double.valueOf((double) count / walked);
+			for (int j = 0; j < count; j += step) {
+				nodes.add(nested.get(j));
+				multipliers.add(multiplier);
+				parents.add(Integer.valueOf(i));
+			}
+		}
+
+		// sum up from the leafs to the root
+		double[] sizes = new double[nodes.size()];
+		for (int i = nodes.size() - 1; i >= 0; i--) {
+			// same as in the exact calculation, only the root is calculated with the alignment
+			double size = sizes[i] + nodes.get(i).getShallowObjectSize(objectSizes, 0 == i);
+			size = objectSizes.alignTo8Bytes((long) size);
+			int parent = parents.get(i).intValue();
+			if (parent >= 0) {
+				sizes[parent] += size * multipliers.get(i).doubleValue();
+			} else {
+				sizes[i] = size;
+			}
+		}
+		return objectSizes.alignTo8Bytes((long) sizes[0]);
+	}
+
+	/**
+	 * Returns the shape of the class, creating one if needed.
+	 *
+	 * @param clazz
+	 *            Class.
+	 * @return {@link ClassShape}
+	 */
+	private ClassShape getShape(Class<?> clazz) {
+		ClassShape shape = shapes.get(clazz);
+		if (null == shape) {
+			shape = new ClassShape();
+			ClassShape existing = shapes.putIfAbsent(clazz, shape);
+			if (null != existing) {
+				shape = existing;
+			}
+		}
+		return shape;
+	}
+
+	/**
+	 * Records the error of the estimation.
+	 *
+	 * @param estimatedSize
+	 *            Estimated size.
+	 * @param exactSize
+	 *            Exact size.
+	 */
+	private synchronized void recordError(long estimatedSize, long exactSize) {
+		long absoluteError = Math.abs(estimatedSize - exactSize);
+		elementsVerified++;
+		verifiedExactSize += exactSize;
+		verifiedAbsoluteError += absoluteError;
+		if (exactSize > 0) {
+			maxRelativeError = Math.max(maxRelativeError, (double) absoluteError / exactSize);
+		}
+	}
+
+	/**
+	 * Clears the class shapes and the recorded estimation errors.
+	 */
+	public synchronized void clear() {
+		shapes.clear();
+		elementsEstimated.set(0);
+		elementsVerified = 0;
+		verifiedExactSize = 0;
+		verifiedAbsoluteError = 0;
+		maxRelativeError = 0;
+	}
+
+	/**
+	 * Returns the mean relative error of the verified estimations, calculated as the total absolute
+	 * error divided by the total exact size.
+	 *
+	 * @return Mean relative error or <code>0</code> if nothing has been verified yet.
+	 */
+	public synchronized double getMeanRelativeError() {
+		if (0 == verifiedExactSize) {
+			return 0d;
+		}
+		return (double) verifiedAbsoluteError / verifiedExactSize;
+	}
+
+	/**
+	 * Gets {@link #maxRelativeError}.
+	 *
+	 * @return {@link #maxRelativeError}
+	 */
+	public synchronized double getMaxRelativeError() {
+		return maxRelativeError;
+	}
+
+	/**
+	 * Gets {@link #elementsVerified}.
+	 *
+	 * @return {@link #elementsVerified}
+	 */
+	public synchronized long getElementsVerified() {
+		return elementsVerified;
+	}
+
+	/**
+	 * Gets {@link #samplingEnabled}.
+	 *
+	 * @return {@link #samplingEnabled}
+	 */
+	public boolean isSamplingEnabled() {
+		return samplingEnabled;
+	}
+
+	/**
+	 * Shape of one class. Holds the size of the last observed element and the amount of observed
+	 * elements of the same size.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class ClassShape {
+
+		/**
+		 * Last observed size.
+		 */
+		private long size;
+
+		/**
+		 * Amount of observed elements with the same size.
+		 */
+		private int observations;
+
+		/**
+		 * If the shape is stable.
+		 */
+		private volatile boolean stable;
+
+		/**
+		 * Observes the exact size of one element. The shape becomes stable after
+		 * {@link ObjectSizeEstimator#STABLE_SHAPE_OBSERVATIONS} elements with the same size and
+		 * unstable again as soon as the different size is observed.
+		 *
+		 * @param exactSize
+		 *            Exact size of the element.
+		 */
+		synchronized void observe(long exactSize) {
+			if (exactSize == size) {
+				observations++;
+				if (observations >= STABLE_SHAPE_OBSERVATIONS) {
+					stable = true;
+				}
+			} else {
+				size = exactSize;
+				observations = 1;
+				stable = false;
+			}
+		}
+
+		/**
+		 * Gets {@link #size}.
+		 *
+		 * @return {@link #size}
+		 */
+		synchronized long getSize() {
+			return size;
+		}
+
+		/**
+		 * Gets {@link #stable}.
+		 *
+		 * @return {@link #stable}
+		 */
+		boolean isStable() {
+			return stable;
+		}
+	}
+}
@@ -0,0 +1,739 @@
+package rocks.inspectit.server.cache.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.all.serializer.ISerializer;
+import rocks.inspectit.shared.all.serializer.SerializationException;
+import rocks.inspectit.shared.all.serializer.provider.SerializationManagerProvider;
+import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.cs.communication.comparator.DefaultDataComparatorEnum;
+import rocks.inspectit.shared.cs.indexing.TopElementsCollector;
+
+/**
+ * Second tier of the buffer that keeps the elements evicted from the {@link AtomicBuffer} in the
+ * serialized form. Elements are serialized with Kryo into the direct byte buffers allocated by the
+ * tier itself, thus they don't occupy the heap nor the storage byte buffer pool. Every buffer forms
+ * one segment that holds the descriptors of the serialized elements (id, platform, sensor type,
+ * time-stamp and class) in primitive arrays. Queries are first checked against the descriptors and
+ * only matching elements are de-serialized.
+ * <p>
+ * Evicted elements are only handed over to the tier and serialized by the tier's own thread, so
+ * that the eviction is not slowed down by the serialization. Elements waiting for the
+ * serialization are included in the queries. If the serialization can not keep up, the handed over
+ * elements are dropped.
+ * <p>
+ * When the tier reaches its maximum size the oldest segment is emptied and reused, so that the
+ * tier always holds the latest evicted elements.
+ * <p>
+ * The tier is disabled by default.
+ *
+ * @author agent
+ *
+ * @param <E>
+ *            Type of the elements.
+ */
+@Component
+public class SerializedBufferTier<E extends DefaultData> {
+
+	/**
+	 * Initial capacity of the descriptor arrays in one segment.
+	 */
+	private static final int INITIAL_DESCRIPTORS_CAPACITY = 256;
+
+	/**
+	 * Initial size of the serialization output.
+	 */
+	private static final int INITIAL_OUTPUT_SIZE = 4096;
+
+	/**
+	 * Default capacity of one segment in bytes.
+	 */
+	private static final int DEFAULT_SEGMENT_CAPACITY = 1024 * 1024;
+
+	/**
+	 * Amount of evicted element lists that can wait for the serialization.
+	 */
+	private static final int QUEUE_CAPACITY = 16;
+
+	/** The logger of this class. */
+	@Log
+	Logger log;
+
+	/**
+	 * Serialization manager provider.
+	 */
+	@Autowired
+	SerializationManagerProvider serializationManagerProvider;
+
+	/**
+	 * If tier is enabled.
+	 */
+	@Value("${buffer.serializedTierEnabled}")
+	boolean enabled;
+
+	/**
+	 * Maximum size of the tier in bytes.
+	 */
+	@Value("${buffer.serializedTierMaxSize}")
+	long maxSize;
+
+	/**
+	 * Capacity of one segment in bytes.
+	 */
+	int segmentCapacity = DEFAULT_SEGMENT_CAPACITY;
+
+	/**
+	 * Evicted element lists waiting for the serialization.
+	 */
+	private final ArrayBlockingQueue<List<? extends E>> serializationQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+	/**
+	 * Released for every list added to the {@link #serializationQueue}.
+	 */
+	private final Semaphore serializationPermits = new Semaphore(0);
+
+	/**
+	 * Thread serializing the evicted elements.
+	 */
+	private Thread serializationThread;
+
+	/**
+	 * Segments from the oldest to the newest. Guarded by the {@link #lock}.
+	 */
+	private final Deque<Segment> segments = new ArrayDeque<>();
+
+	/**
+	 * Lock, adding requires the write lock, querying the read lock.
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Pool of serializers as they are not thread safe.
+	 */
+	private final Queue<ISerializer> serializers = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Output used when adding elements. Guarded by the write lock.
+	 */
+	private final Output output = new Output(INITIAL_OUTPUT_SIZE, -1);
+
+	/**
+	 * Total capacity of the acquired buffers. Guarded by the {@link #lock}.
+	 */
+	private long occupiedCapacity;
+
+	/**
+	 * Amount of elements in the tier. Guarded by the {@link #lock}.
+	 */
+	private long elementCount;
+
+	/**
+	 * Amount of elements that could not be added to the tier.
+	 */
+	private final AtomicLong elementsDropped = new AtomicLong();
+
+	/**
+	 * Hands over the elements for the serialization to the tier. Does not wait for the
+	 * serialization, the elements are dropped if too many elements are already waiting. Does
+	 * nothing if tier is disabled.
+	 *
+	 * @param elements
+	 *            Elements to add.
+	 */
+	public void addAll(List<? extends E> elements) {
+		if (!enabled || elements.isEmpty()) {
+			return;
+		}
+
+		if (serializationQueue.offer(elements)) {
+			serializationPermits.release();
+		} else {
+			elementsDropped.addAndGet(elements.size());
+		}
+	}
+
+	/**
+	 * Serializes all elements waiting in the {@link #serializationQueue}. Each list is serialized
+	 * and removed from the queue under the write lock, so that the queries always find the
+	 * elements either in the queue or in the segments.
+	 */
+	void serializeQueued() {
+		ISerializer serializer = borrowSerializer();
+		try {
+			while (true) {
+				lock.writeLock().lock();
+				try {
+					List<? extends E> elements = serializationQueue.poll();
+					if (null == elements) {
+						return;
+					}
+					for (E element : elements) {
+						add(element, serializer);
+					}
+				} finally {
+					lock.writeLock().unlock();
+				}
+			}
+		} finally {
+			serializers.offer(serializer);
+		}
+	}
+
+	/**
+	 * Returns the elements that comply with the query.
+	 *
+	 * @param query
+	 *            Query.
+	 * @return Elements that comply with the query. Empty list if tier is disabled.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<E> query(IIndexQuery query) {
+		if (!enabled) {
+			return Collections.emptyList();
+		}
+
+		List<E> result = new ArrayList<>();
+		ISerializer serializer = borrowSerializer();
+		lock.readLock().lock();
+		try {
+			for (List<? extends E> elements : serializationQueue) {
+				for (E element : elements) {
+					if (element.isQueryComplied(query)) {
+						result.add(element);
+					}
+				}
+			}
+			for (Segment segment : segments) {
+				for (int i = 0; i < segment.count; i++) {
+					if (segment.isCandidate(i, query)) {
+						E element = (E) deserialize(segment, i, serializer);
+						if ((null != element) && element.isQueryComplied(query)) {
+							result.add(element);
+						}
+					}
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+			serializers.offer(serializer);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the first elements in the comparator order that comply with the query. Only the
+	 * collected elements are kept, and if the comparator is one of the
+	 * {@link DefaultDataComparatorEnum}, elements that can not be collected any more are not
+	 * de-serialized.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order of elements.
+	 * @param limit
+	 *            Max amount of elements to return.
+	 * @return Elements that comply with the query sorted by the comparator. Empty list if tier is
+	 *         disabled.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		if (!enabled || (0 == limit)) {
+			return Collections.emptyList();
+		}
+
+		TopElementsCollector<E> collector = new TopElementsCollector<>(comparator, limit);
+		ISerializer serializer = borrowSerializer();
+		lock.readLock().lock();
+		try {
+			for (List<? extends E> elements : serializationQueue) {
+				for (E element : elements) {
+					if (element.isQueryComplied(query)) {
+						collector.offer(element);
+					}
+				}
+			}
+			for (Segment segment : segments) {
+				for (int i = 0; i < segment.count; i++) {
+					if (segment.isCandidate(i, query) && segment.isCollectable(i, comparator, collector.getLastIfLimitReached())) {
+						E element = (E) deserialize(segment, i, serializer);
+						if ((null != element) && element.isQueryComplied(query)) {
+							collector.offer(element);
+						}
+					}
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+			serializers.offer(serializer);
+		}
+		return collector.getResult();
+	}
+
+	/**
+	 * Returns the element with the given id.
+	 *
+	 * @param id
+	 *            Element id.
+	 * @return Element or <code>null</code> if element is not in the tier.
+	 */
+	@SuppressWarnings("unchecked")
+	public E get(long id) {
+		if (!enabled) {
+			return null;
+		}
+
+		ISerializer serializer = borrowSerializer();
+		lock.readLock().lock();
+		try {
+			for (List<? extends E> elements : serializationQueue) {
+				for (E element : elements) {
+					if (element.getId() == id) {
+						return element;
+					}
+				}
+			}
+			for (Segment segment : segments) {
+				for (int i = 0; i < segment.count; i++) {
+					if (segment.ids[i] == id) {
+						return (E) deserialize(segment, i, serializer);
+					}
+				}
+			}
+			return null;
+		} finally {
+			lock.readLock().unlock();
+			serializers.offer(serializer);
+		}
+	}
+
+	/**
+	 * Removes all elements and releases the segments.
+	 */
+	public void clearAll() {
+		lock.writeLock().lock();
+		try {
+			serializationQueue.clear();
+			segments.clear();
+			occupiedCapacity = 0;
+			elementCount = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds one element. Caller must hold the write lock.
+	 *
+	 * @param element
+	 *            Element to add.
+	 * @param serializer
+	 *            Serializer to use.
+	 */
+	private void add(E element, ISerializer serializer) {
+		output.clear();
+		try {
+			serializer.serialize(element, output);
+		} catch (SerializationException e) {
+			log.warn("Element " + element + " could not be serialized to the serialized buffer tier.", e);
+			elementsDropped.incrementAndGet();
+			return;
+		}
+
+		int length = output.position();
+		if (length > segmentCapacity) {
+			// would empty a segment without ever fitting in
+			log.warn("Element " + element + " is bigger than the segment capacity of the serialized buffer tier and will not be added.");
+			elementsDropped.incrementAndGet();
+			return;
+		}
+
+		Segment segment = segments.peekLast();
+		if ((null == segment) || (segment.buffer.remaining() < length)) {
+			segment = nextSegment();
+			if ((null == segment) || (segment.buffer.remaining() < length)) {
+				elementsDropped.incrementAndGet();
+				return;
+			}
+		}
+
+		int offset = segment.buffer.position();
+		segment.buffer.put(output.getBuffer(), 0, length);
+		segment.add(element, offset, length);
+		elementCount++;
+	}
+
+	/**
+	 * Provides the next empty segment. New buffer is allocated if the max size allows, otherwise
+	 * the oldest segment is emptied and reused. Caller must hold the write lock.
+	 *
+	 * @return Empty segment or <code>null</code> if none can be provided.
+	 */
+	private Segment nextSegment() {
+		Segment oldest = segments.peekFirst();
+		if ((null != oldest) && ((occupiedCapacity + segmentCapacity) > maxSize)) {
+			return recycleOldestSegment();
+		}
+
+		ByteBuffer buffer;
+		try {
+			buffer = ByteBuffer.allocateDirect(segmentCapacity);
+		} catch (OutOfMemoryError e) { // NOPMD
+			if (null == oldest) {
+				return null;
+			}
+			// direct memory of the JVM exhausted, don't grow any more
+			log.warn("Serialized buffer tier can not allocate more direct memory, tier size limited to " + occupiedCapacity + " bytes.", e);
+			maxSize = occupiedCapacity;
+			return recycleOldestSegment();
+		}
+
+		Segment segment = new Segment(buffer);
+		segments.addLast(segment);
+		occupiedCapacity += buffer.capacity();
+		return segment;
+	}
+
+	/**
+	 * Empties the oldest segment and moves it to the end. Caller must hold the write lock.
+	 *
+	 * @return Recycled segment.
+	 */
+	private Segment recycleOldestSegment() {
+		Segment segment = segments.pollFirst();
+		elementCount -= segment.count;
+		segment.clear();
+		segments.addLast(segment);
+		return segment;
+	}
+
+	/**
+	 * De-serializes the element at the given index in the segment.
+	 *
+	 * @param segment
+	 *            Segment.
+	 * @param index
+	 *            Index of the element in the segment.
+	 * @param serializer
+	 *            Serializer to use.
+	 * @return De-serialized element or <code>null</code> if de-serialization fails.
+	 */
+	private Object deserialize(Segment segment, int index, ISerializer serializer) {
+		byte[] bytes = new byte[segment.lengths[index]];
+		ByteBuffer buffer = segment.buffer.duplicate();
+		buffer.position(segment.offsets[index]);
+		buffer.get(bytes);
+		try {
+			return serializer.deserialize(new Input(bytes));
+		} catch (SerializationException e) {
+			log.warn("Element with id " + segment.ids[index] + " could not be de-serialized from the serialized buffer tier.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Borrows the serializer from the pool or creates a new one.
+	 *
+	 * @return Serializer. Must be offered back to the {@link #serializers}.
+	 */
+	private ISerializer borrowSerializer() {
+		ISerializer serializer = serializers.poll();
+		if (null == serializer) {
+			serializer = serializationManagerProvider.createSerializer();
+		}
+		return serializer;
+	}
+
+	/**
+	 * Starts the serialization thread if the tier is enabled.
+	 */
+	@PostConstruct
+	public void postConstruct() {
+		if (enabled) {
+			serializationThread = new SerializationThread();
+			serializationThread.start();
+		}
+	}
+
+	/**
+	 * Stops the serialization thread and removes all elements.
+	 */
+	@PreDestroy
+	public void preDestroy() {
+		if (null != serializationThread) {
+			serializationThread.interrupt();
+		}
+		clearAll();
+	}
+
+	/**
+	 * Gets {@link #enabled}.
+	 *
+	 * @return {@link #enabled}
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the amount of elements in the tier.
+	 *
+	 * @return Returns the amount of elements in the tier.
+	 */
+	public long getElementCount() {
+		lock.readLock().lock();
+		try {
+			return elementCount;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the total capacity of the buffers used by the tier.
+	 *
+	 * @return Returns the total capacity of the buffers used by the tier.
+	 */
+	public long getOccupiedCapacity() {
+		lock.readLock().lock();
+		try {
+			return occupiedCapacity;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets {@link #elementsDropped}.
+	 *
+	 * @return {@link #elementsDropped}
+	 */
+	public long getElementsDropped() {
+		return elementsDropped.get();
+	}
+
+	/**
+	 * Thread serializing the elements handed over to the tier.
+	 *
+	 * @author agent
+	 *
+	 */
+	private class SerializationThread extends Thread {
+
+		/**
+		 * Default constructor.
+		 */
+		SerializationThread() {
+			setName("serialized-buffer-tier-thread");
+			setDaemon(true);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			while (!isInterrupted()) {
+				try {
+					serializationPermits.acquire();
+				} catch (InterruptedException e) {
+					return;
+				}
+				serializationPermits.drainPermits();
+				serializeQueued();
+			}
+		}
+	}
+
+	/**
+	 * One segment of the tier. Holds the byte buffer with serialized elements and their
+	 * descriptors.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class Segment {
+
+		/**
+		 * Buffer holding the serialized elements.
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * Amount of elements in the segment.
+		 */
+		private int count;
+
+		/**
+		 * Element ids.
+		 */
+		private long[] ids = new long[INITIAL_DESCRIPTORS_CAPACITY];
+
+		/**
+		 * Element platform idents.
+		 */
+		private long[] platformIdents = new long[INITIAL_DESCRIPTORS_CAPACITY];
+
+		/**
+		 * Element sensor type idents.
+		 */
+		private long[] sensorTypeIdents = new long[INITIAL_DESCRIPTORS_CAPACITY];
+
+		/**
+		 * Element time-stamps in milliseconds.
+		 */
+		private long[] timestamps = new long[INITIAL_DESCRIPTORS_CAPACITY];
+
+		/**
+		 * Element classes.
+		 */
+		private Class<?>[] classes = new Class<?>[INITIAL_DESCRIPTORS_CAPACITY];
+
+		/**
+		 * Offsets of the serialized elements in the buffer.
+		 */
+		private int[] offsets = new int[INITIAL_DESCRIPTORS_CAPACITY];
+
+		/**
+		 * Lengths of the serialized elements in the buffer.
+		 */
+		private int[] lengths = new int[INITIAL_DESCRIPTORS_CAPACITY];
+
+		/**
+		 * @param buffer
+		 *            Buffer holding the serialized elements.
+		 */
+		Segment(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		/**
+		 * Adds the descriptor of the element.
+		 *
+		 * @param element
+		 *            Element.
+		 * @param offset
+		 *            Offset of the serialized element in the buffer.
+		 * @param length
+		 *            Length of the serialized element in the buffer.
+		 */
+		void add(DefaultData element, int offset, int length) {
+			if (count == ids.length) {
+				int newLength = ids.length * 2;
+				ids = Arrays.copyOf(ids, newLength);
+				platformIdents = Arrays.copyOf(platformIdents, newLength);
+				sensorTypeIdents = Arrays.copyOf(sensorTypeIdents, newLength);
+				timestamps = Arrays.copyOf(timestamps, newLength);
+				classes = Arrays.copyOf(classes, newLength);
+				offsets = Arrays.copyOf(offsets, newLength);
+				lengths = Arrays.copyOf(lengths, newLength);
+			}
+			ids[count] = element.getId();
+			platformIdents[count] = element.getPlatformIdent();
+			sensorTypeIdents[count] = element.getSensorTypeIdent();
+			timestamps[count] = (null != element.getTimeStamp()) ? element.getTimeStamp().getTime() : 0;
+			classes[count] = element.getClass();
+			offsets[count] = offset;
+			lengths[count] = length;
+			count++;
+		}
+
+		/**
+		 * Checks the descriptor of the element against the query. Only elements passing the
+		 * check need to be de-serialized and checked with the
+		 * {@link DefaultData#isQueryComplied(IIndexQuery)}.
+		 *
+		 * @param index
+		 *            Index of the element.
+		 * @param query
+		 *            Query.
+		 * @return If element can comply with the query.
+		 */
+		boolean isCandidate(int index, IIndexQuery query) {
+			if ((null != query.getObjectClasses()) && !query.getObjectClasses().contains(classes[index])) {
+				return false;
+			}
+			if (query.getMinId() > ids[index]) {
+				return false;
+			}
+			if ((0 != query.getPlatformIdent()) && (query.getPlatformIdent() != platformIdents[index])) {
+				return false;
+			}
+			if ((0 != query.getSensorTypeIdent()) && (query.getSensorTypeIdent() != sensorTypeIdents[index])) {
+				return false;
+			}
+			if (query.isIntervalSet()) {
+				if ((null != query.getFromDate()) && (timestamps[index] < query.getFromDate().getTime())) {
+					return false;
+				}
+				if ((null != query.getToDate()) && (timestamps[index] > query.getToDate().getTime())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Checks the descriptor of the element against the last collected element when the
+		 * comparator is one of the {@link DefaultDataComparatorEnum}. Elements that come after the
+		 * last collected one would not be collected, thus don't need to be de-serialized.
+		 *
+		 * @param index
+		 *            Index of the element.
+		 * @param comparator
+		 *            Comparator defining the order of elements.
+		 * @param last
+		 *            Last collected element, <code>null</code> if the limit has not been reached.
+		 * @return If element can be collected.
+		 */
+		boolean isCollectable(int index, Comparator<?> comparator, DefaultData last) {
+			if (null == last) {
+				return true;
+			}
+			if (DefaultDataComparatorEnum.TIMESTAMP == comparator) {
+				// time-stamp 0 is stored for the elements without the time-stamp
+				return (0 == timestamps[index]) || (null == last.getTimeStamp()) || (timestamps[index] <= last.getTimeStamp().getTime());
+			}
+			if (DefaultDataComparatorEnum.ID == comparator) {
+				return ids[index] < last.getId();
+			}
+			return true;
+		}
+
+		/**
+		 * Removes all elements from the segment.
+		 */
+		void clear() {
+			buffer.clear();
+			Arrays.fill(classes, 0, count, null);
+			count = 0;
+		}
+	}
+
+}
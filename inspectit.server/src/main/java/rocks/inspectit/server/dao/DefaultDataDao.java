@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
+import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
 import rocks.inspectit.shared.all.communication.data.JmxSensorValueData;
@@ -18,12 +19,24 @@ import rocks.inspectit.shared.all.communication.data.JmxSensorValueData;
 public interface DefaultDataDao {
 
 	/**
-	 * Persists or updates all items in the collection.
+	 * Executes the given processors on the collection without opening the transaction.
 	 *
+	 * @param processors
+	 *            Processors to execute in the given order.
 	 * @param defaultDataCollection
-	 *            The collection with {@link DefaultData} objects to persist or update.
+	 *            The collection with {@link DefaultData} objects to process.
 	 */
-	void saveAll(List<? extends DefaultData> defaultDataCollection);
+	void process(List<AbstractCmrDataProcessor> processors, List<? extends DefaultData> defaultDataCollection);
+
+	/**
+	 * Executes the given processors on the collection in one transaction.
+	 *
+	 * @param processors
+	 *            Processors to execute in the given order.
+	 * @param defaultDataCollection
+	 *            The collection with {@link DefaultData} objects to process.
+	 */
+	void processInTransaction(List<AbstractCmrDataProcessor> processors, List<? extends DefaultData> defaultDataCollection);
 
 	/**
 	 * Returns a list of stored {@link DefaultData} objects in the given interval, starting minus
@@ -1,16 +1,24 @@
 package rocks.inspectit.server.dao.impl;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import rocks.inspectit.server.cache.impl.AggregationRollup;
+import rocks.inspectit.server.cache.impl.AggregationRollups;
+import rocks.inspectit.server.cache.impl.SerializedBufferTier;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.TopElementsCollector;
 import rocks.inspectit.shared.cs.indexing.aggregation.IAggregator;
 import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
@@ -39,6 +47,18 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	@Qualifier("indexingTreeForkJoinPool")
 	private ForkJoinPool forkJoinPool;
 
+	/**
+	 * Tier holding the elements evicted from the buffer.
+	 */
+	@Autowired
+	private SerializedBufferTier<E> serializedBufferTier;
+
+	/**
+	 * Rollups answering the aggregations.
+	 */
+	@Autowired
+	private AggregationRollups aggregationRollups;
+
 	/**
 	 * Executes the query on the indexing tree.
 	 *
@@ -158,6 +178,17 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	 * Executes the query on the indexing tree. If the {@link IAggregator} is not <code>null</code>
 	 * then the results will be aggregated based on the given {@link IAggregator}. Results can be
 	 * sorted by comparator. Furthermore the result list can be limited.
+	 * <p>
+	 * If no aggregation is needed and both comparator and limit are given, the indexing tree
+	 * collects only the first elements in the comparator order, thus the complete result is never
+	 * materialized and sorted.
+	 * <p>
+	 * Elements evicted from the buffer to the {@link SerializedBufferTier} are included in the
+	 * results.
+	 * <p>
+	 * If there is an {@link AggregationRollup} for the aggregator, the aggregation is answered from
+	 * the rollup and only the parts of the queried interval that the rollup does not cover are
+	 * aggregated from the buffer.
 	 *
 	 * @param indexQuery
 	 *            Index query to execute.
@@ -174,15 +205,31 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 	protected List<E> executeQuery(IIndexQuery indexQuery, IAggregator<E> aggregator, Comparator<? super E> comparator, int limit, boolean useForkJoin) {
 		List<E> data;
 
-		if (useForkJoin) {
-			data = indexingTree.query(indexQuery, forkJoinPool);
-		} else {
-			data = indexingTree.query(indexQuery);
+		if ((null == aggregator) && (null != comparator) && (limit > -1)) {
+			List<E> serializedData = querySerializedTier(indexQuery, comparator, limit);
+			if (useForkJoin) {
+				data = indexingTree.query(indexQuery, comparator, limit, forkJoinPool);
+			} else {
+				data = indexingTree.query(indexQuery, comparator, limit);
+			}
+			if (serializedData.isEmpty()) {
+				return data;
+			}
+			TopElementsCollector<E> collector = new TopElementsCollector<>(comparator, limit);
+			collector.offerAll(data);
+			collector.offerAll(removeDuplicates(serializedData, data));
+			return collector.getResult();
 		}
-		if (null != aggregator) {
-			AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
-			aggregationPerformer.processCollection(data);
-			data = aggregationPerformer.getResultList();
+
+		AggregationRollup<E> rollup = (null != aggregator) ? aggregationRollups.getRollup(aggregator) : null;
+		data = (null != rollup) ? executeRollupQuery(indexQuery, aggregator, rollup, useForkJoin) : null;
+		if (null == data) {
+			data = queryBuffer(indexQuery, useForkJoin);
+			if (null != aggregator) {
+				AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+				aggregationPerformer.processCollection(data);
+				data = aggregationPerformer.getResultList();
+			}
 		}
 
 		if (null != comparator) {
@@ -196,6 +243,140 @@ public abstract class AbstractBufferDataDao<E extends DefaultData> {
 		return data;
 	}
 
+	/**
+	 * Executes the query on the indexing tree and the {@link SerializedBufferTier}.
+	 *
+	 * @param indexQuery
+	 *            Index query to execute.
+	 * @param useForkJoin
+	 *            true, if forkJoinPool should be used
+	 * @return Result list.
+	 */
+	private List<E> queryBuffer(IIndexQuery indexQuery, boolean useForkJoin) {
+		List<E> serializedData = querySerializedTier(indexQuery);
+		List<E> data;
+		if (useForkJoin) {
+			data = indexingTree.query(indexQuery, forkJoinPool);
+		} else {
+			data = indexingTree.query(indexQuery);
+		}
+		if (!serializedData.isEmpty()) {
+			data.addAll(removeDuplicates(serializedData, data));
+		}
+		return data;
+	}
+
+	/**
+	 * Aggregates the results of the query from the rollup. The parts of the queried interval
+	 * before and after the interval covered by the rollup are queried from the buffer and added to
+	 * the aggregation. The interval of the query is restored afterwards.
+	 *
+	 * @param indexQuery
+	 *            Index query to execute.
+	 * @param aggregator
+	 *            {@link IAggregator} to aggregate with.
+	 * @param rollup
+	 *            Rollup that can answer the aggregator.
+	 * @param useForkJoin
+	 *            true, if forkJoinPool should be used
+	 * @return Aggregated results or <code>null</code> if the rollup does not cover any part of the
+	 *         queried interval.
+	 */
+	private List<E> executeRollupQuery(IIndexQuery indexQuery, IAggregator<E> aggregator, AggregationRollup<E> rollup, boolean useForkJoin) {
+		AggregationPerformer<E> aggregationPerformer = new AggregationPerformer<>(aggregator);
+		long[] covered = rollup.aggregate(indexQuery, aggregationPerformer);
+		if (null == covered) {
+			return null;
+		}
+
+		Timestamp originalFromDate = indexQuery.getFromDate();
+		Timestamp originalToDate = indexQuery.getToDate();
+		Timestamp fromDate = indexQuery.isIntervalSet() ? originalFromDate : null;
+		Timestamp toDate = indexQuery.isIntervalSet() ? originalToDate : null;
+		try {
+			if (covered[0] > ((null != fromDate) ? fromDate.getTime() : 0L)) {
+				indexQuery.setFromDate(fromDate);
+				indexQuery.setToDate(new Timestamp(covered[0] - 1));
+				aggregationPerformer.processCollection(queryBuffer(indexQuery, useForkJoin));
+			}
+			if ((null != toDate) && (covered[1] <= toDate.getTime())) {
+				indexQuery.setFromDate(new Timestamp(covered[1]));
+				indexQuery.setToDate(toDate);
+				aggregationPerformer.processCollection(queryBuffer(indexQuery, useForkJoin));
+			}
+		} finally {
+			indexQuery.setFromDate(originalFromDate);
+			indexQuery.setToDate(originalToDate);
+		}
+		return aggregationPerformer.getResultList();
+	}
+
+	/**
+	 * Executes the query on the {@link SerializedBufferTier} that holds the elements evicted from
+	 * the buffer.
+	 *
+	 * @param indexQuery
+	 *            Index query to execute.
+	 * @return Result list, empty if tier is not enabled.
+	 */
+	protected List<E> querySerializedTier(IIndexQuery indexQuery) {
+		return serializedBufferTier.query(indexQuery);
+	}
+
+	/**
+	 * Executes the query on the {@link SerializedBufferTier} that holds the elements evicted from
+	 * the buffer, returning only the first elements in the comparator order.
+	 *
+	 * @param indexQuery
+	 *            Index query to execute.
+	 * @param comparator
+	 *            Comparator defining the order of elements.
+	 * @param limit
+	 *            Max amount of elements to return.
+	 * @return Result list sorted by the comparator, empty if tier is not enabled.
+	 */
+	protected List<E> querySerializedTier(IIndexQuery indexQuery, Comparator<? super E> comparator, int limit) {
+		return serializedBufferTier.query(indexQuery, comparator, limit);
+	}
+
+	/**
+	 * Returns the element with the given id from the {@link SerializedBufferTier}.
+	 *
+	 * @param id
+	 *            Element id.
+	 * @return Element or <code>null</code> if it's not in the tier.
+	 */
+	protected E getFromSerializedTier(long id) {
+		return serializedBufferTier.get(id);
+	}
+
+	/**
+	 * Removes the elements of the serialized tier that are also part of the buffer results. Evicted
+	 * elements can still be found in the indexing tree until it's cleaned.
+	 *
+	 * @param serializedData
+	 *            Results from the serialized tier.
+	 * @param bufferData
+	 *            Results from the indexing tree.
+	 * @return Serialized tier results not contained in the buffer results.
+	 */
+	protected List<E> removeDuplicates(List<E> serializedData, Collection<E> bufferData) {
+		if (bufferData.isEmpty()) {
+			return serializedData;
+		}
+		Set<Long> ids = new HashSet<>(bufferData.size());
+		for (E element : bufferData) {
+			ids.add(Long.valueOf(element.getId()));
+		}
+		List<E> result = new ArrayList<>(serializedData.size());
+		for (E element : serializedData) {
+			if (!ids.contains(Long.valueOf(element.getId()))) {
+				result.add(element);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Gets {@link #indexingTree}.
 	 *
@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import rocks.inspectit.server.dao.InvocationDataDao;
+import rocks.inspectit.server.indexing.impl.TraceIndex;
 import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.communication.comparator.DefaultDataComparatorEnum;
@@ -34,6 +35,12 @@ public class BufferInvocationDataDaoImpl extends AbstractBufferDataDao<Invocatio
 	@Autowired
 	private InvocationSequenceDataQueryFactory<IIndexQuery> invocationDataQueryFactory;
 
+	/**
+	 * Trace index of the buffer.
+	 */
+	@Autowired
+	private TraceIndex traceIndex;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -122,7 +129,11 @@ public class BufferInvocationDataDaoImpl extends AbstractBufferDataDao<Invocatio
 	 */
 	@Override
 	public InvocationSequenceData getInvocationSequenceDetail(InvocationSequenceData template) {
-		return super.getIndexingTree().get(template);
+		InvocationSequenceData result = super.getIndexingTree().get(template);
+		if (null == result) {
+			result = super.getFromSerializedTier(template.getId());
+		}
+		return result;
 	}
 
 	/**
@@ -143,8 +154,13 @@ public class BufferInvocationDataDaoImpl extends AbstractBufferDataDao<Invocatio
 	 */
 	@Override
 	public Collection<InvocationSequenceData> getInvocationSequenceDetail(long traceId) {
-		IIndexQuery query = invocationDataQueryFactory.getInvocationSequences(traceId);
-		return super.executeQuery(query, true);
+		List<InvocationSequenceData> result = traceIndex.getElements(traceId, InvocationSequenceData.class);
+		List<InvocationSequenceData> serialized = super.querySerializedTier(invocationDataQueryFactory.getInvocationSequences(traceId));
+		if (!serialized.isEmpty()) {
+			result = new ArrayList<>(result);
+			result.addAll(super.removeDuplicates(serialized, result));
+		}
+		return result;
 	}
 
 }
@@ -1,12 +1,14 @@
 package rocks.inspectit.server.dao.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import rocks.inspectit.server.indexing.impl.TraceIndex;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
 import rocks.inspectit.shared.all.tracing.data.SpanIdent;
@@ -29,6 +31,12 @@ public class BufferSpanDaoImpl extends AbstractBufferDataDao<AbstractSpan> {
 	@Autowired
 	private SpanQueryFactory<IIndexQuery> spanQueryFactory;
 
+	/**
+	 * Trace index of the buffer.
+	 */
+	@Autowired
+	private TraceIndex traceIndex;
+
 	/**
 	 * Returns root spans for given time-frame.
 	 *
@@ -60,8 +68,13 @@ public class BufferSpanDaoImpl extends AbstractBufferDataDao<AbstractSpan> {
 	 * @return All spans for the trace.
 	 */
 	public Collection<AbstractSpan> getSpans(long traceId) {
-		IIndexQuery query = spanQueryFactory.getSpans(traceId);
-		return getIndexingTree().query(query);
+		List<AbstractSpan> result = traceIndex.getElements(traceId, AbstractSpan.class);
+		List<AbstractSpan> serialized = super.querySerializedTier(spanQueryFactory.getSpans(traceId));
+		if (!serialized.isEmpty()) {
+			result = new ArrayList<>(result);
+			result.addAll(super.removeDuplicates(serialized, result));
+		}
+		return result;
 	}
 
 	/**
@@ -72,13 +85,14 @@ public class BufferSpanDaoImpl extends AbstractBufferDataDao<AbstractSpan> {
 	 * @return Span with given span ident.
 	 */
 	public AbstractSpan get(SpanIdent spanIdent) {
-		IIndexQuery query = spanQueryFactory.get(spanIdent);
-		Collection<AbstractSpan> results = getIndexingTree().query(query);
-		if (CollectionUtils.isNotEmpty(results)) {
-			return results.iterator().next();
-		} else {
-			return null;
+		AbstractSpan span = traceIndex.getSpan(spanIdent.getId());
+		if (null == span) {
+			List<AbstractSpan> serialized = super.querySerializedTier(spanQueryFactory.get(spanIdent));
+			if (!serialized.isEmpty()) {
+				span = serialized.get(0);
+			}
 		}
+		return span;
 	}
 
 }
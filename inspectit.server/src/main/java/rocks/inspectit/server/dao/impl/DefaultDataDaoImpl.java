@@ -8,7 +8,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import javax.annotation.Resource;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
@@ -20,7 +19,6 @@ import javax.persistence.criteria.Subquery;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -49,14 +47,6 @@ public class DefaultDataDaoImpl implements DefaultDataDao {
 	@Log
 	Logger log;
 
-	/**
-	 * List of processors.
-	 */
-	@Autowired
-	@Resource(name = "cmrDataProcessorList")
-	// resource must be specified, otherwise all processor all plugged here
-	private List<AbstractCmrDataProcessor> cmrDataProcessors;
-
 	/**
 	 * Entity manager.
 	 */
@@ -65,14 +55,11 @@ public class DefaultDataDaoImpl implements DefaultDataDao {
 
 	/**
 	 * {@inheritDoc}
-	 * <p>
-	 * We must mark this as transactional cause it's running outside our services.
 	 */
 	@Override
-	@Transactional
-	public void saveAll(List<? extends DefaultData> defaultDataCollection) {
+	public void process(List<AbstractCmrDataProcessor> processors, List<? extends DefaultData> defaultDataCollection) {
 		try {
-			for (AbstractCmrDataProcessor processor : cmrDataProcessors) {
+			for (AbstractCmrDataProcessor processor : processors) {
 				processor.process(defaultDataCollection, entityManager);
 			}
 		} catch (Exception e) {
@@ -80,6 +67,15 @@ public class DefaultDataDaoImpl implements DefaultDataDao {
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Transactional
+	public void processInTransaction(List<AbstractCmrDataProcessor> processors, List<? extends DefaultData> defaultDataCollection) {
+		process(processors, defaultDataCollection);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
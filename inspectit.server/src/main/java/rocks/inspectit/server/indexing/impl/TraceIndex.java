@@ -0,0 +1,398 @@
+package rocks.inspectit.server.indexing.impl;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+import org.springframework.stereotype.Component;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
+import rocks.inspectit.shared.all.tracing.data.SpanIdent;
+
+/**
+ * Secondary index of the buffer that maps the trace id to the spans and invocation sequences
+ * belonging to the trace and the span id to the span. The index is maintained by the buffer
+ * indexing stage and cleaned on eviction, so that the trace related queries do not have to
+ * traverse the complete indexing tree.
+ * <p>
+ * Elements are weakly referenced, thus the index never holds the elements in memory. References
+ * that have been cleared by the garbage collector are removed in the {@link #clean()}.
+ *
+ * @author agent
+ *
+ */
+@Component
+public class TraceIndex {
+
+	/**
+	 * Map of trace id to the references of the elements in the trace.
+	 */
+	private final NonBlockingHashMapLong<TraceReferences> traces = new NonBlockingHashMapLong<>();
+
+	/**
+	 * Map of span id to the span reference.
+	 */
+	private final NonBlockingHashMapLong<ElementReference> spans = new NonBlockingHashMapLong<>();
+
+	/**
+	 * Queue where the cleared references are enqueued.
+	 */
+	private final ReferenceQueue<DefaultData> referenceQueue = new ReferenceQueue<>();
+
+	/**
+	 * Indexes the element if it is a span or an invocation sequence that belongs to a trace. Other
+	 * elements are ignored.
+	 *
+	 * @param element
+	 *            Element to index.
+	 */
+	public void put(DefaultData element) {
+		SpanIdent spanIdent = getSpanIdent(element);
+		if (null == spanIdent) {
+			return;
+		}
+
+		long traceId = spanIdent.getTraceId();
+		boolean span = element instanceof AbstractSpan;
+		ElementReference reference = new ElementReference(element, traceId, spanIdent.getId(), span, referenceQueue);
+		while (true) {
+			TraceReferences traceReferences = traces.get(traceId);
+			if (null == traceReferences) {
+				traceReferences = new TraceReferences();
+				TraceReferences existing = traces.putIfAbsent(traceId, traceReferences);
+				if (null != existing) {
+					traceReferences = existing;
+				}
+			}
+
+			if (traceReferences.add(reference)) {
+				break;
+			}
+
+			// trace references have been retired in the meantime, help with removal and retry
+			traces.remove(traceId, traceReferences);
+		}
+
+		if (span) {
+			spans.put(spanIdent.getId(), reference);
+		}
+	}
+
+	/**
+	 * Removes the element from the index. Used when the element is evicted from the buffer.
+	 *
+	 * @param element
+	 *            Element to remove.
+	 */
+	public void remove(DefaultData element) {
+		SpanIdent spanIdent = getSpanIdent(element);
+		if (null == spanIdent) {
+			return;
+		}
+
+		TraceReferences traceReferences = traces.get(spanIdent.getTraceId());
+		if (null != traceReferences) {
+			ElementReference reference = traceReferences.remove(element);
+			if (null != reference) {
+				removeReference(reference, traceReferences);
+			}
+		}
+	}
+
+	/**
+	 * Returns all elements of the given type that belong to the trace.
+	 *
+	 * @param <T>
+	 *            Type of the elements.
+	 * @param traceId
+	 *            Trace id.
+	 * @param type
+	 *            Type of the elements to return.
+	 * @return Elements of the trace or empty list if there are none.
+	 */
+	public <T extends DefaultData> List<T> getElements(long traceId, Class<T> type) {
+		TraceReferences traceReferences = traces.get(traceId);
+		if (null == traceReferences) {
+			return Collections.emptyList();
+		}
+		return traceReferences.getElements(type);
+	}
+
+	/**
+	 * Returns the span with the given id.
+	 *
+	 * @param spanId
+	 *            Span id.
+	 * @return Span or <code>null</code> if span is not in the index.
+	 */
+	public AbstractSpan getSpan(long spanId) {
+		ElementReference reference = spans.get(spanId);
+		if (null == reference) {
+			return null;
+		}
+		return (AbstractSpan) reference.get();
+	}
+
+	/**
+	 * Removes all references cleared by the garbage collector.
+	 */
+	public void clean() {
+		Reference<? extends DefaultData> reference = referenceQueue.poll();
+		while (null != reference) {
+			ElementReference elementReference = (ElementReference) reference;
+			TraceReferences traceReferences = traces.get(elementReference.traceId);
+			if ((null != traceReferences) && traceReferences.remove(elementReference)) {
+				removeReference(elementReference, traceReferences);
+			}
+			reference = referenceQueue.poll();
+		}
+	}
+
+	/**
+	 * Clears the complete index.
+	 */
+	public void clearAll() {
+		traces.clear();
+		spans.clear();
+		while (null != referenceQueue.poll()) { // NOPMD
+			// drain the queue
+		}
+	}
+
+	/**
+	 * Returns the number of traces in the index.
+	 *
+	 * @return Returns the number of traces in the index.
+	 */
+	public int getTraceCount() {
+		return traces.size();
+	}
+
+	/**
+	 * Returns the approximate size of the index in bytes.
+	 *
+	 * @param objectSizes
+	 *            Object sizes to use.
+	 * @return Size in bytes.
+	 */
+	public long getComponentSize(IObjectSizes objectSizes) {
+		long size = objectSizes.getSizeOfObjectHeader() + objectSizes.getPrimitiveTypesSize(3, 0, 0, 0, 0, 0);
+		size += objectSizes.getSizeOfNonBlockingHashMapLong(traces.size());
+		size += objectSizes.getSizeOfNonBlockingHashMapLong(spans.size());
+		size += objectSizes.getSizeOfObjectHeader() + objectSizes.getPrimitiveTypesSize(2, 0, 0, 0, 0, 0);
+
+		long referenceSize = objectSizes.alignTo8Bytes(objectSizes.getSizeOfObjectHeader() + objectSizes.getPrimitiveTypesSize(4, 1, 0, 0, 2, 0));
+		long traceReferencesSize = objectSizes.alignTo8Bytes(objectSizes.getSizeOfObjectHeader() + objectSizes.getPrimitiveTypesSize(1, 1, 0, 0, 0, 0));
+		for (TraceReferences traceReferences : traces.values()) {
+			size += traceReferencesSize;
+			size += traceReferences.getComponentSize(objectSizes, referenceSize);
+		}
+		return objectSizes.alignTo8Bytes(size);
+	}
+
+	/**
+	 * Removes the span mapping of the reference and the trace mapping if the trace has been
+	 * retired.
+	 *
+	 * @param reference
+	 *            Removed reference.
+	 * @param traceReferences
+	 *            Trace references the reference was removed from.
+	 */
+	private void removeReference(ElementReference reference, TraceReferences traceReferences) {
+		if (reference.span) {
+			spans.remove(reference.spanId, reference);
+		}
+		if (traceReferences.isRetired()) {
+			traces.remove(reference.traceId, traceReferences);
+		}
+	}
+
+	/**
+	 * Returns the span ident of the element if element can be indexed.
+	 *
+	 * @param element
+	 *            Element.
+	 * @return Span ident or <code>null</code> if element can not be indexed.
+	 */
+	private SpanIdent getSpanIdent(DefaultData element) {
+		if (element instanceof AbstractSpan) {
+			return ((AbstractSpan) element).getSpanIdent();
+		} else if (element instanceof InvocationSequenceData) {
+			return ((InvocationSequenceData) element).getSpanIdent();
+		}
+		return null;
+	}
+
+	/**
+	 * References of the elements in one trace. Once the last reference is removed the object is
+	 * retired and does not accept new references.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class TraceReferences {
+
+		/**
+		 * References.
+		 */
+		private final List<ElementReference> references = new ArrayList<>(2);
+
+		/**
+		 * If this object has been retired.
+		 */
+		private boolean retired;
+
+		/**
+		 * Adds the reference.
+		 *
+		 * @param reference
+		 *            Reference to add.
+		 * @return <code>false</code> if object has been retired and reference was not added.
+		 */
+		public synchronized boolean add(ElementReference reference) {
+			if (retired) {
+				return false;
+			}
+			references.add(reference);
+			return true;
+		}
+
+		/**
+		 * Removes the reference.
+		 *
+		 * @param reference
+		 *            Reference to remove.
+		 * @return If reference was removed.
+		 */
+		public synchronized boolean remove(ElementReference reference) {
+			boolean removed = references.remove(reference);
+			retireIfEmpty();
+			return removed;
+		}
+
+		/**
+		 * Removes the reference to the given element.
+		 *
+		 * @param element
+		 *            Element.
+		 * @return Removed reference or <code>null</code> if element is not referenced.
+		 */
+		public synchronized ElementReference remove(DefaultData element) {
+			for (Iterator<ElementReference> it = references.iterator(); it.hasNext();) {
+				ElementReference reference = it.next();
+				if (reference.get() == element) { // NOPMD
+					it.remove();
+					retireIfEmpty();
+					return reference;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the referenced elements of the given type.
+		 *
+		 * @param <T>
+		 *            Type of the elements.
+		 * @param type
+		 *            Type of the elements to return.
+		 * @return Elements.
+		 */
+		public synchronized <T extends DefaultData> List<T> getElements(Class<T> type) {
+			List<T> result = new ArrayList<>(references.size());
+			for (ElementReference reference : references) {
+				DefaultData element = reference.get();
+				if (type.isInstance(element)) {
+					result.add(type.cast(element));
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Gets {@link #retired}.
+		 *
+		 * @return {@link #retired}
+		 */
+		public synchronized boolean isRetired() {
+			return retired;
+		}
+
+		/**
+		 * Returns the size of the references list and references.
+		 *
+		 * @param objectSizes
+		 *            Object sizes to use.
+		 * @param referenceSize
+		 *            Size of one reference.
+		 * @return Size in bytes.
+		 */
+		public synchronized long getComponentSize(IObjectSizes objectSizes, long referenceSize) {
+			return objectSizes.getSizeOf(references) + (references.size() * referenceSize);
+		}
+
+		/**
+		 * Retires the object if there are no more references.
+		 */
+		private void retireIfEmpty() {
+			if (references.isEmpty()) {
+				retired = true;
+			}
+		}
+	}
+
+	/**
+	 * Weak reference to the indexed element that keeps the ids needed for the removal.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class ElementReference extends WeakReference<DefaultData> {
+
+		/**
+		 * Trace id.
+		 */
+		private final long traceId;
+
+		/**
+		 * Span id.
+		 */
+		private final long spanId;
+
+		/**
+		 * If referent is a span.
+		 */
+		private final boolean span;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param referent
+		 *            Element.
+		 * @param traceId
+		 *            Trace id.
+		 * @param spanId
+		 *            Span id.
+		 * @param span
+		 *            If referent is a span.
+		 * @param queue
+		 *            Queue to register with.
+		 */
+		ElementReference(DefaultData referent, long traceId, long spanId, boolean span, ReferenceQueue<? super DefaultData> queue) {
+			super(referent, queue);
+			this.traceId = traceId;
+			this.spanId = spanId;
+			this.span = span;
+		}
+	}
+
+}
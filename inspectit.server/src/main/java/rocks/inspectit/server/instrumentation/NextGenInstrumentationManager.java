@@ -3,6 +3,7 @@ package rocks.inspectit.server.instrumentation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -15,6 +16,7 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
@@ -97,6 +99,12 @@ public class NextGenInstrumentationManager implements ApplicationListener<AgentD
 	 */
 	private final ConcurrentHashMap<Long, AgentCacheEntry> agentCacheMap = new ConcurrentHashMap<>();
 
+	/**
+	 * If the agents are allowed to send the data with the compressed transport.
+	 */
+	@Value("${cmr.compressedTransport}")
+	boolean compressedTransport = true;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -121,6 +129,7 @@ public class NextGenInstrumentationManager implements ApplicationListener<AgentD
 			Map<Collection<String>, InstrumentationDefinition> initial = classCache.getInstrumentationService().getInstrumentationResultsWithHashes();
 			agentConfiguration.setInitialInstrumentationResults(initial);
 			agentConfiguration.setClassCacheExistsOnCmr(true);
+			agentConfiguration.setCompressedTransportSupported(compressedTransport);
 			return agentConfiguration;
 		}
 
@@ -136,8 +145,12 @@ public class NextGenInstrumentationManager implements ApplicationListener<AgentD
 			}
 		});
 
-		// return configuration
-		return configurationHolder.getAgentConfiguration();
+		// return configuration, not existing if no environment is assigned to the agent
+		AgentConfig agentConfiguration = configurationHolder.getAgentConfiguration();
+		if (null != agentConfiguration) {
+			agentConfiguration.setCompressedTransportSupported(compressedTransport);
+		}
+		return agentConfiguration;
 	}
 
 	/**
@@ -162,18 +175,64 @@ public class NextGenInstrumentationManager implements ApplicationListener<AgentD
 		if (null == type) {
 			try {
 				classCache.getModificationService().merge(sentType);
-
-				// get real object after merging
-				type = classCache.getLookupService().findByHash(hash);
 			} catch (ClassCacheModificationException e) {
 				log.error("Type can not be analyzed due to the exception during merging.", e);
 				return null;
 			}
 		}
 
+		return getInstrumentationDefinition(agentCacheEntry, hash);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Map<String, InstrumentationDefinition> analyzeTypes(long platformIdent, Map<String, Type> hashAndTypes) throws BusinessException {
+		AgentCacheEntry agentCacheEntry = agentCacheMap.get(Long.valueOf(platformIdent));
+		if (null == agentCacheEntry) {
+			throw new BusinessException("Instrumenting " + hashAndTypes.size() + " classes for the agent with id=" + platformIdent, AgentManagementErrorCodeEnum.AGENT_DOES_NOT_EXIST);
+		}
+
+		// first merge all types we don't know, so that types referencing each other are complete
+		// before the instrumentation points are configured
+		ClassCache classCache = agentCacheEntry.getClassCache();
+		for (Entry<String, Type> entry : hashAndTypes.entrySet()) {
+			if (null == classCache.getLookupService().findByHash(entry.getKey())) {
+				try {
+					classCache.getModificationService().merge(entry.getValue());
+				} catch (ClassCacheModificationException e) {
+					log.error("Type can not be analyzed due to the exception during merging.", e);
+				}
+			}
+		}
+
+		Map<String, InstrumentationDefinition> result = new HashMap<>(hashAndTypes.size());
+		for (String hash : hashAndTypes.keySet()) {
+			InstrumentationDefinition instrumentationDefinition = getInstrumentationDefinition(agentCacheEntry, hash);
+			if (null != instrumentationDefinition) {
+				result.put(hash, instrumentationDefinition);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the instrumentation definition for the already merged type with the given hash.
+	 *
+	 * @param agentCacheEntry
+	 *            Agent cache entry holding the class cache and configuration.
+	 * @param hash
+	 *            Class hash code.
+	 * @return Instrumentation definition or <code>null</code> if type does not exist in the class
+	 *         cache, it's not a class or the configuration is not initialized.
+	 */
+	private InstrumentationDefinition getInstrumentationDefinition(AgentCacheEntry agentCacheEntry, String hash) {
+		ClassCache classCache = agentCacheEntry.getClassCache();
+		ImmutableType type = classCache.getLookupService().findByHash(hash);
+
 		// no need to do anything with types that are not classes
 		// just return
-		if (!type.isClass()) {
+		if ((null == type) || !type.isClass()) {
 			return null;
 		}
 
@@ -0,0 +1,216 @@
+package rocks.inspectit.server.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import rocks.inspectit.server.dao.DefaultDataDao;
+import rocks.inspectit.server.util.Converter;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.spring.logger.Log;
+
+/**
+ * Pipeline that executes the CMR data processors in stages. Every stage has a bounded queue and
+ * its own threads, so that one agent batch can be processed by the later stage while the next
+ * batch is already processed by the earlier one. The stages keep the order of the processors,
+ * every batch passes all stages one after another.
+ * <p>
+ * When the queue of the next stage is full the thread of the stage blocks, thus the slow stage
+ * back-pressures all stages before it and finally the {@link #process(List)} caller. The
+ * {@link #isSaturated()} can be used to check if the pipeline currently accepts new batches.
+ * <p>
+ * Only the transactional stages are executed in the database transaction.
+ *
+ * @author agent
+ *
+ */
+public class CmrDataProcessingPipeline {
+
+	/** The logger of this class. */
+	@Log
+	Logger log;
+
+	/**
+	 * Dao that executes the processors.
+	 */
+	@Autowired
+	DefaultDataDao defaultDataDao;
+
+	/**
+	 * Stages of the pipeline.
+	 */
+	private final List<CmrDataProcessingStage> stages;
+
+	/**
+	 * Threads executing the stages.
+	 */
+	private final List<Thread> threads = new ArrayList<>();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param stages
+	 *            Stages of the pipeline in the order of execution.
+	 */
+	public CmrDataProcessingPipeline(List<CmrDataProcessingStage> stages) {
+		if ((null == stages) || stages.isEmpty()) {
+			throw new IllegalArgumentException("Processing pipeline must have at least one stage.");
+		}
+		this.stages = stages;
+	}
+
+	/**
+	 * Passes the batch to the first stage of the pipeline. Blocks while the first stage is
+	 * saturated.
+	 *
+	 * @param defaultDataList
+	 *            Batch to process.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting.
+	 */
+	public void process(List<? extends DefaultData> defaultDataList) throws InterruptedException {
+		stages.get(0).getQueue().put(defaultDataList);
+	}
+
+	/**
+	 * Returns if the first stage of the pipeline is saturated, meaning that the
+	 * {@link #process(List)} would block.
+	 *
+	 * @return Returns if the first stage of the pipeline is saturated.
+	 */
+	public boolean isSaturated() {
+		return stages.get(0).isSaturated();
+	}
+
+	/**
+	 * Returns the last stage that is saturated. This is the stage that is slowing down the pipeline.
+	 *
+	 * @return Returns the last stage that is saturated or <code>null</code> if none is.
+	 */
+	public CmrDataProcessingStage getBottleneckStage() {
+		for (int i = stages.size() - 1; i >= 0; i--) {
+			if (stages.get(i).isSaturated()) {
+				return stages.get(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets {@link #stages}.
+	 *
+	 * @return {@link #stages}
+	 */
+	public List<CmrDataProcessingStage> getStages() {
+		return stages;
+	}
+
+	/**
+	 * Starts the stage threads.
+	 */
+	@PostConstruct
+	public synchronized void start() {
+		for (int i = 0; i < stages.size(); i++) {
+			CmrDataProcessingStage stage = stages.get(i);
+			CmrDataProcessingStage nextStage = (i < (stages.size() - 1)) ? stages.get(i + 1) : null;
+			for (int j = 0; j < stage.getParallelism(); j++) {
+				StageThread thread = new StageThread(stage, nextStage, j);
+				thread.start();
+				threads.add(thread);
+			}
+		}
+
+		if (log.isInfoEnabled()) {
+			log.info("|-CMR data processing pipeline active with stages " + stages);
+		}
+	}
+
+	/**
+	 * Stops the stage threads.
+	 */
+	@PreDestroy
+	public synchronized void stop() {
+		for (Thread thread : threads) {
+			thread.interrupt();
+		}
+		threads.clear();
+	}
+
+	/**
+	 * Thread that takes the batches from the queue of the stage, executes the processors of the
+	 * stage and passes the batch to the next stage.
+	 *
+	 * @author agent
+	 *
+	 */
+	private class StageThread extends Thread {
+
+		/**
+		 * Stage to execute.
+		 */
+		private final CmrDataProcessingStage stage;
+
+		/**
+		 * Next stage or <code>null</code> if this is the last stage.
+		 */
+		private final CmrDataProcessingStage nextStage;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param stage
+		 *            Stage to execute.
+		 * @param nextStage
+		 *            Next stage or <code>null</code> if this is the last stage.
+		 * @param threadId
+		 *            Id of the thread that will be added to the thread name.
+		 */
+		StageThread(CmrDataProcessingStage stage, CmrDataProcessingStage nextStage, int threadId) {
+			this.stage = stage;
+			this.nextStage = nextStage;
+			setName("cmr-data-processing-" + stage.getName() + "-thread-" + threadId);
+			setDaemon(true);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			while (!isInterrupted()) {
+				try {
+					List<? extends DefaultData> defaultDataList = stage.getQueue().take();
+
+					long time = System.nanoTime();
+					if (stage.isTransactional()) {
+						defaultDataDao.processInTransaction(stage.getProcessors(), defaultDataList);
+					} else {
+						defaultDataDao.process(stage.getProcessors(), defaultDataList);
+					}
+					time = System.nanoTime() - time;
+					stage.batchProcessed(time);
+
+					if (log.isDebugEnabled()) {
+						log.debug("Stage " + stage.getName() + " data objects count: " + defaultDataList.size() + " duration: " + Converter.nanoToMilliseconds(time));
+					}
+
+					if (null != nextStage) {
+						// blocks if the next stage can not keep up
+						nextStage.getQueue().put(defaultDataList);
+					}
+				} catch (InterruptedException e) {
+					this.interrupt();
+					return;
+				} catch (Exception e) { // NOPMD
+					log.error("Error occurred in the CMR data processing stage " + stage.getName() + ".", e);
+				}
+			}
+		}
+	}
+
+}
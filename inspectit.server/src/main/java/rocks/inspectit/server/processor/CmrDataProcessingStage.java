@@ -0,0 +1,187 @@
+package rocks.inspectit.server.processor;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+
+/**
+ * One stage of the {@link CmrDataProcessingPipeline}. Stage holds the processors that are executed
+ * one after another on the complete batch of the data, the amount of threads executing the stage in
+ * parallel and the bounded queue of the batches waiting for the stage.
+ * <p>
+ * Only stages holding processors that work with the database should be marked as transactional.
+ *
+ * @author agent
+ *
+ */
+public class CmrDataProcessingStage {
+
+	/**
+	 * Name of the stage.
+	 */
+	private final String name;
+
+	/**
+	 * Processors of the stage.
+	 */
+	private final List<AbstractCmrDataProcessor> processors;
+
+	/**
+	 * If processors must be executed in the transaction.
+	 */
+	private final boolean transactional;
+
+	/**
+	 * Amount of threads executing the stage.
+	 */
+	private final int parallelism;
+
+	/**
+	 * Queue of batches waiting for the stage.
+	 */
+	private final BlockingQueue<List<? extends DefaultData>> queue;
+
+	/**
+	 * Amount of processed batches.
+	 */
+	private final AtomicLong processedBatches = new AtomicLong();
+
+	/**
+	 * Total processing time of the batches in nanoseconds.
+	 */
+	private final AtomicLong processingTime = new AtomicLong();
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param name
+	 *            Name of the stage.
+	 * @param processors
+	 *            Processors of the stage.
+	 * @param transactional
+	 *            If processors must be executed in the transaction.
+	 * @param parallelism
+	 *            Amount of threads executing the stage.
+	 * @param queueCapacity
+	 *            Capacity of the queue of batches waiting for the stage.
+	 */
+	public CmrDataProcessingStage(String name, List<AbstractCmrDataProcessor> processors, boolean transactional, int parallelism, int queueCapacity) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("Parallelism of the stage " + name + " must be positive.");
+		}
+		if (queueCapacity <= 0) {
+			throw new IllegalArgumentException("Queue capacity of the stage " + name + " must be positive.");
+		}
+		this.name = name;
+		this.processors = processors;
+		this.transactional = transactional;
+		this.parallelism = parallelism;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+	}
+
+	/**
+	 * Reports processing of one batch.
+	 *
+	 * @param durationNanos
+	 *            Processing duration in nanoseconds.
+	 */
+	void batchProcessed(long durationNanos) {
+		processedBatches.incrementAndGet();
+		processingTime.addAndGet(durationNanos);
+	}
+
+	/**
+	 * Returns if the queue of the stage is full, thus stage can not keep up with the incoming
+	 * batches.
+	 *
+	 * @return Returns if the queue of the stage is full.
+	 */
+	public boolean isSaturated() {
+		return 0 == queue.remainingCapacity();
+	}
+
+	/**
+	 * Returns the amount of batches waiting for the stage.
+	 *
+	 * @return Returns the amount of batches waiting for the stage.
+	 */
+	public int getQueuedBatches() {
+		return queue.size();
+	}
+
+	/**
+	 * Gets {@link #name}.
+	 *
+	 * @return {@link #name}
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets {@link #processors}.
+	 *
+	 * @return {@link #processors}
+	 */
+	public List<AbstractCmrDataProcessor> getProcessors() {
+		return processors;
+	}
+
+	/**
+	 * Gets {@link #transactional}.
+	 *
+	 * @return {@link #transactional}
+	 */
+	public boolean isTransactional() {
+		return transactional;
+	}
+
+	/**
+	 * Gets {@link #parallelism}.
+	 *
+	 * @return {@link #parallelism}
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Gets {@link #queue}.
+	 *
+	 * @return {@link #queue}
+	 */
+	BlockingQueue<List<? extends DefaultData>> getQueue() {
+		return queue;
+	}
+
+	/**
+	 * Gets {@link #processedBatches}.
+	 *
+	 * @return {@link #processedBatches}
+	 */
+	public long getProcessedBatches() {
+		return processedBatches.get();
+	}
+
+	/**
+	 * Gets {@link #processingTime} in nanoseconds.
+	 *
+	 * @return {@link #processingTime}
+	 */
+	public long getProcessingTime() {
+		return processingTime.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "CmrDataProcessingStage [name=" + name + ", transactional=" + transactional + ", parallelism=" + parallelism + ", queuedBatches=" + getQueuedBatches() + ", processedBatches="
+				+ getProcessedBatches() + "]";
+	}
+
+}
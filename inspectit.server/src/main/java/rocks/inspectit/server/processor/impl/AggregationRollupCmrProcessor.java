@@ -0,0 +1,71 @@
+package rocks.inspectit.server.processor.impl;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import rocks.inspectit.server.cache.impl.AggregationRollups;
+import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationAwareData;
+
+/**
+ * Processor that adds the timer, SQL and HTTP timer data to the {@link AggregationRollups}. The
+ * processor must see the same data that ends in the indexing tree, thus one instance is used for
+ * the data inserted to the buffer and one in the invocation processing for the data that is
+ * indexed directly. It should be executed after all processors that change the durations.
+ *
+ * @author agent
+ *
+ */
+public class AggregationRollupCmrProcessor extends AbstractCmrDataProcessor {
+
+	/**
+	 * Rollups to add data to.
+	 */
+	@Autowired
+	AggregationRollups aggregationRollups;
+
+	/**
+	 * If the processor handles the data from the invocations, which is indexed directly, or the data
+	 * outside of invocations, which is inserted to the buffer.
+	 */
+	private final boolean inInvocations;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param inInvocations
+	 *            If the processor handles the data from the invocations, which is indexed directly,
+	 *            or the data outside of invocations, which is inserted to the buffer.
+	 */
+	public AggregationRollupCmrProcessor(boolean inInvocations) {
+		this.inInvocations = inInvocations;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void processData(DefaultData defaultData, EntityManager entityManager) {
+		aggregationRollups.add(defaultData);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean canBeProcessed(DefaultData defaultData) {
+		if (!aggregationRollups.isRolledUp(defaultData) || !(defaultData instanceof InvocationAwareData)) {
+			return false;
+		}
+		// same conditions as for the buffer insertion and the direct indexing
+		InvocationAwareData invocationAwareData = (InvocationAwareData) defaultData;
+		if (inInvocations) {
+			return invocationAwareData.isOnlyFoundInInvocations();
+		} else {
+			return invocationAwareData.isOnlyFoundOutsideInvocations();
+		}
+	}
+
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import rocks.inspectit.server.cache.IBuffer;
 import rocks.inspectit.server.cache.impl.BufferElement;
+import rocks.inspectit.server.cache.impl.ObjectSizeEstimator;
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
@@ -14,7 +15,8 @@ import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 
 /**
  * Buffer inserter data processor. Inserts only {@link MethodSensorData} data objects that are not
- * part of an invocation.
+ * part of an invocation. The size of the element is calculated before the insertion, thus on the
+ * processing thread and not on the buffer analyzing thread.
  *
  * @author Ivan Senic
  *
@@ -27,12 +29,20 @@ public class BufferInserterCmrProcessor extends AbstractCmrDataProcessor {
 	@Autowired
 	IBuffer<MethodSensorData> buffer;
 
+	/**
+	 * Estimator for the sizes of the buffer elements.
+	 */
+	@Autowired
+	ObjectSizeEstimator objectSizeEstimator;
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	protected void processData(DefaultData defaultData, EntityManager entityManager) {
-		buffer.put(new BufferElement<>((MethodSensorData) defaultData));
+		BufferElement<MethodSensorData> bufferElement = new BufferElement<>((MethodSensorData) defaultData);
+		objectSizeEstimator.calculateAndSetBufferElementSize(bufferElement);
+		buffer.put(bufferElement);
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package rocks.inspectit.server.processor.impl;
 
+import java.util.Arrays;
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -21,6 +22,11 @@ import rocks.inspectit.shared.cs.communication.data.InvocationSequenceDataHelper
  * Processor performing necessary calculation and fixes. This is special type of chained processor
  * that does not pass the incoming object to the chained processors, but might do so with some other
  * objects.
+ * <p>
+ * The invocation tree is traversed iteratively in one post-order pass, so that the deep
+ * invocations can not overflow the stack. The exclusive durations are calculated from the values
+ * the nested invocations pass to their parent when they are finished, thus every invocation is
+ * visited only once.
  *
  * @author Ivan Senic
  *
@@ -52,7 +58,7 @@ public class InvocationModifierCmrProcessor extends AbstractChainedCmrDataProces
 	@Override
 	protected void processData(DefaultData defaultData, EntityManager entityManager) {
 		InvocationSequenceData invocation = (InvocationSequenceData) defaultData;
-		extractDataFromInvocation(entityManager, invocation, invocation);
+		extractDataFromInvocation(entityManager, invocation);
 	}
 
 	/**
@@ -73,43 +79,104 @@ public class InvocationModifierCmrProcessor extends AbstractChainedCmrDataProces
 
 	/**
 	 * Extract data from the invocation in the way that timer data is saved to the Db, while SQL
-	 * statements and Exceptions are indexed into the root branch.
+	 * statements and Exceptions are indexed into the root branch. Every nested invocation is
+	 * passed to the chained processors before its own nested invocations, and its data is
+	 * processed after them.
 	 *
 	 * @param entityManager
 	 *            {@link EntityManager} needed for DB persistence.
-	 * @param invData
-	 *            Invocation data to be extracted.
 	 * @param topInvocationParent
 	 *            Top invocation object.
-	 *
 	 */
-	private void extractDataFromInvocation(EntityManager entityManager, InvocationSequenceData invData, InvocationSequenceData topInvocationParent) {
-		double exclusiveDurationDelta = 0d;
-
-		for (InvocationSequenceData child : invData.getNestedSequences()) {
-			// pass child to chained processors
-			passToChainedProcessors(child, entityManager);
-
-			// include times from timer, sql or invocation itself
-			if (null != child.getTimerData()) {
-				exclusiveDurationDelta += child.getTimerData().getDuration();
-			} else if (null != child.getSqlStatementData()) {
-				// I don't know if the situation that both timer and sql are set in one
-				// invocation, but just to be sure I only include the time of the sql, if i did
-				// not already included the time of the timer before
-				exclusiveDurationDelta += child.getSqlStatementData().getDuration();
+	private void extractDataFromInvocation(EntityManager entityManager, InvocationSequenceData topInvocationParent) {
+		InvocationStack stack = new InvocationStack();
+		stack.push(topInvocationParent);
+
+		while (!stack.isEmpty()) {
+			InvocationSequenceData invData = stack.peek();
+			InvocationSequenceData child = stack.nextChild();
+			if (null != child) {
+				// pass child to chained processors and go deeper
+				passToChainedProcessors(child, entityManager);
+				stack.push(child);
 			} else {
-				exclusiveDurationDelta += InvocationSequenceDataHelper.computeNestedDuration(child);
+				// all children processed, process the SQL Statement and Timer
+				double exclusiveDurationDelta = stack.pop();
+				processSqlStatementData(entityManager, invData, topInvocationParent);
+				calculateExclusiveDuration(invData, exclusiveDurationDelta);
+				processTimerData(entityManager, invData, topInvocationParent);
+				processExceptionSensorData(entityManager, invData, topInvocationParent);
+
+				if (!stack.isEmpty()) {
+					stack.addToParent(invData);
+				}
 			}
+		}
+	}
 
-			// go to the recursion
-			extractDataFromInvocation(entityManager, child, topInvocationParent);
+	/**
+	 * Returns the duration the finished nested invocation adds to the exclusive duration delta of
+	 * its parent. This is the time of the timer, SQL or of the nested invocations.
+	 *
+	 * @param child
+	 *            Finished nested invocation.
+	 * @param childNestedDuration
+	 *            Duration of the nested invocations of the child.
+	 * @return Duration to add to the exclusive duration delta of the parent.
+	 */
+	private static double getExclusiveDurationDelta(InvocationSequenceData child, double childNestedDuration) {
+		if (null != child.getTimerData()) {
+			return child.getTimerData().getDuration();
+		} else if (null != child.getSqlStatementData()) {
+			// I don't know if the situation that both timer and sql are set in one
+			// invocation, but just to be sure I only include the time of the sql, if i did
+			// not already included the time of the timer before
+			return child.getSqlStatementData().getDuration();
+		} else {
+			return childNestedDuration;
+		}
+	}
+
+	/**
+	 * Returns the duration the finished nested invocation adds to the nested duration of its
+	 * parent, in the same way as
+	 * {@link InvocationSequenceDataHelper#computeNestedDuration(InvocationSequenceData)}.
+	 *
+	 * @param child
+	 *            Finished nested invocation.
+	 * @param childNestedDuration
+	 *            Duration of the nested invocations of the child.
+	 * @return Duration to add to the nested duration of the parent.
+	 */
+	private static double getNestedDuration(InvocationSequenceData child, double childNestedDuration) {
+		double duration = InvocationSequenceDataHelper.calculateDuration(child);
+		if (-1.0d != duration) {
+			return duration;
 		}
+		return childNestedDuration;
+	}
 
-		// process the SQL Statement and Timer
-		processSqlStatementData(entityManager, invData, topInvocationParent);
-		processTimerData(entityManager, invData, topInvocationParent, exclusiveDurationDelta);
-		processExceptionSensorData(entityManager, invData, topInvocationParent);
+	/**
+	 * Sets the exclusive duration to the timer data of the invocation if one exists. For folded
+	 * invocations the exclusive min and max are set to the average exclusive duration, as the
+	 * exclusive duration of the single folded invocations is not known.
+	 *
+	 * @param invData
+	 *            Invocation data.
+	 * @param exclusiveDurationDelta
+	 *            Duration to subtract from timer duration to get the exclusive duration.
+	 */
+	private static void calculateExclusiveDuration(InvocationSequenceData invData, double exclusiveDurationDelta) {
+		TimerData timerData = invData.getTimerData();
+		if (null != timerData) {
+			double exclusiveTime = timerData.getDuration() - exclusiveDurationDelta;
+			long invocationCount = InvocationSequenceDataHelper.getInvocationCount(invData);
+			double averageExclusiveTime = exclusiveTime / invocationCount;
+			timerData.setExclusiveCount(invocationCount);
+			timerData.setExclusiveDuration(exclusiveTime);
+			timerData.calculateExclusiveMax(averageExclusiveTime);
+			timerData.calculateExclusiveMin(averageExclusiveTime);
+		}
 	}
 
 	/**
@@ -134,7 +201,7 @@ public class InvocationModifierCmrProcessor extends AbstractChainedCmrDataProces
 
 	/**
 	 * Process timer data if one exists in the invData object and passes it to the chained
-	 * processors.
+	 * processors. The exclusive duration must already be calculated.
 	 *
 	 * @param entityManager
 	 *            {@link EntityManager} needed for DB persistence.
@@ -142,17 +209,10 @@ public class InvocationModifierCmrProcessor extends AbstractChainedCmrDataProces
 	 *            Invocation data to be processed.
 	 * @param topInvocationParent
 	 *            Top invocation object.
-	 * @param exclusiveDurationDelta
-	 *            Duration to subtract from timer duration to get the exclusive duration.
 	 */
-	private void processTimerData(EntityManager entityManager, InvocationSequenceData invData, InvocationSequenceData topInvocationParent, double exclusiveDurationDelta) {
+	private void processTimerData(EntityManager entityManager, InvocationSequenceData invData, InvocationSequenceData topInvocationParent) {
 		TimerData timerData = invData.getTimerData();
 		if (null != timerData) {
-			double exclusiveTime = invData.getTimerData().getDuration() - exclusiveDurationDelta;
-			timerData.setExclusiveCount(1L);
-			timerData.setExclusiveDuration(exclusiveTime);
-			timerData.calculateExclusiveMax(exclusiveTime);
-			timerData.calculateExclusiveMin(exclusiveTime);
 			timerData.addInvocationParentId(topInvocationParent.getId());
 			passToChainedProcessors(invData.getTimerData(), entityManager);
 		}
@@ -189,4 +249,135 @@ public class InvocationModifierCmrProcessor extends AbstractChainedCmrDataProces
 		}
 	}
 
+	/**
+	 * Stack of the invocations being traversed. For every invocation on the stack it holds the
+	 * index of the next nested invocation to visit and the durations collected from the already
+	 * visited nested invocations.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static final class InvocationStack {
+
+		/**
+		 * Initial capacity of the stack.
+		 */
+		private static final int INITIAL_CAPACITY = 32;
+
+		/**
+		 * Invocations on the stack.
+		 */
+		private InvocationSequenceData[] invocations = new InvocationSequenceData[INITIAL_CAPACITY];
+
+		/**
+		 * Index of the next nested invocation to visit.
+		 */
+		private int[] childIndexes = new int[INITIAL_CAPACITY];
+
+		/**
+		 * Duration to subtract from the timer duration to get the exclusive duration.
+		 */
+		private double[] exclusiveDurationDeltas = new double[INITIAL_CAPACITY];
+
+		/**
+		 * Duration of the nested invocations as calculated by
+		 * {@link InvocationSequenceDataHelper#computeNestedDuration(InvocationSequenceData)}.
+		 */
+		private double[] nestedDurations = new double[INITIAL_CAPACITY];
+
+		/**
+		 * Current size.
+		 */
+		private int size;
+
+		/**
+		 * Pushes the invocation to the stack.
+		 *
+		 * @param invocation
+		 *            Invocation.
+		 */
+		void push(InvocationSequenceData invocation) {
+			if (size == invocations.length) {
+				int capacity = size * 2;
+				invocations = Arrays.copyOf(invocations, capacity);
+				childIndexes = Arrays.copyOf(childIndexes, capacity);
+				exclusiveDurationDeltas = Arrays.copyOf(exclusiveDurationDeltas, capacity);
+				nestedDurations = Arrays.copyOf(nestedDurations, capacity);
+			}
+			invocations[size] = invocation;
+			childIndexes[size] = 0;
+			exclusiveDurationDeltas[size] = 0d;
+			nestedDurations[size] = 0d;
+			size++;
+		}
+
+		/**
+		 * Returns the invocation on top of the stack.
+		 *
+		 * @return Invocation on top of the stack.
+		 */
+		InvocationSequenceData peek() {
+			return invocations[size - 1];
+		}
+
+		/**
+		 * Returns the next nested invocation of the invocation on top of the stack to visit.
+		 *
+		 * @return Next nested invocation or <code>null</code> if all were visited.
+		 */
+		InvocationSequenceData nextChild() {
+			List<InvocationSequenceData> nestedSequences = invocations[size - 1].getNestedSequences();
+			int index = childIndexes[size - 1];
+			if (index < nestedSequences.size()) {
+				childIndexes[size - 1] = index + 1;
+				return nestedSequences.get(index);
+			}
+			return null;
+		}
+
+		/**
+		 * Pops the invocation from the stack.
+		 *
+		 * @return Duration to subtract from the timer duration of the popped invocation to get the
+		 *         exclusive duration.
+		 */
+		double pop() {
+			size--;
+			invocations[size] = null;
+			return exclusiveDurationDeltas[size];
+		}
+
+		/**
+		 * Returns the duration of the nested invocations of the last popped invocation.
+		 *
+		 * @return Duration of the nested invocations of the last popped invocation.
+		 */
+		double getPoppedNestedDuration() {
+			// values of the popped invocation are still in the array
+			return nestedDurations[size];
+		}
+
+		/**
+		 * Adds the durations of the finished nested invocation to the invocation on top of the
+		 * stack. Must be called right after the nested invocation was popped.
+		 *
+		 * @param child
+		 *            Finished nested invocation.
+		 */
+		void addToParent(InvocationSequenceData child) {
+			double childNestedDuration = getPoppedNestedDuration();
+			exclusiveDurationDeltas[size - 1] += getExclusiveDurationDelta(child, childNestedDuration);
+			nestedDurations[size - 1] += getNestedDuration(child, childNestedDuration);
+		}
+
+		/**
+		 * Returns if stack is empty.
+		 *
+		 * @return If stack is empty.
+		 */
+		boolean isEmpty() {
+			return 0 == size;
+		}
+	}
+
 }
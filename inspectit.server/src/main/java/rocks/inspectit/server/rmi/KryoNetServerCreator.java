@@ -14,6 +14,7 @@ import org.springframework.context.annotation.DependsOn;
 
 import com.esotericsoftware.kryo.Kryo;
 
+import rocks.inspectit.server.util.Converter;
 import rocks.inspectit.shared.all.kryonet.Connection;
 import rocks.inspectit.shared.all.kryonet.ExtendedSerializationImpl;
 import rocks.inspectit.shared.all.kryonet.IExtendedSerialization;
@@ -45,6 +46,12 @@ public class KryoNetServerCreator {
 	@Value("${cmr.port}")
 	private int port;
 
+	/**
+	 * Amount of selector threads driving the agent connections.
+	 */
+	@Value("${cmr.kryonet.selectorThreads}")
+	private int selectorThreads;
+
 	/**
 	 * Serialization manager to provide {@link Kryo} instance.
 	 */
@@ -65,6 +72,19 @@ public class KryoNetServerCreator {
 	@Qualifier("kryoNetObjectSpaceExecutorService")
 	private ExecutorService executorService;
 
+	/**
+	 * Executor service for decoding the objects received from the agents, so that the selector
+	 * threads are not blocked by the de-serialization.
+	 */
+	@Autowired
+	@Qualifier("kryoNetDecodeExecutorService")
+	private ExecutorService decodeExecutorService;
+
+	/**
+	 * Created server.
+	 */
+	private Server server;
+
 	/**
 	 * Start the kryonet server and binds it to the specified port.
 	 *
@@ -74,12 +94,12 @@ public class KryoNetServerCreator {
 	public Server createServer() {
 		IExtendedSerialization serialization = new ExtendedSerializationImpl(serializationManagerProvider);
 
-		Server server = new Server(serialization, streamProvider);
+		server = new Server(serialization, streamProvider, selectorThreads, decodeExecutorService);
 		server.start();
 
 		try {
 			server.bind(port);
-			log.info("|-Kryonet server successfully started and running on port " + port);
+			log.info("|-Kryonet server successfully started and running on port " + port + " with " + selectorThreads + " selector thread(s)");
 		} catch (IOException e) {
 			throw new BeanInitializationException("Could not bind the kryonet server to the specified port (" + port + ").", e);
 		}
@@ -110,4 +130,30 @@ public class KryoNetServerCreator {
 		return objectSpace;
 	}
 
+	/**
+	 * Returns the amount of agent connections which received data is waiting to be decoded.
+	 *
+	 * @return Returns the amount of agent connections which received data is waiting to be
+	 *         decoded or <code>0</code> if server is not created.
+	 */
+	public int getDecodeQueueDepth() {
+		if (null == server) {
+			return 0;
+		}
+		return server.getDecodeQueueDepth();
+	}
+
+	/**
+	 * Returns the average time needed to decode one object received from the agents.
+	 *
+	 * @return Returns the average decode time in milliseconds or <code>0</code> if nothing has
+	 *         been decoded yet.
+	 */
+	public double getAverageDecodeLatency() {
+		if ((null == server) || (0 == server.getDecodedObjects())) {
+			return 0d;
+		}
+		return Converter.nanoToMilliseconds(server.getDecodeTime() / server.getDecodedObjects());
+	}
+
 }
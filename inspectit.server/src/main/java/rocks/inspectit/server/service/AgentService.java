@@ -76,6 +76,15 @@ public class AgentService implements IAgentService {
 		return nextGenInstrumentationManager.analyze(platformIdent, hash, sentType);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@MethodLog
+	public Map<String, InstrumentationDefinition> analyzeTypes(long platformIdent, Map<String, Type> hashAndTypes) throws BusinessException {
+		return nextGenInstrumentationManager.analyzeTypes(platformIdent, hashAndTypes);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -13,7 +13,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import rocks.inspectit.server.dao.DefaultDataDao;
+import rocks.inspectit.server.processor.CmrDataProcessingPipeline;
+import rocks.inspectit.server.processor.CmrDataProcessingStage;
 import rocks.inspectit.server.spring.aop.MethodLog;
 import rocks.inspectit.server.util.AgentStatusDataProvider;
 import rocks.inspectit.server.util.Converter;
@@ -24,8 +25,10 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.cmr.service.ICmrManagementService;
 
 /**
- * The default implementation of the {@link IAgentStorageService} interface. Uses an implementation
- * of the {@link DefaultDataDao} interface to save and retrieve the data objects from the database.
+ * The default implementation of the {@link IAgentStorageService} interface. Passes the data objects
+ * to the {@link CmrDataProcessingPipeline} that executes the CMR data processors. If the pipeline
+ * is saturated the data is not waited to be queued, but dropped immediately, so that the agents
+ * get the feedback as soon as possible.
  *
  * @author Patrice Bouillet
  *
@@ -48,10 +51,10 @@ public class AgentStorageService implements IAgentStorageService {
 	private static final long DATA_THROW_TIMEOUT_MILLIS = 10;
 
 	/**
-	 * The default data DAO.
+	 * Pipeline executing the CMR data processors.
 	 */
 	@Autowired
-	private DefaultDataDao defaultDataDao;
+	CmrDataProcessingPipeline cmrDataProcessingPipeline;
 
 	/**
 	 * {@link AgentStatusDataProvider}.
@@ -102,22 +105,31 @@ public class AgentStorageService implements IAgentStorageService {
 	 */
 	@Override
 	@MethodLog
-	public void addDataObjects(final List<? extends DefaultData> dataObjects) {
+	public boolean addDataObjects(final List<? extends DefaultData> dataObjects) {
 		SoftReference<List<? extends DefaultData>> softReference = new SoftReference<List<? extends DefaultData>>(dataObjects);
 		if (!dataObjects.isEmpty()) {
 			platformIdentDateSaver.registerDataSent(dataObjects.get(0).getPlatformIdent());
 		}
 		try {
-			boolean added = dataObjectsBlockingQueue.offer(softReference, DATA_THROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			boolean added;
+			if (cmrDataProcessingPipeline.isSaturated()) {
+				// pipeline is back-pressuring, don't wait for the queue to be emptied
+				added = dataObjectsBlockingQueue.offer(softReference);
+			} else {
+				added = dataObjectsBlockingQueue.offer(softReference, DATA_THROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			}
 			if (!added) {
 				int droppedSize = dataObjects.size();
 				if (log.isTraceEnabled()) {
-					log.trace("Data dropped on the CMR due to the high volume of incoming data from Agent(s). Dropped data objects count: " + droppedSize);
+					CmrDataProcessingStage bottleneckStage = cmrDataProcessingPipeline.getBottleneckStage();
+					log.trace("Data dropped on the CMR due to the high volume of incoming data from Agent(s). Dropped data objects count: " + droppedSize + ", bottleneck processing stage: "
+							+ ((null != bottleneckStage) ? bottleneckStage.getName() : "none"));
 				}
 				cmrManagementService.addDroppedDataCount(droppedSize);
 			}
+			return added;
 		} catch (InterruptedException e) {
-			return;
+			return false;
 		}
 	}
 
@@ -173,8 +185,8 @@ public class AgentStorageService implements IAgentStorageService {
 	}
 
 	/**
-	 * Thread class that is processing the data coming to the Agent service and invoking the
-	 * {@link DefaultDataDao}.
+	 * Thread class that is passing the data coming to the Agent service to the
+	 * {@link CmrDataProcessingPipeline}.
 	 *
 	 * @author Ivan Senic
 	 *
@@ -217,10 +229,15 @@ public class AgentStorageService implements IAgentStorageService {
 						time = System.nanoTime();
 					}
 
-					defaultDataDao.saveAll(defaultDataList);
+					try {
+						cmrDataProcessingPipeline.process(defaultDataList);
+					} catch (InterruptedException e) {
+						this.interrupt();
+						return;
+					}
 
 					if (log.isDebugEnabled()) {
-						log.debug("Data Objects count: " + defaultDataList.size() + " Save duration: " + Converter.nanoToMilliseconds(System.nanoTime() - time));
+						log.debug("Data Objects count: " + defaultDataList.size() + " Pipeline hand-over duration: " + Converter.nanoToMilliseconds(System.nanoTime() - time));
 					}
 				}
 			}
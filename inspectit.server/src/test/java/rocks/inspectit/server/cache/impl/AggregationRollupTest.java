@@ -0,0 +1,329 @@
+package rocks.inspectit.server.cache.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.communication.data.AggregatedSqlStatementData;
+import rocks.inspectit.shared.all.communication.data.AggregatedTimerData;
+import rocks.inspectit.shared.all.communication.data.HttpTimerData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.indexing.aggregation.Aggregators;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.AggregationPerformer;
+import rocks.inspectit.shared.cs.indexing.aggregation.impl.HttpTimerDataAggregator;
+import rocks.inspectit.shared.cs.indexing.impl.IndexQuery;
+import rocks.inspectit.shared.cs.indexing.restriction.impl.CachingIndexQueryRestrictionProcessor;
+
+/**
+ * Tests the {@link AggregationRollup}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class AggregationRollupTest {
+
+	protected static final long BUCKET_LENGTH = 1000L;
+
+	protected AggregationRollup<TimerData> rollup;
+
+	protected AggregationPerformer<TimerData> performer;
+
+	protected IndexQuery query;
+
+	@BeforeMethod
+	public void init() {
+		rollup = new AggregationRollup<>(Aggregators.TIMER_DATA_AGGREGATOR, Arrays.<Class<?>> asList(TimerData.class, AggregatedTimerData.class), BUCKET_LENGTH);
+		performer = new AggregationPerformer<>(Aggregators.TIMER_DATA_AGGREGATOR);
+		query = new IndexQuery();
+		query.setRestrictionProcessor(new CachingIndexQueryRestrictionProcessor());
+	}
+
+	protected TimerData timerData(long platformIdent, long methodIdent, long time, double duration) {
+		TimerData timerData = new TimerData(new Timestamp(time), platformIdent, 1L, methodIdent);
+		timerData.setCount(1L);
+		timerData.setDuration(duration);
+		timerData.calculateMin(duration);
+		timerData.calculateMax(duration);
+		return timerData;
+	}
+
+	public static class Add extends AggregationRollupTest {
+
+		@Test
+		public void groupedPerMethodAndBucket() {
+			rollup.add(timerData(1L, 10L, 100L, 1d));
+			rollup.add(timerData(1L, 10L, 900L, 3d));
+			rollup.add(timerData(1L, 11L, 500L, 5d));
+			rollup.add(timerData(1L, 10L, 1500L, 7d));
+
+			assertThat(rollup.getGroupCount(), is(3L));
+		}
+
+		@Test
+		public void otherClassesNotRolledUp() {
+			assertThat(rollup.isRolledUp(timerData(1L, 10L, 100L, 1d)), is(true));
+			assertThat(rollup.isRolledUp(new SqlStatementData()), is(false));
+			assertThat(rollup.isRolledUp(null), is(false));
+		}
+
+		@Test
+		public void noTimeStamp() {
+			TimerData timerData = new TimerData();
+
+			assertThat(rollup.add(timerData), is(false));
+			assertThat(rollup.getGroupCount(), is(0L));
+		}
+	}
+
+	public static class Aggregate extends AggregationRollupTest {
+
+		@Test
+		public void allBuckets() {
+			rollup.add(timerData(1L, 10L, 100L, 1d));
+			rollup.add(timerData(1L, 10L, 1500L, 3d));
+			rollup.add(timerData(1L, 10L, 2500L, 5d));
+
+			long[] covered = rollup.aggregate(query, performer);
+
+			assertThat(covered[0], is(0L));
+			assertThat(covered[1], is(Long.MAX_VALUE));
+			List<TimerData> result = performer.getResultList();
+			assertThat(result, hasSize(1));
+			TimerData aggregated = result.get(0);
+			assertThat(aggregated.getCount(), is(3L));
+			assertThat(aggregated.getDuration(), is(9d));
+			assertThat(aggregated.getMin(), is(1d));
+			assertThat(aggregated.getMax(), is(5d));
+			assertThat(aggregated.getTimeStamp(), is(nullValue()));
+		}
+
+		@Test
+		public void platformAndMethodRestricted() {
+			rollup.add(timerData(1L, 10L, 100L, 1d));
+			rollup.add(timerData(1L, 11L, 100L, 2d));
+			rollup.add(timerData(2L, 20L, 100L, 3d));
+
+			query.setPlatformIdent(1L);
+			rollup.aggregate(query, performer);
+			assertThat(performer.getResultList(), hasSize(2));
+
+			performer.reset();
+			query.setMethodIdent(11L);
+			rollup.aggregate(query, performer);
+			List<TimerData> result = performer.getResultList();
+			assertThat(result, hasSize(1));
+			assertThat(result.get(0).getDuration(), is(2d));
+		}
+
+		@Test
+		public void onlyCompleteBucketsInInterval() {
+			rollup.add(timerData(1L, 10L, 500L, 1d));
+			rollup.add(timerData(1L, 10L, 1500L, 2d));
+			rollup.add(timerData(1L, 10L, 2500L, 4d));
+			rollup.add(timerData(1L, 10L, 3500L, 8d));
+
+			query.setFromDate(new Timestamp(200L));
+			query.setToDate(new Timestamp(3200L));
+			long[] covered = rollup.aggregate(query, performer);
+
+			assertThat(covered[0], is(1000L));
+			assertThat(covered[1], is(3000L));
+			assertThat(performer.getResultList().get(0).getDuration(), is(6d));
+		}
+
+		@Test
+		public void singleMillisecondEdgesAvoided() {
+			rollup.add(timerData(1L, 10L, 1500L, 2d));
+			rollup.add(timerData(1L, 10L, 2500L, 4d));
+			rollup.add(timerData(1L, 10L, 3500L, 8d));
+
+			query.setFromDate(new Timestamp(999L));
+			query.setToDate(new Timestamp(4000L));
+			long[] covered = rollup.aggregate(query, performer);
+
+			assertThat(covered[0], is(2000L));
+			assertThat(covered[1], is(3000L));
+			assertThat(performer.getResultList().get(0).getDuration(), is(4d));
+		}
+
+		@Test
+		public void alignedInterval() {
+			rollup.add(timerData(1L, 10L, 1500L, 2d));
+			rollup.add(timerData(1L, 10L, 2500L, 4d));
+
+			query.setFromDate(new Timestamp(1000L));
+			query.setToDate(new Timestamp(2999L));
+			long[] covered = rollup.aggregate(query, performer);
+
+			assertThat(covered[0], is(1000L));
+			assertThat(covered[1], is(3000L));
+			assertThat(performer.getResultList().get(0).getDuration(), is(6d));
+		}
+
+		@Test
+		public void noCompleteBucket() {
+			rollup.add(timerData(1L, 10L, 1500L, 2d));
+
+			query.setFromDate(new Timestamp(1200L));
+			query.setToDate(new Timestamp(2500L));
+			long[] covered = rollup.aggregate(query, performer);
+
+			assertThat(covered, is(nullValue()));
+			assertThat(performer.getResultList(), is(empty()));
+		}
+
+		@Test
+		public void coarserAggregator() {
+			AggregationRollup<SqlStatementData> sqlRollup = new AggregationRollup<>(Aggregators.SQL_STATEMENT_DATA_PARAMETER_AGGREGATOR,
+					Arrays.<Class<?>> asList(SqlStatementData.class, AggregatedSqlStatementData.class), BUCKET_LENGTH);
+			for (int i = 0; i < 4; i++) {
+				SqlStatementData sqlStatementData = new SqlStatementData(new Timestamp(100L * i), 1L, 1L, 10L);
+				sqlStatementData.setSql("SELECT * FROM table WHERE id = ?");
+				sqlStatementData.setPreparedStatement(true);
+				sqlStatementData.setParameterValues(Arrays.asList(String.valueOf(i % 2)));
+				sqlStatementData.setCount(1L);
+				sqlStatementData.setDuration(1d);
+				sqlRollup.add(sqlStatementData);
+			}
+
+			AggregationPerformer<SqlStatementData> sqlPerformer = new AggregationPerformer<>(Aggregators.SQL_STATEMENT_DATA_PARAMETER_AGGREGATOR);
+			sqlRollup.aggregate(query, sqlPerformer);
+			assertThat(sqlPerformer.getResultList(), hasSize(2));
+
+			sqlPerformer = new AggregationPerformer<>(Aggregators.SQL_STATEMENT_DATA_AGGREGATOR);
+			sqlRollup.aggregate(query, sqlPerformer);
+			List<SqlStatementData> result = sqlPerformer.getResultList();
+			assertThat(result, hasSize(1));
+			assertThat(result.get(0).getCount(), is(4L));
+			assertThat(result.get(0).getParameterValues(), is(nullValue()));
+			assertThat(((AggregatedSqlStatementData) result.get(0)).getAggregatedIds(), is(empty()));
+		}
+	}
+
+	public static class Expire extends AggregationRollupTest {
+
+		@Test
+		public void bucketsBeforeOldestRemoved() {
+			rollup.add(timerData(1L, 10L, 500L, 1d));
+			rollup.add(timerData(1L, 10L, 1500L, 2d));
+			rollup.add(timerData(1L, 10L, 2500L, 4d));
+
+			rollup.expire(1700L);
+
+			assertThat(rollup.getCoverageStart(), is(1000L));
+			long[] covered = rollup.aggregate(query, performer);
+			assertThat(covered[0], is(1000L));
+			assertThat(performer.getResultList().get(0).getDuration(), is(6d));
+		}
+
+		@Test
+		public void olderElementsIgnored() {
+			rollup.expire(1700L);
+
+			assertThat(rollup.add(timerData(1L, 10L, 500L, 1d)), is(false));
+			assertThat(rollup.add(timerData(1L, 10L, 1000L, 1d)), is(true));
+		}
+
+		@Test
+		public void neverBackwards() {
+			rollup.expire(2500L);
+			rollup.expire(500L);
+
+			assertThat(rollup.getCoverageStart(), is(2000L));
+		}
+
+		@Test
+		public void clearAll() {
+			rollup.add(timerData(1L, 10L, 1500L, 2d));
+			rollup.expire(1200L);
+
+			rollup.clearAll();
+
+			assertThat(rollup.getGroupCount(), is(0L));
+			assertThat(rollup.getCoverageStart(), is(0L));
+			rollup.aggregate(query, performer);
+			assertThat(performer.getResultList(), is(empty()));
+		}
+	}
+
+	public static class Http extends AggregationRollupTest {
+
+		@Test
+		public void groupsAggregatedByEveryHttpAggregator() {
+			AggregationRollups rollups = new AggregationRollups();
+			rollups.enabled = true;
+			rollups.bucketLength = BUCKET_LENGTH;
+			rollups.postConstruct();
+
+			String[][] requests = new String[][] { { "/a", "GET", "tag" }, { "/a", "POST", null }, { "/b", "GET", "tag" } };
+			for (String[] request : requests) {
+				HttpTimerData httpData = new HttpTimerData(new Timestamp(100L), 1L, 1L, 10L);
+				httpData.getHttpInfo().setUri(request[0]);
+				httpData.getHttpInfo().setRequestMethod(request[1]);
+				httpData.getHttpInfo().setInspectItTaggingHeaderValue(request[2]);
+				httpData.setCount(1L);
+				httpData.setDuration(1d);
+				rollups.add(httpData);
+			}
+
+			HttpTimerDataAggregator uriAggregator = new HttpTimerDataAggregator(true, false);
+			AggregationPerformer<HttpTimerData> httpPerformer = new AggregationPerformer<>(uriAggregator);
+			rollups.getRollup(uriAggregator).aggregate(query, httpPerformer);
+			assertThat(httpPerformer.getResultList(), hasSize(2));
+
+			HttpTimerDataAggregator tagAggregator = new HttpTimerDataAggregator(false, true);
+			httpPerformer = new AggregationPerformer<>(tagAggregator);
+			rollups.getRollup(tagAggregator).aggregate(query, httpPerformer);
+			List<HttpTimerData> result = httpPerformer.getResultList();
+			assertThat(result, hasSize(2));
+			for (HttpTimerData data : result) {
+				if ("tag".equals(data.getHttpInfo().getInspectItTaggingHeaderValue())) {
+					assertThat(data.getCount(), is(2L));
+					assertThat(data.getHttpInfo().getRequestMethod(), is("GET"));
+				} else {
+					// not tagged elements are ignored by the aggregator
+					assertThat(data.getCount(), is(0L));
+					assertThat(data.getHttpInfo().getRequestMethod(), is("POST"));
+				}
+			}
+		}
+
+		@Test
+		public void disabled() {
+			AggregationRollups rollups = new AggregationRollups();
+			rollups.postConstruct();
+
+			assertThat(rollups.getRollup(Aggregators.TIMER_DATA_AGGREGATOR), is(nullValue()));
+			assertThat(rollups.isRolledUp(timerData(1L, 10L, 100L, 1d)), is(false));
+		}
+	}
+
+	public static class Ids extends AggregationRollupTest {
+
+		@Test
+		public void aggregatedIdsKept() {
+			TimerData first = timerData(1L, 10L, 100L, 1d);
+			first.setId(1L);
+			TimerData second = timerData(1L, 10L, 1100L, 1d);
+			second.setId(2L);
+			rollup.add(first);
+			rollup.add(second);
+
+			rollup.aggregate(query, performer);
+
+			assertThat(((AggregatedTimerData) performer.getResultList().get(0)).getAggregatedIds(), containsInAnyOrder(1L, 2L));
+		}
+	}
+}
@@ -21,6 +21,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import rocks.inspectit.server.cache.IBufferElement;
+import rocks.inspectit.server.indexing.impl.TraceIndex;
 import rocks.inspectit.server.test.AbstractTestNGLogSupport;
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -49,6 +50,15 @@ public class AtomicBufferTest extends AbstractTestNGLogSupport {
 	@Mock
 	private IBufferTreeComponent<DefaultData> indexingTree;
 
+	@Mock
+	private TraceIndex traceIndex;
+
+	@Mock
+	private SerializedBufferTier<DefaultData> serializedBufferTier;
+
+	@Mock
+	private AggregationRollups aggregationRollups;
+
 	/**
 	 * Init.
 	 *
@@ -61,6 +71,11 @@ public class AtomicBufferTest extends AbstractTestNGLogSupport {
 		buffer.bufferProperties = bufferProperties;
 		buffer.objectSizes = objectSizes;
 		buffer.indexingTree = indexingTree;
+		buffer.traceIndex = traceIndex;
+		buffer.serializedBufferTier = serializedBufferTier;
+		buffer.aggregationRollups = aggregationRollups;
+		buffer.objectSizeEstimator = new ObjectSizeEstimator();
+		buffer.objectSizeEstimator.objectSizes = objectSizes;
 		buffer.log = LoggerFactory.getLogger(AtomicBuffer.class);
 		when(bufferProperties.getIndexingTreeCleaningThreads()).thenReturn(1);
 		buffer.postConstruct();
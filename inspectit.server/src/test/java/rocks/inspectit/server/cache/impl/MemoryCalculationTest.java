@@ -26,9 +26,10 @@ import org.testng.annotations.Test;
 import com.javamex.classmexer.MemoryUtil;
 import com.javamex.classmexer.MemoryUtil.VisibilityFilter;
 
-import rocks.inspectit.server.cache.AbstractObjectSizes;
 import rocks.inspectit.server.test.AbstractTestNGLogSupport;
+import rocks.inspectit.shared.all.cmr.cache.AbstractObjectSizes;
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.cmr.cache.impl.ObjectSizesFactory;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
 import rocks.inspectit.shared.all.communication.Sizeable;
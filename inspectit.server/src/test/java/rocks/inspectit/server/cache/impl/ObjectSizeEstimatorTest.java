@@ -0,0 +1,178 @@
+package rocks.inspectit.server.cache.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.server.cache.IBufferElement;
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.cmr.cache.impl.ObjectSizes64BitsCompressedOops;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link ObjectSizeEstimator}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class ObjectSizeEstimatorTest extends TestBase {
+
+	ObjectSizeEstimator estimator;
+
+	IObjectSizes objectSizes;
+
+	@BeforeMethod
+	public void init() {
+		objectSizes = new ObjectSizes64BitsCompressedOops();
+		estimator = new ObjectSizeEstimator();
+		estimator.objectSizes = objectSizes;
+		estimator.samplingRate = 10;
+	}
+
+	public class GetObjectSize extends ObjectSizeEstimatorTest {
+
+		@Test
+		public void exactWhenSamplingDisabled() {
+			InvocationSequenceData invocation = createInvocation(3, 20);
+
+			long size = estimator.getObjectSize(invocation);
+
+			assertThat(size, is(invocation.getObjectSize(objectSizes)));
+			assertThat(estimator.getElementsVerified(), is(0L));
+		}
+
+		@Test
+		public void exactWhenNoSiblingsSkipped() {
+			estimator.samplingEnabled = true;
+			estimator.samplingRate = 1;
+			InvocationSequenceData invocation = createInvocation(4, 7);
+
+			long size = estimator.estimateInvocationSize(invocation);
+
+			assertThat(size, is(invocation.getObjectSize(objectSizes)));
+		}
+
+		@Test
+		public void sampledInvocationWithinErrorBound() {
+			estimator.samplingEnabled = true;
+			InvocationSequenceData invocation = createInvocation(3, 30);
+
+			long size = estimator.estimateInvocationSize(invocation);
+
+			long exactSize = invocation.getObjectSize(objectSizes);
+			assertThat((double) size, is(closeTo(exactSize, exactSize * 0.05d)));
+		}
+
+		@Test
+		public void stableShapeCached() {
+			estimator.samplingEnabled = true;
+			TimerData timerData = mock(TimerData.class);
+			when(timerData.getObjectSize(objectSizes)).thenReturn(100L);
+
+			for (int i = 0; i < ObjectSizeEstimator.STABLE_SHAPE_OBSERVATIONS; i++) {
+				assertThat(estimator.getObjectSize(timerData), is(100L));
+			}
+			assertThat(estimator.getObjectSize(timerData), is(100L));
+
+			verify(timerData, times(ObjectSizeEstimator.STABLE_SHAPE_OBSERVATIONS)).getObjectSize(objectSizes);
+		}
+
+		@Test
+		public void errorRecorded() {
+			estimator.samplingEnabled = true;
+			TimerData timerData = mock(TimerData.class);
+			when(timerData.getObjectSize(objectSizes)).thenReturn(100L);
+			for (int i = 0; i < ObjectSizeEstimator.STABLE_SHAPE_OBSERVATIONS; i++) {
+				estimator.getObjectSize(timerData);
+			}
+			when(timerData.getObjectSize(objectSizes)).thenReturn(200L);
+
+			for (int i = 0; i < ObjectSizeEstimator.VERIFICATION_INTERVAL; i++) {
+				estimator.getObjectSize(timerData);
+			}
+
+			assertThat(estimator.getElementsVerified(), is(1L));
+			assertThat(estimator.getMaxRelativeError(), is(0.5d));
+			assertThat(estimator.getMeanRelativeError(), is(0.5d));
+			// shape is not stable any more
+			assertThat(estimator.getObjectSize(timerData), is(200L));
+		}
+
+		@Test
+		public void sampledInvocationsVerified() {
+			estimator.samplingEnabled = true;
+			InvocationSequenceData invocation = createInvocation(2, 30);
+
+			for (int i = 0; i < ObjectSizeEstimator.VERIFICATION_INTERVAL; i++) {
+				estimator.getObjectSize(invocation);
+			}
+
+			assertThat(estimator.getElementsVerified(), is(1L));
+			assertThat(estimator.getMaxRelativeError(), is(lessThan(0.05d)));
+		}
+	}
+
+	public class CalculateAndSetBufferElementSize extends ObjectSizeEstimatorTest {
+
+		@Test
+		public void sizeSet() {
+			InvocationSequenceData invocation = createInvocation(2, 5);
+			IBufferElement<DefaultData> element = new BufferElement<DefaultData>(invocation);
+			IBufferElement<DefaultData> exactElement = new BufferElement<DefaultData>(invocation);
+
+			estimator.calculateAndSetBufferElementSize(element);
+			exactElement.calculateAndSetBufferElementSize(objectSizes);
+
+			assertThat(element.getBufferElementSize(), is(greaterThan(0L)));
+			assertThat(element.getBufferElementSize(), is(exactElement.getBufferElementSize()));
+		}
+	}
+
+	/**
+	 * Creates the invocation tree where every node has the given amount of children.
+	 *
+	 * @param depth
+	 *            Depth of the tree.
+	 * @param children
+	 *            Children per node.
+	 * @return Root invocation.
+	 */
+	static InvocationSequenceData createInvocation(int depth, int children) {
+		InvocationSequenceData invocation = new InvocationSequenceData(new Timestamp(System.currentTimeMillis()), 1L, 1L, 1L);
+		if (depth > 0) {
+			List<InvocationSequenceData> nested = new ArrayList<>();
+			for (int i = 0; i < children; i++) {
+				InvocationSequenceData child = createInvocation(depth - 1, children);
+				if (0 == (i % 3)) {
+					SqlStatementData sqlStatementData = new SqlStatementData();
+					sqlStatementData.setSql("SELECT * FROM TABLE_" + i + " WHERE ID = ?");
+					child.setSqlStatementData(sqlStatementData);
+				} else {
+					child.setTimerData(new TimerData());
+				}
+				child.setParentSequence(invocation);
+				nested.add(child);
+			}
+			invocation.setNestedSequences(nested);
+		}
+		return invocation;
+	}
+}
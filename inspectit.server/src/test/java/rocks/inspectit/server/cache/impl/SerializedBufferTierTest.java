@@ -0,0 +1,316 @@
+package rocks.inspectit.server.cache.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.springframework.core.io.ClassPathResource;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.esotericsoftware.kryo.io.Input;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.provider.SerializationManagerProvider;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+import rocks.inspectit.shared.cs.communication.comparator.DefaultDataComparatorEnum;
+
+/**
+ * Tests the {@link SerializedBufferTier}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class SerializedBufferTierTest extends TestBase {
+
+	/**
+	 * Class under test.
+	 */
+	@InjectMocks
+	SerializedBufferTier<DefaultData> tier;
+
+	@Mock
+	SerializationManagerProvider serializationManagerProvider;
+
+	@Mock
+	IIndexQuery query;
+
+	@Mock
+	Logger log;
+
+	@InjectMocks
+	ClassSchemaManager schemaManager;
+
+	SerializationManager serializer;
+
+	@BeforeMethod
+	public void init() throws IOException {
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+		serializer = new SerializationManager();
+		serializer.setSchemaManager(schemaManager);
+		serializer.setKryoNetNetwork(new KryoNetNetwork());
+		serializer.initKryo();
+		serializer = spy(serializer);
+		when(serializationManagerProvider.createSerializer()).thenReturn(serializer);
+
+		when(query.getObjectClasses()).thenReturn(null);
+		when(query.isInInterval(any(Timestamp.class))).thenReturn(true);
+		when(query.areAllRestrictionsFulfilled(any(DefaultData.class))).thenReturn(true);
+
+		tier.enabled = true;
+		tier.maxSize = 1024 * 1024;
+		tier.segmentCapacity = 64 * 1024;
+	}
+
+	public class AddAll extends SerializedBufferTierTest {
+
+		@Test
+		public void disabled() {
+			tier.enabled = false;
+
+			tier.addAll(Collections.singletonList(createTimerData(1L, 1L)));
+			tier.serializeQueued();
+
+			assertThat(tier.getElementCount(), is(0L));
+			assertThat(tier.getOccupiedCapacity(), is(0L));
+			assertThat(tier.query(query), is(empty()));
+		}
+
+		@Test
+		public void recycleOldestSegment() {
+			tier.segmentCapacity = 1024;
+			tier.maxSize = 2048;
+			List<DefaultData> elements = new ArrayList<>();
+			for (int i = 1; i <= 200; i++) {
+				elements.add(createTimerData(i, 1L));
+			}
+
+			tier.addAll(elements);
+			tier.serializeQueued();
+
+			assertThat(tier.getOccupiedCapacity(), is(2048L));
+			assertThat(tier.getElementCount(), is(lessThan(200L)));
+			assertThat(tier.get(1L), is(nullValue()));
+			assertThat(tier.get(200L).getId(), is(200L));
+		}
+
+		@Test
+		public void elementBiggerThanSegment() {
+			tier.segmentCapacity = 8;
+
+			tier.addAll(Collections.singletonList(createTimerData(1L, 1L)));
+			tier.serializeQueued();
+
+			assertThat(tier.getElementCount(), is(0L));
+			assertThat(tier.getElementsDropped(), is(1L));
+			assertThat(tier.getOccupiedCapacity(), is(0L));
+		}
+
+		@Test
+		public void elementBiggerThanSegmentOldestKept() {
+			tier.segmentCapacity = 1024;
+			tier.maxSize = 1024;
+			StringBuilder sql = new StringBuilder();
+			for (int i = 0; i < 2048; i++) {
+				sql.append('x');
+			}
+			SqlStatementData sqlStatementData = new SqlStatementData(new Timestamp(System.currentTimeMillis()), 1L, 1L, 1L, sql.toString());
+			sqlStatementData.setId(2L);
+
+			tier.addAll(Collections.singletonList(createTimerData(1L, 1L)));
+			tier.addAll(Collections.singletonList(sqlStatementData));
+			tier.serializeQueued();
+
+			assertThat(tier.getElementCount(), is(1L));
+			assertThat(tier.getElementsDropped(), is(1L));
+			assertThat(tier.get(1L).getId(), is(1L));
+		}
+
+		@Test
+		public void notSerializedInCaller() {
+			tier.addAll(createElements());
+
+			assertThat(tier.getElementCount(), is(0L));
+			assertThat(tier.getOccupiedCapacity(), is(0L));
+			assertThat(tier.query(query), hasSize(10));
+			assertThat(tier.get(3L).getId(), is(3L));
+		}
+
+		@Test
+		public void queueFull() {
+			for (int i = 0; i < 20; i++) {
+				tier.addAll(createElements());
+			}
+
+			assertThat(tier.getElementsDropped(), is(40L));
+
+			tier.serializeQueued();
+
+			assertThat(tier.getElementCount(), is(160L));
+		}
+
+		@Test
+		public void serializationThread() throws Exception {
+			tier.postConstruct();
+			try {
+				tier.addAll(createElements());
+
+				long timeout = System.currentTimeMillis() + 5000;
+				while ((tier.getElementCount() < 10L) && (System.currentTimeMillis() < timeout)) {
+					Thread.sleep(10);
+				}
+
+				assertThat(tier.getElementCount(), is(10L));
+				assertThat(tier.query(query), hasSize(10));
+			} finally {
+				tier.preDestroy();
+			}
+		}
+	}
+
+	public class Query extends SerializedBufferTierTest {
+
+		@Test
+		public void byPlatform() {
+			tier.addAll(createElements());
+			tier.serializeQueued();
+			when(query.getPlatformIdent()).thenReturn(2L);
+
+			List<DefaultData> result = tier.query(query);
+
+			assertThat(result, hasSize(5));
+			for (DefaultData element : result) {
+				assertThat(element.getPlatformIdent(), is(2L));
+			}
+		}
+
+		@Test
+		public void byMinId() {
+			tier.addAll(createElements());
+			tier.serializeQueued();
+			when(query.getMinId()).thenReturn(8L);
+
+			List<DefaultData> result = tier.query(query);
+
+			assertThat(result, hasSize(3));
+		}
+
+		@Test
+		public void restrictionsChecked() {
+			tier.addAll(createElements());
+			tier.serializeQueued();
+			when(query.areAllRestrictionsFulfilled(any(DefaultData.class))).thenReturn(false);
+
+			assertThat(tier.query(query), is(empty()));
+		}
+
+		@Test
+		public void limited() throws Exception {
+			tier.addAll(createElements());
+			tier.serializeQueued();
+
+			List<DefaultData> result = tier.query(query, DefaultDataComparatorEnum.ID, 3);
+
+			assertThat(result, hasSize(3));
+			assertThat(result.get(0).getId(), is(1L));
+			assertThat(result.get(1).getId(), is(2L));
+			assertThat(result.get(2).getId(), is(3L));
+			// elements after the limit are not de-serialized
+			verify(serializer, atMost(3)).deserialize(any(Input.class));
+		}
+
+		@Test
+		public void limitedIncludesQueued() {
+			tier.addAll(createElements());
+
+			List<DefaultData> result = tier.query(query, DefaultDataComparatorEnum.ID, 2);
+
+			assertThat(result, hasSize(2));
+			assertThat(result.get(0).getId(), is(1L));
+			assertThat(result.get(1).getId(), is(2L));
+		}
+
+		@Test
+		public void limitZero() {
+			tier.addAll(createElements());
+			tier.serializeQueued();
+
+			assertThat(tier.query(query, DefaultDataComparatorEnum.ID, 0), is(empty()));
+		}
+
+		@Test
+		public void getById() {
+			tier.addAll(createElements());
+			tier.serializeQueued();
+
+			assertThat(tier.get(3L).getId(), is(3L));
+			assertThat(tier.get(11L), is(nullValue()));
+		}
+	}
+
+	public class ClearAll extends SerializedBufferTierTest {
+
+		@Test
+		public void segmentsReleased() {
+			tier.addAll(createElements());
+			tier.serializeQueued();
+
+			tier.clearAll();
+
+			assertThat(tier.getElementCount(), is(0L));
+			assertThat(tier.getOccupiedCapacity(), is(0L));
+			assertThat(tier.query(query), is(empty()));
+		}
+
+		@Test
+		public void queueCleared() {
+			tier.addAll(createElements());
+
+			tier.clearAll();
+			tier.serializeQueued();
+
+			assertThat(tier.getElementCount(), is(0L));
+			assertThat(tier.query(query), is(empty()));
+		}
+	}
+
+	static List<DefaultData> createElements() {
+		List<DefaultData> elements = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			elements.add(createTimerData(i, (i % 2) + 1));
+		}
+		return elements;
+	}
+
+	static TimerData createTimerData(long id, long platformIdent) {
+		TimerData timerData = new TimerData(new Timestamp(System.currentTimeMillis()), platformIdent, 1L, 1L);
+		timerData.setId(id);
+		timerData.setDuration(id);
+		return timerData;
+	}
+}
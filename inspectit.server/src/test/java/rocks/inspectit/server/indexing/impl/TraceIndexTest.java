@@ -0,0 +1,150 @@
+package rocks.inspectit.server.indexing.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.mockito.InjectMocks;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.cmr.cache.impl.ObjectSizes64Bits;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+import rocks.inspectit.shared.all.tracing.data.AbstractSpan;
+import rocks.inspectit.shared.all.tracing.data.ClientSpan;
+import rocks.inspectit.shared.all.tracing.data.ServerSpan;
+import rocks.inspectit.shared.all.tracing.data.SpanIdent;
+
+/**
+ * Tests the {@link TraceIndex}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class TraceIndexTest extends TestBase {
+
+	/**
+	 * Class under test.
+	 */
+	@InjectMocks
+	TraceIndex traceIndex;
+
+	public class Put extends TraceIndexTest {
+
+		@Test
+		public void spansAndInvocations() {
+			ServerSpan serverSpan = createSpan(new ServerSpan(), 1L, 10L);
+			ClientSpan clientSpan = createSpan(new ClientSpan(), 2L, 10L);
+			InvocationSequenceData invocation = createInvocation(1L, 10L);
+			ServerSpan otherTrace = createSpan(new ServerSpan(), 3L, 20L);
+
+			traceIndex.put(serverSpan);
+			traceIndex.put(clientSpan);
+			traceIndex.put(invocation);
+			traceIndex.put(otherTrace);
+
+			assertThat(traceIndex.getElements(10L, AbstractSpan.class), containsInAnyOrder((AbstractSpan) serverSpan, clientSpan));
+			assertThat(traceIndex.getElements(10L, InvocationSequenceData.class), contains(invocation));
+			assertThat(traceIndex.getElements(20L, DefaultData.class), contains((DefaultData) otherTrace));
+			assertThat(traceIndex.getSpan(1L), is((AbstractSpan) serverSpan));
+			assertThat(traceIndex.getSpan(2L), is((AbstractSpan) clientSpan));
+			assertThat(traceIndex.getTraceCount(), is(2));
+		}
+
+		@Test
+		public void notTraced() {
+			traceIndex.put(new TimerData());
+			traceIndex.put(new InvocationSequenceData());
+
+			assertThat(traceIndex.getTraceCount(), is(0));
+		}
+
+		@Test
+		public void unknownTrace() {
+			assertThat(traceIndex.getElements(10L, DefaultData.class), is(empty()));
+			assertThat(traceIndex.getSpan(1L), is(nullValue()));
+		}
+	}
+
+	public class Remove extends TraceIndexTest {
+
+		@Test
+		public void removeSpan() {
+			ServerSpan serverSpan = createSpan(new ServerSpan(), 1L, 10L);
+			InvocationSequenceData invocation = createInvocation(1L, 10L);
+			traceIndex.put(serverSpan);
+			traceIndex.put(invocation);
+
+			traceIndex.remove(serverSpan);
+
+			assertThat(traceIndex.getSpan(1L), is(nullValue()));
+			assertThat(traceIndex.getElements(10L, DefaultData.class), contains((DefaultData) invocation));
+		}
+
+		@Test
+		public void removeLastInTrace() {
+			ServerSpan serverSpan = createSpan(new ServerSpan(), 1L, 10L);
+			traceIndex.put(serverSpan);
+
+			traceIndex.remove(serverSpan);
+
+			assertThat(traceIndex.getTraceCount(), is(0));
+
+			// trace can be indexed again
+			traceIndex.put(serverSpan);
+			assertThat(traceIndex.getElements(10L, AbstractSpan.class), contains((AbstractSpan) serverSpan));
+		}
+
+		@Test
+		public void removeNotIndexed() {
+			ServerSpan serverSpan = createSpan(new ServerSpan(), 1L, 10L);
+			traceIndex.put(serverSpan);
+
+			traceIndex.remove(createSpan(new ServerSpan(), 1L, 10L));
+
+			assertThat(traceIndex.getSpan(1L), is((AbstractSpan) serverSpan));
+		}
+
+		@Test
+		public void clearAll() {
+			traceIndex.put(createSpan(new ServerSpan(), 1L, 10L));
+			traceIndex.put(createInvocation(2L, 20L));
+
+			traceIndex.clearAll();
+
+			assertThat(traceIndex.getTraceCount(), is(0));
+			assertThat(traceIndex.getSpan(1L), is(nullValue()));
+		}
+	}
+
+	public class GetComponentSize extends TraceIndexTest {
+
+		@Test
+		public void sizeGrows() {
+			ObjectSizes64Bits objectSizes = new ObjectSizes64Bits();
+			long emptySize = traceIndex.getComponentSize(objectSizes);
+
+			traceIndex.put(createSpan(new ServerSpan(), 1L, 10L));
+
+			assertThat(traceIndex.getComponentSize(objectSizes), is(greaterThan(emptySize)));
+		}
+	}
+
+	private static <T extends AbstractSpan> T createSpan(T span, long id, long traceId) {
+		span.setSpanIdent(new SpanIdent(id, traceId, id));
+		return span;
+	}
+
+	private static InvocationSequenceData createInvocation(long spanId, long traceId) {
+		InvocationSequenceData invocation = new InvocationSequenceData();
+		invocation.setSpanIdent(new SpanIdent(spanId, traceId, spanId));
+		return invocation;
+	}
+}
@@ -9,6 +9,8 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -18,12 +20,14 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
@@ -151,6 +155,7 @@ public class NextGenInstrumentationManagerTest extends TestBase {
 			AgentConfig result = manager.register(definedIPs, agentName, version);
 
 			assertThat(result, is(configuration));
+			verify(configuration).setCompressedTransportSupported(true);
 
 			ArgumentCaptor<AgentRegisteredEvent> eventCaptor = ArgumentCaptor.forClass(AgentRegisteredEvent.class);
 			verify(eventPublisher).publishEvent(eventCaptor.capture());
@@ -193,11 +198,33 @@ public class NextGenInstrumentationManagerTest extends TestBase {
 			verify(configurationHolder).isInitialized();
 			verify(configuration).setInitialInstrumentationResults(initialInstrumentations);
 			verify(configuration).setClassCacheExistsOnCmr(true);
+			verify(configuration).setCompressedTransportSupported(true);
 			verify(classCache).getInstrumentationService();
 			verify(instrumentationService).getInstrumentationResultsWithHashes();
 			verifyNoMoreInteractions(configurationResolver, registrationService, configurationHolder, instrumentationService, classCache);
 		}
 
+		@Test
+		public void compressedTransportNotAllowed() throws BusinessException {
+			manager.compressedTransport = false;
+			long id = 10;
+			List<String> definedIPs = mock(List.class);
+			String agentName = "agentName";
+			String version = "v1";
+			AgentConfig configuration = mock(AgentConfig.class);
+			Environment environment = mock(Environment.class);
+			when(configurationResolver.getEnvironmentForAgent(definedIPs, agentName)).thenReturn(environment);
+			when(registrationService.registerPlatformIdent(definedIPs, agentName, version)).thenReturn(id);
+			when(configurationHolder.isInitialized()).thenReturn(true);
+			when(configurationHolder.getEnvironment()).thenReturn(environment);
+			when(configurationHolder.getAgentConfiguration()).thenReturn(configuration);
+
+			AgentConfig result = manager.register(definedIPs, agentName, version);
+
+			assertThat(result, is(configuration));
+			verify(configuration).setCompressedTransportSupported(false);
+		}
+
 		@Test
 		public void existingAgentNoEnvironment() throws BusinessException {
 			long id = 10;
@@ -390,6 +417,82 @@ public class NextGenInstrumentationManagerTest extends TestBase {
 
 	}
 
+	public class AnalyzeTypes extends NextGenInstrumentationManagerTest {
+
+		@Mock
+		private Type type;
+
+		@Mock
+		private Type otherType;
+
+		private final static String HASH = "hash";
+
+		private final static String OTHER_HASH = "otherHash";
+
+		private final static long ID = 10;
+
+		@Test(expectedExceptions = BusinessException.class)
+		public void agentNotRegistered() throws BusinessException {
+			manager.analyzeTypes(ID, Collections.singletonMap(HASH, type));
+		}
+
+		@Test
+		public void mergeAllBeforeInstrumenting() throws BusinessException, ClassCacheModificationException {
+			List<String> definedIPs = mock(List.class);
+			String agentName = "agentName";
+			String version = "v1";
+			when(registrationService.registerPlatformIdent(definedIPs, agentName, version)).thenReturn(ID);
+
+			manager.register(definedIPs, agentName, version);
+
+			final ClassType classType = mock(ClassType.class);
+			when(classType.isClass()).thenReturn(true);
+			when(classType.castToClass()).thenReturn(classType);
+			ImmutableType otherTypeFromClassCache = mock(ImmutableType.class);
+			when(otherTypeFromClassCache.isClass()).thenReturn(false);
+			when(lookupService.findByHash(HASH)).thenReturn(null, classType);
+			when(lookupService.findByHash(OTHER_HASH)).thenReturn(otherTypeFromClassCache);
+			when(configurationHolder.isInitialized()).thenReturn(true);
+			AgentConfig configuration = mock(AgentConfig.class);
+			Collection<IInstrumentationApplier> appliers = mock(Collection.class);
+			InstrumentationDefinition instrumentationResult = mock(InstrumentationDefinition.class);
+			when(configurationHolder.getAgentConfiguration()).thenReturn(configuration);
+			when(configurationHolder.getInstrumentationAppliers()).thenReturn(appliers);
+			when(instrumentationService.addAndGetInstrumentationResult(classType, configuration, appliers)).thenReturn(instrumentationResult);
+			Map<String, Type> hashAndTypes = new LinkedHashMap<>();
+			hashAndTypes.put(HASH, type);
+			hashAndTypes.put(OTHER_HASH, otherType);
+
+			Map<String, InstrumentationDefinition> result = manager.analyzeTypes(ID, hashAndTypes);
+
+			assertThat(result.size(), is(1));
+			assertThat(result.get(HASH), is(instrumentationResult));
+			InOrder inOrder = inOrder(modificationService, instrumentationService);
+			inOrder.verify(modificationService).merge(type);
+			inOrder.verify(instrumentationService).addAndGetInstrumentationResult(classType, configuration, appliers);
+			verifyNoMoreInteractions(modificationService, instrumentationService);
+		}
+
+		@Test
+		public void mergeFailed() throws BusinessException, ClassCacheModificationException {
+			List<String> definedIPs = mock(List.class);
+			String agentName = "agentName";
+			String version = "v1";
+			when(registrationService.registerPlatformIdent(definedIPs, agentName, version)).thenReturn(ID);
+
+			manager.register(definedIPs, agentName, version);
+
+			when(lookupService.findByHash(HASH)).thenReturn(null);
+			doThrow(new ClassCacheModificationException("test")).when(modificationService).merge(type);
+
+			Map<String, InstrumentationDefinition> result = manager.analyzeTypes(ID, Collections.singletonMap(HASH, type));
+
+			assertThat(result.isEmpty(), is(true));
+			verifyZeroInteractions(instrumentationService);
+		}
+
+	}
+
 	public class AnalyzeJmxAttributes extends NextGenInstrumentationManagerTest {
 
 		private final static long ID = 10;
@@ -0,0 +1,124 @@
+package rocks.inspectit.server.processor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.slf4j.Logger;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.server.dao.DefaultDataDao;
+import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.all.testbase.TestBase;
+
+/**
+ * Tests the {@link CmrDataProcessingPipeline}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class CmrDataProcessingPipelineTest extends TestBase {
+
+	CmrDataProcessingPipeline pipeline;
+
+	@Mock
+	DefaultDataDao defaultDataDao;
+
+	@Mock
+	AbstractCmrDataProcessor firstProcessor;
+
+	@Mock
+	AbstractCmrDataProcessor secondProcessor;
+
+	@Mock
+	Logger log;
+
+	@AfterMethod
+	public void stop() {
+		if (null != pipeline) {
+			pipeline.stop();
+		}
+	}
+
+	public class Process extends CmrDataProcessingPipelineTest {
+
+		@Test
+		public void stagesInOrder() throws Exception {
+			CmrDataProcessingStage first = new CmrDataProcessingStage("first", Collections.singletonList(firstProcessor), false, 1, 1);
+			CmrDataProcessingStage second = new CmrDataProcessingStage("second", Collections.singletonList(secondProcessor), true, 1, 1);
+			pipeline = createPipeline(first, second);
+			pipeline.start();
+			List<DefaultData> batch = Collections.<DefaultData> singletonList(new TimerData());
+
+			pipeline.process(batch);
+
+			verify(defaultDataDao, timeout(5000)).processInTransaction(second.getProcessors(), batch);
+			InOrder inOrder = inOrder(defaultDataDao);
+			inOrder.verify(defaultDataDao).process(first.getProcessors(), batch);
+			inOrder.verify(defaultDataDao).processInTransaction(second.getProcessors(), batch);
+		}
+
+		@Test
+		public void continueAfterException() throws Exception {
+			CmrDataProcessingStage stage = new CmrDataProcessingStage("first", Collections.singletonList(firstProcessor), false, 1, 1);
+			pipeline = createPipeline(stage);
+			List<DefaultData> batch = Collections.<DefaultData> singletonList(new TimerData());
+			doThrow(new RuntimeException()).doNothing().when(defaultDataDao).process(stage.getProcessors(), batch);
+			pipeline.start();
+
+			pipeline.process(batch);
+			pipeline.process(batch);
+
+			verify(defaultDataDao, timeout(5000).times(2)).process(stage.getProcessors(), batch);
+		}
+	}
+
+	public class Saturation extends CmrDataProcessingPipelineTest {
+
+		@Test
+		public void saturated() throws Exception {
+			CmrDataProcessingStage first = new CmrDataProcessingStage("first", Collections.singletonList(firstProcessor), false, 1, 1);
+			CmrDataProcessingStage second = new CmrDataProcessingStage("second", Collections.singletonList(secondProcessor), false, 1, 1);
+			pipeline = createPipeline(first, second);
+
+			assertThat(pipeline.isSaturated(), is(false));
+			assertThat(pipeline.getBottleneckStage(), is(nullValue()));
+
+			// not started, thus batch stays in the queue
+			pipeline.process(Collections.<DefaultData> singletonList(new TimerData()));
+
+			assertThat(pipeline.isSaturated(), is(true));
+			assertThat(pipeline.getBottleneckStage(), is(first));
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void noStages() {
+			new CmrDataProcessingPipeline(Collections.<CmrDataProcessingStage> emptyList());
+		}
+
+		@Test(expectedExceptions = IllegalArgumentException.class)
+		public void zeroParallelism() {
+			new CmrDataProcessingStage("first", Collections.singletonList(firstProcessor), false, 0, 1);
+		}
+	}
+
+	CmrDataProcessingPipeline createPipeline(CmrDataProcessingStage... stages) {
+		CmrDataProcessingPipeline result = new CmrDataProcessingPipeline(Arrays.asList(stages));
+		result.defaultDataDao = defaultDataDao;
+		result.log = log;
+		return result;
+	}
+}
@@ -33,6 +33,8 @@ import org.testng.annotations.Test;
 
 import rocks.inspectit.server.cache.IBuffer;
 import rocks.inspectit.server.cache.IBufferElement;
+import rocks.inspectit.server.cache.impl.AggregationRollups;
+import rocks.inspectit.server.cache.impl.ObjectSizeEstimator;
 import rocks.inspectit.server.dao.impl.TimerDataAggregator;
 import rocks.inspectit.server.processor.AbstractCmrDataProcessor;
 import rocks.inspectit.server.storage.CmrStorageManager;
@@ -73,6 +75,12 @@ public class CmrDataProcessorsTest {
 	@Mock
 	private CacheIdGenerator cacheIdGenerator;
 
+	@Mock
+	private AggregationRollups aggregationRollups;
+
+	@Mock
+	private ObjectSizeEstimator objectSizeEstimator;
+
 	@Mock
 	private IBufferTreeComponent<DefaultData> indexingTree;
 
@@ -104,6 +112,7 @@ public class CmrDataProcessorsTest {
 	public void bufferInserter() {
 		BufferInserterCmrProcessor processor = new BufferInserterCmrProcessor();
 		processor.buffer = buffer;
+		processor.objectSizeEstimator = objectSizeEstimator;
 
 		// don't fail on null
 		processor.process((DefaultData) null, entityManager);
@@ -134,6 +143,64 @@ public class CmrDataProcessorsTest {
 		verify(buffer, times(1)).put(captor.capture());
 		verifyZeroInteractions(entityManager);
 		assertThat(captor.getValue().getObject(), is(equalTo(((Object) invocationAwareData))));
+		verify(objectSizeEstimator, times(1)).calculateAndSetBufferElementSize(captor.getValue());
+	}
+
+	/**
+	 * Tests the {@link AggregationRollupCmrProcessor} for the data outside of invocations.
+	 */
+	@Test
+	public void aggregationRollup() {
+		AggregationRollupCmrProcessor processor = new AggregationRollupCmrProcessor(false);
+		processor.aggregationRollups = aggregationRollups;
+
+		// don't fail on null
+		processor.process((DefaultData) null, entityManager);
+		verifyZeroInteractions(entityManager);
+
+		// only data that is rolled up
+		InvocationAwareData invocationAwareData = mock(InvocationAwareData.class);
+		when(invocationAwareData.isOnlyFoundInInvocations()).thenReturn(false);
+		when(invocationAwareData.isOnlyFoundOutsideInvocations()).thenReturn(true);
+		when(aggregationRollups.isRolledUp(invocationAwareData)).thenReturn(false);
+		processor.process(invocationAwareData, entityManager);
+		verify(aggregationRollups, times(0)).add(invocationAwareData);
+
+		// we don't add data that's part of invocation
+		when(aggregationRollups.isRolledUp(invocationAwareData)).thenReturn(true);
+		when(invocationAwareData.isOnlyFoundOutsideInvocations()).thenReturn(false);
+		processor.process(invocationAwareData, entityManager);
+		verify(aggregationRollups, times(0)).add(invocationAwareData);
+
+		// add other data
+		when(invocationAwareData.isOnlyFoundOutsideInvocations()).thenReturn(true);
+		processor.process(invocationAwareData, entityManager);
+		verify(aggregationRollups, times(1)).add(invocationAwareData);
+		verifyZeroInteractions(entityManager);
+	}
+
+	/**
+	 * Tests the {@link AggregationRollupCmrProcessor} for the data in invocations.
+	 */
+	@Test
+	public void aggregationRollupInInvocations() {
+		AggregationRollupCmrProcessor processor = new AggregationRollupCmrProcessor(true);
+		processor.aggregationRollups = aggregationRollups;
+
+		// we don't add data that's not part of invocation
+		InvocationAwareData invocationAwareData = mock(InvocationAwareData.class);
+		when(invocationAwareData.isOnlyFoundInInvocations()).thenReturn(false);
+		when(invocationAwareData.isOnlyFoundOutsideInvocations()).thenReturn(true);
+		when(aggregationRollups.isRolledUp(invocationAwareData)).thenReturn(true);
+		processor.process(invocationAwareData, entityManager);
+		verify(aggregationRollups, times(0)).add(invocationAwareData);
+
+		// add data only found in invocations
+		when(invocationAwareData.isOnlyFoundInInvocations()).thenReturn(true);
+		when(invocationAwareData.isOnlyFoundOutsideInvocations()).thenReturn(false);
+		processor.process(invocationAwareData, entityManager);
+		verify(aggregationRollups, times(1)).add(invocationAwareData);
+		verifyZeroInteractions(entityManager);
 	}
 
 	/**
@@ -580,4 +647,110 @@ public class CmrDataProcessorsTest {
 		assertThat(exceptionSensorData.getInvocationParentsIdSet(), is(empty()));
 	}
 
+	/**
+	 * Deep invocations must not overflow the stack with {@link InvocationModifierCmrProcessor}.
+	 */
+	@Test
+	public void invocationProcessorDeepInvocation() {
+		InvocationModifierCmrProcessor processor = new InvocationModifierCmrProcessor(Collections.<AbstractCmrDataProcessor> emptyList());
+
+		int depth = 100000;
+		InvocationSequenceData root = new InvocationSequenceData();
+		root.setId(10L);
+		InvocationSequenceData parent = root;
+		TimerData[] timers = new TimerData[depth];
+		for (int i = 0; i < depth; i++) {
+			TimerData timerData = new TimerData();
+			timerData.setCount(1L);
+			timerData.setDuration(depth - i);
+			parent.setTimerData(timerData);
+			timers[i] = timerData;
+			if (i < (depth - 1)) {
+				InvocationSequenceData child = new InvocationSequenceData();
+				child.setParentSequence(parent);
+				parent.setNestedSequences(Collections.singletonList(child));
+				parent = child;
+			}
+		}
+
+		processor.process(root, entityManager);
+
+		for (TimerData timerData : timers) {
+			assertThat(timerData.getExclusiveDuration(), is(1d));
+			assertThat(timerData.getInvocationParentsIdSet(), hasItem(10L));
+		}
+	}
+
+	/**
+	 * Exclusive durations with {@link InvocationModifierCmrProcessor} must include the durations
+	 * of the nested invocations without timers.
+	 */
+	@Test
+	public void invocationProcessorMixedExclusiveDurations() {
+		InvocationModifierCmrProcessor processor = new InvocationModifierCmrProcessor(Collections.singletonList(chainedProcessor));
+		InvocationSequenceData root = getInvocationTree();
+
+		processor.process(root, entityManager);
+
+		// root has 10, child without timer has 3 in timer and 2 in sql, second child has 4
+		assertThat(root.getTimerData().getExclusiveDuration(), is(1d));
+		InvocationSequenceData timer = root.getNestedSequences().get(0).getNestedSequences().get(0);
+		assertThat(timer.getTimerData().getExclusiveDuration(), is(1d));
+		assertThat(timer.getNestedSequences().get(0).getTimerData().getExclusiveDuration(), is(1d));
+		assertThat(root.getNestedSequences().get(1).getTimerData().getExclusiveDuration(), is(4d));
+	}
+
+	/**
+	 * Creates the invocation tree where first child has no timer and own nested invocations with
+	 * and without timers, and the second child has a timer.
+	 *
+	 * @return Root of the tree.
+	 */
+	private InvocationSequenceData getInvocationTree() {
+		InvocationSequenceData root = getInvocation(null, 10d);
+		root.setId(10L);
+		root.setChildCount(7L);
+
+		InvocationSequenceData noTimer = getInvocation(root, -1d);
+		noTimer.setChildCount(5L);
+		InvocationSequenceData timer = getInvocation(noTimer, 3d);
+		timer.setChildCount(2L);
+		getInvocation(timer, 1d);
+		getInvocation(timer, 1d);
+		InvocationSequenceData innerNoTimer = getInvocation(noTimer, -1d);
+		innerNoTimer.setChildCount(1L);
+		InvocationSequenceData sql = getInvocation(innerNoTimer, -1d);
+		SqlStatementData sqlStatementData = new SqlStatementData();
+		sqlStatementData.setCount(1L);
+		sqlStatementData.setDuration(2d);
+		sql.setSqlStatementData(sqlStatementData);
+
+		getInvocation(root, 4d);
+		return root;
+	}
+
+	/**
+	 * Creates the invocation and adds it to the parent.
+	 *
+	 * @param parent
+	 *            Parent or <code>null</code>.
+	 * @param duration
+	 *            Timer duration, negative for no timer.
+	 * @return Created invocation.
+	 */
+	private InvocationSequenceData getInvocation(InvocationSequenceData parent, double duration) {
+		InvocationSequenceData invocation = new InvocationSequenceData();
+		if (duration >= 0) {
+			TimerData timerData = new TimerData();
+			timerData.setCount(1L);
+			timerData.setDuration(duration);
+			invocation.setTimerData(timerData);
+		}
+		if (null != parent) {
+			invocation.setParentSequence(parent);
+			parent.getNestedSequences().add(invocation);
+		}
+		return invocation;
+	}
+
 }
@@ -18,6 +18,7 @@ import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
 
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -87,7 +88,8 @@ public class KryoNetIntegrationTest extends AbstractTransactionalTestNGLogSuppor
 			}
 		};
 
-		server = new Server(serialization, streamProvider);
+		// same as in production, multiple selectors and decoding on the executor
+		server = new Server(serialization, streamProvider, 2, Executors.newFixedThreadPool(2));
 		server.start();
 		server.bind(port);
 
@@ -1,5 +1,8 @@
 package rocks.inspectit.server.service;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import rocks.inspectit.server.processor.CmrDataProcessingPipeline;
 import rocks.inspectit.server.test.AbstractTestNGLogSupport;
 import rocks.inspectit.server.util.AgentStatusDataProvider;
 import rocks.inspectit.shared.all.communication.DefaultData;
@@ -41,6 +45,9 @@ public class AgentStorageServiceTest extends AbstractTestNGLogSupport {
 	@Mock
 	private ICmrManagementService cmrManagementService;
 
+	@Mock
+	private CmrDataProcessingPipeline cmrDataProcessingPipeline;
+
 	/**
 	 * Initializes the mocks.
 	 */
@@ -50,6 +57,7 @@ public class AgentStorageServiceTest extends AbstractTestNGLogSupport {
 		agentStorageService = new AgentStorageService(new ArrayBlockingQueue<SoftReference<List<? extends DefaultData>>>(1));
 		agentStorageService.platformIdentDateSaver = agentStatusDataProvider;
 		agentStorageService.cmrManagementService = cmrManagementService;
+		agentStorageService.cmrDataProcessingPipeline = cmrDataProcessingPipeline;
 		agentStorageService.log = LoggerFactory.getLogger(AgentStorageService.class);
 	}
 
@@ -64,8 +72,11 @@ public class AgentStorageServiceTest extends AbstractTestNGLogSupport {
 		timerData.setPlatformIdent(1L);
 		dataList.add(timerData);
 
-		agentStorageService.addDataObjects(dataList);
-		agentStorageService.addDataObjects(dataList);
+		boolean first = agentStorageService.addDataObjects(dataList);
+		boolean second = agentStorageService.addDataObjects(dataList);
+
+		assertThat(first, is(true));
+		assertThat(second, is(false));
 
 		Mockito.verify(agentStatusDataProvider, Mockito.times(2)).registerDataSent(1L);
 		Mockito.verify(cmrManagementService, Mockito.times(1)).addDroppedDataCount(dataList.size());
@@ -81,9 +92,30 @@ public class AgentStorageServiceTest extends AbstractTestNGLogSupport {
 		timerData.setPlatformIdent(1L);
 		dataList.add(timerData);
 
-		agentStorageService.addDataObjects(dataList);
+		boolean accepted = agentStorageService.addDataObjects(dataList);
 
+		assertThat(accepted, is(true));
 		Mockito.verify(agentStatusDataProvider, Mockito.times(1)).registerDataSent(1L);
 		Mockito.verifyZeroInteractions(cmrManagementService);
 	}
+
+	/**
+	 * Proves that data is accepted when pipeline is saturated as long as there is place in the
+	 * queue and dropped without waiting afterwards.
+	 */
+	@Test
+	public void saturatedPipeline() {
+		Mockito.when(cmrDataProcessingPipeline.isSaturated()).thenReturn(true);
+		List<DefaultData> dataList = new ArrayList<>();
+		TimerData timerData = new TimerData();
+		timerData.setPlatformIdent(1L);
+		dataList.add(timerData);
+
+		boolean first = agentStorageService.addDataObjects(dataList);
+		boolean second = agentStorageService.addDataObjects(dataList);
+
+		assertThat(first, is(true));
+		assertThat(second, is(false));
+		Mockito.verify(cmrManagementService, Mockito.times(1)).addDroppedDataCount(dataList.size());
+	}
 }
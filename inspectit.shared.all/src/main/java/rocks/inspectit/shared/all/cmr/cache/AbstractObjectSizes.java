@@ -1,4 +1,4 @@
-package rocks.inspectit.server.cache;
+package rocks.inspectit.shared.all.cmr.cache;
 
 import java.sql.Timestamp;
 import java.util.HashMap;
@@ -7,7 +7,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.Sizeable;
 import rocks.inspectit.shared.all.util.UnderlyingSystemInfo;
 
@@ -91,7 +90,7 @@ public abstract class AbstractObjectSizes implements IObjectSizes {
 	 */
 	@Override
 	public long getSizeOf(String... strings) {
-		Set<Integer> identityHashCodeSet = new HashSet<>();
+		Set<Integer> identityHashCodeSet = new HashSet<Integer>();
 		long size = 0L;
 		for (String str : strings) {
 			if (null == str) {
@@ -180,7 +179,7 @@ public abstract class AbstractObjectSizes implements IObjectSizes {
 	@Override
 	public long getSizeOfCustomWeakReference() {
 		long size = this.getSizeOfObjectHeader();
-		size += this.getPrimitiveTypesSize(4, 0, 0, 0, 1, 0);
+		size += this.getPrimitiveTypesSize(4, 0, 1, 0, 2, 0);
 		return alignTo8Bytes(size);
 	}
 
@@ -300,6 +299,58 @@ public abstract class AbstractObjectSizes implements IObjectSizes {
 		return size;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getSizeOfConcurrentSkipListSet(int setSize) {
+		// set only holds the map
+		long size = this.getSizeOfObjectHeader();
+		size += this.getPrimitiveTypesSize(1, 0, 0, 0, 0, 0);
+		size = alignTo8Bytes(size);
+
+		// map with head index, comparator and views
+		long mapSize = this.getSizeOfObjectHeader();
+		mapSize += this.getPrimitiveTypesSize(6, 0, 0, 0, 0, 0);
+		size += alignTo8Bytes(mapSize);
+
+		// head node, head index and the Boolean value shared by all nodes
+		size += getSizeOfSkipListNode();
+		size += getSizeOfSkipListIndex(true);
+		size += this.getSizeOfBooleanObject();
+
+		// one node for each element and in average one index node for every third element
+		size += setSize * getSizeOfSkipListNode();
+		size += (setSize / 3) * getSizeOfSkipListIndex(false);
+
+		return size;
+	}
+
+	/**
+	 * Returns size of the node object used in the {@link java.util.concurrent.ConcurrentSkipListMap}.
+	 *
+	 * @return Size in bytes.
+	 */
+	private long getSizeOfSkipListNode() {
+		long size = this.getSizeOfObjectHeader();
+		size += this.getPrimitiveTypesSize(3, 0, 0, 0, 0, 0);
+		return alignTo8Bytes(size);
+	}
+
+	/**
+	 * Returns size of the index object used in the
+	 * {@link java.util.concurrent.ConcurrentSkipListMap}.
+	 *
+	 * @param head
+	 *            If the size of the head index is needed, that has additional level field.
+	 * @return Size in bytes.
+	 */
+	private long getSizeOfSkipListIndex(boolean head) {
+		long size = this.getSizeOfObjectHeader();
+		size += this.getPrimitiveTypesSize(3, 0, head ? 1 : 0, 0, 0, 0);
+		return alignTo8Bytes(size);
+	}
+
 	/**
 	 * Returns size of the CHM object used in the high scale lib NonBlockingHashMapLong.
 	 *
@@ -1,4 +1,4 @@
-package rocks.inspectit.server.cache;
+package rocks.inspectit.shared.all.cmr.cache;
 
 /**
  * This class has some changes in the calculations for the memory size of the objects when IBM JVM
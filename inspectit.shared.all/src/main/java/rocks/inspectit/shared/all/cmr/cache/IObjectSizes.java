@@ -180,6 +180,17 @@ public interface IObjectSizes {
 	 */
 	long getSizeOfNonBlockingHashMapLong(int mapSize);
 
+	/**
+	 * Calculates the approximate size of the {@link java.util.concurrent.ConcurrentSkipListSet}
+	 * object. The calculation does not include the size of elements that are in the set. The size
+	 * of the skip list index is estimated with the average amount of index nodes per element.
+	 *
+	 * @param setSize
+	 *            Set size.
+	 * @return Size of set object in bytes.
+	 */
+	long getSizeOfConcurrentSkipListSet(int setSize);
+
 	/**
 	 * Calculates size of the {@link Object} objects.
 	 *
@@ -1,6 +1,6 @@
-package rocks.inspectit.server.cache.impl;
+package rocks.inspectit.shared.all.cmr.cache.impl;
 
-import rocks.inspectit.server.cache.AbstractObjectSizesIbm;
+import rocks.inspectit.shared.all.cmr.cache.AbstractObjectSizesIbm;
 
 /**
  * The object size class for 32bit IBM JVM. Works only with Java 7.
@@ -1,6 +1,6 @@
-package rocks.inspectit.server.cache.impl;
+package rocks.inspectit.shared.all.cmr.cache.impl;
 
-import rocks.inspectit.server.cache.AbstractObjectSizes;
+import rocks.inspectit.shared.all.cmr.cache.AbstractObjectSizes;
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 
 /**
@@ -1,6 +1,6 @@
-package rocks.inspectit.server.cache.impl;
+package rocks.inspectit.shared.all.cmr.cache.impl;
 
-import rocks.inspectit.server.cache.AbstractObjectSizesIbm;
+import rocks.inspectit.shared.all.cmr.cache.AbstractObjectSizesIbm;
 
 /**
  * The object size class for 64bit IBM JVM with compressed Oops. Works only with Java 7.
@@ -1,4 +1,4 @@
-package rocks.inspectit.server.cache.impl;
+package rocks.inspectit.shared.all.cmr.cache.impl;
 
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.stereotype.Component;
@@ -64,6 +64,24 @@ public interface IAgentService {
 	 */
 	InstrumentationDefinition analyze(long platformIdent, String hash, Type type) throws BusinessException;
 
+	/**
+	 * Analyzes all given types in one call and adds instrumentation points if necessary. All types
+	 * are merged to the class cache before any of them is analyzed, thus types depending on each
+	 * other can be passed in any order.
+	 *
+	 * @param platformIdent
+	 *            Id of the agent.
+	 * @param hashAndTypes
+	 *            Map of the class hash codes and parsed {@link Type}s representing classes being
+	 *            loaded on the agent.
+	 * @return Map of the class hash codes and instrumentation definitions containing method
+	 *         instrumentation configs. Hashes of the types that should not be instrumented are not
+	 *         contained in the map.
+	 * @throws BusinessException
+	 *             If agent with specified id does not exist.
+	 */
+	Map<String, InstrumentationDefinition> analyzeTypes(long platformIdent, Map<String, Type> hashAndTypes) throws BusinessException;
+
 	/**
 	 * Informs the CMR that the methods have been instrumented on the agent.
 	 *
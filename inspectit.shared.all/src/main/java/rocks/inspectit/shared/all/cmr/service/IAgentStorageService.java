@@ -21,7 +21,9 @@ public interface IAgentStorageService extends Remote {
 	 *
 	 * @param dataObjects
 	 *            The list containing all the data objects.
+	 * @return <code>true</code> if the data objects were accepted for processing,
+	 *         <code>false</code> if they were dropped due to the high load on the CMR.
 	 */
-	void addDataObjects(List<? extends DefaultData> dataObjects);
+	boolean addDataObjects(List<? extends DefaultData> dataObjects);
 
 }
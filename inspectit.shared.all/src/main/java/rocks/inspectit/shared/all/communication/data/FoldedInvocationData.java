@@ -0,0 +1,241 @@
+package rocks.inspectit.shared.all.communication.data;
+
+import java.io.Serializable;
+
+import org.codehaus.jackson.annotate.JsonAutoDetect;
+import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
+
+import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
+import rocks.inspectit.shared.all.communication.Sizeable;
+
+/**
+ * Describes the consecutive identical invocations (for example same method or same SQL executed in
+ * a loop) that are folded into one {@link InvocationSequenceData} node. The node then represents
+ * all folded invocations, its duration is the sum of the durations and the timer and SQL data are
+ * aggregated. The nested sequences of the node are the ones of the first invocation, with the
+ * nested invocations of the other ones folded into them.
+ *
+ * @author agent
+ *
+ */
+@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+public class FoldedInvocationData implements Sizeable, Serializable {
+
+	/**
+	 * Generated UID.
+	 */
+	private static final long serialVersionUID = 6512387023657180871L;
+
+	/**
+	 * Amount of folded invocations.
+	 */
+	private long count;
+
+	/**
+	 * Minimum duration of one invocation.
+	 */
+	private double minDuration;
+
+	/**
+	 * Maximum duration of one invocation.
+	 */
+	private double maxDuration;
+
+	/**
+	 * Sum of durations of all invocations.
+	 */
+	private double sumDuration;
+
+	/**
+	 * No-arg constructor.
+	 */
+	public FoldedInvocationData() {
+	}
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param count
+	 *            Amount of folded invocations.
+	 * @param minDuration
+	 *            Minimum duration of one invocation.
+	 * @param maxDuration
+	 *            Maximum duration of one invocation.
+	 * @param sumDuration
+	 *            Sum of durations of all invocations.
+	 */
+	public FoldedInvocationData(long count, double minDuration, double maxDuration, double sumDuration) {
+		this.count = count;
+		this.minDuration = minDuration;
+		this.maxDuration = maxDuration;
+		this.sumDuration = sumDuration;
+	}
+
+	/**
+	 * Returns the average duration of one invocation.
+	 *
+	 * @return Returns the average duration of one invocation.
+	 */
+	public double getAverageDuration() {
+		if (0 == count) {
+			return 0;
+		}
+		return sumDuration / count;
+	}
+
+	/**
+	 * Gets {@link #count}.
+	 *
+	 * @return {@link #count}
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Sets {@link #count}.
+	 *
+	 * @param count
+	 *            New value for {@link #count}
+	 */
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+	/**
+	 * Gets {@link #minDuration}.
+	 *
+	 * @return {@link #minDuration}
+	 */
+	public double getMinDuration() {
+		return this.minDuration;
+	}
+
+	/**
+	 * Sets {@link #minDuration}.
+	 *
+	 * @param minDuration
+	 *            New value for {@link #minDuration}
+	 */
+	public void setMinDuration(double minDuration) {
+		this.minDuration = minDuration;
+	}
+
+	/**
+	 * Gets {@link #maxDuration}.
+	 *
+	 * @return {@link #maxDuration}
+	 */
+	public double getMaxDuration() {
+		return this.maxDuration;
+	}
+
+	/**
+	 * Sets {@link #maxDuration}.
+	 *
+	 * @param maxDuration
+	 *            New value for {@link #maxDuration}
+	 */
+	public void setMaxDuration(double maxDuration) {
+		this.maxDuration = maxDuration;
+	}
+
+	/**
+	 * Gets {@link #sumDuration}.
+	 *
+	 * @return {@link #sumDuration}
+	 */
+	public double getSumDuration() {
+		return this.sumDuration;
+	}
+
+	/**
+	 * Sets {@link #sumDuration}.
+	 *
+	 * @param sumDuration
+	 *            New value for {@link #sumDuration}
+	 */
+	public void setSumDuration(double sumDuration) {
+		this.sumDuration = sumDuration;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getObjectSize(IObjectSizes objectSizes) {
+		return getObjectSize(objectSizes, true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
+		long size = objectSizes.getSizeOfObjectHeader();
+		size += objectSizes.getPrimitiveTypesSize(0, 0, 0, 0, 1, 3);
+
+		if (doAlign) {
+			return objectSizes.alignTo8Bytes(size);
+		} else {
+			return size;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = (prime * result) + (int) (this.count ^ (this.count >>> 32));
+		long temp;
+		temp = Double.doubleToLongBits(this.maxDuration);
+		result = (prime * result) + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(this.minDuration);
+		result = (prime * result) + (int) (temp ^ (temp >>> 32));
+		temp = Double.doubleToLongBits(this.sumDuration);
+		result = (prime * result) + (int) (temp ^ (temp >>> 32));
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		FoldedInvocationData other = (FoldedInvocationData) obj;
+		if (this.count != other.count) {
+			return false;
+		}
+		if (Double.doubleToLongBits(this.maxDuration) != Double.doubleToLongBits(other.maxDuration)) {
+			return false;
+		}
+		if (Double.doubleToLongBits(this.minDuration) != Double.doubleToLongBits(other.minDuration)) {
+			return false;
+		}
+		if (Double.doubleToLongBits(this.sumDuration) != Double.doubleToLongBits(other.sumDuration)) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "FoldedInvocationData [count=" + this.count + ", minDuration=" + this.minDuration + ", maxDuration=" + this.maxDuration + ", sumDuration=" + this.sumDuration + "]";
+	}
+
+}
@@ -128,6 +128,27 @@ public class InvocationSequenceData extends MethodSensorData implements ISpanIde
 	@JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
 	private int businessTransactionId = 0;
 
+	/**
+	 * Information about the consecutive identical invocations that were folded into this one. Can
+	 * be <code>null</code> when the object represents only one invocation.
+	 */
+	@JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+	private FoldedInvocationData foldedInvocationData;
+
+	/**
+	 * Amount of nested invocations that were not recorded because the node budget of the
+	 * invocation sequence was exhausted.
+	 */
+	@JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+	private long droppedChildCount = 0;
+
+	/**
+	 * Amount of invocations of the same method that this invocation represents because the
+	 * invocations were sampled on the agent. Zero if the invocation was not sampled.
+	 */
+	@JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+	private double samplingWeight = 0;
+
 	/**
 	 * Default no-args constructor.
 	 */
@@ -451,6 +472,63 @@ public class InvocationSequenceData extends MethodSensorData implements ISpanIde
 		this.businessTransactionId = businessTransactionId;
 	}
 
+	/**
+	 * Gets {@link #foldedInvocationData}.
+	 *
+	 * @return {@link #foldedInvocationData}
+	 */
+	public FoldedInvocationData getFoldedInvocationData() {
+		return this.foldedInvocationData;
+	}
+
+	/**
+	 * Sets {@link #foldedInvocationData}.
+	 *
+	 * @param foldedInvocationData
+	 *            New value for {@link #foldedInvocationData}
+	 */
+	public void setFoldedInvocationData(FoldedInvocationData foldedInvocationData) {
+		this.foldedInvocationData = foldedInvocationData;
+	}
+
+	/**
+	 * Gets {@link #droppedChildCount}.
+	 *
+	 * @return {@link #droppedChildCount}
+	 */
+	public long getDroppedChildCount() {
+		return this.droppedChildCount;
+	}
+
+	/**
+	 * Sets {@link #droppedChildCount}.
+	 *
+	 * @param droppedChildCount
+	 *            New value for {@link #droppedChildCount}
+	 */
+	public void setDroppedChildCount(long droppedChildCount) {
+		this.droppedChildCount = droppedChildCount;
+	}
+
+	/**
+	 * Gets {@link #samplingWeight}.
+	 *
+	 * @return {@link #samplingWeight}
+	 */
+	public double getSamplingWeight() {
+		return this.samplingWeight;
+	}
+
+	/**
+	 * Sets {@link #samplingWeight}.
+	 *
+	 * @param samplingWeight
+	 *            New value for {@link #samplingWeight}
+	 */
+	public void setSamplingWeight(double samplingWeight) {
+		this.samplingWeight = samplingWeight;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -465,6 +543,8 @@ public class InvocationSequenceData extends MethodSensorData implements ISpanIde
 		result = (prime * result) + ((spanIdent == null) ? 0 : spanIdent.hashCode());
 		result = (prime * result) + applicationId;
 		result = (prime * result) + businessTransactionId;
+		result = (prime * result) + ((foldedInvocationData == null) ? 0 : foldedInvocationData.hashCode());
+		result = (prime * result) + (int) (droppedChildCount ^ (droppedChildCount >>> 32));
 		return result;
 	}
 
@@ -524,6 +604,16 @@ public class InvocationSequenceData extends MethodSensorData implements ISpanIde
 		if (businessTransactionId != other.businessTransactionId) {
 			return false;
 		}
+		if (foldedInvocationData == null) {
+			if (other.foldedInvocationData != null) {
+				return false;
+			}
+		} else if (!foldedInvocationData.equals(other.foldedInvocationData)) {
+			return false;
+		}
+		if (droppedChildCount != other.droppedChildCount) {
+			return false;
+		}
 		return true;
 	}
 
@@ -532,17 +622,40 @@ public class InvocationSequenceData extends MethodSensorData implements ISpanIde
 	 */
 	@Override
 	public long getObjectSize(IObjectSizes objectSizes, boolean doAlign) {
+		long size = getShallowObjectSize(objectSizes, doAlign);
+		if (nestedSequences instanceof ArrayList) {
+			for (InvocationSequenceData invocationSequenceData : nestedSequences) {
+				size += objectSizes.getSizeOf(invocationSequenceData);
+			}
+		}
+		if (doAlign) {
+			return objectSizes.alignTo8Bytes(size);
+		} else {
+			return size;
+		}
+	}
+
+	/**
+	 * Returns the approximate size of this invocation sequence without the nested sequences. The
+	 * list holding the nested sequences is included in the size. Returned size is never aligned,
+	 * the doAlign flag is only passed to the super class calculation.
+	 *
+	 * @param objectSizes
+	 *            Appropriate instance of {@link IObjectSizes} depending on the VM architecture.
+	 * @param doAlign
+	 *            Align flag passed to the super class calculation.
+	 * @return Approximate object size in bytes without the nested sequences.
+	 */
+	public long getShallowObjectSize(IObjectSizes objectSizes, boolean doAlign) {
 		long size = super.getObjectSize(objectSizes, doAlign);
-		size += objectSizes.getPrimitiveTypesSize(9, 0, 2, 0, 2, 3);
+		size += objectSizes.getPrimitiveTypesSize(10, 0, 2, 0, 3, 4);
 		size += objectSizes.getSizeOf(timerData);
+		size += objectSizes.getSizeOf(foldedInvocationData);
 		size += objectSizes.getSizeOf(loggingData);
 		size += objectSizes.getSizeOf(sqlStatementData);
 		size += objectSizes.getSizeOf(spanIdent);
 		if (nestedSequences instanceof ArrayList) {
 			size += objectSizes.getSizeOf(nestedSequences, 0);
-			for (InvocationSequenceData invocationSequenceData : nestedSequences) {
-				size += objectSizes.getSizeOf(invocationSequenceData);
-			}
 		}
 		if (null != exceptionSensorDataObjects) {
 			size += objectSizes.getSizeOf(exceptionSensorDataObjects);
@@ -556,11 +669,7 @@ public class InvocationSequenceData extends MethodSensorData implements ISpanIde
 		if (null != nestedExceptions) {
 			size += objectSizes.getSizeOfBooleanObject();
 		}
-		if (doAlign) {
-			return objectSizes.alignTo8Bytes(size);
-		} else {
-			return size;
-		}
+		return size;
 	}
 
 	/**
@@ -589,6 +698,9 @@ public class InvocationSequenceData extends MethodSensorData implements ISpanIde
 		clone.setLoggingData(this.getLoggingData());
 		clone.setApplicationId(this.getApplicationId());
 		clone.setBusinessTransactionId(this.getBusinessTransactionId());
+		clone.setFoldedInvocationData(this.getFoldedInvocationData());
+		clone.setDroppedChildCount(this.getDroppedChildCount());
+		clone.setSamplingWeight(this.getSamplingWeight());
 		return clone;
 	}
 
@@ -28,6 +28,12 @@ public class AgentConfig {
 	 */
 	private boolean classCacheExistsOnCmr;
 
+	/**
+	 * Denotes if the CMR accepts the compressed transport of the data. Agent that is configured
+	 * to use the compressed transport can only activate it if this is set to <code>true</code>.
+	 */
+	private boolean compressedTransportSupported;
+
 	/**
 	 * Collection of the platform sensor types that should be active.
 	 */
@@ -129,6 +135,25 @@ public class AgentConfig {
 		this.classCacheExistsOnCmr = classCacheExistsOnCmr;
 	}
 
+	/**
+	 * Gets {@link #compressedTransportSupported}.
+	 *
+	 * @return {@link #compressedTransportSupported}
+	 */
+	public boolean isCompressedTransportSupported() {
+		return compressedTransportSupported;
+	}
+
+	/**
+	 * Sets {@link #compressedTransportSupported}.
+	 *
+	 * @param compressedTransportSupported
+	 *            New value for {@link #compressedTransportSupported}
+	 */
+	public void setCompressedTransportSupported(boolean compressedTransportSupported) {
+		this.compressedTransportSupported = compressedTransportSupported;
+	}
+
 	/**
 	 * Gets {@link #platformSensorTypeConfigs}.
 	 *
@@ -406,6 +431,7 @@ public class AgentConfig {
 		int result = 1;
 		result = (prime * result) + ((this.bufferStrategyConfig == null) ? 0 : this.bufferStrategyConfig.hashCode());
 		result = (prime * result) + (this.classCacheExistsOnCmr ? 1231 : 1237);
+		result = (prime * result) + (this.compressedTransportSupported ? 1231 : 1237);
 		result = (prime * result) + ((eumConfig == null) ? 0 : eumConfig.hashCode());
 		result = (prime * result) + ((this.configurationInfo == null) ? 0 : this.configurationInfo.hashCode());
 		result = (prime * result) + ((this.exceptionSensorTypeConfig == null) ? 0 : this.exceptionSensorTypeConfig.hashCode());
@@ -446,6 +472,9 @@ public class AgentConfig {
 		if (this.classCacheExistsOnCmr != other.classCacheExistsOnCmr) {
 			return false;
 		}
+		if (this.compressedTransportSupported != other.compressedTransportSupported) {
+			return false;
+		}
 		if (eumConfig == null) {
 			if (other.eumConfig != null) {
 				return false;
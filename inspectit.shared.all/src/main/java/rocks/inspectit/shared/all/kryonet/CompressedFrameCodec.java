@@ -0,0 +1,163 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codec for the compressed frames of one connection. The object is serialized with the strings
+ * encoded against the per-connection {@link StringDictionary} and the serialized bytes are
+ * compressed with the deflate algorithm. The deflater, inflater and both dictionaries are reused
+ * for all frames of the connection.
+ * <p>
+ * Not thread-safe, the connection must ensure that only one frame is written and one frame is
+ * read at a time.
+ *
+ * @author agent
+ *
+ */
+public class CompressedFrameCodec {
+
+	/**
+	 * Flag set in the frame length to mark compressed frames.
+	 */
+	public static final int COMPRESSED_FRAME = 0x80000000;
+
+	/**
+	 * Size of the buffer used by the compression streams.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Deflater for the written frames.
+	 */
+	private final Deflater deflater;
+
+	/**
+	 * Inflater for the read frames.
+	 */
+	private final Inflater inflater = new Inflater();
+
+	/**
+	 * Dictionary of the written strings.
+	 */
+	private final StringDictionary writeDictionary = new StringDictionary();
+
+	/**
+	 * Dictionary of the read strings.
+	 */
+	private final StringDictionary readDictionary = new StringDictionary();
+
+	/**
+	 * Buffer for skipping bytes not consumed by the inflater.
+	 */
+	private final byte[] skipBuffer = new byte[BUFFER_SIZE];
+
+	/**
+	 * Creates the codec with the fast compression level.
+	 */
+	public CompressedFrameCodec() {
+		this(Deflater.BEST_SPEED);
+	}
+
+	/**
+	 * Creates the codec with the given compression level.
+	 *
+	 * @param compressionLevel
+	 *            Compression level from 0 to 9.
+	 * @see Deflater
+	 */
+	public CompressedFrameCodec(int compressionLevel) {
+		this.deflater = new Deflater(compressionLevel);
+	}
+
+	/**
+	 * Writes the object as compressed frame to the output stream. The output stream is not closed.
+	 *
+	 * @param serialization
+	 *            Serialization to use.
+	 * @param connection
+	 *            Connection to be added to kryo context.
+	 * @param outputStream
+	 *            Stream to write to.
+	 * @param object
+	 *            Object to write.
+	 * @throws IOException
+	 *             If compressed data can not be written.
+	 */
+	public void write(IExtendedSerialization serialization, Connection connection, OutputStream outputStream, Object object) throws IOException {
+		boolean written = false;
+		try {
+			deflater.reset();
+			DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(outputStream, deflater, BUFFER_SIZE);
+			serialization.write(connection, deflaterOutputStream, object, writeDictionary);
+			deflaterOutputStream.finish();
+			written = true;
+		} finally {
+			// the reading side will never see the strings of a failed frame
+			if (written) {
+				writeDictionary.commit();
+			} else {
+				writeDictionary.rollback();
+			}
+		}
+	}
+
+	/**
+	 * Reads the object from the compressed frame. The input stream must end with the frame, all
+	 * of its bytes are consumed.
+	 *
+	 * @param serialization
+	 *            Serialization to use.
+	 * @param connection
+	 *            Connection to be added to kryo context.
+	 * @param inputStream
+	 *            Stream holding the frame.
+	 * @return Read object.
+	 * @throws IOException
+	 *             If compressed data can not be read.
+	 */
+	public Object read(IExtendedSerialization serialization, Connection connection, InputStream inputStream) throws IOException {
+		inflater.reset();
+		InflaterInputStream inflaterInputStream = new InflaterInputStream(inputStream, inflater, BUFFER_SIZE);
+		Object object = serialization.read(connection, inflaterInputStream, readDictionary);
+
+		// consume the end of the deflate stream so that next frame starts at the right position
+		while (inflaterInputStream.read(skipBuffer) >= 0) { // NOPMD
+		}
+		while (inputStream.read(skipBuffer) >= 0) { // NOPMD
+		}
+		return object;
+	}
+
+	/**
+	 * Clears both dictionaries. Must be called when the connection is (re-)established.
+	 */
+	public void reset() {
+		writeDictionary.clear();
+		readDictionary.clear();
+	}
+
+	/**
+	 * Gets the dictionary of the written strings.
+	 *
+	 * @return {@link #writeDictionary}
+	 */
+	public StringDictionary getWriteDictionary() {
+		return writeDictionary;
+	}
+
+	/**
+	 * Gets the dictionary of the read strings.
+	 *
+	 * @return {@link #readDictionary}
+	 */
+	public StringDictionary getReadDictionary() {
+		return readDictionary;
+	}
+
+}
@@ -45,6 +45,11 @@ public class Connection {
 	 */
 	private StreamProvider streamProvider; // Added by ISE
 
+	/**
+	 * If objects sent over this connection should be compressed.
+	 */
+	private volatile boolean compressedTransport; // Added by ISE
+
 	int id = -1;
 	private String name;
 	EndPoint endPoint;
@@ -404,6 +409,31 @@ public class Connection {
 		this.name = name;
 	}
 
+	/**
+	 * Returns if the objects sent over this connection are compressed. Compressed objects are
+	 * written with the strings encoded against a per-connection dictionary and deflated. Reading
+	 * of compressed objects is always possible, thus only the sending side has to agree with the
+	 * other side to use the compressed transport.
+	 *
+	 * @return If the objects sent over this connection are compressed.
+	 */
+	// Added by ISE
+	public boolean isCompressedTransport() {
+		return compressedTransport;
+	}
+
+	/**
+	 * Defines if the objects sent over this connection should be compressed. Should only be
+	 * activated if the other side is known to support the compressed transport.
+	 *
+	 * @param compressedTransport
+	 *            If the objects sent over this connection should be compressed.
+	 */
+	// Added by ISE
+	public void setCompressedTransport(boolean compressedTransport) {
+		this.compressedTransport = compressedTransport;
+	}
+
 	/** Returns the number of bytes that are waiting to be written to the TCP socket, if any. */
 	public int getTcpWriteBufferSize() {
 		return tcp.writeBuffer.position();
@@ -124,6 +124,15 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 	@Override
 	@SuppressWarnings("unchecked")
 	public void write(Connection connection, OutputStream outputStream, Object object) {
+		write(connection, outputStream, object, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void write(Connection connection, OutputStream outputStream, Object object, StringDictionary dictionary) {
 		Output output = new Output(outputStream);
 		IKryoProvider kryoProvider = serializerQueue.poll();
 
@@ -135,6 +144,10 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 		try {
 			Kryo kryo = kryoProvider.getKryo();
 			kryo.getContext().put("connection", connection);
+			if (null != dictionary) {
+				// graph context is cleared by kryo when the object is written
+				kryo.getGraphContext().put(StringDictionary.CONTEXT_KEY, dictionary);
+			}
 			kryo.writeClassAndObject(output, object);
 			output.flush();
 		} finally {
@@ -149,6 +162,15 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 	@Override
 	@SuppressWarnings("unchecked")
 	public Object read(Connection connection, InputStream inputStream) {
+		return read(connection, inputStream, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object read(Connection connection, InputStream inputStream, StringDictionary dictionary) {
 		Input input = new Input(inputStream);
 		IKryoProvider kryoProvider = serializerQueue.poll();
 
@@ -160,6 +182,10 @@ public class ExtendedSerializationImpl implements IExtendedSerialization {
 		try {
 			Kryo kryo = kryoProvider.getKryo();
 			kryo.getContext().put("connection", connection);
+			if (null != dictionary) {
+				// graph context is cleared by kryo when the object is read
+				kryo.getGraphContext().put(StringDictionary.CONTEXT_KEY, dictionary);
+			}
 			return kryo.readClassAndObject(input);
 		} finally {
 			serializerQueue.offer(kryoProvider);
@@ -34,4 +34,35 @@ public interface IExtendedSerialization extends Serialization {
 	 * @return De-serialized object.
 	 */
 	Object read(Connection connection, InputStream inputStream);
+
+	/**
+	 * Writes object to the given {@link OutputStream} encoding the strings against the given
+	 * dictionary.
+	 *
+	 * @param connection
+	 *            Connection to be added to kryo context.
+	 * @param outputStream
+	 *            Stream to serialize object to.
+	 * @param object
+	 *            Object
+	 * @param dictionary
+	 *            Dictionary of the already written strings or <code>null</code> to write all
+	 *            strings in plain.
+	 */
+	void write(Connection connection, OutputStream outputStream, Object object, StringDictionary dictionary);
+
+	/**
+	 * Reads object from the given {@link InputStream} decoding the strings against the given
+	 * dictionary.
+	 *
+	 * @param connection
+	 *            Connection to be added to kryo context.
+	 * @param inputStream
+	 *            Stream to de-serialize object from.
+	 * @param dictionary
+	 *            Dictionary of the already read strings or <code>null</code> if all strings were
+	 *            written in plain.
+	 * @return De-serialized object.
+	 */
+	Object read(Connection connection, InputStream inputStream, StringDictionary dictionary);
 }
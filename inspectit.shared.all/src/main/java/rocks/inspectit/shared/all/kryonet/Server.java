@@ -23,7 +23,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
 import com.esotericsoftware.kryo.Kryo;
@@ -61,8 +65,16 @@ public class Server implements EndPoint {
 	private int emptySelects;
 	private ServerSocketChannel serverChannel;
 	private UdpConnection udp;
-	private Connection[] connections = {};
+	private volatile Connection[] connections = {}; // Changed by ISE: volatile
 	private IntMap<Connection> pendingConnections = new IntMap();
+
+	/**
+	 * Guards the {@link #connections} and {@link #pendingConnections}, as the connections are
+	 * closed also on the selector and decode threads.
+	 */
+	// Added by ISE
+	private final Object connectionsLock = new Object();
+
 	Listener[] listeners = {};
 	private Object listenerLock = new Object();
 	private int nextConnectionID = 1;
@@ -71,6 +83,44 @@ public class Server implements EndPoint {
 	private Thread updateThread;
 	private ByteBuffer emptyBuffer = ByteBuffer.allocate(0);
 
+	/**
+	 * Selectors for the TCP connections. First one is always the {@link #selector} that also
+	 * accepts the connections, others are driven by the additional selector threads.
+	 */
+	// Added by ISE
+	private final Selector[] tcpSelectors;
+
+	/**
+	 * Index of the selector the next accepted connection is assigned to.
+	 */
+	// Added by ISE
+	private int nextSelectorIndex;
+
+	/**
+	 * Executor for decoding the received objects, can be <code>null</code> to decode on the
+	 * selector threads.
+	 */
+	// Added by ISE
+	private final ExecutorService decodeExecutor;
+
+	/**
+	 * Amount of connections waiting for the decode executor.
+	 */
+	// Added by ISE
+	private final AtomicInteger decodeQueueDepth = new AtomicInteger();
+
+	/**
+	 * Amount of decoded objects.
+	 */
+	// Added by ISE
+	private final AtomicLong decodedObjects = new AtomicLong();
+
+	/**
+	 * Total time spent in decoding the objects in nanoseconds.
+	 */
+	// Added by ISE
+	private final AtomicLong decodeTime = new AtomicLong();
+
 	private Listener dispatchListener = new Listener() {
 		@Override
 		public void connected(Connection connection) {
@@ -115,14 +165,43 @@ public class Server implements EndPoint {
 
 	// Changed by ISE: added StreamProvider, changed to IExtendedSerialization
 	public Server(int writeBufferSize, int objectBufferSize, IExtendedSerialization serialization, StreamProvider streamProvider) {
+		this(writeBufferSize, objectBufferSize, serialization, streamProvider, 1, null);
+	}
+
+	// Added by ISE
+	public Server(IExtendedSerialization serialization, StreamProvider streamProvider, int selectorCount, ExecutorService decodeExecutor) {
+		this(0, serialization.getLengthLength(), serialization, streamProvider, selectorCount, decodeExecutor);
+	}
+
+	/**
+	 * Added by ISE: selector count and decode executor.
+	 *
+	 * @param selectorCount
+	 *            Amount of selectors driving the TCP connections. Accepted connections are
+	 *            distributed to the selectors in the round-robin fashion.
+	 * @param decodeExecutor
+	 *            Executor to decode the received objects on, if <code>null</code> the objects are
+	 *            decoded on the selector threads. Objects of one connection are always decoded one
+	 *            after another.
+	 */
+	public Server(int writeBufferSize, int objectBufferSize, IExtendedSerialization serialization, StreamProvider streamProvider, int selectorCount, ExecutorService decodeExecutor) {
 		this.writeBufferSize = writeBufferSize;
 		this.objectBufferSize = objectBufferSize;
 		this.streamProvider = streamProvider; // Added by ISE.
+		this.decodeExecutor = decodeExecutor; // Added by ISE.
 
 		this.serialization = serialization;
 
+		if (selectorCount < 1) {
+			throw new IllegalArgumentException("Selector count must be positive.");
+		}
+		tcpSelectors = new Selector[selectorCount];
 		try {
 			selector = Selector.open();
+			tcpSelectors[0] = selector;
+			for (int i = 1; i < selectorCount; i++) {
+				tcpSelectors[i] = Selector.open();
+			}
 		} catch (IOException ex) {
 			throw new RuntimeException("Error opening selector.", ex);
 		}
@@ -246,53 +325,7 @@ public class Server implements EndPoint {
 						int ops = selectionKey.readyOps();
 
 						if (fromConnection != null) { // Must be a TCP read or write operation.
-							if ((udp != null) && (fromConnection.udpRemoteAddress == null)) {
-								fromConnection.close();
-								continue;
-							}
-							if ((ops & SelectionKey.OP_READ) == SelectionKey.OP_READ) {
-								try {
-									while (true) {
-										Object object = fromConnection.tcp.readObject(fromConnection);
-										if (object == null) {
-											break;
-										}
-										if (DEBUG) {
-											String objectString = object == null ? "null" : object.getClass().getSimpleName();
-											if (!(object instanceof FrameworkMessage)) {
-												debug("kryonet", fromConnection + " received TCP: " + objectString);
-											} else if (TRACE) {
-												trace("kryonet", fromConnection + " received TCP: " + objectString);
-											}
-										}
-										fromConnection.notifyReceived(object);
-									}
-								} catch (IOException ex) {
-									if (TRACE) {
-										trace("kryonet", "Unable to read TCP from: " + fromConnection, ex);
-									} else if (DEBUG) {
-										debug("kryonet", fromConnection + " update: " + ex.getMessage());
-									}
-									fromConnection.close();
-								} catch (KryoNetException ex) {
-									if (ERROR) {
-										error("kryonet", "Error reading TCP from connection: " + fromConnection, ex);
-									}
-									fromConnection.close();
-								}
-							}
-							if ((ops & SelectionKey.OP_WRITE) == SelectionKey.OP_WRITE) {
-								try {
-									fromConnection.tcp.writeOperation();
-								} catch (IOException ex) {
-									if (TRACE) {
-										trace("kryonet", "Unable to write TCP to connection: " + fromConnection, ex);
-									} else if (DEBUG) {
-										debug("kryonet", fromConnection + " update: " + ex.getMessage());
-									}
-									fromConnection.close();
-								}
-							}
+							processTcpOperation(fromConnection, ops, udp); // Changed by ISE
 							continue;
 						}
 
@@ -361,7 +394,10 @@ public class Server implements EndPoint {
 								// Store the fromAddress on the connection and reply over TCP with a
 								// RegisterUDP to indicate success.
 								int fromConnectionID = ((RegisterUDP) object).connectionID;
-								Connection connection = pendingConnections.remove(fromConnectionID);
+								Connection connection;
+								synchronized (connectionsLock) { // Added by ISE
+									connection = pendingConnections.remove(fromConnectionID);
+								}
 								if (connection != null) {
 									if (connection.udpRemoteAddress != null) {
 										continue outer;
@@ -441,6 +477,191 @@ public class Server implements EndPoint {
 		}
 	}
 
+	/**
+	 * Reads or writes any pending data for the connections of the additional TCP selector.
+	 *
+	 * @param tcpSelector
+	 *            Selector to process.
+	 * @param timeout
+	 *            Wait for up to the specified milliseconds for a connection to be ready to process.
+	 */
+	// Added by ISE
+	private void updateTcpSelector(Selector tcpSelector, int timeout) throws IOException {
+		// select without timeout
+		int select = tcpSelector.selectNow();
+		long waitUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		while ((select == 0) && (System.nanoTime() < waitUntil) && !shutdown) {
+			LockSupport.parkNanos(100000);
+			select = tcpSelector.selectNow();
+		}
+		if (select == 0) {
+			return;
+		}
+
+		Set<SelectionKey> keys = tcpSelector.selectedKeys();
+		synchronized (keys) {
+			UdpConnection udp = this.udp;
+			for (Iterator<SelectionKey> iter = keys.iterator(); iter.hasNext();) {
+				SelectionKey selectionKey = iter.next();
+				iter.remove();
+				Connection fromConnection = (Connection) selectionKey.attachment();
+				if (fromConnection == null) {
+					selectionKey.channel().close();
+					continue;
+				}
+				try {
+					processTcpOperation(fromConnection, selectionKey.readyOps(), udp);
+				} catch (CancelledKeyException ex) {
+					fromConnection.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Processes the ready TCP operations of a connection. Moved from the {@link #update(int)} by
+	 * ISE.
+	 */
+	private void processTcpOperation(Connection fromConnection, int ops, UdpConnection udp) {
+		if ((udp != null) && (fromConnection.udpRemoteAddress == null)) {
+			fromConnection.close();
+			return;
+		}
+		if ((ops & SelectionKey.OP_READ) == SelectionKey.OP_READ) {
+			// Changed by ISE: decode on the executor if available
+			if (decodeExecutor != null) {
+				submitDecode(fromConnection);
+			} else {
+				readObjects(fromConnection);
+			}
+		}
+		if ((ops & SelectionKey.OP_WRITE) == SelectionKey.OP_WRITE) {
+			try {
+				fromConnection.tcp.writeOperation();
+			} catch (IOException ex) {
+				if (TRACE) {
+					trace("kryonet", "Unable to write TCP to connection: " + fromConnection, ex);
+				} else if (DEBUG) {
+					debug("kryonet", fromConnection + " update: " + ex.getMessage());
+				}
+				fromConnection.close();
+			}
+		}
+	}
+
+	/**
+	 * Passes the decoding of the connection to the {@link #decodeExecutor}. The read interest is
+	 * removed until the decoding is done, so only one thread decodes objects of one connection and
+	 * the order of the received objects is preserved.
+	 */
+	// Added by ISE
+	private void submitDecode(final Connection connection) {
+		if (!connection.tcp.startDecoding()) {
+			return;
+		}
+		decodeQueueDepth.incrementAndGet();
+		try {
+			decodeExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					decodeQueueDepth.decrementAndGet();
+					try {
+						readObjects(connection);
+					} finally {
+						connection.tcp.endDecoding();
+					}
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			decodeQueueDepth.decrementAndGet();
+			connection.tcp.endDecoding();
+			if (ERROR) {
+				error("kryonet", "Unable to decode objects from connection: " + connection, ex);
+			}
+			connection.close();
+		}
+	}
+
+	/**
+	 * Reads all available objects from the connection and notifies the listeners. Moved from the
+	 * {@link #update(int)} by ISE.
+	 */
+	private void readObjects(Connection fromConnection) {
+		try {
+			while (true) {
+				long start = System.nanoTime(); // Added by ISE
+				Object object = fromConnection.tcp.readObject(fromConnection);
+				if (object == null) {
+					break;
+				}
+				// Added by ISE
+				decodeTime.addAndGet(System.nanoTime() - start);
+				decodedObjects.incrementAndGet();
+				if (DEBUG) {
+					String objectString = object == null ? "null" : object.getClass().getSimpleName();
+					if (!(object instanceof FrameworkMessage)) {
+						debug("kryonet", fromConnection + " received TCP: " + objectString);
+					} else if (TRACE) {
+						trace("kryonet", fromConnection + " received TCP: " + objectString);
+					}
+				}
+				fromConnection.notifyReceived(object);
+			}
+		} catch (IOException ex) {
+			if (TRACE) {
+				trace("kryonet", "Unable to read TCP from: " + fromConnection, ex);
+			} else if (DEBUG) {
+				debug("kryonet", fromConnection + " update: " + ex.getMessage());
+			}
+			fromConnection.close();
+		} catch (KryoNetException ex) {
+			if (ERROR) {
+				error("kryonet", "Error reading TCP from connection: " + fromConnection, ex);
+			}
+			fromConnection.close();
+		}
+	}
+
+	/**
+	 * Returns the amount of connections which objects are waiting to be decoded.
+	 *
+	 * @return Amount of connections waiting for the decode executor.
+	 */
+	// Added by ISE
+	public int getDecodeQueueDepth() {
+		return decodeQueueDepth.get();
+	}
+
+	/**
+	 * Returns the amount of decoded objects.
+	 *
+	 * @return Amount of decoded objects.
+	 */
+	// Added by ISE
+	public long getDecodedObjects() {
+		return decodedObjects.get();
+	}
+
+	/**
+	 * Returns the total time spent in decoding the objects in nanoseconds.
+	 *
+	 * @return Total time spent in decoding the objects in nanoseconds.
+	 */
+	// Added by ISE
+	public long getDecodeTime() {
+		return decodeTime.get();
+	}
+
+	/**
+	 * Returns the amount of selectors driving the TCP connections.
+	 *
+	 * @return Amount of selectors driving the TCP connections.
+	 */
+	// Added by ISE
+	public int getSelectorCount() {
+		return tcpSelectors.length;
+	}
+
 	@Override
 	public void run() {
 		if (TRACE) {
@@ -465,6 +686,27 @@ public class Server implements EndPoint {
 	@Override
 	public void start() {
 		new Thread(this, "Server").start();
+
+		// Added by ISE: threads for the additional selectors
+		for (int i = 1; i < tcpSelectors.length; i++) {
+			final Selector tcpSelector = tcpSelectors[i];
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					while (!shutdown) {
+						try {
+							updateTcpSelector(tcpSelector, 250);
+						} catch (IOException ex) {
+							if (ERROR) {
+								error("kryonet", "Error updating server connections.", ex);
+							}
+						}
+					}
+				}
+			}, "Server-selector-" + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
 	}
 
 	@Override
@@ -488,7 +730,10 @@ public class Server implements EndPoint {
 			connection.udp = udp;
 		}
 		try {
-			SelectionKey selectionKey = connection.tcp.accept(selector, socketChannel);
+			// Changed by ISE: round-robin over the TCP selectors
+			Selector tcpSelector = tcpSelectors[nextSelectorIndex];
+			nextSelectorIndex = (nextSelectorIndex + 1) % tcpSelectors.length;
+			SelectionKey selectionKey = connection.tcp.accept(tcpSelector, socketChannel);
 			selectionKey.attach(connection);
 
 			int id = nextConnectionID++;
@@ -502,7 +747,9 @@ public class Server implements EndPoint {
 			if (udp == null) {
 				addConnection(connection);
 			} else {
-				pendingConnections.put(id, connection);
+				synchronized (connectionsLock) { // Added by ISE
+					pendingConnections.put(id, connection);
+				}
 			}
 
 			RegisterTCP registerConnection = new RegisterTCP();
@@ -530,18 +777,22 @@ public class Server implements EndPoint {
 	}
 
 	private void addConnection(Connection connection) {
-		Connection[] newConnections = new Connection[connections.length + 1];
-		newConnections[0] = connection;
-		System.arraycopy(connections, 0, newConnections, 1, connections.length);
-		connections = newConnections;
+		synchronized (connectionsLock) { // Added by ISE
+			Connection[] newConnections = new Connection[connections.length + 1];
+			newConnections[0] = connection;
+			System.arraycopy(connections, 0, newConnections, 1, connections.length);
+			connections = newConnections;
+		}
 	}
 
 	void removeConnection(Connection connection) {
-		ArrayList<Connection> temp = new ArrayList(Arrays.asList(connections));
-		temp.remove(connection);
-		connections = temp.toArray(new Connection[temp.size()]);
+		synchronized (connectionsLock) { // Added by ISE
+			ArrayList<Connection> temp = new ArrayList(Arrays.asList(connections));
+			temp.remove(connection);
+			connections = temp.toArray(new Connection[temp.size()]);
 
-		pendingConnections.remove(connection.id);
+			pendingConnections.remove(connection.id);
+		}
 	}
 
 	// BOZO - Provide mechanism for sending to multiple clients without serializing multiple times.
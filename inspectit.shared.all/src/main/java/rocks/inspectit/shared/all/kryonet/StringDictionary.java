@@ -0,0 +1,202 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary of the strings already transferred over one connection. Each side of the connection
+ * keeps one dictionary per direction, the writing side decides which strings are added and
+ * signals it in the stream, so the reading side only has to follow. Entries get ascending ids in
+ * the order they are added.
+ * <p>
+ * The size of the dictionary is bounded by the amount of entries and by the total length of the
+ * stored strings. Long strings are never added. Additions made while writing a frame can be
+ * rolled back if the frame could not be written, so that both sides stay in sync.
+ * <p>
+ * Not thread-safe, the connection must ensure only one frame is written or read at a time.
+ *
+ * @author agent
+ *
+ */
+public class StringDictionary {
+
+	/**
+	 * Key under which the dictionary of the current frame is placed in the Kryo graph context.
+	 */
+	public static final String CONTEXT_KEY = "stringDictionary";
+
+	/**
+	 * Default maximum amount of entries.
+	 */
+	private static final int DEFAULT_MAX_ENTRIES = 8192;
+
+	/**
+	 * Default maximum length of a string to be added.
+	 */
+	private static final int DEFAULT_MAX_STRING_LENGTH = 4096;
+
+	/**
+	 * Default maximum total length of all stored strings.
+	 */
+	private static final long DEFAULT_MAX_TOTAL_LENGTH = 1024L * 1024L;
+
+	/**
+	 * Maximum amount of entries.
+	 */
+	private final int maxEntries;
+
+	/**
+	 * Maximum length of a string to be added.
+	 */
+	private final int maxStringLength;
+
+	/**
+	 * Maximum total length of all stored strings.
+	 */
+	private final long maxTotalLength;
+
+	/**
+	 * Entries in order of the ids.
+	 */
+	private final List<String> entries = new ArrayList<String>();
+
+	/**
+	 * Ids of the entries, only used on the writing side.
+	 */
+	private final Map<String, Integer> ids = new HashMap<String, Integer>();
+
+	/**
+	 * Amount of entries at the last commit.
+	 */
+	private int committedEntries;
+
+	/**
+	 * Total length of all stored strings.
+	 */
+	private long totalLength;
+
+	/**
+	 * Creates the dictionary with default limits.
+	 */
+	public StringDictionary() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_STRING_LENGTH, DEFAULT_MAX_TOTAL_LENGTH);
+	}
+
+	/**
+	 * Creates the dictionary with given limits.
+	 *
+	 * @param maxEntries
+	 *            Maximum amount of entries.
+	 * @param maxStringLength
+	 *            Maximum length of a string to be added.
+	 * @param maxTotalLength
+	 *            Maximum total length of all stored strings.
+	 */
+	public StringDictionary(int maxEntries, int maxStringLength, long maxTotalLength) {
+		this.maxEntries = maxEntries;
+		this.maxStringLength = maxStringLength;
+		this.maxTotalLength = maxTotalLength;
+	}
+
+	/**
+	 * Returns the id of the string.
+	 *
+	 * @param value
+	 *            String to look up.
+	 * @return Id of the string or <code>-1</code> if string is not in the dictionary.
+	 */
+	public int lookup(String value) {
+		Integer id = ids.get(value);
+		if (null == id) {
+			return -1;
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * Adds the string to the dictionary on the writing side if the limits allow it.
+	 *
+	 * @param value
+	 *            String to add.
+	 * @return <code>true</code> if string was added and got the next id.
+	 */
+	public boolean add(String value) {
+		int length = value.length();
+		if ((length > maxStringLength) || (entries.size() >= maxEntries) || ((totalLength + length) > maxTotalLength)) {
+			return false;
+		}
+
+		ids.put(value, Integer.valueOf(entries.size()));
+		entries.add(value);
+		totalLength += length;
+		return true;
+	}
+
+	/**
+	 * Adds the string to the dictionary on the reading side. Limits are not checked, as the
+	 * writing side already decided to add the string.
+	 *
+	 * @param value
+	 *            String to add.
+	 */
+	public void put(String value) {
+		entries.add(value);
+		totalLength += value.length();
+	}
+
+	/**
+	 * Returns the string with the given id.
+	 *
+	 * @param id
+	 *            Id of the string.
+	 * @return String.
+	 * @throws IllegalStateException
+	 *             If the dictionary does not contain the id.
+	 */
+	public String get(int id) {
+		if ((id < 0) || (id >= entries.size())) {
+			throw new IllegalStateException("String dictionary does not contain the entry with id " + id + ".");
+		}
+		return entries.get(id);
+	}
+
+	/**
+	 * Confirms all additions since the last commit.
+	 */
+	public void commit() {
+		committedEntries = entries.size();
+	}
+
+	/**
+	 * Removes all additions since the last commit.
+	 */
+	public void rollback() {
+		for (int i = entries.size() - 1; i >= committedEntries; i--) {
+			String value = entries.remove(i);
+			ids.remove(value);
+			totalLength -= value.length();
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		entries.clear();
+		ids.clear();
+		committedEntries = 0;
+		totalLength = 0;
+	}
+
+	/**
+	 * Returns the amount of entries.
+	 *
+	 * @return Returns the amount of entries.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+}
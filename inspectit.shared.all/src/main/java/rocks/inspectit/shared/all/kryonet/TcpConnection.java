@@ -8,11 +8,14 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -71,6 +74,38 @@ class TcpConnection {
 	// Added by ISE
 	private SocketExtendedByteBufferInputStream socketInputStream;
 
+	/**
+	 * Codec for the compressed frames.
+	 */
+	// Added by ISE
+	private final CompressedFrameCodec compressedFrameCodec = new CompressedFrameCodec();
+
+	/**
+	 * If the object currently read is in the compressed frame.
+	 */
+	// Added by ISE
+	private boolean currentObjectCompressed;
+
+	/**
+	 * If the objects of this connection are currently decoded outside of the selector thread. While
+	 * decoding the read interest is removed from the selection key, so that the selector does not
+	 * hand out the connection again until the decoding is done.
+	 */
+	// Added by ISE
+	private final AtomicBoolean decoding = new AtomicBoolean();
+
+	/**
+	 * Buffers of all queued output streams, reused for every gathering write.
+	 */
+	// Added by ISE
+	private final List<ByteBuffer> gatherBuffers = new ArrayList<ByteBuffer>();
+
+	/**
+	 * Empty bytes written as the place holder for the length of the object.
+	 */
+	// Added by ISE
+	private final byte[] lengthPlaceHolder;
+
 	SocketChannel socketChannel;
 	int keepAliveMillis = 8000;
 	final ByteBuffer readBuffer, writeBuffer;
@@ -88,9 +123,11 @@ class TcpConnection {
 	public TcpConnection(IExtendedSerialization serialization, int writeBufferSize, int objectBufferSize, StreamProvider streamProvider) {
 		this.serialization = serialization;
 		this.streamProvider = streamProvider; // Added by ISE
-		writeBuffer = ByteBuffer.allocate(writeBufferSize);
-		readBuffer = ByteBuffer.allocate(objectBufferSize);
+		// Changed by ISE: direct buffers, so that the channel reads the length without the copy
+		writeBuffer = ByteBuffer.allocateDirect(writeBufferSize);
+		readBuffer = ByteBuffer.allocateDirect(objectBufferSize);
 		readBuffer.flip();
+		lengthPlaceHolder = new byte[serialization.getLengthLength()]; // Added by ISE
 
 		for (int i = 0; i < MAX_OUTPUT_STREAMS; i++) {
 			try {
@@ -106,6 +143,7 @@ class TcpConnection {
 		readBuffer.clear();
 		readBuffer.flip();
 		currentObjectLength = 0;
+		resetCompression(); // Added by ISE
 		try {
 			this.socketChannel = socketChannel;
 			socketChannel.configureBlocking(false);
@@ -136,6 +174,7 @@ class TcpConnection {
 		readBuffer.clear();
 		readBuffer.flip();
 		currentObjectLength = 0;
+		resetCompression(); // Added by ISE
 		try {
 			SocketChannel socketChannel = selector.provider().openSocketChannel();
 			Socket socket = socketChannel.socket();
@@ -191,6 +230,10 @@ class TcpConnection {
 			}
 			currentObjectLength = serialization.readLength(readBuffer);
 
+			// compressed frames are marked in the length
+			currentObjectCompressed = (currentObjectLength & CompressedFrameCodec.COMPRESSED_FRAME) != 0;
+			currentObjectLength &= ~CompressedFrameCodec.COMPRESSED_FRAME;
+
 			if (currentObjectLength <= 0) {
 				throw new KryoNetException("Invalid object length: " + currentObjectLength);
 			}
@@ -205,7 +248,11 @@ class TcpConnection {
 		// read object
 		Object object;
 		try {
-			object = serialization.read(connection, socketInputStream);
+			if (currentObjectCompressed) {
+				object = compressedFrameCodec.read(serialization, connection, socketInputStream);
+			} else {
+				object = serialization.read(connection, socketInputStream);
+			}
 		} catch (Exception ex) {
 			throw new KryoNetException("Error during deserialization.", ex);
 		}
@@ -214,13 +261,68 @@ class TcpConnection {
 		return object;
 	}
 
+	/**
+	 * Marks the start of the decoding outside of the selector thread and removes the read interest
+	 * from the selection key.
+	 *
+	 * @return <code>false</code> if the connection is already being decoded, in this case the
+	 *         caller must not decode.
+	 */
+	// Added by ISE
+	boolean startDecoding() {
+		if (!decoding.compareAndSet(false, true)) {
+			return false;
+		}
+		updateInterestOps();
+		return true;
+	}
+
+	/**
+	 * Marks the end of the decoding outside of the selector thread and restores the read interest
+	 * on the selection key.
+	 */
+	// Added by ISE
+	void endDecoding() {
+		decoding.set(false);
+		updateInterestOps();
+		SelectionKey selectionKey = this.selectionKey;
+		if (selectionKey != null) {
+			selectionKey.selector().wakeup();
+		}
+	}
+
+	/**
+	 * Sets the interest operations of the selection key to the read, if not decoding, and to the
+	 * write if there is queued data. Holds the write lock, so that the write interest set after a
+	 * partial write can not be overwritten by the decoding threads.
+	 */
+	// Added by ISE
+	private void updateInterestOps() {
+		SelectionKey selectionKey = this.selectionKey;
+		if ((selectionKey == null) || !selectionKey.isValid()) {
+			return;
+		}
+		writeReentrantLock.lock();
+		try {
+			int ops = decoding.get() ? 0 : SelectionKey.OP_READ;
+			if (hasQueuedData()) {
+				ops |= SelectionKey.OP_WRITE;
+			}
+			selectionKey.interestOps(ops);
+		} catch (CancelledKeyException e) { // NOPMD
+			// connection closed in the meantime
+		} finally {
+			writeReentrantLock.unlock();
+		}
+	}
+
 	// Changed completely by ISE
 	public void writeOperation() throws IOException {
 		writeReentrantLock.lock();
 		try {
 			if (writeToSocket()) {
 				// Write successful, clear OP_WRITE.
-				selectionKey.interestOps(SelectionKey.OP_READ);
+				updateInterestOps();
 			}
 			lastWriteTime = System.currentTimeMillis();
 		} finally {
@@ -236,39 +338,62 @@ class TcpConnection {
 
 		// Change by ISE from here to end of method
 
-		outerloop: while (!writeQueue.isEmpty()) {
-			ExtendedByteBufferOutputStream outputStream = writeQueue.peek();
-			if (null == outputStream) {
-				break;
+		// all queued streams are written with one gathering write, so that a batch of objects
+		// results in as few system calls as possible
+		while (!writeQueue.isEmpty()) {
+			gatherBuffers.clear();
+			for (ExtendedByteBufferOutputStream outputStream : writeQueue) {
+				for (ByteBuffer buffer : outputStream.getAllByteBuffers()) {
+					if (buffer.hasRemaining()) {
+						gatherBuffers.add(buffer);
+					}
+				}
 			}
 
-			// calculate how much we have already written
-			long written = 0;
-			List<ByteBuffer> buffers = outputStream.getAllByteBuffers();
-			for (ByteBuffer buffer : buffers) {
-				written += buffer.position();
+			long writeSize = 0;
+			if (!gatherBuffers.isEmpty()) {
+				writeSize = socketChannel.write(gatherBuffers.toArray(new ByteBuffer[gatherBuffers.size()]));
 			}
+			gatherBuffers.clear();
 
-			// then try to write until the end
-			while (written < outputStream.getTotalWriteSize()) {
-				long writeSize = socketChannel.write(buffers.toArray(new ByteBuffer[buffers.size()]));
-				if (0 == writeSize) {
-					// if we can not write any more we go out
-					break outerloop;
+			// remove the completely written streams from the write queue, prepare them for new usage
+			// and return to the idle queue
+			while (!writeQueue.isEmpty()) {
+				ExtendedByteBufferOutputStream outputStream = writeQueue.peek();
+				if ((null == outputStream) || !isCompletelyWritten(outputStream)) {
+					break;
 				}
-				written += writeSize;
+				writeQueue.remove(outputStream);
+				outputStream.prepare();
+				idleQueue.offer(outputStream);
 			}
 
-			// here we have done with this output stream
-			// remove it from the write queue, prepare for new usage and return to the idle queue
-			writeQueue.remove(outputStream);
-			outputStream.prepare();
-			idleQueue.offer(outputStream);
+			if (0 == writeSize) {
+				// if we can not write any more we go out
+				break;
+			}
 		}
 
 		return writeQueue.isEmpty();
 	}
 
+	/**
+	 * Returns if all bytes of the output stream have been written to the socket.
+	 *
+	 * @param outputStream
+	 *            Output stream.
+	 * @return <code>true</code> if none of the buffers of the stream has remaining bytes.
+	 */
+	// Added by ISE
+	private boolean isCompletelyWritten(ExtendedByteBufferOutputStream outputStream) {
+		for (ByteBuffer buffer : outputStream.getAllByteBuffers()) {
+			if (buffer.hasRemaining()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/** This method is thread safe. */
 	public int send(Connection connection, Object object) throws IOException {
 		SocketChannel socketChannel = this.socketChannel;
@@ -290,14 +415,19 @@ class TcpConnection {
 		// we are locking here as the serialization is not thread-safe
 		writeReentrantLock.lock();
 		try {
-			int lengthLength = serialization.getLengthLength();
+			int lengthLength = lengthPlaceHolder.length;
 			// make space for the length
 			// just write empty byte array in correct size
-			outputStream.write(new byte[lengthLength]);
+			outputStream.write(lengthPlaceHolder);
 
 			// Write data and flush when done
+			boolean compressed = connection.isCompressedTransport();
 			try {
-				serialization.write(connection, outputStream, object);
+				if (compressed) {
+					compressedFrameCodec.write(serialization, connection, outputStream, object);
+				} else {
+					serialization.write(connection, outputStream, object);
+				}
 			} catch (KryoNetException ex) { // NOPMD
 				outputStream.close();
 				throw new KryoNetException("Error serializing object of type: " + object.getClass().getName(), ex);
@@ -309,7 +439,11 @@ class TcpConnection {
 			ByteBuffer buffer = outputStream.getAllByteBuffers().iterator().next();
 			int position = buffer.position();
 			buffer.position(0);
-			serialization.writeLength(buffer, (int) writeSize);
+			if (compressed) {
+				serialization.writeLength(buffer, ((int) writeSize) | CompressedFrameCodec.COMPRESSED_FRAME);
+			} else {
+				serialization.writeLength(buffer, (int) writeSize);
+			}
 			buffer.position(position);
 
 			// Write to socket if no data was queued.
@@ -317,7 +451,7 @@ class TcpConnection {
 			writeQueue.add(outputStream);
 			if (!hasQueuedData && !writeToSocket()) {
 				// A partial write, set OP_WRITE to be notified when more writing can occur.
-				selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				updateInterestOps();
 			} else {
 				// Full write, wake up selector so idle event will be fired.
 				selectionKey.selector().wakeup();
@@ -330,6 +464,20 @@ class TcpConnection {
 		}
 	}
 
+	/**
+	 * Clears the string dictionaries of the compressed frames, as the other side starts with the
+	 * empty ones on each new connection.
+	 */
+	// Added by ISE
+	private void resetCompression() {
+		writeReentrantLock.lock();
+		try {
+			compressedFrameCodec.reset();
+		} finally {
+			writeReentrantLock.unlock();
+		}
+	}
+
 	/**
 	 * @return Returns if any data is queued for writing.
 	 */
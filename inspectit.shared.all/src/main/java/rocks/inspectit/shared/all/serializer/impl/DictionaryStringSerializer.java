@@ -0,0 +1,111 @@
+package rocks.inspectit.shared.all.serializer.impl;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.ObjectMap;
+
+import rocks.inspectit.shared.all.kryonet.StringDictionary;
+
+/**
+ * Serializes instances of {@link String}. If the {@link StringDictionary} is placed in the graph
+ * context under the {@link StringDictionary#CONTEXT_KEY}, repeated strings are written as the id
+ * of the dictionary entry. Otherwise the strings are written the same way as with the default
+ * Kryo string serializer.
+ *
+ * @author agent
+ */
+public class DictionaryStringSerializer extends Serializer<String> {
+
+	/**
+	 * Tag of the <code>null</code> value.
+	 */
+	private static final int NULL = 0;
+
+	/**
+	 * Tag of a string written in plain and not added to the dictionary.
+	 */
+	private static final int LITERAL = 1;
+
+	/**
+	 * Tag of a string written in plain and added to the dictionary.
+	 */
+	private static final int NEW_ENTRY = 2;
+
+	/**
+	 * Offset of the dictionary ids, tags starting with the offset denote the dictionary entries.
+	 */
+	private static final int ENTRY_OFFSET = 3;
+
+	/**
+	 * Default constructor.
+	 */
+	public DictionaryStringSerializer() {
+		setAcceptsNull(true);
+		setImmutable(true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(Kryo kryo, Output output, String object) {
+		StringDictionary dictionary = getDictionary(kryo);
+		if (null == dictionary) {
+			output.writeString(object);
+		} else if (null == object) {
+			output.writeInt(NULL, true);
+		} else {
+			int id = dictionary.lookup(object);
+			if (id >= 0) {
+				output.writeInt(id + ENTRY_OFFSET, true);
+			} else if (dictionary.add(object)) {
+				output.writeInt(NEW_ENTRY, true);
+				output.writeString(object);
+			} else {
+				output.writeInt(LITERAL, true);
+				output.writeString(object);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String read(Kryo kryo, Input input, Class<String> type) {
+		StringDictionary dictionary = getDictionary(kryo);
+		if (null == dictionary) {
+			return input.readString();
+		}
+
+		int tag = input.readInt(true);
+		switch (tag) {
+		case NULL:
+			return null;
+		case LITERAL:
+			return input.readString();
+		case NEW_ENTRY:
+			String value = input.readString();
+			dictionary.put(value);
+			return value;
+		default:
+			return dictionary.get(tag - ENTRY_OFFSET);
+		}
+	}
+
+	/**
+	 * Returns the dictionary placed in the graph context of the kryo.
+	 *
+	 * @param kryo
+	 *            Kryo.
+	 * @return Dictionary or <code>null</code> if there is none.
+	 */
+	private StringDictionary getDictionary(Kryo kryo) {
+		@SuppressWarnings("unchecked")
+		ObjectMap<Object, Object> graphContext = kryo.getGraphContext();
+		return (StringDictionary) graphContext.get(StringDictionary.CONTEXT_KEY);
+	}
+
+}
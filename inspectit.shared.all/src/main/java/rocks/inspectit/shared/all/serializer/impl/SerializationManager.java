@@ -64,6 +64,7 @@ import rocks.inspectit.shared.all.communication.data.CompilationInformationData;
 import rocks.inspectit.shared.all.communication.data.CpuInformationData;
 import rocks.inspectit.shared.all.communication.data.DatabaseAggregatedTimerData;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.FoldedInvocationData;
 import rocks.inspectit.shared.all.communication.data.HttpInfo;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
 import rocks.inspectit.shared.all.communication.data.InvocationAwareData.MutableInt;
@@ -240,6 +241,8 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 	 */
 	private void registerClasses(Kryo kryo) {
 		/** Java native classes */
+		// string is registered by default, this only replaces the serializer and keeps the ID
+		kryo.register(String.class, new DictionaryStringSerializer());
 		kryo.register(Class.class, new ClassSerializer());
 		kryo.register(ArrayList.class, new HibernateAwareCollectionSerializer(hibernateUtil)); // NOPMD
 		kryo.register(CopyOnWriteArrayList.class, new CollectionSerializer());
@@ -414,6 +417,9 @@ public class SerializationManager implements ISerializer, IKryoProvider, Initial
 		kryo.register(ResourceLoadRequest.class, new FieldSerializer<ResourceLoadRequest>(kryo, ResourceLoadRequest.class), nextRegistrationId++);
 		kryo.register(UserAction.class, new FieldSerializer<UserAction>(kryo, UserAction.class), nextRegistrationId++);
 		kryo.register(UserSessionInfo.class, new FieldSerializer<UserSessionInfo>(kryo, UserSessionInfo.class), nextRegistrationId++);	
+
+		// folding of the invocations
+		kryo.register(FoldedInvocationData.class, new CustomCompatibleFieldSerializer<FoldedInvocationData>(kryo, FoldedInvocationData.class, schemaManager), nextRegistrationId++);
 	}
 
 	/**
@@ -3,6 +3,8 @@ package rocks.inspectit.shared.all.storage.nio.stream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -25,6 +27,11 @@ import org.springframework.stereotype.Component;
 @Lazy
 public class SocketExtendedByteBufferInputStream extends AbstractExtendedByteBufferInputStream {
 
+	/**
+	 * Maximum amount of buffers filled with one scattering read.
+	 */
+	private static final int MAX_SCATTER_BUFFERS = 16;
+
 	/**
 	 * {@link SocketChannel} to read from.
 	 */
@@ -149,36 +156,52 @@ public class SocketExtendedByteBufferInputStream extends AbstractExtendedByteBuf
 					break;
 				}
 
-				// clear just in case and then set to bytesLeft if its less than remaining
+				// take all other empty buffers as well, so that one scattering read can fill all of
+				// them in the single system call
+				List<ByteBuffer> scatterBuffers = new ArrayList<ByteBuffer>(MAX_SCATTER_BUFFERS);
+				scatterBuffers.add(byteBuffer);
+				getEmptyBuffers().drainTo(scatterBuffers, MAX_SCATTER_BUFFERS - 1);
+
+				// clear just in case and then limit to bytesLeft if its less than remaining
 				// capacity
-				byteBuffer.clear();
-				if (byteBuffer.remaining() > bytesLeft) {
-					byteBuffer.limit((int) bytesLeft);
+				long bytesToLimit = bytesLeft;
+				for (ByteBuffer scatterBuffer : scatterBuffers) {
+					scatterBuffer.clear();
+					if (scatterBuffer.remaining() > bytesToLimit) {
+						scatterBuffer.limit((int) bytesToLimit);
+					}
+					bytesToLimit -= scatterBuffer.remaining();
 				}
 
 				try {
-					int read = socketChannel.read(byteBuffer);
+					long read = socketChannel.read(scatterBuffers.toArray(new ByteBuffer[scatterBuffers.size()]));
+					// buffers are filled in order, thus full ones are passed in the same order
+					for (ByteBuffer scatterBuffer : scatterBuffers) {
+						if (scatterBuffer.position() > 0) {
+							scatterBuffer.flip();
+							getFullBuffers().add(scatterBuffer);
+						} else {
+							scatterBuffer.clear();
+							getEmptyBuffers().add(scatterBuffer);
+						}
+					}
 					if (read > 0) {
-						byteBuffer.flip();
-						getFullBuffers().add(byteBuffer);
 						totalRead += read;
-					} else {
-						byteBuffer.clear();
-						getEmptyBuffers().add(byteBuffer);
+					} else if (read < 0) {
 						// if we read negative value from the socket then we reached the end
 						// mark as read failed and get out
-						if (read < 0) {
-							setReadFailed(true);
-							break;
-						}
+						setReadFailed(true);
+						break;
 					}
 				} catch (IOException e) {
 					// log error not to lose it
 					log.error("Error reading from the socket channel.", e);
 
-					// return buffer and signal error
-					byteBuffer.clear();
-					getEmptyBuffers().add(byteBuffer);
+					// return buffers and signal error
+					for (ByteBuffer scatterBuffer : scatterBuffers) {
+						scatterBuffer.clear();
+						getEmptyBuffers().add(scatterBuffer);
+					}
 					setReadFailed(true);
 					break;
 				}
@@ -26,6 +26,7 @@ import rocks.inspectit.shared.all.communication.data.AggregatedTimerData;
 import rocks.inspectit.shared.all.communication.data.ClassLoadingInformationData;
 import rocks.inspectit.shared.all.communication.data.CompilationInformationData;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.FoldedInvocationData;
 import rocks.inspectit.shared.all.communication.data.HttpInfo;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
 import rocks.inspectit.shared.all.communication.data.InvocationAwareData;
@@ -59,7 +60,7 @@ public class ObjectSizesPrimitiveTypesSizeTest {
 			{ SqlStatementData.class }, { ExceptionSensorData.class }, { InvocationSequenceData.class }, { ClassLoadingInformationData.class }, { CompilationInformationData.class },
 			{ MemoryInformationData.class }, { RuntimeInformationData.class }, { SystemInformationData.class }, { ThreadInformationData.class }, { HttpTimerData.class },
 			{ AggregatedExceptionSensorData.class }, { AggregatedHttpTimerData.class }, { AggregatedSqlStatementData.class }, { AggregatedTimerData.class }, { ParameterContentData.class },
-			{ HttpInfo.class }, { VmArgumentData.class }, { ServerSpan.class }, { ClientSpan.class } };
+			{ HttpInfo.class }, { VmArgumentData.class }, { ServerSpan.class }, { ClientSpan.class }, { FoldedInvocationData.class } };
 
 	/**
 	 * Enums that implement sizable.
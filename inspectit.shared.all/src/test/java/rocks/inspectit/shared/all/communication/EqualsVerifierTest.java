@@ -15,6 +15,7 @@ import rocks.inspectit.shared.all.cmr.model.SensorTypeIdent;
 import rocks.inspectit.shared.all.communication.data.ClassLoadingInformationData;
 import rocks.inspectit.shared.all.communication.data.CompilationInformationData;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.FoldedInvocationData;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
 import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
 import rocks.inspectit.shared.all.communication.data.MemoryInformationData;
@@ -43,7 +44,7 @@ public class EqualsVerifierTest {
 	public static final Object[][] TESTING_CLASSES = new Object[][] { { TimerData.class }, { SqlStatementData.class }, { ExceptionSensorData.class }, { InvocationSequenceData.class },
 			{ ClassLoadingInformationData.class }, { CompilationInformationData.class }, { MemoryInformationData.class }, { RuntimeInformationData.class }, { SystemInformationData.class },
 			{ ThreadInformationData.class }, { HttpTimerData.class }, { MethodIdent.class }, { MethodSensorTypeIdent.class }, { PlatformIdent.class }, { PlatformSensorTypeIdent.class },
-			{ SensorTypeIdent.class }, { ApplicationData.class }, { BusinessTransactionData.class } };
+			{ SensorTypeIdent.class }, { ApplicationData.class }, { BusinessTransactionData.class }, { FoldedInvocationData.class } };
 
 	/**
 	 * Verify equals contract test.
@@ -0,0 +1,184 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import rocks.inspectit.shared.all.communication.data.InvocationSequenceData;
+import rocks.inspectit.shared.all.communication.data.SqlStatementData;
+import rocks.inspectit.shared.all.serializer.ISerializerProvider;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+
+@SuppressWarnings("PMD")
+public class CompressedFrameCodecTest {
+
+	private static final String SQL = "SELECT * FROM ORDERS WHERE CUSTOMER_ID = ? AND STATUS = ?";
+
+	private IExtendedSerialization serialization;
+
+	private CompressedFrameCodec writingCodec;
+
+	private CompressedFrameCodec readingCodec;
+
+	@BeforeMethod
+	public void init() throws IOException {
+		final ClassSchemaManager schemaManager = new ClassSchemaManager();
+		schemaManager.setLog(LoggerFactory.getLogger(ClassSchemaManager.class));
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+
+		serialization = new ExtendedSerializationImpl(new ISerializerProvider<SerializationManager>() {
+			@Override
+			public SerializationManager createSerializer() {
+				SerializationManager serializationManager = new SerializationManager();
+				serializationManager.setSchemaManager(schemaManager);
+				serializationManager.setKryoNetNetwork(new KryoNetNetwork());
+				serializationManager.initKryo();
+				serializationManager.getKryo().register(FailingObject.class, new Serializer<FailingObject>() {
+					@Override
+					public void write(Kryo kryo, Output output, FailingObject object) {
+						throw new KryoException("Failing on purpose.");
+					}
+
+					@Override
+					public FailingObject read(Kryo kryo, Input input, Class<FailingObject> type) {
+						return null;
+					}
+				});
+				return serializationManager;
+			}
+		}, 1);
+		writingCodec = new CompressedFrameCodec();
+		readingCodec = new CompressedFrameCodec();
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+		InvocationSequenceData invocation = invocation(5);
+
+		byte[] frame = write(invocation);
+		Object read = read(frame);
+
+		assertThat(read, is(instanceOf(InvocationSequenceData.class)));
+		InvocationSequenceData readInvocation = (InvocationSequenceData) read;
+		assertThat(readInvocation.getNestedSequences(), hasSize(5));
+		assertThat(readInvocation.getNestedSequences().get(4).getSqlStatementData().getSql(), is(SQL));
+		assertThat(readInvocation.getNestedSequences().get(4).getSqlStatementData().getParameterValues(), is(Arrays.asList("4", null)));
+	}
+
+	@Test
+	public void repeatedStringsFromDictionary() throws IOException {
+		byte[] first = write(invocation(1));
+		int entries = writingCodec.getWriteDictionary().size();
+		byte[] second = write(invocation(1));
+
+		assertThat(entries, is(greaterThan(0)));
+		assertThat(second.length, is(lessThan(first.length)));
+		assertThat(writingCodec.getWriteDictionary().size(), is(entries));
+
+		read(first);
+		Object read = read(second);
+
+		assertThat(readingCodec.getReadDictionary().size(), is(entries));
+		InvocationSequenceData readInvocation = (InvocationSequenceData) read;
+		assertThat(readInvocation.getNestedSequences().get(0).getSqlStatementData().getSql(), is(SQL));
+	}
+
+	@Test
+	public void failedWriteRolledBack() throws IOException {
+		write(invocation(1));
+		int entries = writingCodec.getWriteDictionary().size();
+
+		List<Object> list = new ArrayList<Object>();
+		list.add("not yet sent string");
+		list.add(new FailingObject());
+		try {
+			write(list);
+		} catch (KryoException e) {
+			// expected
+		}
+
+		assertThat(writingCodec.getWriteDictionary().size(), is(entries));
+	}
+
+	@Test
+	public void reset() throws IOException {
+		byte[] first = write(invocation(1));
+		read(first);
+
+		writingCodec.reset();
+		readingCodec.reset();
+
+		assertThat(writingCodec.getWriteDictionary().size(), is(0));
+		assertThat(readingCodec.getReadDictionary().size(), is(0));
+		InvocationSequenceData readInvocation = (InvocationSequenceData) read(write(invocation(1)));
+		assertThat(readInvocation.getNestedSequences().get(0).getSqlStatementData().getSql(), is(SQL));
+	}
+
+	@Test
+	public void nullString() throws IOException {
+		SqlStatementData sqlStatementData = new SqlStatementData();
+
+		SqlStatementData read = (SqlStatementData) read(write(sqlStatementData));
+
+		assertThat(read.getSql(), is(nullValue()));
+	}
+
+	private byte[] write(Object object) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		writingCodec.write(serialization, null, outputStream, object);
+		return outputStream.toByteArray();
+	}
+
+	private Object read(byte[] frame) throws IOException {
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(frame);
+		Object object = readingCodec.read(serialization, null, inputStream);
+		assertThat(inputStream.available(), is(0));
+		return object;
+	}
+
+	private static InvocationSequenceData invocation(int children) {
+		Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+		InvocationSequenceData root = new InvocationSequenceData(timestamp, 1L, 2L, 3L);
+		List<InvocationSequenceData> nestedSequences = new ArrayList<InvocationSequenceData>();
+		for (int i = 0; i < children; i++) {
+			InvocationSequenceData child = new InvocationSequenceData(timestamp, 1L, 2L, 4L);
+			// new string instances, so that kryo references are not used
+			SqlStatementData sqlStatementData = new SqlStatementData(timestamp, 1L, 5L, 4L, new String(SQL), new String("jdbc:h2:mem:orders"), "1.4", "H2");
+			sqlStatementData.setParameterValues(Arrays.asList(String.valueOf(i), null));
+			child.setSqlStatementData(sqlStatementData);
+			child.setParentSequence(root);
+			nestedSequences.add(child);
+		}
+		root.setNestedSequences(nestedSequences);
+		return root;
+	}
+
+	private static class FailingObject {
+	}
+}
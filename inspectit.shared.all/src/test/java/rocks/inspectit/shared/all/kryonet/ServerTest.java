@@ -0,0 +1,290 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.serializer.ISerializerProvider;
+import rocks.inspectit.shared.all.serializer.impl.SerializationManager;
+import rocks.inspectit.shared.all.serializer.schema.ClassSchemaManager;
+import rocks.inspectit.shared.all.storage.nio.ByteBufferProvider;
+import rocks.inspectit.shared.all.storage.nio.stream.ExtendedByteBufferOutputStream;
+import rocks.inspectit.shared.all.storage.nio.stream.SocketExtendedByteBufferInputStream;
+import rocks.inspectit.shared.all.storage.nio.stream.StreamProvider;
+import rocks.inspectit.shared.all.util.KryoNetNetwork;
+
+/**
+ * Tests the {@link Server} with the multiple selectors and the decode executor over the real
+ * local connections. Plain sockets are used as clients, they write the frames in the same format
+ * as the {@link TcpConnection}.
+ */
+@SuppressWarnings("PMD")
+public class ServerTest {
+
+	private static final int SELECTOR_COUNT = 3;
+
+	private static final long WAIT_MILLIS = 10000;
+
+	@Mock
+	ByteBufferProvider byteBufferProvider;
+
+	ExecutorService streamExecutorService;
+
+	ExecutorService decodeExecutorService;
+
+	IExtendedSerialization serialization;
+
+	StreamProvider streamProvider;
+
+	Server server;
+
+	List<Socket> sockets;
+
+	int port;
+
+	@BeforeMethod
+	public void init() throws Exception {
+		MockitoAnnotations.initMocks(this);
+		Mockito.when(byteBufferProvider.acquireByteBuffer()).thenAnswer(new Answer<ByteBuffer>() {
+			@Override
+			public ByteBuffer answer(InvocationOnMock invocation) throws Throwable {
+				return ByteBuffer.allocateDirect(1024);
+			}
+		});
+		streamExecutorService = Executors.newCachedThreadPool();
+		decodeExecutorService = Executors.newFixedThreadPool(4);
+
+		final ClassSchemaManager schemaManager = new ClassSchemaManager();
+		schemaManager.setLog(LoggerFactory.getLogger(ClassSchemaManager.class));
+		schemaManager.setSchemaListFile(new ClassPathResource(ClassSchemaManager.SCHEMA_DIR + "/" + ClassSchemaManager.SCHEMA_LIST_FILE, schemaManager.getClass().getClassLoader()));
+		schemaManager.loadSchemasFromLocations();
+		serialization = new ExtendedSerializationImpl(new ISerializerProvider<SerializationManager>() {
+			@Override
+			public SerializationManager createSerializer() {
+				SerializationManager serializationManager = new SerializationManager();
+				serializationManager.setSchemaManager(schemaManager);
+				serializationManager.setKryoNetNetwork(new KryoNetNetwork());
+				serializationManager.initKryo();
+				return serializationManager;
+			}
+		}, 1);
+
+		streamProvider = new StreamProvider() {
+			@Override
+			protected ExtendedByteBufferOutputStream createExtendedByteBufferOutputStream() {
+				ExtendedByteBufferOutputStream outputStream = new ExtendedByteBufferOutputStream();
+				try {
+					Field field = ExtendedByteBufferOutputStream.class.getDeclaredField("byteBufferProvider");
+					field.setAccessible(true);
+					field.set(outputStream, byteBufferProvider);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+				return outputStream;
+			}
+
+			@Override
+			protected SocketExtendedByteBufferInputStream createSocketExtendedByteBufferInputStream() {
+				SocketExtendedByteBufferInputStream inputStream = new SocketExtendedByteBufferInputStream();
+				inputStream.setByteBufferProvider(byteBufferProvider);
+				inputStream.setExecutorService(streamExecutorService);
+				return inputStream;
+			}
+		};
+
+		ServerSocket serverSocket = new ServerSocket(0);
+		port = serverSocket.getLocalPort();
+		serverSocket.close();
+
+		server = new Server(serialization, streamProvider, SELECTOR_COUNT, decodeExecutorService);
+		server.start();
+		server.bind(port);
+
+		sockets = new ArrayList<Socket>();
+	}
+
+	@AfterMethod
+	public void stop() throws IOException {
+		for (Socket socket : sockets) {
+			socket.close();
+		}
+		server.stop();
+		decodeExecutorService.shutdownNow();
+		streamExecutorService.shutdownNow();
+	}
+
+	/**
+	 * Connects the given amount of the sockets and waits until the server knows all of them.
+	 */
+	protected void connectSockets(int count) throws IOException, InterruptedException {
+		for (int i = 0; i < count; i++) {
+			sockets.add(new Socket("localhost", port));
+		}
+		waitForConnections(count);
+	}
+
+	/**
+	 * Serializes the object and prepends the length of the frame.
+	 */
+	protected byte[] frame(Object object) throws IOException {
+		ByteArrayOutputStream objectBytes = new ByteArrayOutputStream();
+		serialization.write(null, objectBytes, object);
+		ByteArrayOutputStream frameBytes = new ByteArrayOutputStream();
+		DataOutputStream dataOutputStream = new DataOutputStream(frameBytes);
+		dataOutputStream.writeInt(objectBytes.size());
+		objectBytes.writeTo(dataOutputStream);
+		dataOutputStream.flush();
+		return frameBytes.toByteArray();
+	}
+
+	/**
+	 * Waits until the server has the given amount of connections.
+	 */
+	protected void waitForConnections(int count) throws InterruptedException {
+		long waitUntil = System.currentTimeMillis() + WAIT_MILLIS;
+		while ((server.getConnections().length != count) && (System.currentTimeMillis() < waitUntil)) {
+			Thread.sleep(10);
+		}
+		assertThat(server.getConnections().length, is(count));
+	}
+
+	public static class SelectorRoundRobin extends ServerTest {
+
+		@Test
+		public void connectionsDistributed() throws Exception {
+			connectSockets(SELECTOR_COUNT * 2);
+
+			Field field = TcpConnection.class.getDeclaredField("selectionKey");
+			field.setAccessible(true);
+			Map<Selector, Integer> connectionsPerSelector = new HashMap<Selector, Integer>();
+			for (Connection connection : server.getConnections()) {
+				Selector selector = ((SelectionKey) field.get(connection.tcp)).selector();
+				Integer count = connectionsPerSelector.get(selector);
+				connectionsPerSelector.put(selector, (null == count) ? 1 : count + 1);
+			}
+
+			assertThat(server.getSelectorCount(), is(SELECTOR_COUNT));
+			assertThat(connectionsPerSelector.size(), is(SELECTOR_COUNT));
+			for (Integer count : connectionsPerSelector.values()) {
+				assertThat(count, is(2));
+			}
+		}
+
+		@Test
+		public void closedConnectionsRemoved() throws Exception {
+			connectSockets(SELECTOR_COUNT * 2);
+
+			// server notices the closing on the selector and decode threads concurrently
+			for (Socket socket : sockets) {
+				socket.close();
+			}
+
+			waitForConnections(0);
+		}
+	}
+
+	public static class DecodeOrder extends ServerTest {
+
+		@Test
+		public void perConnectionOrderKept() throws Exception {
+			final int objectCount = 1000;
+			final Map<Connection, List<Object>> received = new ConcurrentHashMap<Connection, List<Object>>();
+			server.addListener(new Listener() {
+				@Override
+				public void received(Connection connection, Object object) {
+					if (object instanceof Integer) {
+						List<Object> list = received.get(connection);
+						if (null == list) {
+							list = new CopyOnWriteArrayList<Object>();
+							received.put(connection, list);
+						}
+						list.add(object);
+					}
+				}
+			});
+			connectSockets(SELECTOR_COUNT);
+
+			final List<byte[]> frames = new ArrayList<byte[]>();
+			for (int i = 0; i < objectCount; i++) {
+				frames.add(frame(Integer.valueOf(i)));
+			}
+			List<Thread> senders = new ArrayList<Thread>();
+			for (final Socket socket : sockets) {
+				Thread sender = new Thread() {
+					@Override
+					public void run() {
+						try {
+							OutputStream outputStream = socket.getOutputStream();
+							for (byte[] frame : frames) {
+								outputStream.write(frame);
+							}
+							outputStream.flush();
+						} catch (IOException e) {
+							throw new IllegalStateException(e);
+						}
+					}
+				};
+				senders.add(sender);
+				sender.start();
+			}
+			for (Thread sender : senders) {
+				sender.join(WAIT_MILLIS);
+			}
+
+			long waitUntil = System.currentTimeMillis() + WAIT_MILLIS;
+			while ((receivedCount(received) < (objectCount * SELECTOR_COUNT)) && (System.currentTimeMillis() < waitUntil)) {
+				Thread.sleep(10);
+			}
+
+			List<Object> expected = new ArrayList<Object>();
+			for (int i = 0; i < objectCount; i++) {
+				expected.add(Integer.valueOf(i));
+			}
+			assertThat(received.size(), is(SELECTOR_COUNT));
+			for (List<Object> list : received.values()) {
+				assertThat(list, hasSize(objectCount));
+				assertThat(list, is(equalTo(expected)));
+			}
+		}
+
+		private int receivedCount(Map<Connection, List<Object>> received) {
+			int count = 0;
+			for (List<Object> list : received.values()) {
+				count += list.size();
+			}
+			return count;
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("PMD")
+public class StringDictionaryTest {
+
+	private StringDictionary dictionary;
+
+	@BeforeMethod
+	public void init() {
+		dictionary = new StringDictionary(3, 10, 20);
+	}
+
+	@Test
+	public void addAndLookup() {
+		assertThat(dictionary.add("first"), is(true));
+		assertThat(dictionary.add("second"), is(true));
+
+		assertThat(dictionary.lookup("first"), is(0));
+		assertThat(dictionary.lookup("second"), is(1));
+		assertThat(dictionary.lookup("third"), is(-1));
+		assertThat(dictionary.get(1), is("second"));
+		assertThat(dictionary.size(), is(2));
+	}
+
+	@Test
+	public void putAndGet() {
+		dictionary.put("first");
+		dictionary.put("a string longer than the limit");
+
+		assertThat(dictionary.get(0), is("first"));
+		assertThat(dictionary.get(1), is("a string longer than the limit"));
+	}
+
+	@Test
+	public void limits() {
+		assertThat(dictionary.add("a too long string"), is(false));
+		assertThat(dictionary.add("0123456789"), is(true));
+		assertThat(dictionary.add("0123456780"), is(true));
+		// total length exceeded
+		assertThat(dictionary.add("a"), is(false));
+
+		dictionary = new StringDictionary(1, 10, 20);
+		assertThat(dictionary.add("a"), is(true));
+		// amount of entries exceeded
+		assertThat(dictionary.add("b"), is(false));
+	}
+
+	@Test
+	public void rollback() {
+		dictionary.add("first");
+		dictionary.commit();
+		dictionary.add("second");
+		dictionary.add("third");
+
+		dictionary.rollback();
+
+		assertThat(dictionary.size(), is(1));
+		assertThat(dictionary.lookup("second"), is(-1));
+		assertThat(dictionary.lookup("third"), is(-1));
+		assertThat(dictionary.add("fourth"), is(true));
+		assertThat(dictionary.lookup("fourth"), is(1));
+	}
+
+	@Test
+	public void clear() {
+		dictionary.add("first");
+		dictionary.commit();
+
+		dictionary.clear();
+
+		assertThat(dictionary.size(), is(0));
+		assertThat(dictionary.lookup("first"), is(-1));
+		assertThat(dictionary.add("0123456789"), is(true));
+		assertThat(dictionary.add("0123456780"), is(true));
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void unknownId() {
+		dictionary.get(0);
+	}
+}
@@ -0,0 +1,170 @@
+package rocks.inspectit.shared.all.kryonet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.all.storage.nio.stream.ExtendedByteBufferOutputStream;
+import rocks.inspectit.shared.all.storage.nio.stream.StreamProvider;
+
+@SuppressWarnings("PMD")
+public class TcpConnectionTest {
+
+	@Mock
+	IExtendedSerialization serialization;
+
+	@Mock
+	StreamProvider streamProvider;
+
+	@Mock
+	ExtendedByteBufferOutputStream outputStream;
+
+	@Mock
+	SocketChannel socketChannel;
+
+	@Mock
+	SelectionKey selectionKey;
+
+	@Mock
+	Selector selector;
+
+	@Mock
+	Connection connection;
+
+	TcpConnection tcpConnection;
+
+	ExecutorService executorService;
+
+	@BeforeMethod
+	public void init() throws Exception {
+		MockitoAnnotations.initMocks(this);
+		when(serialization.getLengthLength()).thenReturn(4);
+		when(streamProvider.getExtendedByteBufferOutputStream()).thenReturn(outputStream);
+		// buffer is never written as the socket does not accept any bytes
+		when(outputStream.getAllByteBuffers()).thenReturn(Collections.singletonList(ByteBuffer.allocate(16)));
+		when(outputStream.getTotalWriteSize()).thenReturn(16L);
+		when(selectionKey.isValid()).thenReturn(true);
+		when(selectionKey.selector()).thenReturn(selector);
+
+		tcpConnection = new TcpConnection(serialization, 1024, 1024, streamProvider);
+		tcpConnection.socketChannel = socketChannel;
+		Field field = TcpConnection.class.getDeclaredField("selectionKey");
+		field.setAccessible(true);
+		field.set(tcpConnection, selectionKey);
+
+		executorService = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterMethod
+	public void shutdown() {
+		executorService.shutdownNow();
+	}
+
+	public class Decoding extends TcpConnectionTest {
+
+		@Test
+		public void readInterestRemoved() throws Exception {
+			final List<Integer> interestOps = new CopyOnWriteArrayList<Integer>();
+			recordInterestOps(interestOps, null);
+
+			boolean started = tcpConnection.startDecoding();
+
+			assertThat(started, is(true));
+			assertThat(tcpConnection.startDecoding(), is(false));
+			assertThat(interestOps.get(interestOps.size() - 1), is(0));
+
+			tcpConnection.endDecoding();
+
+			assertThat(interestOps.get(interestOps.size() - 1), is(SelectionKey.OP_READ));
+		}
+
+		@Test
+		public void partialWriteWhileDecodingEnds() throws Exception {
+			final List<Integer> interestOps = new CopyOnWriteArrayList<Integer>();
+			final Callable<Integer> send = new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					return tcpConnection.send(connection, new Object());
+				}
+			};
+			final List<Future<Integer>> sent = new CopyOnWriteArrayList<Future<Integer>>();
+			tcpConnection.startDecoding();
+
+			// send with a partial write executed exactly when the decoding thread is about to
+			// restore the read interest
+			recordInterestOps(interestOps, new Runnable() {
+				@Override
+				public void run() {
+					Future<Integer> future = executorService.submit(send);
+					sent.add(future);
+					try {
+						future.get(500, TimeUnit.MILLISECONDS);
+					} catch (TimeoutException e) { // NOPMD
+						// send waits for the decoding thread to finish updating
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			});
+
+			tcpConnection.endDecoding();
+			sent.get(0).get(5, TimeUnit.SECONDS);
+
+			// the write interest set after the partial write must not be overwritten
+			assertThat(interestOps.get(interestOps.size() - 1), is(SelectionKey.OP_READ | SelectionKey.OP_WRITE));
+		}
+	}
+
+	/**
+	 * Records all interest operations set to the selection key.
+	 *
+	 * @param interestOps
+	 *            List to record to.
+	 * @param beforeFirst
+	 *            Executed by the first thread setting the interest operations before they are
+	 *            recorded, can be <code>null</code>.
+	 * @throws IOException
+	 *             Declared by the mocked socket channel.
+	 */
+	protected void recordInterestOps(final List<Integer> interestOps, final Runnable beforeFirst) throws IOException {
+		final Thread testThread = Thread.currentThread();
+		doAnswer(new Answer<SelectionKey>() {
+			@Override
+			public SelectionKey answer(InvocationOnMock invocation) throws Throwable {
+				if ((null != beforeFirst) && (Thread.currentThread() == testThread) && interestOps.isEmpty()) {
+					beforeFirst.run();
+				}
+				interestOps.add((Integer) invocation.getArguments()[0]);
+				return selectionKey;
+			}
+		}).when(selectionKey).interestOps(anyInt());
+		when(socketChannel.write(any(ByteBuffer[].class), anyInt(), anyInt())).thenReturn(0L);
+	}
+}
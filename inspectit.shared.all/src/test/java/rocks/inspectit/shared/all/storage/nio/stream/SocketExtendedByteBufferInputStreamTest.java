@@ -3,6 +3,7 @@ package rocks.inspectit.shared.all.storage.nio.stream;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -83,14 +84,25 @@ public class SocketExtendedByteBufferInputStreamTest extends TestBase {
 				}
 			});
 
-			when(socketChannel.read(Matchers.<ByteBuffer> any())).thenAnswer(new Answer<Integer>() {
+			Answer<Object> readAnswer = new Answer<Object>() {
 				int readPosition = 0;
 
 				@Override
-				public Integer answer(InvocationOnMock invocation) throws Throwable {
+				public Object answer(InvocationOnMock invocation) throws Throwable {
 					Object[] args = invocation.getArguments();
-					ByteBuffer byteBuffer = (ByteBuffer) args[0];
+					if (args[0] instanceof ByteBuffer[]) {
+						ByteBuffer[] byteBuffers = (ByteBuffer[]) args[0];
+						long totalRead = 0;
+						for (int i = (Integer) args[1]; i < ((Integer) args[1] + (Integer) args[2]); i++) {
+							totalRead += read(byteBuffers[i]);
+						}
+						return totalRead;
+					} else {
+						return read((ByteBuffer) args[0]);
+					}
+				}
 
+				private int read(ByteBuffer byteBuffer) {
 					int remaining = byteBuffer.remaining();
 
 					int toRead = remaining > (array.length - readPosition) ? array.length - readPosition : remaining;
@@ -101,7 +113,9 @@ public class SocketExtendedByteBufferInputStreamTest extends TestBase {
 
 					return remaining - newRemaning;
 				}
-			});
+			};
+			when(socketChannel.read(Matchers.<ByteBuffer> any())).thenAnswer(readAnswer);
+			when(socketChannel.read(Matchers.<ByteBuffer[]> any(), anyInt(), anyInt())).thenAnswer(readAnswer);
 
 			inputStream.prepare();
 			inputStream.reset(readSize);
@@ -141,6 +155,7 @@ public class SocketExtendedByteBufferInputStreamTest extends TestBase {
 					return -1;
 				}
 			});
+			when(socketChannel.read(Matchers.<ByteBuffer[]> any(), anyInt(), anyInt())).thenReturn(-1L);
 
 			inputStream.prepare();
 			inputStream.reset(readSize);
@@ -165,6 +180,7 @@ public class SocketExtendedByteBufferInputStreamTest extends TestBase {
 			});
 
 			doThrow(IOException.class).when(socketChannel).read(Matchers.<ByteBuffer> any());
+			doThrow(IOException.class).when(socketChannel).read(Matchers.<ByteBuffer[]> any(), anyInt(), anyInt());
 
 			inputStream.prepare();
 			inputStream.reset(readSize);
@@ -42,6 +42,26 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 	@XmlAttribute(name = "min-invocation-duration")
 	private Long minInvocationDuration = Long.valueOf(0L);
 
+	/**
+	 * Maximum amount of nodes recorded in one invocation. Zero means no limit.
+	 */
+	@XmlAttribute(name = "max-invocation-nodes")
+	private Long maxInvocationNodes = Long.valueOf(0L);
+
+	/**
+	 * Maximum amount of not interesting invocations per second that are sent. Zero means that
+	 * invocations are not sampled.
+	 */
+	@XmlAttribute(name = "invocation-sampling-rate")
+	private Long invocationSamplingRate = Long.valueOf(0L);
+
+	/**
+	 * Duration in milliseconds after which the invocation is always sent, regardless of the
+	 * sampling rate. Zero means that the duration does not influence the sampling.
+	 */
+	@XmlAttribute(name = "invocation-sampling-slow-duration")
+	private Long invocationSamplingSlowDuration = Long.valueOf(0L);
+
 	/**
 	 * List of context captures.
 	 */
@@ -71,6 +91,19 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 			settings.put("minduration", minInvocationDuration);
 		}
 
+		// node budget
+		if ((null != maxInvocationNodes) && (maxInvocationNodes > 0)) {
+			settings.put("maxnodes", maxInvocationNodes);
+		}
+
+		// sampling
+		if ((null != invocationSamplingRate) && (invocationSamplingRate > 0)) {
+			settings.put("samplingrate", invocationSamplingRate);
+			if ((null != invocationSamplingSlowDuration) && (invocationSamplingSlowDuration > 0)) {
+				settings.put("samplingslowduration", invocationSamplingSlowDuration);
+			}
+		}
+
 		return settings;
 	}
 
@@ -112,6 +145,72 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		this.minInvocationDuration = Long.valueOf(minInvocationDuration);
 	}
 
+	/**
+	 * Gets {@link #maxInvocationNodes}.
+	 *
+	 * @return {@link #maxInvocationNodes}
+	 */
+	public long getMaxInvocationNodes() {
+		if (null == maxInvocationNodes) {
+			return 0L;
+		}
+		return maxInvocationNodes.longValue();
+	}
+
+	/**
+	 * Sets {@link #maxInvocationNodes}.
+	 *
+	 * @param maxInvocationNodes
+	 *            New value for {@link #maxInvocationNodes}
+	 */
+	public void setMaxInvocationNodes(long maxInvocationNodes) {
+		this.maxInvocationNodes = Long.valueOf(maxInvocationNodes);
+	}
+
+	/**
+	 * Gets {@link #invocationSamplingRate}.
+	 *
+	 * @return {@link #invocationSamplingRate}
+	 */
+	public long getInvocationSamplingRate() {
+		if (null == invocationSamplingRate) {
+			return 0L;
+		}
+		return invocationSamplingRate.longValue();
+	}
+
+	/**
+	 * Sets {@link #invocationSamplingRate}.
+	 *
+	 * @param invocationSamplingRate
+	 *            New value for {@link #invocationSamplingRate}
+	 */
+	public void setInvocationSamplingRate(long invocationSamplingRate) {
+		this.invocationSamplingRate = Long.valueOf(invocationSamplingRate);
+	}
+
+	/**
+	 * Gets {@link #invocationSamplingSlowDuration}.
+	 *
+	 * @return {@link #invocationSamplingSlowDuration}
+	 */
+	public long getInvocationSamplingSlowDuration() {
+		if (null == invocationSamplingSlowDuration) {
+			return 0L;
+		}
+		return invocationSamplingSlowDuration.longValue();
+	}
+
+	/**
+	 * Sets {@link #invocationSamplingSlowDuration}.
+	 *
+	 * @param invocationSamplingSlowDuration
+	 *            New value for {@link #invocationSamplingSlowDuration}
+	 */
+	public void setInvocationSamplingSlowDuration(long invocationSamplingSlowDuration) {
+		this.invocationSamplingSlowDuration = Long.valueOf(invocationSamplingSlowDuration);
+	}
+
 	/**
 	 * Gets {@link #contextCaptures}.
 	 *
@@ -140,6 +239,9 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		int result = super.hashCode();
 		result = (prime * result) + ((this.contextCaptures == null) ? 0 : this.contextCaptures.hashCode());
 		result = (prime * result) + ((this.minInvocationDuration == null) ? 0 : this.minInvocationDuration.hashCode());
+		result = (prime * result) + ((this.maxInvocationNodes == null) ? 0 : this.maxInvocationNodes.hashCode());
+		result = (prime * result) + ((this.invocationSamplingRate == null) ? 0 : this.invocationSamplingRate.hashCode());
+		result = (prime * result) + ((this.invocationSamplingSlowDuration == null) ? 0 : this.invocationSamplingSlowDuration.hashCode());
 		result = (prime * result) + ((this.startsInvocation == null) ? 0 : this.startsInvocation.hashCode());
 		return result;
 	}
@@ -173,6 +275,27 @@ public class TimerMethodSensorAssignment extends ChartingMethodSensorAssignment
 		} else if (!this.minInvocationDuration.equals(other.minInvocationDuration)) {
 			return false;
 		}
+		if (this.maxInvocationNodes == null) {
+			if (other.maxInvocationNodes != null) {
+				return false;
+			}
+		} else if (!this.maxInvocationNodes.equals(other.maxInvocationNodes)) {
+			return false;
+		}
+		if (this.invocationSamplingRate == null) {
+			if (other.invocationSamplingRate != null) {
+				return false;
+			}
+		} else if (!this.invocationSamplingRate.equals(other.invocationSamplingRate)) {
+			return false;
+		}
+		if (this.invocationSamplingSlowDuration == null) {
+			if (other.invocationSamplingSlowDuration != null) {
+				return false;
+			}
+		} else if (!this.invocationSamplingSlowDuration.equals(other.invocationSamplingSlowDuration)) {
+			return false;
+		}
 		if (this.startsInvocation == null) {
 			if (other.startsInvocation != null) {
 				return false;
@@ -0,0 +1,201 @@
+package rocks.inspectit.shared.cs.ci.strategy.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
+
+/**
+ * Configuration for the adaptive sending strategy.
+ *
+ * @author agent
+ *
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlRootElement(name = "adaptive-sending-strategy-config")
+public class AdaptiveSendingStrategyConfig implements IStrategyConfig {
+
+	/**
+	 * Implementing class name.
+	 */
+	private static final String CLASS_NAME = "rocks.inspectit.agent.java.sending.impl.AdaptiveStrategy";
+
+	/**
+	 * Maximum sending time in milliseconds.
+	 * <p>
+	 * Default value is {@value #maxTime}
+	 */
+	@XmlAttribute(name = "max-time", required = true)
+	private long maxTime = 5000;
+
+	/**
+	 * Minimum sending time in milliseconds.
+	 * <p>
+	 * Default value is {@value #minTime}
+	 */
+	@XmlAttribute(name = "min-time")
+	private long minTime = 500;
+
+	/**
+	 * Maximum amount of the data objects collected before the sending is triggered.
+	 * <p>
+	 * Default value is {@value #maxBatchSize}
+	 */
+	@XmlAttribute(name = "max-batch-size")
+	private int maxBatchSize = 10000;
+
+	/**
+	 * Buffer occupancy in percent after which the data is sent immediately.
+	 * <p>
+	 * Default value is {@value #highWatermark}
+	 */
+	@XmlAttribute(name = "high-watermark")
+	private int highWatermark = 75;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, String> getSettings() {
+		Map<String, String> settings = new HashMap<>(4);
+		settings.put("maxTime", String.valueOf(maxTime));
+		settings.put("minTime", String.valueOf(minTime));
+		settings.put("maxBatchSize", String.valueOf(maxBatchSize));
+		settings.put("highWatermark", String.valueOf(highWatermark));
+		return settings;
+	}
+
+	/**
+	 * Gets {@link #maxTime}.
+	 *
+	 * @return {@link #maxTime}
+	 */
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * Sets {@link #maxTime}.
+	 *
+	 * @param maxTime
+	 *            New value for {@link #maxTime}
+	 */
+	public void setMaxTime(long maxTime) {
+		this.maxTime = maxTime;
+	}
+
+	/**
+	 * Gets {@link #minTime}.
+	 *
+	 * @return {@link #minTime}
+	 */
+	public long getMinTime() {
+		return minTime;
+	}
+
+	/**
+	 * Sets {@link #minTime}.
+	 *
+	 * @param minTime
+	 *            New value for {@link #minTime}
+	 */
+	public void setMinTime(long minTime) {
+		this.minTime = minTime;
+	}
+
+	/**
+	 * Gets {@link #maxBatchSize}.
+	 *
+	 * @return {@link #maxBatchSize}
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * Sets {@link #maxBatchSize}.
+	 *
+	 * @param maxBatchSize
+	 *            New value for {@link #maxBatchSize}
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Gets {@link #highWatermark}.
+	 *
+	 * @return {@link #highWatermark}
+	 */
+	public int getHighWatermark() {
+		return highWatermark;
+	}
+
+	/**
+	 * Sets {@link #highWatermark}.
+	 *
+	 * @param highWatermark
+	 *            New value for {@link #highWatermark}
+	 */
+	public void setHighWatermark(int highWatermark) {
+		this.highWatermark = highWatermark;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = (prime * result) + (int) (maxTime ^ (maxTime >>> 32));
+		result = (prime * result) + (int) (minTime ^ (minTime >>> 32));
+		result = (prime * result) + maxBatchSize;
+		result = (prime * result) + highWatermark;
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		AdaptiveSendingStrategyConfig other = (AdaptiveSendingStrategyConfig) obj;
+		if (maxTime != other.maxTime) {
+			return false;
+		}
+		if (minTime != other.minTime) {
+			return false;
+		}
+		if (maxBatchSize != other.maxBatchSize) {
+			return false;
+		}
+		if (highWatermark != other.highWatermark) {
+			return false;
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,103 @@
+package rocks.inspectit.shared.cs.ci.strategy.impl;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
+
+/**
+ * Configuration for the ring buffer strategy.
+ *
+ * @author agent
+ *
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlRootElement(name = "ring-buffer-strategy-config")
+public class RingBufferStrategyConfig implements IStrategyConfig {
+
+	/**
+	 * Implementing class name.
+	 */
+	private static final String CLASS_NAME = "rocks.inspectit.agent.java.buffer.impl.RingBufferStrategy";
+
+	/**
+	 * Maximum size of the buffered data in megabytes.
+	 * <p>
+	 * Default size is {@value #maxSize}.
+	 */
+	@XmlAttribute(name = "max-size", required = true)
+	private int maxSize = 16;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getClassName() {
+		return CLASS_NAME;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Map<String, String> getSettings() {
+		return Collections.singletonMap("maxSize", String.valueOf(maxSize));
+	}
+
+	/**
+	 * Gets {@link #maxSize}.
+	 *
+	 * @return {@link #maxSize}
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Sets {@link #maxSize}.
+	 *
+	 * @param maxSize
+	 *            New value for {@link #maxSize}
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = (prime * result) + maxSize;
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		RingBufferStrategyConfig other = (RingBufferStrategyConfig) obj;
+		if (maxSize != other.maxSize) {
+			return false;
+		}
+		return true;
+	}
+
+}
@@ -140,14 +140,15 @@ public final class InvocationSequenceDataHelper {
 	}
 
 	/**
-	 * Checks whether this data object contains SQL data.
+	 * Checks whether this data object contains SQL data. The SQL data of the folded invocations has
+	 * the count of all folded statements.
 	 *
 	 * @param data
 	 *            the <code>InvocationSequenceData</code> object.
 	 * @return whether this data object contains SQL data.
 	 */
 	public static boolean hasSQLData(InvocationSequenceData data) {
-		return (null != data.getSqlStatementData()) && (1 == data.getSqlStatementData().getCount());
+		return (null != data.getSqlStatementData()) && (0 < data.getSqlStatementData().getCount());
 	}
 
 	/**
@@ -161,6 +162,73 @@ public final class InvocationSequenceDataHelper {
 		return null != data.getSpanIdent();
 	}
 
+	/**
+	 * Checks whether this data object represents several consecutive identical invocations that
+	 * were folded into one.
+	 *
+	 * @param data
+	 *            the <code>InvocationSequenceData</code> object.
+	 * @return whether this data object represents folded invocations.
+	 */
+	public static boolean isFolded(InvocationSequenceData data) {
+		return null != data.getFoldedInvocationData();
+	}
+
+	/**
+	 * Returns the amount of invocations this data object represents. This is always
+	 * <code>1</code>, except for the folded invocations.
+	 *
+	 * @param data
+	 *            the <code>InvocationSequenceData</code> object.
+	 * @return amount of invocations this data object represents.
+	 */
+	public static long getInvocationCount(InvocationSequenceData data) {
+		if (isFolded(data)) {
+			return data.getFoldedInvocationData().getCount();
+		}
+		return 1L;
+	}
+
+	/**
+	 * Checks whether some nested invocations of this data object were not recorded because the
+	 * node budget of the invocation sequence was exhausted.
+	 *
+	 * @param data
+	 *            the <code>InvocationSequenceData</code> object.
+	 * @return whether this data object has dropped nested invocations.
+	 */
+	public static boolean hasDroppedChildren(InvocationSequenceData data) {
+		return 0 < data.getDroppedChildCount();
+	}
+
+	/**
+	 * Checks whether this data object was kept by the sampling on the agent and thus represents
+	 * more invocations of the same method.
+	 *
+	 * @param data
+	 *            the <code>InvocationSequenceData</code> object.
+	 * @return whether this data object was kept by the sampling.
+	 */
+	public static boolean isSampled(InvocationSequenceData data) {
+		return 0 < data.getSamplingWeight();
+	}
+
+	/**
+	 * Returns the amount of invocations of the same method this data object represents. This is
+	 * always <code>1</code>, except for the sampled invocations, where the counts need to be
+	 * multiplied with the returned value to estimate the real counts.
+	 *
+	 * @param data
+	 *            the <code>InvocationSequenceData</code> object.
+	 * @return amount of invocations this data object represents.
+	 */
+	public static double getSamplingWeight(InvocationSequenceData data) {
+		if (isSampled(data)) {
+			return data.getSamplingWeight();
+		}
+		return 1d;
+	}
+
 	/**
 	 * Checks whether this data object has a parent element.
 	 *
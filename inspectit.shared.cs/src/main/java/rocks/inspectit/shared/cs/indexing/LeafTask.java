@@ -1,12 +1,15 @@
 package rocks.inspectit.shared.cs.indexing;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.RecursiveTask;
 
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 
 /**
- * Returns the objects of the commited leaf.
+ * Returns the objects of the commited leaf. If the comparator is given only the first elements in
+ * the comparator order are returned.
  *
  * @author Tobias Angerstein
  *
@@ -28,6 +31,16 @@ public class LeafTask<R, E> extends RecursiveTask<List<R>> {
 	 */
 	private IIndexQuery query;
 
+	/**
+	 * Comparator defining the order of the results, can be <code>null</code>.
+	 */
+	private Comparator<? super R> comparator;
+
+	/**
+	 * Max amount of results, only used with the {@link #comparator}.
+	 */
+	private int limit;
+
 	/**
 	 * Default constructor.
 	 *
@@ -37,8 +50,27 @@ public class LeafTask<R, E> extends RecursiveTask<List<R>> {
 	 *            query
 	 */
 	public LeafTask(ITreeComponent<R, E> treeComponent, IIndexQuery query) {
+		this(treeComponent, query, null, -1);
+	}
+
+	/**
+	 * Constructor for the task returning only the first elements in the comparator order.
+	 *
+	 * @param treeComponent
+	 *            leaf
+	 * @param query
+	 *            query
+	 * @param comparator
+	 *            Comparator defining the order of the results or <code>null</code> to return all
+	 *            results.
+	 * @param limit
+	 *            Max amount of results.
+	 */
+	public LeafTask(ITreeComponent<R, E> treeComponent, IIndexQuery query, Comparator<? super R> comparator, int limit) {
 		this.leaf = treeComponent;
 		this.query = query;
+		this.comparator = comparator;
+		this.limit = limit;
 	}
 
 	/**
@@ -47,7 +79,18 @@ public class LeafTask<R, E> extends RecursiveTask<List<R>> {
 	 * Queries the Leaf.
 	 */
 	@Override
+	@SuppressWarnings("unchecked")
 	protected List<R> compute() {
-		return leaf.query(query);
+		if (null == comparator) {
+			return leaf.query(query);
+		}
+
+		TopElementsCollector<R> collector = new TopElementsCollector<>(comparator, limit);
+		if (leaf instanceof IBufferTreeComponent) {
+			((IBufferTreeComponent<R>) leaf).query(query, collector);
+		} else {
+			collector.offerAll(leaf.query(query));
+		}
+		return collector.getResult();
 	}
 }
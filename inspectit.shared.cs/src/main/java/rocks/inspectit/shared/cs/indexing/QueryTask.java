@@ -2,13 +2,16 @@ package rocks.inspectit.shared.cs.indexing;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.RecursiveTask;
 
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 
 /**
- * Queries through the branches and creates new tasks for each branch.
+ * Queries through the branches and creates new tasks for each branch. If the comparator is given
+ * only the first elements in the comparator order are returned.
  *
  * @author Tobias Angerstein
  *
@@ -30,6 +33,16 @@ public class QueryTask<R, E> extends RecursiveTask<List<R>> {
 	 */
 	private Collection<? extends ITreeComponent<R, E>> branchesToQuery;
 
+	/**
+	 * Comparator defining the order of the results, can be <code>null</code>.
+	 */
+	private Comparator<? super R> comparator;
+
+	/**
+	 * Max amount of results, only used with the {@link #comparator}.
+	 */
+	private int limit;
+
 	/**
 	 * Default constructor. The current branch and the query is needed.
 	 *
@@ -39,8 +52,27 @@ public class QueryTask<R, E> extends RecursiveTask<List<R>> {
 	 *            the given query
 	 */
 	public QueryTask(Collection<? extends ITreeComponent<R, E>> branchesToQuery, IIndexQuery query) {
+		this(branchesToQuery, query, null, -1);
+	}
+
+	/**
+	 * Constructor for the task returning only the first elements in the comparator order.
+	 *
+	 * @param branchesToQuery
+	 *            The branches, which have to be queried.
+	 * @param query
+	 *            the given query
+	 * @param comparator
+	 *            Comparator defining the order of the results or <code>null</code> to return all
+	 *            results.
+	 * @param limit
+	 *            Max amount of results.
+	 */
+	public QueryTask(Collection<? extends ITreeComponent<R, E>> branchesToQuery, IIndexQuery query, Comparator<? super R> comparator, int limit) {
 		this.query = query;
 		this.branchesToQuery = branchesToQuery;
+		this.comparator = comparator;
+		this.limit = limit;
 	}
 
 	/**
@@ -49,16 +81,32 @@ public class QueryTask<R, E> extends RecursiveTask<List<R>> {
 	 * Forks and queries all subbranches.
 	 */
 	@Override
+	@SuppressWarnings("unchecked")
 	protected List<R> compute() {
 		// List of Forks which will be started
 		List<RecursiveTask<List<R>>> forks = new ArrayList<>();
-		List<R> resultList = new ArrayList<>();
 		for (ITreeComponent<R, E> component : branchesToQuery) {
 			// New fork is being started
-			RecursiveTask<List<R>> task = component.getTaskForForkJoinQuery(query);
+			RecursiveTask<List<R>> task;
+			if ((null != comparator) && (component instanceof IBufferTreeComponent)) {
+				task = ((IBufferTreeComponent<R>) component).getTaskForForkJoinQuery(query, comparator, limit);
+			} else {
+				task = component.getTaskForForkJoinQuery(query);
+			}
 			forks.add(task);
 			task.fork();
 		}
+
+		if (null != comparator) {
+			// each fork returns its first elements, merge them
+			TopElementsCollector<R> collector = new TopElementsCollector<>(comparator, limit);
+			for (RecursiveTask<List<R>> fork : forks) {
+				collector.offerAll(fork.join());
+			}
+			return collector.getResult();
+		}
+
+		List<R> resultList = new ArrayList<>();
 		for (RecursiveTask<List<R>> fork : forks) {
 			resultList.addAll(fork.join());
 		}
@@ -0,0 +1,138 @@
+package rocks.inspectit.shared.cs.indexing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collects the first elements in the order of the given comparator, up to the limit. Elements are
+ * kept in a bounded heap, so that the collecting of the <code>n</code> elements costs
+ * <code>O(n * log(limit))</code> and the memory used does not depend on the number of offered
+ * elements.
+ * <p>
+ * This class is not thread safe. Each fork join task uses its own collector and the results are
+ * merged by offering them to the collector of the parent task.
+ *
+ * @author agent
+ *
+ * @param <E>
+ *            Type of the elements being collected.
+ */
+public class TopElementsCollector<E> {
+
+	/**
+	 * Comparator defining the order of elements.
+	 */
+	private final Comparator<? super E> comparator;
+
+	/**
+	 * Max amount of elements to collect.
+	 */
+	private final int limit;
+
+	/**
+	 * Heap with the last collected element on the top.
+	 */
+	private final PriorityQueue<E> heap;
+
+	/**
+	 * Default constructor.
+	 *
+	 * @param comparator
+	 *            Comparator defining the order of elements.
+	 * @param limit
+	 *            Max amount of elements to collect.
+	 */
+	public TopElementsCollector(Comparator<? super E> comparator, int limit) {
+		if (null == comparator) {
+			throw new IllegalArgumentException("Comparator must not be null.");
+		}
+		if (limit < 0) {
+			throw new IllegalArgumentException("Limit must not be negative.");
+		}
+		this.comparator = comparator;
+		this.limit = limit;
+		this.heap = new PriorityQueue<>(Math.max(1, limit), Collections.reverseOrder(comparator));
+	}
+
+	/**
+	 * Offers the element to the collector.
+	 *
+	 * @param element
+	 *            Element to offer.
+	 * @return <code>true</code> if element was collected, <code>false</code> if limit has been
+	 *         reached and element does not come before the last collected one. When elements are
+	 *         offered in the order of the comparator the <code>false</code> signals that none of
+	 *         the following elements will be collected.
+	 */
+	public boolean offer(E element) {
+		if (heap.size() < limit) {
+			heap.add(element);
+			return true;
+		}
+		if ((limit > 0) && (comparator.compare(element, heap.peek()) < 0)) {
+			heap.poll();
+			heap.add(element);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Offers all elements to the collector.
+	 *
+	 * @param elements
+	 *            Elements to offer.
+	 */
+	public void offerAll(Collection<? extends E> elements) {
+		for (E element : elements) {
+			offer(element);
+		}
+	}
+
+	/**
+	 * Returns the collected element that comes last in the comparator order if the limit has been
+	 * reached. Elements that don't come before the returned one will not be collected.
+	 *
+	 * @return Last collected element or <code>null</code> if the limit has not been reached.
+	 */
+	public E getLastIfLimitReached() {
+		if ((limit > 0) && (heap.size() == limit)) {
+			return heap.peek();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the collected elements sorted by the comparator.
+	 *
+	 * @return Returns the collected elements sorted by the comparator.
+	 */
+	public List<E> getResult() {
+		List<E> result = new ArrayList<>(heap);
+		Collections.sort(result, comparator);
+		return result;
+	}
+
+	/**
+	 * Gets {@link #comparator}.
+	 *
+	 * @return {@link #comparator}
+	 */
+	public Comparator<? super E> getComparator() {
+		return comparator;
+	}
+
+	/**
+	 * Gets {@link #limit}.
+	 *
+	 * @return {@link #limit}
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+}
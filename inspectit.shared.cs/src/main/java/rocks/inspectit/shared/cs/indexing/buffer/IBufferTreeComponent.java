@@ -1,8 +1,14 @@
 package rocks.inspectit.shared.cs.indexing.buffer;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.TopElementsCollector;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
 
 /**
@@ -54,4 +60,63 @@ public interface IBufferTreeComponent<E> extends ITreeComponent<E, E> {
 	 */
 	long getNumberOfElements();
 
+	/**
+	 * Returns the first elements that satisfy the query in the order of the given comparator. The
+	 * returned list is sorted by the comparator and has at most <code>limit</code> elements.
+	 * <p>
+	 * Leafs keep the elements ordered by time stamp, thus when the comparator orders by time stamp
+	 * (see {@link rocks.inspectit.shared.cs.communication.comparator.DefaultDataComparatorEnum#TIMESTAMP})
+	 * the search in each leaf stops as soon as no further element can make it into the result.
+	 * Other comparators require check of all elements, but the result is still collected in a
+	 * bounded heap.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order of the results.
+	 * @param limit
+	 *            Max amount of results.
+	 * @return Sorted list of elements, or empty list if nothing is found.
+	 */
+	List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit);
+
+	/**
+	 * Same as {@link #query(IIndexQuery, Comparator, int)}, but uses Join&Fork and creates a new
+	 * task for each child.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order of the results.
+	 * @param limit
+	 *            Max amount of results.
+	 * @param forkJoinPool
+	 *            The Pool which starts and manages the forks
+	 * @return Sorted list of elements, or empty list if nothing is found.
+	 */
+	List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit, ForkJoinPool forkJoinPool);
+
+	/**
+	 * Offers all elements that satisfy the query to the given collector.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param collector
+	 *            Collector to offer elements to.
+	 */
+	void query(IIndexQuery query, TopElementsCollector<E> collector);
+
+	/**
+	 * Creates a fitting task for the query limited to the first elements in the comparator order.
+	 *
+	 * @param query
+	 *            Query.
+	 * @param comparator
+	 *            Comparator defining the order of the results.
+	 * @param limit
+	 *            Max amount of results.
+	 * @return Task.
+	 */
+	RecursiveTask<List<E>> getTaskForForkJoinQuery(IIndexQuery query, Comparator<? super E> comparator, int limit);
+
 }
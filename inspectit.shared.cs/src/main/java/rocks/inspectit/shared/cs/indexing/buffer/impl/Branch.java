@@ -1,12 +1,19 @@
 package rocks.inspectit.shared.cs.indexing.buffer.impl;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import rocks.inspectit.shared.all.communication.DefaultData;
+import rocks.inspectit.shared.all.indexing.IIndexQuery;
 import rocks.inspectit.shared.cs.indexing.AbstractBranch;
 import rocks.inspectit.shared.cs.indexing.ITreeComponent;
+import rocks.inspectit.shared.cs.indexing.QueryTask;
+import rocks.inspectit.shared.cs.indexing.TopElementsCollector;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferBranchIndexer;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 
@@ -119,6 +126,46 @@ public class Branch<E extends DefaultData> extends AbstractBranch<E, E> implemen
 		return sum;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		TopElementsCollector<E> collector = new TopElementsCollector<>(comparator, limit);
+		this.query(query, collector);
+		return collector.getResult();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(getTaskForForkJoinQuery(query, comparator, limit));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void query(IIndexQuery query, TopElementsCollector<E> collector) {
+		for (ITreeComponent<E, E> treeComponent : getBranchesToQuery(query)) {
+			if (treeComponent instanceof IBufferTreeComponent) {
+				((IBufferTreeComponent<E>) treeComponent).query(query, collector);
+			} else {
+				collector.offerAll(treeComponent.query(query));
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveTask<List<E>> getTaskForForkJoinQuery(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		return new QueryTask<>(getBranchesToQuery(query), query, comparator, limit);
+	}
+
 	/**
 	 * @return the bufferBranchIndexer
 	 */
@@ -2,9 +2,12 @@ package rocks.inspectit.shared.cs.indexing.buffer.impl;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
@@ -16,11 +19,17 @@ import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
 import rocks.inspectit.shared.all.cmr.cache.IObjectSizes;
 import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.indexing.IIndexQuery;
+import rocks.inspectit.shared.cs.communication.comparator.DefaultDataComparatorEnum;
+import rocks.inspectit.shared.cs.communication.comparator.ResultComparator;
 import rocks.inspectit.shared.cs.indexing.LeafTask;
+import rocks.inspectit.shared.cs.indexing.TopElementsCollector;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 
 /**
  * Leaf class is the one that holds the weak references to objects, thus last in tree structure.
+ * Next to the map of references by id, the leaf keeps the references ordered by the time stamp of
+ * the referent, so that the first elements by time stamp can be found without checking all the
+ * elements in the leaf.
  *
  * @author Ivan Senic
  *
@@ -34,6 +43,11 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	 */
 	private NonBlockingHashMapLong<CustomWeakReference<E>> map;
 
+	/**
+	 * Same weak references as in the {@link #map}, ordered by time stamp and id of the referent.
+	 */
+	private ConcurrentSkipListSet<CustomWeakReference<E>> orderedSet;
+
 	/**
 	 * Reference queue where cleared Weak references are queued by garbage collection.
 	 */
@@ -59,6 +73,7 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	 */
 	public Leaf() {
 		map = new NonBlockingHashMapLong<>();
+		orderedSet = new ConcurrentSkipListSet<>(new ReferenceComparator());
 		referenceQueue = new ReferenceQueue<>();
 	}
 
@@ -68,7 +83,11 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	public E put(E element) {
 		CustomWeakReference<E> weakReference = new CustomWeakReference<>(element, referenceQueue);
-		map.put(element.getId(), weakReference);
+		CustomWeakReference<E> replaced = map.put(element.getId(), weakReference);
+		if (null != replaced) {
+			orderedSet.remove(replaced);
+		}
+		orderedSet.add(weakReference);
 		return element;
 	}
 
@@ -78,10 +97,10 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	public E get(E template) {
 		long id = template.getId();
-		WeakReference<E> weakReference = map.get(id);
+		CustomWeakReference<E> weakReference = map.get(id);
 		if (null != weakReference) {
 			if (null == weakReference.get()) {
-				map.remove(id);
+				remove(weakReference);
 				return null;
 			}
 			return weakReference.get();
@@ -96,14 +115,14 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	public E getAndRemove(E template) {
 		long id = template.getId();
-		WeakReference<E> weakReference = map.get(id);
+		CustomWeakReference<E> weakReference = map.get(id);
 		if (null != weakReference) {
 			if (null == weakReference.get()) {
-				map.remove(id);
+				remove(weakReference);
 				return null;
 			} else {
 				E result = weakReference.get();
-				map.remove(id);
+				remove(weakReference);
 				return result;
 			}
 		} else {
@@ -138,6 +157,86 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		return forkJoinPool.invoke(getTaskForForkJoinQuery(query));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		TopElementsCollector<E> collector = new TopElementsCollector<>(comparator, limit);
+		this.query(query, collector);
+		return collector.getResult();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<E> query(IIndexQuery query, Comparator<? super E> comparator, int limit, ForkJoinPool forkJoinPool) {
+		return forkJoinPool.invoke(getTaskForForkJoinQuery(query, comparator, limit));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the comparator of the collector orders by time stamp the references are iterated in the
+	 * comparator order and the iteration stops as soon as the collector rejects the element.
+	 */
+	@Override
+	public void query(IIndexQuery query, TopElementsCollector<E> collector) {
+		Iterator<CustomWeakReference<E>> iterator = getOrderedIterator(collector.getComparator());
+		boolean ordered = null != iterator;
+		if (!ordered) {
+			iterator = map.values().iterator();
+		}
+
+		while (iterator.hasNext()) {
+			WeakReference<E> weakReference = iterator.next();
+			if (null != weakReference) {
+				E element = weakReference.get();
+				if ((null != element) && element.isQueryComplied(query) && !collector.offer(element) && ordered) {
+					// no following element can be collected
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the iterator over the {@link #orderedSet} that gives the references in the order of
+	 * the given comparator, if the comparator orders by time stamp.
+	 *
+	 * @param comparator
+	 *            Comparator.
+	 * @return Iterator or <code>null</code> if the references can not be iterated in the
+	 *         comparator order.
+	 */
+	private Iterator<CustomWeakReference<E>> getOrderedIterator(Comparator<?> comparator) {
+		if (DefaultDataComparatorEnum.TIMESTAMP == comparator) {
+			return orderedSet.iterator();
+		} else if (comparator instanceof ResultComparator) {
+			ResultComparator<?> resultComparator = (ResultComparator<?>) comparator;
+			if (DefaultDataComparatorEnum.TIMESTAMP == resultComparator.getComparator()) {
+				if (resultComparator.isAscending()) {
+					return orderedSet.iterator();
+				} else {
+					return orderedSet.descendingIterator();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the reference from the leaf.
+	 *
+	 * @param weakReference
+	 *            Reference to remove.
+	 */
+	private void remove(CustomWeakReference<E> weakReference) {
+		map.remove(weakReference.getReferentId());
+		orderedSet.remove(weakReference);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -145,11 +244,12 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	public long getComponentSize(IObjectSizes objectSizes) {
 		int mapSize = map.size();
 		long size = objectSizes.getSizeOfObjectHeader();
-		size += objectSizes.getPrimitiveTypesSize(1, 0, 0, 0, 0, 0);
+		size += objectSizes.getPrimitiveTypesSize(2, 0, 0, 0, 0, 0);
 		size = objectSizes.alignTo8Bytes(size);
 
-		// map
+		// map and ordered set
 		size += objectSizes.getSizeOfNonBlockingHashMapLong(mapSize);
+		size += objectSizes.getSizeOfConcurrentSkipListSet(orderedSet.size());
 		// for each CustomWeakReference in a map
 		size += map.size() * objectSizes.getSizeOfCustomWeakReference();
 
@@ -165,14 +265,15 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	@SuppressWarnings("unchecked")
 	public boolean clean() {
-		List<Long> toClean = new ArrayList<>();
+		List<CustomWeakReference<E>> toClean = new ArrayList<>();
 		CustomWeakReference<E> customWeakReference = (CustomWeakReference<E>) referenceQueue.poll();
 		while (customWeakReference != null) {
-			toClean.add(customWeakReference.getReferentId());
+			toClean.add(customWeakReference);
 			customWeakReference = (CustomWeakReference<E>) referenceQueue.poll();
 		}
-		for (Object key : toClean) {
-			map.remove(key);
+		for (CustomWeakReference<E> reference : toClean) {
+			map.remove(reference.getReferentId());
+			orderedSet.remove(reference);
 		}
 		if (map.isEmpty()) {
 			return true;
@@ -194,6 +295,7 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	@Override
 	public void clearAll() {
 		map.clear();
+		orderedSet.clear();
 	}
 
 	/**
@@ -215,8 +317,8 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	}
 
 	/**
-	 * Custom extension of {@link WeakReference} that will additionally hold the id of the referent
-	 * {@link DefaultData} object.
+	 * Custom extension of {@link WeakReference} that will additionally hold the id and the time
+	 * stamp of the referent {@link DefaultData} object.
 	 *
 	 * @author Ivan Senic
 	 *
@@ -229,6 +331,17 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		 */
 		private long referentId;
 
+		/**
+		 * Time stamp of referring object in milliseconds or {@link Long#MIN_VALUE} if time stamp is
+		 * not set.
+		 */
+		private long referentTime;
+
+		/**
+		 * Nanos of the referring object time stamp.
+		 */
+		private int referentNanos;
+
 		/**
 		 * Default constructor.
 		 *
@@ -241,6 +354,13 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 		public CustomWeakReference(T referent, ReferenceQueue<? super T> q) {
 			super(referent, q);
 			referentId = referent.getId();
+			Timestamp timestamp = referent.getTimeStamp();
+			if (null != timestamp) {
+				referentTime = timestamp.getTime();
+				referentNanos = timestamp.getNanos();
+			} else {
+				referentTime = Long.MIN_VALUE;
+			}
 		}
 
 		/**
@@ -252,6 +372,34 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 
 	}
 
+	/**
+	 * Orders the references by the time stamp of the referent the same way
+	 * {@link DefaultDataComparatorEnum#TIMESTAMP} does, references with same time stamp are ordered
+	 * by the id. Only values captured at the reference creation are used, thus the order does not
+	 * change when the referent is garbage collected.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static class ReferenceComparator implements Comparator<CustomWeakReference<?>> {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int compare(CustomWeakReference<?> o1, CustomWeakReference<?> o2) {
+			int result = Long.compare(o1.referentTime, o2.referentTime);
+			if (0 != result) {
+				return result;
+			}
+			result = Integer.compare(o1.referentNanos, o2.referentNanos);
+			if (0 != result) {
+				return result;
+			}
+			return Long.compare(o1.referentId, o2.referentId);
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -269,4 +417,12 @@ public class Leaf<E extends DefaultData> implements IBufferTreeComponent<E> {
 	public RecursiveTask<List<E>> getTaskForForkJoinQuery(IIndexQuery query) {
 		return new LeafTask<>(this, query);
 	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RecursiveTask<List<E>> getTaskForForkJoinQuery(IIndexQuery query, Comparator<? super E> comparator, int limit) {
+		return new LeafTask<>(this, query, comparator, limit);
+	}
 }
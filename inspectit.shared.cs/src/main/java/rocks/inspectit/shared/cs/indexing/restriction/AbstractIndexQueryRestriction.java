@@ -22,6 +22,12 @@ public abstract class AbstractIndexQueryRestriction implements IIndexQueryRestri
 	 */
 	private final List<String> methodNames;
 
+	/**
+	 * Field accessor compiled for the class of the last checked object. Restrictions are checked
+	 * against many objects of the same class, thus the accessor is kept with the restriction.
+	 */
+	private transient volatile RestrictionFieldAccessor fieldAccessor;
+
 	/**
 	 * Default constructor.
 	 *
@@ -51,6 +57,51 @@ public abstract class AbstractIndexQueryRestriction implements IIndexQueryRestri
 		return Collections.unmodifiableList(methodNames);
 	}
 
+	/**
+	 * Checks if the restriction is fulfilled with the given primitive <code>long</code> field
+	 * value. The result is same as when checking with the boxed value. Sub-classes can override to
+	 * avoid boxing.
+	 *
+	 * @param fieldValue
+	 *            The field value of checked object.
+	 * @return True if restriction is fulfilled, false otherwise.
+	 */
+	public boolean isLongFulfilled(long fieldValue) {
+		return isFulfilled(Long.valueOf(fieldValue));
+	}
+
+	/**
+	 * Checks if the restriction is fulfilled with the given primitive <code>double</code> field
+	 * value. The result is same as when checking with the boxed value. Sub-classes can override to
+	 * avoid boxing.
+	 *
+	 * @param fieldValue
+	 *            The field value of checked object.
+	 * @return True if restriction is fulfilled, false otherwise.
+	 */
+	public boolean isDoubleFulfilled(double fieldValue) {
+		return isFulfilled(Double.valueOf(fieldValue));
+	}
+
+	/**
+	 * Gets {@link #fieldAccessor}.
+	 *
+	 * @return {@link #fieldAccessor}
+	 */
+	public RestrictionFieldAccessor getFieldAccessor() {
+		return fieldAccessor;
+	}
+
+	/**
+	 * Sets {@link #fieldAccessor}.
+	 *
+	 * @param fieldAccessor
+	 *            New value for {@link #fieldAccessor}
+	 */
+	public void setFieldAccessor(RestrictionFieldAccessor fieldAccessor) {
+		this.fieldAccessor = fieldAccessor;
+	}
+
 	/**
 	 * Returns getter method name based on the field name.
 	 *
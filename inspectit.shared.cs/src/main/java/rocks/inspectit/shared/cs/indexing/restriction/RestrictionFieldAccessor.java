@@ -0,0 +1,241 @@
+package rocks.inspectit.shared.cs.indexing.restriction;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Compiled accessor of the field an index query restriction is bounded to. The accessor is created
+ * for one exact class of the checked objects and holds the {@link MethodHandle}s of the getter
+ * methods that need to be invoked to get the field value. If the getter of the last field returns a
+ * primitive <code>long</code> or <code>double</code> the value can be read without boxing.
+ * <p>
+ * Getters after the first one are resolved against the declared return type of the previous getter.
+ *
+ * @author agent
+ *
+ */
+public final class RestrictionFieldAccessor {
+
+	/**
+	 * Value type of the field that is not a <code>long</code> or <code>double</code>. Primitives of
+	 * other types are boxed.
+	 */
+	public static final int OBJECT = 0;
+
+	/**
+	 * Value type of the primitive <code>long</code> field.
+	 */
+	public static final int LONG = 1;
+
+	/**
+	 * Value type of the primitive <code>double</code> field.
+	 */
+	public static final int DOUBLE = 2;
+
+	/**
+	 * Method type of getters returning an object.
+	 */
+	private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+
+	/**
+	 * Method type of getters returning a long.
+	 */
+	private static final MethodType LONG_GETTER = MethodType.methodType(long.class, Object.class);
+
+	/**
+	 * Method type of getters returning a double.
+	 */
+	private static final MethodType DOUBLE_GETTER = MethodType.methodType(double.class, Object.class);
+
+	/**
+	 * Class this accessor is compiled for.
+	 */
+	private final Class<?> targetClass;
+
+	/**
+	 * Getters to invoke one after another. All but the last one are of {@link #OBJECT_GETTER} type.
+	 * <code>null</code> if the field does not exist in the {@link #targetClass}.
+	 */
+	private final MethodHandle[] getters;
+
+	/**
+	 * Value type of the field.
+	 */
+	private final int valueType;
+
+	/**
+	 * Private constructor, use {@link #compile(Class, List)}.
+	 *
+	 * @param targetClass
+	 *            Class this accessor is compiled for.
+	 * @param getters
+	 *            Getters to invoke or <code>null</code> if field does not exist.
+	 * @param valueType
+	 *            Value type of the field.
+	 */
+	private RestrictionFieldAccessor(Class<?> targetClass, MethodHandle[] getters, int valueType) {
+		this.targetClass = targetClass;
+		this.getters = getters;
+		this.valueType = valueType;
+	}
+
+	/**
+	 * Compiles the accessor for the given class.
+	 *
+	 * @param targetClass
+	 *            Exact class of the objects the accessor will be used with.
+	 * @param methodNames
+	 *            Getter methods to invoke.
+	 * @return Compiled accessor. If any of the getters does not exist, the returned accessor
+	 *         reports {@link #isFieldExisting()} as <code>false</code>.
+	 * @throws IllegalAccessException
+	 *             If any of the getters is not accessible.
+	 */
+	public static RestrictionFieldAccessor compile(Class<?> targetClass, List<String> methodNames) throws IllegalAccessException {
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		MethodHandle[] getters = new MethodHandle[methodNames.size()];
+		int valueType = OBJECT;
+
+		Class<?> type = targetClass;
+		for (int i = 0; i < getters.length; i++) {
+			Method method;
+			try {
+				method = type.getMethod(methodNames.get(i), new Class<?>[0]);
+			} catch (NoSuchMethodException e) {
+				return new RestrictionFieldAccessor(targetClass, null, OBJECT);
+			}
+
+			MethodHandle getter = lookup.unreflect(method);
+			Class<?> returnType = method.getReturnType();
+			boolean last = i == (getters.length - 1);
+			if (last && (long.class == returnType)) {
+				getters[i] = getter.asType(LONG_GETTER);
+				valueType = LONG;
+			} else if (last && (double.class == returnType)) {
+				getters[i] = getter.asType(DOUBLE_GETTER);
+				valueType = DOUBLE;
+			} else {
+				getters[i] = getter.asType(OBJECT_GETTER);
+			}
+			type = returnType;
+		}
+
+		return new RestrictionFieldAccessor(targetClass, getters, valueType);
+	}
+
+	/**
+	 * Returns the field value. Can be used with all value types, primitives are boxed.
+	 *
+	 * @param object
+	 *            Object of the {@link #targetClass}.
+	 * @return Field value. <code>null</code> if any of the intermediate values is
+	 *         <code>null</code>.
+	 * @throws Throwable
+	 *             If any of the getters throws exception.
+	 */
+	public Object getValue(Object object) throws Throwable {
+		Object executeOn = getNavigationTarget(object);
+		if (null == executeOn) {
+			return null;
+		}
+
+		switch (valueType) {
+		case LONG:
+			return Long.valueOf(getLongValue(executeOn));
+		case DOUBLE:
+			return Double.valueOf(getDoubleValue(executeOn));
+		default:
+			return getObjectValue(executeOn);
+		}
+	}
+
+	/**
+	 * Returns the field value of the {@link #OBJECT} value type.
+	 *
+	 * @param executeOn
+	 *            Object returned by {@link #getNavigationTarget(Object)}.
+	 * @return Field value.
+	 * @throws Throwable
+	 *             If getter throws exception.
+	 */
+	public Object getObjectValue(Object executeOn) throws Throwable {
+		return (Object) getters[getters.length - 1].invokeExact(executeOn);
+	}
+
+	/**
+	 * Returns the field value of the {@link #LONG} value type.
+	 *
+	 * @param executeOn
+	 *            Object returned by {@link #getNavigationTarget(Object)}.
+	 * @return Field value.
+	 * @throws Throwable
+	 *             If getter throws exception.
+	 */
+	public long getLongValue(Object executeOn) throws Throwable {
+		return (long) getters[getters.length - 1].invokeExact(executeOn);
+	}
+
+	/**
+	 * Returns the field value of the {@link #DOUBLE} value type.
+	 *
+	 * @param executeOn
+	 *            Object returned by {@link #getNavigationTarget(Object)}.
+	 * @return Field value.
+	 * @throws Throwable
+	 *             If getter throws exception.
+	 */
+	public double getDoubleValue(Object executeOn) throws Throwable {
+		return (double) getters[getters.length - 1].invokeExact(executeOn);
+	}
+
+	/**
+	 * Returns the object the last getter is invoked on. Must be used to get the parameter for the
+	 * {@link #getObjectValue(Object)}, {@link #getLongValue(Object)} and
+	 * {@link #getDoubleValue(Object)}.
+	 *
+	 * @param object
+	 *            Object of the {@link #targetClass}.
+	 * @return Object to invoke the last getter on or <code>null</code> if any of the intermediate
+	 *         values is <code>null</code>.
+	 * @throws Throwable
+	 *             If any of the getters throws exception.
+	 */
+	public Object getNavigationTarget(Object object) throws Throwable {
+		Object executeOn = object;
+		for (int i = 0; (i < (getters.length - 1)) && (null != executeOn); i++) {
+			executeOn = (Object) getters[i].invokeExact(executeOn);
+		}
+		return executeOn;
+	}
+
+	/**
+	 * Gets {@link #targetClass}.
+	 *
+	 * @return {@link #targetClass}
+	 */
+	public Class<?> getTargetClass() {
+		return targetClass;
+	}
+
+	/**
+	 * Gets {@link #valueType}.
+	 *
+	 * @return {@link #valueType}
+	 */
+	public int getValueType() {
+		return valueType;
+	}
+
+	/**
+	 * If the field exists in the {@link #targetClass}.
+	 *
+	 * @return If the field exists in the {@link #targetClass}.
+	 */
+	public boolean isFieldExisting() {
+		return null != getters;
+	}
+
+}
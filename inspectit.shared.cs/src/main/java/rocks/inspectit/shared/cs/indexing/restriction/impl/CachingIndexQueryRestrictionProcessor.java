@@ -1,7 +1,5 @@
 package rocks.inspectit.shared.cs.indexing.restriction.impl;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -10,12 +8,19 @@ import org.springframework.stereotype.Component;
 
 import rocks.inspectit.shared.all.indexing.restriction.IIndexQueryRestriction;
 import rocks.inspectit.shared.all.spring.logger.Log;
+import rocks.inspectit.shared.cs.indexing.restriction.AbstractIndexQueryRestriction;
 import rocks.inspectit.shared.cs.indexing.restriction.IIndexQueryRestrictionProcessor;
+import rocks.inspectit.shared.cs.indexing.restriction.RestrictionFieldAccessor;
 
 /**
- * This restriction processor caches the methods of each class that needs to be invoke. It also
- * marks in the cache all method that do not exist for specific class and an attempt to find them
- * was made.
+ * This restriction processor compiles the field accessors of the restrictions for each class of
+ * the checked objects. Accessors use {@link java.lang.invoke.MethodHandle}s instead of the
+ * reflection and are cached by the exact class and the getter names. Accessors of the fields that
+ * do not exist in the class are cached as well. The accessor used last is additionally kept in the
+ * restriction, so checking many objects of the same class needs no cache lookup.
+ * <p>
+ * If the field is a primitive <code>long</code> or <code>double</code> the value is checked
+ * without boxing.
  *
  * @author Ivan Senic
  *
@@ -30,27 +35,9 @@ public class CachingIndexQueryRestrictionProcessor implements IIndexQueryRestric
 	Logger log;
 
 	/**
-	 * Map for caching methods.
+	 * Map for caching compiled accessors.
 	 */
-	private final ConcurrentHashMap<Integer, Method> cacheMap;
-
-	/**
-	 * Marker method.
-	 */
-	private Method markerMethod;
-
-	/**
-	 * Default constructor. Sets {@link #markerMethod} to refer to {@link Object#toString()}.
-	 */
-	public CachingIndexQueryRestrictionProcessor() {
-		cacheMap = new ConcurrentHashMap<>();
-		try {
-			// setting marker method to point to Object.toString()
-			markerMethod = Object.class.getMethod("toString", new Class[0]);
-		} catch (Exception e) {
-			throw new IllegalStateException("Method toString() can not be found", e);
-		}
-	}
+	private final ConcurrentHashMap<AccessorKey, RestrictionFieldAccessor> cacheMap = new ConcurrentHashMap<>();
 
 	/**
 	 * {@inheritDoc}
@@ -76,76 +63,166 @@ public class CachingIndexQueryRestrictionProcessor implements IIndexQueryRestric
 	 * @return <code>true</code> if the indexing restriction is fulfilled.
 	 */
 	private boolean isRestrictionFulfilled(Object object, IIndexQueryRestriction indexingRestriction) {
-		List<String> methodNames = indexingRestriction.getQualifiedMethodNames();
+		RestrictionFieldAccessor fieldAccessor = getFieldAccessor(object.getClass(), indexingRestriction);
+		if ((null == fieldAccessor) || !fieldAccessor.isFieldExisting()) {
+			return false;
+		}
+
+		if (!(indexingRestriction instanceof AbstractIndexQueryRestriction)) {
+			Object fieldValue;
+			try {
+				fieldValue = fieldAccessor.getValue(object);
+			} catch (Throwable throwable) { // NOPMD
+				log.error("Error in find object to execute indexing restricton check.", throwable);
+				return false;
+			}
+			return indexingRestriction.isFulfilled(fieldValue);
+		}
 
+		AbstractIndexQueryRestriction restriction = (AbstractIndexQueryRestriction) indexingRestriction;
+		Object fieldValue = null;
+		long longValue = 0;
+		double doubleValue = 0;
+		int valueType = RestrictionFieldAccessor.OBJECT;
 		try {
-			Object executeOn = object;
-			for (String methodName : methodNames) {
-				Method method = getMethod(executeOn, methodName);
-				if (null == method) {
-					return false;
+			Object executeOn = fieldAccessor.getNavigationTarget(object);
+			if (null != executeOn) {
+				valueType = fieldAccessor.getValueType();
+				if (RestrictionFieldAccessor.LONG == valueType) {
+					longValue = fieldAccessor.getLongValue(executeOn);
+				} else if (RestrictionFieldAccessor.DOUBLE == valueType) {
+					doubleValue = fieldAccessor.getDoubleValue(executeOn);
+				} else {
+					fieldValue = fieldAccessor.getObjectValue(executeOn);
 				}
-				executeOn = method.invoke(executeOn, new Object[0]);
 			}
-
-			return indexingRestriction.isFulfilled(executeOn);
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			log.error("Error in find object to execute indexing restricton check.", e);
+		} catch (Throwable throwable) { // NOPMD
+			log.error("Error in find object to execute indexing restricton check.", throwable);
 			return false;
 		}
+
+		switch (valueType) {
+		case RestrictionFieldAccessor.LONG:
+			return restriction.isLongFulfilled(longValue);
+		case RestrictionFieldAccessor.DOUBLE:
+			return restriction.isDoubleFulfilled(doubleValue);
+		default:
+			return restriction.isFulfilled(fieldValue);
+		}
 	}
 
 	/**
-	 * Returns the {@link Method} for the given {@link Object} with the given method name.
+	 * Returns the compiled {@link RestrictionFieldAccessor} for the given class and restriction.
 	 *
-	 * @param object
-	 *            Object to find method on.
-	 * @param methodName
-	 *            Name of the method.
-	 * @return Method if one can be found.
+	 * @param clazz
+	 *            Class of the object to check.
+	 * @param indexingRestriction
+	 *            {@link IIndexQueryRestriction} to check.
+	 * @return Field accessor or <code>null</code> if one can not be compiled.
 	 */
-	private Method getMethod(Object object, String methodName) {
-		int cacheKey = getMethodCacheKey(object.getClass(), methodName);
-		Method method = cacheMap.get(cacheKey);
+	private RestrictionFieldAccessor getFieldAccessor(Class<?> clazz, IIndexQueryRestriction indexingRestriction) {
+		AbstractIndexQueryRestriction restriction = null;
+		if (indexingRestriction instanceof AbstractIndexQueryRestriction) {
+			restriction = (AbstractIndexQueryRestriction) indexingRestriction;
+			RestrictionFieldAccessor fieldAccessor = restriction.getFieldAccessor();
+			if ((null != fieldAccessor) && (fieldAccessor.getTargetClass() == clazz)) {
+				return fieldAccessor;
+			}
+		}
 
-		if (method == null) { // method is not yet in cache
+		AccessorKey cacheKey = new AccessorKey(clazz, indexingRestriction.getQualifiedMethodNames());
+		RestrictionFieldAccessor fieldAccessor = cacheMap.get(cacheKey);
+
+		if (null == fieldAccessor) { // accessor is not yet in cache
 			try {
-				Method methodFromClass = object.getClass().getMethod(methodName, new Class<?>[0]);
-				Method existing = cacheMap.putIfAbsent(cacheKey, methodFromClass);
-				if (null != existing) {
-					methodFromClass = existing;
-				}
-				return methodFromClass;
-			} catch (NoSuchMethodException e) {
-				// not found, put marker method at this place in map
-				cacheMap.putIfAbsent(cacheKey, markerMethod);
-				return null;
-			} catch (SecurityException | IllegalArgumentException e) {
-				log.error("Error retrieve the method " + methodName + " for the object of class " + object.getClass(), e);
+				fieldAccessor = RestrictionFieldAccessor.compile(clazz, cacheKey.methodNames);
+			} catch (IllegalAccessException | SecurityException e) {
+				log.error("Error compiling the accessor of the methods " + cacheKey.methodNames + " for the object of class " + clazz, e);
 				return null;
 			}
-		} else if (markerMethod.equals(method)) {
-			return null;
-		} else {
-			return method;
+			RestrictionFieldAccessor existing = cacheMap.putIfAbsent(cacheKey, fieldAccessor);
+			if (null != existing) {
+				fieldAccessor = existing;
+			}
 		}
+
+		if (null != restriction) {
+			restriction.setFieldAccessor(fieldAccessor);
+		}
+		return fieldAccessor;
 	}
 
 	/**
-	 * Returns key for the hash map based on the supplied class and method name.
+	 * Key of the {@link #cacheMap}. Consists of the exact class and the getter method names.
+	 *
+	 * @author agent
 	 *
-	 * @param clazz
-	 *            class
-	 * @param methodName
-	 *            method name
-	 * @return int key
 	 */
-	private int getMethodCacheKey(Class<?> clazz, String methodName) {
-		final int prime = 31;
-		int result = 0;
-		result = (prime * result) + ((clazz == null) ? 0 : clazz.hashCode());
-		result = (prime * result) + ((methodName == null) ? 0 : methodName.hashCode());
-		return result;
+	private static final class AccessorKey {
+
+		/**
+		 * Class.
+		 */
+		private final Class<?> clazz;
+
+		/**
+		 * Getter method names.
+		 */
+		private final List<String> methodNames;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param clazz
+		 *            Class.
+		 * @param methodNames
+		 *            Getter method names.
+		 */
+		AccessorKey(Class<?> clazz, List<String> methodNames) {
+			this.clazz = clazz;
+			this.methodNames = methodNames;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + ((this.clazz == null) ? 0 : this.clazz.hashCode());
+			result = (prime * result) + ((this.methodNames == null) ? 0 : this.methodNames.hashCode());
+			return result;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null) {
+				return false;
+			}
+			if (getClass() != obj.getClass()) {
+				return false;
+			}
+			AccessorKey other = (AccessorKey) obj;
+			if (this.clazz != other.clazz) {
+				return false;
+			}
+			if (this.methodNames == null) {
+				if (other.methodNames != null) {
+					return false;
+				}
+			} else if (!this.methodNames.equals(other.methodNames)) {
+				return false;
+			}
+			return true;
+		}
+
 	}
 
 }
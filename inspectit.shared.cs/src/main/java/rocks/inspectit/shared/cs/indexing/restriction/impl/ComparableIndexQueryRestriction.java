@@ -30,6 +30,58 @@ public abstract class ComparableIndexQueryRestriction extends AbstractIndexQuery
 		this.restrictionValue = restrictionValue;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Compares the restriction value with the supplied object, by terms of
+	 * {@link Comparable#compareTo(Object)} method. If restriction value is null, method will
+	 * return false.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean isFulfilled(Object fieldValue) {
+		if (null == restrictionValue) {
+			return false;
+		}
+		return isComparisonFulfilled(restrictionValue.compareTo(fieldValue));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Compares without boxing if the restriction value is a {@link Long}.
+	 */
+	@Override
+	public boolean isLongFulfilled(long fieldValue) {
+		if (restrictionValue instanceof Long) {
+			return isComparisonFulfilled(Long.compare(((Long) restrictionValue).longValue(), fieldValue));
+		}
+		return super.isLongFulfilled(fieldValue);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Compares without boxing if the restriction value is a {@link Double}.
+	 */
+	@Override
+	public boolean isDoubleFulfilled(double fieldValue) {
+		if (restrictionValue instanceof Double) {
+			return isComparisonFulfilled(Double.compare(((Double) restrictionValue).doubleValue(), fieldValue));
+		}
+		return super.isDoubleFulfilled(fieldValue);
+	}
+
+	/**
+	 * Checks if the restriction is fulfilled based on the result of comparing the restriction
+	 * value to the field value.
+	 *
+	 * @param comparison
+	 *            Result of the restriction value compared to the field value.
+	 * @return True if restriction is fulfilled, false otherwise.
+	 */
+	protected abstract boolean isComparisonFulfilled(int comparison);
+
 	/**
 	 *
 	 * @return Restriction value.
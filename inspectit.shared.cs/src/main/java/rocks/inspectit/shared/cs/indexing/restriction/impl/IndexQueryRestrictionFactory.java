@@ -214,6 +214,31 @@ public final class IndexQueryRestrictionFactory {
 			return getRestrictionValue().equals(object);
 		}
 
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isLongFulfilled(long fieldValue) {
+			Object restrictionValue = getRestrictionValue();
+			if (restrictionValue instanceof Long) {
+				return ((Long) restrictionValue).longValue() == fieldValue;
+			}
+			return super.isLongFulfilled(fieldValue);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isDoubleFulfilled(double fieldValue) {
+			Object restrictionValue = getRestrictionValue();
+			if (restrictionValue instanceof Double) {
+				// same as Double#equals(Object)
+				return Double.doubleToLongBits(((Double) restrictionValue).doubleValue()) == Double.doubleToLongBits(fieldValue);
+			}
+			return super.isDoubleFulfilled(fieldValue);
+		}
+
 	}
 
 	/**
@@ -256,6 +281,31 @@ public final class IndexQueryRestrictionFactory {
 			return !getRestrictionValue().equals(object);
 		}
 
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isLongFulfilled(long fieldValue) {
+			Object restrictionValue = getRestrictionValue();
+			if (restrictionValue instanceof Long) {
+				return ((Long) restrictionValue).longValue() != fieldValue;
+			}
+			return super.isLongFulfilled(fieldValue);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isDoubleFulfilled(double fieldValue) {
+			Object restrictionValue = getRestrictionValue();
+			if (restrictionValue instanceof Double) {
+				// same as Double#equals(Object)
+				return Double.doubleToLongBits(((Double) restrictionValue).doubleValue()) != Double.doubleToLongBits(fieldValue);
+			}
+			return super.isDoubleFulfilled(fieldValue);
+		}
+
 	}
 
 	/**
@@ -283,21 +333,11 @@ public final class IndexQueryRestrictionFactory {
 		/**
 		 * {@inheritDoc}
 		 * <p>
-		 * Checks if the supplied object is greater than the restriction value, by terms of
-		 * {@link Comparable#compareTo(Object)} method. If restriction value is null, method will
-		 * return false.
-		 *
-		 * @param object
-		 * @returns
-		 * @see Comparable#compareTo(Object)
+		 * Checks if the supplied object is greater than the restriction value.
 		 */
 		@Override
-		@SuppressWarnings("unchecked")
-		public boolean isFulfilled(Object object) {
-			if (null == getRestrictionValue()) {
-				return false;
-			}
-			return 0 > getRestrictionValue().compareTo(object);
+		protected boolean isComparisonFulfilled(int comparison) {
+			return 0 > comparison;
 		}
 
 	}
@@ -327,21 +367,11 @@ public final class IndexQueryRestrictionFactory {
 		/**
 		 * {@inheritDoc}
 		 * <p>
-		 * Checks if the supplied object is greater or equal than the restriction value, by terms of
-		 * {@link Comparable#compareTo(Object)} method. If restriction value is null, method will
-		 * return false.
-		 *
-		 * @param object
-		 * @returns
-		 * @see Comparable#compareTo(Object)
+		 * Checks if the supplied object is greater or equal than the restriction value.
 		 */
 		@Override
-		@SuppressWarnings("unchecked")
-		public boolean isFulfilled(Object object) {
-			if (null == getRestrictionValue()) {
-				return false;
-			}
-			return 0 >= getRestrictionValue().compareTo(object);
+		protected boolean isComparisonFulfilled(int comparison) {
+			return 0 >= comparison;
 		}
 
 	}
@@ -371,21 +401,11 @@ public final class IndexQueryRestrictionFactory {
 		/**
 		 * {@inheritDoc}
 		 * <p>
-		 * Checks if the supplied object is less than the restriction value, by terms of
-		 * {@link Comparable#compareTo(Object)} method. If restriction value is null, method will
-		 * return false.
-		 *
-		 * @param object
-		 * @returns
-		 * @see Comparable#compareTo(Object)
+		 * Checks if the supplied object is less than the restriction value.
 		 */
 		@Override
-		@SuppressWarnings("unchecked")
-		public boolean isFulfilled(Object object) {
-			if (null == getRestrictionValue()) {
-				return false;
-			}
-			return 0 < getRestrictionValue().compareTo(object);
+		protected boolean isComparisonFulfilled(int comparison) {
+			return 0 < comparison;
 		}
 
 	}
@@ -415,21 +435,11 @@ public final class IndexQueryRestrictionFactory {
 		/**
 		 * {@inheritDoc}
 		 * <p>
-		 * Checks if the supplied object is less or equal than the restriction value, by terms of
-		 * {@link Comparable#compareTo(Object)} method. If restriction value is null, method will
-		 * return false.
-		 *
-		 * @param object
-		 * @returns
-		 * @see Comparable#compareTo(Object)
+		 * Checks if the supplied object is less or equal than the restriction value.
 		 */
 		@Override
-		@SuppressWarnings("unchecked")
-		public boolean isFulfilled(Object object) {
-			if (null == getRestrictionValue()) {
-				return false;
-			}
-			return 0 <= getRestrictionValue().compareTo(object);
+		protected boolean isComparisonFulfilled(int comparison) {
+			return 0 <= comparison;
 		}
 
 	}
@@ -466,6 +476,22 @@ public final class IndexQueryRestrictionFactory {
 			return object == null;
 		}
 
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isLongFulfilled(long fieldValue) {
+			return false;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isDoubleFulfilled(double fieldValue) {
+			return false;
+		}
+
 	}
 
 	/**
@@ -500,6 +526,22 @@ public final class IndexQueryRestrictionFactory {
 			return object != null;
 		}
 
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isLongFulfilled(long fieldValue) {
+			return true;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isDoubleFulfilled(double fieldValue) {
+			return true;
+		}
+
 	}
 
 	/**
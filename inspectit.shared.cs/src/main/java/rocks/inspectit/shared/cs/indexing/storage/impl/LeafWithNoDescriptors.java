@@ -45,7 +45,7 @@ public class LeafWithNoDescriptors<E extends DefaultData> implements IStorageTre
 	 * (like > 100MB) loading of this data on the UI has to be in one request, making this request a
 	 * high impact on the memory that can make OOME in the UI.
 	 */
-	private static final long MAX_RANGE_SIZE = 8388608;
+	public static final long MAX_RANGE_SIZE = 8388608;
 
 	/**
 	 * Leaf id.
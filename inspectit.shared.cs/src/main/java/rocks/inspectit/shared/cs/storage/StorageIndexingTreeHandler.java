@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -29,6 +30,8 @@ import rocks.inspectit.shared.all.spring.logger.Log;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
 import rocks.inspectit.shared.cs.indexing.storage.IStorageTreeComponent;
+import rocks.inspectit.shared.cs.indexing.storage.impl.LeafWithNoDescriptors;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageDescriptor;
 import rocks.inspectit.shared.cs.storage.StorageWriter.WriteTask;
 import rocks.inspectit.shared.cs.storage.util.StorageIndexTreeProvider;
 
@@ -203,6 +206,46 @@ public class StorageIndexingTreeHandler {
 		writeTasksInProcess.remove(writeTask);
 	}
 
+	/**
+	 * Signals to the {@link StorageIndexingTreeHandler} that the write of several tasks has been
+	 * successful, with the position and size for each task on the same index.
+	 * <p>
+	 * Consecutive tasks that share the same {@link IStorageDescriptor} and were written next to
+	 * each other are joined to one range first, so that the descriptor is updated only once for
+	 * the complete range.
+	 *
+	 * @param writeTasks
+	 *            Write tasks that succeeded.
+	 * @param positions
+	 *            Write position of each task.
+	 * @param sizes
+	 *            Write size of each task.
+	 */
+	public void writeSuccessful(List<WriteTask> writeTasks, long[] positions, long[] sizes) {
+		IStorageDescriptor rangeDescriptor = null;
+		StorageDescriptor range = null;
+		for (int i = 0; i < writeTasks.size(); i++) {
+			WriteTask writeTask = writeTasks.get(i);
+			TreeDescriptorPair treeDescriptorPair = writeTasksInProcess.get(writeTask);
+			IStorageDescriptor storageDescriptor = (null != treeDescriptorPair) ? treeDescriptorPair.getStorageDescriptor() : null;
+			if (null != storageDescriptor) {
+				boolean joined = (storageDescriptor == rangeDescriptor) && ((range.getSize() + sizes[i]) < LeafWithNoDescriptors.MAX_RANGE_SIZE) && range.join(positions[i], sizes[i]);
+				if (!joined) {
+					if (null != rangeDescriptor) {
+						rangeDescriptor.setPositionAndSize(range.getPosition(), range.getSize());
+					}
+					rangeDescriptor = storageDescriptor;
+					range = new StorageDescriptor(storageDescriptor.getChannelId(), positions[i], sizes[i]);
+				}
+			}
+			// remove the entry in map after the data has been updated in indexing tree
+			writeTasksInProcess.remove(writeTask);
+		}
+		if (null != rangeDescriptor) {
+			rangeDescriptor.setPositionAndSize(range.getPosition(), range.getSize());
+		}
+	}
+
 	/**
 	 * Signals to the {@link StorageIndexingTreeHandler} that the write has failed.
 	 * <p>
@@ -10,6 +10,7 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +21,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -31,6 +33,7 @@ import javax.annotation.Resource;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.esotericsoftware.kryo.io.Output;
 
@@ -69,6 +72,11 @@ public class StorageWriter implements IWriter {
 	 */
 	private static final int FINALIZATION_TASKS_SLEEP_TIME = 500;
 
+	/**
+	 * Default maximum amount of objects written by one {@link WriteBatchTask}.
+	 */
+	private static final int DEFAULT_WRITE_BATCH_SIZE = 1000;
+
 	/**
 	 * Total amount of tasks submitted to {@link #writingExecutorService}.
 	 */
@@ -175,6 +183,33 @@ public class StorageWriter implements IWriter {
 	 */
 	private Set<FutureTask<?>> activeWritingTasks = Collections.newSetFromMap(new ConcurrentHashMap<FutureTask<?>, Boolean>(256, 0.75f, 4));
 
+	/**
+	 * Maximum amount of objects written by one {@link WriteBatchTask}.
+	 */
+	@Value(value = "${storage.writeBatchSize}")
+	int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
+
+	/**
+	 * Lock for the {@link #pendingBatch}, {@link #pendingBatchFuture} and {@link #queuedBatches}.
+	 */
+	private final Object batchLock = new Object();
+
+	/**
+	 * Batch collecting the objects to write until it's submitted to the
+	 * {@link #writingExecutorService}.
+	 */
+	private WriteBatchTask pendingBatch;
+
+	/**
+	 * Future of the {@link #pendingBatch}.
+	 */
+	private WriteFutureTask pendingBatchFuture;
+
+	/**
+	 * Amount of batches submitted to the {@link #writingExecutorService} that did not start yet.
+	 */
+	private int queuedBatches;
+
 	/**
 	 * Process the list of objects against the all the {@link AbstractDataProcessor}s that are
 	 * provided. Processor define which data will be stored, when and in which format.
@@ -267,7 +302,10 @@ public class StorageWriter implements IWriter {
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * This method is only submitting a new writing task, thus it is thread safe and very fast.
+	 * This method is only adding the data to the batch of data to write, thus it is thread safe and
+	 * very fast. The batch is submitted for writing as soon as no other batch is waiting for the
+	 * execution or the batch reached the {@link #writeBatchSize}. The returned future is the future
+	 * of the complete batch.
 	 */
 	@Override
 	public Future<Void> write(DefaultData defaultData, Map<?, ?> kryoPreferences) {
@@ -281,15 +319,48 @@ public class StorageWriter implements IWriter {
 			}
 
 			WriteTask writeTask = new WriteTask(defaultData, kryoPreferences);
-			WriteFutureTask writeFutureTask = new WriteFutureTask(writeTask);
-			activeWritingTasks.add(writeFutureTask);
-			writingExecutorService.submit(writeFutureTask);
-			return writeFutureTask;
+			synchronized (batchLock) {
+				if (!writingOn) {
+					return null;
+				}
+				if (null == pendingBatch) {
+					pendingBatch = new WriteBatchTask();
+					pendingBatchFuture = new WriteFutureTask(pendingBatch);
+					activeWritingTasks.add(pendingBatchFuture);
+				}
+				pendingBatch.add(writeTask);
+				Future<Void> future = pendingBatchFuture;
+				if ((0 == queuedBatches) || (pendingBatch.size() >= writeBatchSize)) {
+					submitPendingBatch();
+				}
+				return future;
+			}
 		} else {
 			return null;
 		}
 	}
 
+	/**
+	 * Submits the {@link #pendingBatch} to the {@link #writingExecutorService} if one exists. Caller
+	 * must hold the {@link #batchLock}.
+	 */
+	private void submitPendingBatch() {
+		if (null == pendingBatch) {
+			return;
+		}
+
+		WriteFutureTask batchFuture = pendingBatchFuture;
+		pendingBatch = null;
+		pendingBatchFuture = null;
+		try {
+			writingExecutorService.submit(batchFuture);
+			queuedBatches++;
+		} catch (RejectedExecutionException e) {
+			activeWritingTasks.remove(batchFuture);
+			log.error("Batch of data to write was rejected by the executor service. Data will be skipped.", e);
+		}
+	}
+
 	/**
 	 * Informs the {@link StorageWriter} to prepare for writing. The writer will perform all
 	 * necessary operations so that calls to {@link #write(DefaultData)} can be executed. The
@@ -397,8 +468,11 @@ public class StorageWriter implements IWriter {
 	 */
 	private synchronized void shutdown(boolean doFinalize) {
 		if (writingOn) {
-			// mark writing false so that no more task are created
-			writingOn = false;
+			// mark writing false so that no more task are created and submit the last batch
+			synchronized (batchLock) {
+				writingOn = false;
+				submitPendingBatch();
+			}
 
 			// cancel the check writing status task
 			checkWritingStatusFuture.cancel(false);
@@ -561,7 +635,8 @@ public class StorageWriter implements IWriter {
 	}
 
 	/**
-	 * Task for writing one {@link DefaultData} object to the disk.
+	 * Task for writing one {@link DefaultData} object to the disk. The {@link WriteBatchTask} uses
+	 * the write task as the entry for each object in the batch.
 	 *
 	 * @author Ivan Senic
 	 *
@@ -706,6 +781,265 @@ public class StorageWriter implements IWriter {
 
 	}
 
+	/**
+	 * Task for writing a batch of {@link DefaultData} objects to the disk. The objects are grouped
+	 * by the channel they are indexed to, sorted by time and every group is serialized into one
+	 * contiguous block that is written with a single write to the channel. The storage descriptors
+	 * of the objects are updated with the position in the block once the block has been written.
+	 *
+	 * @author agent
+	 *
+	 */
+	class WriteBatchTask implements Runnable {
+
+		/**
+		 * Write tasks holding the data to write.
+		 */
+		private final List<WriteTask> writeTasks = new ArrayList<>();
+
+		/**
+		 * Adds the write task to the batch.
+		 *
+		 * @param writeTask
+		 *            {@link WriteTask}
+		 */
+		void add(WriteTask writeTask) {
+			writeTasks.add(writeTask);
+		}
+
+		/**
+		 * Returns amount of objects in the batch.
+		 *
+		 * @return Returns amount of objects in the batch.
+		 */
+		int size() {
+			return writeTasks.size();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			// this batch is not waiting any more, so the next one can be submitted
+			synchronized (batchLock) {
+				queuedBatches--;
+				if (0 == queuedBatches) {
+					submitPendingBatch();
+				}
+			}
+
+			if (!storageManager.canWriteMore()) {
+				if (log.isWarnEnabled()) {
+					log.warn("Writing of data canceled because of limited hard disk space left for the storage.");
+				}
+				return;
+			}
+
+			// group by the channel, the entries keep the data strongly referenced while writing
+			Map<Integer, List<BlockEntry>> channelEntries = new HashMap<>();
+			for (WriteTask writeTask : writeTasks) {
+				DefaultData data = writeTask.getData();
+				if (null == data) {
+					log.warn("Failed to write data to storage. The data to be written was already garbage collected due to the high amount of writing tasks.");
+					continue;
+				}
+
+				int channelId = 0;
+				try {
+					channelId = indexingTreeHandler.startWrite(writeTask);
+				} catch (IndexingException e) {
+					indexingTreeHandler.writeFailed(writeTask);
+					if (log.isDebugEnabled()) {
+						log.debug("Indexing exception occurred while attempting to write data to disk.", e);
+					}
+					continue;
+				}
+
+				if (0 == channelId) {
+					indexingTreeHandler.writeFailed(writeTask);
+					log.error("Channel ID could not be obtained during attempt to write data to disk. Data will be skipped.");
+					continue;
+				}
+
+				List<BlockEntry> entries = channelEntries.get(channelId);
+				if (null == entries) {
+					entries = new ArrayList<>();
+					channelEntries.put(channelId, entries);
+				}
+				entries.add(new BlockEntry(writeTask, data));
+			}
+
+			for (Map.Entry<Integer, List<BlockEntry>> entry : channelEntries.entrySet()) {
+				List<BlockEntry> entries = entry.getValue();
+				Collections.sort(entries);
+				writeBlock(entry.getKey().intValue(), entries);
+			}
+		}
+
+		/**
+		 * Serializes all entries into one block and writes the block to the channel.
+		 *
+		 * @param channelId
+		 *            Channel to write to.
+		 * @param entries
+		 *            Entries sorted in the order they should be written.
+		 */
+		private void writeBlock(int channelId, List<BlockEntry> entries) {
+			ISerializer serializer = null;
+			try {
+				serializer = serializerQueue.take();
+			} catch (InterruptedException e1) {
+				Thread.interrupted();
+			}
+			if (null == serializer) {
+				for (BlockEntry entry : entries) {
+					indexingTreeHandler.writeFailed(entry.writeTask);
+				}
+				log.error("Serializer instance could not be obtained.");
+				return;
+			}
+
+			final List<BlockEntry> serializedEntries = new ArrayList<>(entries.size());
+			ExtendedByteBufferOutputStream extendedByteBufferOutputStream = null;
+			try {
+				extendedByteBufferOutputStream = streamProvider.getExtendedByteBufferOutputStream();
+				Output output = new Output(extendedByteBufferOutputStream);
+				try {
+					for (BlockEntry entry : entries) {
+						long offset = extendedByteBufferOutputStream.getTotalWriteSize();
+						try {
+							serializer.serialize(entry.data, output, entry.writeTask.kryoPreferences);
+						} catch (SerializationException e) {
+							// discard the not flushed bytes, the already flushed ones are simply
+							// not referenced by any descriptor
+							output.clear();
+							indexingTreeHandler.writeFailed(entry.writeTask);
+							if (log.isWarnEnabled()) {
+								log.warn("Serialization for the object " + entry.data + " failed. Data will be skipped.", e);
+							}
+							continue;
+						}
+						entry.offset = offset;
+						entry.size = extendedByteBufferOutputStream.getTotalWriteSize() - offset;
+						serializedEntries.add(entry);
+					}
+				} finally {
+					serializerQueue.add(serializer);
+				}
+
+				if (serializedEntries.isEmpty()) {
+					extendedByteBufferOutputStream.close();
+					return;
+				}
+				extendedByteBufferOutputStream.flush(false);
+
+				// final reference needed because of the runnable
+				int buffersToWrite = extendedByteBufferOutputStream.getBuffersCount();
+				final ExtendedByteBufferOutputStream finalOutputStream = extendedByteBufferOutputStream;
+				WriteReadCompletionRunnable completionRunnable = new WriteReadCompletionRunnable(buffersToWrite) {
+					@Override
+					public void run() {
+						finalOutputStream.close();
+						List<WriteTask> tasks = new ArrayList<>(serializedEntries.size());
+						long[] positions = new long[serializedEntries.size()];
+						long[] sizes = new long[serializedEntries.size()];
+						for (int i = 0; i < serializedEntries.size(); i++) {
+							BlockEntry entry = serializedEntries.get(i);
+							tasks.add(entry.writeTask);
+							positions[i] = getAttemptedWriteReadPosition() + entry.offset;
+							sizes[i] = entry.size;
+						}
+						if (isCompleted()) {
+							indexingTreeHandler.writeSuccessful(tasks, positions, sizes);
+						} else {
+							for (WriteTask writeTask : tasks) {
+								indexingTreeHandler.writeFailed(writeTask);
+							}
+						}
+					}
+				};
+
+				// write to disk
+				Path channelPath = storageManager.getChannelPath(storageData, channelId);
+				openedChannelPaths.add(channelPath);
+				try {
+					// position and size will be set in the completion runnable
+					writingChannelManager.write(extendedByteBufferOutputStream, channelPath, completionRunnable);
+				} catch (IOException e) {
+					// remove from indexing tree if exception occurs
+					extendedByteBufferOutputStream.close();
+					for (BlockEntry entry : serializedEntries) {
+						indexingTreeHandler.writeFailed(entry.writeTask);
+					}
+					log.error("Exception occurred while attempting to write data to disk", e);
+				}
+			} catch (Throwable t) { // NOPMD
+				// catch any exception
+				if (null != extendedByteBufferOutputStream) {
+					extendedByteBufferOutputStream.close();
+				}
+				for (BlockEntry entry : entries) {
+					indexingTreeHandler.writeFailed(entry.writeTask);
+				}
+				log.error("Unknown exception occurred during data write", t);
+			}
+		}
+	}
+
+	/**
+	 * One object in the block written by the {@link WriteBatchTask}. Entries are sorted by the time
+	 * stamp of the data.
+	 *
+	 * @author agent
+	 *
+	 */
+	private static final class BlockEntry implements Comparable<BlockEntry> {
+
+		/**
+		 * Write task of the data.
+		 */
+		private final WriteTask writeTask;
+
+		/**
+		 * Data to write.
+		 */
+		private final DefaultData data;
+
+		/**
+		 * Offset of the serialized data in the block.
+		 */
+		private long offset;
+
+		/**
+		 * Size of the serialized data.
+		 */
+		private long size;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param writeTask
+		 *            Write task of the data.
+		 * @param data
+		 *            Data to write.
+		 */
+		BlockEntry(WriteTask writeTask, DefaultData data) {
+			this.writeTask = writeTask;
+			this.data = data;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int compareTo(BlockEntry other) {
+			long time = (null != data.getTimeStamp()) ? data.getTimeStamp().getTime() : 0L;
+			long otherTime = (null != other.data.getTimeStamp()) ? other.data.getTimeStamp().getTime() : 0L;
+			return (time < otherTime) ? -1 : ((time == otherTime) ? 0 : 1);
+		}
+	}
+
 	/**
 	 * Writing future task that will remove itself from the {@link StorageWriter#activeWritingTasks}
 	 * set after the completion of runnable it has been assigned.
@@ -0,0 +1,157 @@
+package rocks.inspectit.shared.cs.storage.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
+
+/**
+ * Range of one storage file that is read with a single read operation. The range covers the data
+ * of one or more {@link IStorageDescriptor}s. Descriptors of the range do not have to be adjacent,
+ * the bytes between them are read as well, but the data in these gaps is never de-serialized.
+ *
+ * @author agent
+ *
+ */
+public class ReadRange extends RangeDescriptor {
+
+	/**
+	 * Channel (file) the range is located in.
+	 */
+	private final int channelId;
+
+	/**
+	 * Descriptors that are located in the range, sorted by position.
+	 */
+	private final List<IStorageDescriptor> descriptors = new ArrayList<>();
+
+	/**
+	 * Creates the range that initially covers the given descriptor.
+	 *
+	 * @param storageDescriptor
+	 *            First descriptor of the range.
+	 */
+	public ReadRange(IStorageDescriptor storageDescriptor) {
+		super(storageDescriptor);
+		this.channelId = storageDescriptor.getChannelId();
+		this.descriptors.add(storageDescriptor);
+	}
+
+	/**
+	 * Adds the descriptor to the range if the descriptor is in the same channel, starts not later
+	 * than maximum gap bytes after the range end and the range would not exceed the maximum size.
+	 * The descriptors must be added in the order of their positions.
+	 *
+	 * @param storageDescriptor
+	 *            Descriptor to add.
+	 * @param maxGap
+	 *            Maximum amount of bytes allowed between the current range end and the
+	 *            descriptor.
+	 * @param maxSize
+	 *            Maximum size of the range in bytes.
+	 * @return <code>true</code> if descriptor was added, <code>false</code> otherwise.
+	 */
+	public boolean add(IStorageDescriptor storageDescriptor, long maxGap, long maxSize) {
+		if (storageDescriptor.getChannelId() != channelId) {
+			return false;
+		}
+
+		long gap = storageDescriptor.getPosition() - getEnd() - 1;
+		if (gap > maxGap) {
+			return false;
+		}
+
+		long end = Math.max(getEnd(), (storageDescriptor.getPosition() + storageDescriptor.getSize()) - 1);
+		if (((end - getStart()) + 1) > maxSize) {
+			return false;
+		}
+
+		setEnd(end);
+		descriptors.add(storageDescriptor);
+		return true;
+	}
+
+	/**
+	 * Returns the size of the range in bytes.
+	 *
+	 * @return Returns the size of the range in bytes.
+	 */
+	public long getSize() {
+		return (getEnd() - getStart()) + 1;
+	}
+
+	/**
+	 * Gets {@link #channelId}.
+	 *
+	 * @return {@link #channelId}
+	 */
+	public int getChannelId() {
+		return channelId;
+	}
+
+	/**
+	 * Gets {@link #descriptors}.
+	 *
+	 * @return {@link #descriptors}
+	 */
+	public List<IStorageDescriptor> getDescriptors() {
+		return descriptors;
+	}
+
+	/**
+	 * Creates the read ranges for the given descriptors. Descriptors are grouped by the channel
+	 * they belong to and sorted by position. Then every descriptor is merged to the current range
+	 * of the channel as long as it is not more than maximum gap bytes away and the range does not
+	 * exceed the maximum size. Descriptors that are larger than the maximum size always get their
+	 * own range.
+	 *
+	 * @param descriptors
+	 *            Descriptors to create ranges for. The list is not altered.
+	 * @param maxGap
+	 *            Maximum amount of bytes between two descriptors that can be read in same range.
+	 *            Use <code>0</code> to only merge adjacent descriptors.
+	 * @param maxSize
+	 *            Maximum size of one range in bytes.
+	 * @return Map of channel IDs with the read ranges of the channel sorted by position.
+	 */
+	public static Map<Integer, List<ReadRange>> createReadRanges(List<IStorageDescriptor> descriptors, long maxGap, long maxSize) {
+		Map<Integer, List<IStorageDescriptor>> filesMap = new HashMap<>();
+		for (IStorageDescriptor storageDescriptor : descriptors) {
+			Integer channelId = Integer.valueOf(storageDescriptor.getChannelId());
+			List<IStorageDescriptor> oneFileList = filesMap.get(channelId);
+			if (null == oneFileList) {
+				oneFileList = new ArrayList<>();
+				filesMap.put(channelId, oneFileList);
+			}
+			oneFileList.add(storageDescriptor);
+		}
+
+		Map<Integer, List<ReadRange>> rangesMap = new HashMap<>(filesMap.size());
+		for (Map.Entry<Integer, List<IStorageDescriptor>> entry : filesMap.entrySet()) {
+			List<IStorageDescriptor> list = entry.getValue();
+			Collections.sort(list, new Comparator<IStorageDescriptor>() {
+
+				@Override
+				public int compare(IStorageDescriptor o1, IStorageDescriptor o2) {
+					return Long.compare(o1.getPosition(), o2.getPosition());
+				}
+			});
+
+			List<ReadRange> ranges = new ArrayList<>();
+			ReadRange readRange = null;
+			for (IStorageDescriptor storageDescriptor : list) {
+				if ((null == readRange) || !readRange.add(storageDescriptor, maxGap, maxSize)) {
+					readRange = new ReadRange(storageDescriptor);
+					ranges.add(readRange);
+				}
+			}
+			rangesMap.put(entry.getKey(), ranges);
+		}
+		return rangesMap;
+	}
+
+}
@@ -14,6 +14,8 @@ import static org.mockito.Mockito.when;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
@@ -26,6 +28,8 @@ import rocks.inspectit.shared.all.communication.DefaultData;
 import rocks.inspectit.shared.all.communication.MethodSensorData;
 import rocks.inspectit.shared.all.communication.data.SqlStatementData;
 import rocks.inspectit.shared.all.communication.data.TimerData;
+import rocks.inspectit.shared.cs.communication.comparator.DefaultDataComparatorEnum;
+import rocks.inspectit.shared.cs.communication.comparator.ResultComparator;
 import rocks.inspectit.shared.cs.indexing.buffer.IBufferTreeComponent;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.Branch;
 import rocks.inspectit.shared.cs.indexing.buffer.impl.BufferBranchIndexer;
@@ -443,4 +447,137 @@ public class BufferIndexingTest {
 		assertThat(rootBranch.get(defaultData), is(nullValue()));
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * Tests that the limited query returns first elements in the time stamp order.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryFirstByTimestamp() throws IndexingException {
+		IBufferTreeComponent<DefaultData> rootBranch = createTreeWithTimerData(50);
+
+		List<DefaultData> expected = getFirst(rootBranch.query(indexQuery), DefaultDataComparatorEnum.TIMESTAMP, 10);
+		assertThat(rootBranch.query(indexQuery, DefaultDataComparatorEnum.TIMESTAMP, 10), is(equalTo(expected)));
+		assertThat(rootBranch.query(indexQuery, DefaultDataComparatorEnum.TIMESTAMP, 10, forkJoinPool), is(equalTo(expected)));
+	}
+
+	/**
+	 * Tests that the limited query returns first elements in the descending time stamp order.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryFirstByTimestampDescending() throws IndexingException {
+		IBufferTreeComponent<DefaultData> rootBranch = createTreeWithTimerData(50);
+		ResultComparator<DefaultData> comparator = new ResultComparator<DefaultData>(DefaultDataComparatorEnum.TIMESTAMP, false);
+
+		List<DefaultData> expected = getFirst(rootBranch.query(indexQuery), comparator, 10);
+		assertThat(rootBranch.query(indexQuery, comparator, 10), is(equalTo(expected)));
+		assertThat(rootBranch.query(indexQuery, comparator, 10, forkJoinPool), is(equalTo(expected)));
+	}
+
+	/**
+	 * Tests that the limited query respects the query when searching in the time stamp order.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryFirstByTimestampWithPlatformIdent() throws IndexingException {
+		IBufferTreeComponent<DefaultData> rootBranch = createTreeWithTimerData(50);
+		indexQuery.setPlatformIdent(2L);
+
+		List<DefaultData> expected = getFirst(rootBranch.query(indexQuery), DefaultDataComparatorEnum.TIMESTAMP, 5);
+		List<DefaultData> results = rootBranch.query(indexQuery, DefaultDataComparatorEnum.TIMESTAMP, 5);
+		assertThat(results, is(equalTo(expected)));
+		for (DefaultData result : results) {
+			assertThat(result.getPlatformIdent(), is(equalTo(2L)));
+		}
+		assertThat(rootBranch.query(indexQuery, DefaultDataComparatorEnum.TIMESTAMP, 5, forkJoinPool), is(equalTo(expected)));
+	}
+
+	/**
+	 * Tests that the limited query works with comparators that are not based on the time stamp.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryFirstById() throws IndexingException {
+		IBufferTreeComponent<DefaultData> rootBranch = createTreeWithTimerData(50);
+		ResultComparator<DefaultData> comparator = new ResultComparator<DefaultData>(DefaultDataComparatorEnum.ID, false);
+
+		List<DefaultData> expected = getFirst(rootBranch.query(indexQuery), comparator, 10);
+		assertThat(rootBranch.query(indexQuery, comparator, 10), is(equalTo(expected)));
+		assertThat(rootBranch.query(indexQuery, comparator, 10, forkJoinPool), is(equalTo(expected)));
+	}
+
+	/**
+	 * Tests that the limited query returns all elements if limit is bigger than number of
+	 * elements and that removed elements are not returned.
+	 *
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	@Test
+	public void queryFirstAfterRemoval() throws IndexingException {
+		IBufferTreeComponent<DefaultData> rootBranch = createTreeWithTimerData(10);
+		List<DefaultData> all = getFirst(rootBranch.query(indexQuery), DefaultDataComparatorEnum.TIMESTAMP, 10);
+		rootBranch.getAndRemove(all.get(0));
+
+		List<DefaultData> results = rootBranch.query(indexQuery, DefaultDataComparatorEnum.TIMESTAMP, 100);
+		assertThat(results, is(equalTo(all.subList(1, 10))));
+		assertThat(rootBranch.query(indexQuery, DefaultDataComparatorEnum.TIMESTAMP, 0).isEmpty(), is(true));
+	}
+
+	/**
+	 * Creates the tree indexed by platform and sensor type with the timer data with distinct time
+	 * stamps.
+	 *
+	 * @param elements
+	 *            Amount of elements to put.
+	 * @return Tree.
+	 * @throws IndexingException
+	 *             If {@link IndexingException} occurs.
+	 */
+	private IBufferTreeComponent<DefaultData> createTreeWithTimerData(int elements) throws IndexingException {
+		BufferBranchIndexer<DefaultData> sensorTypeIndexer = new BufferBranchIndexer<>(new SensorTypeIdentIndexer<>());
+		BufferBranchIndexer<DefaultData> platformTypeIndexer = new BufferBranchIndexer<>(new PlatformIdentIndexer<>(), sensorTypeIndexer);
+		IBufferTreeComponent<DefaultData> rootBranch = new Branch<>(platformTypeIndexer);
+
+		// distinct time stamps in random order
+		List<Long> offsets = new ArrayList<>();
+		for (long i = 0; i < elements; i++) {
+			offsets.add(i * 1000);
+		}
+		Collections.shuffle(offsets);
+
+		long now = System.currentTimeMillis();
+		for (int i = 1; i <= elements; i++) {
+			TimerData timerData = new TimerData(new Timestamp(now - offsets.get(i - 1)), 1L + (i % 2), 1L + (i % 3), 1L);
+			timerData.setId(i);
+			rootBranch.put(timerData);
+		}
+		return rootBranch;
+	}
+
+	/**
+	 * Sorts the list and returns the first elements.
+	 *
+	 * @param list
+	 *            List.
+	 * @param comparator
+	 *            Comparator to sort with.
+	 * @param limit
+	 *            Max amount of elements.
+	 * @return First elements.
+	 */
+	private List<DefaultData> getFirst(List<DefaultData> list, Comparator<? super DefaultData> comparator, int limit) {
+		List<DefaultData> sorted = new ArrayList<>(list);
+		Collections.sort(sorted, comparator);
+		return new ArrayList<>(sorted.subList(0, Math.min(limit, sorted.size())));
+	}
+}
@@ -640,6 +640,79 @@ public class IndexQueryRestrictionProcessorTest extends TestBase {
 
 			assertThat(result, is(false));
 		}
+
+		/**
+		 * Tests that the primitive long field is not equal to the integer restriction value.
+		 */
+		@Test
+		public void equalsDifferentBoxType() {
+			TimerData timerData = new TimerData();
+			timerData.setId(1L);
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(IndexQueryRestrictionFactory.equal("id", 1));
+
+			boolean result = processor.areAllRestrictionsFulfilled(timerData, restrictions);
+
+			assertThat(result, is(false));
+		}
+
+		/**
+		 * Tests restriction on the primitive double field.
+		 */
+		@Test
+		public void doubleFieldGreaterThan() {
+			TimerData timerData = new TimerData();
+			timerData.setDuration(10.5d);
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(IndexQueryRestrictionFactory.greaterThan("duration", 10d));
+
+			boolean result = processor.areAllRestrictionsFulfilled(timerData, restrictions);
+
+			assertThat(result, is(true));
+		}
+
+		/**
+		 * Tests equal restriction on the primitive double field.
+		 */
+		@Test
+		public void doubleFieldEquals() {
+			TimerData timerData = new TimerData();
+			timerData.setDuration(10.5d);
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(IndexQueryRestrictionFactory.equal("duration", 10.5d));
+
+			boolean result = processor.areAllRestrictionsFulfilled(timerData, restrictions);
+
+			assertThat(result, is(true));
+		}
+
+		/**
+		 * Tests that the intermediate null value in the navigation is checked as the null field
+		 * value.
+		 */
+		@Test
+		public void navigationNullValue() {
+			HttpTimerData httpData = new HttpTimerData();
+			httpData.setHttpInfo(null);
+			List<IIndexQueryRestriction> isNull = Collections.singletonList(IndexQueryRestrictionFactory.isNull("httpInfo.id"));
+			List<IIndexQueryRestriction> equal = Collections.singletonList(IndexQueryRestrictionFactory.equal("httpInfo.id", 0L));
+
+			assertThat(processor.areAllRestrictionsFulfilled(httpData, isNull), is(true));
+			assertThat(processor.areAllRestrictionsFulfilled(httpData, equal), is(false));
+		}
+
+		/**
+		 * Tests that the same restriction can be checked against objects of different classes.
+		 */
+		@Test
+		public void differentClasses() {
+			TimerData timerData = new TimerData();
+			timerData.setId(1L);
+			HttpTimerData httpData = new HttpTimerData();
+			httpData.setId(2L);
+			List<IIndexQueryRestriction> restrictions = Collections.singletonList(IndexQueryRestrictionFactory.lessEqual("id", 1L));
+
+			assertThat(processor.areAllRestrictionsFulfilled(timerData, restrictions), is(true));
+			assertThat(processor.areAllRestrictionsFulfilled(httpData, restrictions), is(false));
+			assertThat(processor.areAllRestrictionsFulfilled(timerData, restrictions), is(true));
+		}
 	}
 
 }
@@ -12,6 +12,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -103,6 +104,38 @@ public class StorageIndexingTreeHandlerTest {
 		verify(storageDescriptor, times(1)).setPositionAndSize(position, size);
 	}
 
+	@Test
+	public void successfulBatchWriteJoinsRanges() throws IndexingException {
+		IStorageDescriptor sharedDescriptor = mock(IStorageDescriptor.class);
+		when(sharedDescriptor.getChannelId()).thenReturn(1);
+		IStorageDescriptor otherDescriptor = mock(IStorageDescriptor.class);
+		when(otherDescriptor.getChannelId()).thenReturn(1);
+		WriteTask first = startWrite(sharedDescriptor);
+		WriteTask second = startWrite(sharedDescriptor);
+		WriteTask third = startWrite(otherDescriptor);
+
+		indexingTreeHandler.writeSuccessful(Arrays.asList(first, second, third), new long[] { 100L, 110L, 130L }, new long[] { 10L, 20L, 5L });
+
+		assertThat(indexingTreeHandler.getWriteTaskInProgressCount(), is(0));
+		verify(sharedDescriptor, times(1)).setPositionAndSize(anyLong(), anyLong());
+		verify(sharedDescriptor, times(1)).setPositionAndSize(100L, 30L);
+		verify(otherDescriptor, times(1)).setPositionAndSize(130L, 5L);
+	}
+
+	@Test
+	public void successfulBatchWriteNotJoinedWhenNotAdjacent() throws IndexingException {
+		IStorageDescriptor sharedDescriptor = mock(IStorageDescriptor.class);
+		when(sharedDescriptor.getChannelId()).thenReturn(1);
+		WriteTask first = startWrite(sharedDescriptor);
+		WriteTask second = startWrite(sharedDescriptor);
+
+		indexingTreeHandler.writeSuccessful(Arrays.asList(first, second), new long[] { 100L, 120L }, new long[] { 10L, 20L });
+
+		assertThat(indexingTreeHandler.getWriteTaskInProgressCount(), is(0));
+		verify(sharedDescriptor, times(1)).setPositionAndSize(100L, 10L);
+		verify(sharedDescriptor, times(1)).setPositionAndSize(120L, 20L);
+	}
+
 	@Test
 	public void failedWrite() throws IndexingException {
 		IStorageDescriptor storageDescriptor = mock(IStorageDescriptor.class);
@@ -149,4 +182,13 @@ public class StorageIndexingTreeHandlerTest {
 		captor.getValue().run();
 		verify(storageWriter, times(1)).writeNonDefaultDataObject(eq(indexingTree), anyString());
 	}
+
+	private WriteTask startWrite(IStorageDescriptor storageDescriptor) throws IndexingException {
+		DefaultData defaultData = mock(DefaultData.class);
+		when(indexingTree.put(defaultData)).thenReturn(storageDescriptor);
+		WriteTask writeTask = mock(WriteTask.class);
+		when(writeTask.getData()).thenReturn(defaultData);
+		indexingTreeHandler.startWrite(writeTask);
+		return writeTask;
+	}
 }
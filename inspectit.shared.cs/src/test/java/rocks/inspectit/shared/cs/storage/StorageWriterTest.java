@@ -1,11 +1,14 @@
 package rocks.inspectit.shared.cs.storage;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -18,8 +21,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Timestamp;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Future;
@@ -27,6 +32,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -44,6 +50,7 @@ import rocks.inspectit.shared.all.serializer.SerializationException;
 import rocks.inspectit.shared.all.storage.nio.stream.ExtendedByteBufferOutputStream;
 import rocks.inspectit.shared.all.storage.nio.stream.StreamProvider;
 import rocks.inspectit.shared.cs.indexing.impl.IndexingException;
+import rocks.inspectit.shared.cs.storage.StorageWriter.WriteBatchTask;
 import rocks.inspectit.shared.cs.storage.StorageWriter.WriteTask;
 import rocks.inspectit.shared.cs.storage.nio.WriteReadCompletionRunnable;
 import rocks.inspectit.shared.cs.storage.nio.write.WritingChannelManager;
@@ -246,6 +253,85 @@ public class StorageWriterTest {
 		verify(serializerQueue, times(1)).add(serializer);
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void writeBatchOneBlockPerChannelSortedByTime() throws IOException, IndexingException, InterruptedException {
+		WriteTask later = storageWriter.new WriteTask(new TimerData(new Timestamp(2000L), 1L, 1L, 1L), Collections.emptyMap());
+		WriteTask earlier = storageWriter.new WriteTask(new TimerData(new Timestamp(1000L), 1L, 1L, 1L), Collections.emptyMap());
+		when(extendedByteBufferOutputStream.getTotalWriteSize()).thenReturn(0L, 10L, 10L, 30L);
+		when(extendedByteBufferOutputStream.getBuffersCount()).thenReturn(1);
+		WriteBatchTask writeBatchTask = storageWriter.new WriteBatchTask();
+		writeBatchTask.add(later);
+		writeBatchTask.add(earlier);
+
+		writeBatchTask.run();
+
+		ArgumentCaptor<WriteReadCompletionRunnable> captor = ArgumentCaptor.forClass(WriteReadCompletionRunnable.class);
+		verify(writingChannelManager, times(1)).write(eq(extendedByteBufferOutputStream), Matchers.<Path> anyObject(), captor.capture());
+		verify(serializerQueue, times(1)).take();
+		verify(serializerQueue, times(1)).add(serializer);
+
+		WriteReadCompletionRunnable completionRunnable = captor.getValue();
+		completionRunnable.setAttemptedWriteReadPosition(100L);
+		completionRunnable.markSuccess();
+		completionRunnable.run();
+
+		ArgumentCaptor<List> tasksCaptor = ArgumentCaptor.forClass(List.class);
+		ArgumentCaptor<long[]> positionsCaptor = ArgumentCaptor.forClass(long[].class);
+		ArgumentCaptor<long[]> sizesCaptor = ArgumentCaptor.forClass(long[].class);
+		verify(storageIndexingTreeHandler, times(1)).writeSuccessful(tasksCaptor.capture(), positionsCaptor.capture(), sizesCaptor.capture());
+		assertThat((List<WriteTask>) tasksCaptor.getValue(), contains(earlier, later));
+		assertThat(positionsCaptor.getValue(), is(new long[] { 100L, 110L }));
+		assertThat(sizesCaptor.getValue(), is(new long[] { 10L, 20L }));
+		verify(extendedByteBufferOutputStream, times(1)).close();
+	}
+
+	@Test
+	public void writeBatchSplitByChannel() throws IOException, IndexingException {
+		WriteTask first = storageWriter.new WriteTask(new TimerData(), Collections.emptyMap());
+		WriteTask second = storageWriter.new WriteTask(new TimerData(), Collections.emptyMap());
+		when(storageIndexingTreeHandler.startWrite(first)).thenReturn(1);
+		when(storageIndexingTreeHandler.startWrite(second)).thenReturn(2);
+		WriteBatchTask writeBatchTask = storageWriter.new WriteBatchTask();
+		writeBatchTask.add(first);
+		writeBatchTask.add(second);
+
+		writeBatchTask.run();
+
+		verify(storageManager, times(1)).getChannelPath(Matchers.<IStorageData> anyObject(), eq(1));
+		verify(storageManager, times(1)).getChannelPath(Matchers.<IStorageData> anyObject(), eq(2));
+		verify(writingChannelManager, times(2)).write(eq(extendedByteBufferOutputStream), Matchers.<Path> anyObject(), Matchers.<WriteReadCompletionRunnable> anyObject());
+	}
+
+	@Test
+	public void writeBatchFailedSerializationSkipsOnlyFailedObject() throws IOException, SerializationException {
+		TimerData failing = new TimerData();
+		failing.setId(1L);
+		WriteTask failingTask = storageWriter.new WriteTask(failing, Collections.emptyMap());
+		WriteTask writeTask = storageWriter.new WriteTask(new TimerData(), Collections.emptyMap());
+		doThrow(SerializationException.class).when(serializer).serialize(eq(failing), Matchers.<Output> anyObject(), Matchers.<Map<?, ?>> anyObject());
+		WriteBatchTask writeBatchTask = storageWriter.new WriteBatchTask();
+		writeBatchTask.add(failingTask);
+		writeBatchTask.add(writeTask);
+
+		writeBatchTask.run();
+
+		verify(storageIndexingTreeHandler, times(1)).writeFailed(failingTask);
+		verify(storageIndexingTreeHandler, times(0)).writeFailed(writeTask);
+		verify(writingChannelManager, times(1)).write(eq(extendedByteBufferOutputStream), Matchers.<Path> anyObject(), Matchers.<WriteReadCompletionRunnable> anyObject());
+	}
+
+	@Test
+	public void writeBatchWriteNotAllowedByStorageManager() {
+		when(storageManager.canWriteMore()).thenReturn(false);
+		WriteBatchTask writeBatchTask = storageWriter.new WriteBatchTask();
+		writeBatchTask.add(storageWriter.new WriteTask(new TimerData(), Collections.emptyMap()));
+
+		writeBatchTask.run();
+
+		verifyZeroInteractions(storageIndexingTreeHandler, extendedByteBufferOutputStream, streamProvider, serializer, serializerQueue, writingChannelManager);
+	}
+
 	@Test
 	public void objectWriteNoSerializerAvailable() throws InterruptedException {
 		when(serializerQueue.take()).thenReturn(null);
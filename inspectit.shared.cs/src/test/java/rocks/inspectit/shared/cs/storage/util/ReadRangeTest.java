@@ -0,0 +1,151 @@
+package rocks.inspectit.shared.cs.storage.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import rocks.inspectit.shared.cs.indexing.storage.IStorageDescriptor;
+import rocks.inspectit.shared.cs.indexing.storage.impl.StorageDescriptor;
+
+/**
+ * Tests the {@link ReadRange}.
+ *
+ * @author agent
+ *
+ */
+@SuppressWarnings("PMD")
+public class ReadRangeTest {
+
+	/**
+	 * Adjacent descriptors are merged to one range, even if not passed in order.
+	 */
+	@Test
+	public void adjacentDescriptorsMerged() {
+		IStorageDescriptor d1 = new StorageDescriptor(1, 0, 10);
+		IStorageDescriptor d2 = new StorageDescriptor(1, 10, 20);
+		IStorageDescriptor d3 = new StorageDescriptor(1, 30, 5);
+		List<IStorageDescriptor> descriptors = new ArrayList<>();
+		descriptors.add(d3);
+		descriptors.add(d1);
+		descriptors.add(d2);
+
+		Map<Integer, List<ReadRange>> ranges = ReadRange.createReadRanges(descriptors, 0, Long.MAX_VALUE);
+
+		assertThat(ranges.size(), is(1));
+		List<ReadRange> channelRanges = ranges.get(1);
+		assertThat(channelRanges, hasSize(1));
+		ReadRange readRange = channelRanges.get(0);
+		assertThat(readRange.getStart(), is(0L));
+		assertThat(readRange.getEnd(), is(34L));
+		assertThat(readRange.getSize(), is(35L));
+		assertThat(readRange.getDescriptors(), contains(d1, d2, d3));
+	}
+
+	/**
+	 * Descriptors that are near are merged when the gap is allowed.
+	 */
+	@Test
+	public void nearDescriptorsMergedWithGap() {
+		IStorageDescriptor d1 = new StorageDescriptor(1, 0, 10);
+		IStorageDescriptor d2 = new StorageDescriptor(1, 20, 10);
+		IStorageDescriptor d3 = new StorageDescriptor(1, 100, 10);
+		List<IStorageDescriptor> descriptors = new ArrayList<>();
+		descriptors.add(d1);
+		descriptors.add(d2);
+		descriptors.add(d3);
+
+		List<ReadRange> noGapRanges = ReadRange.createReadRanges(descriptors, 0, Long.MAX_VALUE).get(1);
+		assertThat(noGapRanges, hasSize(3));
+
+		List<ReadRange> gapRanges = ReadRange.createReadRanges(descriptors, 10, Long.MAX_VALUE).get(1);
+		assertThat(gapRanges, hasSize(2));
+		assertThat(gapRanges.get(0).getStart(), is(0L));
+		assertThat(gapRanges.get(0).getEnd(), is(29L));
+		assertThat(gapRanges.get(0).getDescriptors(), contains(d1, d2));
+		assertThat(gapRanges.get(1).getStart(), is(100L));
+		assertThat(gapRanges.get(1).getDescriptors(), contains(d3));
+	}
+
+	/**
+	 * Range is not growing over the maximum size.
+	 */
+	@Test
+	public void maxSizeRespected() {
+		List<IStorageDescriptor> descriptors = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			descriptors.add(new StorageDescriptor(1, i * 10, 10));
+		}
+
+		List<ReadRange> ranges = ReadRange.createReadRanges(descriptors, 0, 30).get(1);
+
+		assertThat(ranges, hasSize(4));
+		assertThat(ranges.get(0).getSize(), is(30L));
+		assertThat(ranges.get(3).getSize(), is(10L));
+		assertThat(ranges.get(3).getStart(), is(90L));
+	}
+
+	/**
+	 * Descriptor larger than maximum size gets own range.
+	 */
+	@Test
+	public void descriptorLargerThanMaxSize() {
+		IStorageDescriptor d1 = new StorageDescriptor(1, 0, 100);
+		IStorageDescriptor d2 = new StorageDescriptor(1, 100, 10);
+		List<IStorageDescriptor> descriptors = new ArrayList<>();
+		descriptors.add(d1);
+		descriptors.add(d2);
+
+		List<ReadRange> ranges = ReadRange.createReadRanges(descriptors, 0, 50).get(1);
+
+		assertThat(ranges, hasSize(2));
+		assertThat(ranges.get(0).getDescriptors(), contains(d1));
+		assertThat(ranges.get(0).getSize(), is(100L));
+		assertThat(ranges.get(1).getDescriptors(), contains(d2));
+	}
+
+	/**
+	 * Descriptors from different channels are never in same range.
+	 */
+	@Test
+	public void channelsSeparated() {
+		IStorageDescriptor d1 = new StorageDescriptor(1, 0, 10);
+		IStorageDescriptor d2 = new StorageDescriptor(2, 10, 10);
+		List<IStorageDescriptor> descriptors = new ArrayList<>();
+		descriptors.add(d1);
+		descriptors.add(d2);
+
+		Map<Integer, List<ReadRange>> ranges = ReadRange.createReadRanges(descriptors, 100, Long.MAX_VALUE);
+
+		assertThat(ranges.size(), is(2));
+		assertThat(ranges.get(1).get(0).getDescriptors(), contains(d1));
+		assertThat(ranges.get(1).get(0).getChannelId(), is(1));
+		assertThat(ranges.get(2).get(0).getDescriptors(), contains(d2));
+		assertThat(ranges.get(2).get(0).getChannelId(), is(2));
+		assertThat(ranges.get(1).get(0).add(d2, 100, Long.MAX_VALUE), is(false));
+	}
+
+	/**
+	 * Overlapping descriptors do not shrink the range.
+	 */
+	@Test
+	public void overlappingDescriptors() {
+		IStorageDescriptor d1 = new StorageDescriptor(1, 0, 50);
+		IStorageDescriptor d2 = new StorageDescriptor(1, 10, 10);
+		List<IStorageDescriptor> descriptors = new ArrayList<>();
+		descriptors.add(d1);
+		descriptors.add(d2);
+
+		List<ReadRange> ranges = ReadRange.createReadRanges(descriptors, 0, Long.MAX_VALUE).get(1);
+
+		assertThat(ranges, hasSize(1));
+		assertThat(ranges.get(0).getEnd(), is(49L));
+		assertThat(ranges.get(0).getDescriptors(), contains(d1, d2));
+	}
+}
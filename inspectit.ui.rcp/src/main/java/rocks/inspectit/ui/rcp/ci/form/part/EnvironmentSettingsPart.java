@@ -24,7 +24,9 @@ import org.eclipse.ui.forms.widgets.Section;
 import rocks.inspectit.shared.all.instrumentation.config.impl.RetransformationStrategy;
 import rocks.inspectit.shared.cs.ci.Environment;
 import rocks.inspectit.shared.cs.ci.strategy.IStrategyConfig;
+import rocks.inspectit.shared.cs.ci.strategy.impl.AdaptiveSendingStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.ListSendingStrategyConfig;
+import rocks.inspectit.shared.cs.ci.strategy.impl.RingBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SimpleBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.SizeBufferStrategyConfig;
 import rocks.inspectit.shared.cs.ci.strategy.impl.TimeSendingStrategyConfig;
@@ -51,6 +53,11 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 	 */
 	private static final String SIMPLE_BUFFER_STRATEGY = "Simple buffer";
 
+	/**
+	 * Display name of the ring buffer strategy.
+	 */
+	private static final String RING_BUFFER_STRATEGY = "Ring buffer (MB)";
+
 	/**
 	 * Display name of the list sending strategy.
 	 */
@@ -61,6 +68,11 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 	 */
 	private static final String TIME_SENDING_STRATEGY = "Time strategy";
 
+	/**
+	 * Display name of the adaptive sending strategy.
+	 */
+	private static final String ADAPTIVE_SENDING_STRATEGY = "Adaptive strategy (max ms)";
+
 	/**
 	 * Form page.
 	 */
@@ -165,7 +177,7 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		gd.widthHint = 50;
 		sendingValue.setLayoutData(gd);
 		createInfoLabel(mainComposite, toolkit,
-				"The time strategy will cause the Agent to send its measurements after a specified interval in milliseconds.\nThe list size strategy will cause the Agent to send its measurements after a specified size of value objects is reached.");
+				"The time strategy will cause the Agent to send its measurements after a specified interval in milliseconds.\nThe list size strategy will cause the Agent to send its measurements after a specified size of value objects is reached.\nThe adaptive strategy will cause the Agent to adapt the sending interval and size to the responsiveness of the CMR, sending at least once in the specified interval in milliseconds.");
 
 		toolkit.createLabel(mainComposite, "Buffer strategy:").setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
 		bufferCombo = new Combo(mainComposite, SWT.DROP_DOWN | SWT.READ_ONLY);
@@ -177,7 +189,7 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		gd.widthHint = 50;
 		bufferValue.setLayoutData(gd);
 		createInfoLabel(mainComposite, toolkit,
-				"The simple version of a buffer is apparently no buffer at all. It contains exactly one element. This is useful if old data isn't necessary or maybe the memory of the application is very limited.\nThe Size buffer strategy needs specification of the size of this buffer. This buffer works as a FILO stack, so last added elements will be sent first (as they are more important), and old ones are thrown away if this buffer is full");
+				"The simple version of a buffer is apparently no buffer at all. It contains exactly one element. This is useful if old data isn't necessary or maybe the memory of the application is very limited.\nThe Size buffer strategy needs specification of the size of this buffer. This buffer works as a FILO stack, so last added elements will be sent first (as they are more important), and old ones are thrown away if this buffer is full.\nThe Ring buffer strategy needs specification of the maximum size of the buffered data in megabytes. This buffer sends the oldest elements first and throws them away if the buffered data exceeds the maximum size.");
 
 		toolkit.createLabel(mainComposite, "Retransformation strategy:").setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
 		retransformationCombo = new Combo(mainComposite, SWT.DROP_DOWN | SWT.READ_ONLY);
@@ -189,32 +201,50 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		// fill the boxes and values
 		sendingCombo.add(TIME_SENDING_STRATEGY);
 		sendingCombo.add(LIST_SENDING_STRATEGY);
+		sendingCombo.add(ADAPTIVE_SENDING_STRATEGY);
 		IStrategyConfig sendingStrategyConfig = environment.getSendingStrategyConfig();
 		if (sendingStrategyConfig instanceof TimeSendingStrategyConfig) {
 			sendingCombo.setData(TIME_SENDING_STRATEGY, sendingStrategyConfig);
 			sendingCombo.setData(LIST_SENDING_STRATEGY, new ListSendingStrategyConfig());
+			sendingCombo.setData(ADAPTIVE_SENDING_STRATEGY, new AdaptiveSendingStrategyConfig());
 			sendingCombo.select(0);
 			sendingValue.setText(String.valueOf(((TimeSendingStrategyConfig) sendingStrategyConfig).getTime()));
 		} else if (sendingStrategyConfig instanceof ListSendingStrategyConfig) {
 			sendingCombo.setData(TIME_SENDING_STRATEGY, new TimeSendingStrategyConfig());
 			sendingCombo.setData(LIST_SENDING_STRATEGY, sendingStrategyConfig);
+			sendingCombo.setData(ADAPTIVE_SENDING_STRATEGY, new AdaptiveSendingStrategyConfig());
 			sendingCombo.select(1);
 			sendingValue.setText(String.valueOf(((ListSendingStrategyConfig) sendingStrategyConfig).getListSize()));
+		} else if (sendingStrategyConfig instanceof AdaptiveSendingStrategyConfig) {
+			sendingCombo.setData(TIME_SENDING_STRATEGY, new TimeSendingStrategyConfig());
+			sendingCombo.setData(LIST_SENDING_STRATEGY, new ListSendingStrategyConfig());
+			sendingCombo.setData(ADAPTIVE_SENDING_STRATEGY, sendingStrategyConfig);
+			sendingCombo.select(2);
+			sendingValue.setText(String.valueOf(((AdaptiveSendingStrategyConfig) sendingStrategyConfig).getMaxTime()));
 		}
 
 		bufferCombo.add(SIMPLE_BUFFER_STRATEGY);
 		bufferCombo.add(SIZE_BUFFER_STRATEGY);
+		bufferCombo.add(RING_BUFFER_STRATEGY);
 		IStrategyConfig bufferStrategyConfig = environment.getBufferStrategyConfig();
 		if (bufferStrategyConfig instanceof SimpleBufferStrategyConfig) {
 			bufferCombo.setData(SIMPLE_BUFFER_STRATEGY, bufferStrategyConfig);
 			bufferCombo.setData(SIZE_BUFFER_STRATEGY, new SizeBufferStrategyConfig());
+			bufferCombo.setData(RING_BUFFER_STRATEGY, new RingBufferStrategyConfig());
 			bufferCombo.select(0);
 			bufferValue.setEnabled(false);
 		} else if (bufferStrategyConfig instanceof SizeBufferStrategyConfig) {
 			bufferCombo.setData(SIMPLE_BUFFER_STRATEGY, new SimpleBufferStrategyConfig());
 			bufferCombo.setData(SIZE_BUFFER_STRATEGY, bufferStrategyConfig);
+			bufferCombo.setData(RING_BUFFER_STRATEGY, new RingBufferStrategyConfig());
 			bufferCombo.select(1);
 			bufferValue.setText(String.valueOf(((SizeBufferStrategyConfig) bufferStrategyConfig).getSize()));
+		} else if (bufferStrategyConfig instanceof RingBufferStrategyConfig) {
+			bufferCombo.setData(SIMPLE_BUFFER_STRATEGY, new SimpleBufferStrategyConfig());
+			bufferCombo.setData(SIZE_BUFFER_STRATEGY, new SizeBufferStrategyConfig());
+			bufferCombo.setData(RING_BUFFER_STRATEGY, bufferStrategyConfig);
+			bufferCombo.select(2);
+			bufferValue.setText(String.valueOf(((RingBufferStrategyConfig) bufferStrategyConfig).getMaxSize()));
 		}
 
 		for (RetransformationStrategy strategy : RetransformationStrategy.values()) {
@@ -232,6 +262,8 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 					sendingValue.setText(String.valueOf(((TimeSendingStrategyConfig) data).getTime()));
 				} else if (data instanceof ListSendingStrategyConfig) {
 					sendingValue.setText(String.valueOf(((ListSendingStrategyConfig) data).getListSize()));
+				} else if (data instanceof AdaptiveSendingStrategyConfig) {
+					sendingValue.setText(String.valueOf(((AdaptiveSendingStrategyConfig) data).getMaxTime()));
 				}
 			}
 		});
@@ -246,6 +278,9 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 				} else if (data instanceof SizeBufferStrategyConfig) {
 					bufferValue.setEnabled(true);
 					bufferValue.setText(String.valueOf(((SizeBufferStrategyConfig) data).getSize()));
+				} else if (data instanceof RingBufferStrategyConfig) {
+					bufferValue.setEnabled(true);
+					bufferValue.setText(String.valueOf(((RingBufferStrategyConfig) data).getMaxSize()));
 				}
 			}
 		});
@@ -349,6 +384,22 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 				showListSendingStrategyValidationMessage();
 				valid = false;
 			}
+		} else if (sendingStrategy instanceof AdaptiveSendingStrategyConfig) {
+			try {
+				long maxTime = Long.parseLong(sendingValue.getText());
+				if (maxTime <= 0) {
+					showAdaptiveSendingStrategyValidationMessage();
+					valid = false;
+				} else {
+					if (update) {
+						((AdaptiveSendingStrategyConfig) sendingStrategy).setMaxTime(maxTime);
+						environment.setSendingStrategyConfig(sendingStrategy);
+					}
+				}
+			} catch (NumberFormatException exception) {
+				showAdaptiveSendingStrategyValidationMessage();
+				valid = false;
+			}
 		}
 
 		return valid;
@@ -379,6 +430,21 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 				showSizeBufferStrategyValidationMessage();
 				valid = false;
 			}
+		} else if (bufferStrategy instanceof RingBufferStrategyConfig) {
+			try {
+				int maxSize = Integer.parseInt(bufferValue.getText());
+				if (maxSize <= 0) {
+					showRingBufferStrategyValidationMessage();
+					valid = false;
+				} else {
+					if (update) {
+						((RingBufferStrategyConfig) bufferStrategy).setMaxSize(maxSize);
+					}
+				}
+			} catch (NumberFormatException exception) {
+				showRingBufferStrategyValidationMessage();
+				valid = false;
+			}
 		}
 		if (update) {
 			environment.setBufferStrategyConfig(bufferStrategy);
@@ -401,6 +467,13 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		sendingValueDecoration.setDescriptionText("List sending strategy must define a list size greater than zero.");
 	}
 
+	/**
+	 * Shows validation error message for adaptive sending strategy.
+	 */
+	private void showAdaptiveSendingStrategyValidationMessage() {
+		sendingValueDecoration.setDescriptionText("Adaptive sending strategy must define a positive maximum number of milliseconds.");
+	}
+
 	/**
 	 * Shows validation error message for size buffer strategy.
 	 */
@@ -408,6 +481,13 @@ public class EnvironmentSettingsPart extends SectionPart implements IPropertyLis
 		bufferValueDecoration.setDescriptionText("Size buffer strategy must define a buffer size greater than zero.");
 	}
 
+	/**
+	 * Shows validation error message for ring buffer strategy.
+	 */
+	private void showRingBufferStrategyValidationMessage() {
+		bufferValueDecoration.setDescriptionText("Ring buffer strategy must define a maximum size in megabytes greater than zero.");
+	}
+
 	/**
 	 * Creates info icon with given text as tool-tip.
 	 *
@@ -89,6 +89,21 @@ public class TimerSensorAssignmentDetailsPage extends ChartingMethodSensorAssign
 	 */
 	private Text minDurationText;
 
+	/**
+	 * Text box for the maximum amount of nodes recorded in one invocation.
+	 */
+	private Text maxNodesText;
+
+	/**
+	 * Text box for the maximum amount of invocations per second sent when sampling.
+	 */
+	private Text samplingRateText;
+
+	/**
+	 * Text box for the duration after which the invocations are always sent when sampling.
+	 */
+	private Text samplingSlowDurationText;
+
 	/**
 	 * Constructor.
 	 *
@@ -227,6 +242,36 @@ public class TimerSensorAssignmentDetailsPage extends ChartingMethodSensorAssign
 		toolkit.createLabel(mainComposite, "");
 		createInfoLabel(mainComposite, toolkit,
 				"Defines if method should start an invocation. Minimum duration defines the minimum time in milliseconds an invocation has to consume in order to be saved and transmitted to the server.");
+		toolkit.createLabel(mainComposite, "");
+		toolkit.createLabel(mainComposite, "");
+		toolkit.createLabel(mainComposite, "Max nodes:", SWT.RIGHT).setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+		maxNodesText = toolkit.createText(mainComposite, "", SWT.BORDER | SWT.RIGHT);
+		gd = new GridData(SWT.FILL, SWT.FILL, false, false, 2, 1);
+		gd.widthHint = 50;
+		maxNodesText.setLayoutData(gd);
+		toolkit.createLabel(mainComposite, "");
+		createInfoLabel(mainComposite, toolkit,
+				"Maximum amount of nodes recorded in one invocation. When reached, the further nested invocations are not recorded, but only counted. Leave empty for no limit.");
+		toolkit.createLabel(mainComposite, "");
+		toolkit.createLabel(mainComposite, "");
+		toolkit.createLabel(mainComposite, "Sampling rate:", SWT.RIGHT).setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+		samplingRateText = toolkit.createText(mainComposite, "", SWT.BORDER | SWT.RIGHT);
+		gd = new GridData(SWT.FILL, SWT.FILL, false, false, 2, 1);
+		gd.widthHint = 50;
+		samplingRateText.setLayoutData(gd);
+		toolkit.createLabel(mainComposite, "");
+		createInfoLabel(mainComposite, toolkit,
+				"Maximum amount of invocations per second that are sent to the server. When more invocations are started, a random sample of them is sent. Leave empty to send all invocations.");
+		toolkit.createLabel(mainComposite, "");
+		toolkit.createLabel(mainComposite, "");
+		toolkit.createLabel(mainComposite, "Sampling slow duration:", SWT.RIGHT).setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+		samplingSlowDurationText = toolkit.createText(mainComposite, "", SWT.BORDER | SWT.RIGHT);
+		gd = new GridData(SWT.FILL, SWT.FILL, false, false, 2, 1);
+		gd.widthHint = 50;
+		samplingSlowDurationText.setLayoutData(gd);
+		toolkit.createLabel(mainComposite, "");
+		createInfoLabel(mainComposite, toolkit,
+				"Invocations slower than this duration in milliseconds are always sent, as well as invocations with exceptions or belonging to a trace. Only used when sampling rate is set.");
 		// validation
 		// method validation
 		final ValidationControlDecoration<Text> minDurationValidationDecoration = new ValidationControlDecoration<Text>(minDurationText, null, this) {
@@ -246,6 +291,57 @@ public class TimerSensorAssignmentDetailsPage extends ChartingMethodSensorAssign
 		minDurationValidationDecoration.setDescriptionText("Value must be positive amount of milliseconds.");
 		minDurationValidationDecoration.registerListener(SWT.Modify);
 		addValidationControlDecoration(minDurationValidationDecoration);
+		final ValidationControlDecoration<Text> maxNodesValidationDecoration = new ValidationControlDecoration<Text>(maxNodesText, null, this) {
+			@Override
+			protected boolean validate(Text control) {
+				if (StringUtils.isNotEmpty(control.getText())) {
+					try {
+						return Long.parseLong(control.getText()) > 0;
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				} else {
+					return true;
+				}
+			}
+		};
+		maxNodesValidationDecoration.setDescriptionText("Value must be positive amount of nodes.");
+		maxNodesValidationDecoration.registerListener(SWT.Modify);
+		addValidationControlDecoration(maxNodesValidationDecoration);
+		final ValidationControlDecoration<Text> samplingRateValidationDecoration = new ValidationControlDecoration<Text>(samplingRateText, null, this) {
+			@Override
+			protected boolean validate(Text control) {
+				if (StringUtils.isNotEmpty(control.getText())) {
+					try {
+						return Long.parseLong(control.getText()) > 0;
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				} else {
+					return true;
+				}
+			}
+		};
+		samplingRateValidationDecoration.setDescriptionText("Value must be positive amount of invocations per second.");
+		samplingRateValidationDecoration.registerListener(SWT.Modify);
+		addValidationControlDecoration(samplingRateValidationDecoration);
+		final ValidationControlDecoration<Text> samplingSlowDurationValidationDecoration = new ValidationControlDecoration<Text>(samplingSlowDurationText, null, this) {
+			@Override
+			protected boolean validate(Text control) {
+				if (StringUtils.isNotEmpty(control.getText())) {
+					try {
+						return Long.parseLong(control.getText()) > 0;
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				} else {
+					return true;
+				}
+			}
+		};
+		samplingSlowDurationValidationDecoration.setDescriptionText("Value must be positive amount of milliseconds.");
+		samplingSlowDurationValidationDecoration.registerListener(SWT.Modify);
+		addValidationControlDecoration(samplingSlowDurationValidationDecoration);
 
 		// listener
 		startInvocationButton.addSelectionListener(new SelectionAdapter() {
@@ -253,6 +349,12 @@ public class TimerSensorAssignmentDetailsPage extends ChartingMethodSensorAssign
 			public void widgetSelected(SelectionEvent e) {
 				minDurationText.setEnabled(startInvocationButton.getSelection());
 				minDurationValidationDecoration.executeValidation();
+				maxNodesText.setEnabled(startInvocationButton.getSelection());
+				maxNodesValidationDecoration.executeValidation();
+				samplingRateText.setEnabled(startInvocationButton.getSelection());
+				samplingRateValidationDecoration.executeValidation();
+				samplingSlowDurationText.setEnabled(startInvocationButton.getSelection());
+				samplingSlowDurationValidationDecoration.executeValidation();
 			}
 		});
 
@@ -260,6 +362,9 @@ public class TimerSensorAssignmentDetailsPage extends ChartingMethodSensorAssign
 		captureContextButton.addListener(SWT.Selection, getMarkDirtyListener());
 		startInvocationButton.addListener(SWT.Selection, getMarkDirtyListener());
 		minDurationText.addListener(SWT.Modify, getMarkDirtyListener());
+		maxNodesText.addListener(SWT.Modify, getMarkDirtyListener());
+		samplingRateText.addListener(SWT.Modify, getMarkDirtyListener());
+		samplingSlowDurationText.addListener(SWT.Modify, getMarkDirtyListener());
 
 		if (!isCanEdit()) {
 			setEnabled(mainComposite, false);
@@ -344,6 +449,12 @@ public class TimerSensorAssignmentDetailsPage extends ChartingMethodSensorAssign
 		startInvocationButton.setSelection(false);
 		minDurationText.setEnabled(false);
 		minDurationText.setText("");
+		maxNodesText.setEnabled(false);
+		maxNodesText.setText("");
+		samplingRateText.setEnabled(false);
+		samplingRateText.setText("");
+		samplingSlowDurationText.setEnabled(false);
+		samplingSlowDurationText.setText("");
 		contextCaptures.clear();
 		if (null != assignment) {
 			if (CollectionUtils.isNotEmpty(assignment.getContextCaptures())) {
@@ -364,6 +475,18 @@ public class TimerSensorAssignmentDetailsPage extends ChartingMethodSensorAssign
 				if (0 != assignment.getMinInvocationDuration()) {
 					minDurationText.setText(String.valueOf(assignment.getMinInvocationDuration()));
 				}
+				maxNodesText.setEnabled(isCanEdit());
+				if (0 != assignment.getMaxInvocationNodes()) {
+					maxNodesText.setText(String.valueOf(assignment.getMaxInvocationNodes()));
+				}
+				samplingRateText.setEnabled(isCanEdit());
+				if (0 != assignment.getInvocationSamplingRate()) {
+					samplingRateText.setText(String.valueOf(assignment.getInvocationSamplingRate()));
+				}
+				samplingSlowDurationText.setEnabled(isCanEdit());
+				if (0 != assignment.getInvocationSamplingSlowDuration()) {
+					samplingSlowDurationText.setText(String.valueOf(assignment.getInvocationSamplingSlowDuration()));
+				}
 			}
 		}
 		captureContextTableViewer.refresh();
@@ -392,6 +515,36 @@ public class TimerSensorAssignmentDetailsPage extends ChartingMethodSensorAssign
 			} else {
 				assignment.setMinInvocationDuration(0L);
 			}
+			String maxNodes = maxNodesText.getText();
+			if (StringUtils.isNotBlank(maxNodes)) {
+				try {
+					assignment.setMaxInvocationNodes(Long.parseLong(maxNodes));
+				} catch (NumberFormatException e) {
+					assignment.setMaxInvocationNodes(0L);
+				}
+			} else {
+				assignment.setMaxInvocationNodes(0L);
+			}
+			String samplingRate = samplingRateText.getText();
+			if (StringUtils.isNotBlank(samplingRate)) {
+				try {
+					assignment.setInvocationSamplingRate(Long.parseLong(samplingRate));
+				} catch (NumberFormatException e) {
+					assignment.setInvocationSamplingRate(0L);
+				}
+			} else {
+				assignment.setInvocationSamplingRate(0L);
+			}
+			String samplingSlowDuration = samplingSlowDurationText.getText();
+			if (StringUtils.isNotBlank(samplingSlowDuration)) {
+				try {
+					assignment.setInvocationSamplingSlowDuration(Long.parseLong(samplingSlowDuration));
+				} catch (NumberFormatException e) {
+					assignment.setInvocationSamplingSlowDuration(0L);
+				}
+			} else {
+				assignment.setInvocationSamplingSlowDuration(0L);
+			}
 		}
 	}
 
@@ -28,6 +28,7 @@ import org.eclipse.ui.progress.DeferredTreeContentManager;
 import rocks.inspectit.shared.all.cmr.model.MethodIdent;
 import rocks.inspectit.shared.all.cmr.service.ICachedDataService;
 import rocks.inspectit.shared.all.communication.data.ExceptionSensorData;
+import rocks.inspectit.shared.all.communication.data.FoldedInvocationData;
 import rocks.inspectit.shared.all.communication.data.HttpInfo;
 import rocks.inspectit.shared.all.communication.data.HttpTimerData;
 import rocks.inspectit.shared.all.communication.data.HttpTimerDataHelper;
@@ -398,7 +399,19 @@ public class InvocDetailInputController extends AbstractTreeInputController { //
 		StyledString styledString = null;
 		switch (enumId) {
 		case ELEMENT:
-			return TextFormatter.getStyledMethodString(methodIdent);
+			styledString = TextFormatter.getStyledMethodString(methodIdent);
+			if (InvocationSequenceDataHelper.isFolded(data)) {
+				FoldedInvocationData foldedInvocationData = data.getFoldedInvocationData();
+				styledString.append(" [" + NumberFormatter.formatLong(foldedInvocationData.getCount()) + "x, min " + NumberFormatter.formatDouble(foldedInvocationData.getMinDuration()) + " ms, max "
+						+ NumberFormatter.formatDouble(foldedInvocationData.getMaxDuration()) + " ms]", StyledString.COUNTER_STYLER);
+			}
+			if (InvocationSequenceDataHelper.hasDroppedChildren(data)) {
+				styledString.append(" [" + NumberFormatter.formatLong(data.getDroppedChildCount()) + " nested invocations not recorded]", StyledString.QUALIFIER_STYLER);
+			}
+			if (InvocationSequenceDataHelper.isSampled(data)) {
+				styledString.append(" [sampled, represents " + NumberFormatter.formatDouble(data.getSamplingWeight()) + " invocations]", StyledString.QUALIFIER_STYLER);
+			}
+			return styledString;
 		case START_DELTA:
 			InvocationSequenceData root = data;
 			while (!InvocationSequenceDataHelper.isRootElementInSequence(root)) {
@@ -23,6 +23,7 @@ import rocks.inspectit.ui.rcp.InspectIT;
 import rocks.inspectit.ui.rcp.repository.CmrRepositoryDefinition;
 import rocks.inspectit.ui.rcp.repository.StorageRepositoryDefinition;
 import rocks.inspectit.ui.rcp.storage.util.DataRetriever;
+import rocks.inspectit.ui.rcp.storage.util.IDataConsumer;
 
 /**
  * Abstract class for all storage services.
@@ -299,7 +300,7 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 	 *            {@link IAggregator}
 	 * @return Return results of a query.
 	 */
-	private List<E> loadData(StorageIndexQuery storageIndexQuery, IAggregator<E> aggregator) {
+	private List<E> loadData(final StorageIndexQuery storageIndexQuery, IAggregator<E> aggregator) {
 		List<IStorageDescriptor> descriptors = getIndexingTree().query(storageIndexQuery);
 		// sort the descriptors to optimize the number of read operations
 		Collections.sort(descriptors, new Comparator<IStorageDescriptor>() {
@@ -314,11 +315,28 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 			}
 		});
 
-		AggregationPerformer<E> aggregationPerformer = null;
+		final AggregationPerformer<E> aggregationPerformer;
 		if (null != aggregator) {
 			aggregationPerformer = new AggregationPerformer<>(aggregator);
+		} else {
+			aggregationPerformer = null;
 		}
-		List<E> returnList = new ArrayList<>();
+		final List<E> returnList = new ArrayList<>();
+
+		// filter with restrictions and aggregate the portions of data as they are streamed
+		IDataConsumer<E> dataConsumer = new IDataConsumer<E>() {
+			@Override
+			public void consume(List<E> data) {
+				List<E> passedData = getRestrictionsPassedList(data, storageIndexQuery);
+
+				// if we need to aggregate then do so, otherwise just add to result list
+				if (null != aggregationPerformer) {
+					aggregationPerformer.processCollection(passedData);
+				} else {
+					returnList.addAll(passedData);
+				}
+			}
+		};
 
 		int size = 0;
 		int count = 0;
@@ -331,11 +349,10 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 
 			// if the size is already to big, or we reached end do query
 			if ((size > MAX_QUERY_SIZE) || (count == descriptors.size())) {
-				// load data and filter with restrictions
-				List<E> allData;
+				// load data
 				if (localStorageData.isFullyDownloaded()) {
 					try {
-						allData = dataRetriever.getDataLocally(localStorageData, descriptors);
+						dataRetriever.getDataLocally(localStorageData, limitedDescriptors, dataConsumer);
 					} catch (SerializationException e) {
 						String msg = "Data in the downloaded storage " + localStorageData + " can not be loaded with this version of the inspectIT. Version of the CMR where storage was created is "
 								+ localStorageData.getCmrVersion() + ".";
@@ -347,7 +364,7 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 					}
 				} else {
 					try {
-						allData = dataRetriever.getDataViaHttp(getCmrRepositoryDefinition(), localStorageData, limitedDescriptors);
+						dataRetriever.getDataViaHttp(getCmrRepositoryDefinition(), localStorageData, limitedDescriptors, dataConsumer);
 					} catch (SerializationException e) {
 						String msg = "Data in the remote storage " + localStorageData + " can not be loaded with this version of the inspectIT. Version of the CMR where storage was created is "
 								+ localStorageData.getCmrVersion() + ".";
@@ -358,14 +375,6 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 						return Collections.emptyList();
 					}
 				}
-				List<E> passedData = getRestrictionsPassedList(allData, storageIndexQuery);
-
-				// if we need to aggregate then do so, otherwise just add to result list
-				if (null != aggregationPerformer) {
-					aggregationPerformer.processCollection(passedData);
-				} else {
-					returnList.addAll(passedData);
-				}
 
 				// reset the size and current list
 				size = 0;
@@ -374,8 +383,8 @@ public abstract class AbstractStorageService<E extends DefaultData> {
 		}
 
 		// aggregate if needed
-		if (null != aggregator) {
-			returnList = aggregationPerformer.getResultList();
+		if (null != aggregationPerformer) {
+			return aggregationPerformer.getResultList();
 		}
 
 		return returnList;
@@ -3,17 +3,27 @@ package rocks.inspectit.ui.rcp.storage.util;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
@@ -56,8 +66,7 @@ import rocks.inspectit.shared.cs.storage.LocalStorageData;
 import rocks.inspectit.shared.cs.storage.StorageData;
 import rocks.inspectit.shared.cs.storage.StorageFileType;
 import rocks.inspectit.shared.cs.storage.StorageManager;
-import rocks.inspectit.shared.cs.storage.nio.stream.InputStreamProvider;
-import rocks.inspectit.shared.cs.storage.util.RangeDescriptor;
+import rocks.inspectit.shared.cs.storage.util.ReadRange;
 import rocks.inspectit.ui.rcp.repository.CmrRepositoryDefinition;
 import rocks.inspectit.ui.rcp.storage.http.TransferDataMonitor;
 
@@ -90,9 +99,20 @@ public class DataRetriever {
 	private BlockingQueue<ISerializer> serializerQueue = new LinkedBlockingQueue<>();
 
 	/**
-	 * Stream provider needed for local data reading.
+	 * Maximum amount of bytes between two descriptors that will still be read with the single read
+	 * operation. Bytes in the gap are read but never de-serialized.
 	 */
-	private InputStreamProvider streamProvider;
+	private long maxReadGap = 32 * 1024;
+
+	/**
+	 * Maximum size of one read range in bytes.
+	 */
+	private long maxReadSize = 8 * 1024 * 1024;
+
+	/**
+	 * Executor service for the de-serialization of the read ranges.
+	 */
+	private ExecutorService executorService;
 
 	/**
 	 * Initializes the retriever.
@@ -111,7 +131,8 @@ public class DataRetriever {
 	 * {@link CmrRepositoryDefinition}. This method will try to invoke as less as possible HTTP
 	 * requests for all descriptors.
 	 * <p>
-	 * The method will execute the HTTP requests sequentially.
+	 * The method will execute the HTTP requests sequentially, while the received data is
+	 * de-serialized in parallel.
 	 * <p>
 	 * It is not guaranteed that amount of returned objects in the list is same as the amount of
 	 * provided descriptors. If some of the descriptors are pointing to the wrong files or files
@@ -134,84 +155,111 @@ public class DataRetriever {
 	 * @throws IOException
 	 *             If {@link IOException} occurs.
 	 */
-	@SuppressWarnings("unchecked")
 	public <E extends DefaultData> List<E> getDataViaHttp(CmrRepositoryDefinition cmrRepositoryDefinition, IStorageData storageData, List<IStorageDescriptor> descriptors)
 			throws IOException, SerializationException {
-		Map<Integer, List<IStorageDescriptor>> separateFilesGroup = createFilesGroup(descriptors);
-		List<E> receivedData = new ArrayList<>();
+		final List<E> receivedData = new ArrayList<>(descriptors.size());
+		this.getDataViaHttp(cmrRepositoryDefinition, storageData, descriptors, new IDataConsumer<E>() {
+			@Override
+			public void consume(List<E> data) {
+				receivedData.addAll(data);
+			}
+		});
+		return receivedData;
+	}
+
+	/**
+	 * Retrieves the wanted data described in the {@link StorageDescriptor} from the desired
+	 * {@link CmrRepositoryDefinition} and streams it to the given {@link IDataConsumer}.
+	 * <p>
+	 * Descriptors of one file are merged to the read ranges, where descriptors that are not more
+	 * than {@link #maxReadGap} bytes apart are read in the same range. All ranges of one file are
+	 * requested with a single HTTP request. The received ranges are de-serialized in parallel
+	 * while the next file is being downloaded and passed to the consumer as soon as they are
+	 * available.
+	 *
+	 * @param <E>
+	 *            Type of the objects are wanted.
+	 * @param cmrRepositoryDefinition
+	 *            {@link CmrRepositoryDefinition}.
+	 * @param storageData
+	 *            {@link StorageData} that points to the wanted storage.
+	 * @param descriptors
+	 *            Descriptors.
+	 * @param dataConsumer
+	 *            Consumer to pass the data to.
+	 * @throws SerializationException
+	 *             If {@link SerializationException} occurs.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	public <E extends DefaultData> void getDataViaHttp(CmrRepositoryDefinition cmrRepositoryDefinition, IStorageData storageData, List<IStorageDescriptor> descriptors,
+			IDataConsumer<E> dataConsumer) throws IOException, SerializationException {
+		Map<Integer, List<ReadRange>> readRangesMap = ReadRange.createReadRanges(descriptors, maxReadGap, maxReadSize);
 		String serverUri = getServerUri(cmrRepositoryDefinition);
 
+		CompletionService<List<E>> completionService = new ExecutorCompletionService<>(executorService);
+		List<Future<List<E>>> futures = new ArrayList<>();
+		int consumed = 0;
+		boolean finished = false;
 		HttpClient httpClient = new DefaultHttpClient();
-		for (Map.Entry<Integer, List<IStorageDescriptor>> entry : separateFilesGroup.entrySet()) {
-			HttpGet httpGet = new HttpGet(serverUri + storageManager.getHttpFileLocation(storageData, entry.getKey()));
-			StringBuilder rangeHeader = new StringBuilder("bytes=");
-
-			RangeDescriptor rangeDescriptor = null;
-			for (IStorageDescriptor descriptor : entry.getValue()) {
-				if (null == rangeDescriptor) {
-					rangeDescriptor = new RangeDescriptor(descriptor);
-				} else {
-					if ((rangeDescriptor.getEnd() + 1) == descriptor.getPosition()) {
-						rangeDescriptor.setEnd((descriptor.getPosition() + descriptor.getSize()) - 1);
-					} else {
-						rangeHeader.append(rangeDescriptor.toString());
+		try {
+			for (Map.Entry<Integer, List<ReadRange>> entry : readRangesMap.entrySet()) {
+				List<ReadRange> readRanges = entry.getValue();
+				HttpGet httpGet = new HttpGet(serverUri + storageManager.getHttpFileLocation(storageData, entry.getKey()));
+				StringBuilder rangeHeader = new StringBuilder("bytes=");
+				for (int i = 0; i < readRanges.size(); i++) {
+					if (i > 0) {
 						rangeHeader.append(',');
-						rangeDescriptor = new RangeDescriptor(descriptor);
 					}
+					rangeHeader.append(readRanges.get(i).toString());
 				}
-			}
-			rangeHeader.append(rangeDescriptor);
+				httpGet.addHeader("Range", rangeHeader.toString());
 
-			httpGet.addHeader("Range", rangeHeader.toString());
-			ISerializer serializer = null;
-			try {
-				serializer = serializerQueue.take();
-			} catch (InterruptedException e) {
-				Thread.interrupted();
-			}
-			InputStream inputStream = null;
-			Input input = null;
-			try {
 				HttpResponse response = httpClient.execute(httpGet);
 				HttpEntity entity = response.getEntity();
 				if (MultipartEntityUtil.isMultipart(entity)) {
-					inputStream = entity.getContent();
-					@SuppressWarnings("deprecation")
-					// all non-deprecated constructors have default modifier
-					MultipartStream multipartStream = new MultipartStream(inputStream, MultipartEntityUtil.getBoundary(entity).getBytes());
-					ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-					boolean nextPart = multipartStream.skipPreamble();
-					while (nextPart) {
-						multipartStream.readHeaders();
-						multipartStream.readBodyData(byteArrayOutputStream);
-						input = new Input(byteArrayOutputStream.toByteArray());
-						while (KryoUtil.hasMoreBytes(input)) {
-							Object object = serializer.deserialize(input);
-							E element = (E) object;
-							receivedData.add(element);
+					try (InputStream inputStream = entity.getContent()) {
+						@SuppressWarnings("deprecation")
+						// all non-deprecated constructors have default modifier
+						MultipartStream multipartStream = new MultipartStream(inputStream, MultipartEntityUtil.getBoundary(entity).getBytes());
+						int partIndex = 0;
+						boolean nextPart = multipartStream.skipPreamble();
+						while (nextPart) {
+							String partHeaders = multipartStream.readHeaders();
+							ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+							multipartStream.readBodyData(byteArrayOutputStream);
+
+							// parts should define their range, if not we rely on the requested order
+							long partPosition = MultipartEntityUtil.getContentRangeStart(MultipartEntityUtil.getPartContentRange(partHeaders));
+							if ((partPosition < 0) && (partIndex < readRanges.size())) {
+								partPosition = readRanges.get(partIndex).getStart();
+							}
+							futures.add(completionService.submit(new DeserializeTask<E>(byteArrayOutputStream.toByteArray(), partPosition, readRanges)));
+							partIndex++;
+							nextPart = multipartStream.readBoundary();
 						}
-						nextPart = multipartStream.readBoundary();
 					}
 				} else {
-					// when kryo changes the visibility of optional() method, we can really stream
-					input = new Input(EntityUtils.toByteArray(entity));
-					while (KryoUtil.hasMoreBytes(input)) {
-						Object object = serializer.deserialize(input);
-						E element = (E) object;
-						receivedData.add(element);
+					// single range response or complete file if server does not support ranges
+					Header contentRangeHeader = response.getFirstHeader(MultipartEntityUtil.CONTENT_RANGE_HEADER);
+					long position = 0;
+					if (null != contentRangeHeader) {
+						position = MultipartEntityUtil.getContentRangeStart(contentRangeHeader.getValue());
 					}
+					futures.add(completionService.submit(new DeserializeTask<E>(EntityUtils.toByteArray(entity), position, readRanges)));
 				}
-			} finally {
-				if (null != inputStream) {
-					inputStream.close();
-				}
-				if (null != input) {
-					input.close();
-				}
-				serializerQueue.add(serializer);
+
+				// pass what is already de-serialized while we still download
+				consumed += consumeResults(completionService, futures.size() - consumed, false, dataConsumer);
+			}
+
+			consumeResults(completionService, futures.size() - consumed, true, dataConsumer);
+			finished = true;
+		} finally {
+			if (!finished) {
+				cancelAll(futures);
 			}
 		}
-		return receivedData;
 	}
 
 	/**
@@ -237,53 +285,70 @@ public class DataRetriever {
 	 * @throws IOException
 	 *             If {@link IOException} occurs.
 	 */
-	@SuppressWarnings("unchecked")
 	public <E extends DefaultData> List<E> getDataLocally(LocalStorageData localStorageData, List<IStorageDescriptor> descriptors) throws IOException, SerializationException {
-		Map<Integer, List<IStorageDescriptor>> separateFilesGroup = createFilesGroup(descriptors);
-		List<IStorageDescriptor> optimizedDescriptors = new ArrayList<>();
-		for (Map.Entry<Integer, List<IStorageDescriptor>> entry : separateFilesGroup.entrySet()) {
-			StorageDescriptor storageDescriptor = null;
-			for (IStorageDescriptor descriptor : entry.getValue()) {
-				if (null == storageDescriptor) {
-					storageDescriptor = new StorageDescriptor(entry.getKey());
-					storageDescriptor.setPositionAndSize(descriptor.getPosition(), descriptor.getSize());
-				} else {
-					if (!storageDescriptor.join(descriptor)) {
-						optimizedDescriptors.add(storageDescriptor);
-						storageDescriptor = new StorageDescriptor(entry.getKey());
-						storageDescriptor.setPositionAndSize(descriptor.getPosition(), descriptor.getSize());
-					}
-				}
+		final List<E> receivedData = new ArrayList<>(descriptors.size());
+		this.getDataLocally(localStorageData, descriptors, new IDataConsumer<E>() {
+			@Override
+			public void consume(List<E> data) {
+				receivedData.addAll(data);
 			}
-			optimizedDescriptors.add(storageDescriptor);
-		}
+		});
+		return receivedData;
+	}
 
-		List<E> receivedData = new ArrayList<>(descriptors.size());
+	/**
+	 * Retrieves the wanted data described in the {@link StorageDescriptor} from the desired
+	 * offline-available storage and streams it to the given {@link IDataConsumer}.
+	 * <p>
+	 * Descriptors of one file are merged to the read ranges, where descriptors that are not more
+	 * than {@link #maxReadGap} bytes apart are read in the same range. Every range is read into a
+	 * buffer and de-serialized in parallel with the other ranges. Amount of ranges de-serialized at
+	 * the same time is bounded by the amount of available serializers. Buffers are reused between
+	 * the ranges of one call and released when the call is finished. De-serialized data is passed
+	 * to the consumer as soon as a range is finished.
+	 *
+	 * @param <E>
+	 *            Type of the objects are wanted.
+	 * @param localStorageData
+	 *            {@link LocalStorageData} that points to the wanted storage.
+	 * @param descriptors
+	 *            Descriptors.
+	 * @param dataConsumer
+	 *            Consumer to pass the data to.
+	 * @throws SerializationException
+	 *             If {@link SerializationException} occurs.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	public <E extends DefaultData> void getDataLocally(LocalStorageData localStorageData, List<IStorageDescriptor> descriptors, IDataConsumer<E> dataConsumer)
+			throws IOException, SerializationException {
+		Map<Integer, List<ReadRange>> readRangesMap = ReadRange.createReadRanges(descriptors, maxReadGap, maxReadSize);
 
-		ISerializer serializer = null;
+		CompletionService<List<E>> completionService = new ExecutorCompletionService<>(executorService);
+		List<Future<List<E>>> futures = new ArrayList<>();
+		List<FileChannel> fileChannels = new ArrayList<>(readRangesMap.size());
+		Queue<ByteBuffer> readBuffers = new ConcurrentLinkedQueue<>();
+		boolean finished = false;
 		try {
-			serializer = serializerQueue.take();
-		} catch (InterruptedException e) {
-			Thread.interrupted();
-		}
-		InputStream inputStream = null;
-		Input input = null;
-		try {
-			inputStream = streamProvider.getExtendedByteBufferInputStream(localStorageData, optimizedDescriptors);
-			input = new Input(inputStream);
-			while (KryoUtil.hasMoreBytes(input)) {
-				Object object = serializer.deserialize(input);
-				E element = (E) object;
-				receivedData.add(element);
+			for (Map.Entry<Integer, List<ReadRange>> entry : readRangesMap.entrySet()) {
+				FileChannel fileChannel = FileChannel.open(storageManager.getChannelPath(localStorageData, entry.getKey().intValue()), StandardOpenOption.READ);
+				fileChannels.add(fileChannel);
+				for (ReadRange readRange : entry.getValue()) {
+					futures.add(completionService.submit(new ReadDeserializeTask<E>(fileChannel, readRange, readBuffers)));
+				}
 			}
+
+			consumeResults(completionService, futures.size(), true, dataConsumer);
+			finished = true;
 		} finally {
-			if (null != input) {
-				input.close();
+			if (!finished) {
+				cancelAll(futures);
 			}
-			serializerQueue.add(serializer);
+			for (FileChannel fileChannel : fileChannels) {
+				fileChannel.close();
+			}
+			readBuffers.clear();
 		}
-
-		return receivedData;
 	}
 
 	/**
@@ -616,40 +681,139 @@ public class DataRetriever {
 	}
 
 	/**
-	 * Creates the pairs that have a channel ID as a key, and list of descriptors as value. All the
-	 * descriptors in the list are associated with the channel, thus all the data described in the
-	 * descriptors can be retrieved with a single HTTP/local request.
+	 * Passes the results of the finished de-serialization tasks to the consumer.
 	 *
-	 * @param descriptors
-	 *            Un-grouped descriptors.
-	 *
-	 * @return Map of channel IDs with its descriptors.
-	 */
-	private Map<Integer, List<IStorageDescriptor>> createFilesGroup(List<IStorageDescriptor> descriptors) {
-		Map<Integer, List<IStorageDescriptor>> filesMap = new HashMap<>();
-		for (IStorageDescriptor storageDescriptor : descriptors) {
-			Integer channelId = Integer.valueOf(storageDescriptor.getChannelId());
-			List<IStorageDescriptor> oneFileList = filesMap.get(channelId);
-			if (null == oneFileList) {
-				oneFileList = new ArrayList<>();
-				filesMap.put(channelId, oneFileList);
+	 * @param <E>
+	 *            Type of the objects are wanted.
+	 * @param completionService
+	 *            Completion service the tasks were submitted to.
+	 * @param count
+	 *            Maximum amount of results to consume.
+	 * @param wait
+	 *            If <code>true</code> the method waits until the given amount of results is
+	 *            consumed. If <code>false</code> only results of already finished tasks are
+	 *            consumed.
+	 * @param dataConsumer
+	 *            Consumer to pass the data to.
+	 * @return Amount of consumed results.
+	 * @throws SerializationException
+	 *             If {@link SerializationException} occurred in one of the tasks.
+	 * @throws IOException
+	 *             If {@link IOException} occurred in one of the tasks or if thread is interrupted
+	 *             while waiting.
+	 */
+	private <E extends DefaultData> int consumeResults(CompletionService<List<E>> completionService, int count, boolean wait, IDataConsumer<E> dataConsumer)
+			throws IOException, SerializationException {
+		int consumed = 0;
+		while (consumed < count) {
+			Future<List<E>> future;
+			if (wait) {
+				try {
+					future = completionService.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for the storage data to be de-serialized.");
+				}
+			} else {
+				future = completionService.poll();
+				if (null == future) {
+					break;
+				}
 			}
-			oneFileList.add(storageDescriptor);
+
+			try {
+				dataConsumer.consume(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for the storage data to be de-serialized.");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof SerializationException) {
+					throw (SerializationException) cause;
+				} else if (cause instanceof IOException) {
+					throw (IOException) cause;
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IOException("Exception occurred de-serializing the storage data.", cause);
+			}
+			consumed++;
 		}
+		return consumed;
+	}
 
-		// sort lists
-		for (Map.Entry<Integer, List<IStorageDescriptor>> entry : filesMap.entrySet()) {
-			List<IStorageDescriptor> list = entry.getValue();
-			Collections.sort(list, new Comparator<IStorageDescriptor>() {
+	/**
+	 * Cancels all given futures. Used when retrieving of data failed so that the rest of the tasks
+	 * is not executed.
+	 *
+	 * @param futures
+	 *            Futures to cancel.
+	 */
+	private void cancelAll(List<? extends Future<?>> futures) {
+		for (Future<?> future : futures) {
+			future.cancel(false);
+		}
+	}
 
-				@Override
-				public int compare(IStorageDescriptor o1, IStorageDescriptor o2) {
-					return Long.compare(o1.getPosition(), o2.getPosition());
+	/**
+	 * De-serializes all the data of the given read ranges that is contained in the bytes. The
+	 * bytes are holding the file content starting from the given position. Descriptors of the
+	 * ranges that are not completely in the bytes are ignored, as well as the gaps between the
+	 * descriptors.
+	 *
+	 * @param <E>
+	 *            Type of the objects are wanted.
+	 * @param bytes
+	 *            Read file content.
+	 * @param length
+	 *            Amount of valid bytes in the array.
+	 * @param bytesPosition
+	 *            File position of the first byte in the array.
+	 * @param readRanges
+	 *            Read ranges holding the descriptors to de-serialize.
+	 * @return De-serialized objects.
+	 * @throws SerializationException
+	 *             If {@link SerializationException} occurs.
+	 * @throws IOException
+	 *             If {@link IOException} occurs.
+	 */
+	@SuppressWarnings("unchecked")
+	private <E extends DefaultData> List<E> deserialize(byte[] bytes, int length, long bytesPosition, List<ReadRange> readRanges) throws SerializationException, IOException {
+		List<E> receivedData = new ArrayList<>();
+		long bytesEnd = bytesPosition + length;
+
+		ISerializer serializer = null;
+		try {
+			serializer = serializerQueue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the serializer.");
+		}
+		Input input = new Input();
+		try {
+			for (ReadRange readRange : readRanges) {
+				if ((readRange.getEnd() < bytesPosition) || (readRange.getStart() >= bytesEnd)) {
+					continue;
+				}
+				for (IStorageDescriptor descriptor : readRange.getDescriptors()) {
+					long offset = descriptor.getPosition() - bytesPosition;
+					if ((offset < 0) || ((offset + descriptor.getSize()) > length)) {
+						continue;
+					}
+					input.setBuffer(bytes, (int) offset, (int) descriptor.getSize());
+					while (KryoUtil.hasMoreBytes(input)) {
+						Object object = serializer.deserialize(input);
+						E element = (E) object;
+						receivedData.add(element);
+					}
 				}
-			});
+			}
+		} finally {
+			serializerQueue.add(serializer);
 		}
-
-		return filesMap;
+		return receivedData;
 	}
 
 	/**
@@ -702,13 +866,156 @@ public class DataRetriever {
 	}
 
 	/**
-	 * Sets {@link #streamProvider}.
+	 * Sets {@link #maxReadGap}.
+	 *
+	 * @param maxReadGap
+	 *            New value for {@link #maxReadGap}
+	 */
+	public void setMaxReadGap(long maxReadGap) {
+		this.maxReadGap = maxReadGap;
+	}
+
+	/**
+	 * Sets {@link #maxReadSize}.
+	 *
+	 * @param maxReadSize
+	 *            New value for {@link #maxReadSize}
+	 */
+	public void setMaxReadSize(long maxReadSize) {
+		this.maxReadSize = maxReadSize;
+	}
+
+	/**
+	 * Sets {@link #executorService}.
+	 *
+	 * @param executorService
+	 *            New value for {@link #executorService}
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Task that de-serializes the data of the read ranges from the already read bytes.
+	 *
+	 * @author agent
+	 *
+	 * @param <E>
+	 *            Type of the objects are wanted.
+	 */
+	private class DeserializeTask<E extends DefaultData> implements Callable<List<E>> {
+
+		/**
+		 * Read bytes.
+		 */
+		private final byte[] bytes;
+
+		/**
+		 * File position of the first byte.
+		 */
+		private final long bytesPosition;
+
+		/**
+		 * Read ranges of the file.
+		 */
+		private final List<ReadRange> readRanges;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param bytes
+		 *            Read bytes.
+		 * @param bytesPosition
+		 *            File position of the first byte.
+		 * @param readRanges
+		 *            Read ranges of the file.
+		 */
+		DeserializeTask(byte[] bytes, long bytesPosition, List<ReadRange> readRanges) {
+			this.bytes = bytes;
+			this.bytesPosition = bytesPosition;
+			this.readRanges = readRanges;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public List<E> call() throws Exception {
+			return deserialize(bytes, bytes.length, bytesPosition, readRanges);
+		}
+	}
+
+	/**
+	 * Task that reads the read range of the file into a buffer from the given pool and
+	 * de-serializes the data.
+	 *
+	 * @author agent
 	 *
-	 * @param streamProvider
-	 *            New value for {@link #streamProvider}
+	 * @param <E>
+	 *            Type of the objects are wanted.
 	 */
-	public void setStreamProvider(InputStreamProvider streamProvider) {
-		this.streamProvider = streamProvider;
+	private class ReadDeserializeTask<E extends DefaultData> implements Callable<List<E>> {
+
+		/**
+		 * Opened file channel.
+		 */
+		private final FileChannel fileChannel;
+
+		/**
+		 * Range to read.
+		 */
+		private final ReadRange readRange;
+
+		/**
+		 * Buffers available for reuse, shared by the tasks of one read.
+		 */
+		private final Queue<ByteBuffer> readBuffers;
+
+		/**
+		 * Default constructor.
+		 *
+		 * @param fileChannel
+		 *            Opened file channel.
+		 * @param readRange
+		 *            Range to read.
+		 * @param readBuffers
+		 *            Buffers available for reuse, shared by the tasks of one read.
+		 */
+		ReadDeserializeTask(FileChannel fileChannel, ReadRange readRange, Queue<ByteBuffer> readBuffers) {
+			this.fileChannel = fileChannel;
+			this.readRange = readRange;
+			this.readBuffers = readBuffers;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public List<E> call() throws Exception {
+			long size = Math.min(readRange.getSize(), fileChannel.size() - readRange.getStart());
+			if (size <= 0) {
+				return Collections.emptyList();
+			}
+
+			ByteBuffer buffer = readBuffers.poll();
+			if ((null == buffer) || (buffer.capacity() < size)) {
+				buffer = ByteBuffer.allocate((int) Math.max(size, maxReadSize));
+			}
+			try {
+				buffer.clear();
+				buffer.limit((int) size);
+				long position = readRange.getStart();
+				while (buffer.hasRemaining()) {
+					int read = fileChannel.read(buffer, position + buffer.position());
+					if (read < 0) {
+						break;
+					}
+				}
+				return deserialize(buffer.array(), buffer.position(), readRange.getStart(), Collections.singletonList(readRange));
+			} finally {
+				readBuffers.offer(buffer);
+			}
+		}
 	}
 
 	/**
@@ -0,0 +1,30 @@
+package rocks.inspectit.ui.rcp.storage.util;
+
+import java.util.List;
+
+import rocks.inspectit.shared.all.communication.DefaultData;
+
+/**
+ * Consumer of the data that is streamed by the {@link DataRetriever}. The retriever passes the
+ * data in portions as soon as one read range is de-serialized, thus the consumer can process the
+ * data while the rest of the storage data is still being read.
+ * <p>
+ * The consumer is always called in the thread that requested the data from the
+ * {@link DataRetriever}.
+ *
+ * @author agent
+ *
+ * @param <E>
+ *            Type of data being consumed.
+ */
+public interface IDataConsumer<E extends DefaultData> {
+
+	/**
+	 * Consumes one portion of the retrieved data.
+	 *
+	 * @param data
+	 *            De-serialized data.
+	 */
+	void consume(List<E> data);
+
+}
@@ -18,6 +18,16 @@ public final class MultipartEntityUtil {
 	 */
 	private static final String BOUNDARY_KEY = "boundary=";
 
+	/**
+	 * Name of the Content-Range header.
+	 */
+	public static final String CONTENT_RANGE_HEADER = "Content-Range";
+
+	/**
+	 * Unit of the byte ranges in the Content-Range header.
+	 */
+	private static final String BYTES_UNIT = "bytes";
+
 	/**
 	 * Private constructor.
 	 */
@@ -60,4 +70,55 @@ public final class MultipartEntityUtil {
 		return null;
 	}
 
+	/**
+	 * Returns the value of the Content-Range header from the headers of one part of the
+	 * multipart/byteranges response.
+	 *
+	 * @param partHeaders
+	 *            Headers of the part as returned by the multipart stream.
+	 * @return Value of the Content-Range header or <code>null</code> if the headers don't define
+	 *         it.
+	 */
+	public static String getPartContentRange(String partHeaders) {
+		if (null == partHeaders) {
+			return null;
+		}
+		StringTokenizer tokenizer = new StringTokenizer(partHeaders, "\r\n");
+		while (tokenizer.hasMoreTokens()) {
+			String line = tokenizer.nextToken();
+			int colonIndex = line.indexOf(':');
+			if ((colonIndex != -1) && CONTENT_RANGE_HEADER.equalsIgnoreCase(line.substring(0, colonIndex).trim())) {
+				return line.substring(colonIndex + 1).trim();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the first byte position of the Content-Range header value. For example for the
+	 * value <i>bytes 500-999/8000</i> the method returns 500.
+	 *
+	 * @param contentRange
+	 *            Value of the Content-Range header.
+	 * @return First byte position or <code>-1</code> if the value can not be parsed.
+	 */
+	public static long getContentRangeStart(String contentRange) {
+		if (null == contentRange) {
+			return -1;
+		}
+		String range = contentRange.trim();
+		if (range.startsWith(BYTES_UNIT)) {
+			range = range.substring(BYTES_UNIT.length()).trim();
+		}
+		int dashIndex = range.indexOf('-');
+		if (dashIndex <= 0) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(range.substring(0, dashIndex).trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
 }